@@ -258,6 +258,11 @@ impl<W: Write> FileWriter<W> {
         self.writer
     }
 
+    /// Returns a mutable reference to the underlying writer.
+    pub fn inner_mut(&mut self) -> &mut W {
+        &mut self.writer
+    }
+
     /// Returns the underlying writer and [`ThriftFileMetaData`]
     /// # Panics
     /// This function panics if [`Self::end`] has not yet been called
@@ -97,6 +97,81 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
     buffer as *const ColumnChunkBuffers
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_rowGroupSize(
+    mut env: JNIEnv,
+    _class: JClass,
+    decoder: *const ParquetDecoder,
+    row_group: i32,
+) -> usize {
+    assert!(!decoder.is_null(), "decoder pointer is null");
+    let decoder = unsafe { &*decoder };
+
+    match decoder.row_group_size(row_group as usize) {
+        Some(size) => size,
+        None => {
+            throw_java_ex::<u8>(
+                &mut env,
+                "rowGroupSize",
+                &format!(
+                    "row group index {} out of range [0,{})",
+                    row_group, decoder.row_group_count
+                ),
+            );
+            0
+        }
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_rowGroupMinMax(
+    mut env: JNIEnv,
+    _class: JClass,
+    decoder: *const ParquetDecoder,
+    row_group: i32,
+    column: i32,
+    out: *mut i64,
+) -> bool {
+    assert!(!decoder.is_null(), "decoder pointer is null");
+    assert!(!out.is_null(), "out pointer is null");
+    let decoder = unsafe { &*decoder };
+
+    if column < 0
+        || column as usize >= decoder.columns.len()
+        || row_group < 0
+        || row_group >= decoder.row_group_count
+    {
+        throw_java_ex::<u8>(
+            &mut env,
+            "rowGroupMinMax",
+            &format!(
+                "row group {} or column {} out of range [{},{})",
+                row_group,
+                column,
+                decoder.row_group_count,
+                decoder.columns.len()
+            ),
+        );
+        return false;
+    }
+
+    match decoder.row_group_min_max(row_group as usize, column as usize) {
+        Ok(Some((min, max, null_count))) => {
+            unsafe {
+                *out = min;
+                *out.add(1) = max;
+                *out.add(2) = null_count;
+            }
+            true
+        }
+        Ok(None) => false,
+        Err(err) => {
+            throw_java_ex::<u8>(&mut env, "rowGroupMinMax", &err);
+            false
+        }
+    }
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_columnCountOffset(
     _env: JNIEnv,
@@ -185,6 +260,22 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
     offset_of!(ColumnChunkBuffers, aux_ptr)
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkDataSizeOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkBuffers, data_size)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkAuxSizeOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkBuffers, aux_size)
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkRowGroupCountPtrOffset(
     _env: JNIEnv,
@@ -7,6 +7,7 @@ use parquet2::schema::types::PrimitiveLogicalType::{Timestamp, Uuid};
 use parquet2::schema::types::{
     IntegerType, PhysicalType, PrimitiveConvertedType, PrimitiveLogicalType, TimeUnit,
 };
+use parquet2::statistics::{PrimitiveStatistics, Statistics};
 use std::collections::HashMap;
 use std::fs::File;
 
@@ -60,6 +61,79 @@ impl ParquetDecoder {
         Ok(decoder)
     }
 
+    pub fn row_group_size(&self, row_group: usize) -> Option<usize> {
+        self.metadata
+            .row_groups
+            .get(row_group)
+            .map(|row_group| row_group.num_rows())
+    }
+
+    /// Returns min and max values of the column chunk along with its null count,
+    /// or -1 when the null count is unknown. The values are returned only when
+    /// they can be compared with the decoded column values as-is, i.e. for
+    /// integer and time columns stored in the QuestDB units.
+    pub fn row_group_min_max(
+        &self,
+        row_group: usize,
+        column: usize,
+    ) -> anyhow::Result<Option<(i64, i64, i64)>> {
+        let column_meta = &self.columns[column];
+        let chunk = &self.metadata.row_groups[row_group].columns()[column_meta.id as usize];
+        let stats = match chunk.statistics() {
+            Some(stats) => stats?,
+            None => return Ok(None),
+        };
+        let primitive_type = &chunk.descriptor().descriptor.primitive_type;
+        let min_max = match (
+            primitive_type.physical_type,
+            primitive_type.logical_type,
+            column_meta.typ,
+        ) {
+            (
+                PhysicalType::Int32,
+                None
+                | Some(PrimitiveLogicalType::Integer(
+                    IntegerType::Int8 | IntegerType::Int16 | IntegerType::Int32,
+                )),
+                ColumnType::Byte | ColumnType::Short | ColumnType::Int,
+            ) => Self::min_max::<i32>(stats.as_ref()),
+            (
+                PhysicalType::Int64,
+                None | Some(PrimitiveLogicalType::Integer(IntegerType::Int64)),
+                ColumnType::Long | ColumnType::Timestamp | ColumnType::Date,
+            )
+            | (
+                PhysicalType::Int64,
+                Some(PrimitiveLogicalType::Timestamp {
+                    unit: TimeUnit::Microseconds,
+                    ..
+                }),
+                ColumnType::Timestamp,
+            )
+            | (
+                PhysicalType::Int64,
+                Some(PrimitiveLogicalType::Timestamp {
+                    unit: TimeUnit::Milliseconds,
+                    ..
+                }),
+                ColumnType::Date,
+            ) => Self::min_max::<i64>(stats.as_ref()),
+            _ => None,
+        };
+        Ok(min_max.map(|(min, max)| (min, max, stats.null_count().unwrap_or(-1))))
+    }
+
+    fn min_max<T>(stats: &dyn Statistics) -> Option<(i64, i64)>
+    where
+        T: parquet2::types::NativeType + Into<i64>,
+    {
+        let stats = stats.as_any().downcast_ref::<PrimitiveStatistics<T>>()?;
+        match (stats.min_value, stats.max_value) {
+            (Some(min), Some(max)) => Some((min.into(), max.into())),
+            _ => None,
+        }
+    }
+
     fn descriptor_to_column_type(
         des: &Descriptor,
         additional_meta: &Option<HashMap<String, Option<String>>>,
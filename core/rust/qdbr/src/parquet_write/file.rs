@@ -222,6 +222,12 @@ impl<W: Write> ChunkedWriter<W> {
         let size = self.writer.end(additional_meta)?;
         Ok(size)
     }
+
+    /// Returns a mutable reference to the underlying writer, e.g. to drain an in-memory
+    /// buffer between chunks.
+    pub fn inner_mut(&mut self) -> &mut W {
+        self.writer.inner_mut()
+    }
 }
 
 struct CompressedPages {
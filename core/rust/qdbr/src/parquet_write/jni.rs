@@ -7,11 +7,11 @@ use jni::objects::JClass;
 use jni::sys::{jboolean, jint, jlong};
 use jni::JNIEnv;
 use parquet2::compression::{BrotliLevel, CompressionOptions, GzipLevel, ZstdLevel};
-use parquet2::metadata::SortingColumn;
+use parquet2::metadata::{KeyValue, SortingColumn};
 use parquet2::write::Version;
 
-use crate::parquet_write::file::ParquetWriter;
-use crate::parquet_write::schema::{Column, Partition};
+use crate::parquet_write::file::{ChunkedWriter, ParquetWriter};
+use crate::parquet_write::schema::{to_parquet_schema_from_types, Column, Partition};
 use crate::parquet_write::ParquetError;
 
 fn read_utf8_encoded_string_list(
@@ -75,61 +75,26 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
         let col_tops = unsafe { slice::from_raw_parts(col_tops_ptr, col_count) };
         let col_ids = unsafe { slice::from_raw_parts(col_ids_ptr, col_count) };
 
-        let primary_col_addrs_slice =
-            unsafe { slice::from_raw_parts(primary_col_addrs_ptr, col_count) };
-        let primary_col_sizes_slice =
-            unsafe { slice::from_raw_parts(primary_col_sizes_ptr, col_count) };
-
-        let secondary_col_addrs_slice =
-            unsafe { slice::from_raw_parts(secondary_col_addrs_ptr, col_count) };
-        let secondary_col_sizes_slice =
-            unsafe { slice::from_raw_parts(secondary_col_sizes_ptr, col_count) };
-
-        let symbol_offsets_addrs_slice =
-            unsafe { slice::from_raw_parts(symbol_offsets_addrs_ptr, col_count) };
-        let symbol_offsets_sizes_slice =
-            unsafe { slice::from_raw_parts(symbol_offsets_sizes_ptr, col_count) };
-
         let dest_path = unsafe {
             std::str::from_utf8_unchecked(slice::from_raw_parts(dest_path, dest_path_len as usize))
         };
 
         let dest_path = Path::new(&dest_path);
 
-        let row_count = row_count as usize;
-
-        let mut columns = vec![];
-        for i in 0..col_count {
-            let col_id = col_ids[i];
-            let col_name = col_names[i];
-            let col_type = col_types[i];
-            let col_top = col_tops[i];
-
-            let primary_col_addr = primary_col_addrs_slice[i];
-            let primary_col_size = primary_col_sizes_slice[i];
-
-            let secondary_col_addr = secondary_col_addrs_slice[i];
-            let secondary_col_size = secondary_col_sizes_slice[i];
-
-            let symbol_offsets_addr = symbol_offsets_addrs_slice[i];
-            let symbol_offsets_size = symbol_offsets_sizes_slice[i];
-
-            let column = Column::from_raw_data(
-                col_id,
-                col_name,
-                col_type,
-                col_top,
-                row_count,
-                primary_col_addr,
-                primary_col_size as usize,
-                secondary_col_addr,
-                secondary_col_size as usize,
-                symbol_offsets_addr,
-                symbol_offsets_size as usize,
-            )?;
-
-            columns.push(column);
-        }
+        let columns = read_columns(
+            col_count,
+            &col_names,
+            col_types,
+            col_ids,
+            col_tops,
+            primary_col_addrs_ptr,
+            primary_col_sizes_ptr,
+            secondary_col_addrs_ptr,
+            secondary_col_sizes_ptr,
+            symbol_offsets_addrs_ptr,
+            symbol_offsets_sizes_ptr,
+            row_count as usize,
+        )?;
 
         let table = unsafe {
             std::str::from_utf8_unchecked(slice::from_raw_parts(
@@ -143,16 +108,8 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
         let compression_options =
             compression_from_i64(compression_codec).context("CompressionCodec")?;
         let statistics_enabled = statistics_enabled != 0;
-        let row_group_size = if row_group_size > 0 {
-            Some(row_group_size as usize)
-        } else {
-            None
-        };
-        let data_page_size = if data_page_size > 0 {
-            Some(data_page_size as usize)
-        } else {
-            None
-        };
+        let row_group_size = optional_size(row_group_size);
+        let data_page_size = optional_size(data_page_size);
 
         let version = version_from_i32(version).context("Version")?;
 
@@ -163,11 +120,7 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
             )
         })?;
 
-        let sorting_columns = if timestamp_index != -1 {
-            Some(vec![SortingColumn::new(timestamp_index, false, false)])
-        } else {
-            None
-        };
+        let sorting_columns = sorting_columns(timestamp_index);
 
         ParquetWriter::new(&mut file)
             .with_version(version)
@@ -181,26 +134,283 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
             .context("ParquetWriter::finish failed")
     };
 
-    match encode() {
-        Ok(_) => (),
-        Err(err) => {
-            if let Some(jni_err) = err.downcast_ref::<jni::errors::Error>() {
-                match jni_err {
-                    jni::errors::Error::JavaException => {
-                        // Already thrown.
-                    }
-                    _ => {
-                        let msg = format!("Failed to encode partition: {:?}", jni_err);
-                        env.throw_new("java/lang/RuntimeException", msg)
-                            .expect("failed to throw exception");
-                    }
-                }
-            } else {
-                let msg = format!("Failed to encode partition: {:?}", err);
+    if let Err(err) = encode() {
+        throw_encode_error(&mut env, err);
+    }
+}
+
+#[allow(clippy::too_many_arguments)]
+fn read_columns(
+    col_count: usize,
+    col_names: &[&'static str],
+    col_types: &[i32],
+    col_ids: &[i32],
+    col_tops: &[i64],
+    primary_col_addrs_ptr: *const *const u8,
+    primary_col_sizes_ptr: *const i64,
+    secondary_col_addrs_ptr: *const *const u8,
+    secondary_col_sizes_ptr: *const i64,
+    symbol_offsets_addrs_ptr: *const *const u64,
+    symbol_offsets_sizes_ptr: *const i64,
+    row_count: usize,
+) -> anyhow::Result<Vec<Column>> {
+    let primary_col_addrs_slice =
+        unsafe { slice::from_raw_parts(primary_col_addrs_ptr, col_count) };
+    let primary_col_sizes_slice =
+        unsafe { slice::from_raw_parts(primary_col_sizes_ptr, col_count) };
+
+    let secondary_col_addrs_slice =
+        unsafe { slice::from_raw_parts(secondary_col_addrs_ptr, col_count) };
+    let secondary_col_sizes_slice =
+        unsafe { slice::from_raw_parts(secondary_col_sizes_ptr, col_count) };
+
+    let symbol_offsets_addrs_slice =
+        unsafe { slice::from_raw_parts(symbol_offsets_addrs_ptr, col_count) };
+    let symbol_offsets_sizes_slice =
+        unsafe { slice::from_raw_parts(symbol_offsets_sizes_ptr, col_count) };
+
+    let mut columns = vec![];
+    for i in 0..col_count {
+        let column = Column::from_raw_data(
+            col_ids[i],
+            col_names[i],
+            col_types[i],
+            col_tops[i],
+            row_count,
+            primary_col_addrs_slice[i],
+            primary_col_sizes_slice[i] as usize,
+            secondary_col_addrs_slice[i],
+            secondary_col_sizes_slice[i] as usize,
+            symbol_offsets_addrs_slice[i],
+            symbol_offsets_sizes_slice[i] as usize,
+        )?;
+        columns.push(column);
+    }
+    Ok(columns)
+}
+
+fn optional_size(size: jlong) -> Option<usize> {
+    if size > 0 {
+        Some(size as usize)
+    } else {
+        None
+    }
+}
+
+fn sorting_columns(timestamp_index: jint) -> Option<Vec<SortingColumn>> {
+    if timestamp_index != -1 {
+        Some(vec![SortingColumn::new(timestamp_index, false, false)])
+    } else {
+        None
+    }
+}
+
+fn throw_encode_error(env: &mut JNIEnv, err: anyhow::Error) {
+    if let Some(jni_err) = err.downcast_ref::<jni::errors::Error>() {
+        match jni_err {
+            jni::errors::Error::JavaException => {
+                // Already thrown.
+            }
+            _ => {
+                let msg = format!("Failed to encode partition: {:?}", jni_err);
                 env.throw_new("java/lang/RuntimeException", msg)
                     .expect("failed to throw exception");
             }
         }
+    } else {
+        let msg = format!("Failed to encode partition: {:?}", err);
+        env.throw_new("java/lang/RuntimeException", msg)
+            .expect("failed to throw exception");
+    }
+}
+
+/// Encoder that writes a parquet file into an in-memory buffer chunk by chunk.
+/// The Java side drains the buffer after each call, so memory is bounded by
+/// a single row group plus the footer metadata.
+pub struct StreamingEncoder {
+    writer: ChunkedWriter<Vec<u8>>,
+    additional_meta: Vec<KeyValue>,
+    col_types: Vec<i32>,
+    col_ids: Vec<i32>,
+    col_names: Vec<&'static str>,
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_createStreamingEncoder(
+    mut env: JNIEnv,
+    _class: JClass,
+    table_name_ptr: *const u8,
+    table_name_size: jint,
+    col_count: jint,
+    col_names: *const u8,
+    col_names_len: i32,
+    col_name_sizes_ptr: *const i32,
+    col_types_ptr: *const i32,
+    col_ids_ptr: *const i32,
+    timestamp_index: jint,
+    compression_codec: jlong,
+    statistics_enabled: jboolean,
+    row_group_size: jlong,
+    data_page_size: jlong,
+    version: jint,
+) -> *mut StreamingEncoder {
+    let create = || -> anyhow::Result<*mut StreamingEncoder> {
+        let col_count = col_count as usize;
+        let col_names = read_utf8_encoded_string_list(
+            col_count,
+            col_names,
+            col_names_len as usize,
+            col_name_sizes_ptr,
+        );
+        let col_types = unsafe { slice::from_raw_parts(col_types_ptr, col_count) };
+        let col_ids = unsafe { slice::from_raw_parts(col_ids_ptr, col_count) };
+        let table = unsafe {
+            std::str::from_utf8_unchecked(slice::from_raw_parts(
+                table_name_ptr,
+                table_name_size as usize,
+            ))
+        };
+
+        let (schema, additional_meta, encodings) =
+            to_parquet_schema_from_types(table, col_ids, &col_names, col_types)?;
+
+        let compression_options =
+            compression_from_i64(compression_codec).context("CompressionCodec")?;
+        let version = version_from_i32(version).context("Version")?;
+
+        let writer = ParquetWriter::new(Vec::new())
+            .with_version(version)
+            .with_compression(compression_options)
+            .with_statistics(statistics_enabled != 0)
+            .with_row_group_size(optional_size(row_group_size))
+            .with_data_page_size(optional_size(data_page_size))
+            .with_sorting_columns(sorting_columns(timestamp_index))
+            .chunked(schema, encodings)?;
+
+        // Column data passed with each chunk does not carry names, they are only needed
+        // for the schema, so empty names are used in chunk partitions.
+        Ok(Box::into_raw(Box::new(StreamingEncoder {
+            writer,
+            additional_meta,
+            col_types: col_types.to_vec(),
+            col_ids: col_ids.to_vec(),
+            col_names: vec![""; col_count],
+        })))
+    };
+
+    match create() {
+        Ok(encoder) => encoder,
+        Err(err) => {
+            throw_encode_error(&mut env, err);
+            std::ptr::null_mut()
+        }
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_encodeStreamingChunk(
+    mut env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+    col_tops_ptr: *const i64,
+    primary_col_addrs_ptr: *const *const u8,
+    primary_col_sizes_ptr: *const i64,
+    secondary_col_addrs_ptr: *const *const u8,
+    secondary_col_sizes_ptr: *const i64,
+    symbol_offsets_addrs_ptr: *const *const u64,
+    symbol_offsets_sizes_ptr: *const i64,
+    row_count: jlong,
+) {
+    assert!(!encoder.is_null(), "encoder pointer is null");
+    let encoder = unsafe { &mut *encoder };
+    let mut encode = || -> anyhow::Result<()> {
+        let col_count = encoder.col_types.len();
+        let col_tops = unsafe { slice::from_raw_parts(col_tops_ptr, col_count) };
+        let columns = read_columns(
+            col_count,
+            &encoder.col_names,
+            &encoder.col_types,
+            &encoder.col_ids,
+            col_tops,
+            primary_col_addrs_ptr,
+            primary_col_sizes_ptr,
+            secondary_col_addrs_ptr,
+            secondary_col_sizes_ptr,
+            symbol_offsets_addrs_ptr,
+            symbol_offsets_sizes_ptr,
+            row_count as usize,
+        )?;
+        let partition = Partition { table: String::new(), columns };
+        encoder
+            .writer
+            .write_chunk(partition)
+            .context("ChunkedWriter::write_chunk failed")
+    };
+
+    if let Err(err) = encode() {
+        throw_encode_error(&mut env, err);
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_finishStreamingEncoder0(
+    mut env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+) {
+    assert!(!encoder.is_null(), "encoder pointer is null");
+    let encoder = unsafe { &mut *encoder };
+    let additional_meta = std::mem::take(&mut encoder.additional_meta);
+    if let Err(err) = encoder
+        .writer
+        .finish(additional_meta)
+        .context("ChunkedWriter::finish failed")
+    {
+        throw_encode_error(&mut env, err);
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_getStreamingBufferAddress(
+    _env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+) -> *const u8 {
+    assert!(!encoder.is_null(), "encoder pointer is null");
+    let encoder = unsafe { &mut *encoder };
+    encoder.writer.inner_mut().as_ptr()
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_getStreamingBufferSize(
+    _env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+) -> jlong {
+    assert!(!encoder.is_null(), "encoder pointer is null");
+    let encoder = unsafe { &mut *encoder };
+    encoder.writer.inner_mut().len() as jlong
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_clearStreamingBuffer(
+    _env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+) {
+    assert!(!encoder.is_null(), "encoder pointer is null");
+    let encoder = unsafe { &mut *encoder };
+    encoder.writer.inner_mut().clear();
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEncoder_closeStreamingEncoder(
+    _env: JNIEnv,
+    _class: JClass,
+    encoder: *mut StreamingEncoder,
+) {
+    if !encoder.is_null() {
+        drop(unsafe { Box::from_raw(encoder) });
     }
 }
 
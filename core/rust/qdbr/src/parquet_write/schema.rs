@@ -357,6 +357,35 @@ pub fn to_parquet_schema(
     ))
 }
 
+/// Same as [`to_parquet_schema`] and [`to_encodings`] combined, but built from column
+/// ids, names and types alone, before any column data is available.
+pub fn to_parquet_schema_from_types(
+    table: &str,
+    col_ids: &[i32],
+    col_names: &[&str],
+    col_types: &[i32],
+) -> ParquetResult<(SchemaDescriptor, Vec<KeyValue>, Vec<Encoding>)> {
+    let mut parquet_types = Vec::with_capacity(col_types.len());
+    let mut additional_keyvals = Vec::with_capacity(col_types.len());
+    let mut encodings = Vec::with_capacity(col_types.len());
+    for ((&id, &name), &full_column_type) in col_ids.iter().zip(col_names).zip(col_types) {
+        let data_type: ColumnType = full_column_type
+            .try_into()
+            .map_err(ParquetError::InvalidParameter)?;
+        parquet_types.push(column_type_to_parquet_type(id, name, data_type)?);
+        additional_keyvals.push(KeyValue::new(
+            format!("{}{}", QDB_TYPE_META_PREFIX, id),
+            full_column_type.to_string(),
+        ));
+        encodings.push(encoding_map(data_type));
+    }
+    Ok((
+        SchemaDescriptor::new(table.to_string(), parquet_types),
+        additional_keyvals,
+        encodings,
+    ))
+}
+
 pub fn to_encodings(partition: &Partition) -> Vec<Encoding> {
     partition
         .columns
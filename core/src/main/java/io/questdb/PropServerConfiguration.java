@@ -118,6 +118,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int columnPurgeTaskPoolCapacity;
     private final int commitMode;
     private final TimestampFormatCompiler compiler = new TimestampFormatCompiler();
+    private final long compressedBlockCacheSize;
     private final String confRoot;
     private final boolean configReloadEnabled;
     private final int connectionPoolInitialCapacity;
@@ -293,6 +294,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlGroupByAllocatorMaxChunkSize;
     private final int sqlGroupByMapCapacity;
     private final int sqlGroupByPoolCapacity;
+    private final long sqlGroupBySpillMemoryBudget;
     private final int sqlHashJoinLightValueMaxPages;
     private final int sqlHashJoinLightValuePageSize;
     private final int sqlHashJoinValueMaxPages;
@@ -319,10 +321,16 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlOrderByRadixSortThreshold;
     private final boolean sqlOrderBySortEnabled;
     private final int sqlPageFrameMaxRows;
+    private final long sqlPageFramePrefetchBudget;
+    private final int sqlPageFramePrefetchFrames;
     private final int sqlPageFrameMinRows;
+    private final boolean sqlParallelAsOfJoinEnabled;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelOrderByEnabled;
+    private final boolean sqlParallelWindowEnabled;
     private final int sqlParallelWorkStealingThreshold;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
@@ -334,6 +342,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlSortKeyPageSize;
     private final int sqlSortLightValueMaxPages;
     private final long sqlSortLightValuePageSize;
+    private final long sqlSortSpillMemoryBudget;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
     private final int sqlStrFunctionBufferMaxSize;
@@ -373,6 +382,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
     private final boolean walApplyEnabled;
     private final int walApplyLookAheadTransactionCount;
+    private final long walApplyMaxWaitTime;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
     private final long walApplySleepTimeout;
     private final long walApplyTableTimeQuota;
@@ -406,8 +416,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerDataIndexValueAppendPageSize;
     private final long writerFileOpenOpts;
     private final long writerMiscAppendPageSize;
+    private final boolean writerIOURingEnabled;
     private final boolean writerMixedIOEnabled;
     private final int writerTickRowsCountMod;
+    private final int zoneMapBlockRows;
+    private final boolean zoneMapEnabled;
     protected HttpMinServerConfiguration httpMinServerConfiguration = new PropHttpMinServerConfiguration();
     protected HttpServerConfiguration httpServerConfiguration = new PropHttpServerConfiguration();
     protected JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
@@ -466,7 +479,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNetConnectionRcvBuf;
     private long lineTcpNetConnectionTimeout;
     private LineTcpTimestampAdapter lineTcpTimestampAdapter;
+    private double lineTcpWriterMaxLoadRatio;
     private int lineTcpWriterQueueCapacity;
+    private long lineTcpWriterRebalanceInterval;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private long lineTcpWriterWorkerNapThreshold;
@@ -626,6 +641,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walMaxSegmentFileDescriptorsCache = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE, 30);
         this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
+        this.walApplyMaxWaitTime = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_MAX_WAIT_TIME, 10_000);
         this.tableTypeConversionEnabled = getBoolean(properties, env, PropertyKey.TABLE_TYPE_CONVERSION_ENABLED, true);
         this.tempRenamePendingTablePrefix = getString(properties, env, PropertyKey.CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX, "temp_5822f658-31f6-11ee-be56-0242ac120002");
         this.sequencerCheckInterval = getLong(properties, env, PropertyKey.CAIRO_WAL_SEQUENCER_CHECK_INTERVAL, 10_000);
@@ -989,6 +1005,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.walApplyWorkerYieldThreshold = getLong(properties, env, PropertyKey.WAL_APPLY_WORKER_YIELD_THRESHOLD, 1000);
 
             this.commitMode = getCommitMode(properties, env, PropertyKey.CAIRO_COMMIT_MODE);
+            this.compressedBlockCacheSize = getLongSize(properties, env, PropertyKey.CAIRO_COMPRESSED_BLOCK_CACHE_SIZE, Numbers.SIZE_1MB);
             this.createAsSelectRetryCount = getInt(properties, env, PropertyKey.CAIRO_CREATE_AS_SELECT_RETRY_COUNT, 5);
             this.defaultSymbolCacheFlag = getBoolean(properties, env, PropertyKey.CAIRO_DEFAULT_SYMBOL_CACHE_FLAG, true);
             this.defaultSymbolCapacity = getInt(properties, env, PropertyKey.CAIRO_DEFAULT_SYMBOL_CAPACITY, 256);
@@ -1032,6 +1049,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.useFastAsOfJoin = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_FAST, true);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortSpillMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 0);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
@@ -1075,6 +1093,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlGroupByAllocatorChunkSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_ALLOCATOR_DEFAULT_CHUNK_SIZE, 128 * 1024);
             this.sqlGroupByAllocatorMaxChunkSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_ALLOCATOR_MAX_CHUNK_SIZE, 4 * Numbers.SIZE_1GB);
             this.sqlGroupByPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_POOL_CAPACITY, 1024);
+            this.sqlGroupBySpillMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 0);
             this.sqlMaxSymbolNotEqualsCount = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_SYMBOL_NOT_EQUALS_COUNT, 100);
             this.sqlBindVariablePoolSize = getInt(properties, env, PropertyKey.CAIRO_SQL_BIND_VARIABLE_POOL_SIZE, 8);
             this.sqlQueryRegistryPoolSize = getInt(properties, env, PropertyKey.CAIRO_SQL_QUERY_REGISTRY_POOL_SIZE, 32);
@@ -1090,6 +1109,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, "0.5");
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 100_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlPageFramePrefetchFrames = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 4);
+            this.sqlPageFramePrefetchBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUDGET, 64 * Numbers.SIZE_1MB);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -1189,6 +1210,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.telemetryHideTables = getBoolean(properties, env, PropertyKey.TELEMETRY_HIDE_TABLES, true);
             this.o3PartitionPurgeListCapacity = getInt(properties, env, PropertyKey.CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY, 1);
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
+            this.writerIOURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WRITER_IO_URING_ENABLED, false);
+            this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+            this.zoneMapBlockRows = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, 65536));
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
             this.o3LastPartitionMaxSplits = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_O3_LAST_PARTITION_MAX_SPLITS, 20));
             this.o3PartitionSplitMinSize = getLongSize(properties, env, PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 50 * Numbers.SIZE_1MB);
@@ -1264,6 +1288,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpIOWorkerNapThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_NAP_THRESHOLD, 7_000);
                 this.lineTcpIOWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_SLEEP_THRESHOLD, 10_000);
                 this.lineTcpMaintenanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_MAINTENANCE_JOB_INTERVAL, 1000);
+                this.lineTcpWriterRebalanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_INTERVAL, 10_000);
+                this.lineTcpWriterMaxLoadRatio = getDouble(properties, env, PropertyKey.LINE_TCP_WRITER_MAX_LOAD_RATIO, "1.9");
                 this.lineTcpCommitIntervalFraction = getDouble(properties, env, PropertyKey.LINE_TCP_COMMIT_INTERVAL_FRACTION, "0.5");
                 this.lineTcpCommitIntervalDefault = getLong(properties, env, PropertyKey.LINE_TCP_COMMIT_INTERVAL_DEFAULT, COMMIT_INTERVAL_DEFAULT);
                 if (this.lineTcpCommitIntervalDefault < 1L) {
@@ -1350,8 +1376,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlCopyModelPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_COPY_MODEL_POOL_CAPACITY, 32);
 
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
+            this.sqlParallelAsOfJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelOrderByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelWindowEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelWorkStealingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 16);
             this.sqlOrderBySortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_SORT_ENABLED, true);
             this.sqlOrderByRadixSortThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_RADIX_SORT_THRESHOLD, 600);
@@ -2140,6 +2170,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return commitMode;
         }
 
+        @Override
+        public long getCompressedBlockCacheSize() {
+            return compressedBlockCacheSize;
+        }
+
         @Override
         public @NotNull CharSequence getConfRoot() {
             return confRoot;
@@ -2308,6 +2343,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return cairoGroupByShardingThreshold;
         }
 
+        @Override
+        public long getGroupBySpillMemoryBudget() {
+            return sqlGroupBySpillMemoryBudget;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2753,6 +2793,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public long getSqlPageFramePrefetchBudget() {
+            return sqlPageFramePrefetchBudget;
+        }
+
+        @Override
+        public int getSqlPageFramePrefetchFrames() {
+            return sqlPageFramePrefetchFrames;
+        }
+
         @Override
         public int getSqlParallelWorkStealingThreshold() {
             return sqlParallelWorkStealingThreshold;
@@ -2788,6 +2838,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortSpillMemoryBudget() {
+            return sqlSortSpillMemoryBudget;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2917,6 +2972,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyLookAheadTransactionCount;
         }
 
+        @Override
+        public long getWalApplyMaxWaitTime() {
+            return walApplyMaxWaitTime;
+        }
+
         @Override
         public long getWalApplyTableTimeQuota() {
             return walApplyTableTimeQuota;
@@ -3037,6 +3097,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerTickRowsCountMod;
         }
 
+        @Override
+        public int getZoneMapBlockRows() {
+            return zoneMapBlockRows;
+        }
+
         @Override
         public boolean isCheckpointRecoveryEnabled() {
             return checkpointRecoveryEnabled;
@@ -3087,6 +3152,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlOrderBySortEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelAsOfJoinEnabled() {
+            return sqlParallelAsOfJoinEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -3102,6 +3172,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelOrderByEnabled() {
+            return sqlParallelOrderByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelWindowEnabled() {
+            return sqlParallelWindowEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -3116,11 +3201,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walSupported;
         }
 
+        @Override
+        public boolean isWriterIOURingEnabled() {
+            return writerIOURingEnabled;
+        }
+
         @Override
         public boolean isWriterMixedIOEnabled() {
             return writerMixedIOEnabled;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
@@ -3873,11 +3968,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return minIdleMsBeforeWriterRelease;
         }
 
+        @Override
+        public double getWriterMaxLoadRatio() {
+            return lineTcpWriterMaxLoadRatio;
+        }
+
         @Override
         public int getWriterQueueCapacity() {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return lineTcpWriterRebalanceInterval;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
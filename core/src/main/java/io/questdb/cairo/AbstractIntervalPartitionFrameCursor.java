@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.PartitionFrame;
 import io.questdb.cairo.sql.PartitionFrameCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -66,6 +67,9 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
     }
 
     public static long binarySearch(MemoryR column, long value, long low, long high, int scanDir) {
+        if (column instanceof MemoryCMRCompressedImpl) {
+            return ((MemoryCMRCompressedImpl) column).binarySearch64Bit(value, low, high, scanDir);
+        }
         return Vect.binarySearch64Bit(column.getPageAddress(0), value, low, high, scanDir);
     }
 
@@ -25,5 +25,5 @@
 package io.questdb.cairo;
 
 public class AlterTableUtils {
-    public static final String ALTER_TABLE_EXPECTED_TOKEN_DESCR = "'add', 'alter', 'attach', 'detach', 'drop', 'convert', 'resume', 'rename', 'set' or 'squash'";
+    public static final String ALTER_TABLE_EXPECTED_TOKEN_DESCR = "'add', 'alter', 'attach', 'compress', 'detach', 'drop', 'convert', 'resume', 'rename', 'set' or 'squash'";
 }
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Reads bloom filters written by {@link BloomFilterWriter}. Bloom filter files are mapped on
+ * demand and unmapped straight away, so that they can be removed or replaced by the writer at any time.
+ */
+public class BloomFilterReader implements QuietCloseable {
+    private static final long BUF_SIZE = BloomFilterWriter.HEADER_SIZE + BloomFilterWriter.HASH_COUNT * Long.BYTES;
+    private final FilesFacade ff;
+    private long buf;
+
+    public BloomFilterReader(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void close() {
+        buf = Unsafe.free(buf, BUF_SIZE, MemoryTag.NATIVE_TABLE_READER);
+    }
+
+    /**
+     * Checks whether none of the given rows can hold a key with the given hash. Returns false
+     * when there is no bloom filter or when the bloom filter does not cover all the rows.
+     *
+     * @param path              bloom filter file path
+     * @param partitionRowCount partition row count visible to the caller
+     * @param rowLo             first row, inclusive
+     * @param rowHi             last row, exclusive
+     * @param hash              key hash, see {@link BloomFilterWriter#hashLong(long)} and friends
+     * @return true if the key is definitely absent in the rows
+     */
+    public boolean excludes(LPSZ path, long partitionRowCount, long rowLo, long rowHi, long hash) {
+        if (rowLo >= rowHi) {
+            return false;
+        }
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        long addr = 0;
+        long size = 0;
+        try {
+            if (buf == 0) {
+                buf = Unsafe.malloc(BUF_SIZE, MemoryTag.NATIVE_TABLE_READER);
+            }
+            if (ff.read(fd, buf, BloomFilterWriter.HEADER_SIZE, 0) != BloomFilterWriter.HEADER_SIZE) {
+                return false;
+            }
+            final long blockRows = Unsafe.getUnsafe().getLong(buf + BloomFilterWriter.OFFSET_BLOCK_ROWS);
+            final long blockCount = Unsafe.getUnsafe().getLong(buf + BloomFilterWriter.OFFSET_BLOCK_COUNT);
+            final long blockSize = Unsafe.getUnsafe().getLong(buf + BloomFilterWriter.OFFSET_BLOCK_SIZE);
+            if (blockRows < 1 || blockSize < Long.BYTES) {
+                return false;
+            }
+            // blocks beyond the visible rows may describe data this reader does not see
+            final long usableBlockCount = Math.min(blockCount, partitionRowCount / blockRows);
+            final long blockLo = rowLo / blockRows;
+            final long blockHi = (rowHi - 1) / blockRows + 1;
+            if (blockHi > usableBlockCount) {
+                return false;
+            }
+
+            size = BloomFilterWriter.HEADER_SIZE + blockHi * blockSize;
+            if (ff.length(fd) < size) {
+                return false;
+            }
+            addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_READER);
+            final long bits = buf + BloomFilterWriter.HEADER_SIZE;
+            BloomFilterWriter.toBitPositions(hash, blockSize * Byte.SIZE, bits);
+            for (long block = blockLo; block < blockHi; block++) {
+                if (mightContain(addr + BloomFilterWriter.HEADER_SIZE + block * blockSize, bits)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            if (addr != 0) {
+                ff.munmap(addr, size, MemoryTag.MMAP_TABLE_READER);
+            }
+            ff.close(fd);
+        }
+    }
+
+    private static boolean mightContain(long filter, long bits) {
+        for (int i = 0; i < BloomFilterWriter.HASH_COUNT; i++) {
+            final long bit = Unsafe.getUnsafe().getLong(bits + (long) i * Long.BYTES);
+            if ((Unsafe.getUnsafe().getLong(filter + ((bit >>> 6) << 3)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
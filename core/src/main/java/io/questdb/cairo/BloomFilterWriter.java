@@ -0,0 +1,337 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Hash;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+
+/**
+ * Maintains bloom filters of the columns declared with <code>INDEX(column TYPE BLOOM)</code>.
+ * There is a filter per complete block of partition rows, so that equality lookups on
+ * high-cardinality keys skip the partitions and page frames that can't contain the key.
+ * <p>
+ * File layout:
+ * <pre>
+ * | rows per block (long) | block count (long) | block size (long) | block filter bits | block filter bits | ...
+ * </pre>
+ * Each block filter takes {@link #BITS_PER_ROW} bits per row, which keeps false positive rate
+ * at around 1% with {@link #HASH_COUNT} hash functions. Rows above the column top are not
+ * added. The block count is written after the blocks, so that concurrent readers never see
+ * incomplete blocks.
+ */
+public class BloomFilterWriter implements QuietCloseable {
+    public static final int BITS_PER_ROW = 10;
+    public static final int HASH_COUNT = 7;
+    public static final long HEADER_SIZE = 3 * Long.BYTES;
+    public static final long OFFSET_BLOCK_COUNT = Long.BYTES;
+    public static final long OFFSET_BLOCK_ROWS = 0;
+    public static final long OFFSET_BLOCK_SIZE = 2 * Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final Utf8SplitString utf8View = new Utf8SplitString();
+    private long buf;
+    private long bufSize;
+
+    public BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    /**
+     * Returns size of a block filter in bytes, it is always a multiple of 8.
+     */
+    public static long getBlockSize(long blockRows) {
+        return ((blockRows * BITS_PER_ROW + 63) >>> 6) << 3;
+    }
+
+    public static long hashLong(long value) {
+        return Hash.hashLong64(value);
+    }
+
+    public static long hashUuid(long lo, long hi) {
+        return Hash.hashLong128_64(lo, hi);
+    }
+
+    public static long hashVarchar(Utf8Sequence value) {
+        long h = 0;
+        for (int i = 0, n = value.size(); i < n; i++) {
+            h = h * 31 + value.byteAt(i);
+        }
+        return Hash.hashLong64(h);
+    }
+
+    public static boolean isSupported(int columnType) {
+        if (columnType < 0) {
+            // deleted column
+            return false;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+            case ColumnType.VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Computes positions of the bits the hash maps to in a block filter of the given size.
+     * Positions are the same for every block, so readers compute them once per lookup.
+     *
+     * @param hash     key hash
+     * @param bitCount block filter size in bits
+     * @param dst      address of {@link #HASH_COUNT} longs to receive the positions
+     */
+    public static void toBitPositions(long hash, long bitCount, long dst) {
+        // double hashing, see Kirsch and Mitzenmacher, "Less Hashing, Same Performance"
+        final long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            Unsafe.getUnsafe().putLong(dst + (long) i * Long.BYTES, ((hash + i * h2) & Long.MAX_VALUE) % bitCount);
+        }
+    }
+
+    @Override
+    public void close() {
+        buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+        bufSize = 0;
+    }
+
+    /**
+     * Drops the blocks beyond the given row count. Must be called before rows of a partition
+     * are overwritten in place, e.g. when partition tail is replaced.
+     *
+     * @param path          partition path, left unchanged on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param rowCount      number of partition rows to keep the blocks for
+     */
+    public void truncate(Path path, CharSequence columnName, long columnNameTxn, long rowCount) {
+        final int pathLen = path.size();
+        long fd = -1;
+        try {
+            final LPSZ bloomFilterFile = TableUtils.bloomFilterFile(path, columnName, columnNameTxn);
+            if (!ff.exists(bloomFilterFile)) {
+                return;
+            }
+            fd = TableUtils.openRW(ff, bloomFilterFile, LOG, fileOpenOpts);
+            if (ff.length(fd) < HEADER_SIZE) {
+                return;
+            }
+            final long blockRows = readLong(fd, OFFSET_BLOCK_ROWS, path);
+            final long blockCount = readLong(fd, OFFSET_BLOCK_COUNT, path);
+            if (blockRows > 0 && blockCount > rowCount / blockRows) {
+                writeLong(fd, OFFSET_BLOCK_COUNT, rowCount / blockRows, path);
+            }
+        } finally {
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            path.trimTo(pathLen);
+        }
+    }
+
+    /**
+     * Appends the filters of the complete blocks of the committed partition rows,
+     * creating the bloom filter file if it does not exist.
+     *
+     * @param path          partition path, left unchanged on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param columnType    column type, see {@link #isSupported(int)}
+     * @param columnTop     column top in the partition
+     * @param rowCount      committed partition row count
+     * @param blockRows     rows per block
+     */
+    public void update(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long rowCount,
+            long blockRows
+    ) {
+        final int pathLen = path.size();
+        final long blockSize = getBlockSize(blockRows);
+        long fd = -1;
+        try {
+            fd = TableUtils.openRW(ff, TableUtils.bloomFilterFile(path, columnName, columnNameTxn), LOG, fileOpenOpts);
+            long blockCount = 0;
+            if (ff.length(fd) >= HEADER_SIZE
+                    && readLong(fd, OFFSET_BLOCK_ROWS, path) == blockRows
+                    && readLong(fd, OFFSET_BLOCK_SIZE, path) == blockSize) {
+                blockCount = readLong(fd, OFFSET_BLOCK_COUNT, path);
+            } else {
+                // new file or block size has changed, start over
+                writeLong(fd, OFFSET_BLOCK_COUNT, 0, path);
+                writeLong(fd, OFFSET_BLOCK_ROWS, blockRows, path);
+                writeLong(fd, OFFSET_BLOCK_SIZE, blockSize, path);
+            }
+
+            final long newBlockCount = rowCount / blockRows;
+            if (blockCount >= newBlockCount) {
+                if (blockCount > newBlockCount) {
+                    writeLong(fd, OFFSET_BLOCK_COUNT, newBlockCount, path);
+                }
+                return;
+            }
+
+            if (bufSize < blockSize) {
+                buf = Unsafe.realloc(buf, bufSize, blockSize, MemoryTag.NATIVE_TABLE_WRITER);
+                bufSize = blockSize;
+            }
+
+            final long rowHi = newBlockCount * blockRows;
+            final long bitCount = blockSize * Byte.SIZE;
+            final boolean varchar = ColumnType.isVarchar(columnType);
+            final int shl = varchar ? 0 : ColumnType.pow2SizeOf(columnType);
+            long auxFd = -1;
+            long auxAddr = 0;
+            long auxSize = 0;
+            long dataFd = -1;
+            long dataAddr = 0;
+            long dataSize = 0;
+            try {
+                if (rowHi > columnTop) {
+                    path.trimTo(pathLen);
+                    if (varchar) {
+                        auxFd = TableUtils.openRO(ff, TableUtils.iFile(path, columnName, columnNameTxn), LOG);
+                        auxSize = VarcharTypeDriver.INSTANCE.getAuxVectorSize(rowHi - columnTop);
+                        auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                        dataSize = VarcharTypeDriver.INSTANCE.getDataVectorSizeAt(auxAddr, rowHi - columnTop - 1);
+                    } else {
+                        dataSize = (rowHi - columnTop) << shl;
+                    }
+                    if (dataSize > 0) {
+                        path.trimTo(pathLen);
+                        dataFd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+                        dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                }
+
+                TableUtils.bloomFilterFile(path.trimTo(pathLen), columnName, columnNameTxn);
+                for (long block = blockCount; block < newBlockCount; block++) {
+                    Vect.memset(buf, blockSize, 0);
+                    final long lo = Math.max(block * blockRows, columnTop) - columnTop;
+                    final long hi = (block + 1) * blockRows - columnTop;
+                    for (long row = lo; row < hi; row++) {
+                        final long hash;
+                        switch (shl) {
+                            case 2:
+                                hash = hashLong(Unsafe.getUnsafe().getInt(dataAddr + (row << 2)));
+                                break;
+                            case 3:
+                                hash = hashLong(Unsafe.getUnsafe().getLong(dataAddr + (row << 3)));
+                                break;
+                            case 4:
+                                hash = hashUuid(
+                                        Unsafe.getUnsafe().getLong(dataAddr + (row << 4)),
+                                        Unsafe.getUnsafe().getLong(dataAddr + (row << 4) + Long.BYTES)
+                                );
+                                break;
+                            default:
+                                final Utf8Sequence value = VarcharTypeDriver.getSplitValue(
+                                        auxAddr,
+                                        auxAddr + auxSize,
+                                        dataAddr,
+                                        dataAddr + dataSize,
+                                        row,
+                                        utf8View
+                                );
+                                if (value == null) {
+                                    continue;
+                                }
+                                hash = hashVarchar(value);
+                                break;
+                        }
+                        add(buf, bitCount, hash);
+                    }
+                    if (ff.write(fd, buf, blockSize, HEADER_SIZE + block * blockSize) != blockSize) {
+                        throw CairoException.critical(ff.errno()).put("could not write bloom filter [path=").put(path).put(']');
+                    }
+                }
+            } finally {
+                if (dataAddr != 0) {
+                    ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (dataFd > -1) {
+                    ff.close(dataFd);
+                }
+                if (auxAddr != 0) {
+                    ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (auxFd > -1) {
+                    ff.close(auxFd);
+                }
+            }
+            writeLong(fd, OFFSET_BLOCK_COUNT, newBlockCount, path);
+        } finally {
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            path.trimTo(pathLen);
+        }
+    }
+
+    private static void add(long filter, long bitCount, long hash) {
+        final long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final long bit = ((hash + i * h2) & Long.MAX_VALUE) % bitCount;
+            final long p = filter + ((bit >>> 6) << 3);
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) | (1L << bit));
+        }
+    }
+
+    private void ensureTempMem() {
+        if (bufSize < Long.BYTES) {
+            buf = Unsafe.realloc(buf, bufSize, Long.BYTES, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = Long.BYTES;
+        }
+    }
+
+    private long readLong(long fd, long offset, Path path) {
+        ensureTempMem();
+        return TableUtils.readLongOrFail(ff, fd, offset, buf, path.$());
+    }
+
+    private void writeLong(long fd, long offset, long value, Path path) {
+        ensureTempMem();
+        TableUtils.writeLongOrFail(ff, fd, offset, value, buf, path);
+    }
+}
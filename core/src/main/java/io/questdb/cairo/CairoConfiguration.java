@@ -117,6 +117,11 @@ public interface CairoConfiguration {
 
     int getCommitMode();
 
+    /**
+     * Size of the per-reader cache of decoded blocks of compressed partition columns.
+     */
+    long getCompressedBlockCacheSize();
+
     @NotNull
     CharSequence getConfRoot(); // same as root/../conf
 
@@ -193,6 +198,13 @@ public interface CairoConfiguration {
 
     int getGroupByShardingThreshold();
 
+    /**
+     * Returns memory budget in bytes for a single GROUP BY hash table. Once the budget
+     * is exceeded, the table is spilled to files under {@link #getSqlCopyInputWorkRoot()}.
+     * Zero disables spilling.
+     */
+    long getGroupBySpillMemoryBudget();
+
     @NotNull
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
@@ -443,6 +455,18 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    /**
+     * Returns the maximum number of bytes of native page frames that a single query may
+     * have advised for read-ahead, but not yet reached, while scanning.
+     */
+    long getSqlPageFramePrefetchBudget();
+
+    /**
+     * Returns the number of native page frames ahead of the current one that are advised
+     * for read-ahead (MADV_WILLNEED) during a forward frame scan. Zero disables prefetch.
+     */
+    int getSqlPageFramePrefetchFrames();
+
     int getSqlParallelWorkStealingThreshold();
 
     int getSqlSmallMapKeyCapacity();
@@ -457,6 +481,13 @@ public interface CairoConfiguration {
 
     long getSqlSortLightValuePageSize();
 
+    /**
+     * Returns memory budget in bytes for a single ORDER BY tree. Once the budget is exceeded,
+     * the tree is written to a sorted run file under {@link #getSqlCopyInputWorkRoot()} and
+     * the runs are merged while the cursor is consumed. Zero disables external sort.
+     */
+    long getSqlSortSpillMemoryBudget();
+
     int getSqlSortValueMaxPages();
 
     int getSqlSortValuePageSize();
@@ -513,6 +544,15 @@ public interface CairoConfiguration {
 
     int getWalApplyLookAheadTransactionCount();
 
+    /**
+     * Maximum time, in milliseconds, a table with outstanding WAL transactions can wait for
+     * the apply job before it is scheduled ahead of tables with higher priority or lower lag.
+     * Zero makes the apply job take tables in the order they were notified.
+     *
+     * @return max wait time in milliseconds
+     */
+    long getWalApplyMaxWaitTime();
+
     long getWalApplyTableTimeQuota();
 
     long getWalDataAppendPageSize();
@@ -575,6 +615,13 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    /**
+     * Number of rows summarised by a single zone map entry. Zone maps keep min/max values of
+     * fixed-size numeric columns per block of rows, so that scans can skip page frames that
+     * cannot match a filter.
+     */
+    int getZoneMapBlockRows();
+
     /**
      * A flag to enable/disable checkpoint recovery mechanism. Defaults to {@code true}.
      *
@@ -600,20 +647,40 @@ public interface CairoConfiguration {
 
     boolean isSqlOrderBySortEnabled();
 
+    boolean isSqlParallelAsOfJoinEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelOrderByEnabled();
+
+    boolean isSqlParallelWindowEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
 
     boolean isWalSupported();
 
+    /**
+     * When enabled, and io_uring is available, table writers split large column file writes,
+     * such as O3 merge copies, into batches of asynchronous io_uring writes.
+     */
+    boolean isWriterIOURingEnabled();
+
     boolean isWriterMixedIOEnabled();
 
+    /**
+     * A flag to enable/disable zone map maintenance on commit and page frame skipping based on zone maps.
+     * Defaults to {@code false}.
+     */
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
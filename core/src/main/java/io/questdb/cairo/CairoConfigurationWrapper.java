@@ -165,6 +165,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getCommitMode();
     }
 
+    @Override
+    public long getCompressedBlockCacheSize() {
+        return getDelegate().getCompressedBlockCacheSize();
+    }
+
     @Override
     public @NotNull CharSequence getConfRoot() {
         return getDelegate().getConfRoot();
@@ -330,6 +335,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getGroupByShardingThreshold();
     }
 
+    @Override
+    public long getGroupBySpillMemoryBudget() {
+        return getDelegate().getGroupBySpillMemoryBudget();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return getDelegate().getIdleCheckInterval();
@@ -780,6 +790,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlPageFrameMinRows();
     }
 
+    @Override
+    public long getSqlPageFramePrefetchBudget() {
+        return getDelegate().getSqlPageFramePrefetchBudget();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return getDelegate().getSqlPageFramePrefetchFrames();
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return getDelegate().getSqlParallelWorkStealingThreshold();
@@ -815,6 +835,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public long getSqlSortSpillMemoryBudget() {
+        return getDelegate().getSqlSortSpillMemoryBudget();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return getDelegate().getSqlSortValueMaxPages();
@@ -945,6 +970,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalApplyLookAheadTransactionCount();
     }
 
+    @Override
+    public long getWalApplyMaxWaitTime() {
+        return getDelegate().getWalApplyMaxWaitTime();
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return getDelegate().getWalApplyTableTimeQuota();
@@ -1065,6 +1095,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWriterTickRowsCountMod();
     }
 
+    @Override
+    public int getZoneMapBlockRows() {
+        return getDelegate().getZoneMapBlockRows();
+    }
+
     @Override
     public boolean isCheckpointRecoveryEnabled() {
         return getDelegate().isCheckpointRecoveryEnabled();
@@ -1115,6 +1150,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlOrderBySortEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return getDelegate().isSqlParallelAsOfJoinEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1130,6 +1170,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return getDelegate().isSqlParallelOrderByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return getDelegate().isSqlParallelWindowEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
@@ -1144,11 +1199,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isWalSupported();
     }
 
+    @Override
+    public boolean isWriterIOURingEnabled() {
+        return getDelegate().isWriterIOURingEnabled();
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return getDelegate().isWriterMixedIOEnabled();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return getDelegate().isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return getDelegate().mangleTableDirNames();
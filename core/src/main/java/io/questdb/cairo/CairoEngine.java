@@ -100,6 +100,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final ThreadLocal<ObjHashSet<TableToken>> tlTokens = ThreadLocal.withInitial(ObjHashSet::new);
     // initial value of unpublishedWalTxnCount is 1 because we want to scan for non-applied WAL transactions on startup
     private final AtomicLong unpublishedWalTxnCount = new AtomicLong(1);
+    private final WalApplyScheduler walApplyScheduler;
     private final WalWriterPool walWriterPool;
     private final WriterPool writerPool;
     private @NotNull DdlListener ddlListener = DefaultDdlListener.INSTANCE;
@@ -130,6 +131,7 @@ public class CairoEngine implements Closeable, WriterSource {
             this.sequencerMetadataPool = new SequencerMetadataPool(configuration, this);
             this.tableMetadataPool = new TableMetadataPool(configuration);
             this.walWriterPool = new WalWriterPool(configuration, this);
+            this.walApplyScheduler = new WalApplyScheduler(this);
             this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
             this.telemetry = new Telemetry<>(TelemetryTask.TELEMETRY, configuration);
             this.telemetryWal = new Telemetry<>(TelemetryWalTask.WAL_TELEMETRY, configuration);
@@ -304,6 +306,7 @@ public class CairoEngine implements Closeable, WriterSource {
     public boolean clear() {
         checkpointAgent.clear();
         messageBus.clear();
+        walApplyScheduler.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         boolean b3 = tableSequencerAPI.releaseAll();
@@ -766,6 +769,22 @@ public class CairoEngine implements Closeable, WriterSource {
         return walListener;
     }
 
+    public WalApplyScheduler getWalApplyScheduler() {
+        return walApplyScheduler;
+    }
+
+    /**
+     * Returns walApplyPriority table parameter from the metadata cache. Tables that are not
+     * in the cache are assumed to have the default priority of 0.
+     *
+     * @param tableToken table token
+     * @return WAL apply priority of the table
+     */
+    public int getWalApplyPriority(TableToken tableToken) {
+        final CairoTable table = metadataCacheGetNullableTable(tableToken);
+        return table != null ? table.getWalApplyPriority() : 0;
+    }
+
     // For testing only
     @TestOnly
     public WalReader getWalReader(
@@ -1058,6 +1077,7 @@ public class CairoEngine implements Closeable, WriterSource {
         table.setPartitionBy(tableMetadata.getPartitionBy());
         table.setMaxUncommittedRows(tableMetadata.getMaxUncommittedRows());
         table.setO3MaxLag(tableMetadata.getO3MaxLag());
+        table.setWalApplyPriority(tableMetadata.getWalApplyPriority());
 
         int timestampIndex = tableMetadata.getTimestampIndex();
         table.setTimestampIndex(timestampIndex);
@@ -1681,6 +1701,7 @@ public class CairoEngine implements Closeable, WriterSource {
             table.setPartitionBy(metaMem.getInt(TableUtils.META_OFFSET_PARTITION_BY));
             table.setMaxUncommittedRows(metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS));
             table.setO3MaxLag(metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG));
+            table.setWalApplyPriority(metaMem.getInt(TableUtils.META_OFFSET_WAL_APPLY_PRIORITY));
             table.setTimestampIndex(metaMem.getInt(TableUtils.META_OFFSET_TIMESTAMP_INDEX));
             table.setIsSoftLink(isSoftLink);
 
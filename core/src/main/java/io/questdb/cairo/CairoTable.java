@@ -43,6 +43,7 @@ public class CairoTable implements Sinkable {
     private int partitionBy;
     private int timestampIndex;
     private TableToken token;
+    private int walApplyPriority;
 
     public CairoTable() {
     }
@@ -136,6 +137,10 @@ public class CairoTable implements Sinkable {
         return null;
     }
 
+    public int getWalApplyPriority() {
+        return walApplyPriority;
+    }
+
     public boolean getWalEnabled() {
         return getTableToken().isWal();
     }
@@ -198,6 +203,10 @@ public class CairoTable implements Sinkable {
         }
     }
 
+    public void setWalApplyPriority(int walApplyPriority) {
+        this.walApplyPriority = walApplyPriority;
+    }
+
     public void upsertColumn(@NotNull CairoColumn newColumn) throws CairoException {
         final CharSequence columnName = newColumn.getName();
         final CairoColumn existingColumn = getColumnQuiet(columnName);
@@ -321,6 +321,23 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ZoneMapWriter.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    if (couldNotRemove(ff, TableUtils.zoneMapFile(path, columnName, columnVersion))) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
+                // column metadata is not at hand, bloom filter file may or may not exist
+                if (BloomFilterWriter.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    if (couldNotRemove(ff, TableUtils.bloomFilterFile(path, columnName, columnVersion))) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(columnType)) {
                     if (isSymbolRootFiles) {
@@ -0,0 +1,455 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Native compressed format for fixed-size columns of cold partitions.
+ * <p>
+ * Column values are split into blocks that decode into {@link #BLOCK_SIZE} bytes each, so that
+ * readers can decode the blocks they touch rather than the whole column. Each block is encoded
+ * independently with the codec picked for the column type:
+ * <ul>
+ *     <li>delta-of-delta for TIMESTAMP, DATE and LONG</li>
+ *     <li>Gorilla XOR for DOUBLE</li>
+ *     <li>run-length for INT and SYMBOL keys</li>
+ * </ul>
+ * A block that does not get smaller when encoded is stored raw.
+ * <p>
+ * File layout:
+ * <pre>
+ * | version (int) | codec (int) | row count (long) | rows per block (int) | reserved (int) |
+ * | block offsets (long * (block count + 1)) | blocks ... |
+ * </pre>
+ * Blocks are bit streams written in 64-bit words. The first bit of a block tells whether
+ * the block is encoded (1) or raw (0).
+ */
+public final class CompressedColumn {
+    public static final int BLOCK_SIZE = 4096;
+    public static final int CODEC_DELTA_OF_DELTA = 1;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_RLE = 3;
+    public static final int CODEC_XOR = 2;
+    public static final int FORMAT_VERSION = 1;
+    public static final long HEADER_SIZE = 24;
+    private static final long OFFSET_BLOCK_ROWS = 16;
+    private static final long OFFSET_CODEC = 4;
+    private static final long OFFSET_ROW_COUNT = 8;
+    private static final long OFFSET_VERSION = 0;
+    private static final int RLE_RUN_BITS = 16;
+
+    private CompressedColumn() {
+    }
+
+    /**
+     * Compresses column values and appends the result to the given memory, which is expected
+     * to be positioned at the start of an empty file.
+     *
+     * @param dst        memory to write the compressed column to
+     * @param srcAddr    address of column values
+     * @param rowCount   number of values to compress
+     * @param columnType column type; must have a codec, see {@link #getCodec(int)}
+     */
+    public static void compress(MemoryCMARW dst, long srcAddr, long rowCount, int columnType) {
+        final int codec = getCodec(columnType);
+        assert codec != CODEC_NONE;
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final int blockRows = BLOCK_SIZE >> shift;
+        final long blockCount = getBlockCount(rowCount, blockRows);
+
+        dst.putInt(FORMAT_VERSION);
+        dst.putInt(codec);
+        dst.putLong(rowCount);
+        dst.putInt(blockRows);
+        dst.putInt(0);
+        final long offsetsLo = dst.getAppendOffset();
+        dst.skip((blockCount + 1) * Long.BYTES);
+
+        final BitWriter writer = new BitWriter(dst);
+        for (long block = 0; block < blockCount; block++) {
+            final long blockOffset = dst.getAppendOffset();
+            dst.putLong(offsetsLo + block * Long.BYTES, blockOffset);
+            final long lo = srcAddr + ((block * blockRows) << shift);
+            final int rows = (int) Math.min(blockRows, rowCount - block * blockRows);
+
+            writer.write(1, 1);
+            switch (codec) {
+                case CODEC_DELTA_OF_DELTA:
+                    encodeDeltaOfDelta(writer, lo, rows);
+                    break;
+                case CODEC_XOR:
+                    encodeXor(writer, lo, rows);
+                    break;
+                default:
+                    encodeRle(writer, lo, rows);
+                    break;
+            }
+            writer.flush();
+
+            final long rawSize = ((1 + ((long) rows << (shift + 3)) + 63) >>> 6) << 3;
+            if (dst.getAppendOffset() - blockOffset > rawSize) {
+                dst.jumpTo(blockOffset);
+                writer.write(0, 1);
+                final int bits = 8 << shift;
+                for (int i = 0; i < rows; i++) {
+                    writer.write(shift == 3 ? Unsafe.getUnsafe().getLong(lo + ((long) i << 3)) : Unsafe.getUnsafe().getInt(lo + ((long) i << 2)), bits);
+                }
+                writer.flush();
+            }
+        }
+        dst.putLong(offsetsLo + blockCount * Long.BYTES, dst.getAppendOffset());
+    }
+
+    /**
+     * Decodes a single block into the given buffer, which must have room for {@link #BLOCK_SIZE} bytes.
+     *
+     * @param reader     reusable bit reader
+     * @param fileAddr   address of the mapped compressed column file
+     * @param blockIndex index of the block to decode
+     * @param dstAddr    address to decode values to
+     */
+    public static void decodeBlock(BitReader reader, long fileAddr, int blockIndex, long dstAddr) {
+        final int codec = getCodec0(fileAddr);
+        final long rowCount = getRowCount(fileAddr);
+        final int blockRows = getBlockRowCount(fileAddr);
+        final int rows = (int) Math.min(blockRows, rowCount - (long) blockIndex * blockRows);
+        reader.of(fileAddr + Unsafe.getUnsafe().getLong(fileAddr + HEADER_SIZE + (long) blockIndex * Long.BYTES));
+
+        if (reader.read(1) == 0) {
+            if (codec == CODEC_RLE) {
+                for (int i = 0; i < rows; i++) {
+                    Unsafe.getUnsafe().putInt(dstAddr + ((long) i << 2), (int) reader.read(32));
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    Unsafe.getUnsafe().putLong(dstAddr + ((long) i << 3), reader.read(64));
+                }
+            }
+            return;
+        }
+
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                decodeDeltaOfDelta(reader, dstAddr, rows);
+                break;
+            case CODEC_XOR:
+                decodeXor(reader, dstAddr, rows);
+                break;
+            case CODEC_RLE:
+                decodeRle(reader, dstAddr, rows);
+                break;
+            default:
+                throw CairoException.critical(0).put("unsupported column codec [codec=").put(codec).put(']');
+        }
+    }
+
+    /**
+     * Decodes the given byte range of the column. Blocks covered by the range in full are decoded
+     * in place, while partially covered blocks are decoded into the scratch buffer first.
+     *
+     * @param reader      reusable bit reader
+     * @param fileAddr    address of the mapped compressed column file
+     * @param lo          offset of the first decoded byte to copy, inclusive
+     * @param hi          offset of the last decoded byte to copy, exclusive
+     * @param dstAddr     address to decode values to
+     * @param scratchAddr address of a {@link #BLOCK_SIZE} bytes long buffer
+     */
+    public static void decodeRange(BitReader reader, long fileAddr, long lo, long hi, long dstAddr, long scratchAddr) {
+        final long decodedSize = getDecodedSize(fileAddr);
+        while (lo < hi) {
+            final int block = (int) (lo / BLOCK_SIZE);
+            final long blockLo = (long) block * BLOCK_SIZE;
+            final long blockHi = Math.min(blockLo + BLOCK_SIZE, decodedSize);
+            final long copyHi = Math.min(blockHi, hi);
+            if (lo == blockLo && blockHi <= hi) {
+                decodeBlock(reader, fileAddr, block, dstAddr);
+            } else {
+                decodeBlock(reader, fileAddr, block, scratchAddr);
+                Vect.memcpy(dstAddr, scratchAddr + lo - blockLo, copyHi - lo);
+            }
+            dstAddr += copyHi - lo;
+            lo = copyHi;
+        }
+    }
+
+    public static int getBlockCount(long fileAddr) {
+        return (int) getBlockCount(getRowCount(fileAddr), getBlockRowCount(fileAddr));
+    }
+
+    public static int getBlockRowCount(long fileAddr) {
+        return Unsafe.getUnsafe().getInt(fileAddr + OFFSET_BLOCK_ROWS);
+    }
+
+    /**
+     * Returns codec used to compress columns of the given type or {@link #CODEC_NONE} when
+     * such columns are left uncompressed.
+     */
+    public static int getCodec(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DATE:
+            case ColumnType.LONG:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.DOUBLE:
+                return CODEC_XOR;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return CODEC_RLE;
+            default:
+                return CODEC_NONE;
+        }
+    }
+
+    /**
+     * Returns size of the column in bytes once decoded.
+     */
+    public static long getDecodedSize(long fileAddr) {
+        return getRowCount(fileAddr) * (BLOCK_SIZE / getBlockRowCount(fileAddr));
+    }
+
+    public static long getRowCount(long fileAddr) {
+        return Unsafe.getUnsafe().getLong(fileAddr + OFFSET_ROW_COUNT);
+    }
+
+    public static int getVersion(long fileAddr) {
+        return Unsafe.getUnsafe().getInt(fileAddr + OFFSET_VERSION);
+    }
+
+    private static void decodeDeltaOfDelta(BitReader reader, long dstAddr, int rows) {
+        long value = reader.read(64);
+        Unsafe.getUnsafe().putLong(dstAddr, value);
+        if (rows > 1) {
+            long delta = reader.read(64);
+            value += delta;
+            Unsafe.getUnsafe().putLong(dstAddr + Long.BYTES, value);
+            for (int i = 2; i < rows; i++) {
+                final long zigzag;
+                if (reader.read(1) == 0) {
+                    zigzag = 0;
+                } else if (reader.read(1) == 0) {
+                    zigzag = reader.read(8);
+                } else if (reader.read(1) == 0) {
+                    zigzag = reader.read(16);
+                } else if (reader.read(1) == 0) {
+                    zigzag = reader.read(32);
+                } else {
+                    zigzag = reader.read(64);
+                }
+                delta += (zigzag >>> 1) ^ -(zigzag & 1);
+                value += delta;
+                Unsafe.getUnsafe().putLong(dstAddr + ((long) i << 3), value);
+            }
+        }
+    }
+
+    private static void decodeRle(BitReader reader, long dstAddr, int rows) {
+        int i = 0;
+        while (i < rows) {
+            final int value = (int) reader.read(32);
+            final int run = (int) reader.read(RLE_RUN_BITS) + 1;
+            for (int n = i + run; i < n; i++) {
+                Unsafe.getUnsafe().putInt(dstAddr + ((long) i << 2), value);
+            }
+        }
+    }
+
+    private static void decodeXor(BitReader reader, long dstAddr, int rows) {
+        long bits = reader.read(64);
+        Unsafe.getUnsafe().putLong(dstAddr, bits);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < rows; i++) {
+            if (reader.read(1) != 0) {
+                if (reader.read(1) != 0) {
+                    leading = (int) reader.read(5);
+                    trailing = 64 - leading - ((int) reader.read(6) + 1);
+                }
+                bits ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            Unsafe.getUnsafe().putLong(dstAddr + ((long) i << 3), bits);
+        }
+    }
+
+    private static void encodeDeltaOfDelta(BitWriter writer, long lo, int rows) {
+        long prev = Unsafe.getUnsafe().getLong(lo);
+        writer.write(prev, 64);
+        if (rows > 1) {
+            final long value = Unsafe.getUnsafe().getLong(lo + Long.BYTES);
+            long prevDelta = value - prev;
+            writer.write(prevDelta, 64);
+            prev = value;
+            for (int i = 2; i < rows; i++) {
+                final long v = Unsafe.getUnsafe().getLong(lo + ((long) i << 3));
+                final long delta = v - prev;
+                final long dod = delta - prevDelta;
+                final long zigzag = (dod << 1) ^ (dod >> 63);
+                if (zigzag == 0) {
+                    writer.write(0, 1);
+                } else if (zigzag >>> 8 == 0) {
+                    writer.write(0b10, 2);
+                    writer.write(zigzag, 8);
+                } else if (zigzag >>> 16 == 0) {
+                    writer.write(0b110, 3);
+                    writer.write(zigzag, 16);
+                } else if (zigzag >>> 32 == 0) {
+                    writer.write(0b1110, 4);
+                    writer.write(zigzag, 32);
+                } else {
+                    writer.write(0b1111, 4);
+                    writer.write(zigzag, 64);
+                }
+                prevDelta = delta;
+                prev = v;
+            }
+        }
+    }
+
+    private static void encodeRle(BitWriter writer, long lo, int rows) {
+        int i = 0;
+        while (i < rows) {
+            final int value = Unsafe.getUnsafe().getInt(lo + ((long) i << 2));
+            int run = 1;
+            while (i + run < rows && run < (1 << RLE_RUN_BITS) && Unsafe.getUnsafe().getInt(lo + ((long) (i + run) << 2)) == value) {
+                run++;
+            }
+            writer.write(value, 32);
+            writer.write(run - 1, RLE_RUN_BITS);
+            i += run;
+        }
+    }
+
+    private static void encodeXor(BitWriter writer, long lo, int rows) {
+        long prev = Unsafe.getUnsafe().getLong(lo);
+        writer.write(prev, 64);
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = 1; i < rows; i++) {
+            final long bits = Unsafe.getUnsafe().getLong(lo + ((long) i << 3));
+            final long xor = bits ^ prev;
+            if (xor == 0) {
+                writer.write(0, 1);
+            } else {
+                // leading zero count has to fit 5 bits
+                final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                final int trailing = Long.numberOfTrailingZeros(xor);
+                if (prevLeading > -1 && leading >= prevLeading && trailing >= prevTrailing) {
+                    writer.write(0b10, 2);
+                    writer.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    final int significant = 64 - leading - trailing;
+                    writer.write(0b11, 2);
+                    writer.write(leading, 5);
+                    writer.write(significant - 1, 6);
+                    writer.write(xor >>> trailing, significant);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            prev = bits;
+        }
+    }
+
+    private static long getBlockCount(long rowCount, int blockRows) {
+        return (rowCount + blockRows - 1) / blockRows;
+    }
+
+    private static int getCodec0(long fileAddr) {
+        return Unsafe.getUnsafe().getInt(fileAddr + OFFSET_CODEC);
+    }
+
+    /**
+     * Reads bit stream written in 64-bit words, most significant bits first.
+     */
+    public static class BitReader {
+        private long address;
+        private int available;
+        private long word;
+
+        public void of(long address) {
+            this.address = address;
+            this.available = 0;
+            this.word = 0;
+        }
+
+        public long read(int bitCount) {
+            if (bitCount <= available) {
+                final long value = word >>> (64 - bitCount);
+                word = bitCount == 64 ? 0 : word << bitCount;
+                available -= bitCount;
+                return value;
+            }
+            final int hi = available;
+            final int lo = bitCount - hi;
+            final long next = Unsafe.getUnsafe().getLong(address);
+            address += Long.BYTES;
+            long value = next >>> (64 - lo);
+            if (hi > 0) {
+                value |= (word >>> (64 - hi)) << lo;
+            }
+            word = lo == 64 ? 0 : next << lo;
+            available = 64 - lo;
+            return value;
+        }
+    }
+
+    private static class BitWriter {
+        private final MemoryCMARW mem;
+        private int bits;
+        private long word;
+
+        private BitWriter(MemoryCMARW mem) {
+            this.mem = mem;
+        }
+
+        void flush() {
+            if (bits > 0) {
+                mem.putLong(word);
+                word = 0;
+                bits = 0;
+            }
+        }
+
+        void write(long value, int bitCount) {
+            if (bitCount < 64) {
+                value &= (1L << bitCount) - 1;
+            }
+            final int free = 64 - bits;
+            if (bitCount < free) {
+                word |= value << (free - bitCount);
+                bits += bitCount;
+            } else {
+                final int rest = bitCount - free;
+                word |= value >>> rest;
+                mem.putLong(word);
+                word = rest == 0 ? 0 : value << (64 - rest);
+                bits = rest;
+            }
+        }
+    }
+}
@@ -175,6 +175,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return CommitMode.NOSYNC;
     }
 
+    @Override
+    public long getCompressedBlockCacheSize() {
+        return Numbers.SIZE_1MB;
+    }
+
     @Override
     public @NotNull CharSequence getConfRoot() {
         return confRoot;
@@ -340,6 +345,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1000;
     }
 
+    @Override
+    public long getGroupBySpillMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -783,6 +793,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public long getSqlPageFramePrefetchBudget() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return 4;
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return 16;
@@ -818,6 +838,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 128 * 1024;
     }
 
+    @Override
+    public long getSqlSortSpillMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -948,6 +973,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 20;
     }
 
+    @Override
+    public long getWalApplyMaxWaitTime() {
+        return 10_000L;
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return 1000L;
@@ -1067,6 +1097,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 - 1;
     }
 
+    @Override
+    public int getZoneMapBlockRows() {
+        return 65536;
+    }
+
     @Override
     public boolean isCheckpointRecoveryEnabled() {
         return true;
@@ -1117,6 +1152,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1132,6 +1172,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -1147,11 +1202,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWriterIOURingEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return writerMixedIOEnabled;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
@@ -683,19 +683,23 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     ) {
         try {
             boolean async = commitMode == CommitMode.ASYNC;
+            long fixSyncFd = -1;
+            long varSyncFd = -1;
             if (dstFixAddr != 0 && dstFixSize > 0) {
                 ff.msync(dstFixAddr, dstFixSize, async);
                 // sync FD in case we wrote data not via mmap
                 if (dstFixFd != -1 && dstFixFd != 0) {
-                    ff.fsync(Math.abs(dstFixFd));
+                    fixSyncFd = Math.abs(dstFixFd);
                 }
             }
             if (dstVarAddr != 0 && dstVarSize > 0) {
                 ff.msync(dstVarAddr, dstVarSize, async);
                 if (dstVarFd != -1 && dstVarFd != 0) {
-                    ff.fsync(Math.abs(dstVarFd));
+                    varSyncFd = Math.abs(dstVarFd);
                 }
             }
+            // both files are synced at once when the facade can batch them, e.g. on io_uring
+            ff.fsync(fixSyncFd, varSyncFd);
         } catch (Throwable e) {
             LOG.error()
                     .$("sync error [table=").utf8(tableWriter.getTableToken().getTableName())
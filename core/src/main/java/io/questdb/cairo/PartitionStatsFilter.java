@@ -0,0 +1,332 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+
+import static io.questdb.griffin.SqlKeywords.isAndKeyword;
+
+/**
+ * Skips page frames of native partitions that can't contain a row matching a query filter.
+ * Value ranges implied by the filter, the same as the ones checked against Parquet row group
+ * statistics, are checked against zone maps, see {@link ZoneMapReader}. Equality of a column
+ * with a constant or a bind variable is kept as a key to be looked up in bloom filters, see
+ * {@link BloomFilterReader}. Bind variable keys are resolved on each execution, see
+ * {@link #prepare(SqlExecutionContext)}.
+ * <p>
+ * Only the top-level AND-ed predicates are taken into account, so the filter must still
+ * be applied to the rows of the remaining frames.
+ */
+public class PartitionStatsFilter implements Mutable {
+    private final ObjList<BloomKey> bloomKeys = new ObjList<>();
+    private final RowGroupStatsFilter ranges = new RowGroupStatsFilter();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
+
+    /**
+     * Returns true if none of the given rows of a native partition can match the filter.
+     *
+     * @param reader         table reader
+     * @param columnIndexes  maps filter metadata column indexes to reader column indexes
+     * @param partitionIndex partition index
+     * @param rowLo          first partition row, inclusive
+     * @param rowHi          last partition row, exclusive
+     */
+    public boolean canSkip(TableReader reader, IntList columnIndexes, int partitionIndex, long rowLo, long rowHi) {
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(ranges.getColumnIndex(i));
+            if (reader.zoneMapExcludes(partitionIndex, columnIndex, rowLo, rowHi, ranges.getRangeLo(i), ranges.getRangeHi(i))) {
+                return true;
+            }
+        }
+        for (int i = 0, n = bloomKeys.size(); i < n; i++) {
+            final BloomKey key = bloomKeys.getQuick(i);
+            if (key.resolved && reader.bloomFilterExcludes(partitionIndex, columnIndexes.getQuick(key.columnIndex), rowLo, rowHi, key.hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        bloomKeys.clear();
+        ranges.clear();
+    }
+
+    public int getBloomKeyColumnIndex(int keyIndex) {
+        return bloomKeys.getQuick(keyIndex).columnIndex;
+    }
+
+    public int getBloomKeyCount() {
+        return bloomKeys.size();
+    }
+
+    /**
+     * Returns hash of the key or {@link Numbers#LONG_NULL} when the key could not be resolved.
+     */
+    public long getBloomKeyHash(int keyIndex) {
+        final BloomKey key = bloomKeys.getQuick(keyIndex);
+        return key.resolved ? key.hash : Numbers.LONG_NULL;
+    }
+
+    /**
+     * Returns value ranges checked against zone maps.
+     */
+    public RowGroupStatsFilter getRanges() {
+        return ranges;
+    }
+
+    public boolean isEmpty() {
+        return ranges.size() == 0 && bloomKeys.size() == 0;
+    }
+
+    public void of(ExpressionNode filter, RecordMetadata metadata) {
+        clear();
+        ranges.of(filter, metadata);
+        extractBloomKeys(filter, metadata);
+    }
+
+    /**
+     * Resolves bloom filter keys compared with bind variables, must be called
+     * before the filter is used in a new execution.
+     */
+    public void prepare(SqlExecutionContext executionContext) {
+        final BindVariableService bindVariableService = executionContext.getBindVariableService();
+        for (int i = 0, n = bloomKeys.size(); i < n; i++) {
+            final BloomKey key = bloomKeys.getQuick(i);
+            if (key.bindVariable != null) {
+                key.resolved = bindVariableService != null && hashBindVariable(key, bindVariableService);
+            }
+        }
+    }
+
+    private void extractBloomKey(ExpressionNode column, ExpressionNode value, RecordMetadata metadata) {
+        final int columnIndex = RowGroupStatsFilter.findColumnIndex(column, metadata);
+        if (columnIndex == -1) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!BloomFilterWriter.isSupported(columnType)) {
+            return;
+        }
+        final BloomKey key = new BloomKey(columnIndex, columnType, value.type == ExpressionNode.BIND_VARIABLE ? Chars.toString(value.token) : null);
+        if (key.bindVariable == null) {
+            try {
+                key.hash = hashConstant(value, columnType);
+                key.resolved = true;
+            } catch (NumericException e) {
+                // e.g. null or a value of another type, the filter decides then
+                return;
+            }
+        }
+        bloomKeys.add(key);
+    }
+
+    private void extractBloomKeys(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            extractBloomKeys(node.lhs, metadata);
+            extractBloomKeys(node.rhs, metadata);
+            return;
+        }
+
+        if (node.type != ExpressionNode.OPERATION || node.paramCount != 2 || !Chars.equals(node.token, '=')) {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode value = node.rhs;
+        if (value.type == ExpressionNode.LITERAL && column.type != ExpressionNode.LITERAL) {
+            column = node.rhs;
+            value = node.lhs;
+        }
+        if (column.type == ExpressionNode.LITERAL
+                && (value.type == ExpressionNode.BIND_VARIABLE || RowGroupStatsFilter.isConstant(value))) {
+            extractBloomKey(column, value, metadata);
+        }
+    }
+
+    private boolean hashBindVariable(BloomKey key, BindVariableService bindVariableService) {
+        final Function function;
+        final CharSequence name = key.bindVariable;
+        if (name.charAt(0) == ':') {
+            function = bindVariableService.getFunction(name);
+        } else {
+            try {
+                function = bindVariableService.getFunction(Numbers.parseInt(name, 1, name.length()) - 1);
+            } catch (NumericException e) {
+                return false;
+            }
+        }
+        if (function == null) {
+            return false;
+        }
+
+        final int functionType = function.getType();
+        switch (ColumnType.tagOf(key.columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                final long value;
+                switch (ColumnType.tagOf(functionType)) {
+                    case ColumnType.BYTE:
+                        value = function.getByte(null);
+                        break;
+                    case ColumnType.SHORT:
+                        value = function.getShort(null);
+                        break;
+                    case ColumnType.INT:
+                        final int intValue = function.getInt(null);
+                        if (intValue == Numbers.INT_NULL) {
+                            return false;
+                        }
+                        value = intValue;
+                        break;
+                    case ColumnType.LONG:
+                        value = function.getLong(null);
+                        if (value == Numbers.LONG_NULL) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        return false;
+                }
+                if (ColumnType.tagOf(key.columnType) == ColumnType.INT && (value <= Numbers.INT_NULL || value > Integer.MAX_VALUE)) {
+                    return false;
+                }
+                key.hash = BloomFilterWriter.hashLong(value);
+                return true;
+            case ColumnType.UUID:
+                try {
+                    switch (ColumnType.tagOf(functionType)) {
+                        case ColumnType.UUID:
+                            final long lo = function.getLong128Lo(null);
+                            final long hi = function.getLong128Hi(null);
+                            if (Uuid.isNull(lo, hi)) {
+                                return false;
+                            }
+                            key.hash = BloomFilterWriter.hashUuid(lo, hi);
+                            return true;
+                        case ColumnType.STRING:
+                            final CharSequence str = function.getStrA(null);
+                            if (str == null) {
+                                return false;
+                            }
+                            Uuid.checkDashesAndLength(str);
+                            key.hash = BloomFilterWriter.hashUuid(Uuid.parseLo(str), Uuid.parseHi(str));
+                            return true;
+                        case ColumnType.VARCHAR:
+                            final Utf8Sequence utf8 = function.getVarcharA(null);
+                            if (utf8 == null) {
+                                return false;
+                            }
+                            Uuid.checkDashesAndLength(utf8);
+                            key.hash = BloomFilterWriter.hashUuid(Uuid.parseLo(utf8, 0), Uuid.parseHi(utf8, 0));
+                            return true;
+                        default:
+                            return false;
+                    }
+                } catch (NumericException e) {
+                    return false;
+                }
+            default:
+                switch (ColumnType.tagOf(functionType)) {
+                    case ColumnType.STRING:
+                        final CharSequence str = function.getStrA(null);
+                        if (str == null) {
+                            return false;
+                        }
+                        utf8Sink.clear();
+                        utf8Sink.put(str);
+                        key.hash = BloomFilterWriter.hashVarchar(utf8Sink);
+                        return true;
+                    case ColumnType.VARCHAR:
+                        final Utf8Sequence utf8 = function.getVarcharA(null);
+                        if (utf8 == null) {
+                            return false;
+                        }
+                        key.hash = BloomFilterWriter.hashVarchar(utf8);
+                        return true;
+                    default:
+                        return false;
+                }
+        }
+    }
+
+    private long hashConstant(ExpressionNode value, int columnType) throws NumericException {
+        final CharSequence token = value.token;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                if (Chars.isQuoted(token)) {
+                    throw NumericException.INSTANCE;
+                }
+                final long v = RowGroupStatsFilter.parseValue(value, columnType);
+                if (ColumnType.tagOf(columnType) == ColumnType.INT && (v <= Numbers.INT_NULL || v > Integer.MAX_VALUE)) {
+                    throw NumericException.INSTANCE;
+                }
+                return BloomFilterWriter.hashLong(v);
+            case ColumnType.UUID:
+                if (!Chars.isQuoted(token)) {
+                    throw NumericException.INSTANCE;
+                }
+                Uuid.checkDashesAndLength(token, 1, token.length() - 1);
+                return BloomFilterWriter.hashUuid(Uuid.parseLo(token, 1), Uuid.parseHi(token, 1));
+            default:
+                if (!Chars.isQuoted(token)) {
+                    throw NumericException.INSTANCE;
+                }
+                // same unquoting as in string constants
+                utf8Sink.clear();
+                utf8Sink.put(Chars.toString(token, 1, token.length() - 1, token.charAt(0)));
+                return BloomFilterWriter.hashVarchar(utf8Sink);
+        }
+    }
+
+    private static class BloomKey {
+        // bind variable name or index, e.g. :id or $1, null for constants
+        private final CharSequence bindVariable;
+        private final int columnIndex;
+        private final int columnType;
+        private long hash;
+        private boolean resolved;
+
+        private BloomKey(int columnIndex, int columnType, CharSequence bindVariable) {
+            this.columnIndex = columnIndex;
+            this.columnType = columnType;
+            this.bindVariable = bindVariable;
+        }
+    }
+}
@@ -54,9 +54,21 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             @NotNull RecordSink recordSink,
             long pageSize,
             int maxPages
+    ) {
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates a chain on top of the given memory, e.g. file-backed memory used for sorted runs.
+     * The chain takes ownership of the memory and closes it on {@link #clear()}.
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
     ) {
         try {
-            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.mem = mem;
             this.recordSink = recordSink;
             int count = columnTypes.getColumnCount();
             long varOffset = 0L;
@@ -149,6 +161,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return recordB;
     }
 
+    /**
+     * Returns number of bytes occupied by the records written so far.
+     */
+    public long getUsedMemorySize() {
+        return varAppendOffset;
+    }
+
     @Override
     public boolean hasNext() {
         if (nextRecordOffset != -1) {
@@ -160,6 +179,10 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    public Record newRecord() {
+        return new RecordChainRecord();
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
@@ -27,6 +27,8 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.CompressedBlockCache;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryCMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCMR;
@@ -71,10 +73,12 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final TxReader txFile;
     private final TxnScoreboard txnScoreboard;
     private ObjList<BitmapIndexReader> bitmapIndexes;
+    private BloomFilterReader bloomFilterReader;
     private int columnCount;
     private int columnCountShl;
     private LongList columnTops;
     private ObjList<MemoryCMR> columns;
+    private CompressedBlockCache compressedBlockCache;
     private int openPartitionCount;
     private int partitionCount;
     private long rowCount;
@@ -85,6 +89,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     private long txTruncateVersion = -1;
     private long txn = TableUtils.INITIAL_TXN;
     private boolean txnAcquired = false;
+    private ZoneMapReader zoneMapReader;
 
     public TableReader(CairoConfiguration configuration, TableToken tableToken) {
         this(configuration, tableToken, null);
@@ -159,6 +164,40 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     @TestOnly
+    /**
+     * Checks bloom filter of the column to find out whether none of the given partition rows
+     * can hold the key. Returns false when the column has no bloom filters declared.
+     *
+     * @param partitionIndex partition index
+     * @param columnIndex    reader column index
+     * @param rowLo          first partition row, inclusive
+     * @param rowHi          last partition row, exclusive
+     * @param hash           key hash, see {@link BloomFilterWriter#hashLong(long)} and friends
+     * @return true if the key is definitely absent in the rows
+     */
+    public boolean bloomFilterExcludes(int partitionIndex, int columnIndex, long rowLo, long rowHi, long hash) {
+        if (!metadata.isBloomFilterIndexed(columnIndex)) {
+            return false;
+        }
+        if (bloomFilterReader == null) {
+            bloomFilterReader = new BloomFilterReader(ff);
+        }
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        final Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return bloomFilterReader.excludes(
+                    TableUtils.bloomFilterFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    getPartitionRowCount(partitionIndex),
+                    rowLo,
+                    rowHi,
+                    hash
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public int calculateOpenPartitionCount() {
         int openPartitionCount = 0;
         for (int partitionIndex = partitionCount - 1; partitionIndex > -1; partitionIndex--) {
@@ -181,10 +220,13 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(txFile);
             Misc.free(todoMem);
             freeColumns();
+            compressedBlockCache = Misc.free(compressedBlockCache);
             freeTempMem();
             Misc.free(txnScoreboard);
             Misc.free(path);
             Misc.free(columnVersionReader);
+            zoneMapReader = Misc.free(zoneMapReader);
+            bloomFilterReader = Misc.free(bloomFilterReader);
             LOG.debug().$("closed '").utf8(tableToken.getTableName()).$('\'').$();
         }
     }
@@ -500,6 +542,42 @@ public class TableReader implements Closeable, SymbolTableSource {
         this.metadata.updateTableToken(tableToken);
     }
 
+    /**
+     * Checks zone map of the column to find out whether all values in the given partition rows
+     * fall outside the given value range. Returns false when zone maps are disabled or not available.
+     *
+     * @param partitionIndex partition index
+     * @param columnIndex    reader column index
+     * @param rowLo          first partition row, inclusive
+     * @param rowHi          last partition row, exclusive
+     * @param valueLo        range low bound, inclusive
+     * @param valueHi        range high bound, inclusive
+     * @return true if none of the rows can have a value in the range
+     */
+    public boolean zoneMapExcludes(int partitionIndex, int columnIndex, long rowLo, long rowHi, long valueLo, long valueHi) {
+        if (!configuration.isZoneMapEnabled()) {
+            return false;
+        }
+        if (zoneMapReader == null) {
+            zoneMapReader = new ZoneMapReader(ff);
+        }
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        final Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return zoneMapReader.excludes(
+                    TableUtils.zoneMapFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    getPartitionRowCount(partitionIndex),
+                    rowLo,
+                    rowHi,
+                    valueLo,
+                    valueHi
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private static int getColumnBits(int columnCount) {
         return Numbers.msb(Numbers.ceilPow2(columnCount) * 2);
     }
@@ -839,10 +917,32 @@ public class TableReader implements Closeable, SymbolTableSource {
             @Nullable MemoryCMR mem,
             long columnSize
     ) {
-        if (mem != null && mem != NullMemoryCMR.INSTANCE) {
+        return openOrCreateMemory(path, columns, primaryIndex, mem, columnSize, false);
+    }
+
+    @NotNull
+    private MemoryCMR openOrCreateMemory(
+            Path path,
+            ObjList<MemoryCMR> columns,
+            int primaryIndex,
+            @Nullable MemoryCMR mem,
+            long columnSize,
+            boolean compressed
+    ) {
+        if (mem != null && mem != NullMemoryCMR.INSTANCE && (mem instanceof MemoryCMRCompressedImpl) == compressed) {
             mem.of(ff, path.$(), columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getCMRInstance(ff, path.$(), columnSize, MemoryTag.MMAP_TABLE_READER);
+            // partition compression swaps column files, memory of the other kind cannot be reused
+            Misc.free(mem);
+            if (compressed) {
+                if (compressedBlockCache == null) {
+                    compressedBlockCache = new CompressedBlockCache(configuration.getCompressedBlockCacheSize());
+                }
+                mem = Vm.getCMRCompressedInstance(compressedBlockCache);
+                mem.of(ff, path.$(), columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
+            } else {
+                mem = Vm.getCMRInstance(ff, path.$(), columnSize, MemoryTag.MMAP_TABLE_READER);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -1096,12 +1196,19 @@ public class TableReader implements Closeable, SymbolTableSource {
                     openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize);
                 } else {
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
+                    // compressed partitions are read-only; the uncompressed file wins
+                    // when both exist, i.e. while the partition is being compressed
+                    final boolean compressed = txFile.isPartitionReadOnly(partitionIndex) && !ff.exists(path.$());
+                    if (compressed) {
+                        TableUtils.zFile(path.trimTo(plen), name, columnTxn);
+                    }
                     openOrCreateMemory(
                             path,
                             columns,
                             primaryIndex,
                             dataMem,
-                            columnRowCount << ColumnType.pow2SizeOf(columnType)
+                            columnRowCount << ColumnType.pow2SizeOf(columnType),
+                            compressed
                     );
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
@@ -267,6 +267,16 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
         return tableToken;
     }
 
+    /**
+     * Bloom filter flag is immutable, so it is read straight from the metadata file.
+     *
+     * @param columnIndex reader column index
+     * @return true if the column has bloom filters declared
+     */
+    public boolean isBloomFilterIndexed(int columnIndex) {
+        return TableUtils.isColumnBloomFilterIndexed(metaMem, getWriterIndex(columnIndex));
+    }
+
     public boolean isSoftLink() {
         return isSoftLink;
     }
@@ -40,6 +40,8 @@ public interface TableStructure extends TableDescriptor {
 
     CharSequence getTableName();
 
+    boolean isBloomFilterIndexed(int columnIndex);
+
     boolean isDedupKey(int columnIndex);
 
     boolean isIndexed(int columnIndex);
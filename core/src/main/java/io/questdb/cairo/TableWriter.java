@@ -130,6 +130,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final SOCountDownLatch indexLatch = new SOCountDownLatch();
     private final LongList indexSequences = new LongList();
     private final ObjList<ColumnIndexer> indexers;
+    // not null when large column writes, including O3 column copies, go through io_uring
+    private final IOURingFilesFacade ioURingFilesFacade;
     // This is the same message bus. When TableWriter instance created via CairoEngine, message bus is shared
     // and is owned by the engine. Since TableWriter would not have ownership of the bus it must not free it up.
     // On other hand when TableWrite is created outside CairoEngine, primarily in tests, the ownership of the
@@ -191,6 +193,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private TxReader attachTxReader;
     private long avgRecordSize;
     private boolean avoidIndexOnCommit = false;
+    private BloomFilterWriter bloomFilterWriter;
     private int columnCount;
     private long committedMasterRef;
     private ConvertOperatorImpl convertOperatorImpl;
@@ -247,6 +250,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private UpdateOperatorImpl updateOperatorImpl;
     private int walFdCacheSize;
     private WalTxnDetails walTxnDetails;
+    // last partition state zone maps were brought up to date for, to avoid touching the files on small commits
+    private long zoneMapBlockCount = -1;
+    private long zoneMapColumnVersion = -1;
+    private long zoneMapPartitionNameTxn = -1;
+    private long zoneMapPartitionTimestamp = Long.MIN_VALUE;
+    // zone maps of the partitions starting from this timestamp are brought up to date on commit
+    private long zoneMapTimestampLo;
+    private ZoneMapWriter zoneMapWriter;
 
     public TableWriter(
             CairoConfiguration configuration,
@@ -266,13 +277,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.ddlListener = ddlListener;
         this.checkpointStatus = checkpointStatus;
         this.frameFactory = new FrameFactory(configuration);
-        this.mixedIOFlag = configuration.isWriterMixedIOEnabled();
         this.metrics = metrics;
         this.ownMessageBus = ownMessageBus;
         this.messageBus = ownMessageBus != null ? ownMessageBus : messageBus;
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = configuration.isParallelIndexingEnabled();
-        this.ff = configuration.getFilesFacade();
+        // io_uring writes are positional writes, so they're only safe where the file system
+        // keeps them coherent with mmapped pages; once enabled, O3 copies write via the ring
+        // instead of copying into the mapped destination
+        this.ioURingFilesFacade = configuration.isWriterIOURingEnabled()
+                && configuration.getIOURingFacade().isAvailable()
+                && configuration.getFilesFacade().allowMixedIO(root)
+                ? new IOURingFilesFacade(configuration.getFilesFacade(), configuration.getIOURingFacade())
+                : null;
+        this.ff = ioURingFilesFacade != null ? ioURingFilesFacade : configuration.getFilesFacade();
+        this.mixedIOFlag = configuration.isWriterMixedIOEnabled() || ioURingFilesFacade != null;
         this.mkDirMode = configuration.getMkDirMode();
         this.detachedMkDirMode = configuration.getDetachedMkDirMode();
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
@@ -366,6 +385,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
+            zoneMapTimestampLo = txWriter.getLastPartitionTimestamp();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
             commandQueue = new RingQueue<>(
@@ -1079,6 +1099,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             syncColumns();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
+            updateZoneMaps();
 
             squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits());
 
@@ -1100,6 +1121,106 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     @Override
+    public boolean compressPartition(long partitionTimestamp) {
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .I$();
+            commit();
+        }
+
+        partitionTimestamp = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
+        int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+        if (partitionIndex < 0) {
+            formatPartitionForTimestamp(partitionTimestamp, -1);
+            throw CairoException.nonCritical().put("cannot compress partition, partition does not exist [table=").put(tableToken.getTableName())
+                    .put(", partition=").put(utf8Sink).put(']');
+        }
+        if (partitionTimestamp == txWriter.getLastPartitionTimestamp()) {
+            formatPartitionForTimestamp(partitionTimestamp, -1);
+            throw CairoException.nonCritical().put("cannot compress partition, partition is active [table=").put(tableToken.getTableName())
+                    .put(", partition=").put(utf8Sink).put(']');
+        }
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            formatPartitionForTimestamp(partitionTimestamp, -1);
+            throw CairoException.nonCritical().put("cannot compress partition, partition is in parquet format [table=").put(tableToken.getTableName())
+                    .put(", partition=").put(utf8Sink).put(']');
+        }
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            // already compressed or otherwise frozen
+            return false;
+        }
+
+        squashPartitionForce(partitionIndex);
+        partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionRowCount = getPartitionSize(partitionIndex);
+
+        setPathForPartition(path.trimTo(pathSize), partitionBy, partitionTimestamp, partitionNameTxn);
+        final int partitionLen = path.size();
+        LOG.info().$("compressing partition [path=").$substr(pathRootSize, path).I$();
+
+        final int commitMode = configuration.getCommitMode();
+        try (MemoryCMARW compressedMem = Vm.getCMARWInstance()) {
+            for (int columnIndex = 0, n = metadata.getColumnCount(); columnIndex < n; columnIndex++) {
+                final int columnType = metadata.getColumnType(columnIndex);
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                final long columnRowCount = columnTop != -1 ? partitionRowCount - columnTop : 0;
+                if (columnType < 0 || columnRowCount <= 0 || CompressedColumn.getCodec(columnType) == CompressedColumn.CODEC_NONE) {
+                    continue;
+                }
+
+                final String columnName = metadata.getColumnName(columnIndex);
+                final long columnNameTxn = getColumnNameTxn(partitionTimestamp, columnIndex);
+                final long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
+                final long fd = TableUtils.openRO(ff, dFile(path.trimTo(partitionLen), columnName, columnNameTxn), LOG);
+                try {
+                    final long addr = TableUtils.mapRO(ff, fd, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        compressedMem.of(ff, zFile(path.trimTo(partitionLen), columnName, columnNameTxn), ff.getPageSize(), MemoryTag.MMAP_TABLE_WRITER, configuration.getWriterFileOpenOpts());
+                        CompressedColumn.compress(compressedMem, addr, columnRowCount, columnType);
+                        if (commitMode != CommitMode.NOSYNC) {
+                            compressedMem.sync(commitMode == CommitMode.ASYNC);
+                        }
+                        compressedMem.close(true, Vm.TRUNCATE_TO_POINTER);
+                    } finally {
+                        ff.munmap(addr, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+            }
+        } finally {
+            path.trimTo(pathSize);
+        }
+
+        // compressed files are only picked up by readers for read-only partitions
+        // and only when the uncompressed file is gone
+        txWriter.setPartitionReadOnly(partitionIndex, true);
+        txWriter.bumpPartitionTableVersion();
+        txWriter.commit(denseSymbolMapWriters);
+
+        setPathForPartition(path.trimTo(pathSize), partitionBy, partitionTimestamp, partitionNameTxn);
+        try {
+            for (int columnIndex = 0, n = metadata.getColumnCount(); columnIndex < n; columnIndex++) {
+                final int columnType = metadata.getColumnType(columnIndex);
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                if (columnType > 0 && columnTop != -1 && partitionRowCount > columnTop
+                        && CompressedColumn.getCodec(columnType) != CompressedColumn.CODEC_NONE) {
+                    removeFileOrLog(ff, dFile(path.trimTo(partitionLen), metadata.getColumnName(columnIndex), getColumnNameTxn(partitionTimestamp, columnIndex)));
+                }
+            }
+        } finally {
+            path.trimTo(pathSize);
+        }
+        return true;
+    }
+
     public boolean convertPartition(long partitionTimestamp) {
         final int memoryTag = MemoryTag.MMAP_PARTITION_CONVERTER;
 
@@ -2518,6 +2639,28 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    @Override
+    public void setMetaWalApplyPriority(int walApplyPriority) {
+        try {
+            commit();
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, pathSize, this.metaSwapIndex);
+            try {
+                ddlMem.jumpTo(META_OFFSET_WAL_APPLY_PRIORITY);
+                ddlMem.putInt(walApplyPriority);
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            metadata.setWalApplyPriority(walApplyPriority);
+            engine.metadataCacheHydrateTable(metadata, true, true);
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     public void setSeqTxn(long seqTxn) {
         assert txWriter.getLagRowCount() == 0 && txWriter.getLagTxnCount() == 0;
         txWriter.setSeqTxn(seqTxn);
@@ -3564,6 +3707,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
+            updateZoneMaps();
 
             // Check if partitions are split into too many pieces and merge few of them back.
             squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits());
@@ -3799,6 +3943,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         ddlMem.putLong(metaMem.getLong(META_OFFSET_O3_MAX_LAG));
         ddlMem.putLong(txWriter.getMetadataVersion() + 1);
         ddlMem.putBool(metaMem.getBool(META_OFFSET_WAL_ENABLED));
+        ddlMem.jumpTo(META_OFFSET_WAL_APPLY_PRIORITY);
+        ddlMem.putInt(metaMem.getInt(META_OFFSET_WAL_APPLY_PRIORITY));
         metadata.setMetadataVersion(txWriter.getMetadataVersion() + 1);
     }
 
@@ -4701,6 +4847,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         convertOperatorImpl = Misc.free(convertOperatorImpl);
+        zoneMapWriter = Misc.free(zoneMapWriter);
+        bloomFilterWriter = Misc.free(bloomFilterWriter);
         dropIndexOperator = null;
         noOpRowCount = 0L;
         lastOpenPartitionTs = Long.MIN_VALUE;
@@ -4716,6 +4864,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             Misc.free(o3TimestampMem);
             Misc.free(o3TimestampMemCpy);
             Misc.free(ownMessageBus);
+            Misc.free(ioURingFilesFacade);
             if (tempMem16b != 0) {
                 tempMem16b = Unsafe.free(tempMem16b, 16, MemoryTag.NATIVE_TABLE_WRITER);
             }
@@ -4993,6 +5142,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private BloomFilterWriter getBloomFilterWriter() {
+        if (bloomFilterWriter == null) {
+            bloomFilterWriter = new BloomFilterWriter(configuration);
+        }
+        return bloomFilterWriter;
+    }
+
     private CharSequence getColumnNameSafe(int columnIndex) {
         try {
             return metadata.getColumnName(columnIndex);
@@ -5052,6 +5208,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 (avgRecordSize != 0 ? avgRecordSize : (avgRecordSize = TableUtils.estimateAvgRecordSize(metadata))));
     }
 
+    private ZoneMapWriter getZoneMapWriter() {
+        if (zoneMapWriter == null) {
+            zoneMapWriter = new ZoneMapWriter(configuration);
+        }
+        return zoneMapWriter;
+    }
+
     private void handleColumnTaskException(
             String message,
             int columnIndex,
@@ -5132,12 +5295,26 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         } else if (ColumnType.isSymbol(columnType) && metadata.isColumnIndexed(columnIndex)) {
             linkFile(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, newColumnNameTxn));
             linkFile(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, newColumnNameTxn));
+        } else if (ZoneMapWriter.isSupported(columnType)) {
+            linkFile(ff, zoneMapFile(path.trimTo(plen), columnName, columnNameTxn), zoneMapFile(other.trimTo(plen), newName, newColumnNameTxn));
+        }
+        if (metadata.isBloomFilterIndexed(columnIndex)) {
+            linkFile(ff, bloomFilterFile(path.trimTo(plen), columnName, columnNameTxn), bloomFilterFile(other.trimTo(plen), newName, newColumnNameTxn));
         }
         path.trimTo(pathSize);
         other.trimTo(pathSize);
         purgingOperator.add(columnIndex, columnNameTxn, partitionTimestamp, partitionNameTxn);
     }
 
+    private boolean hasBloomFilters() {
+        for (int i = 0; i < columnCount; i++) {
+            if (metadata.isBloomFilterIndexed(i) && metadata.getColumnType(i) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize, int columnIndex) {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NULL) {
@@ -5642,6 +5819,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 final long o3SplitPartitionSize = Unsafe.getUnsafe().getLong(blockAddress + 5 * Long.BYTES);
 
                 txWriter.minTimestamp = Math.min(timestampMin, txWriter.minTimestamp);
+                zoneMapTimestampLo = Math.min(zoneMapTimestampLo, partitionTimestamp);
                 int partitionIndexRaw = txWriter.findAttachedPartitionRawIndexByLoTimestamp(partitionTimestamp);
 
                 final long newPartitionTimestamp = partitionTimestamp;
@@ -5711,6 +5889,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             .$(", part2Size=").$(o3SplitPartitionSize)
                             .I$();
                     this.minSplitPartitionTimestamp = Math.min(this.minSplitPartitionTimestamp, newPartitionTimestamp);
+                    zoneMapTimestampLo = Math.min(zoneMapTimestampLo, partitionTimestamp);
+                    // the tail of the split partition can be overwritten later, drop its blocks
+                    truncateZoneMaps(
+                            partitionTimestamp,
+                            txWriter.getPartitionNameTxnByPartitionTimestamp(partitionTimestamp),
+                            srcDataNewPartitionSize
+                    );
                     txWriter.bumpPartitionTableVersion();
                     txWriter.updateAttachedPartitionSizeByRawIndex(newPartitionIndex, newPartitionTimestamp, o3SplitPartitionSize, txWriter.txn);
                     if (partitionTimestamp == lastPartitionTimestamp) {
@@ -7610,6 +7795,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 final long originalSize = txWriter.getPartitionRowCountByTimestamp(targetPartition);
 
                 boolean rw = !copyTargetFrame;
+                if (rw) {
+                    truncateZoneMaps(targetPartition, targetPartitionNameTxn, originalSize);
+                }
                 Frame targetFrame = null;
                 Frame firstPartitionFrame = frameFactory.open(rw, path, targetPartition, metadata, columnVersionWriter, originalSize);
                 try {
@@ -7687,6 +7875,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 columnVersionWriter.commit();
                 txWriter.setColumnVersion(columnVersionWriter.getVersion());
                 txWriter.commit(denseSymbolMapWriters);
+                zoneMapTimestampLo = Math.min(zoneMapTimestampLo, targetPartition);
+                updateZoneMaps();
                 processPartitionRemoveCandidates();
             }
         }
@@ -7810,6 +8000,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         } else {
             // truncate columns, we cannot remove them
             truncateColumns();
+            truncateZoneMaps(txWriter.getLastPartitionTimestamp(), -1L, 0);
         }
 
         txWriter.resetTimestamp();
@@ -7821,6 +8012,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throwDistressException(e);
         }
         this.minSplitPartitionTimestamp = Long.MAX_VALUE;
+        this.zoneMapTimestampLo = Long.MIN_VALUE;
         processPartitionRemoveCandidates();
 
         LOG.info().$("truncated [name=").utf8(tableToken.getTableName()).I$();
@@ -7842,6 +8034,25 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void truncateZoneMaps(long partitionTimestamp, long partitionNameTxn, long rowCount) {
+        // zone maps are truncated even when disabled, they may have been written before
+        zoneMapBlockCount = -1;
+        try {
+            setPathForPartition(other, partitionBy, partitionTimestamp, partitionNameTxn);
+            final int timestampIndex = metadata.getTimestampIndex();
+            for (int i = 0; i < columnCount; i++) {
+                if (i != timestampIndex && ZoneMapWriter.isSupported(metadata.getColumnType(i))) {
+                    getZoneMapWriter().truncate(other, metadata.getColumnName(i), columnVersionWriter.getColumnNameTxn(partitionTimestamp, i), rowCount);
+                }
+                if (metadata.isBloomFilterIndexed(i) && BloomFilterWriter.isSupported(metadata.getColumnType(i))) {
+                    getBloomFilterWriter().truncate(other, metadata.getColumnName(i), columnVersionWriter.getColumnNameTxn(partitionTimestamp, i), rowCount);
+                }
+            }
+        } finally {
+            other.trimTo(pathSize);
+        }
+    }
+
     private void updateIndexes() {
         if (indexCount == 0 || avoidIndexOnCommit) {
             avoidIndexOnCommit = false;
@@ -8054,6 +8265,92 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updatePartitionZoneMaps(long partitionTimestamp, long partitionNameTxn, long rowCount, int blockRows) {
+        try {
+            setPathForPartition(other, partitionBy, partitionTimestamp, partitionNameTxn);
+            final int timestampIndex = metadata.getTimestampIndex();
+            final boolean zoneMapEnabled = configuration.isZoneMapEnabled();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final boolean zoneMap = zoneMapEnabled && i != timestampIndex && ZoneMapWriter.isSupported(columnType);
+                final boolean bloomFilter = metadata.isBloomFilterIndexed(i) && BloomFilterWriter.isSupported(columnType);
+                if (!zoneMap && !bloomFilter) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop > -1L) {
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                    if (zoneMap) {
+                        getZoneMapWriter().update(other, columnName, columnNameTxn, columnType, columnTop, rowCount, blockRows);
+                    }
+                    if (bloomFilter) {
+                        getBloomFilterWriter().update(other, columnName, columnNameTxn, columnType, columnTop, rowCount, blockRows);
+                    }
+                }
+            }
+        } catch (CairoException e) {
+            // the data is committed at this point, zone maps are an optimisation and can be rebuilt
+            LOG.error().$("could not update zone maps [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            other.trimTo(pathSize);
+        }
+    }
+
+    private void updateZoneMaps() {
+        if (!configuration.isZoneMapEnabled() && !hasBloomFilters()) {
+            return;
+        }
+        final int blockRows = configuration.getZoneMapBlockRows();
+        final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        final long lastPartitionNameTxn = PartitionBy.isPartitioned(partitionBy) ? txWriter.getPartitionNameTxnByPartitionTimestamp(lastPartitionTimestamp) : -1L;
+        final long blockCount = txWriter.getTransientRowCount() / blockRows;
+        if (zoneMapTimestampLo >= lastPartitionTimestamp
+                && zoneMapPartitionTimestamp == lastPartitionTimestamp
+                && zoneMapPartitionNameTxn == lastPartitionNameTxn
+                && zoneMapColumnVersion == columnVersionWriter.getVersion()
+                && zoneMapBlockCount == blockCount) {
+            // no new complete blocks
+            return;
+        }
+
+        if (PartitionBy.isPartitioned(partitionBy)) {
+            final int partitionCount = txWriter.getPartitionCount();
+            if (partitionCount > 0) {
+                int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(Math.min(zoneMapTimestampLo, lastPartitionTimestamp));
+                if (partitionIndex < 0) {
+                    partitionIndex = -partitionIndex - 1;
+                }
+                for (; partitionIndex < partitionCount; partitionIndex++) {
+                    if (txWriter.isPartitionReadOnly(partitionIndex) || txWriter.isPartitionParquet(partitionIndex)) {
+                        continue;
+                    }
+                    final long rowCount = partitionIndex == partitionCount - 1
+                            ? txWriter.getTransientRowCount()
+                            : txWriter.getPartitionSize(partitionIndex);
+                    updatePartitionZoneMaps(
+                            txWriter.getPartitionTimestampByIndex(partitionIndex),
+                            txWriter.getPartitionNameTxn(partitionIndex),
+                            rowCount,
+                            blockRows
+                    );
+                }
+            }
+        } else {
+            updatePartitionZoneMaps(lastPartitionTimestamp, -1L, txWriter.getTransientRowCount(), blockRows);
+        }
+        // partitions appended in order by the next commits follow the current last partition
+        zoneMapTimestampLo = lastPartitionTimestamp;
+        zoneMapPartitionTimestamp = lastPartitionTimestamp;
+        zoneMapPartitionNameTxn = lastPartitionNameTxn;
+        zoneMapColumnVersion = columnVersionWriter.getVersion();
+        zoneMapBlockCount = blockCount;
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -40,6 +40,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
     private int symbolMapCount;
     private int tableId;
     private TableToken tableToken;
+    private int walApplyPriority;
     private boolean walEnabled;
 
     public TableWriterMetadata(TableToken tableToken, MemoryMR metaMem) {
@@ -106,6 +107,11 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         return tableToken;
     }
 
+    @Override
+    public boolean isBloomFilterIndexed(int columnIndex) {
+        return ((WriterTableColumnMetadata) getColumnMetadata(columnIndex)).bloomFilterIndexed;
+    }
+
     @Override
     public boolean isIndexed(int columnIndex) {
         return getColumnMetadata(columnIndex).isIndexed();
@@ -121,6 +127,10 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         return false;
     }
 
+    public int getWalApplyPriority() {
+        return walApplyPriority;
+    }
+
     @Override
     public boolean isWalEnabled() {
         return walEnabled;
@@ -138,6 +148,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.columnMetadata.clear();
         this.metadataVersion = metaMem.getLong(TableUtils.META_OFFSET_METADATA_VERSION);
         this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
+        this.walApplyPriority = metaMem.getInt(TableUtils.META_OFFSET_WAL_APPLY_PRIORITY);
 
         long offset = TableUtils.getColumnNameOffset(columnCount);
         this.symbolMapCount = 0;
@@ -148,22 +159,23 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
             assert name != null;
             int type = TableUtils.getColumnType(metaMem, i);
             String nameStr = Chars.toString(name);
-            columnMetadata.add(
-                    new WriterTableColumnMetadata(
-                            nameStr,
-                            type,
-                            TableUtils.isColumnIndexed(metaMem, i),
-                            TableUtils.getIndexBlockCapacity(metaMem, i),
-                            TableUtils.isSymbolCached(metaMem, i),
-                            null,
-                            i,
-                            TableUtils.isSequential(metaMem, i),
-                            TableUtils.getSymbolCapacity(metaMem, i),
-                            TableUtils.isColumnDedupKey(metaMem, i),
-                            TableUtils.getReplacingColumnIndex(metaMem, i),
-                            TableUtils.isSymbolCached(metaMem, i)
-                    )
+            final WriterTableColumnMetadata column = new WriterTableColumnMetadata(
+                    nameStr,
+                    type,
+                    TableUtils.isColumnIndexed(metaMem, i),
+                    TableUtils.getIndexBlockCapacity(metaMem, i),
+                    TableUtils.isSymbolCached(metaMem, i),
+                    null,
+                    i,
+                    TableUtils.isSequential(metaMem, i),
+                    TableUtils.getSymbolCapacity(metaMem, i),
+                    TableUtils.isColumnDedupKey(metaMem, i),
+                    TableUtils.getReplacingColumnIndex(metaMem, i),
+                    TableUtils.isSymbolCached(metaMem, i)
             );
+            // bloom filters can only be declared on table creation
+            column.bloomFilterIndexed = TableUtils.isColumnBloomFilterIndexed(metaMem, i);
+            columnMetadata.add(column);
             if (type > -1) {
                 columnNameIndexMap.put(nameStr, i);
                 if (ColumnType.isSymbol(type)) {
@@ -186,6 +198,10 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.o3MaxLag = o3MaxLagUs;
     }
 
+    public void setWalApplyPriority(int walApplyPriority) {
+        this.walApplyPriority = walApplyPriority;
+    }
+
     public void updateTableToken(TableToken tableToken) {
         this.tableToken = tableToken;
     }
@@ -267,6 +283,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
     public static class WriterTableColumnMetadata extends TableColumnMetadata {
         private final boolean sequential;
         private final int symbolCapacity;
+        private boolean bloomFilterIndexed;
         private boolean symbolCached;
 
         public WriterTableColumnMetadata(String nameStr, int type, boolean columnIndexed, int indexBlockCapacity, boolean symbolTableStatic, RecordMetadata parent, int i, boolean sequential, int symbolCapacity, boolean isDedupKey, int replacingIndex, boolean symbolCached) {
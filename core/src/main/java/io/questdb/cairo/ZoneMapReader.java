@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Reads zone maps written by {@link ZoneMapWriter}. Zone map files are opened on demand
+ * and closed straight away, so that they can be removed or replaced by the writer at any time.
+ */
+public class ZoneMapReader implements QuietCloseable {
+    private static final long BUF_SIZE = 256 * ZoneMapWriter.ENTRY_SIZE;
+    private final FilesFacade ff;
+    private long buf;
+
+    public ZoneMapReader(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void close() {
+        buf = Unsafe.free(buf, BUF_SIZE, MemoryTag.NATIVE_TABLE_READER);
+    }
+
+    /**
+     * Checks whether none of the column values in the given rows fall into the given value range.
+     * Returns false when there is no zone map or when the zone map does not cover all the rows.
+     *
+     * @param path              zone map file path
+     * @param partitionRowCount partition row count visible to the caller
+     * @param rowLo             first row, inclusive
+     * @param rowHi             last row, exclusive
+     * @param valueLo           range low bound, inclusive
+     * @param valueHi           range high bound, inclusive
+     * @return true if all the values in the rows are outside the value range
+     */
+    public boolean excludes(LPSZ path, long partitionRowCount, long rowLo, long rowHi, long valueLo, long valueHi) {
+        if (rowLo >= rowHi) {
+            return false;
+        }
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            if (buf == 0) {
+                buf = Unsafe.malloc(BUF_SIZE, MemoryTag.NATIVE_TABLE_READER);
+            }
+            if (ff.read(fd, buf, ZoneMapWriter.HEADER_SIZE, 0) != ZoneMapWriter.HEADER_SIZE) {
+                return false;
+            }
+            final long blockRows = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_BLOCK_ROWS);
+            final long blockCount = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_BLOCK_COUNT);
+            if (blockRows < 1) {
+                return false;
+            }
+            // blocks beyond the visible rows may describe data this reader does not see
+            final long usableBlockCount = Math.min(blockCount, partitionRowCount / blockRows);
+            final long blockLo = rowLo / blockRows;
+            final long blockHi = (rowHi - 1) / blockRows + 1;
+            if (blockHi > usableBlockCount) {
+                return false;
+            }
+
+            long offset = ZoneMapWriter.HEADER_SIZE + blockLo * ZoneMapWriter.ENTRY_SIZE;
+            final long offsetHi = ZoneMapWriter.HEADER_SIZE + blockHi * ZoneMapWriter.ENTRY_SIZE;
+            while (offset < offsetHi) {
+                final long len = Math.min(BUF_SIZE, offsetHi - offset);
+                if (ff.read(fd, buf, len, offset) != len) {
+                    return false;
+                }
+                for (long p = buf, lim = buf + len; p < lim; p += ZoneMapWriter.ENTRY_SIZE) {
+                    final long min = Unsafe.getUnsafe().getLong(p);
+                    final long max = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                    if (max >= valueLo && min <= valueHi) {
+                        return false;
+                    }
+                }
+                offset += len;
+            }
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Maintains zone maps of fixed-size integer and time columns in native partitions. A zone map
+ * keeps min and max column values for each complete block of rows, so that scans can skip the
+ * page frames none of which rows can match a filter.
+ * <p>
+ * File layout:
+ * <pre>
+ * | rows per block (long) | block count (long) | min (long) | max (long) | min (long) | max (long) | ...
+ * </pre>
+ * Values are stored as longs, nulls included, so the min/max range of a block is a superset of its
+ * non-null values. Blocks overlapping the column top are stored with the widest possible range.
+ * The block count is written after the blocks, so that concurrent readers never see incomplete blocks.
+ */
+public class ZoneMapWriter implements QuietCloseable {
+    public static final long ENTRY_SIZE = 2 * Long.BYTES;
+    public static final long HEADER_SIZE = 2 * Long.BYTES;
+    public static final long OFFSET_BLOCK_COUNT = Long.BYTES;
+    public static final long OFFSET_BLOCK_ROWS = 0;
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private long buf;
+    private long bufSize;
+
+    public ZoneMapWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    public static boolean isSupported(int columnType) {
+        if (columnType < 0) {
+            // deleted column
+            return false;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+        bufSize = 0;
+    }
+
+    /**
+     * Drops the blocks beyond the given row count. Must be called before rows of a partition
+     * are overwritten in place, e.g. when partition tail is replaced.
+     *
+     * @param path          partition path, left unchanged on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param rowCount      number of partition rows to keep the blocks for
+     */
+    public void truncate(Path path, CharSequence columnName, long columnNameTxn, long rowCount) {
+        final int pathLen = path.size();
+        long fd = -1;
+        try {
+            final LPSZ zoneMapFile = TableUtils.zoneMapFile(path, columnName, columnNameTxn);
+            if (!ff.exists(zoneMapFile)) {
+                return;
+            }
+            fd = TableUtils.openRW(ff, zoneMapFile, LOG, fileOpenOpts);
+            if (ff.length(fd) < HEADER_SIZE) {
+                return;
+            }
+            final long blockRows = readLong(fd, OFFSET_BLOCK_ROWS, path);
+            final long blockCount = readLong(fd, OFFSET_BLOCK_COUNT, path);
+            if (blockRows > 0 && blockCount > rowCount / blockRows) {
+                writeLong(fd, OFFSET_BLOCK_COUNT, rowCount / blockRows, path);
+            }
+        } finally {
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            path.trimTo(pathLen);
+        }
+    }
+
+    /**
+     * Appends the blocks of the committed partition rows to the zone map of the column,
+     * creating the zone map file if it does not exist.
+     *
+     * @param path          partition path, left unchanged on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param columnType    column type, see {@link #isSupported(int)}
+     * @param columnTop     column top in the partition
+     * @param rowCount      committed partition row count
+     * @param blockRows     rows per block
+     */
+    public void update(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long rowCount,
+            long blockRows
+    ) {
+        final int pathLen = path.size();
+        long fd = -1;
+        try {
+            fd = TableUtils.openRW(ff, TableUtils.zoneMapFile(path, columnName, columnNameTxn), LOG, fileOpenOpts);
+            long blockCount = 0;
+            if (ff.length(fd) >= HEADER_SIZE && readLong(fd, OFFSET_BLOCK_ROWS, path) == blockRows) {
+                blockCount = readLong(fd, OFFSET_BLOCK_COUNT, path);
+            } else {
+                // new file or block size has changed, start over
+                writeLong(fd, OFFSET_BLOCK_COUNT, 0, path);
+                writeLong(fd, OFFSET_BLOCK_ROWS, blockRows, path);
+            }
+
+            final long newBlockCount = rowCount / blockRows;
+            if (blockCount >= newBlockCount) {
+                if (blockCount > newBlockCount) {
+                    writeLong(fd, OFFSET_BLOCK_COUNT, newBlockCount, path);
+                }
+                return;
+            }
+
+            final long entriesSize = (newBlockCount - blockCount) * ENTRY_SIZE;
+            if (bufSize < entriesSize) {
+                buf = Unsafe.realloc(buf, bufSize, entriesSize, MemoryTag.NATIVE_TABLE_WRITER);
+                bufSize = entriesSize;
+            }
+
+            final long rowHi = newBlockCount * blockRows;
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            long dataFd = -1;
+            long dataAddr = 0;
+            long dataSize = 0;
+            try {
+                if (rowHi > columnTop) {
+                    path.trimTo(pathLen);
+                    dataFd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+                    dataSize = (rowHi - columnTop) << shl;
+                    dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+
+                long p = buf;
+                for (long rowLo = blockCount * blockRows; rowLo < rowHi; rowLo += blockRows, p += ENTRY_SIZE) {
+                    if (rowLo < columnTop) {
+                        Unsafe.getUnsafe().putLong(p, Long.MIN_VALUE);
+                        Unsafe.getUnsafe().putLong(p + Long.BYTES, Long.MAX_VALUE);
+                    } else {
+                        final long lo = dataAddr + ((rowLo - columnTop) << shl);
+                        computeMinMax(lo, lo + (blockRows << shl), shl, p);
+                    }
+                }
+            } finally {
+                if (dataAddr != 0) {
+                    ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (dataFd > -1) {
+                    ff.close(dataFd);
+                }
+            }
+
+            TableUtils.zoneMapFile(path.trimTo(pathLen), columnName, columnNameTxn);
+            if (ff.write(fd, buf, entriesSize, HEADER_SIZE + blockCount * ENTRY_SIZE) != entriesSize) {
+                throw CairoException.critical(ff.errno()).put("could not write zone map [path=").put(path).put(']');
+            }
+            writeLong(fd, OFFSET_BLOCK_COUNT, newBlockCount, path);
+        } finally {
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            path.trimTo(pathLen);
+        }
+    }
+
+    private static void computeMinMax(long lo, long hi, int shl, long dst) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        switch (shl) {
+            case 0:
+                for (long p = lo; p < hi; p++) {
+                    final long v = Unsafe.getUnsafe().getByte(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+            case 1:
+                for (long p = lo; p < hi; p += Short.BYTES) {
+                    final long v = Unsafe.getUnsafe().getShort(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+            case 2:
+                for (long p = lo; p < hi; p += Integer.BYTES) {
+                    final long v = Unsafe.getUnsafe().getInt(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+            default:
+                for (long p = lo; p < hi; p += Long.BYTES) {
+                    final long v = Unsafe.getUnsafe().getLong(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+        }
+        Unsafe.getUnsafe().putLong(dst, min);
+        Unsafe.getUnsafe().putLong(dst + Long.BYTES, max);
+    }
+
+    private void ensureTempMem() {
+        if (bufSize < Long.BYTES) {
+            buf = Unsafe.realloc(buf, bufSize, ENTRY_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = ENTRY_SIZE;
+        }
+    }
+
+    private long readLong(long fd, long offset, Path path) {
+        ensureTempMem();
+        return TableUtils.readLongOrFail(ff, fd, offset, buf, path.$());
+    }
+
+    private void writeLong(long fd, long offset, long value, Path path) {
+        ensureTempMem();
+        TableUtils.writeLongOrFail(ff, fd, offset, value, buf, path);
+    }
+}
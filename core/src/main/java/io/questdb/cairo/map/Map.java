@@ -58,6 +58,12 @@ public interface Map extends Mutable, Closeable, Reopenable {
         return -1;
     }
 
+    /**
+     * Returns approximate amount of native memory occupied by the map, i.e. its hash table and heap.
+     * Used to check the map against the GROUP BY spill budget.
+     */
+    long getUsedMemorySize();
+
     boolean isOpen();
 
     void merge(Map srcMap, MapValueMergeFunction mergeFunc);
@@ -260,6 +260,36 @@ public class OrderedMap implements Map, Reopenable {
         return kPos;
     }
 
+    /**
+     * Looks up the key written to the given map's key, see {@link #withKey()}, without modifying
+     * this map. Unlike {@link MapKey#findValue()}, this method may be called concurrently from
+     * multiple threads as long as this map isn't modified and each thread uses its own key map.
+     * The key map must have the same key and value types as this map.
+     *
+     * @param keyMap map holding the key to look up
+     * @return value flyweight owned by the key map or null if the key is not found
+     */
+    public MapValue findValueConcurrent(OrderedMap keyMap) {
+        final Key srcKey = keyMap.key;
+        final long srcKeySize = srcKey.commit();
+        final int hashCodeLo = Numbers.decodeLowInt(srcKey.hash());
+        int index = hashCodeLo & mask;
+        long offset;
+        while ((offset = getOffset(offsets, index)) > -1) {
+            if (hashCodeLo == getHashCodeLo(offsets, index)) {
+                final long startAddress = heapStart + offset;
+                final boolean eq = keySize == -1
+                        ? Unsafe.getUnsafe().getInt(startAddress) == srcKeySize && Vect.memeq(startAddress + keyOffset, srcKey.startAddress + keyOffset, srcKeySize)
+                        : Vect.memeq(startAddress, srcKey.startAddress, keySize);
+                if (eq) {
+                    return keyMap.value.of(startAddress, startAddress + keyOffset + srcKeySize, heapLimit, false);
+                }
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
     @Override
     public MapRecordCursor getCursor() {
         return cursor.init(heapStart, heapLimit, size);
@@ -285,6 +315,11 @@ public class OrderedMap implements Map, Reopenable {
         return kPos - heapStart;
     }
 
+    @Override
+    public long getUsedMemorySize() {
+        return (kPos - heapStart) + ((long) keyCapacity << 3);
+    }
+
     public int getValueColumnCount() {
         return valueColumnCount;
     }
@@ -169,6 +169,11 @@ public class Unordered2Map implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public long getUsedMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public boolean isOpen() {
         return memStart != 0;
@@ -222,6 +222,11 @@ public class Unordered4Map implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public long getUsedMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public boolean isOpen() {
         return memStart != 0;
@@ -223,6 +223,11 @@ public class Unordered8Map implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public long getUsedMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public boolean isOpen() {
         return memStart != 0;
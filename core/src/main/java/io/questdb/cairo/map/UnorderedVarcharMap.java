@@ -230,6 +230,11 @@ public class UnorderedVarcharMap implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public long getUsedMemorySize() {
+        return memLimit - memStart + allocator.allocated();
+    }
+
     @Override
     public boolean isOpen() {
         return memStart != 0;
@@ -25,6 +25,8 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Represents a contiguous fragment of a table partition.
@@ -74,6 +76,32 @@ public interface PageFrame {
      */
     int getColumnCount();
 
+    /**
+     * Return the address of the mapped file of a column stored in the native compressed
+     * format, see {@link io.questdb.cairo.CompressedColumn}, or 0 for other columns.
+     * Compressed columns have zero page address; {@link PageFrameMemoryPool} decodes them
+     * when navigating to the frame.
+     * <p>
+     * Can be called only for frames in native format.
+     *
+     * @param columnIndex index of column
+     * @return address of the compressed column file or 0
+     */
+    default long getCompressedPageAddress(int columnIndex) {
+        return 0;
+    }
+
+    /**
+     * Return the offset of the frame's first value within the decoded compressed column,
+     * see {@link #getCompressedPageAddress(int)}.
+     *
+     * @param columnIndex index of column
+     * @return offset in bytes
+     */
+    default long getCompressedPageOffset(int columnIndex) {
+        return 0;
+    }
+
     /**
      * Returns page frame format.
      * <p>
@@ -103,6 +131,28 @@ public interface PageFrame {
      */
     long getPageSize(int columnIndex);
 
+    /**
+     * Return index of the column within the Parquet file the frame belongs to.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     *
+     * @param columnIndex index of column
+     * @return index of the column in the Parquet file
+     */
+    int getParquetColumnIndex(int columnIndex);
+
+    /**
+     * Return path to the Parquet file the frame belongs to or null for frames in native format.
+     */
+    @Nullable
+    LPSZ getParquetPath();
+
+    /**
+     * Return index of the Parquet row group the frame belongs to or -1 for frames in native format.
+     * Parquet frames always span a single row group.
+     */
+    int getParquetRowGroup();
+
     /**
      * Return high row index within the frame's partition, exclusive.
      */
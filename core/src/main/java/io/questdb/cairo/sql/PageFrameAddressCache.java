@@ -27,24 +27,46 @@ package io.questdb.cairo.sql;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.std.*;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Holds formats, addresses and sizes for native (mmapped) page frames.
+ * Native frames of compressed partitions also hold compressed file addresses
+ * of the columns that have to be decoded. For Parquet page frames, holds the file, the row group and the file column
+ * indexes required to decode the frame.
  * <p>
  * Once initialized, this cache is thread-safe.
  * <p>
+ * The cache also drives read-ahead for sequential scans, see {@link #prefetch(int)}.
+ * <p>
  * Meant to be used along with {@link PageFrameMemoryPool}.
  */
 public class PageFrameAddressCache implements Mutable {
     private final ObjList<LongList> auxPageAddresses = new ObjList<>();
     private final ObjList<LongList> auxPageSizes = new ObjList<>();
     private final IntList columnTypes = new IntList();
+    // <compressed file address, frame offset> pairs per column, or null for frames with no compressed columns
+    private final ObjList<LongList> compressedPageAddresses = new ObjList<>();
+    private final FilesFacade ff;
     private final ByteList frameFormats = new ByteList();
     private final LongList frameSizes = new LongList();
     private final ObjectPool<LongList> longListPool = new ObjectPool<>(LongList::new, 64);
     private final long nativeCacheSizeThreshold;
     private final ObjList<LongList> pageAddresses = new ObjList<>();
     private final ObjList<LongList> pageSizes = new ObjList<>();
+    private final ObjList<LongList> parquetColumnIndexes = new ObjList<>();
+    private final IntList parquetPathIndexes = new IntList();
+    private final ObjectPool<Utf8StringSink> parquetPathPool = new ObjectPool<>(Utf8StringSink::new, 1);
+    private final ObjList<Utf8StringSink> parquetPaths = new ObjList<>();
+    private final IntList parquetRowGroups = new IntList();
+    private final long prefetchBudget;
+    private final int prefetchFrames;
+    // Exclusive index of the last frame advised for read-ahead.
+    private final AtomicInteger prefetchHi = new AtomicInteger();
     // Makes it possible to determine real row id, not the one relative to the page.
     private final LongList rowIdOffsets = new LongList();
     // Sum of all LongList sizes.
@@ -53,6 +75,9 @@ public class PageFrameAddressCache implements Mutable {
 
     public PageFrameAddressCache(CairoConfiguration configuration) {
         this.nativeCacheSizeThreshold = configuration.getSqlJitPageAddressCacheThreshold() / Long.BYTES;
+        this.ff = configuration.getFilesFacade();
+        this.prefetchFrames = Files.POSIX_MADV_WILLNEED > -1 ? configuration.getSqlPageFramePrefetchFrames() : 0;
+        this.prefetchBudget = configuration.getSqlPageFramePrefetchBudget();
     }
 
     public void add(int frameIndex, @Transient PageFrame frame) {
@@ -65,7 +90,17 @@ public class PageFrameAddressCache implements Mutable {
             final LongList framePageSizes = longListPool.next();
             final LongList frameAuxPageAddresses = longListPool.next();
             final LongList frameAuxPageSizes = longListPool.next();
+            LongList frameCompressedPageAddresses = null;
             for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                final long compressedPageAddress = frame.getCompressedPageAddress(columnIndex);
+                if (compressedPageAddress != 0) {
+                    if (frameCompressedPageAddresses == null) {
+                        frameCompressedPageAddresses = longListPool.next();
+                        frameCompressedPageAddresses.setAll(2 * columnCount, 0);
+                    }
+                    frameCompressedPageAddresses.setQuick(2 * columnIndex, compressedPageAddress);
+                    frameCompressedPageAddresses.setQuick(2 * columnIndex + 1, frame.getCompressedPageOffset(columnIndex));
+                }
                 framePageAddresses.add(frame.getPageAddress(columnIndex));
                 framePageSizes.add(frame.getPageSize(columnIndex));
                 if (ColumnType.isVarSize(columnTypes.getQuick(columnIndex))) {
@@ -84,11 +119,27 @@ public class PageFrameAddressCache implements Mutable {
             cacheSize += frameAuxPageAddresses.capacity();
             auxPageSizes.add(frameAuxPageSizes);
             cacheSize += frameAuxPageSizes.capacity();
+            compressedPageAddresses.add(frameCompressedPageAddresses);
+            if (frameCompressedPageAddresses != null) {
+                cacheSize += frameCompressedPageAddresses.capacity();
+            }
+            parquetColumnIndexes.add(null);
+            parquetPathIndexes.add(-1);
+            parquetRowGroups.add(-1);
         } else {
             pageAddresses.add(null);
             pageSizes.add(null);
             auxPageAddresses.add(null);
             auxPageSizes.add(null);
+            compressedPageAddresses.add(null);
+            final LongList frameParquetColumnIndexes = longListPool.next();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                frameParquetColumnIndexes.add(frame.getParquetColumnIndex(columnIndex));
+            }
+            parquetColumnIndexes.add(frameParquetColumnIndexes);
+            cacheSize += frameParquetColumnIndexes.capacity();
+            parquetPathIndexes.add(addParquetPath(frame.getParquetPath()));
+            parquetRowGroups.add(frame.getParquetRowGroup());
         }
 
         frameSizes.add(frame.getPartitionHi() - frame.getPartitionLo());
@@ -104,7 +155,14 @@ public class PageFrameAddressCache implements Mutable {
         auxPageAddresses.clear();
         pageSizes.clear();
         auxPageSizes.clear();
+        compressedPageAddresses.clear();
         rowIdOffsets.clear();
+        parquetColumnIndexes.clear();
+        parquetPathIndexes.clear();
+        parquetPaths.clear();
+        parquetPathPool.clear();
+        parquetRowGroups.clear();
+        prefetchHi.set(0);
         if (cacheSize < nativeCacheSizeThreshold) {
             longListPool.clear();
         } else {
@@ -129,6 +187,18 @@ public class PageFrameAddressCache implements Mutable {
         return columnTypes;
     }
 
+    /**
+     * Returns <compressed file address, frame offset> pairs per column of a native frame
+     * or null if the frame has no compressed columns. Columns with zero address aren't compressed.
+     */
+    public LongList getCompressedPageAddresses(int frameIndex) {
+        return compressedPageAddresses.getQuick(frameIndex);
+    }
+
+    public FilesFacade getFilesFacade() {
+        return ff;
+    }
+
     public byte getFrameFormat(int frameIndex) {
         return frameFormats.getQuick(frameIndex);
     }
@@ -145,28 +215,154 @@ public class PageFrameAddressCache implements Mutable {
         return pageSizes.getQuick(frameIndex);
     }
 
+    public LongList getParquetColumnIndexes(int frameIndex) {
+        return parquetColumnIndexes.getQuick(frameIndex);
+    }
+
+    public Utf8Sequence getParquetPath(int frameIndex) {
+        return parquetPaths.getQuick(parquetPathIndexes.getQuick(frameIndex));
+    }
+
+    /**
+     * Returns index of the Parquet file the frame belongs to. Frames that share
+     * the index belong to the same file, so a decoder can be reused between them.
+     */
+    public int getParquetPathIndex(int frameIndex) {
+        return parquetPathIndexes.getQuick(frameIndex);
+    }
+
+    public int getParquetRowGroup(int frameIndex) {
+        return parquetRowGroups.getQuick(frameIndex);
+    }
+
     public long getRowIdOffset(int frameIndex) {
         return rowIdOffsets.getQuick(frameIndex);
     }
 
     public boolean hasColumnTops(int frameIndex) {
-        final byte frameFormat = frameFormats.getQuick(frameIndex);
-        assert frameFormat == PageFrame.NATIVE_FORMAT;
+        if (frameFormats.getQuick(frameIndex) != PageFrame.NATIVE_FORMAT) {
+            // Parquet frames are decoded in full, so they never have column tops
+            return false;
+        }
+        final LongList frameCompressedPageAddresses = compressedPageAddresses.getQuick(frameIndex);
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             if (pageAddresses.getQuick(frameIndex).getQuick(columnIndex) == 0
                     // VARCHAR column that contains short strings will have zero data vector,
                     // so for such columns we also need to check that the aux (index) vector is zero.
-                    && auxPageAddresses.getQuick(frameIndex).getQuick(columnIndex) == 0) {
+                    && auxPageAddresses.getQuick(frameIndex).getQuick(columnIndex) == 0
+                    // compressed columns are decoded on navigation
+                    && (frameCompressedPageAddresses == null || frameCompressedPageAddresses.getQuick(2 * columnIndex) == 0)) {
                 return true;
             }
         }
         return false;
     }
 
+    public boolean hasCompressedColumns(int frameIndex) {
+        return compressedPageAddresses.getQuick(frameIndex) != null;
+    }
+
     public boolean isVarSizeColumn(int columnIndex) {
         return ColumnType.isVarSize(columnTypes.getQuick(columnIndex));
     }
 
+    /**
+     * Advises the OS to read ahead the given native page frame and the cached frames that follow
+     * it. The frames after the given one are limited to {@link CairoConfiguration#getSqlPageFramePrefetchFrames()}
+     * and the whole window to {@link CairoConfiguration#getSqlPageFramePrefetchBudget()} bytes, but the
+     * window always includes at least one frame. Each frame is advised at most once, so concurrent
+     * workers scanning the same cache do not repeat the calls.
+     * <p>
+     * Caches populated lazily, frame by frame, get only the current frame advised.
+     * <p>
+     * Var-size data vectors are advised only when the previous frame belongs to the same
+     * column mapping, as that is the only way to tell where the frame's data starts.
+     */
+    public void prefetch(int frameIndex) {
+        if (prefetchFrames < 1) {
+            return;
+        }
+
+        final int lo = frameIndex;
+        final int limit = Math.min(frameSizes.size(), lo + 1 + prefetchFrames);
+        int hi = lo;
+        long bytes = 0;
+        while (hi < limit) {
+            bytes += adviseFrame(hi, false);
+            if (bytes > prefetchBudget && hi > lo) {
+                break;
+            }
+            hi++;
+        }
+
+        int advisedHi;
+        do {
+            advisedHi = prefetchHi.get();
+            if (advisedHi >= hi) {
+                return;
+            }
+        } while (!prefetchHi.compareAndSet(advisedHi, hi));
+
+        for (int i = Math.max(lo, advisedHi); i < hi; i++) {
+            adviseFrame(i, true);
+        }
+    }
+
+    private int addParquetPath(Utf8Sequence path) {
+        assert path != null;
+        // frames usually come file by file, so comparing with the last path is enough
+        final int lastIndex = parquetPaths.size() - 1;
+        if (lastIndex > -1 && Utf8s.equals(parquetPaths.getQuick(lastIndex), path)) {
+            return lastIndex;
+        }
+        final Utf8StringSink sink = parquetPathPool.next();
+        sink.put(path);
+        parquetPaths.add(sink);
+        return lastIndex + 1;
+    }
+
+    private long adviseFrame(int frameIndex, boolean advise) {
+        if (frameFormats.getQuick(frameIndex) != PageFrame.NATIVE_FORMAT) {
+            return 0;
+        }
+
+        final LongList framePageAddresses = pageAddresses.getQuick(frameIndex);
+        final LongList framePageSizes = pageSizes.getQuick(frameIndex);
+        final LongList prevPageAddresses = frameIndex > 0 ? pageAddresses.getQuick(frameIndex - 1) : null;
+        long bytes = 0;
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final long pageAddress = framePageAddresses.getQuick(columnIndex);
+            final long pageSize = framePageSizes.getQuick(columnIndex);
+            if (ColumnType.isVarSize(columnTypes.getQuick(columnIndex))) {
+                // var-size data vectors are addressed from the start of the column,
+                // the frame's data starts where the previous frame's data ends
+                if (pageAddress != 0 && prevPageAddresses != null && prevPageAddresses.getQuick(columnIndex) == pageAddress) {
+                    final long dataLo = pageSizes.getQuick(frameIndex - 1).getQuick(columnIndex);
+                    bytes += adviseRange(pageAddress + dataLo, pageSize - dataLo, advise);
+                }
+                final long auxPageAddress = auxPageAddresses.getQuick(frameIndex).getQuick(columnIndex);
+                if (auxPageAddress != 0) {
+                    bytes += adviseRange(auxPageAddress, auxPageSizes.getQuick(frameIndex).getQuick(columnIndex), advise);
+                }
+            } else if (pageAddress != 0) {
+                bytes += adviseRange(pageAddress, pageSize, advise);
+            }
+        }
+        return bytes;
+    }
+
+    private long adviseRange(long address, long size, boolean advise) {
+        if (size < 1) {
+            return 0;
+        }
+        if (advise) {
+            // madvise() requires page-aligned address
+            final long alignedAddress = Files.floorPageSize(address);
+            ff.madvise(alignedAddress, size + address - alignedAddress, Files.POSIX_MADV_WILLNEED);
+        }
+        return size;
+    }
+
     public void of(@Transient RecordMetadata metadata) {
         columnCount = metadata.getColumnCount();
         columnTypes.clear();
@@ -32,6 +32,17 @@ public interface PageFrameCursor extends QuietCloseable, SymbolTableSource {
 
     void calculateSize(RecordCursor.Counter counter);
 
+    /**
+     * Checks whether none of the rows of the given frame, returned by this cursor, can match
+     * the filter pushed down to the cursor factory. Consumers may skip such frames.
+     *
+     * @param frame page frame returned by {@link #next()}
+     * @return true if the frame can be skipped
+     */
+    default boolean canSkip(PageFrame frame) {
+        return false;
+    }
+
     @Override
     StaticSymbolTable getSymbolTable(int columnIndex);
 
@@ -24,45 +24,80 @@
 
 package io.questdb.cairo.sql;
 
-import io.questdb.std.LongList;
-import io.questdb.std.Mutable;
-import io.questdb.std.QuietCloseable;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.CompressedColumn;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
 
 /**
  * Provides addresses for page frames in both native and Parquet formats.
  * Memory in native page frames is mmapped, so no additional actions are
- * necessary. Parquet frames must be explicitly deserialized into
- * the in-memory native format before being accessed directly or via a Record.
- * Thus, a {@link #navigateTo(int)} call is required before accessing memory
- * that belongs to a page frame.
+ * necessary, unless the frame belongs to a compressed partition. Parquet frames
+ * and compressed columns must be explicitly decoded into the in-memory native
+ * format before being accessed directly or via a Record. Thus, a {@link #navigateTo(int)}
+ * call is required before accessing memory that belongs to a page frame.
  * <p>
- * This pool is thread-unsafe as it may hold navigated Parquet partition data,
+ * Decoded frames are kept in a small LRU cache, so that several records,
+ * e.g. record A and record B of a cursor or the heap records of a k-way merge,
+ * may point to different frames at the same time. A frame is pinned for as long
+ * as a record navigated via {@link #navigateTo(int, PageFrameMemoryRecord)} points
+ * to it: pinned buffers are never reused for another frame, and the cache grows
+ * beyond its initial size instead.
+ * <p>
+ * This pool is thread-unsafe as it may hold decoded partition data,
  * so it shouldn't be shared between multiple threads.
  */
-// TODO: add LRU cache for multiple frames
 public class PageFrameMemoryPool implements QuietCloseable {
+    private static final int FRAME_CACHE_SIZE = 2;
+    private final ObjList<FrameBuffers> frameCache = new ObjList<>(FRAME_CACHE_SIZE);
     private final PageFrameMemoryImpl frameMemory = new PageFrameMemoryImpl();
     private PageFrameAddressCache addressCache;
+    private long frameCacheClock;
+    private Path path;
+    // Highest frame index navigated to so far; used to detect forward scans.
+    private int scanFrameIndex = -1;
 
     @Override
     public void close() {
         frameMemory.clear();
+        Misc.freeObjListAndClear(frameCache);
+        path = Misc.free(path);
         addressCache = null;
+        scanFrameIndex = -1;
     }
 
     /**
      * Navigates to the given frame, potentially deserializing it to in-memory format
-     * (for Parquet partitions). After this call, the input record can be used to access
-     * any row within the frame.
+     * (for Parquet and compressed partitions). After this call, the input record can be
+     * used to access any row within the frame.
      */
     public void navigateTo(int frameIndex, PageFrameMemoryRecord record) {
         if (record.getFrameIndex() == frameIndex) {
+            if (isDecoded(frameIndex)) {
+                // the record may be a copy of another record, e.g. record B created from record A
+                pin(frameIndex, record);
+            }
             return;
         }
 
         final byte frameFormat = addressCache.getFrameFormat(frameIndex);
-        assert frameFormat != PageFrame.PARQUET_FORMAT;
+        if (isDecoded(frameIndex)) {
+            final FrameBuffers buffers = decodeFrame(frameIndex, record.getFrameIndex(), record);
+            buffers.pin(record);
+            record.init(
+                    frameIndex,
+                    frameFormat,
+                    addressCache.getRowIdOffset(frameIndex),
+                    buffers.pageAddresses,
+                    buffers.auxPageAddresses,
+                    buffers.pageSizes,
+                    buffers.auxPageSizes
+            );
+            return;
+        }
 
+        prefetch(frameIndex);
         record.init(
                 frameIndex,
                 frameFormat,
@@ -76,7 +111,7 @@ public class PageFrameMemoryPool implements QuietCloseable {
 
     /**
      * Navigates to the given frame, potentially deserializing it to in-memory format
-     * (for Parquet partitions). The returned PageFrameMemory object is a flyweight,
+     * (for Parquet and compressed partitions). The returned PageFrameMemory object is a flyweight,
      * so it should be used immediately once returned. This method is useful for later
      * calls to native code.
      * <p>
@@ -88,14 +123,21 @@ public class PageFrameMemoryPool implements QuietCloseable {
             return frameMemory;
         }
 
-        frameMemory.frameIndex = frameIndex;
-        frameMemory.frameFormat = addressCache.getFrameFormat(frameIndex);
-        assert frameMemory.frameFormat != PageFrame.PARQUET_FORMAT;
-
-        frameMemory.pageAddresses = addressCache.getPageAddresses(frameIndex);
-        frameMemory.auxPageAddresses = addressCache.getAuxPageAddresses(frameIndex);
-        frameMemory.pageSizes = addressCache.getPageSizes(frameIndex);
-        frameMemory.auxPageSizes = addressCache.getAuxPageSizes(frameIndex);
+        final byte frameFormat = addressCache.getFrameFormat(frameIndex);
+        if (isDecoded(frameIndex)) {
+            final FrameBuffers buffers = decodeFrame(frameIndex, frameMemory.frameIndex, null);
+            frameMemory.pageAddresses = buffers.pageAddresses;
+            frameMemory.auxPageAddresses = buffers.auxPageAddresses;
+            frameMemory.pageSizes = buffers.pageSizes;
+            frameMemory.auxPageSizes = buffers.auxPageSizes;
+        } else {
+            prefetch(frameIndex);
+            frameMemory.pageAddresses = addressCache.getPageAddresses(frameIndex);
+            frameMemory.auxPageAddresses = addressCache.getAuxPageAddresses(frameIndex);
+            frameMemory.pageSizes = addressCache.getPageSizes(frameIndex);
+            frameMemory.auxPageSizes = addressCache.getAuxPageSizes(frameIndex);
+        }
+        frameMemory.frameFormat = frameFormat;
         frameMemory.frameIndex = frameIndex;
 
         return frameMemory;
@@ -104,6 +146,80 @@ public class PageFrameMemoryPool implements QuietCloseable {
     public void of(PageFrameAddressCache addressCache) {
         this.addressCache = addressCache;
         frameMemory.clear();
+        for (int i = 0, n = frameCache.size(); i < n; i++) {
+            // the new cache may point to other files; this also unpins all frames
+            frameCache.getQuick(i).clear();
+        }
+        scanFrameIndex = -1;
+    }
+
+    /**
+     * Returns decoded buffers of the given Parquet or compressed frame, decoding the frame if it's not
+     * in the cache. When the frame has to be decoded, the buffers of the frame the caller
+     * navigates away from are reused first, then the least recently used ones. Buffers
+     * pinned by records other than the caller are never reused, so that the frames held
+     * by other records of the same cursor stay valid. If all buffers are pinned, the cache
+     * grows.
+     */
+    private FrameBuffers decodeFrame(int frameIndex, int prevFrameIndex, PageFrameMemoryRecord record) {
+        FrameBuffers victim = null;
+        for (int i = 0, n = frameCache.size(); i < n; i++) {
+            final FrameBuffers buffers = frameCache.getQuick(i);
+            if (buffers.frameIndex == frameIndex) {
+                buffers.lastUsed = ++frameCacheClock;
+                return buffers;
+            }
+            if (buffers.frameIndex == -1) {
+                victim = buffers;
+            } else if (buffers.frameIndex == prevFrameIndex && victim == null && !buffers.isPinned(record)) {
+                victim = buffers;
+            }
+        }
+
+        if (victim == null && frameCache.size() >= FRAME_CACHE_SIZE) {
+            for (int i = 0, n = frameCache.size(); i < n; i++) {
+                final FrameBuffers buffers = frameCache.getQuick(i);
+                if ((victim == null || buffers.lastUsed < victim.lastUsed) && !buffers.isPinned(record)) {
+                    victim = buffers;
+                }
+            }
+        }
+
+        if (victim == null) {
+            victim = new FrameBuffers();
+            frameCache.add(victim);
+        }
+
+        if (addressCache.getFrameFormat(frameIndex) == PageFrame.PARQUET_FORMAT) {
+            victim.decodeParquet(frameIndex);
+        } else {
+            prefetch(frameIndex);
+            victim.decodeCompressed(frameIndex);
+        }
+        victim.lastUsed = ++frameCacheClock;
+        return victim;
+    }
+
+    private boolean isDecoded(int frameIndex) {
+        return addressCache.getFrameFormat(frameIndex) == PageFrame.PARQUET_FORMAT || addressCache.hasCompressedColumns(frameIndex);
+    }
+
+    private void pin(int frameIndex, PageFrameMemoryRecord record) {
+        for (int i = 0, n = frameCache.size(); i < n; i++) {
+            final FrameBuffers buffers = frameCache.getQuick(i);
+            if (buffers.frameIndex == frameIndex) {
+                buffers.pin(record);
+                return;
+            }
+        }
+    }
+
+    private void prefetch(int frameIndex) {
+        // random access, e.g. via recordAt(), doesn't trigger read-ahead
+        if (frameIndex > scanFrameIndex) {
+            scanFrameIndex = frameIndex;
+            addressCache.prefetch(frameIndex);
+        }
     }
 
     private class PageFrameMemoryImpl implements PageFrameMemory, Mutable {
@@ -179,4 +295,159 @@ public class PageFrameMemoryPool implements QuietCloseable {
             return addressCache.getRowIdOffset(frameIndex);
         }
     }
+
+    private class FrameBuffers implements QuietCloseable, Mutable {
+        private final LongList auxPageAddresses = new LongList();
+        private final LongList auxPageSizes = new LongList();
+        // <address, size> pairs of buffers that compressed columns are decoded to
+        private final LongList columnBuffers = new LongList();
+        // records that navigated to this frame; a record pins the frame while it still points to it
+        private final ObjList<PageFrameMemoryRecord> holders = new ObjList<>();
+        private final LongList pageAddresses = new LongList();
+        private final LongList pageSizes = new LongList();
+        private CompressedColumn.BitReader bitReader;
+        private PartitionDecoder decoder;
+        private int frameIndex = -1;
+        private long lastUsed;
+        private int pathIndex = -1;
+        private long scratchAddress;
+
+        @Override
+        public void clear() {
+            frameIndex = -1;
+            pathIndex = -1;
+            lastUsed = 0;
+            holders.clear();
+        }
+
+        @Override
+        public void close() {
+            clear();
+            decoder = Misc.free(decoder);
+            for (int i = 0, n = columnBuffers.size(); i < n; i += 2) {
+                Unsafe.free(columnBuffers.getQuick(i), columnBuffers.getQuick(i + 1), MemoryTag.NATIVE_TABLE_READER);
+            }
+            columnBuffers.clear();
+            scratchAddress = Unsafe.free(scratchAddress, CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_TABLE_READER);
+        }
+
+        private long columnBuffer(int columnIndex, long size) {
+            final int bufferCount = columnBuffers.size();
+            if (bufferCount < 2 * (columnIndex + 1)) {
+                columnBuffers.setPos(2 * (columnIndex + 1));
+                columnBuffers.fill(bufferCount, 2 * (columnIndex + 1), 0);
+            }
+            final long address = columnBuffers.getQuick(2 * columnIndex);
+            final long capacity = columnBuffers.getQuick(2 * columnIndex + 1);
+            if (capacity >= size) {
+                return address;
+            }
+            final long newAddress = Unsafe.realloc(address, capacity, size, MemoryTag.NATIVE_TABLE_READER);
+            columnBuffers.setQuick(2 * columnIndex, newAddress);
+            columnBuffers.setQuick(2 * columnIndex + 1, size);
+            return newAddress;
+        }
+
+        private void decodeCompressed(int frameIndex) {
+            // invalidate the buffers first, in case decoding fails
+            this.frameIndex = -1;
+            holders.clear();
+            pathIndex = -1;
+
+            if (scratchAddress == 0) {
+                scratchAddress = Unsafe.malloc(CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_TABLE_READER);
+                bitReader = new CompressedColumn.BitReader();
+            }
+
+            pageAddresses.clear();
+            pageSizes.clear();
+            auxPageAddresses.clear();
+            auxPageSizes.clear();
+
+            final LongList framePageAddresses = addressCache.getPageAddresses(frameIndex);
+            final LongList framePageSizes = addressCache.getPageSizes(frameIndex);
+            final LongList compressedPageAddresses = addressCache.getCompressedPageAddresses(frameIndex);
+            for (int columnIndex = 0, n = addressCache.getColumnCount(); columnIndex < n; columnIndex++) {
+                final long pageSize = framePageSizes.getQuick(columnIndex);
+                final long fileAddress = compressedPageAddresses.getQuick(2 * columnIndex);
+                if (fileAddress != 0) {
+                    final long offset = compressedPageAddresses.getQuick(2 * columnIndex + 1);
+                    final long address = columnBuffer(columnIndex, pageSize);
+                    CompressedColumn.decodeRange(bitReader, fileAddress, offset, offset + pageSize, address, scratchAddress);
+                    pageAddresses.add(address);
+                } else {
+                    pageAddresses.add(framePageAddresses.getQuick(columnIndex));
+                }
+                pageSizes.add(pageSize);
+            }
+            auxPageAddresses.add(addressCache.getAuxPageAddresses(frameIndex));
+            auxPageSizes.add(addressCache.getAuxPageSizes(frameIndex));
+            this.frameIndex = frameIndex;
+        }
+
+        private void decodeParquet(int frameIndex) {
+            // invalidate the buffers first, in case decoding fails
+            this.frameIndex = -1;
+            holders.clear();
+
+            final int framePathIndex = addressCache.getParquetPathIndex(frameIndex);
+            if (pathIndex != framePathIndex) {
+                if (decoder == null) {
+                    decoder = new PartitionDecoder(addressCache.getFilesFacade());
+                }
+                if (path == null) {
+                    path = new Path();
+                }
+                pathIndex = -1;
+                decoder.of(path.of(addressCache.getParquetPath(frameIndex)).$());
+                pathIndex = framePathIndex;
+            }
+
+            pageAddresses.clear();
+            pageSizes.clear();
+            auxPageAddresses.clear();
+            auxPageSizes.clear();
+
+            final int rowGroup = addressCache.getParquetRowGroup(frameIndex);
+            final LongList parquetColumnIndexes = addressCache.getParquetColumnIndexes(frameIndex);
+            final IntList columnTypes = addressCache.getColumnTypes();
+            for (int columnIndex = 0, n = addressCache.getColumnCount(); columnIndex < n; columnIndex++) {
+                final int columnType = columnTypes.getQuick(columnIndex);
+                final long chunkPtr = decoder.decodeColumnChunk(rowGroup, parquetColumnIndexes.getQuick(columnIndex), columnType);
+                pageAddresses.add(PartitionDecoder.getChunkDataPtr(chunkPtr));
+                pageSizes.add(PartitionDecoder.getChunkDataSize(chunkPtr));
+                if (ColumnType.isVarSize(columnType)) {
+                    auxPageAddresses.add(PartitionDecoder.getChunkAuxPtr(chunkPtr));
+                    auxPageSizes.add(PartitionDecoder.getChunkAuxSize(chunkPtr));
+                } else {
+                    auxPageAddresses.add(0);
+                    auxPageSizes.add(0);
+                }
+            }
+            this.frameIndex = frameIndex;
+        }
+
+        /**
+         * Returns true if a record other than the given one still points to this frame.
+         * Records that have moved to other frames since they were pinned are dropped.
+         */
+        private boolean isPinned(PageFrameMemoryRecord record) {
+            boolean pinned = false;
+            for (int i = holders.size() - 1; i > -1; i--) {
+                final PageFrameMemoryRecord holder = holders.getQuick(i);
+                if (holder.getFrameIndex() != frameIndex) {
+                    holders.remove(i);
+                } else if (holder != record) {
+                    pinned = true;
+                }
+            }
+            return pinned;
+        }
+
+        private void pin(PageFrameMemoryRecord record) {
+            if (holders.indexOf(record) == -1) {
+                holders.add(record);
+            }
+        }
+    }
 }
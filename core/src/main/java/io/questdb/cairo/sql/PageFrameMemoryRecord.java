@@ -158,6 +158,10 @@ public class PageFrameMemoryRecord implements Record, StableStringSource, Closea
         return NullMemoryCMR.INSTANCE.getFloat(0);
     }
 
+    public byte getFrameFormat() {
+        return frameFormat;
+    }
+
     public int getFrameIndex() {
         return frameIndex;
     }
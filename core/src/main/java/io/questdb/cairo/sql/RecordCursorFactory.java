@@ -31,6 +31,7 @@ import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.ObjList;
@@ -209,6 +210,15 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return false;
     }
 
+    /**
+     * Passes the filter applied on top of this factory, so that the factory may skip
+     * the data that can't match it, e.g. Parquet row groups based on column statistics.
+     * The filter is still applied to the rows returned by the factory, so it's fine
+     * to ignore it. The node must not be modified or retained.
+     */
+    default void pushDownFilter(ExpressionNode filter) {
+    }
+
     boolean recordCursorSupportsRandomAccess();
 
     default void revertFromSampleByIndexPageFrameCursorFactory() {
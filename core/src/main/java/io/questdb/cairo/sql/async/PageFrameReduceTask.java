@@ -41,6 +41,10 @@ public class PageFrameReduceTask implements Closeable {
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_ORDER_BY = 3;
+    public static final byte TYPE_HASH_JOIN = 4;
+    public static final byte TYPE_ASOF_JOIN = 5;
+    public static final byte TYPE_TOP_K = 6;
     private static final String exceptionMessage = "unexpected filter error";
 
     private final DirectLongList auxAddresses;
@@ -246,6 +246,13 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return reducer;
     }
 
+    /**
+     * Returns row count of the underlying page frame cursor or -1 if it's unknown.
+     */
+    public long getRowCount() {
+        return frameCursor != null ? frameCursor.size() : -1;
+    }
+
     public int getShard() {
         return shard;
     }
@@ -429,6 +436,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private void buildAddressCache() {
         PageFrame frame;
         while ((frame = frameCursor.next()) != null) {
+            if (frameCursor.canSkip(frame)) {
+                // none of the frame rows can match the filter
+                continue;
+            }
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
             frameAddressCache.add(frameCount++, frame);
         }
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CompressedColumn;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Fixed-size cache of decoded {@link CompressedColumn} blocks shared by the compressed columns
+ * of a table reader. The cache is direct-mapped: each block has a single slot it may occupy,
+ * and decoding a block evicts whatever the slot held before. Consecutive blocks of a column
+ * map to consecutive slots, so a sequential scan doesn't evict its own blocks.
+ * <p>
+ * An address returned by {@link #getBlockAddress(MemoryCMRCompressedImpl, int)} stays valid
+ * until the next call only, so it's meant for reading individual values. Page frames decode
+ * their rows into own buffers, see {@link io.questdb.cairo.sql.PageFrameMemoryPool}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CompressedBlockCache implements QuietCloseable {
+    private static final long EMPTY_KEY = -1;
+    private final CompressedColumn.BitReader reader = new CompressedColumn.BitReader();
+    private final int slotCount;
+    private final int slotMask;
+    // <column id, block index> pairs per slot
+    private final LongList slotKeys = new LongList();
+    private long address;
+    private long nextColumnId;
+
+    public CompressedBlockCache(long size) {
+        this.slotCount = Numbers.ceilPow2((int) Math.max(1, size / CompressedColumn.BLOCK_SIZE));
+        this.slotMask = slotCount - 1;
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            address = Unsafe.free(address, (long) slotCount * CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_TABLE_READER);
+        }
+        slotKeys.clear();
+    }
+
+    /**
+     * Returns address of the given block, decoding the block if it isn't cached.
+     */
+    public long getBlockAddress(MemoryCMRCompressedImpl column, int block) {
+        if (address == 0) {
+            address = Unsafe.malloc((long) slotCount * CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_TABLE_READER);
+            slotKeys.setAll(2 * slotCount, EMPTY_KEY);
+        }
+        final long columnId = column.getCacheId();
+        final int slot = ((int) ((columnId * 0x9E3779B97F4A7C15L) >>> 32) + block) & slotMask;
+        final long blockAddress = address + (long) slot * CompressedColumn.BLOCK_SIZE;
+        if (slotKeys.getQuick(2 * slot) != columnId || slotKeys.getQuick(2 * slot + 1) != block) {
+            // invalidate the slot first, in case decoding fails
+            slotKeys.setQuick(2 * slot, EMPTY_KEY);
+            CompressedColumn.decodeBlock(reader, column.getFileAddress(), block, blockAddress);
+            slotKeys.setQuick(2 * slot, columnId);
+            slotKeys.setQuick(2 * slot + 1, block);
+        }
+        return blockAddress;
+    }
+
+    /**
+     * Returns a new id for a column opened with this cache. Ids are never reused, so blocks
+     * of a closed column can't be mistaken for blocks of the column that reuses its memory.
+     */
+    long nextColumnId() {
+        return nextColumnId++;
+    }
+}
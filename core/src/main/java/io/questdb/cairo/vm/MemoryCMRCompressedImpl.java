@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CompressedColumn;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Read-only view of a column file written by {@link CompressedColumn}. The compressed file
+ * is mapped, and values are decoded on access block by block via {@link CompressedBlockCache}
+ * shared with other compressed columns, so that memory used for decoding stays bounded.
+ * <p>
+ * The column has no contiguous decoded page: page frames decode their own rows, see
+ * {@link io.questdb.cairo.sql.PageFrameMemoryPool}.
+ */
+public class MemoryCMRCompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+    private final CompressedBlockCache blockCache;
+    private int blockCount;
+    private long cacheId = -1;
+    private long fd = -1;
+    private long fileAddress;
+    private long fileSize;
+    private int memoryTag = MemoryTag.MMAP_DEFAULT;
+
+    public MemoryCMRCompressedImpl(CompressedBlockCache blockCache) {
+        this.blockCache = blockCache;
+    }
+
+    @Override
+    public long addressHi() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        assert offset < size;
+        final int block = (int) (offset / CompressedColumn.BLOCK_SIZE);
+        return blockCache.getBlockAddress(this, block) + offset - (long) block * CompressedColumn.BLOCK_SIZE;
+    }
+
+    /**
+     * Java counterpart of {@link io.questdb.std.Vect#binarySearch64Bit(long, long, long, long, int)}
+     * that decodes only the blocks it visits.
+     */
+    public long binarySearch64Bit(long value, long low, long high, int scanDir) {
+        long diff;
+        while ((diff = high - low) > 65) {
+            final long mid = low + diff / 2;
+            final long midVal = getLong(mid << 3);
+            if (midVal < value) {
+                low = mid;
+            } else if (midVal > value) {
+                high = mid - 1;
+            } else {
+                // in case of multiple equal values, find the first or the last one
+                return scanDir == BinarySearch.SCAN_UP ? scrollUp(mid, midVal) : scrollDown(mid, high, midVal);
+            }
+        }
+        return scanDir == BinarySearch.SCAN_UP ? scanUp(value, low, high + 1) : scanDown(value, low, high + 1);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        size = 0;
+        if (fileAddress != 0) {
+            ff.munmap(fileAddress, fileSize, memoryTag);
+            fileAddress = 0;
+            fileSize = 0;
+        }
+        if (ff != null && ff.close(fd)) {
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+        blockCount = 0;
+        cacheId = -1;
+    }
+
+    @Override
+    public long detachFdClose() {
+        long fd = this.fd;
+        this.fd = -1;
+        close();
+        return fd;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("compressed column cannot be extended [size=").put(size).put(", newSize=").put(newSize).put(']');
+        }
+    }
+
+    @Override
+    public double getDouble(long offset) {
+        // unlike the default, doesn't bounds-check via addressOf(offset + Double.BYTES),
+        // which would decode the next block for the last value of a block
+        return Unsafe.getUnsafe().getDouble(addressOf(offset));
+    }
+
+    @Override
+    public long getFd() {
+        return fd;
+    }
+
+    /**
+     * Returns address of the mapped compressed file.
+     */
+    public long getFileAddress() {
+        return fileAddress;
+    }
+
+    @Override
+    public int getInt(long offset) {
+        return Unsafe.getUnsafe().getInt(addressOf(offset));
+    }
+
+    @Override
+    public long getLong(long offset) {
+        return Unsafe.getUnsafe().getLong(addressOf(offset));
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getPageCount() {
+        return 0;
+    }
+
+    /**
+     * Opens compressed column file.
+     *
+     * @param size expected size of the decoded column in bytes; pass -1 to use the size recorded in the file
+     */
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        try {
+            fd = TableUtils.openRO(ff, name, LOG);
+            fileSize = ff.length(fd);
+            if (fileSize < CompressedColumn.HEADER_SIZE) {
+                throw CairoException.critical(ff.errno()).put("compressed column file is too small [file=").put(name).put(", size=").put(fileSize).put(']');
+            }
+            fileAddress = TableUtils.mapRO(ff, fd, fileSize, memoryTag);
+            if (CompressedColumn.getVersion(fileAddress) != CompressedColumn.FORMAT_VERSION) {
+                throw CairoException.critical(0).put("unsupported compressed column version [file=").put(name)
+                        .put(", version=").put(CompressedColumn.getVersion(fileAddress)).put(']');
+            }
+            final long decodedSize = CompressedColumn.getDecodedSize(fileAddress);
+            if (size < 0) {
+                size = decodedSize;
+            } else if (size > decodedSize) {
+                throw CairoException.critical(0).put("compressed column is shorter than expected [file=").put(name)
+                        .put(", expected=").put(size).put(", actual=").put(decodedSize).put(']');
+            }
+            blockCount = CompressedColumn.getBlockCount(fileAddress);
+            cacheId = blockCache.nextColumnId();
+            this.size = size;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        LOG.debug().$("open [file=").$(name).$(", fd=").$(fd).$(", size=").$(this.size).$(", blocks=").$(blockCount).I$();
+    }
+
+    long getCacheId() {
+        return cacheId;
+    }
+
+    private long scanDown(long value, long low, long high) {
+        for (long i = high - 1; i >= low; i--) {
+            final long that = getLong(i << 3);
+            if (that == value) {
+                return i;
+            }
+            if (that < value) {
+                return -(i + 2);
+            }
+        }
+        return -(low + 1);
+    }
+
+    private long scanUp(long value, long low, long high) {
+        for (long i = low; i < high; i++) {
+            final long that = getLong(i << 3);
+            if (that == value) {
+                return i;
+            }
+            if (that > value) {
+                return -(i + 1);
+            }
+        }
+        return -(high + 1);
+    }
+
+    private long scrollDown(long low, long high, long value) {
+        do {
+            if (low < high) {
+                low++;
+            } else {
+                return low;
+            }
+        } while (getLong(low << 3) == value);
+        return low - 1;
+    }
+
+    private long scrollUp(long high, long value) {
+        do {
+            if (high > 0) {
+                high--;
+            } else {
+                return 0;
+            }
+        } while (getLong(high << 3) == value);
+        return high + 1;
+    }
+}
@@ -90,6 +90,10 @@ public class Vm {
         return new MemoryCMARWImpl();
     }
 
+    public static MemoryCMR getCMRCompressedInstance(CompressedBlockCache blockCache) {
+        return new MemoryCMRCompressedImpl(blockCache);
+    }
+
     public static MemoryCMR getCMRInstance() {
         return new MemoryCMRImpl();
     }
@@ -76,6 +76,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final Telemetry<TelemetryTask> telemetry;
     private final TelemetryFacade telemetryFacade;
     private final WalEventReader walEventReader;
+    private final WalApplyScheduler scheduler;
     private final Telemetry<TelemetryWalTask> walTelemetry;
     private final WalTelemetryFacade walTelemetryFacade;
     private long lastAttemptSeqTxn;
@@ -92,6 +93,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         microClock = configuration.getMicrosecondClock();
         walEventReader = new WalEventReader(configuration.getFilesFacade());
         metrics = engine.getMetrics().walMetrics();
+        scheduler = engine.getWalApplyScheduler();
         lookAheadTransactionCount = configuration.getWalApplyLookAheadTransactionCount();
         tableTimeQuotaMicros = configuration.getWalApplyTableTimeQuota() >= 0 ? configuration.getWalApplyTableTimeQuota() * 1000L : Timestamps.DAY_MICROS;
     }
@@ -313,6 +315,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
                         case DROP_TABLE_WALID:
                             engine.notifyDropped(tableToken);
+                            metrics.removeTable(tableToken.getTableName());
                             tryDestroyDroppedTable(tableToken, writer, engine, tempPath);
                             return;
 
@@ -471,9 +474,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 seqTxn,
                                 regulator
                         );
-                        final long latency = microClock.getTicks() - start;
+                        final long now = microClock.getTicks();
+                        final long latency = now - start;
                         long physicalRowCount = writer.getPhysicallyWrittenRowsSinceLastCommit();
                         metrics.addApplyRowsWritten(rowCount, physicalRowCount, latency);
+                        metrics.setApplyLatency(writer.getTableToken().getTableName(), Math.max(0, now - commitTimestamp));
                         walTelemetryFacade.store(WAL_TXN_DATA_APPLIED, writer.getTableToken(), walId, seqTxn, rowsAdded, physicalRowCount, latency);
                         return rowCount;
                     } else {
@@ -611,6 +616,28 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         }
     }
 
+    @Override
+    public boolean run(int workerId, @NotNull RunStatus runStatus) {
+        // Move all published notifications to the scheduler, it decides which table goes next
+        long cursor;
+        while ((cursor = subSeq.next()) != -1) {
+            if (cursor > -1) {
+                doRun(workerId, cursor, runStatus);
+            }
+        }
+
+        final TableToken tableToken = scheduler.next();
+        if (tableToken == null) {
+            return false;
+        }
+        try {
+            applyWal(tableToken, engine, operationExecutor, runStatus);
+        } finally {
+            scheduler.done(tableToken);
+        }
+        return true;
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
         final TableToken tableToken;
@@ -622,7 +649,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
             subSeq.done(cursor);
         }
 
-        applyWal(tableToken, engine, operationExecutor, runStatus);
+        scheduler.schedule(tableToken);
         return true;
     }
 
@@ -113,6 +113,8 @@ public interface MetadataService {
 
     boolean removePartition(long partitionTimestamp);
 
+    boolean compressPartition(long partitionTimestamp);
+
     boolean convertPartition(long partitionTimestamp);
 
     default void renameColumn(@NotNull CharSequence columnName, @NotNull CharSequence newName) {
@@ -127,6 +129,8 @@ public interface MetadataService {
 
     void setMetaO3MaxLag(long o3MaxLagUs);
 
+    void setMetaWalApplyPriority(int walApplyPriority);
+
     void squashPartitions();
 
     void tick();
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Decides which table {@link ApplyWal2TableJob} applies next. Apply jobs of all workers share
+ * the engine's instance. Repeated notifications for a waiting table are collapsed into one entry,
+ * and a table that is being applied by one worker is not handed out to another worker.
+ * <p>
+ * The next table is picked in the following order:
+ * <ol>
+ *     <li>tables that waited longer than {@link CairoConfiguration#getWalApplyMaxWaitTime()}, longest wait first</li>
+ *     <li>higher <code>walApplyPriority</code> table parameter</li>
+ *     <li>smaller sequencer lag, i.e. fewer transactions left to apply</li>
+ *     <li>longer wait</li>
+ * </ol>
+ * The per-table time quota of the apply job limits how long a table holds a worker. Together they
+ * keep tables with small, frequent commits fresh while a backfill is applied one slice at a time.
+ * The max wait time bounds how long any table can be postponed.
+ */
+public class WalApplyScheduler implements Mutable {
+    private final MicrosecondClock clock;
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final ObjList<Entry> queue = new ObjList<>();
+    private final ObjList<Entry> spares = new ObjList<>();
+
+    public WalApplyScheduler(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.clock = configuration.getMicrosecondClock();
+    }
+
+    @Override
+    public synchronized void clear() {
+        queue.clear();
+        entries.clear();
+    }
+
+    /**
+     * Marks the table handed out by {@link #next()} as no longer being applied.
+     *
+     * @param tableToken table token returned by {@link #next()}
+     */
+    public synchronized void done(@NotNull TableToken tableToken) {
+        final int index = entries.keyIndex(tableToken.getDirName());
+        if (index < 0) {
+            final Entry entry = entries.valueAtQuick(index);
+            entry.running = false;
+            if (!entry.queued) {
+                entries.removeAt(index);
+                spares.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the next table to apply WAL transactions to, or null when there is none. The returned
+     * table must be released via {@link #done(TableToken)} once the apply job is finished with it.
+     *
+     * @return table token or null
+     */
+    public synchronized @Nullable TableToken next() {
+        final long now = clock.getTicks();
+        final long maxWaitMicros = Math.max(0, configuration.getWalApplyMaxWaitTime()) * 1000L;
+        Entry best = null;
+        int bestIndex = -1;
+        for (int i = 0, n = queue.size(); i < n; i++) {
+            final Entry entry = queue.getQuick(i);
+            if (entry.running) {
+                continue;
+            }
+            entry.overdue = now - entry.queuedAt >= maxWaitMicros;
+            entry.priority = engine.getWalApplyPriority(entry.tableToken);
+            entry.lag = entry.txnTracker.getLag();
+            if (best == null || entry.isBefore(best)) {
+                best = entry;
+                bestIndex = i;
+            }
+        }
+
+        if (best != null) {
+            queue.remove(bestIndex);
+            best.queued = false;
+            best.running = true;
+            return best.tableToken;
+        }
+        return null;
+    }
+
+    /**
+     * Queues the table, unless it is already waiting to be applied.
+     *
+     * @param tableToken table with outstanding WAL transactions
+     */
+    public synchronized void schedule(@NotNull TableToken tableToken) {
+        final int index = entries.keyIndex(tableToken.getDirName());
+        Entry entry;
+        if (index > -1) {
+            final int spareCount = spares.size();
+            if (spareCount > 0) {
+                entry = spares.getQuick(spareCount - 1);
+                spares.setPos(spareCount - 1);
+            } else {
+                entry = new Entry();
+            }
+            entry.running = false;
+            entry.txnTracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+            entries.putAt(index, tableToken.getDirName(), entry);
+        } else {
+            entry = entries.valueAtQuick(index);
+        }
+        // the token changes on rename, keep the latest one
+        entry.tableToken = tableToken;
+        if (!entry.queued) {
+            entry.queued = true;
+            entry.queuedAt = clock.getTicks();
+            queue.add(entry);
+        }
+    }
+
+    @TestOnly
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    private static class Entry {
+        private long lag;
+        private boolean overdue;
+        private int priority;
+        private boolean queued;
+        private long queuedAt;
+        private boolean running;
+        private TableToken tableToken;
+        private SeqTxnTracker txnTracker;
+
+        private boolean isBefore(Entry other) {
+            if (overdue != other.overdue) {
+                return overdue;
+            }
+            if (!overdue) {
+                if (priority != other.priority) {
+                    return priority > other.priority;
+                }
+                if (lag != other.lag) {
+                    return lag < other.lag;
+                }
+            }
+            return queuedAt < other.queuedAt;
+        }
+    }
+}
@@ -78,6 +78,11 @@ public class WalDataRecord implements Record, Sinkable {
         return reader.getColumn(absoluteColumnIndex).getChar(offset);
     }
 
+    @Override
+    public long getDate(int col) {
+        return getLong(col);
+    }
+
     // only for tests
     @SuppressWarnings("SameParameterValue")
     public long getDesignatedTimestampRowId(int col) {
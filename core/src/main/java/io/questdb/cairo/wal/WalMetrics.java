@@ -26,11 +26,13 @@ package io.questdb.cairo.wal;
 
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongGaugeWithOneLabel;
 import io.questdb.metrics.MetricsRegistry;
 
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WalMetrics {
+    private final LongGaugeWithOneLabel applyLatencyGauge;
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
@@ -42,6 +44,7 @@ public class WalMetrics {
         this.applyPhysicallyWrittenRowsCounter = metricsRegistry.newCounter("wal_apply_physically_written_rows");
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
+        this.applyLatencyGauge = metricsRegistry.newLongGauge("wal_apply_latency_micros", "table");
         this.rowsWrittenCounter = metricsRegistry.newCounter("wal_written_rows");
     }
 
@@ -57,4 +60,19 @@ public class WalMetrics {
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
+
+    public long getApplyLatency(CharSequence tableName) {
+        return applyLatencyGauge.getValue(tableName);
+    }
+
+    public void removeTable(CharSequence tableName) {
+        applyLatencyGauge.remove(tableName);
+    }
+
+    /**
+     * Records time between WAL commit and the moment the commit became visible in the table.
+     */
+    public void setApplyLatency(CharSequence tableName, long latencyMicros) {
+        applyLatencyGauge.setValue(tableName, latencyMicros);
+    }
 }
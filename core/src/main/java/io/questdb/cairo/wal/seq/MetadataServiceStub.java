@@ -48,6 +48,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change cache flag does not update sequencer metadata");
     }
 
+    @Override
+    default boolean compressPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("compress partition does not update sequencer metadata");
+    }
+
     @Override
     default boolean convertPartition(long partitionTimestamp) {
         throw CairoException.critical(0).put("convert partition to parquet does not update sequencer metadata");
@@ -106,6 +111,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change of o3MaxLag does not update sequencer metadata");
     }
 
+    @Override
+    default void setMetaWalApplyPriority(int walApplyPriority) {
+        throw CairoException.critical(0).put("change of walApplyPriority does not update sequencer metadata");
+    }
+
     @Override
     default void squashPartitions() {
         throw CairoException.critical(0).put("partition squash does not update sequencer metadata");
@@ -61,6 +61,13 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
         return errorTag;
     }
 
+    /**
+     * Number of sequencer transactions that are not yet applied to the table.
+     */
+    public long getLag() {
+        return Math.max(0, seqTxn - writerTxn);
+    }
+
     public int getMaxO3MergeParallelism() {
         return Math.max(1, memoryPressureRegulationValue);
     }
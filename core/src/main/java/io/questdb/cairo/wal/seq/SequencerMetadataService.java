@@ -77,6 +77,11 @@ public class SequencerMetadataService implements MetadataServiceStub {
         metadata.removeColumn(columnName);
     }
 
+    @Override
+    public boolean compressPartition(long partitionTimestamp) {
+        return false;
+    }
+
     @Override
     public boolean convertPartition(long partitionTimestamp) {
         return false;
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.Mutable;
+import io.questdb.std.QuietCloseable;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Encodes query results into a binary stream format, e.g. Arrow IPC or Parquet, one batch
+ * of rows at a time. Each write method produces a list of memory segments which the caller
+ * sends as they are, in order, before calling the next write method.
+ */
+public interface ResultStreamWriter extends QuietCloseable, Mutable {
+
+    /**
+     * Appends the record to the pending batch, see {@link #writeRecordBatch()}.
+     */
+    void appendRecord(Record record);
+
+    long getBatchRowCount();
+
+    long getSegmentAddress(int index);
+
+    int getSegmentCount();
+
+    long getSegmentSize(int index);
+
+    /**
+     * Prepares the writer for a new stream.
+     *
+     * @param metadata    metadata of the result
+     * @param frameCursor page frame cursor of the result, or null when the result is
+     *                    written record by record
+     * @throws CairoException when the result has columns that can't be exported
+     */
+    void of(RecordMetadata metadata, @Nullable PageFrameCursor frameCursor);
+
+    void writeEndOfStream();
+
+    /**
+     * Writes the given rows of the page frame as a batch.
+     */
+    void writeFrame(PageFrameMemory frameMemory, long rowLo, long rowHi);
+
+    /**
+     * Writes the records appended since the last batch as a batch.
+     */
+    void writeRecordBatch();
+
+    void writeSchema();
+}
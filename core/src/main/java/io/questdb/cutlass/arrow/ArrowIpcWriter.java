@@ -0,0 +1,928 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.vm.MemoryCARWImpl;
+import io.questdb.cutlass.ResultStreamWriter;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.IntList;
+import io.questdb.std.Long256;
+import io.questdb.std.Long256Impl;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+import io.questdb.std.Vect;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Encodes query results as an Arrow IPC stream: a schema message, dictionary batches
+ * and then record batches, terminated by the end-of-stream marker.
+ * <p>
+ * Each write method encodes one or more messages as a list of memory segments which
+ * the caller sends as they are, in order, before calling the next write method. Message
+ * headers are written to a scratch buffer, while batch bodies point straight at column
+ * memory where the native layout matches Arrow's, i.e. for fixed-size columns of page
+ * frames. Null sentinels of those columns are translated into validity bitmaps. Other
+ * columns, e.g. strings or booleans, as well as results of queries that don't support
+ * page frames, are converted into per-column buffers first.
+ * <p>
+ * In page frame mode, symbol columns are dictionary-encoded: the symbol table is sent
+ * once as a dictionary batch and the keys are then sent as they are stored.
+ */
+public class ArrowIpcWriter implements ResultStreamWriter {
+    private static final int CONTINUATION_MARKER = -1;
+    private static final short FLOAT_PRECISION_DOUBLE = 2;
+    private static final short FLOAT_PRECISION_SINGLE = 1;
+    private static final byte MESSAGE_DICTIONARY_BATCH = 2;
+    private static final byte MESSAGE_RECORD_BATCH = 3;
+    private static final byte MESSAGE_SCHEMA = 1;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final int SCRATCH_PAGE_SIZE = 64 * 1024;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_FIXED_SIZE_BINARY = 15;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_UTF8 = 5;
+    private static final short UNIT_MICROSECOND = 2;
+    private static final short UNIT_MILLISECOND = 1;
+    // (address, size) pairs of the body buffers of the message being written
+    private final LongList bodyBuffers = new LongList();
+    private final IntList columnTypes = new IntList();
+    private final ObjList<ArrowColumn> columns = new ObjList<>();
+    private final FlatBufferWriter fb = new FlatBufferWriter();
+    private final PageFrameMemoryRecord frameRecord = new PageFrameMemoryRecord();
+    private final MemoryCARWImpl header = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    // indexes of the segments that hold header offsets rather than addresses until the write completes
+    private final IntList headerSegments = new IntList();
+    // (length, null count) pairs of the field nodes of the record batch being written
+    private final LongList nodes = new LongList();
+    // (address, size) pairs
+    private final LongList segments = new LongList();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
+    private long batchRowCount;
+    private PageFrameCursor frameCursor;
+    private RecordMetadata metadata;
+    private long zeroes;
+
+    public ArrowIpcWriter() {
+        zeroes = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        Unsafe.getUnsafe().putLong(zeroes, 0);
+    }
+
+    /**
+     * Appends the record to the pending record batch, see {@link #writeRecordBatch()}.
+     */
+    @Override
+    public void appendRecord(Record record) {
+        if (batchRowCount == 0) {
+            clearColumns();
+        }
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            appendValue(columns.getQuick(i), columnTypes.getQuick(i), record, i);
+        }
+        batchRowCount++;
+    }
+
+    @Override
+    public void clear() {
+        // column buffers can be large, don't hold them between queries
+        Misc.freeObjListAndClear(columns);
+        columnTypes.clear();
+        header.truncate();
+        segments.clear();
+        headerSegments.clear();
+        nodes.clear();
+        bodyBuffers.clear();
+        batchRowCount = 0;
+        frameCursor = null;
+        metadata = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        header.close();
+        frameRecord.close();
+        if (zeroes != 0) {
+            Unsafe.free(zeroes, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            zeroes = 0;
+        }
+    }
+
+    @Override
+    public long getBatchRowCount() {
+        return batchRowCount;
+    }
+
+    @Override
+    public long getSegmentAddress(int index) {
+        return segments.getQuick(2 * index);
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return segments.size() / 2;
+    }
+
+    @Override
+    public long getSegmentSize(int index) {
+        return segments.getQuick(2 * index + 1);
+    }
+
+    /**
+     * Prepares the writer for a new stream.
+     *
+     * @param metadata    metadata of the result
+     * @param frameCursor page frame cursor of the result, or null when the result is
+     *                    written record by record
+     * @throws CairoException when the result has columns that can't be exported
+     */
+    @Override
+    public void of(RecordMetadata metadata, @Nullable PageFrameCursor frameCursor) {
+        clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (getArrowType(columnType) == -1) {
+                throw CairoException.nonCritical().put("unsupported column type for Arrow export [column=").put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType)).put(']');
+            }
+            columnTypes.add(columnType);
+            columns.add(new ArrowColumn());
+        }
+        this.metadata = metadata;
+        this.frameCursor = frameCursor;
+    }
+
+    @Override
+    public void writeEndOfStream() {
+        clearSegments();
+        header.putInt(CONTINUATION_MARKER);
+        header.putInt(0);
+        addHeaderSegment(0, header.getAppendOffset());
+        resolveHeaderSegments();
+    }
+
+    /**
+     * Writes the given rows of the page frame as a record batch.
+     */
+    @Override
+    public void writeFrame(PageFrameMemory frameMemory, long rowLo, long rowHi) {
+        clearSegments();
+        clearColumns();
+        final long rowCount = rowHi - rowLo;
+        frameRecord.init(frameMemory);
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ArrowColumn column = columns.getQuick(i);
+            final int columnType = columnTypes.getQuick(i);
+            if (isDirect(columnType)) {
+                final int size = ColumnType.sizeOf(columnType);
+                final long pageAddress = frameMemory.getPageAddress(i);
+                if (pageAddress != 0) {
+                    column.directAddress = pageAddress + rowLo * size;
+                    column.directSize = rowCount * size;
+                    column.nullCount = computeValidity(column, columnType, column.directAddress, rowCount);
+                } else {
+                    // column top, zeroes are null or default values
+                    final long dataSize = rowCount * size;
+                    Vect.memset(column.data.appendAddressFor(dataSize), dataSize, 0);
+                    if (isNullable(columnType)) {
+                        final long bitmapSize = (rowCount + 7) >>> 3;
+                        Vect.memset(column.validity.appendAddressFor(bitmapSize), bitmapSize, 0);
+                        column.nullCount = rowCount;
+                    }
+                }
+                column.rowCount = rowCount;
+            } else {
+                for (long r = rowLo; r < rowHi; r++) {
+                    frameRecord.setRowIndex(r);
+                    appendValue(column, columnType, frameRecord, i);
+                }
+            }
+        }
+        writeBatch(rowCount);
+        resolveHeaderSegments();
+    }
+
+    /**
+     * Writes the records appended since the last batch as a record batch.
+     */
+    @Override
+    public void writeRecordBatch() {
+        clearSegments();
+        writeBatch(batchRowCount);
+        resolveHeaderSegments();
+        batchRowCount = 0;
+    }
+
+    /**
+     * Writes the schema message followed by dictionary batches of symbol columns
+     * when the stream is written from page frames.
+     */
+    @Override
+    public void writeSchema() {
+        clearSegments();
+        final long start = beginMessage();
+        fb.startTable();
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, MESSAGE_SCHEMA);
+        fb.addOffset(2);
+        fb.addLong(3, 0);
+        final long message = fb.endTable();
+        final long headerRef = fb.getFieldPosition(2);
+
+        fb.startTable();
+        // little endian
+        fb.addShort(0, 0);
+        fb.addOffset(1);
+        final long schema = fb.endTable();
+        final long fieldsRef = fb.getFieldPosition(1);
+        fb.patchOffset(headerRef, schema);
+
+        final int columnCount = columns.size();
+        final long fields = fb.putOffsetVector(columnCount);
+        fb.patchOffset(fieldsRef, fields);
+        for (int i = 0; i < columnCount; i++) {
+            fb.patchOffset(fields + Integer.BYTES + (long) i * Integer.BYTES, writeField(i));
+        }
+        fb.finish(message);
+        endMessage(start, 0);
+
+        for (int i = 0; i < columnCount; i++) {
+            if (isDictionaryEncoded(columnTypes.getQuick(i))) {
+                writeDictionary(i);
+            }
+        }
+        resolveHeaderSegments();
+    }
+
+    private static int getArrowType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.NULL:
+                return TYPE_NULL;
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOL;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.LONG:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return TYPE_INT;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return TYPE_FLOATING_POINT;
+            case ColumnType.DATE:
+                return TYPE_DATE;
+            case ColumnType.TIMESTAMP:
+                return TYPE_TIMESTAMP;
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+                return TYPE_FIXED_SIZE_BINARY;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return TYPE_UTF8;
+            case ColumnType.BINARY:
+                return TYPE_BINARY;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isNullable(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isVarSize(int columnType) {
+        return getArrowType(columnType) == TYPE_UTF8 || getArrowType(columnType) == TYPE_BINARY;
+    }
+
+    private static void setBit(long bitmap, long index) {
+        final long address = bitmap + (index >>> 3);
+        Unsafe.getUnsafe().putByte(address, (byte) (Unsafe.getUnsafe().getByte(address) | (1 << (index & 7))));
+    }
+
+    private void addBodyBuffer(long address, long size) {
+        bodyBuffers.add(address, size);
+    }
+
+    private void addHeaderSegment(long offset, long size) {
+        headerSegments.add(segments.size() / 2);
+        segments.add(offset, size);
+    }
+
+    private void appendValue(ArrowColumn column, int columnType, Record record, int col) {
+        final long row = column.rowCount++;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.NULL:
+                column.nullCount++;
+                break;
+            case ColumnType.BOOLEAN:
+                if ((row & 7) == 0) {
+                    column.data.putByte((byte) 0);
+                }
+                if (record.getBool(col)) {
+                    setBit(column.data.getAddress(), row);
+                }
+                break;
+            case ColumnType.BYTE:
+                column.data.putByte(record.getByte(col));
+                break;
+            case ColumnType.SHORT:
+                column.data.putShort(record.getShort(col));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(col);
+                column.data.putChar(c);
+                column.putValidity(row, c != 0);
+                break;
+            case ColumnType.INT:
+                final int i = record.getInt(col);
+                column.data.putInt(i);
+                column.putValidity(row, i != Numbers.INT_NULL);
+                break;
+            case ColumnType.IPv4:
+                final int ip = record.getIPv4(col);
+                column.data.putInt(ip);
+                column.putValidity(row, ip != Numbers.IPv4_NULL);
+                break;
+            case ColumnType.LONG:
+                final long l = record.getLong(col);
+                column.data.putLong(l);
+                column.putValidity(row, l != Numbers.LONG_NULL);
+                break;
+            case ColumnType.DATE:
+                final long d = record.getDate(col);
+                column.data.putLong(d);
+                column.putValidity(row, d != Numbers.LONG_NULL);
+                break;
+            case ColumnType.TIMESTAMP:
+                final long ts = record.getTimestamp(col);
+                column.data.putLong(ts);
+                column.putValidity(row, ts != Numbers.LONG_NULL);
+                break;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(col);
+                column.data.putFloat(f);
+                column.putValidity(row, f == f);
+                break;
+            case ColumnType.DOUBLE:
+                final double v = record.getDouble(col);
+                column.data.putDouble(v);
+                column.putValidity(row, v == v);
+                break;
+            case ColumnType.GEOBYTE:
+                final byte gb = record.getGeoByte(col);
+                column.data.putByte(gb);
+                column.putValidity(row, gb != -1);
+                break;
+            case ColumnType.GEOSHORT:
+                final short gs = record.getGeoShort(col);
+                column.data.putShort(gs);
+                column.putValidity(row, gs != -1);
+                break;
+            case ColumnType.GEOINT:
+                final int gi = record.getGeoInt(col);
+                column.data.putInt(gi);
+                column.putValidity(row, gi != -1);
+                break;
+            case ColumnType.GEOLONG:
+                final long gl = record.getGeoLong(col);
+                column.data.putLong(gl);
+                column.putValidity(row, gl != -1);
+                break;
+            case ColumnType.UUID:
+                final long lo = record.getLong128Lo(col);
+                final long hi = record.getLong128Hi(col);
+                // RFC 4122 byte order
+                column.data.putLong(Long.reverseBytes(hi));
+                column.data.putLong(Long.reverseBytes(lo));
+                column.putValidity(row, !Uuid.isNull(lo, hi));
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256 = record.getLong256A(col);
+                column.data.putLong256(long256.getLong0(), long256.getLong1(), long256.getLong2(), long256.getLong3());
+                column.putValidity(row, !Long256Impl.isNull(long256));
+                break;
+            case ColumnType.SYMBOL:
+                appendUtf16(column, row, record.getSymA(col));
+                break;
+            case ColumnType.STRING:
+                appendUtf16(column, row, record.getStrA(col));
+                break;
+            case ColumnType.VARCHAR:
+                final Utf8Sequence us = record.getVarcharA(col);
+                column.startVarValue(row);
+                if (us != null) {
+                    column.varData.put(us);
+                }
+                column.endVarValue(row, us != null);
+                break;
+            case ColumnType.BINARY:
+                final BinarySequence bs = record.getBin(col);
+                column.startVarValue(row);
+                if (bs != null) {
+                    for (long b = 0, n = bs.length(); b < n; b++) {
+                        column.varData.putAny(bs.byteAt(b));
+                    }
+                }
+                column.endVarValue(row, bs != null);
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void appendUtf16(ArrowColumn column, long row, CharSequence value) {
+        column.startVarValue(row);
+        if (value != null) {
+            column.varData.put(value);
+        }
+        column.endVarValue(row, value != null);
+    }
+
+    private long beginMessage() {
+        final long start = header.getAppendOffset();
+        header.putInt(CONTINUATION_MARKER);
+        // metadata size, see endMessage()
+        header.putInt(0);
+        fb.of(header);
+        return start;
+    }
+
+    private void clearColumns() {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            columns.getQuick(i).clear();
+        }
+    }
+
+    private void clearSegments() {
+        header.jumpTo(0);
+        segments.clear();
+        headerSegments.clear();
+    }
+
+    private long computeBodyLength() {
+        long length = 0;
+        for (int i = 0, n = bodyBuffers.size(); i < n; i += 2) {
+            length += align8(bodyBuffers.getQuick(i + 1));
+        }
+        return length;
+    }
+
+    /**
+     * Sets validity bits of non-null values, returns null count.
+     */
+    private long computeValidity(ArrowColumn column, int columnType, long address, long count) {
+        if (!isNullable(columnType)) {
+            return 0;
+        }
+        final long bitmapSize = (count + 7) >>> 3;
+        final long bitmap = column.validity.appendAddressFor(bitmapSize);
+        Vect.memset(bitmap, bitmapSize, 0);
+        long nullCount = 0;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.GEOBYTE:
+                for (long i = 0; i < count; i++) {
+                    if (Unsafe.getUnsafe().getByte(address + i) != -1) {
+                        setBit(bitmap, i);
+                    } else {
+                        nullCount++;
+                    }
+                }
+                break;
+            case ColumnType.CHAR:
+            case ColumnType.GEOSHORT:
+                final short nullShort = ColumnType.tagOf(columnType) == ColumnType.CHAR ? 0 : (short) -1;
+                for (long i = 0; i < count; i++) {
+                    if (Unsafe.getUnsafe().getShort(address + (i << 1)) != nullShort) {
+                        setBit(bitmap, i);
+                    } else {
+                        nullCount++;
+                    }
+                }
+                break;
+            case ColumnType.FLOAT:
+                for (long i = 0; i < count; i++) {
+                    final float f = Unsafe.getUnsafe().getFloat(address + (i << 2));
+                    if (f == f) {
+                        setBit(bitmap, i);
+                    } else {
+                        nullCount++;
+                    }
+                }
+                break;
+            case ColumnType.DOUBLE:
+                for (long i = 0; i < count; i++) {
+                    final double d = Unsafe.getUnsafe().getDouble(address + (i << 3));
+                    if (d == d) {
+                        setBit(bitmap, i);
+                    } else {
+                        nullCount++;
+                    }
+                }
+                break;
+            case ColumnType.LONG256:
+                for (long i = 0; i < count; i++) {
+                    final long p = address + (i << 5);
+                    if (Unsafe.getUnsafe().getLong(p) != Numbers.LONG_NULL
+                            || Unsafe.getUnsafe().getLong(p + 8) != Numbers.LONG_NULL
+                            || Unsafe.getUnsafe().getLong(p + 16) != Numbers.LONG_NULL
+                            || Unsafe.getUnsafe().getLong(p + 24) != Numbers.LONG_NULL) {
+                        setBit(bitmap, i);
+                    } else {
+                        nullCount++;
+                    }
+                }
+                break;
+            default:
+                if (ColumnType.sizeOf(columnType) == Integer.BYTES) {
+                    // INT, IPv4, SYMBOL and GEOINT
+                    final int nullInt = getNullInt(columnType);
+                    for (long i = 0; i < count; i++) {
+                        if (Unsafe.getUnsafe().getInt(address + (i << 2)) != nullInt) {
+                            setBit(bitmap, i);
+                        } else {
+                            nullCount++;
+                        }
+                    }
+                } else {
+                    // LONG, DATE, TIMESTAMP and GEOLONG
+                    final long nullLong = ColumnType.tagOf(columnType) == ColumnType.GEOLONG ? -1L : Numbers.LONG_NULL;
+                    for (long i = 0; i < count; i++) {
+                        if (Unsafe.getUnsafe().getLong(address + (i << 3)) != nullLong) {
+                            setBit(bitmap, i);
+                        } else {
+                            nullCount++;
+                        }
+                    }
+                }
+                break;
+        }
+        return nullCount;
+    }
+
+    private void endMessage(long start, long bodyLength) {
+        // body has to start at 8-byte boundary
+        while ((header.getAppendOffset() & 7) != 0) {
+            header.putByte((byte) 0);
+        }
+        final long end = header.getAppendOffset();
+        header.putInt(start + Integer.BYTES, (int) (end - start - 2 * Integer.BYTES));
+        addHeaderSegment(start, end - start);
+
+        long length = 0;
+        for (int i = 0, n = bodyBuffers.size(); i < n; i += 2) {
+            final long size = bodyBuffers.getQuick(i + 1);
+            if (size > 0) {
+                segments.add(bodyBuffers.getQuick(i), size);
+                final long padding = align8(size) - size;
+                if (padding > 0) {
+                    segments.add(zeroes, padding);
+                }
+                length += align8(size);
+            }
+        }
+        assert length == bodyLength;
+        bodyBuffers.clear();
+        nodes.clear();
+    }
+
+    private int getNullInt(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.IPv4:
+                return Numbers.IPv4_NULL;
+            case ColumnType.GEOINT:
+                return -1;
+            default:
+                // INT and SYMBOL
+                return Numbers.INT_NULL;
+        }
+    }
+
+    private boolean isDictionaryEncoded(int columnType) {
+        return frameCursor != null && ColumnType.isSymbol(columnType);
+    }
+
+    // fixed-size columns sent from page frame memory as they are
+    private boolean isDirect(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.NULL:
+            case ColumnType.BOOLEAN:
+            case ColumnType.UUID:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.BINARY:
+                return false;
+            case ColumnType.SYMBOL:
+                return frameCursor != null;
+            default:
+                return true;
+        }
+    }
+
+    private void resolveHeaderSegments() {
+        final long address = header.getAddress();
+        for (int i = 0, n = headerSegments.size(); i < n; i++) {
+            final int index = 2 * headerSegments.getQuick(i);
+            segments.setQuick(index, address + segments.getQuick(index));
+        }
+        headerSegments.clear();
+    }
+
+    private void writeBatch(long rowCount) {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ArrowColumn column = columns.getQuick(i);
+            final int columnType = columnTypes.getQuick(i);
+            nodes.add(rowCount, column.nullCount);
+            if (ColumnType.isNull(columnType)) {
+                // null arrays have no buffers
+                continue;
+            }
+            if (column.nullCount > 0) {
+                addBodyBuffer(column.validity.getAddress(), (rowCount + 7) >>> 3);
+            } else {
+                addBodyBuffer(0, 0);
+            }
+            if (column.directSize > 0) {
+                addBodyBuffer(column.directAddress, column.directSize);
+            } else if (isVarSize(columnType) && !isDictionaryEncoded(columnType)) {
+                if (column.offsets.getAppendOffset() == 0) {
+                    column.offsets.putInt(0);
+                }
+                addBodyBuffer(column.offsets.getAddress(), column.offsets.getAppendOffset());
+                addBodyBuffer(column.varData.ptr(), column.varData.size());
+            } else {
+                addBodyBuffer(column.data.getAddress(), column.data.getAppendOffset());
+            }
+        }
+        writeRecordBatchMessage(rowCount, -1);
+    }
+
+    private void writeDictionary(int columnIndex) {
+        final ArrowColumn column = columns.getQuick(columnIndex);
+        column.clear();
+        final StaticSymbolTable symbolTable = frameCursor.getSymbolTable(columnIndex);
+        final long symbolCount = symbolTable.getSymbolCount();
+        for (int key = 0; key < symbolCount; key++) {
+            appendUtf16(column, key, symbolTable.valueOf(key));
+        }
+        if (column.offsets.getAppendOffset() == 0) {
+            column.offsets.putInt(0);
+        }
+        nodes.add(symbolCount, column.nullCount);
+        addBodyBuffer(column.nullCount > 0 ? column.validity.getAddress() : 0, column.nullCount > 0 ? (symbolCount + 7) >>> 3 : 0);
+        addBodyBuffer(column.offsets.getAddress(), column.offsets.getAppendOffset());
+        addBodyBuffer(column.varData.ptr(), column.varData.size());
+        writeRecordBatchMessage(symbolCount, columnIndex);
+    }
+
+    private long writeField(int columnIndex) {
+        final int columnType = columnTypes.getQuick(columnIndex);
+        final boolean dictionaryEncoded = isDictionaryEncoded(columnType);
+        fb.startTable();
+        fb.addOffset(0);
+        fb.addBool(1, true);
+        fb.addByte(2, getArrowType(columnType));
+        fb.addOffset(3);
+        if (dictionaryEncoded) {
+            fb.addOffset(4);
+        }
+        fb.addOffset(5);
+        final long field = fb.endTable();
+        final long nameRef = fb.getFieldPosition(0);
+        final long typeRef = fb.getFieldPosition(3);
+        final long dictionaryRef = dictionaryEncoded ? fb.getFieldPosition(4) : -1;
+        final long childrenRef = fb.getFieldPosition(5);
+
+        utf8Sink.clear();
+        utf8Sink.put(metadata.getColumnName(columnIndex));
+        fb.patchOffset(nameRef, fb.putString(utf8Sink));
+        fb.patchOffset(typeRef, writeType(columnType));
+        if (dictionaryEncoded) {
+            fb.startTable();
+            // dictionary id
+            fb.addLong(0, columnIndex);
+            fb.addOffset(1);
+            fb.addBool(2, false);
+            final long encoding = fb.endTable();
+            final long indexTypeRef = fb.getFieldPosition(1);
+            fb.patchOffset(dictionaryRef, encoding);
+            fb.patchOffset(indexTypeRef, writeIntType(32, true));
+        }
+        fb.patchOffset(childrenRef, fb.putOffsetVector(0));
+        return field;
+    }
+
+    private long writeIntType(int bitWidth, boolean signed) {
+        fb.startTable();
+        fb.addInt(0, bitWidth);
+        fb.addBool(1, signed);
+        return fb.endTable();
+    }
+
+    private void writeRecordBatchMessage(long rowCount, long dictionaryId) {
+        final long bodyLength = computeBodyLength();
+        final long start = beginMessage();
+        fb.startTable();
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, dictionaryId > -1 ? MESSAGE_DICTIONARY_BATCH : MESSAGE_RECORD_BATCH);
+        fb.addOffset(2);
+        fb.addLong(3, bodyLength);
+        final long message = fb.endTable();
+        long headerRef = fb.getFieldPosition(2);
+
+        if (dictionaryId > -1) {
+            fb.startTable();
+            fb.addLong(0, dictionaryId);
+            fb.addOffset(1);
+            fb.addBool(2, false);
+            final long dictionaryBatch = fb.endTable();
+            final long dataRef = fb.getFieldPosition(1);
+            fb.patchOffset(headerRef, dictionaryBatch);
+            headerRef = dataRef;
+        }
+
+        fb.startTable();
+        fb.addLong(0, rowCount);
+        fb.addOffset(1);
+        fb.addOffset(2);
+        final long recordBatch = fb.endTable();
+        final long nodesRef = fb.getFieldPosition(1);
+        final long buffersRef = fb.getFieldPosition(2);
+        fb.patchOffset(headerRef, recordBatch);
+
+        // FieldNode and Buffer structs are pairs of longs
+        final long nodeVector = fb.startVector(nodes.size() / 2, Long.BYTES);
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            header.putLong(nodes.getQuick(i));
+        }
+        fb.patchOffset(nodesRef, nodeVector);
+
+        final long bufferVector = fb.startVector(bodyBuffers.size() / 2, Long.BYTES);
+        long offset = 0;
+        for (int i = 0, n = bodyBuffers.size(); i < n; i += 2) {
+            final long size = bodyBuffers.getQuick(i + 1);
+            header.putLong(offset);
+            header.putLong(size);
+            offset += align8(size);
+        }
+        fb.patchOffset(buffersRef, bufferVector);
+        fb.finish(message);
+        endMessage(start, bodyLength);
+    }
+
+    private long writeType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                return writeIntType(8, true);
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                return writeIntType(16, true);
+            case ColumnType.CHAR:
+                return writeIntType(16, false);
+            case ColumnType.INT:
+            case ColumnType.GEOINT:
+                return writeIntType(32, true);
+            case ColumnType.IPv4:
+                return writeIntType(32, false);
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                return writeIntType(64, true);
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                fb.startTable();
+                fb.addShort(0, ColumnType.tagOf(columnType) == ColumnType.FLOAT ? FLOAT_PRECISION_SINGLE : FLOAT_PRECISION_DOUBLE);
+                return fb.endTable();
+            case ColumnType.DATE:
+                fb.startTable();
+                fb.addShort(0, UNIT_MILLISECOND);
+                return fb.endTable();
+            case ColumnType.TIMESTAMP:
+                fb.startTable();
+                fb.addShort(0, UNIT_MICROSECOND);
+                return fb.endTable();
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+                fb.startTable();
+                fb.addInt(0, ColumnType.sizeOf(columnType));
+                return fb.endTable();
+            default:
+                // Null, Bool, Utf8 and Binary types have no fields
+                fb.startTable();
+                return fb.endTable();
+        }
+    }
+
+    private static long align8(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static class ArrowColumn implements QuietCloseable, Mutable {
+        private final MemoryCARWImpl data = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        private final MemoryCARWImpl offsets = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        private final MemoryCARWImpl validity = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        private final DirectUtf8Sink varData = new DirectUtf8Sink(16);
+        private long directAddress;
+        private long directSize;
+        private long nullCount;
+        private long rowCount;
+
+        @Override
+        public void clear() {
+            data.jumpTo(0);
+            offsets.jumpTo(0);
+            validity.jumpTo(0);
+            varData.clear();
+            directAddress = 0;
+            directSize = 0;
+            nullCount = 0;
+            rowCount = 0;
+        }
+
+        @Override
+        public void close() {
+            data.close();
+            offsets.close();
+            validity.close();
+            varData.close();
+        }
+
+        private void endVarValue(long row, boolean valid) {
+            offsets.putInt(varData.size());
+            putValidity(row, valid);
+        }
+
+        private void putValidity(long row, boolean valid) {
+            if ((row & 7) == 0) {
+                validity.putByte((byte) 0);
+            }
+            if (valid) {
+                setBit(validity.getAddress(), row);
+            } else {
+                nullCount++;
+            }
+        }
+
+        private void startVarValue(long row) {
+            if (row == 0) {
+                offsets.putInt(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.str.Utf8Sequence;
+
+import java.util.Arrays;
+
+/**
+ * Minimal FlatBuffers writer used to encode Arrow IPC message headers.
+ * <p>
+ * Unlike the reference implementation, it lays the buffer out front to back: the root
+ * offset comes first, then tables are written before the strings, vectors and tables
+ * they refer to. References are written as placeholders and patched with
+ * {@link #patchOffset(long, long)} once their targets are written, so they always point
+ * forward as unsigned offsets must. Tables are aligned so that 8-byte fields land
+ * on 8-byte boundaries relative to the start of the buffer.
+ * <p>
+ * All positions are absolute offsets in the underlying memory.
+ */
+class FlatBufferWriter {
+    private static final int MAX_SLOTS = 8;
+    private final long[] slotPositions = new long[MAX_SLOTS];
+    private final int[] slotSizes = new int[MAX_SLOTS];
+    private final long[] slotValues = new long[MAX_SLOTS];
+    private long base;
+    private MemoryCARW mem;
+    private int slotCount;
+
+    public void addBool(int slot, boolean value) {
+        add(slot, value ? 1 : 0, Byte.BYTES);
+    }
+
+    public void addByte(int slot, int value) {
+        add(slot, value, Byte.BYTES);
+    }
+
+    public void addInt(int slot, int value) {
+        add(slot, value, Integer.BYTES);
+    }
+
+    public void addLong(int slot, long value) {
+        add(slot, value, Long.BYTES);
+    }
+
+    /**
+     * Adds reference field, its value has to be patched once the target is written.
+     */
+    public void addOffset(int slot) {
+        add(slot, 0, Integer.BYTES);
+    }
+
+    public void addShort(int slot, int value) {
+        add(slot, value, Short.BYTES);
+    }
+
+    /**
+     * Writes vtable and inline fields of the current table.
+     *
+     * @return position of the table
+     */
+    public long endTable() {
+        final long vtablePos = align(mem.getAppendOffset(), Short.BYTES);
+        final int vtableSize = 2 * Short.BYTES + slotCount * Short.BYTES;
+        long tablePos = vtablePos + vtableSize;
+        // table starts with 4-byte offset to vtable, the following 8-byte fields are aligned
+        while ((tablePos - base) % Long.BYTES != Integer.BYTES) {
+            tablePos++;
+        }
+
+        long fieldPos = tablePos + Integer.BYTES;
+        for (int size = Long.BYTES; size > 0; size >>= 1) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotSizes[slot] == size) {
+                    slotPositions[slot] = fieldPos;
+                    fieldPos += size;
+                }
+            }
+        }
+
+        pad(vtablePos);
+        mem.putShort((short) vtableSize);
+        mem.putShort((short) (fieldPos - tablePos));
+        for (int slot = 0; slot < slotCount; slot++) {
+            mem.putShort((short) (slotSizes[slot] > 0 ? slotPositions[slot] - tablePos : 0));
+        }
+        pad(tablePos);
+        mem.putInt((int) (tablePos - vtablePos));
+        for (int size = Long.BYTES; size > 0; size >>= 1) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotSizes[slot] == size) {
+                    putValue(slotValues[slot], size);
+                }
+            }
+        }
+        return tablePos;
+    }
+
+    /**
+     * Patches the root offset, must be called once the root table is written.
+     */
+    public void finish(long rootTablePos) {
+        patchOffset(base, rootTablePos);
+    }
+
+    /**
+     * @return position of the given field of the last table written with {@link #endTable()}
+     */
+    public long getFieldPosition(int slot) {
+        assert slotSizes[slot] > 0;
+        return slotPositions[slot];
+    }
+
+    /**
+     * Starts new buffer at the current append offset of the memory, the offset
+     * is expected to be 8-byte aligned.
+     */
+    public void of(MemoryCARW mem) {
+        this.mem = mem;
+        this.base = mem.getAppendOffset();
+        // root table offset
+        mem.putInt(0);
+    }
+
+    public void patchOffset(long at, long targetPos) {
+        assert targetPos > at;
+        mem.putInt(at, (int) (targetPos - at));
+    }
+
+    /**
+     * Writes vector of references, elements have to be patched once their targets are written.
+     *
+     * @return position of the vector, the element i is at {@code position + 4 + 4 * i}
+     */
+    public long putOffsetVector(int count) {
+        final long pos = startVector(count, Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            mem.putInt(0);
+        }
+        return pos;
+    }
+
+    public long putString(Utf8Sequence value) {
+        final int size = value.size();
+        final long pos = startVector(size, Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            mem.putByte(value.byteAt(i));
+        }
+        // strings are zero terminated
+        mem.putByte((byte) 0);
+        return pos;
+    }
+
+    /**
+     * Writes vector length, the caller then appends the elements.
+     *
+     * @param alignment alignment of the elements, e.g. 8 for structs with long fields
+     * @return position of the vector
+     */
+    public long startVector(int count, int alignment) {
+        long pos = align(mem.getAppendOffset(), Integer.BYTES);
+        while ((pos + Integer.BYTES - base) % alignment != 0) {
+            pos += Integer.BYTES;
+        }
+        pad(pos);
+        mem.putInt(count);
+        return pos;
+    }
+
+    public void startTable() {
+        Arrays.fill(slotSizes, 0);
+        slotCount = 0;
+    }
+
+    private void add(int slot, long value, int size) {
+        slotValues[slot] = value;
+        slotSizes[slot] = size;
+        slotCount = Math.max(slotCount, slot + 1);
+    }
+
+    private long align(long pos, int alignment) {
+        final long rem = (pos - base) % alignment;
+        return rem == 0 ? pos : pos + alignment - rem;
+    }
+
+    private void pad(long pos) {
+        while (mem.getAppendOffset() < pos) {
+            mem.putByte((byte) 0);
+        }
+    }
+
+    private void putValue(long value, int size) {
+        switch (size) {
+            case Long.BYTES:
+                mem.putLong(value);
+                break;
+            case Integer.BYTES:
+                mem.putInt((int) value);
+                break;
+            case Short.BYTES:
+                mem.putShort((short) value);
+                break;
+            default:
+                mem.putByte((byte) value);
+                break;
+        }
+    }
+}
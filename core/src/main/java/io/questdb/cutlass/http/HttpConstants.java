@@ -27,9 +27,11 @@ package io.questdb.cutlass.http;
 import io.questdb.std.str.Utf8String;
 
 public final class HttpConstants {
+    public static final String CONTENT_TYPE_ARROW_STREAM = "application/vnd.apache.arrow.stream";
     public static final String CONTENT_TYPE_CSV = "text/csv; charset=utf-8";
     public static final String CONTENT_TYPE_HTML = "text/html; charset=utf-8";
     public static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    public static final String CONTENT_TYPE_PARQUET = "application/vnd.apache.parquet";
     public static final String CONTENT_TYPE_TEXT = "text/plain; charset=utf-8";
 
     public static final char COOKIE_VALUE_SEPARATOR = '=';
@@ -48,6 +50,7 @@ public final class HttpConstants {
     public static final Utf8String URL_PARAM_ATOMICITY = new Utf8String("atomicity");
     public static final Utf8String URL_PARAM_ATTACHMENT = new Utf8String("attachment");
     public static final Utf8String URL_PARAM_COLS = new Utf8String("cols");
+    public static final Utf8String URL_PARAM_COLUMNAR = new Utf8String("columnar");
     public static final Utf8String URL_PARAM_COUNT = new Utf8String("count");
     public static final Utf8String URL_PARAM_CREATE = new Utf8String("create");
     public static final Utf8String URL_PARAM_DELIMITER = new Utf8String("delimiter");
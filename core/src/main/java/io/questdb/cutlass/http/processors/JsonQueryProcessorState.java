@@ -27,6 +27,13 @@ package io.questdb.cutlass.http.processors;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.DataUnavailableException;
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.PartitionFrameCursorFactory;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.http.HttpChunkedResponse;
@@ -43,8 +50,10 @@ import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.std.*;
 import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.DirectUtf8Sink;
 import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8Sink;
 import io.questdb.std.str.Utf8s;
 
 import java.io.Closeable;
@@ -53,6 +62,9 @@ import static io.questdb.cutlass.http.HttpConstants.*;
 
 public class JsonQueryProcessorState implements Mutable, Closeable {
     public static final String HIDDEN = "hidden";
+    static final int QUERY_COLUMN_PREFIX = 10;
+    static final int QUERY_COLUMN_SUFFIX = 12;
+    static final int QUERY_COLUMN_VALUES = 11;
     static final int QUERY_METADATA = 2;
     static final int QUERY_METADATA_SUFFIX = 3;
     static final int QUERY_PREFIX = 1;
@@ -65,6 +77,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     static final int QUERY_SUFFIX = 7;
     private static final Log LOG = LogFactory.getLog(JsonQueryProcessorState.class);
     private final ObjList<String> columnNames = new ObjList<>();
+    // columnar layout of cursors without page frames is buffered here, one sink per column
+    private final ObjList<DirectUtf8Sink> columnSinks = new ObjList<>();
     private final IntList columnSkewList = new IntList();
     private final IntList columnTypesAndFlags = new IntList();
     private final StringSink columnsQueryParameter = new StringSink();
@@ -72,6 +86,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
     private final int floatScale;
+    private final PageFrameMemoryRecord frameRecord = new PageFrameMemoryRecord();
+    // row lo and hi, relative to the frame, of every page frame in the requested row range
+    private final LongList frameRowBounds = new LongList();
     private final HttpConnectionContext httpConnectionContext;
     private final CharSequence keepAliveHeader;
     private final NanosecondClock nanosecondClock;
@@ -81,6 +98,11 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private SqlExecutionCircuitBreaker circuitBreaker;
     private int columnCount;
     private int columnIndex;
+    // number of values in each column array of the columnar layout
+    private long columnRowCount;
+    private long columnSinkOffset;
+    private long columnValueCount;
+    private boolean columnar = false;
     private long compilerNanos;
     private boolean containsSecret;
     private long count;
@@ -89,6 +111,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private boolean cursorHasRows;
     private long executeStartNanos;
     private boolean explain = false;
+    private PageFrameAddressCache frameAddressCache;
+    private PageFrameCursor frameCursor;
+    private int frameIndex;
+    private PageFrameMemoryPool frameMemoryPool;
+    private long frameRowIndex;
+    private long frameRowTotal;
     private boolean noMeta = false;
     private OperationFuture operationFuture;
     private boolean pausedQuery = false;
@@ -123,6 +151,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         resumeActions.extendAndSet(QUERY_RECORD, this::onQueryRecord);
         resumeActions.extendAndSet(QUERY_RECORD_SUFFIX, this::onQueryRecordSuffix);
         resumeActions.extendAndSet(QUERY_SUFFIX, this::doQuerySuffix);
+        resumeActions.extendAndSet(QUERY_COLUMN_PREFIX, this::onColumnPrefix);
+        resumeActions.extendAndSet(QUERY_COLUMN_VALUES, this::onColumnValues);
+        resumeActions.extendAndSet(QUERY_COLUMN_SUFFIX, this::onColumnSuffix);
 
         this.nanosecondClock = nanosecondClock;
         this.floatScale = floatScale;
@@ -139,6 +170,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         columnNames.clear();
         queryTimestampIndex = -1;
         cursor = Misc.free(cursor);
+        freeFrameCursor();
         circuitBreaker = null;
         record = null;
         if (recordCursorFactory != null) {
@@ -153,6 +185,11 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         columnsQueryParameter.clear();
         queryState = QUERY_SETUP_FIRST_RECORD;
         columnIndex = 0;
+        columnRowCount = 0;
+        columnSinkOffset = 0;
+        Misc.freeObjListAndClear(columnSinks);
+        columnValueCount = 0;
+        columnar = false;
         countRows = false;
         explain = false;
         noMeta = false;
@@ -171,6 +208,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        freeFrameCursor();
+        frameMemoryPool = Misc.free(frameMemoryPool);
+        Misc.freeObjListAndClear(columnSinks);
         recordCursorFactory = Misc.free(recordCursorFactory);
         circuitBreaker = null;
         freeAsyncOperation();
@@ -196,6 +236,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         explain = Utf8s.equalsNcAscii("true", request.getUrlParam(URL_PARAM_EXPLAIN));
         quoteLargeNum = Utf8s.equalsNcAscii("true", request.getUrlParam(URL_PARAM_QUOTE_LARGE_NUM))
                 || Utf8s.equalsNcAscii("con", request.getUrlParam(URL_PARAM_SRC));
+        columnar = Utf8s.equalsNcAscii("true", request.getUrlParam(URL_PARAM_COLUMNAR));
     }
 
     public LogRecord critical() {
@@ -295,132 +336,124 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.executeStartNanos = nanosecondClock.getTicks();
     }
 
-    private static void putBooleanValue(HttpChunkedResponse response, Record rec, int col) {
-        response.put(rec.getBool(col));
+    private static void putBooleanValue(Utf8Sink sink, Record rec, int col) {
+        sink.put(rec.getBool(col));
     }
 
-    private static void putByteValue(HttpChunkedResponse response, Record rec, int col) {
-        response.put((int) rec.getByte(col));
+    private static void putByteValue(Utf8Sink sink, Record rec, int col) {
+        sink.put((int) rec.getByte(col));
     }
 
-    private static void putCharValue(HttpChunkedResponse response, Record rec, int col) {
-        char c = rec.getChar(col);
+    private static void putCharValue(Utf8Sink sink, char c) {
         if (c == 0) {
-            response.putAscii("\"\"");
+            sink.putAscii("\"\"");
         } else {
-            response.putAscii('"').put(c).putAscii('"');
+            sink.putAscii('"').put(c).putAscii('"');
         }
     }
 
-    private static void putDateValue(HttpChunkedResponse response, Record rec, int col) {
-        final long d = rec.getDate(col);
+    private static void putDateValue(Utf8Sink sink, long d) {
         if (d == Long.MIN_VALUE) {
-            response.putAscii("null");
+            sink.putAscii("null");
             return;
         }
-        response.putAscii('"').putISODateMillis(d).putAscii('"');
+        sink.putAscii('"').putISODateMillis(d).putAscii('"');
     }
 
-    private static void putGeoHashStringByteValue(HttpChunkedResponse response, Record rec, int col, int bitFlags) {
+    private static void putGeoHashStringByteValue(Utf8Sink sink, Record rec, int col, int bitFlags) {
         byte l = rec.getGeoByte(col);
-        GeoHashes.append(l, bitFlags, response);
+        GeoHashes.append(l, bitFlags, sink);
     }
 
-    private static void putGeoHashStringIntValue(HttpChunkedResponse response, Record rec, int col, int bitFlags) {
+    private static void putGeoHashStringIntValue(Utf8Sink sink, Record rec, int col, int bitFlags) {
         int l = rec.getGeoInt(col);
-        GeoHashes.append(l, bitFlags, response);
+        GeoHashes.append(l, bitFlags, sink);
     }
 
-    private static void putGeoHashStringLongValue(HttpChunkedResponse response, Record rec, int col, int bitFlags) {
+    private static void putGeoHashStringLongValue(Utf8Sink sink, Record rec, int col, int bitFlags) {
         long l = rec.getGeoLong(col);
-        GeoHashes.append(l, bitFlags, response);
+        GeoHashes.append(l, bitFlags, sink);
     }
 
-    private static void putGeoHashStringShortValue(HttpChunkedResponse response, Record rec, int col, int bitFlags) {
+    private static void putGeoHashStringShortValue(Utf8Sink sink, Record rec, int col, int bitFlags) {
         short l = rec.getGeoShort(col);
-        GeoHashes.append(l, bitFlags, response);
+        GeoHashes.append(l, bitFlags, sink);
     }
 
-    private static void putIPv4Value(HttpChunkedResponse response, Record rec, int col) {
-        final int i = rec.getIPv4(col);
+    private static void putIPv4Value(Utf8Sink sink, int i) {
         if (i == Numbers.IPv4_NULL) {
-            response.putAscii("null");
+            sink.putAscii("null");
         } else {
-            response.putAscii('"');
-            Numbers.intToIPv4Sink(response, i);
-            response.putAscii('"');
+            sink.putAscii('"');
+            Numbers.intToIPv4Sink(sink, i);
+            sink.putAscii('"');
         }
     }
 
-    private static void putIntValue(HttpChunkedResponse response, Record rec, int col) {
-        final int i = rec.getInt(col);
+    private static void putIntValue(Utf8Sink sink, int i) {
         if (i == Integer.MIN_VALUE) {
-            response.putAscii("null");
+            sink.putAscii("null");
         } else {
-            response.put(i);
+            sink.put(i);
         }
     }
 
-    private static void putLong256Value(HttpChunkedResponse response, Record rec, int col) {
-        response.putAscii('"');
-        rec.getLong256(col, response);
-        response.putAscii('"');
+    private static void putLong256Value(Utf8Sink sink, Record rec, int col) {
+        sink.putAscii('"');
+        rec.getLong256(col, sink);
+        sink.putAscii('"');
     }
 
-    private static void putLongValue(HttpChunkedResponse response, Record rec, int col, boolean quoteLargeNum) {
-        final long l = rec.getLong(col);
+    private static void putLongValue(Utf8Sink sink, long l, boolean quoteLargeNum) {
         if (l == Long.MIN_VALUE) {
-            response.putAscii("null");
+            sink.putAscii("null");
         } else if (quoteLargeNum) {
-            response.putAscii('"').put(l).putAscii('"');
+            sink.putAscii('"').put(l).putAscii('"');
         } else {
-            response.put(l);
+            sink.put(l);
         }
     }
 
-    private static void putRecValue(HttpChunkedResponse response) {
-        putStringOrNull(response, null);
+    private static void putRecValue(Utf8Sink sink) {
+        putStringOrNull(sink, null);
     }
 
-    private static void putShortValue(HttpChunkedResponse response, Record rec, int col) {
-        response.put(rec.getShort(col));
+    private static void putShortValue(Utf8Sink sink, Record rec, int col) {
+        sink.put(rec.getShort(col));
     }
 
-    private static void putStrValue(HttpChunkedResponse response, Record rec, int col) {
-        putStringOrNull(response, rec.getStrA(col));
+    private static void putStrValue(Utf8Sink sink, Record rec, int col) {
+        putStringOrNull(sink, rec.getStrA(col));
     }
 
-    private static void putStringOrNull(HttpChunkedResponse response, CharSequence str) {
+    private static void putStringOrNull(Utf8Sink sink, CharSequence str) {
         if (str == null) {
-            response.putAscii("null");
+            sink.putAscii("null");
         } else {
-            response.putQuote().escapeJsonStr(str).putQuote();
+            sink.putQuote().escapeJsonStr(str).putQuote();
         }
     }
 
-    private static void putSymValue(HttpChunkedResponse response, Record rec, int col) {
-        putStringOrNull(response, rec.getSymA(col));
+    private static void putSymValue(Utf8Sink sink, Record rec, int col) {
+        putStringOrNull(sink, rec.getSymA(col));
     }
 
-    private static void putTimestampValue(HttpChunkedResponse response, Record rec, int col) {
-        final long t = rec.getTimestamp(col);
+    private static void putTimestampValue(Utf8Sink sink, long t) {
         if (t == Long.MIN_VALUE) {
-            response.putAscii("null");
+            sink.putAscii("null");
             return;
         }
-        response.putAscii('"').putISODate(t).putAscii('"');
+        sink.putAscii('"').putISODate(t).putAscii('"');
     }
 
-    private static void putUuidValue(HttpChunkedResponse response, Record rec, int col) {
-        long lo = rec.getLong128Lo(col);
-        long hi = rec.getLong128Hi(col);
+    private static void putUuidValue(Utf8Sink sink, long lo, long hi) {
         if (Uuid.isNull(lo, hi)) {
-            response.putAscii("null");
+            sink.putAscii("null");
             return;
         }
-        response.putAscii('"');
-        Numbers.appendUuid(lo, hi, response);
-        response.putAscii('"');
+        sink.putAscii('"');
+        Numbers.appendUuid(lo, hi, sink);
+        sink.putAscii('"');
     }
 
     private boolean addColumnToOutput(
@@ -467,6 +500,77 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.columnNames.add(metadata.getColumnName(i));
     }
 
+    private void doColumnFrameValues(HttpChunkedResponse response) {
+        queryState = QUERY_COLUMN_VALUES;
+        final int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(columnIndex) : columnIndex;
+        final int columnType = columnTypesAndFlags.getQuick(2 * columnIndex);
+        final int bitFlags = columnTypesAndFlags.getQuick(2 * columnIndex + 1);
+        for (int n = frameRowBounds.size() / 2; frameIndex < n; ) {
+            final PageFrameMemory frameMemory = frameMemoryPool.navigateTo(frameIndex);
+            final long rowHi = frameRowBounds.getQuick(2 * frameIndex + 1);
+            final long pageAddress = frameMemory.getPageAddress(columnIdx);
+            if (pageAddress == 0 || !putFrameValues(response, pageAddress, columnType, bitFlags, rowHi)) {
+                // column top or a type without a tight loop, values go through the record
+                frameRecord.init(frameMemory);
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    frameRecord.setRowIndex(frameRowIndex);
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putValue(response, frameRecord, columnIdx, columnType, bitFlags);
+                    columnValueCount++;
+                }
+            }
+            if (++frameIndex < n) {
+                frameRowIndex = frameRowBounds.getQuick(2 * frameIndex);
+            }
+        }
+    }
+
+    private void doColumnPrefix(HttpChunkedResponse response) {
+        queryState = QUERY_COLUMN_PREFIX;
+        if (frameCursor != null) {
+            frameIndex = 0;
+            frameRowIndex = frameRowBounds.size() > 0 ? frameRowBounds.getQuick(0) : 0;
+        } else {
+            columnSinkOffset = 0;
+        }
+        response.bookmark();
+        if (columnIndex > 0) {
+            response.putAscii(',');
+        }
+        response.putAscii('[');
+        columnValueCount = 0;
+    }
+
+    private void doColumnSuffix(HttpChunkedResponse response) {
+        queryState = QUERY_COLUMN_SUFFIX;
+        response.bookmark();
+        response.putAscii(']');
+    }
+
+    private void doColumnSinkValues(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        queryState = QUERY_COLUMN_VALUES;
+        final DirectUtf8Sink sink = columnSinks.getQuick(columnIndex);
+        final long size = sink.size();
+        while (columnSinkOffset < size) {
+            final int len = (int) Math.min(size - columnSinkOffset, Integer.MAX_VALUE);
+            columnSinkOffset += response.writeBytes(sink.lo() + columnSinkOffset, len);
+            response.bookmark();
+            if (columnSinkOffset < size) {
+                // the buffer is full
+                response.sendChunk(false);
+            }
+        }
+    }
+
+    private void doColumnValues(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (frameCursor != null) {
+            doColumnFrameValues(response);
+        } else if (columnRowCount > 0) {
+            doColumnSinkValues(response);
+        }
+    }
+
     private void doNextRecordLoop(
             HttpChunkedResponse response,
             int columnCount
@@ -534,84 +638,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             }
 
             int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(columnIndex) : columnIndex;
-            int columnType = columnTypesAndFlags.getQuick(2 * columnIndex);
-            switch (ColumnType.tagOf(columnType)) {
-                case ColumnType.BOOLEAN:
-                    putBooleanValue(response, record, columnIdx);
-                    break;
-                case ColumnType.BYTE:
-                    putByteValue(response, record, columnIdx);
-                    break;
-                case ColumnType.DOUBLE:
-                    putDoubleValue(response, record, columnIdx);
-                    break;
-                case ColumnType.FLOAT:
-                    putFloatValue(response, record, columnIdx);
-                    break;
-                case ColumnType.INT:
-                    putIntValue(response, record, columnIdx);
-                    break;
-                case ColumnType.LONG:
-                    putLongValue(response, record, columnIdx, quoteLargeNum);
-                    break;
-                case ColumnType.DATE:
-                    putDateValue(response, record, columnIdx);
-                    break;
-                case ColumnType.TIMESTAMP:
-                    putTimestampValue(response, record, columnIdx);
-                    break;
-                case ColumnType.SHORT:
-                    putShortValue(response, record, columnIdx);
-                    break;
-                case ColumnType.CHAR:
-                    putCharValue(response, record, columnIdx);
-                    break;
-                case ColumnType.STRING:
-                    putStrValue(response, record, columnIdx);
-                    break;
-                case ColumnType.VARCHAR:
-                    putVarcharValue(response, columnIdx);
-                    break;
-                case ColumnType.SYMBOL:
-                    putSymValue(response, record, columnIdx);
-                    break;
-                case ColumnType.BINARY:
-                    putBinValue(response);
-                    break;
-                case ColumnType.LONG256:
-                    putLong256Value(response, record, columnIdx);
-                    break;
-                case ColumnType.GEOBYTE:
-                    putGeoHashStringByteValue(response, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
-                    break;
-                case ColumnType.GEOSHORT:
-                    putGeoHashStringShortValue(response, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
-                    break;
-                case ColumnType.GEOINT:
-                    putGeoHashStringIntValue(response, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
-                    break;
-                case ColumnType.GEOLONG:
-                    putGeoHashStringLongValue(response, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
-                    break;
-                case ColumnType.RECORD:
-                    putRecValue(response);
-                    break;
-                case ColumnType.NULL:
-                    response.putAscii("null");
-                    break;
-                case ColumnType.LONG128:
-                    throw new UnsupportedOperationException();
-                case ColumnType.UUID:
-                    putUuidValue(response, record, columnIdx);
-                    break;
-                case ColumnType.IPv4:
-                    putIPv4Value(response, record, columnIdx);
-                    break;
-                default:
-                    assert false : "Not supported type in output " + ColumnType.nameOf(columnType);
-                    response.putAscii("null"); // To make JSON valid
-                    break;
-            }
+            putValue(response, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex), columnTypesAndFlags.getQuick(2 * columnIndex + 1));
         }
     }
 
@@ -641,6 +668,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         // closing cursor here guarantees that by the time http client finished reading response the table
         // is released
         cursor = Misc.free(cursor);
+        freeFrameCursor();
         circuitBreaker = null;
         queryState = QUERY_SUFFIX;
         if (count > -1) {
@@ -684,10 +712,53 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         doQuerySuffix(response, columnCount);
     }
 
+    private void freeFrameCursor() {
+        // the pool holds addresses of the cursor's frames, release it first
+        Misc.free(frameMemoryPool);
+        Misc.free(frameRecord);
+        if (frameAddressCache != null) {
+            frameAddressCache.clear();
+        }
+        frameCursor = Misc.free(frameCursor);
+        frameRowBounds.clear();
+        frameIndex = 0;
+        frameRowIndex = 0;
+        frameRowTotal = 0;
+    }
+
     private long getFd() {
         return httpConnectionContext.getFd();
     }
 
+    private void onColumnPrefix(
+            HttpChunkedResponse response,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        doColumnPrefix(response);
+        onColumnValues(response, columnCount);
+    }
+
+    private void onColumnSuffix(
+            HttpChunkedResponse response,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        doColumnSuffix(response);
+        while (++columnIndex < columnCount) {
+            doColumnPrefix(response);
+            doColumnValues(response);
+            doColumnSuffix(response);
+        }
+        doQuerySuffix(response, columnCount);
+    }
+
+    private void onColumnValues(
+            HttpChunkedResponse response,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        doColumnValues(response);
+        onColumnSuffix(response, columnCount);
+    }
+
     private void onNoMoreData() {
         long nanos = nanosecondClock.getTicks();
         if (countRows) {
@@ -760,7 +831,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             HttpChunkedResponse response,
             int columnCount
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        if (cursorHasRows) {
+        if (columnar) {
+            columnIndex = 0;
+            onColumnPrefix(response, columnCount);
+        } else if (cursorHasRows) {
             doRecordFetchLoop(response, columnCount);
         } else {
             doQuerySuffix(response, columnCount);
@@ -770,7 +844,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private void onSetupFirstRecord(HttpChunkedResponse response, int columnCount) throws PeerIsSlowToReadException, PeerDisconnectedException {
         // If there is an exception in the first record setup then upper layers will handle it:
         // Either they will send error or pause execution on DataUnavailableException
-        setupFirstRecord();
+        if (frameCursor != null) {
+            setupFrames();
+        } else if (columnar) {
+            setupColumnSinks(columnCount);
+        } else {
+            setupFirstRecord();
+        }
         // If we make it past setup then we optimistically send HTTP 200 header.
         // There is still a risk of exception while iterating over cursor, but there is not much we can do about it.
         // Trying to access the first record before sending HTTP headers will already catch many errors.
@@ -784,25 +864,286 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         onQueryPrefix(response, columnCount);
     }
 
-    private void putBinValue(HttpChunkedResponse response) {
-        response.putAscii('[');
-        response.putAscii(']');
+    private void putBinValue(Utf8Sink sink) {
+        sink.putAscii('[');
+        sink.putAscii(']');
     }
 
-    private void putDoubleValue(HttpChunkedResponse response, Record rec, int col) {
-        response.put(rec.getDouble(col), doubleScale);
+    private void putColumnValueSeparator(HttpChunkedResponse response) {
+        if (columnValueCount > 0) {
+            response.putAscii(',');
+        }
     }
 
-    private void putFloatValue(HttpChunkedResponse response, Record rec, int col) {
-        response.put(rec.getFloat(col), floatScale);
+    private void putDoubleValue(Utf8Sink sink, Record rec, int col) {
+        sink.put(rec.getDouble(col), doubleScale);
     }
 
-    private void putVarcharValue(HttpChunkedResponse response, int columnIdx) {
-        Utf8Sequence str = record.getVarcharA(columnIdx);
+    private void putFloatValue(Utf8Sink sink, Record rec, int col) {
+        sink.put(rec.getFloat(col), floatScale);
+    }
+
+    /**
+     * Writes the column values of the current frame straight from the page memory.
+     *
+     * @return false when the column type has no specialised loop
+     */
+    private boolean putFrameValues(HttpChunkedResponse response, long pageAddress, int columnType, int bitFlags, long rowHi) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    response.put(Unsafe.getUnsafe().getByte(pageAddress + frameRowIndex) == 1);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.BYTE:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    response.put((int) Unsafe.getUnsafe().getByte(pageAddress + frameRowIndex));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.SHORT:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    response.put(Unsafe.getUnsafe().getShort(pageAddress + (frameRowIndex << 1)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.CHAR:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putCharValue(response, Unsafe.getUnsafe().getChar(pageAddress + (frameRowIndex << 1)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.INT:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putIntValue(response, Unsafe.getUnsafe().getInt(pageAddress + (frameRowIndex << 2)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.IPv4:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putIPv4Value(response, Unsafe.getUnsafe().getInt(pageAddress + (frameRowIndex << 2)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.FLOAT:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    response.put(Unsafe.getUnsafe().getFloat(pageAddress + (frameRowIndex << 2)), floatScale);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.LONG:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putLongValue(response, Unsafe.getUnsafe().getLong(pageAddress + (frameRowIndex << 3)), quoteLargeNum);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.DATE:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putDateValue(response, Unsafe.getUnsafe().getLong(pageAddress + (frameRowIndex << 3)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.TIMESTAMP:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    putTimestampValue(response, Unsafe.getUnsafe().getLong(pageAddress + (frameRowIndex << 3)));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.DOUBLE:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    response.put(Unsafe.getUnsafe().getDouble(pageAddress + (frameRowIndex << 3)), doubleScale);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.UUID:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    final long address = pageAddress + (frameRowIndex << 4);
+                    putUuidValue(response, Unsafe.getUnsafe().getLong(address), Unsafe.getUnsafe().getLong(address + Long.BYTES));
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.GEOBYTE:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    GeoHashes.append(Unsafe.getUnsafe().getByte(pageAddress + frameRowIndex), bitFlags, response);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.GEOSHORT:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    GeoHashes.append(Unsafe.getUnsafe().getShort(pageAddress + (frameRowIndex << 1)), bitFlags, response);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.GEOINT:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    GeoHashes.append(Unsafe.getUnsafe().getInt(pageAddress + (frameRowIndex << 2)), bitFlags, response);
+                    columnValueCount++;
+                }
+                return true;
+            case ColumnType.GEOLONG:
+                for (; frameRowIndex < rowHi; frameRowIndex++) {
+                    response.bookmark();
+                    putColumnValueSeparator(response);
+                    GeoHashes.append(Unsafe.getUnsafe().getLong(pageAddress + (frameRowIndex << 3)), bitFlags, response);
+                    columnValueCount++;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void putValue(Utf8Sink sink, Record rec, int col, int columnType, int bitFlags) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                putBooleanValue(sink, rec, col);
+                break;
+            case ColumnType.BYTE:
+                putByteValue(sink, rec, col);
+                break;
+            case ColumnType.DOUBLE:
+                putDoubleValue(sink, rec, col);
+                break;
+            case ColumnType.FLOAT:
+                putFloatValue(sink, rec, col);
+                break;
+            case ColumnType.INT:
+                putIntValue(sink, rec.getInt(col));
+                break;
+            case ColumnType.LONG:
+                putLongValue(sink, rec.getLong(col), quoteLargeNum);
+                break;
+            case ColumnType.DATE:
+                putDateValue(sink, rec.getDate(col));
+                break;
+            case ColumnType.TIMESTAMP:
+                putTimestampValue(sink, rec.getTimestamp(col));
+                break;
+            case ColumnType.SHORT:
+                putShortValue(sink, rec, col);
+                break;
+            case ColumnType.CHAR:
+                putCharValue(sink, rec.getChar(col));
+                break;
+            case ColumnType.STRING:
+                putStrValue(sink, rec, col);
+                break;
+            case ColumnType.VARCHAR:
+                putVarcharValue(sink, rec, col);
+                break;
+            case ColumnType.SYMBOL:
+                putSymValue(sink, rec, col);
+                break;
+            case ColumnType.BINARY:
+                putBinValue(sink);
+                break;
+            case ColumnType.LONG256:
+                putLong256Value(sink, rec, col);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHashStringByteValue(sink, rec, col, bitFlags);
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHashStringShortValue(sink, rec, col, bitFlags);
+                break;
+            case ColumnType.GEOINT:
+                putGeoHashStringIntValue(sink, rec, col, bitFlags);
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHashStringLongValue(sink, rec, col, bitFlags);
+                break;
+            case ColumnType.RECORD:
+                putRecValue(sink);
+                break;
+            case ColumnType.NULL:
+                sink.putAscii("null");
+                break;
+            case ColumnType.LONG128:
+                // fall through
+            case ColumnType.UUID:
+                putUuidValue(sink, rec.getLong128Lo(col), rec.getLong128Hi(col));
+                break;
+            case ColumnType.IPv4:
+                putIPv4Value(sink, rec.getIPv4(col));
+                break;
+            default:
+                assert false : "Not supported type in output " + ColumnType.nameOf(columnType);
+                sink.putAscii("null"); // To make JSON valid
+                break;
+        }
+    }
+
+    private void putVarcharValue(Utf8Sink sink, Record rec, int col) {
+        Utf8Sequence str = rec.getVarcharA(col);
         if (str == null) {
-            response.putAscii("null");
+            sink.putAscii("null");
         } else {
-            response.putQuote().escapeJsonStr(str).putQuote();
+            sink.putQuote().escapeJsonStr(str).putQuote();
+        }
+    }
+
+    private void putColumnSinkRow(int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            final DirectUtf8Sink sink = columnSinks.getQuick(i);
+            if (columnRowCount > 0) {
+                sink.putAscii(',');
+            }
+            final int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(i) : i;
+            putValue(sink, record, columnIdx, columnTypesAndFlags.getQuick(2 * i), columnTypesAndFlags.getQuick(2 * i + 1));
+        }
+        columnRowCount++;
+        count++;
+        counter.inc();
+    }
+
+    private void setupColumnSinks(int columnCount) {
+        // the cursor is read once and every column is buffered, so that
+        // the columns are not sent from separate executions of the query
+        if (record == null) {
+            setupFirstRecord();
+            if (!cursorHasRows) {
+                return;
+            }
+            for (int i = columnSinks.size(); i < columnCount; i++) {
+                columnSinks.add(new DirectUtf8Sink(Files.PAGE_SIZE));
+            }
+            putColumnSinkRow(columnCount);
+        }
+        // we get here again when the cursor resumes after DataUnavailableException
+        while (doQueryNextRecord()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            putColumnSinkRow(columnCount);
         }
     }
 
@@ -831,6 +1172,24 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         cursorHasRows = true;
     }
 
+    private void setupFrames() {
+        PageFrame frame;
+        while ((countRows || frameRowTotal < stop) && (frame = frameCursor.next()) != null) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            final long rowLo = Math.max(0, skip - frameRowTotal);
+            final long rowHi = Math.min(frameRowCount, stop - frameRowTotal);
+            frameRowTotal += frameRowCount;
+            if (rowLo < rowHi) {
+                frameAddressCache.add(frameRowBounds.size() / 2, frame);
+                frameRowBounds.add(rowLo, rowHi);
+            }
+        }
+        columnRowCount = Math.max(0, Math.min(frameRowTotal, stop) - skip);
+        cursorHasRows = columnRowCount > 0;
+        count = cursorHasRows ? (countRows ? frameRowTotal : Math.min(frameRowTotal, stop)) : 0;
+    }
+
     static void prepareBadRequestResponse(
             HttpChunkedResponse response,
             CharSequence message,
@@ -876,7 +1235,23 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         // Enable column pre-touch in REST API only when LIMIT K,N is not specified since when limit is defined
         // we do a no-op loop over the cursor to calculate the total row count and pre-touch only slows things down.
         sqlExecutionContext.setColumnPreTouchEnabled(stop == Long.MAX_VALUE);
-        this.cursor = factory.getCursor(sqlExecutionContext);
+        if (
+                columnar
+                        && factory.supportsPageFrameCursor()
+                        && factory.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+        ) {
+            // columnar layout is sent straight from page frame memory
+            this.frameCursor = factory.getPageFrameCursor(sqlExecutionContext, PartitionFrameCursorFactory.ORDER_ASC);
+            if (frameAddressCache == null) {
+                frameAddressCache = new PageFrameAddressCache(sqlExecutionContext.getCairoEngine().getConfiguration());
+                frameMemoryPool = new PageFrameMemoryPool();
+            }
+            frameAddressCache.of(factory.getMetadata());
+            frameMemoryPool.of(frameAddressCache);
+            frameRecord.of(frameCursor);
+        } else {
+            this.cursor = factory.getCursor(sqlExecutionContext);
+        }
         this.circuitBreaker = sqlExecutionContext.getCircuitBreaker();
         final RecordMetadata metadata = factory.getMetadata();
         this.queryTimestampIndex = metadata.getTimestampIndex();
@@ -28,8 +28,15 @@ import io.questdb.Metrics;
 import io.questdb.TelemetryOrigin;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PartitionFrameCursorFactory;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cutlass.ResultStreamWriter;
 import io.questdb.cutlass.http.*;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
@@ -139,7 +146,17 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     boolean runQuery = true;
                     for (int retries = 0; runQuery; retries++) {
                         try {
-                            state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            final RecordCursorFactory factory = state.recordCursorFactory;
+                            if (
+                                    state.format != TextQueryProcessorState.FORMAT_CSV
+                                            && factory.supportsPageFrameCursor()
+                                            && factory.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+                            ) {
+                                // Arrow and Parquet batches are encoded straight from page frame memory
+                                state.frameCursor = factory.getPageFrameCursor(sqlExecutionContext, PartitionFrameCursorFactory.ORDER_ASC);
+                            } else {
+                                state.cursor = factory.getCursor(sqlExecutionContext);
+                            }
                             runQuery = false;
                         } catch (TableReferenceOutOfDateException e) {
                             if (retries == maxSqlRecompileAttempts) {
@@ -288,6 +305,30 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                 .$(", totalBytesSent=").$(context.getTotalBytesSent()).I$();
     }
 
+    private static void resetSegments(TextQueryProcessorState state) {
+        state.segmentIndex = 0;
+        state.segmentOffset = 0;
+    }
+
+    private static void sendSegments(
+            HttpChunkedResponse response,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final ResultStreamWriter writer = state.streamWriter;
+        for (int n = writer.getSegmentCount(); state.segmentIndex < n; ) {
+            final long size = writer.getSegmentSize(state.segmentIndex);
+            final int len = (int) Math.min(size - state.segmentOffset, Integer.MAX_VALUE);
+            state.segmentOffset += response.writeBytes(writer.getSegmentAddress(state.segmentIndex) + state.segmentOffset, len);
+            if (state.segmentOffset == size) {
+                state.segmentIndex++;
+                state.segmentOffset = 0;
+            } else {
+                // the buffer is full
+                response.sendChunk(false);
+            }
+        }
+    }
+
     private LogRecord critical(TextQueryProcessorState state) {
         return LOG.critical().$('[').$(state.getFd()).$("] ");
     }
@@ -311,6 +352,11 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
 
         final HttpChunkedResponse response = context.getChunkedResponse();
+        if (state.format != TextQueryProcessorState.FORMAT_CSV) {
+            doResumeSendStream(response, state);
+            readyForNextRequest(context);
+            return;
+        }
         final int columnCount = state.metadata.getColumnCount();
 
         OUT:
@@ -419,6 +465,66 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         readyForNextRequest(context);
     }
 
+    private void doResumeSendStream(
+            HttpChunkedResponse response,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException {
+        try {
+            while (true) {
+                switch (state.queryState) {
+                    case JsonQueryProcessorState.QUERY_SETUP_FIRST_RECORD:
+                        state.streamWriter = state.getStreamWriter();
+                        state.streamWriter.of(state.metadata, state.frameCursor);
+                        if (state.frameCursor != null) {
+                            if (state.frameAddressCache == null) {
+                                state.frameAddressCache = new PageFrameAddressCache(engine.getConfiguration());
+                                state.frameMemoryPool = new PageFrameMemoryPool();
+                            }
+                            state.frameAddressCache.of(state.metadata);
+                            state.frameMemoryPool.of(state.frameAddressCache);
+                        } else {
+                            state.hasNext = state.cursor.hasNext();
+                        }
+                        state.streamWriter.writeSchema();
+                        resetSegments(state);
+                        header(response, state, 200);
+                        state.queryState = JsonQueryProcessorState.QUERY_METADATA;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_METADATA:
+                        sendSegments(response, state);
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_RECORD_START:
+                        final boolean hasBatch = state.frameCursor != null ? nextFrameBatch(state) : nextRecordBatch(state);
+                        if (!hasBatch) {
+                            state.streamWriter.writeEndOfStream();
+                            resetSegments(state);
+                            state.queryState = JsonQueryProcessorState.QUERY_SUFFIX;
+                            break;
+                        }
+                        resetSegments(state);
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_RECORD:
+                        sendSegments(response, state);
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                        break;
+                    case JsonQueryProcessorState.QUERY_SUFFIX:
+                        sendSegments(response, state);
+                        // release the tables before the client reads the response fully
+                        state.cursor = Misc.free(state.cursor);
+                        state.freeFrameCursor();
+                        sendDone(response, state);
+                        return;
+                    default:
+                        return;
+                }
+            }
+        } catch (DataUnavailableException e) {
+            throw QueryPausedException.instance(e.getEvent(), sqlExecutionContext.getCircuitBreaker());
+        }
+    }
+
     private LogRecord error(TextQueryProcessorState state) {
         return LOG.error().$('[').$(state.getFd()).$("] ");
     }
@@ -474,6 +580,55 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    /**
+     * Writes the next page frame, sliced to the requested row range, as a batch of the stream.
+     *
+     * @return false when there are no more rows to send
+     */
+    private boolean nextFrameBatch(TextQueryProcessorState state) {
+        PageFrame frame;
+        while (state.count < state.stop && (frame = state.frameCursor.next()) != null) {
+            sqlExecutionContext.getCircuitBreaker().statefulThrowExceptionIfTripped();
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            final long rowLo = Math.max(0, state.skip - state.count);
+            final long rowHi = Math.min(frameRowCount, state.stop - state.count);
+            state.count += frameRowCount;
+            if (rowLo < rowHi) {
+                state.frameAddressCache.add(state.frameIndex, frame);
+                final PageFrameMemory frameMemory = state.frameMemoryPool.navigateTo(state.frameIndex++);
+                state.streamWriter.writeFrame(frameMemory, rowLo, rowHi);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects up to the page frame size of cursor rows into a batch of the stream.
+     *
+     * @return false when there are no more rows to send
+     */
+    private boolean nextRecordBatch(TextQueryProcessorState state) {
+        final ResultStreamWriter writer = state.streamWriter;
+        final Record record = state.cursor.getRecord();
+        final long maxBatchRows = engine.getConfiguration().getSqlPageFrameMaxRows();
+        while (writer.getBatchRowCount() < maxBatchRows && state.count < state.stop) {
+            if (state.hasNext || state.cursor.hasNext()) {
+                state.hasNext = false;
+                if (state.count++ >= state.skip) {
+                    writer.appendRecord(record);
+                }
+            } else {
+                break;
+            }
+        }
+        if (writer.getBatchRowCount() == 0) {
+            return false;
+        }
+        writer.writeRecordBatch();
+        return true;
+    }
+
     private boolean parseUrl(
             HttpChunkedResponse response,
             HttpRequestHeader request,
@@ -538,6 +693,19 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             state.delimiter = (char) delimiter.byteAt(0);
         }
 
+        final DirectUtf8Sequence format = request.getUrlParam(URL_PARAM_FMT);
+        if (format == null || Utf8s.equalsNcAscii("csv", format)) {
+            state.format = TextQueryProcessorState.FORMAT_CSV;
+        } else if (Utf8s.equalsNcAscii("arrow", format)) {
+            state.format = TextQueryProcessorState.FORMAT_ARROW;
+        } else if (Utf8s.equalsNcAscii("parquet", format)) {
+            state.format = TextQueryProcessorState.FORMAT_PARQUET;
+        } else {
+            info(state).$("unsupported export format [fmt=").$(format).I$();
+            sendException(response, 0, "unsupported export format", 400, state);
+            return false;
+        }
+
         state.skip = skip;
         state.count = 0L;
         state.stop = stop;
@@ -685,11 +853,27 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             TextQueryProcessorState state,
             int statusCode
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        response.status(statusCode, CONTENT_TYPE_CSV);
+        final String extension;
+        final String contentType;
+        switch (state.format) {
+            case TextQueryProcessorState.FORMAT_ARROW:
+                extension = ".arrows\"";
+                contentType = CONTENT_TYPE_ARROW_STREAM;
+                break;
+            case TextQueryProcessorState.FORMAT_PARQUET:
+                extension = ".parquet\"";
+                contentType = CONTENT_TYPE_PARQUET;
+                break;
+            default:
+                extension = ".csv\"";
+                contentType = CONTENT_TYPE_CSV;
+                break;
+        }
+        response.status(statusCode, contentType);
         if (state.fileName != null && !state.fileName.isEmpty()) {
-            response.headers().putAscii("Content-Disposition: attachment; filename=\"").put(state.fileName).putAscii(".csv\"").putEOL();
+            response.headers().putAscii("Content-Disposition: attachment; filename=\"").put(state.fileName).putAscii(extension).putEOL();
         } else {
-            response.headers().putAscii("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).putAscii(".csv\"").putEOL();
+            response.headers().putAscii("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).putAscii(extension).putEOL();
         }
         response.headers().setKeepAlive(configuration.getKeepAliveHeader());
         response.sendHeader();
@@ -24,10 +24,16 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.ResultStreamWriter;
+import io.questdb.cutlass.arrow.ArrowIpcWriter;
+import io.questdb.cutlass.parquet.ParquetStreamWriter;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
@@ -37,24 +43,39 @@ import io.questdb.std.str.StringSink;
 import java.io.Closeable;
 
 public class TextQueryProcessorState implements Mutable, Closeable {
+    static final byte FORMAT_ARROW = 1;
+    static final byte FORMAT_CSV = 0;
+    static final byte FORMAT_PARQUET = 2;
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
     boolean hasNext;
+    ArrowIpcWriter arrowWriter;
     int columnIndex;
     long count;
     boolean countRows = false;
     RecordCursor cursor;
     char delimiter = ',';
     String fileName;
+    byte format = FORMAT_CSV;
+    PageFrameAddressCache frameAddressCache;
+    PageFrameCursor frameCursor;
+    int frameIndex;
+    PageFrameMemoryPool frameMemoryPool;
     RecordMetadata metadata;
     boolean noMeta = false;
+    ParquetStreamWriter parquetWriter;
     boolean pausedQuery = false;
     int queryState;
     Record record;
     RecordCursorFactory recordCursorFactory;
     Rnd rnd;
+    // position within the pending segments of the stream writer
+    int segmentIndex;
+    long segmentOffset;
     long skip;
     long stop;
+    // writer of the Arrow or Parquet stream, null for CSV
+    ResultStreamWriter streamWriter;
     private boolean queryCacheable = false;
 
     public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
@@ -66,10 +87,18 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     public void clear() {
         delimiter = ',';
         fileName = null;
+        format = FORMAT_CSV;
         metadata = null;
         rnd = null;
         record = null;
         cursor = Misc.free(cursor);
+        freeFrameCursor();
+        if (streamWriter != null) {
+            streamWriter.clear();
+            streamWriter = null;
+        }
+        segmentIndex = 0;
+        segmentOffset = 0;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
                 httpConnectionContext.getSelectCache().put(query, recordCursorFactory);
@@ -93,6 +122,11 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        freeFrameCursor();
+        frameMemoryPool = Misc.free(frameMemoryPool);
+        streamWriter = null;
+        arrowWriter = Misc.free(arrowWriter);
+        parquetWriter = Misc.free(parquetWriter);
         recordCursorFactory = Misc.free(recordCursorFactory);
     }
 
@@ -100,6 +134,29 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext.getFd();
     }
 
+    void freeFrameCursor() {
+        // the pool holds addresses of the cursor's frames, release it first
+        Misc.free(frameMemoryPool);
+        if (frameAddressCache != null) {
+            frameAddressCache.clear();
+        }
+        frameCursor = Misc.free(frameCursor);
+        frameIndex = 0;
+    }
+
+    ResultStreamWriter getStreamWriter() {
+        if (format == FORMAT_ARROW) {
+            if (arrowWriter == null) {
+                arrowWriter = new ArrowIpcWriter();
+            }
+            return arrowWriter;
+        }
+        if (parquetWriter == null) {
+            parquetWriter = new ParquetStreamWriter();
+        }
+        return parquetWriter;
+    }
+
     void setQueryCacheable(boolean queryCacheable) {
         this.queryCacheable = queryCacheable;
     }
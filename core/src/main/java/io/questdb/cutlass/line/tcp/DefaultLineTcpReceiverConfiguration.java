@@ -183,11 +183,21 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 30_000;
     }
 
+    @Override
+    public double getWriterMaxLoadRatio() {
+        return 1.9;
+    }
+
     @Override
     public int getWriterQueueCapacity() {
         return 64;
     }
 
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 10_000;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
@@ -54,6 +54,7 @@ class LineTcpMeasurementEvent implements Closeable {
     private final boolean stringToCharCastAllowed;
     private final LineTcpTimestampAdapter timestampAdapter;
     private boolean commitOnWriterClose;
+    private long reshuffleLastSeq;
     private TableUpdateDetails tableUpdateDetails;
     private int writerWorkerId;
 
@@ -87,6 +88,10 @@ class LineTcpMeasurementEvent implements Closeable {
         return tableUpdateDetails;
     }
 
+    public long getReshuffleLastSeq() {
+        return reshuffleLastSeq;
+    }
+
     public int getWriterWorkerId() {
         return writerWorkerId;
     }
@@ -275,11 +280,17 @@ class LineTcpMeasurementEvent implements Closeable {
         }
     }
 
+    void createIncompleteEvent() {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
+        tableUpdateDetails = null;
+    }
+
     void createMeasurementEvent(
             SecurityContext securityContext,
             TableUpdateDetails tud,
             LineTcpParser parser,
-            int workerId
+            int workerId,
+            int writerThreadId
     ) {
         writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
         final TableUpdateDetails.ThreadLocalDetails localDetails = tud.getThreadLocalDetails(workerId);
@@ -573,7 +584,13 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         buffer.addDesignatedTimestamp(buffer.getAddress() + Long.BYTES, timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + 2 * Long.BYTES, entitiesWritten);
-        writerWorkerId = tud.getWriterThreadId();
+        writerWorkerId = writerThreadId;
+    }
+
+    void createReshuffleEvent(TableUpdateDetails tableUpdateDetails, long reshuffleLastSeq) {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_RESHUFFLE;
+        this.tableUpdateDetails = tableUpdateDetails;
+        this.reshuffleLastSeq = reshuffleLastSeq;
     }
 
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
@@ -30,4 +30,9 @@ class LineTcpMeasurementEventType {
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
+
+    // The table is moved from the writer thread that consumes the event to another writer thread.
+    // The consuming thread stops handling the table once it has processed the events published
+    // to its queue before the move was fully visible to the network IO threads
+    static final int ALL_WRITERS_RESHUFFLE = -4;
 }
@@ -61,6 +61,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final LineWalAppender lineWalAppender;
     private final long[] loadByWriterThread;
+    private final double maxLoadRatio;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
@@ -72,6 +73,10 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
     private final long writerIdleTimeout;
+    private final long writerRebalanceInterval;
+    private long nextRebalanceMillis;
+    // the most recently moved table, only one table can be in transit between writer threads at a time
+    private TableUpdateDetails reshuffledTable;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -158,6 +163,9 @@ public class LineTcpMeasurementScheduler implements Closeable {
                     cairoConfiguration.getWalEnabledDefault()
             );
             writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+            writerRebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+            maxLoadRatio = lineConfiguration.getWriterMaxLoadRatio();
+            nextRebalanceMillis = clock.getTicks() + writerRebalanceInterval;
             lineWalAppender = new LineWalAppender(
                     autoCreateNewColumns,
                     configuration.isStringToCharCastAllowed(),
@@ -201,6 +209,10 @@ public class LineTcpMeasurementScheduler implements Closeable {
             int readerWorkerId,
             long millis
     ) {
+        if (writerRebalanceInterval > 0 && millis >= nextRebalanceMillis && loadByWriterThread.length > 1) {
+            rebalance(millis);
+        }
+
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final Utf8String tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
@@ -361,21 +373,30 @@ public class LineTcpMeasurementScheduler implements Closeable {
             LineTcpParser parser,
             TableUpdateDetails tud
     ) {
-        final int writerThreadId = tud.getWriterThreadId();
-        long seq = getNextPublisherEventSequence(writerThreadId);
-        if (seq > -1) {
+        while (true) {
+            final int writerThreadId = tud.getWriterThreadId();
+            final long seq = getNextPublisherEventSequence(writerThreadId);
+            if (seq < 0) {
+                return true;
+            }
             try {
                 if (tud.isWriterInError()) {
                     throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
+                final LineTcpMeasurementEvent event = queue[writerThreadId].get(seq);
+                if (tud.getWriterThreadId() != writerThreadId) {
+                    // the table has been moved to another writer thread after we read its
+                    // writer thread id, publish the slot as incomplete and use the new queue
+                    event.createIncompleteEvent();
+                    continue;
+                }
+                event.createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId(), writerThreadId);
             } finally {
                 pubSeq[writerThreadId].done(seq);
             }
             tud.incrementEventsProcessedSinceReshuffle();
             return false;
         }
-        return true;
     }
 
     private TableUpdateDetails getTableUpdateDetailsFromSharedArea(
@@ -489,6 +510,88 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return null != pubSeq;
     }
 
+    private void rebalance(long millis) {
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (millis < nextRebalanceMillis) {
+                // another network IO thread got here first
+                return;
+            }
+            nextRebalanceMillis = millis + writerRebalanceInterval;
+            if (reshuffledTable != null && reshuffledTable.isReshuffleInProgress()) {
+                return;
+            }
+            reshuffledTable = null;
+
+            unsafeCalcThreadLoad();
+            long maxLoad = Long.MAX_VALUE;
+            TableUpdateDetails tableToMove = null;
+            int fromThreadId = -1;
+            int toThreadId = -1;
+            final ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            while (tableToMove == null) {
+                long highestLoad = Long.MIN_VALUE;
+                long lowestLoad = Long.MAX_VALUE;
+                fromThreadId = -1;
+                toThreadId = -1;
+                for (int i = 0, n = loadByWriterThread.length; i < n; i++) {
+                    final long load = loadByWriterThread[i];
+                    if (load < maxLoad && load > highestLoad) {
+                        highestLoad = load;
+                        fromThreadId = i;
+                    }
+                    if (load < lowestLoad) {
+                        lowestLoad = load;
+                        toThreadId = i;
+                    }
+                }
+
+                if (fromThreadId == -1 || fromThreadId == toThreadId || highestLoad == 0) {
+                    break;
+                }
+
+                if ((double) highestLoad / Math.max(lowestLoad, 1) < maxLoadRatio) {
+                    // load is not sufficiently unbalanced
+                    break;
+                }
+
+                // pick the table that brings both threads closest to equal load;
+                // moving the only busy table of a thread would just move the hotspot
+                final long halfGap = (highestLoad - lowestLoad) / 2;
+                long bestDistance = Long.MAX_VALUE;
+                int busyTables = 0;
+                for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                    final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                    final long load = tud.getEventsProcessedSinceReshuffle();
+                    if (tud.getWriterThreadId() == fromThreadId && load > 0 && !tud.isWriterInError()) {
+                        busyTables++;
+                        final long distance = Math.abs(load - halfGap);
+                        if (lowestLoad + load < highestLoad && distance < bestDistance) {
+                            bestDistance = distance;
+                            tableToMove = tud;
+                        }
+                    }
+                }
+
+                if (busyTables < 2) {
+                    tableToMove = null;
+                }
+                // try the next busiest thread
+                maxLoad = highestLoad;
+            }
+
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                tableUpdateDetailsUtf16.get(tableNames.getQuick(n)).resetEventsProcessedSinceReshuffle();
+            }
+
+            if (tableToMove != null) {
+                unsafeMoveTable(tableToMove, fromThreadId, toThreadId);
+            }
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     @NotNull
     private TableUpdateDetails unsafeAssignTableToWriterThread(
             int tudKeyIndex,
@@ -523,6 +626,30 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return tud;
     }
 
+    private void unsafeMoveTable(TableUpdateDetails tud, int fromThreadId, int toThreadId) {
+        final long seq = pubSeq[fromThreadId].next();
+        if (seq < 0) {
+            // the queue is full or contended, the table stays where it is until the next check
+            return;
+        }
+        try {
+            tud.setReshuffleInProgress(true);
+            tud.setWriterThreadId(toThreadId);
+            // network IO threads which read the old writer thread id may still publish events
+            // for the table to the old queue, but only to slots claimed before this point;
+            // the new writer thread does not touch the table until the old one consumes them
+            final long lastSeq = pubSeq[fromThreadId].current();
+            queue[fromThreadId].get(seq).createReshuffleEvent(tud, lastSeq);
+        } finally {
+            pubSeq[fromThreadId].done(seq);
+        }
+        reshuffledTable = tud;
+        LOG.info().$("moving table to another writer thread [tableName=").$(tud.getTableNameUtf16())
+                .$(", fromThreadId=").$(fromThreadId)
+                .$(", toThreadId=").$(toThreadId)
+                .I$();
+    }
+
     private void unsafeCalcThreadLoad() {
         Arrays.fill(loadByWriterThread, 0);
         ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
@@ -91,8 +91,26 @@ public interface LineTcpReceiverConfiguration {
 
     long getWriterIdleTimeout();
 
+    /**
+     * Ratio between the busiest and the least busy writer thread, measured in events
+     * processed since the last rebalance, above which a table is moved from the busiest
+     * writer thread to the least busy one.
+     *
+     * @return load ratio threshold
+     */
+    double getWriterMaxLoadRatio();
+
     int getWriterQueueCapacity();
 
+    /**
+     * Interval in milliseconds between writer thread load checks. When writer threads are
+     * unevenly loaded, a non-WAL table can be moved between them. Zero or negative value
+     * disables rebalancing, tables then stay on the writer thread they were first assigned to.
+     *
+     * @return interval in milliseconds
+     */
+    long getWriterRebalanceInterval();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
@@ -48,6 +48,10 @@ class LineTcpWriterJob implements Job, Closeable {
     private final Sequence sequence;
     private final int workerId;
     private long nextCommitTime;
+    private long reshuffleLastSeq;
+    // table being moved away from this writer thread, it is released once
+    // the queue is consumed up to reshuffleLastSeq
+    private TableUpdateDetails reshuffledTable;
 
     LineTcpWriterJob(
             int workerId,
@@ -84,7 +88,7 @@ class LineTcpWriterJob implements Job, Closeable {
     @Override
     public boolean run(int workerId, @NotNull RunStatus runStatus) {
         assert this.workerId == workerId;
-        boolean busy = drainQueue();
+        boolean busy = drainQueue(runStatus.isTerminating());
         // while ILP is hammering the database via multiple connections the writer
         // is likely to be very busy so commitTables() will run infrequently
         // commit should run regardless the busy flag but has to finish quickly
@@ -126,7 +130,7 @@ class LineTcpWriterJob implements Job, Closeable {
         }
     }
 
-    private boolean drainQueue() {
+    private boolean drainQueue(boolean terminating) {
         boolean busy = false;
         while (true) {
             long cursor;
@@ -136,8 +140,19 @@ class LineTcpWriterJob implements Job, Closeable {
                 }
                 Os.pause();
             }
-            busy = true;
             final LineTcpMeasurementEvent event = queue.get(cursor);
+            final TableUpdateDetails eventTud = event.getTableUpdateDetails();
+            if (
+                    eventTud != null
+                            && eventTud.isReshuffleInProgress()
+                            && eventTud.getWriterThreadId() == workerId
+                            && !terminating
+            ) {
+                // the table is being moved to this thread, and the previous writer thread
+                // is still appending to it; leave the event in the queue and retry on the next run
+                return busy;
+            }
+            busy = true;
 
             try {
                 // we check the event's writer thread ID to avoid consuming
@@ -172,10 +187,11 @@ class LineTcpWriterJob implements Job, Closeable {
                         event.createWriterReleaseEvent(tud, false);
                         // This is a critical error, so we treat it as an unhandled one.
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
-                        closeWriter = true;
-                    }
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RESHUFFLE) {
+                    reshuffledTable = tud;
+                    reshuffleLastSeq = event.getReshuffleLastSeq();
                 }
 
                 if (closeWriter && tud.getWriter() != null) {
@@ -188,10 +204,32 @@ class LineTcpWriterJob implements Job, Closeable {
                 LOG.error().$("failed to process ILP event because of exception [ex=").$(ex).I$();
             }
 
+            if (reshuffledTable != null && cursor >= reshuffleLastSeq) {
+                releaseReshuffledTable();
+            }
             sequence.done(cursor);
         }
     }
 
+    private void releaseReshuffledTable() {
+        final TableUpdateDetails tud = reshuffledTable;
+        reshuffledTable = null;
+        // uncommitted rows travel with the writer, the new writer thread
+        // commits them according to its own commit schedule
+        final int index = assignedTables.indexOf(tud);
+        if (index > -1) {
+            assignedTables.remove(index);
+            tud.setAssignedToJob(false);
+            nextCommitTime = millisecondClock.getTicks();
+        }
+        LOG.info()
+                .$("released table to another writer thread [tableName=").$(tud.getTableToken())
+                .$(", fromThreadId=").$(workerId)
+                .$(", toThreadId=").$(tud.getWriterThreadId())
+                .I$();
+        tud.setReshuffleInProgress(false);
+    }
+
     private void tickWriters() {
         for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
             assignedTables.getQuick(n).tick();
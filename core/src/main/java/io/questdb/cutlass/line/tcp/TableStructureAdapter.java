@@ -127,6 +127,11 @@ public class TableStructureAdapter implements TableStructure {
         return timestampIndex == -1 ? entities.size() : timestampIndex;
     }
 
+    @Override
+    public boolean isBloomFilterIndexed(int columnIndex) {
+        return false;
+    }
+
     @Override
     public boolean isDedupKey(int columnIndex) {
         return false;
@@ -70,8 +70,11 @@ public class TableUpdateDetails implements Closeable {
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    // Set while the table is being moved to another writer thread and the previous
+    // writer thread has not yet processed all events published to its queue
+    private volatile boolean reshuffleInProgress;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     public TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -258,6 +261,10 @@ public class TableUpdateDetails implements Closeable {
         return this.isDropped;
     }
 
+    public boolean isReshuffleInProgress() {
+        return reshuffleInProgress;
+    }
+
     public boolean isWal() {
         return writerThreadId == -1;
     }
@@ -278,6 +285,10 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    public void resetEventsProcessedSinceReshuffle() {
+        eventsProcessedSinceReshuffle = 0;
+    }
+
     public void rollback() {
         writerAPI.rollback();
     }
@@ -290,6 +301,14 @@ public class TableUpdateDetails implements Closeable {
         this.isDropped = true;
     }
 
+    public void setReshuffleInProgress(boolean reshuffleInProgress) {
+        this.reshuffleInProgress = reshuffleInProgress;
+    }
+
+    public void setWriterThreadId(int writerThreadId) {
+        this.writerThreadId = writerThreadId;
+    }
+
     public void setWriterInError() {
         writerInError = true;
     }
@@ -620,6 +620,11 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isBloomFilterIndexed(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
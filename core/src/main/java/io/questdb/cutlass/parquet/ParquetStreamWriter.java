@@ -0,0 +1,493 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.vm.MemoryCARWImpl;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.cutlass.ResultStreamWriter;
+import io.questdb.griffin.engine.table.parquet.PartitionDescriptor;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
+import io.questdb.std.IntList;
+import io.questdb.std.Long256;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Utf8StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.SymbolMapWriter.HEADER_SIZE;
+
+/**
+ * Encodes query results as a Parquet file which is produced incrementally: nothing is
+ * written for the schema, every batch becomes one or more row groups and the footer is
+ * written at the end of the stream. The encoder keeps a single buffer which holds the
+ * row groups of the last batch only, so memory is bounded by the batch size.
+ * <p>
+ * In page frame mode, the encoder reads column memory of the frames directly and symbol
+ * columns are written dictionary-encoded from the symbol map of the table. Results of
+ * queries that don't support page frames are converted into per-column buffers using
+ * the on-disk layout first, symbols are exported as varchar in that case.
+ */
+public class ParquetStreamWriter implements ResultStreamWriter {
+    private static final String SCHEMA_NAME = "schema";
+    private static final int SCRATCH_PAGE_SIZE = 64 * 1024;
+    private final ObjList<ParquetColumn> columns = new ObjList<>();
+    private final long compressionCodec;
+    private final long dataPageSize;
+    private final PartitionDescriptor descriptor = new PartitionDescriptor();
+    // column types as they are encoded, may differ from the result types for symbols
+    private final IntList encodedTypes = new IntList();
+    private final long rowGroupSize;
+    private final boolean statisticsEnabled;
+    // symbol tables of symbol columns that can't be dictionary-encoded in page frame mode
+    private final ObjList<StaticSymbolTable> symbolTables = new ObjList<>();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
+    private final int version;
+    private long batchRowCount;
+    private long encoderPtr;
+    private RecordMetadata metadata;
+    private long segmentAddress;
+    private long segmentSize;
+    private int timestampIndex = -1;
+
+    public ParquetStreamWriter() {
+        this(PartitionEncoder.COMPRESSION_UNCOMPRESSED, true, 0, 0, PartitionEncoder.PARQUET_VERSION_V1);
+    }
+
+    /**
+     * @param rowGroupSize max number of rows in a row group, 0 for the encoder's default; batches
+     *                     are never merged, so a row group is also limited by the batch size
+     * @param dataPageSize max size of a data page in bytes, 0 for the encoder's default
+     */
+    public ParquetStreamWriter(long compressionCodec, boolean statisticsEnabled, long rowGroupSize, long dataPageSize, int version) {
+        this.compressionCodec = compressionCodec;
+        this.statisticsEnabled = statisticsEnabled;
+        this.rowGroupSize = rowGroupSize;
+        this.dataPageSize = dataPageSize;
+        this.version = version;
+    }
+
+    @Override
+    public void appendRecord(Record record) {
+        if (batchRowCount == 0) {
+            clearColumns();
+        }
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            appendValue(columns.getQuick(i), metadata.getColumnType(i), record, i);
+        }
+        batchRowCount++;
+    }
+
+    @Override
+    public void clear() {
+        closeEncoder();
+        // column buffers can be large, don't hold them between queries
+        Misc.freeObjListAndClear(columns);
+        encodedTypes.clear();
+        symbolTables.clear();
+        descriptor.clear();
+        batchRowCount = 0;
+        segmentAddress = 0;
+        segmentSize = 0;
+        timestampIndex = -1;
+        metadata = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        descriptor.close();
+    }
+
+    @Override
+    public long getBatchRowCount() {
+        return batchRowCount;
+    }
+
+    @Override
+    public long getSegmentAddress(int index) {
+        assert index == 0;
+        return segmentAddress;
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return segmentSize > 0 ? 1 : 0;
+    }
+
+    @Override
+    public long getSegmentSize(int index) {
+        assert index == 0;
+        return segmentSize;
+    }
+
+    @Override
+    public void of(RecordMetadata metadata, @Nullable PageFrameCursor frameCursor) {
+        clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (!isSupported(columnType)) {
+                throw CairoException.nonCritical().put("unsupported column type for Parquet export [column=").put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType)).put(']');
+            }
+            StaticSymbolTable symbolTable = null;
+            int encodedType = columnType;
+            if (ColumnType.isSymbol(columnType)) {
+                if (frameCursor != null) {
+                    symbolTable = frameCursor.getSymbolTable(i);
+                    if (!(symbolTable instanceof SymbolMapReader)) {
+                        encodedType = ColumnType.VARCHAR;
+                    }
+                } else {
+                    encodedType = ColumnType.VARCHAR;
+                }
+            }
+            encodedTypes.add(encodedType);
+            symbolTables.add(symbolTable);
+            columns.add(new ParquetColumn());
+        }
+        this.metadata = metadata;
+        // rows of forward page frames are in the designated timestamp order
+        this.timestampIndex = frameCursor != null ? metadata.getTimestampIndex() : -1;
+    }
+
+    @Override
+    public void writeEndOfStream() {
+        clearSegment();
+        PartitionEncoder.finishStreamingEncoder(encoderPtr);
+        resolveSegment();
+    }
+
+    @Override
+    public void writeFrame(PageFrameMemory frameMemory, long rowLo, long rowHi) {
+        clearSegment();
+        final long rowCount = rowHi - rowLo;
+        if (rowCount == 0) {
+            return;
+        }
+        descriptor.of(SCHEMA_NAME, rowCount, timestampIndex, false);
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final int encodedType = encodedTypes.getQuick(i);
+            final CharSequence columnName = metadata.getColumnName(i);
+            final long pageAddress = frameMemory.getPageAddress(i);
+            if (ColumnType.isSymbol(columnType)) {
+                if (ColumnType.isSymbol(encodedType)) {
+                    addSymbolColumn(i, frameMemory, rowLo, rowCount);
+                } else {
+                    final ParquetColumn column = columns.getQuick(i);
+                    final StaticSymbolTable symbolTable = symbolTables.getQuick(i);
+                    column.clear();
+                    for (long r = rowLo; r < rowHi; r++) {
+                        final CharSequence value = pageAddress != 0
+                                ? symbolTable.valueOf(Unsafe.getUnsafe().getInt(pageAddress + r * Integer.BYTES))
+                                : null;
+                        appendUtf16AsVarchar(column, value);
+                    }
+                    addBufferedColumn(i, rowCount);
+                }
+            } else if (pageAddress == 0) {
+                // column top
+                descriptor.addColumn(columnName, encodedType, i, rowCount, 0, 0, 0, 0, 0, 0);
+            } else if (ColumnType.isVarSize(columnType)) {
+                final long auxEntrySize = ColumnType.isVarchar(columnType) ? VarcharTypeDriver.VARCHAR_AUX_WIDTH_BYTES : Long.BYTES;
+                // var-size offsets are relative to the start of the data page
+                descriptor.addColumn(
+                        columnName,
+                        encodedType,
+                        i,
+                        0,
+                        pageAddress,
+                        frameMemory.getPageSize(i),
+                        frameMemory.getAuxPageAddress(i) + rowLo * auxEntrySize,
+                        rowCount * auxEntrySize,
+                        0,
+                        0
+                );
+            } else {
+                final int size = ColumnType.sizeOf(columnType);
+                descriptor.addColumn(columnName, encodedType, i, 0, pageAddress + rowLo * size, rowCount * size, 0, 0, 0, 0);
+            }
+        }
+        encodeChunk();
+    }
+
+    @Override
+    public void writeRecordBatch() {
+        clearSegment();
+        if (batchRowCount > 0) {
+            descriptor.of(SCHEMA_NAME, batchRowCount, timestampIndex, false);
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                addBufferedColumn(i, batchRowCount);
+            }
+            encodeChunk();
+        }
+        batchRowCount = 0;
+    }
+
+    /**
+     * Creates the encoder. Parquet files start with a magic number only, which is written
+     * along with the first row group, so there is nothing to send yet.
+     */
+    @Override
+    public void writeSchema() {
+        clearSegment();
+        descriptor.of(SCHEMA_NAME, 0, timestampIndex, false);
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            descriptor.addColumn(metadata.getColumnName(i), encodedTypes.getQuick(i), i, 0, 0, 0, 0, 0, 0, 0);
+        }
+        try {
+            encoderPtr = PartitionEncoder.createStreamingEncoder(descriptor, compressionCodec, statisticsEnabled, rowGroupSize, dataPageSize, version);
+        } finally {
+            descriptor.clear();
+        }
+    }
+
+    private static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.LONG256:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+            case ColumnType.BINARY:
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+            case ColumnType.IPv4:
+            case ColumnType.VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void addBufferedColumn(int columnIndex, long rowCount) {
+        final ParquetColumn column = columns.getQuick(columnIndex);
+        final int encodedType = encodedTypes.getQuick(columnIndex);
+        long auxAddress = 0;
+        long auxSize = 0;
+        if (ColumnType.isVarSize(encodedType)) {
+            auxAddress = column.aux.getAddress();
+            // string and binary aux columns have an extra entry for the end offset of the last value
+            auxSize = ColumnType.isVarchar(encodedType) ? column.aux.getAppendOffset() : rowCount * Long.BYTES;
+        }
+        descriptor.addColumn(
+                metadata.getColumnName(columnIndex),
+                encodedType,
+                columnIndex,
+                0,
+                column.data.getAddress(),
+                column.data.getAppendOffset(),
+                auxAddress,
+                auxSize,
+                0,
+                0
+        );
+    }
+
+    private void addSymbolColumn(int columnIndex, PageFrameMemory frameMemory, long rowLo, long rowCount) {
+        final SymbolMapReader symbolMapReader = (SymbolMapReader) symbolTables.getQuick(columnIndex);
+        final MemoryR symbolValuesMem = symbolMapReader.getSymbolValuesColumn();
+        final MemoryR symbolOffsetsMem = symbolMapReader.getSymbolOffsetsColumn();
+        final long pageAddress = frameMemory.getPageAddress(columnIndex);
+        descriptor.addColumn(
+                metadata.getColumnName(columnIndex),
+                encodedTypes.getQuick(columnIndex),
+                columnIndex,
+                pageAddress != 0 ? 0 : rowCount,
+                pageAddress != 0 ? pageAddress + rowLo * Integer.BYTES : 0,
+                pageAddress != 0 ? rowCount * Integer.BYTES : 0,
+                symbolValuesMem.addressOf(0),
+                symbolValuesMem.size(),
+                symbolOffsetsMem.addressOf(HEADER_SIZE),
+                symbolMapReader.getSymbolCount()
+        );
+    }
+
+    private void appendUtf16AsVarchar(ParquetColumn column, @Nullable CharSequence value) {
+        if (value != null) {
+            utf8Sink.clear();
+            utf8Sink.put(value);
+            VarcharTypeDriver.appendValue(column.aux, column.data, utf8Sink);
+        } else {
+            VarcharTypeDriver.appendValue(column.aux, column.data, null);
+        }
+    }
+
+    private void appendValue(ParquetColumn column, int columnType, Record record, int col) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                column.data.putBool(record.getBool(col));
+                break;
+            case ColumnType.BYTE:
+                column.data.putByte(record.getByte(col));
+                break;
+            case ColumnType.SHORT:
+                column.data.putShort(record.getShort(col));
+                break;
+            case ColumnType.CHAR:
+                column.data.putChar(record.getChar(col));
+                break;
+            case ColumnType.INT:
+                column.data.putInt(record.getInt(col));
+                break;
+            case ColumnType.IPv4:
+                column.data.putInt(record.getIPv4(col));
+                break;
+            case ColumnType.LONG:
+                column.data.putLong(record.getLong(col));
+                break;
+            case ColumnType.DATE:
+                column.data.putLong(record.getDate(col));
+                break;
+            case ColumnType.TIMESTAMP:
+                column.data.putLong(record.getTimestamp(col));
+                break;
+            case ColumnType.FLOAT:
+                column.data.putFloat(record.getFloat(col));
+                break;
+            case ColumnType.DOUBLE:
+                column.data.putDouble(record.getDouble(col));
+                break;
+            case ColumnType.GEOBYTE:
+                column.data.putByte(record.getGeoByte(col));
+                break;
+            case ColumnType.GEOSHORT:
+                column.data.putShort(record.getGeoShort(col));
+                break;
+            case ColumnType.GEOINT:
+                column.data.putInt(record.getGeoInt(col));
+                break;
+            case ColumnType.GEOLONG:
+                column.data.putLong(record.getGeoLong(col));
+                break;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                column.data.putLong(record.getLong128Lo(col));
+                column.data.putLong(record.getLong128Hi(col));
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256 = record.getLong256A(col);
+                column.data.putLong256(long256.getLong0(), long256.getLong1(), long256.getLong2(), long256.getLong3());
+                break;
+            case ColumnType.SYMBOL:
+                appendUtf16AsVarchar(column, record.getSymA(col));
+                break;
+            case ColumnType.STRING:
+                column.aux.putLong(column.data.putStr(record.getStrA(col)));
+                break;
+            case ColumnType.VARCHAR:
+                VarcharTypeDriver.appendValue(column.aux, column.data, record.getVarcharA(col));
+                break;
+            case ColumnType.BINARY:
+                column.aux.putLong(column.data.putBin(record.getBin(col)));
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void clearColumns() {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ParquetColumn column = columns.getQuick(i);
+            column.clear();
+            final int encodedType = encodedTypes.getQuick(i);
+            if (ColumnType.isVarSize(encodedType) && !ColumnType.isVarchar(encodedType)) {
+                // offset of the first value
+                column.aux.putLong(0);
+            }
+        }
+    }
+
+    private void clearSegment() {
+        if (encoderPtr != 0) {
+            PartitionEncoder.clearStreamingBuffer(encoderPtr);
+        }
+        segmentAddress = 0;
+        segmentSize = 0;
+    }
+
+    private void closeEncoder() {
+        if (encoderPtr != 0) {
+            PartitionEncoder.closeStreamingEncoder(encoderPtr);
+            encoderPtr = 0;
+        }
+    }
+
+    private void encodeChunk() {
+        try {
+            PartitionEncoder.encodeStreamingChunk(encoderPtr, descriptor);
+        } finally {
+            descriptor.clear();
+        }
+        resolveSegment();
+    }
+
+    private void resolveSegment() {
+        segmentAddress = PartitionEncoder.getStreamingBufferAddress(encoderPtr);
+        segmentSize = PartitionEncoder.getStreamingBufferSize(encoderPtr);
+    }
+
+    private static class ParquetColumn implements QuietCloseable, Mutable {
+        private final MemoryCARWImpl aux = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        private final MemoryCARWImpl data = new MemoryCARWImpl(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+
+        @Override
+        public void clear() {
+            aux.truncate();
+            data.truncate();
+        }
+
+        @Override
+        public void close() {
+            aux.close();
+            data.close();
+        }
+    }
+}
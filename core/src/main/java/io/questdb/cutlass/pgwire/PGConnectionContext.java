@@ -80,11 +80,15 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     public static final String TAG_SELECT = "SELECT";
     public static final String TAG_SET = "SET";
     public static final String TAG_UPDATE = "UPDATE";
+    private static final int BYTE_BYTES_X = Numbers.bswap(Byte.BYTES);
     private static final int COMMIT_TRANSACTION = 2;
     private static final int ERROR_TRANSACTION = 3;
     private static final int INT_BYTES_X = Numbers.bswap(Integer.BYTES);
     private static final int INT_NULL_X = Numbers.bswap(-1);
+    // inserts executed by the extended protocol outside of BEGIN/COMMIT share one transaction until Sync
+    private static final int IMPLICIT_TRANSACTION = 5;
     private static final int IN_TRANSACTION = 1;
+    private static final int LONG_BYTES_X = Numbers.bswap(Long.BYTES);
     private static final byte MESSAGE_TYPE_BIND_COMPLETE = '2';
     private static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     private static final byte MESSAGE_TYPE_COMMAND_COMPLETE = 'C';
@@ -103,11 +107,13 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private static final int PREFIXED_MESSAGE_HEADER_LEN = 5;
     private static final int PROTOCOL_TAIL_COMMAND_LENGTH = 64;
     private static final int ROLLING_BACK_TRANSACTION = 4;
+    private static final int SHORT_BYTES_X = Numbers.bswap(Short.BYTES);
     private static final int SSL_REQUEST = 80877103;
     private static final int SYNC_BIND = 3;
     private static final int SYNC_DESCRIBE = 2;
     private static final int SYNC_DESCRIBE_PORTAL = 4;
     private static final int SYNC_PARSE = 1;
+    private static final int UUID_BYTES_X = Numbers.bswap(Long128.BYTES);
     private static final String WRITER_LOCK_REASON = "pgConnection";
     @SuppressWarnings("FieldMayBeFinal")
     private static Log LOG = LogFactory.getLog(PGConnectionContext.class);
@@ -715,8 +721,10 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void appendBooleanColumnBin(Record record, int columnIndex) {
-        responseUtf8Sink.putNetworkInt(Byte.BYTES);
-        responseUtf8Sink.put(record.getBool(columnIndex) ? (byte) 1 : (byte) 0);
+        responseUtf8Sink.checkCapacity(Integer.BYTES + Byte.BYTES);
+        responseUtf8Sink.putIntUnsafe(0, BYTE_BYTES_X);
+        responseUtf8Sink.putByteUnsafe(Integer.BYTES, record.getBool(columnIndex) ? (byte) 1 : (byte) 0);
+        responseUtf8Sink.bump(Integer.BYTES + Byte.BYTES);
     }
 
     private void appendByteColumn(Record record, int columnIndex) {
@@ -726,9 +734,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void appendByteColumnBin(Record record, int columnIndex) {
-        final byte value = record.getByte(columnIndex);
-        responseUtf8Sink.putNetworkInt(Short.BYTES);
-        responseUtf8Sink.putNetworkShort(value);
+        // byte is sent as int2
+        appendShortBin(record.getByte(columnIndex));
     }
 
     private void appendCharColumn(Record record, int columnIndex) {
@@ -756,9 +763,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private void appendDateColumnBin(Record record, int columnIndex) {
         final long longValue = record.getDate(columnIndex);
         if (longValue != Numbers.LONG_NULL) {
-            responseUtf8Sink.putNetworkInt(Long.BYTES);
             // PG epoch starts at 2000 rather than 1970
-            responseUtf8Sink.putNetworkLong(longValue * 1000 - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+            appendLongBin(longValue * 1000 - Numbers.JULIAN_EPOCH_OFFSET_USEC);
         } else {
             responseUtf8Sink.setNullValue();
         }
@@ -778,8 +784,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private void appendDoubleColumnBin(Record record, int columnIndex) {
         final double value = record.getDouble(columnIndex);
         if (value == value) {
-            responseUtf8Sink.putNetworkInt(Double.BYTES);
-            responseUtf8Sink.putNetworkDouble(value);
+            appendLongBin(Double.doubleToRawLongBits(value));
         } else {
             responseUtf8Sink.setNullValue();
         }
@@ -799,8 +804,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private void appendFloatColumnBin(Record record, int columnIndex) {
         final float value = record.getFloat(columnIndex);
         if (value == value) {
-            responseUtf8Sink.putNetworkInt(Float.BYTES);
-            responseUtf8Sink.putNetworkFloat(value);
+            appendIntBin(Float.floatToRawIntBits(value));
         } else {
             responseUtf8Sink.setNullValue();
         }
@@ -828,13 +832,18 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    // writes length-prefixed value in network byte order with a single capacity check
+    private void appendIntBin(int value) {
+        responseUtf8Sink.checkCapacity(Integer.BYTES + Integer.BYTES);
+        responseUtf8Sink.putIntUnsafe(0, INT_BYTES_X);
+        responseUtf8Sink.putIntUnsafe(Integer.BYTES, Numbers.bswap(value));
+        responseUtf8Sink.bump(Integer.BYTES + Integer.BYTES);
+    }
+
     private void appendIntColumnBin(Record record, int columnIndex) {
         final int value = record.getInt(columnIndex);
         if (value != Numbers.INT_NULL) {
-            responseUtf8Sink.checkCapacity(8);
-            responseUtf8Sink.putIntUnsafe(0, INT_BYTES_X);
-            responseUtf8Sink.putIntUnsafe(4, Numbers.bswap(value));
-            responseUtf8Sink.bump(8);
+            appendIntBin(value);
         } else {
             responseUtf8Sink.setNullValue();
         }
@@ -862,11 +871,17 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void appendLongBin(long value) {
+        responseUtf8Sink.checkCapacity(Integer.BYTES + Long.BYTES);
+        responseUtf8Sink.putIntUnsafe(0, LONG_BYTES_X);
+        responseUtf8Sink.putLongUnsafe(Integer.BYTES, Numbers.bswap(value));
+        responseUtf8Sink.bump(Integer.BYTES + Long.BYTES);
+    }
+
     private void appendLongColumnBin(Record record, int columnIndex) {
         final long longValue = record.getLong(columnIndex);
         if (longValue != Numbers.LONG_NULL) {
-            responseUtf8Sink.putNetworkInt(Long.BYTES);
-            responseUtf8Sink.putNetworkLong(longValue);
+            appendLongBin(longValue);
         } else {
             responseUtf8Sink.setNullValue();
         }
@@ -889,7 +904,10 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 case ColumnType.INT:
                     appendIntCol(record, i);
                     break;
+                // IPv4, geohashes and nulls are described as varchar,
+                // binary format of varchar is the same as the text one
                 case ColumnType.IPv4:
+                case BINARY_TYPE_IPv4:
                     appendIPv4Col(record, i);
                     break;
                 case ColumnType.VARCHAR:
@@ -968,18 +986,23 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                     appendLong256Column(record, i);
                     break;
                 case ColumnType.GEOBYTE:
+                case BINARY_TYPE_GEOBYTE:
                     putGeoHashStringByteValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOSHORT:
+                case BINARY_TYPE_GEOSHORT:
                     putGeoHashStringShortValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOINT:
+                case BINARY_TYPE_GEOINT:
                     putGeoHashStringIntValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOLONG:
+                case BINARY_TYPE_GEOLONG:
                     putGeoHashStringLongValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.NULL:
+                case BINARY_TYPE_NULL:
                     responseUtf8Sink.setNullValue();
                     break;
                 case ColumnType.UUID:
@@ -999,10 +1022,15 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         responseUtf8Sink.putLenEx(a);
     }
 
+    private void appendShortBin(short value) {
+        responseUtf8Sink.checkCapacity(Integer.BYTES + Short.BYTES);
+        responseUtf8Sink.putIntUnsafe(0, SHORT_BYTES_X);
+        responseUtf8Sink.putShortUnsafe(Integer.BYTES, Numbers.bswap(value));
+        responseUtf8Sink.bump(Integer.BYTES + Short.BYTES);
+    }
+
     private void appendShortColumnBin(Record record, int columnIndex) {
-        final short value = record.getShort(columnIndex);
-        responseUtf8Sink.putNetworkInt(Short.BYTES);
-        responseUtf8Sink.putNetworkShort(value);
+        appendShortBin(record.getShort(columnIndex));
     }
 
     private void appendSingleRecord(Record record, int columnCount) throws SqlException {
@@ -1056,9 +1084,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (longValue == Numbers.LONG_NULL) {
             responseUtf8Sink.setNullValue();
         } else {
-            responseUtf8Sink.putNetworkInt(Long.BYTES);
             // PG epoch starts at 2000 rather than 1970
-            responseUtf8Sink.putNetworkLong(longValue - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+            appendLongBin(longValue - Numbers.JULIAN_EPOCH_OFFSET_USEC);
         }
     }
 
@@ -1080,9 +1107,11 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (Uuid.isNull(lo, hi)) {
             responseUtf8Sink.setNullValue();
         } else {
-            responseUtf8Sink.putNetworkInt(Long.BYTES * 2);
-            responseUtf8Sink.putNetworkLong(hi);
-            responseUtf8Sink.putNetworkLong(lo);
+            responseUtf8Sink.checkCapacity(Integer.BYTES + Long128.BYTES);
+            responseUtf8Sink.putIntUnsafe(0, UUID_BYTES_X);
+            responseUtf8Sink.putLongUnsafe(Integer.BYTES, Numbers.bswap(hi));
+            responseUtf8Sink.putLongUnsafe(Integer.BYTES + Long.BYTES, Numbers.bswap(lo));
+            responseUtf8Sink.bump(Integer.BYTES + Long128.BYTES);
         }
     }
 
@@ -1294,6 +1323,17 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         recvBufferReadOffset = 0;
     }
 
+    private void closeImplicitTransaction(boolean commit) {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            try {
+                closePendingWriters(commit);
+            } finally {
+                pendingWriters.clear();
+                transactionState = NO_TRANSACTION;
+            }
+        }
+    }
+
     private void closePendingWriters(boolean commit) {
         for (ObjObjHashMap.Entry<TableToken, TableWriterAPI> pendingWriter : pendingWriters) {
             final TableWriterAPI m = pendingWriter.value;
@@ -1321,6 +1361,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 return false;
             }
 
+            // other statements may need the table writers held by the pipelined inserts
+            closeImplicitTransaction(true);
+
             typesAndUpdate = typesAndUpdateCache.poll(queryText);
 
             if (typesAndUpdate != null) {
@@ -1476,6 +1519,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             try {
                 switch (transactionState) {
                     case IN_TRANSACTION:
+                    case IMPLICIT_TRANSACTION:
                         final InsertMethod m = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this);
                         recompileStale = false;
                         try {
@@ -1483,7 +1527,11 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                             writer = m.popWriter();
                             pendingWriters.put(writer.getTableToken(), writer);
                         } catch (Throwable e) {
-                            Misc.free(m);
+                            writer = m.popWriter();
+                            // pending writer is released when the transaction is rolled back
+                            if (writer != null && pendingWriters.keyIndex(writer.getTableToken()) > -1) {
+                                writer.close();
+                            }
                             throw e;
                         }
                         break;
@@ -1745,6 +1793,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private void handleException(int position, CharSequence message, boolean critical, int errno, boolean interruption) throws PeerDisconnectedException, PeerIsSlowToReadException {
         metrics.pgWire().getErrorCounter().inc();
         clearCursorAndFactory();
+        // the error fails the whole pipeline up to Sync
+        closeImplicitTransaction(false);
         if (interruption) {
             prepareErrorResponse(position, message);
         } else {
@@ -1834,6 +1884,10 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (errorSkipToSync) {
             if (lastMsgType == 'S' || lastMsgType == 'H') {
                 errorSkipToSync = false;
+                if (lastMsgType == 'S') {
+                    // bind variables of the failed statement must not leak into the next one
+                    prepareForNewQuery();
+                }
                 replyAndContinue();
             }
             // Skip all input until Sync or Flush messages received.
@@ -1867,6 +1921,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 // The purpose of Sync is to provide a resynchronization point for error recovery. When an error is detected while processing any extended-query message,
                 // the backend issues ErrorResponse, then reads and discards messages until a Sync is reached, then issues ReadyForQuery and returns to normal message processing.
                 // (But note that no skipping occurs if an error is detected while processing Sync — this ensures that there is one and only one ReadyForQuery sent for each Sync.)
+                // Commit the pipelined inserts before their command completes leave the send buffer,
+                // so that a failed commit is reported to the client instead of a success.
+                closeImplicitTransaction(true);
                 processSyncActions();
                 prepareReadyForQuery();
                 prepareForNewQuery();
@@ -1882,6 +1939,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 if (syncActions.size() > 0) {
                     processSyncActions();
                 }
+                // Flush doesn't end the pipeline, so the implicit transaction stays open until Sync
                 sendAndReset();
                 break;
             case 'D': // describe
@@ -2147,7 +2205,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                             final short code = getShortUnsafe(lo);
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else if (columnFormatCodeCount == 1) {
                         lo += Short.BYTES;
@@ -2155,7 +2213,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                         for (int i = 0; i < columnCount; i++) {
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else {
                         LOG.error().$("could not process column format codes [fmtCount=").$(columnFormatCodeCount).$(", columnCount=").$(columnCount).I$();
@@ -2361,12 +2419,20 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void processExecute() throws Exception {
+        if (typesAndInsert == null) {
+            // make the rows inserted so far visible to other statements of the pipeline
+            closeImplicitTransaction(true);
+        }
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
             setupFactoryAndCursor();
             sendCursor(resumeCursorExecuteRef, resumeExecuteCompleteRef, setResumeComputeCursorSizeExecuteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
+            if (transactionState == NO_TRANSACTION) {
+                // pipelined inserts are appended to the same writers and committed at Sync
+                transactionState = IMPLICIT_TRANSACTION;
+            }
             executeInsert();
         } else if (typesAndUpdate != null) {
             LOG.debug().$("executing update").$();
@@ -2445,6 +2511,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
     // processes one or more queries (batch/script). "Simple Query" in PostgreSQL docs.
     private void processQuery(long lo, long limit) throws Exception {
+        closeImplicitTransaction(true);
         prepareForNewQuery();
         isEmptyQuery = true; // assume SQL text contains no query until we find out otherwise
         CharacterStoreEntry e = characterStore.newEntry();
@@ -3030,6 +3097,10 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             }
         }
 
+        public void putByteUnsafe(long offset, byte value) {
+            Unsafe.getUnsafe().putByte(sendBufferPtr + offset, value);
+        }
+
         public void putIntDirect(int value) {
             checkCapacity(Integer.BYTES);
             putIntUnsafe(0, value);
@@ -3048,16 +3119,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             putInt(start, (int) (sendBufferPtr - start - Integer.BYTES));
         }
 
-        public void putNetworkDouble(double value) {
-            checkCapacity(Double.BYTES);
-            Unsafe.getUnsafe().putDouble(sendBufferPtr, Double.longBitsToDouble(Numbers.bswap(Double.doubleToLongBits(value))));
-            sendBufferPtr += Double.BYTES;
-        }
-
-        public void putNetworkFloat(float value) {
-            checkCapacity(Float.BYTES);
-            Unsafe.getUnsafe().putFloat(sendBufferPtr, Float.intBitsToFloat(Numbers.bswap(Float.floatToIntBits(value))));
-            sendBufferPtr += Float.BYTES;
+        public void putLongUnsafe(long offset, long value) {
+            Unsafe.getUnsafe().putLong(sendBufferPtr + offset, value);
         }
 
         public void putNetworkInt(int value) {
@@ -3089,6 +3152,10 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             throw new UnsupportedOperationException();
         }
 
+        public void putShortUnsafe(long offset, short value) {
+            Unsafe.getUnsafe().putShort(sendBufferPtr + offset, value);
+        }
+
         public void resetToBookmark() {
             assert bookmarkPtr != -1;
             sendBufferPtr = bookmarkPtr;
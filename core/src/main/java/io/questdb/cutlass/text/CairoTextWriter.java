@@ -486,6 +486,11 @@ public class CairoTextWriter implements Closeable, Mutable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isBloomFilterIndexed(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
@@ -1615,6 +1615,11 @@ public class ParallelCsvFileImporter implements Closeable, Mutable {
             return timestampColumnIndex;
         }
 
+        @Override
+        public boolean isBloomFilterIndexed(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
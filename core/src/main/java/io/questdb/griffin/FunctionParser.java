@@ -319,6 +319,16 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         positionStack.push(node.position);
     }
 
+    private static boolean hasNoArgOverload(ObjList<FunctionFactoryDescriptor> overload, boolean window) {
+        for (int i = 0, n = overload.size(); i < n; i++) {
+            final FunctionFactoryDescriptor descriptor = overload.getQuick(i);
+            if (descriptor.getSigArgCount() == 0 && descriptor.getFactory().isWindow() == window) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static SqlException invalidArgument(
             ExpressionNode node,
             @Nullable ObjList<Function> args,
@@ -707,7 +717,11 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
 
             // this is no-arg function, match right away
             if (argCount == 0 && sigArgCount == 0) {
-                return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                // unless another no-arg overload suits the context better, e.g. count() over ()
+                if (isWindowContext == factory.isWindow() || !hasNoArgOverload(overload, isWindowContext)) {
+                    return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                }
+                continue;
             }
 
             // otherwise, is number of arguments the same?
@@ -807,12 +821,18 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                     continue;
                 }
 
+                boolean windowArgsMatchExactly = false;
                 if (factory.isWindow()) {
                     // prefer window functions in window context, otherwise non-window functions
                     if (isWindowContext) {
                         // choose window-ed avg(D) over group by implementation that matches arg type better
+                        windowArgsMatchExactly = match == MATCH_EXACT_MATCH;
                         match = MATCH_EXACT_MATCH;
                         sigArgTypeScore -= 10;
+                        // among window overloads, e.g. max(D) and max(L), prefer the one closest to arg types
+                        if (candidate != null && candidate.isWindow() && candidateSigArgTypeScore <= sigArgTypeScore) {
+                            continue;
+                        }
                     } else {
                         sigArgTypeScore += 10;
                     }
@@ -844,8 +864,9 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                         candidateSigArgCount = sigArgCount;
                         candidateSigVarArg = sigVarArg;
                         candidateSigVarArgConst = sigVarArgConst;
+                        candidateSigArgTypeScore = sigArgTypeScore;
                         bestMatch = match;
-                        if (isWindowContext == factory.isWindow()) {
+                        if (isWindowContext == factory.isWindow() && (!isWindowContext || windowArgsMatchExactly)) {
                             break;
                         }
                     }
@@ -46,6 +46,7 @@ import io.questdb.griffin.engine.join.*;
 import io.questdb.griffin.engine.orderby.*;
 import io.questdb.griffin.engine.table.*;
 import io.questdb.griffin.engine.union.*;
+import io.questdb.griffin.engine.window.AsyncWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.CachedWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.WindowFunction;
 import io.questdb.griffin.engine.window.WindowRecordCursorFactory;
@@ -421,6 +422,135 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return colType == ColumnType.VARCHAR || colType == ColumnType.STRING;
     }
 
+    // Checks whether the base cursor already returns rows in window ORDER BY order, so that the
+    // window function can be computed without sorting. ORDER BY keys that are also PARTITION BY keys
+    // are skipped since they are constant within a partition.
+    private static boolean isWindowOrderSatisfied(
+            WindowColumn ac,
+            RecordCursorFactory base,
+            LowerCaseCharSequenceIntHashMap orderHash
+    ) {
+        final ObjList<ExpressionNode> orderBy = ac.getOrderBy();
+        final IntList orderByDirection = ac.getOrderByDirection();
+        final ObjList<ExpressionNode> partitionBy = ac.getPartitionBy();
+
+        final IntList keys = new IntList();
+        for (int i = 0, n = orderBy.size(); i < n; i++) {
+            final ExpressionNode node = orderBy.getQuick(i);
+            boolean partitionKey = false;
+            for (int j = 0, m = partitionBy.size(); j < m; j++) {
+                if (ExpressionNode.compareNodesExact(node, partitionBy.getQuick(j))) {
+                    partitionKey = true;
+                    break;
+                }
+            }
+            if (!partitionKey) {
+                keys.add(i);
+            }
+        }
+
+        final int keyCount = keys.size();
+        if (keyCount == 0) {
+            return false;
+        }
+
+        // window order is a prefix of the order base factory followed
+        if (base.followedOrderByAdvice() && orderHash.size() >= keyCount) {
+            boolean prefix = true;
+            for (int i = 0; i < keyCount; i++) {
+                final int k = keys.getQuick(i);
+                final CharSequence token = orderBy.getQuick(k).token;
+                if (!Chars.equalsIgnoreCase(token, orderHash.keys().get(i)) || orderHash.get(token) != orderByDirection.getQuick(k)) {
+                    prefix = false;
+                    break;
+                }
+            }
+            if (prefix) {
+                return true;
+            }
+        }
+
+        // window is ordered by designated timestamp in the direction base factory scans it;
+        // model's own order by is applied on top of the window, unless base factory followed it
+        final int timestampIndex = base.getMetadata().getTimestampIndex();
+        if (keyCount == 1 && timestampIndex != -1 && (orderHash.size() < 2 || !base.followedOrderByAdvice())) {
+            final int k = keys.getQuick(0);
+            if (base.getMetadata().getColumnIndexQuiet(orderBy.getQuick(k).token) == timestampIndex) {
+                final int direction = orderByDirection.getQuick(k);
+                final int scanDirection = base.getScanDirection();
+                return (direction == ORDER_ASC && scanDirection == RecordCursorFactory.SCAN_DIRECTION_FORWARD)
+                        || (direction == ORDER_DESC && scanDirection == RecordCursorFactory.SCAN_DIRECTION_BACKWARD);
+            }
+        }
+        return false;
+    }
+
+    // Parallel window evaluation shards rows by partition key, so all window functions must share
+    // the same PARTITION BY columns and must not need sorting. Keys and arguments are limited to
+    // fixed-size columns, which shard workers can read from the record chain concurrently.
+    private static boolean isWindowParallelizable(QueryModel model, RecordCursorFactory base) {
+        final RecordMetadata metadata = base.getMetadata();
+        final ObjList<QueryColumn> columns = model.getColumns();
+        ObjList<ExpressionNode> partitionBy = null;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (!qc.isWindowColumn()) {
+                continue;
+            }
+            final WindowColumn ac = (WindowColumn) qc;
+            final ObjList<ExpressionNode> keys = ac.getPartitionBy();
+            final int keyCount = keys.size();
+            if (keyCount == 0) {
+                return false;
+            }
+            if (partitionBy == null) {
+                for (int j = 0; j < keyCount; j++) {
+                    final ExpressionNode key = keys.getQuick(j);
+                    if (key.type != LITERAL) {
+                        return false;
+                    }
+                    final int columnIndex = metadata.getColumnIndexQuiet(key.token);
+                    if (columnIndex < 0) {
+                        return false;
+                    }
+                    final short columnType = ColumnType.tagOf(metadata.getColumnType(columnIndex));
+                    if (!ColumnType.isFixedSize(columnType) && columnType != ColumnType.SYMBOL) {
+                        return false;
+                    }
+                }
+                partitionBy = keys;
+            } else {
+                if (partitionBy.size() != keyCount) {
+                    return false;
+                }
+                for (int j = 0; j < keyCount; j++) {
+                    if (!ExpressionNode.compareNodesExact(partitionBy.getQuick(j), keys.getQuick(j))) {
+                        return false;
+                    }
+                }
+            }
+            if (ac.getOrderBy().size() > 0 && !isWindowOrderSatisfied(ac, base, model.getOrderHash())) {
+                return false;
+            }
+            final ExpressionNode ast = ac.getAst();
+            if (ast.paramCount > 1) {
+                return false;
+            }
+            if (ast.paramCount == 1) {
+                final ExpressionNode arg = ast.rhs;
+                if (arg.type == LITERAL) {
+                    final int columnIndex = metadata.getColumnIndexQuiet(arg.token);
+                    if (columnIndex < 0 || !ColumnType.isFixedSize(ColumnType.tagOf(metadata.getColumnType(columnIndex)))) {
+                        return false;
+                    }
+                } else if (arg.type != CONSTANT) {
+                    return false;
+                }
+            }
+        }
+        return partitionBy != null;
+    }
+
     private static RecordMetadata widenSetMetadata(RecordMetadata typesA, RecordMetadata typesB) {
         int columnCount = typesA.getColumnCount();
         assert columnCount == typesB.getColumnCount();
@@ -824,7 +954,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -863,6 +994,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 // For inner join we can also store per-key count to speed up size calculation.
                 valueTypes.add(ColumnType.INT); // record count for the key
 
+                if (configuration.isSqlParallelHashJoinEnabled()) {
+                    final RecordCursorFactory parallelJoinFactory = generateParallelHashJoin(
+                            metadata,
+                            master,
+                            slave,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            executionContext
+                    );
+                    if (parallelJoinFactory != null) {
+                        return parallelJoinFactory;
+                    }
+                }
+
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -1717,10 +1864,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 throw SqlException.$(-1, "fill values were null");
             }
 
-            fillValues = new ObjList<>(fillValuesExprs.size());
+            final boolean fillPrev = fillValuesExprs.size() == 1 && isPrevKeyword(fillValuesExprs.getQuick(0).token);
+            if (!fillPrev) {
+                fillValues = new ObjList<>(fillValuesExprs.size());
+            }
 
             ExpressionNode expr;
-            for (int i = 0, n = fillValuesExprs.size(); i < n; i++) {
+            for (int i = 0, n = fillPrev ? 0 : fillValuesExprs.size(); i < n; i++) {
                 expr = fillValuesExprs.getQuick(0);
                 if (isNoneKeyword(expr.token)) {
                     Misc.freeObjList(fillValues);
@@ -1730,7 +1880,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 fillValues.add(fillValueFunc);
             }
 
-            if (fillValues.size() == 0 || (fillValues.size() == 1 && isNoneKeyword(fillValues.getQuick(0).getName()))) {
+            if (!fillPrev && (fillValues.size() == 0 || (fillValues.size() == 1 && isNoneKeyword(fillValues.getQuick(0).getName())))) {
                 Misc.freeObjList(fillValues);
                 return groupByFactory;
             }
@@ -1761,7 +1911,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             // look for timestamp_floor to check for an alias
             CharSequence alias = timestamp.token;
-            final CharSequence currTimestamp = curr.getTimestamp().token;
+            // the timestamp could have been moved to the outer model, e.g. when sampling a sub-query
+            final CharSequence currTimestamp = curr.getTimestamp() != null ? curr.getTimestamp().token : timestamp.token;
             for (int i = 0, n = model.getBottomUpColumns().size(); i < n; i++) {
                 final QueryColumn col = model.getColumns().getQuick(i);
                 final ExpressionNode ast = col.getAst();
@@ -1775,6 +1926,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             int timestampIndex = groupByFactory.getMetadata().getColumnIndexQuiet(alias);
 
+            if (fillPrev) {
+                // the rewrite always keys the group by with the bucket timestamp
+                assert timestampIndex != -1;
+                // gaps are filled with the previous bucket values, so the buckets have to be revisited in order;
+                // when the group by can't do it, e.g. because its map was spilled, we copy the buckets into a sorted chain
+                if (!groupByFactory.recordCursorSupportsRandomAccess()) {
+                    final RecordMetadata groupByMetadata = groupByFactory.getMetadata();
+                    final GenericRecordMetadata sortedMetadata = GenericRecordMetadata.copyOf(groupByMetadata);
+                    sortedMetadata.setTimestampIndex(timestampIndex);
+                    final ListColumnFilter sortColumnFilter = new ListColumnFilter();
+                    sortColumnFilter.add(timestampIndex + 1);
+                    entityColumnFilter.of(groupByMetadata.getColumnCount());
+                    groupByFactory = new SortedRecordCursorFactory(
+                            configuration,
+                            sortedMetadata,
+                            groupByFactory,
+                            RecordSinkFactory.getInstance(asm, groupByMetadata, entityColumnFilter),
+                            recordComparatorCompiler.compile(groupByMetadata, sortColumnFilter),
+                            sortColumnFilter
+                    );
+                }
+                return new FillPrevRangeRecordCursorFactory(
+                        groupByFactory,
+                        fillFromFunc,
+                        fillToFunc,
+                        TimestampSamplerFactory.getInstance(fillStride.token, fillStride.position),
+                        Chars.toString(fillStride.token),
+                        timestampIndex
+                );
+            }
+
             return new FillRangeRecordCursorFactory(
                     groupByFactory.getMetadata(),
                     groupByFactory,
@@ -1833,6 +2015,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        factory.pushDownFilter(filterExpr);
+
         final boolean enableParallelFilter = executionContext.isParallelFilterEnabled();
         final boolean preTouchColumns = configuration.isSqlParallelFilterPreTouchEnabled();
         if (enableParallelFilter && factory.supportsPageFrameCursor()) {
@@ -2081,10 +2265,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                                 writeSymbolAsString,
                                                 writeStringAsVarcharA
                                         );
-                                        if (slave.supportsTimeFrameCursor() && fastAsOfJoins) {
+                                        final RecordMetadata temporalJoinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
+                                        final RecordCursorFactory parallelJoinFactory = generateParallelAsOfJoin(
+                                                temporalJoinMetadata,
+                                                master,
+                                                slave,
+                                                masterSink,
+                                                slaveSink,
+                                                masterMetadata.getColumnCount(),
+                                                false,
+                                                slaveModel.getContext(),
+                                                executionContext
+                                        );
+                                        if (parallelJoinFactory != null) {
+                                            master = parallelJoinFactory;
+                                        } else if (slave.supportsTimeFrameCursor() && fastAsOfJoins) {
                                             master = new AsOfJoinFastRecordCursorFactory(
                                                     configuration,
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     masterSink,
                                                     slave,
@@ -2094,7 +2292,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                             );
                                         } else {
                                             master = createAsOfJoin(
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     masterSink,
                                                     slave,
@@ -2104,17 +2302,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                             );
                                         }
                                     } else {
-                                        if (slave.supportsTimeFrameCursor()) {
+                                        final RecordMetadata temporalJoinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
+                                        final RecordCursorFactory parallelJoinFactory = generateParallelAsOfJoin(
+                                                temporalJoinMetadata,
+                                                master,
+                                                slave,
+                                                null,
+                                                null,
+                                                masterMetadata.getColumnCount(),
+                                                false,
+                                                null,
+                                                executionContext
+                                        );
+                                        if (parallelJoinFactory != null) {
+                                            master = parallelJoinFactory;
+                                        } else if (slave.supportsTimeFrameCursor()) {
                                             master = new AsOfJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     slave,
                                                     masterMetadata.getColumnCount()
                                             );
                                         } else {
                                             master = new AsOfJoinNoKeyRecordCursorFactory(
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     slave,
                                                     masterMetadata.getColumnCount()
@@ -2145,39 +2357,71 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 processJoinContext(index == 1, isSameTable(master, slave), slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
-                                        master = createLtJoin(
-                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                        final RecordMetadata temporalJoinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
+                                        final RecordSink masterSink = RecordSinkFactory.getInstance(
+                                                asm,
+                                                masterMetadata,
+                                                listColumnFilterB,
+                                                writeSymbolAsString,
+                                                writeStringAsVarcharB
+                                        );
+                                        final RecordSink slaveSink = RecordSinkFactory.getInstance(
+                                                asm,
+                                                slaveMetadata,
+                                                listColumnFilterA,
+                                                writeSymbolAsString,
+                                                writeStringAsVarcharA
+                                        );
+                                        final RecordCursorFactory parallelJoinFactory = generateParallelAsOfJoin(
+                                                temporalJoinMetadata,
                                                 master,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        masterMetadata,
-                                                        listColumnFilterB,
-                                                        writeSymbolAsString,
-                                                        writeStringAsVarcharB
-                                                ),
                                                 slave,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        slaveMetadata,
-                                                        listColumnFilterA,
-                                                        writeSymbolAsString,
-                                                        writeStringAsVarcharA
-                                                ),
+                                                masterSink,
+                                                slaveSink,
                                                 masterMetadata.getColumnCount(),
-                                                slaveModel.getContext()
+                                                true,
+                                                slaveModel.getContext(),
+                                                executionContext
                                         );
+                                        if (parallelJoinFactory != null) {
+                                            master = parallelJoinFactory;
+                                        } else {
+                                            master = createLtJoin(
+                                                    temporalJoinMetadata,
+                                                    master,
+                                                    masterSink,
+                                                    slave,
+                                                    slaveSink,
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext()
+                                            );
+                                        }
                                     } else {
-                                        if (slave.supportsTimeFrameCursor()) {
+                                        final RecordMetadata temporalJoinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
+                                        final RecordCursorFactory parallelJoinFactory = generateParallelAsOfJoin(
+                                                temporalJoinMetadata,
+                                                master,
+                                                slave,
+                                                null,
+                                                null,
+                                                masterMetadata.getColumnCount(),
+                                                true,
+                                                null,
+                                                executionContext
+                                        );
+                                        if (parallelJoinFactory != null) {
+                                            master = parallelJoinFactory;
+                                        } else if (slave.supportsTimeFrameCursor()) {
                                             master = new LtJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     slave,
                                                     masterMetadata.getColumnCount()
                                             );
                                         } else {
                                             master = new LtJoinNoKeyRecordCursorFactory(
-                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    temporalJoinMetadata,
                                                     master,
                                                     slave,
                                                     masterMetadata.getColumnCount()
@@ -2266,7 +2510,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2838,6 +3083,35 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
                     if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
                         model.setLimitImplemented(true);
+                        if (configuration.isSqlParallelOrderByEnabled()
+                                && !preSortedByTs
+                                && loFunc.isConstant()
+                                && (hiFunc == null || hiFunc.isConstant())) {
+                            // Only constant "first N" limits are supported, i.e. LIMIT N or LIMIT L, H with non-negative bounds.
+                            // Pre-sorted base cursors are left to the partially sorted cursor which may stop the scan early.
+                            loFunc.init(null, executionContext);
+                            final long lo = loFunc.getLong(null);
+                            long hi = -1;
+                            if (hiFunc != null) {
+                                hiFunc.init(null, executionContext);
+                                hi = hiFunc.getLong(null);
+                            }
+                            if (lo > -1 && (hiFunc == null || hi > -1)) {
+                                final RecordCursorFactory parallelTopKFactory = generateParallelOrderBy(
+                                        recordCursorFactory,
+                                        orderedMetadata,
+                                        model,
+                                        hiFunc == null ? lo : Math.max(hi, lo),
+                                        hiFunc == null ? 0 : lo,
+                                        executionContext
+                                );
+                                if (parallelTopKFactory != null) {
+                                    Misc.free(loFunc);
+                                    Misc.free(hiFunc);
+                                    return parallelTopKFactory;
+                                }
+                            }
+                        }
                         int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
                         return new LimitedSizeSortedLightRecordCursorFactory(
                                 configuration,
@@ -2850,6 +3124,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 baseCursorTimestampIndex
                         );
                     } else {
+                        if (configuration.isSqlParallelOrderByEnabled()) {
+                            final RecordCursorFactory parallelSortFactory = generateParallelOrderBy(
+                                    recordCursorFactory,
+                                    orderedMetadata,
+                                    model,
+                                    -1,
+                                    0,
+                                    executionContext
+                            );
+                            if (parallelSortFactory != null) {
+                                return parallelSortFactory;
+                            }
+                        }
+
                         final int columnType = orderedMetadata.getColumnType(firstOrderByColumnIndex);
                         if (configuration.isSqlOrderBySortEnabled()
                                 && orderByColumnNames.size() == 1
@@ -2893,6 +3181,229 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    /**
+     * Generates parallel ASOF or LT join factory for the given master factory, if possible.
+     * The master factory should be either a page frame one or a parallel filter with
+     * a thread-safe filter, while the slave factory should support time frame cursors.
+     *
+     * @return parallel temporal join factory or null if the master or slave factory is not suitable
+     */
+    private @Nullable RecordCursorFactory generateParallelAsOfJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            int columnSplit,
+            boolean strict,
+            JoinContext context,
+            SqlExecutionContext executionContext
+    ) {
+        if (!configuration.isSqlParallelAsOfJoinEnabled()
+                || !slave.supportsTimeFrameCursor()
+                || master.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+            return null;
+        }
+
+        RecordCursorFactory base = master;
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function masterFilter = null;
+        if (!master.supportsPageFrameCursor()) {
+            // Same as for hash join, only thread-safe filters can be stolen.
+            if (!master.supportsFilterStealing() || !master.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+            base = master.getBaseFactory();
+            assert base.supportsPageFrameCursor();
+            masterFilter = master.getFilter();
+            compiledFilter = master.getCompiledFilter();
+            bindVarMemory = master.getBindVarMemory();
+            bindVarFunctions = master.getBindVarFunctions();
+            master.halfClose();
+        }
+
+        return new AsyncAsOfJoinRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                metadata,
+                base,
+                slave,
+                masterKeySink,
+                slaveKeySink,
+                columnSplit,
+                strict,
+                context,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                masterFilter,
+                reduceTaskFactory,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
+    /**
+     * Generates parallel inner hash join factory for the given master factory, if possible.
+     * The master factory should be either a page frame one or a parallel filter with
+     * a thread-safe filter. Must be called with join key and value types already
+     * in keyTypes and valueTypes.
+     *
+     * @return parallel hash join factory or null if the master factory is not suitable
+     */
+    private @Nullable RecordCursorFactory generateParallelHashJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            JoinContext context,
+            SqlExecutionContext executionContext
+    ) {
+        if (master.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+            return null;
+        }
+
+        RecordCursorFactory base = master;
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function masterFilter = null;
+        if (!master.supportsPageFrameCursor()) {
+            // We can steal the filter only if it's thread-safe since the master model
+            // is not available here to compile per-worker filters.
+            if (!master.supportsFilterStealing() || !master.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+            base = master.getBaseFactory();
+            assert base.supportsPageFrameCursor();
+            masterFilter = master.getFilter();
+            compiledFilter = master.getCompiledFilter();
+            bindVarMemory = master.getBindVarMemory();
+            bindVarFunctions = master.getBindVarFunctions();
+            master.halfClose();
+        }
+
+        return new AsyncHashJoinLightRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                metadata,
+                base,
+                slave,
+                keyTypes,
+                valueTypes,
+                masterKeySink,
+                slaveKeySink,
+                columnSplit,
+                context,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                masterFilter,
+                reduceTaskFactory,
+                null,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
+    /**
+     * Generates parallel ORDER BY factory for the given base factory, if possible.
+     * The base factory should be either a page frame one or a parallel filter,
+     * so that we can steal the filter. Must be called with the sort column filter
+     * already in listColumnFilterA.
+     *
+     * @param limit     number of top rows to keep or -1 if there is no limit
+     * @param skipFirst number of top rows to skip, used along with the limit
+     * @return parallel sort factory or null if the base factory is not suitable
+     */
+    private @Nullable RecordCursorFactory generateParallelOrderBy(
+            RecordCursorFactory factory,
+            RecordMetadata orderedMetadata,
+            QueryModel model,
+            long limit,
+            long skipFirst,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (factory.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+            return null;
+        }
+
+        final int workerCount = executionContext.getSharedWorkerCount();
+        RecordCursorFactory base = factory;
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        ObjList<Function> perWorkerFilters = null;
+        if (!factory.supportsPageFrameCursor()) {
+            if (!factory.supportsFilterStealing()) {
+                return null;
+            }
+            // Try to steal the filter from the nested factory.
+            // We aim for simple cases such as select * from t where value > 0 order by value
+            filter = factory.getFilter();
+            ExpressionNode filterExpr = null;
+            if (!filter.isReadThreadSafe()) {
+                QueryModel.restoreWhereClause(expressionNodePool, model);
+                filterExpr = locatePotentiallyFurtherNestedWhereClause(model);
+                if (filterExpr == null) {
+                    return null;
+                }
+            }
+            base = factory.getBaseFactory();
+            assert base.supportsPageFrameCursor();
+            perWorkerFilters = compileWorkerFilterConditionally(
+                    executionContext,
+                    filter,
+                    workerCount,
+                    filterExpr,
+                    base.getMetadata()
+            );
+            compiledFilter = factory.getCompiledFilter();
+            bindVarMemory = factory.getBindVarMemory();
+            bindVarFunctions = factory.getBindVarFunctions();
+            factory.halfClose();
+        }
+
+        if (limit > -1) {
+            return new AsyncTopKRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    orderedMetadata,
+                    base,
+                    recordComparatorCompiler,
+                    listColumnFilterA.copy(),
+                    limit,
+                    skipFirst,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    reduceTaskFactory,
+                    perWorkerFilters,
+                    workerCount
+            );
+        }
+
+        return new AsyncSortedLightRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                orderedMetadata,
+                base,
+                recordComparatorCompiler,
+                listColumnFilterA.copy(),
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                perWorkerFilters,
+                workerCount
+        );
+    }
+
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
@@ -4298,33 +4809,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                     // analyze order by clause on the current model and optimise out
                     // order by on window function if it matches the one on the model
-                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                    boolean dismissOrder = false;
-                    int timestampIdx = base.getMetadata().getTimestampIndex();
-                    int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
-
-                    if (base.followedOrderByAdvice() && osz > 0 && orderHash.size() > 0) {
-                        dismissOrder = true;
-                        for (int j = 0; j < osz; j++) {
-                            ExpressionNode node = ac.getOrderBy().getQuick(j);
-                            int direction = ac.getOrderByDirection().getQuick(j);
-                            if (!Chars.equalsIgnoreCase(node.token, orderHash.keys().get(j)) ||
-                                    orderHash.get(node.token) != direction) {
-                                dismissOrder = false;
-                                break;
-                            }
-                        }
-                    }
-                    if (!dismissOrder && osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
-                        ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
-                        int orderByDirection = ac.getOrderByDirection().getQuick(0);
-
-                        if (baseMetadata.getColumnIndexQuiet(orderByNode.token) == timestampIdx &&
-                                ((orderByDirection == ORDER_ASC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD) ||
-                                        (orderByDirection == ORDER_DESC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_BACKWARD))) {
-                            dismissOrder = true;
-                        }
-                    }
+                    final boolean dismissOrder = osz > 0 && isWindowOrderSatisfied(ac, base, model.getOrderHash());
+                    final int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
 
                     executionContext.configureWindowContext(
                             partitionByRecord,
@@ -4406,12 +4892,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
 
             if (isFastPath) {
+                // streaming factory doesn't buffer rows, so it's preferred over the parallel one
                 return new WindowRecordCursorFactory(base, factoryMetadata, functions);
             } else {
                 factoryMetadata.clear();
                 Misc.freeObjListAndClear(functions);
             }
 
+            final int workerCount = executionContext.getSharedWorkerCount();
+            final int shardCount = Numbers.ceilPow2(workerCount);
+            final boolean parallel = configuration.isSqlParallelWindowEnabled()
+                    && shardCount > 1
+                    && isWindowParallelizable(model, base);
+
             listColumnFilterA.clear();
             listColumnFilterB.clear();
 
@@ -4451,6 +4944,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                     if (baseMetadata.getTimestampIndex() != -1 && baseMetadata.getTimestampIndex() == columnIndex) {
                         factoryMetadata.setTimestampIndex(i);
+                        // range frames read the designated timestamp from chain records
+                        chainMetadata.setTimestampIndex(i);
                     }
                 }
             }
@@ -4467,6 +4962,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (intHashSet.excludes(i)) {
                     final TableColumnMetadata m = baseMetadata.getColumnMetadata(i);
                     chainMetadata.add(addAt, m);
+                    if (i == baseMetadata.getTimestampIndex()) {
+                        chainMetadata.setTimestampIndex(addAt);
+                    }
                     chainTypes.add(addAt, m.getType());
                     listColumnFilterA.extendAndSet(addAt, addAt + 1);
                     listColumnFilterB.extendAndSet(addAt, i);
@@ -4484,105 +4982,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 final QueryColumn qc = columns.getQuick(i);
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
-                    final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
-                        throw SqlException.$(ast.position, "too many arguments");
-                    }
-
-                    partitionByFunctions = null;
-                    int psz = ac.getPartitionBy().size();
-                    if (psz > 0) {
-                        partitionByFunctions = new ObjList<>(psz);
-                        for (int j = 0; j < psz; j++) {
-                            final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
-                            partitionByFunctions.add(function);
-                            if (function instanceof GroupByFunction) {
-                                throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
-                            }
-                        }
-                    }
-
-                    final VirtualRecord partitionByRecord;
-                    final RecordSink partitionBySink;
-
-                    if (partitionByFunctions != null) {
-                        partitionByRecord = new VirtualRecord(partitionByFunctions);
-                        keyTypes.clear();
-                        final int partitionByCount = partitionByFunctions.size();
-
-                        for (int j = 0; j < partitionByCount; j++) {
-                            keyTypes.add(partitionByFunctions.getQuick(j).getType());
-                        }
-                        entityColumnFilter.of(partitionByCount);
-                        // create sink
-                        partitionBySink = RecordSinkFactory.getInstance(asm, keyTypes, entityColumnFilter);
-                    } else {
-                        partitionByRecord = null;
-                        partitionBySink = null;
-                    }
-
+                    final WindowFunction windowFunction = generateWindowFunction(ac, base, model, chainMetadata, executionContext);
                     final int osz = ac.getOrderBy().size();
-
-                    // analyze order by clause on the current model and optimise out
-                    // order by on window function if it matches the one on the model
-                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                    boolean dismissOrder = false;
-                    int timestampIdx = base.getMetadata().getTimestampIndex();
-                    int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
-
-                    if (base.followedOrderByAdvice() && osz > 0 && orderHash.size() > 0) {
-                        dismissOrder = true;
-                        for (int j = 0; j < osz; j++) {
-                            ExpressionNode node = ac.getOrderBy().getQuick(j);
-                            int direction = ac.getOrderByDirection().getQuick(j);
-                            if (!Chars.equalsIgnoreCase(node.token, orderHash.keys().get(j))
-                                    || orderHash.get(node.token) != direction) {
-                                dismissOrder = false;
-                                break;
-                            }
-                        }
-                    }
-                    if (osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
-                        ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
-                        int orderByDirection = ac.getOrderByDirection().getQuick(0);
-
-                        if (baseMetadata.getColumnIndexQuiet(orderByNode.token) == timestampIdx
-                                && ((orderByDirection == ORDER_ASC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD)
-                                || (orderByDirection == ORDER_DESC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_BACKWARD))) {
-                            dismissOrder = true;
-                        }
-                    }
-
-                    executionContext.configureWindowContext(
-                            partitionByRecord,
-                            partitionBySink,
-                            keyTypes,
-                            osz > 0,
-                            dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
-                            orderByPos,
-                            base.recordCursorSupportsRandomAccess(),
-                            ac.getFramingMode(),
-                            ac.getRowsLo(),
-                            ac.getRowsLoKindPos(),
-                            ac.getRowsHi(),
-                            ac.getRowsHiKindPos(),
-                            ac.getExclusionKind(),
-                            ac.getExclusionKindPos(),
-                            chainMetadata.getTimestampIndex()
-                    );
-                    final Function f;
-                    try {
-                        // function needs to resolve args against chain metadata
-                        f = functionParser.parseFunction(ast, chainMetadata, executionContext);
-                        if (!(f instanceof WindowFunction)) {
-                            Misc.free(f);
-                            throw SqlException.$(ast.position, "non-window function called in window context");
-                        }
-                    } finally {
-                        executionContext.clearWindowContext();
-                    }
-
-                    WindowFunction windowFunction = (WindowFunction) f;
+                    final boolean dismissOrder = osz > 0 && isWindowOrderSatisfied(ac, base, model.getOrderHash());
 
                     if (osz > 0 && !dismissOrder) {
                         IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
@@ -4641,6 +5043,66 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     null
             );
 
+            if (parallel) {
+                // each shard evaluates its partitions with its own copy of window functions
+                final ObjList<ObjList<WindowFunction>> shardFunctions = new ObjList<>(shardCount);
+                shardFunctions.add(naturalOrderFunctions);
+                try {
+                    for (int s = 1; s < shardCount; s++) {
+                        final ObjList<WindowFunction> copies = new ObjList<>();
+                        shardFunctions.add(copies);
+                        for (int i = 0; i < columnCount; i++) {
+                            final QueryColumn qc = columns.getQuick(i);
+                            if (qc.isWindowColumn()) {
+                                final WindowFunction windowFunction = generateWindowFunction((WindowColumn) qc, base, model, chainMetadata, executionContext);
+                                windowFunction.setColumnIndex(i);
+                                copies.add(windowFunction);
+                            }
+                        }
+                    }
+                } catch (Throwable th) {
+                    for (int s = 1, n = shardFunctions.size(); s < n; s++) {
+                        Misc.freeObjList(shardFunctions.getQuick(s));
+                    }
+                    throw th;
+                }
+
+                // all window columns share partition keys, so the first one is enough
+                final IntList functionColumnIndexes = new IntList();
+                final IntList keyColumnIndexes = new IntList();
+                final IntList keyColumnSizes = new IntList();
+                for (int i = 0; i < columnCount; i++) {
+                    final QueryColumn qc = columns.getQuick(i);
+                    if (qc.isWindowColumn()) {
+                        functionColumnIndexes.add(i);
+                        if (keyColumnIndexes.size() == 0) {
+                            final ObjList<ExpressionNode> partitionBy = ((WindowColumn) qc).getPartitionBy();
+                            for (int j = 0, n = partitionBy.size(); j < n; j++) {
+                                final int columnIndex = chainMetadata.getColumnIndex(partitionBy.getQuick(j).token);
+                                keyColumnIndexes.add(columnIndex);
+                                keyColumnSizes.add(ColumnType.sizeOf(chainMetadata.getColumnType(columnIndex)));
+                            }
+                        }
+                    }
+                }
+
+                return new AsyncWindowRecordCursorFactory(
+                        configuration,
+                        executionContext.getMessageBus(),
+                        base,
+                        recordSink,
+                        factoryMetadata,
+                        chainTypes,
+                        shardFunctions,
+                        functionColumnIndexes,
+                        keyColumnIndexes,
+                        keyColumnSizes,
+                        columnIndexes,
+                        chainMetadata,
+                        workerCount
+                );
+            }
+
             return new CachedWindowRecordCursorFactory(
                     configuration,
                     base,
@@ -5556,6 +6018,93 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     @Nullable
+    private WindowFunction generateWindowFunction(
+            WindowColumn ac,
+            RecordCursorFactory base,
+            QueryModel model,
+            GenericRecordMetadata chainMetadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        ObjList<Function> partitionByFunctions = null;
+        try {
+            final ExpressionNode ast = ac.getAst();
+            if (ast.paramCount > 1) {
+                throw SqlException.$(ast.position, "too many arguments");
+            }
+
+            int psz = ac.getPartitionBy().size();
+            if (psz > 0) {
+                partitionByFunctions = new ObjList<>(psz);
+                for (int j = 0; j < psz; j++) {
+                    final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
+                    partitionByFunctions.add(function);
+                    if (function instanceof GroupByFunction) {
+                        throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
+                    }
+                }
+            }
+
+            final VirtualRecord partitionByRecord;
+            final RecordSink partitionBySink;
+
+            if (partitionByFunctions != null) {
+                partitionByRecord = new VirtualRecord(partitionByFunctions);
+                keyTypes.clear();
+                final int partitionByCount = partitionByFunctions.size();
+
+                for (int j = 0; j < partitionByCount; j++) {
+                    keyTypes.add(partitionByFunctions.getQuick(j).getType());
+                }
+                entityColumnFilter.of(partitionByCount);
+                // create sink
+                partitionBySink = RecordSinkFactory.getInstance(asm, keyTypes, entityColumnFilter);
+            } else {
+                partitionByRecord = null;
+                partitionBySink = null;
+            }
+
+            final int osz = ac.getOrderBy().size();
+
+            // analyze order by clause on the current model and optimise out
+            // order by on window function if it matches the one on the model
+            final boolean dismissOrder = osz > 0 && isWindowOrderSatisfied(ac, base, model.getOrderHash());
+            final int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
+
+            executionContext.configureWindowContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    osz > 0,
+                    dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
+                    orderByPos,
+                    base.recordCursorSupportsRandomAccess(),
+                    ac.getFramingMode(),
+                    ac.getRowsLo(),
+                    ac.getRowsLoKindPos(),
+                    ac.getRowsHi(),
+                    ac.getRowsHiKindPos(),
+                    ac.getExclusionKind(),
+                    ac.getExclusionKindPos(),
+                    chainMetadata.getTimestampIndex()
+            );
+            final Function f;
+            try {
+                // function needs to resolve args against chain metadata
+                f = functionParser.parseFunction(ast, chainMetadata, executionContext);
+                if (!(f instanceof WindowFunction)) {
+                    Misc.free(f);
+                    throw SqlException.$(ast.position, "non-window function called in window context");
+                }
+            } finally {
+                executionContext.clearWindowContext();
+            }
+            return (WindowFunction) f;
+        } catch (Throwable th) {
+            Misc.freeObjList(partitionByFunctions);
+            throw th;
+        }
+    }
+
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
     }
@@ -554,6 +554,12 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             if (SqlKeywords.isAddKeyword(tok)) {
                 securityContext.authorizeAlterTableAddColumn(tableToken);
                 alterTableAddColumn(executionContext.getSecurityContext(), tableNamePosition, tableToken, tableMetadata);
+            } else if (SqlKeywords.isCompressKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (!SqlKeywords.isPartitionKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
+                alterTableDropConvertDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.COMPRESS, executionContext);
             } else if (SqlKeywords.isConvertKeyword(tok)) {
                 tok = expectToken(lexer, "'partition'");
                 if (!SqlKeywords.isPartitionKeyword(tok)) {
@@ -1159,8 +1165,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     case PartitionAction.CONVERT:
                         alterOperationBuilder = this.alterOperationBuilder.ofConvertPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or CONVERT PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION, CONVERT PARTITION or COMPRESS PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -1214,6 +1223,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             case PartitionAction.CONVERT:
                 alterOperationBuilder = this.alterOperationBuilder.ofConvertPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             case PartitionAction.DROP:
                 alterOperationBuilder = this.alterOperationBuilder.ofDropPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
@@ -1368,6 +1380,14 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 throw SqlException.$(paramNamePosition, "o3MaxLag must be non negative");
             }
             compiledQuery.ofAlter(alterOperationBuilder.ofSetO3MaxLag(tableNamePosition, tableToken, tableId, o3MaxLag).build());
+        } else if (isWalApplyPriorityKeyword(paramName)) {
+            int walApplyPriority;
+            try {
+                walApplyPriority = Numbers.parseInt(value);
+            } catch (NumericException e) {
+                throw SqlException.$(paramNamePosition, "invalid value [value=").put(value).put(",parameter=").put(paramName).put(']');
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetParamWalApplyPriority(tableNamePosition, tableToken, tableId, walApplyPriority).build());
         } else {
             throw SqlException.$(paramNamePosition, "unknown parameter '").put(paramName).put('\'');
         }
@@ -2990,6 +3010,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 if (!ColumnType.isSymbol(to) && model.isIndexed(modelColumnIndex)) {
                     throw SqlException.$(ccm.getColumnTypePos(), "indexes are supported only for SYMBOL columns: ").put(columnName);
                 }
+                if (model.isBloomFilterIndexed(modelColumnIndex) && !BloomFilterWriter.isSupported(to)) {
+                    throw SqlException.$(ccm.getColumnTypePos(), "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: ").put(columnName);
+                }
                 typeCast.put(index, to);
             } else {
                 throw SqlException.unsupportedCast(ccm.getColumnTypePos(), columnName, from, to);
@@ -3010,6 +3033,10 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 throw SqlException.$(0, "indexes are supported only for SYMBOL columns: ").put(columnName);
             }
 
+            if (model.isBloomFilterIndexed(i) && !BloomFilterWriter.isSupported(metadata.getColumnType(index))) {
+                throw SqlException.$(0, "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: ").put(columnName);
+            }
+
             if (ColumnType.isNull(metadata.getColumnType(index))) {
                 throw SqlException.$(0, "cannot create NULL-type column, please use type cast, e.g. ").put(columnName).put("::").put("type");
             }
@@ -3219,6 +3246,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 5;
         public static final int CONVERT = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
@@ -3298,6 +3326,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             return timestampIndex;
         }
 
+        @Override
+        public boolean isBloomFilterIndexed(int columnIndex) {
+            return model.isBloomFilterIndexed(columnIndex);
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return model.isDedupKey(columnIndex);
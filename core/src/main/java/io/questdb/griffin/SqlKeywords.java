@@ -134,6 +134,15 @@ public class SqlKeywords {
                 && (tok.charAt(6) | 32) == 'n';
     }
 
+    public static boolean isBloomKeyword(CharSequence tok) {
+        return tok.length() == 5
+                && (tok.charAt(0) | 32) == 'b'
+                && (tok.charAt(1) | 32) == 'l'
+                && (tok.charAt(2) | 32) == 'o'
+                && (tok.charAt(3) | 32) == 'o'
+                && (tok.charAt(4) | 32) == 'm';
+    }
+
     public static boolean isByKeyword(CharSequence tok) {
         return tok.length() == 2
                 && (tok.charAt(0) | 32) == 'b'
@@ -247,6 +256,18 @@ public class SqlKeywords {
                 && (tok.charAt(6) | 32) == 's';
     }
 
+    public static boolean isCompressKeyword(CharSequence tok) {
+        return tok.length() == 8
+                && (tok.charAt(0) | 32) == 'c'
+                && (tok.charAt(1) | 32) == 'o'
+                && (tok.charAt(2) | 32) == 'm'
+                && (tok.charAt(3) | 32) == 'p'
+                && (tok.charAt(4) | 32) == 'r'
+                && (tok.charAt(5) | 32) == 'e'
+                && (tok.charAt(6) | 32) == 's'
+                && (tok.charAt(7) | 32) == 's';
+    }
+
     public static boolean isConcatKeyword(CharSequence tok) {
         if (tok.length() != 6) {
             return false;
@@ -1839,6 +1860,26 @@ public class SqlKeywords {
                 && (tok.charAt(5) | 32) == 'e';
     }
 
+    public static boolean isWalApplyPriorityKeyword(CharSequence tok) {
+        return tok.length() == 16
+                && (tok.charAt(0) | 32) == 'w'
+                && (tok.charAt(1) | 32) == 'a'
+                && (tok.charAt(2) | 32) == 'l'
+                && (tok.charAt(3) | 32) == 'a'
+                && (tok.charAt(4) | 32) == 'p'
+                && (tok.charAt(5) | 32) == 'p'
+                && (tok.charAt(6) | 32) == 'l'
+                && (tok.charAt(7) | 32) == 'y'
+                && (tok.charAt(8) | 32) == 'p'
+                && (tok.charAt(9) | 32) == 'r'
+                && (tok.charAt(10) | 32) == 'i'
+                && (tok.charAt(11) | 32) == 'o'
+                && (tok.charAt(12) | 32) == 'r'
+                && (tok.charAt(13) | 32) == 'i'
+                && (tok.charAt(14) | 32) == 't'
+                && (tok.charAt(15) | 32) == 'y';
+    }
+
     public static boolean isWalKeyword(CharSequence tok) {
         return tok.length() == 3
                 && (tok.charAt(0) | 32) == 'w'
@@ -4489,7 +4489,8 @@ public class SqlOptimiser implements Mutable {
     /**
      * Recursive. Replaces "sample by" models with group-by. Not all forms of "sample by"
      * can be implemented via this method. Therefore, the rewrite avoids the following:
-     * - linear and prev fills
+     * - linear fills
+     * - keyed fills other than none
      * - custom non-wall-clock alignments
      *
      * @param model the input model, it is expected to be very early in optimisation process
@@ -4522,7 +4523,7 @@ public class SqlOptimiser implements Mutable {
                     sampleBy != null
                             && timestamp != null
                             && (sampleByOffset != null && SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)))
-                            && (sampleByFillSize == 0 || (sampleByFillSize == 1 && !SqlKeywords.isPrevKeyword(sampleByFill.getQuick(0).token) && !SqlKeywords.isLinearKeyword(sampleByFill.getQuick(0).token)))
+                            && (sampleByFillSize == 0 || (sampleByFillSize == 1 && !SqlKeywords.isLinearKeyword(sampleByFill.getQuick(0).token)))
                             && sampleByUnit == null
                             && (sampleByFrom == null || ((sampleByFrom.type != BIND_VARIABLE) && (sampleByFrom.type != FUNCTION) && (sampleByFrom.type != OPERATION)))
             ) {
@@ -4625,7 +4626,10 @@ public class SqlOptimiser implements Mutable {
 
 
                     if (isKeyed) {
-                        // drop out early, since we don't handle keyed
+                        // Drop out early, since we don't handle keyed fills. Keyed SAMPLE BY emits every key
+                        // in every bucket, in the order of the key's first appearance. Parallel group by
+                        // output keeps neither the order nor the per-key bucket state needed for PREV
+                        // and LINEAR fills, so keyed fills of any kind stay on the SAMPLE BY factories.
                         nested.setNestedModel(rewriteSampleBy(nested.getNestedModel()));
 
                         // join models
@@ -5797,6 +5801,8 @@ public class SqlOptimiser implements Mutable {
                         && model.getJoinModels().size() == 1
                         && model.getWhereClause() == null
                         && model.getLatestBy().size() == 0
+                        // rewritten sample by keeps its fill on this model
+                        && (model.getFillValues() == null || model.getFillValues().size() == 0)
         ) {
             model = model.getNestedModel();
         }
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.BloomFilterWriter;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
@@ -943,11 +944,25 @@ public class SqlParser {
         final int position = lexer.lastTokenPosition();
         final int columnIndex = getCreateTableColumnIndex(model, columnName, position);
         final int columnType = model.getColumnType(columnIndex);
+        CharSequence tok = tok(lexer, "'capacity', 'type' or ')'");
+        if (isTypeKeyword(tok)) {
+            if (!isBloomKeyword(tok(lexer, "'bloom'"))) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'bloom' expected");
+            }
+            // column type is not known yet in case of create table as select, the compiler validates it then
+            if (columnType > -1 && !BloomFilterWriter.isSupported(columnType)) {
+                throw SqlException.$(position, "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: ").put(columnName);
+            }
+            model.setBloomFilterFlag(columnIndex);
+            expectTok(lexer, ')');
+            return;
+        }
+
         if (columnType > -1 && !ColumnType.isSymbol(columnType)) {
             throw SqlException.$(position, "indexes are supported only for SYMBOL columns: ").put(columnName);
         }
 
-        if (isCapacityKeyword(tok(lexer, "'capacity'"))) {
+        if (isCapacityKeyword(tok)) {
             int errorPosition = lexer.getPosition();
             int indexValueBlockSize = expectInt(lexer);
             TableUtils.validateIndexValueBlockSize(errorPosition, indexValueBlockSize);
@@ -91,6 +91,10 @@ public abstract class AbstractRedBlackTree implements Mutable, Reopenable {
         }
     }
 
+    public long getUsedHeapSize() {
+        return keyHeapPos - keyHeapStart;
+    }
+
     public long size() {
         return (keyHeapPos - keyHeapStart) / BLOCK_SIZE;
     }
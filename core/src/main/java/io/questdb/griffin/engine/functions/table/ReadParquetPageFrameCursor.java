@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Page frame cursor over a Parquet file. Each row group of the file becomes a page frame,
+ * so that row groups can be decoded and filtered concurrently, e.g. by
+ * {@link io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory}.
+ * <p>
+ * The frames are always returned in the file order. Row groups that can't match
+ * the pushed down filter, according to their statistics, are skipped.
+ */
+public class ReadParquetPageFrameCursor implements PageFrameCursor {
+    private final PartitionDecoder decoder;
+    private final ParquetPageFrame frame = new ParquetPageFrame();
+    private final RecordMetadata metadata;
+    private final RowGroupStatsFilter rowGroupFilter;
+    private LPSZ path;
+    private int rowGroup;
+    private long rowGroupLo;
+
+    public ReadParquetPageFrameCursor(FilesFacade ff, RecordMetadata metadata, RowGroupStatsFilter rowGroupFilter) {
+        this.metadata = metadata;
+        this.decoder = new PartitionDecoder(ff);
+        this.rowGroupFilter = rowGroupFilter;
+    }
+
+    @Override
+    public void calculateSize(RecordCursor.Counter counter) {
+        counter.add(size());
+    }
+
+    @Override
+    public void close() {
+        Misc.free(decoder);
+        path = null;
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        // files with symbol columns are not read via page frames
+        return null;
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return null;
+    }
+
+    @Override
+    public long getUpdateRowId(long rowIndex) {
+        return Rows.toRowID(0, frame.partitionLo + rowIndex);
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public @Nullable PageFrame next() {
+        final PartitionDecoder.Metadata parquetMetadata = decoder.getMetadata();
+        while (++rowGroup < parquetMetadata.rowGroupCount()) {
+            final long rowGroupSize = parquetMetadata.rowGroupSize(rowGroup);
+            final long lo = rowGroupLo;
+            rowGroupLo += rowGroupSize;
+            if (rowGroupSize > 0 && !rowGroupFilter.canSkip(decoder, rowGroup)) {
+                frame.partitionLo = lo;
+                frame.partitionHi = lo + rowGroupSize;
+                frame.rowGroup = rowGroup;
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    public ReadParquetPageFrameCursor of(LPSZ path) {
+        this.path = path;
+        // reopen the file, it could have changed
+        decoder.of(path);
+        final PartitionDecoder.Metadata parquetMetadata = decoder.getMetadata();
+        if (metadata.getColumnCount() != parquetMetadata.columnCount()) {
+            throw CairoException.nonCritical().put("parquet file mismatch vs. the schema read earlier");
+        }
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) != parquetMetadata.getColumnType(i)) {
+                throw CairoException.nonCritical().put("parquet file mismatch vs. the schema read earlier");
+            }
+        }
+        toTop();
+        return this;
+    }
+
+    @Override
+    public PageFrameCursor of(PartitionFrameCursor partitionFrameCursor) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long size() {
+        return decoder.getMetadata().rowCount();
+    }
+
+    @Override
+    public boolean supportsSizeCalculation() {
+        return true;
+    }
+
+    @Override
+    public void toTop() {
+        rowGroup = -1;
+        rowGroupLo = 0;
+    }
+
+    private class ParquetPageFrame implements PageFrame {
+        private long partitionHi;
+        private long partitionLo;
+        private int rowGroup;
+
+        @Override
+        public long getAuxPageAddress(int columnIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getAuxPageSize(int columnIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return null;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return metadata.getColumnCount();
+        }
+
+        @Override
+        public byte getFormat() {
+            return PageFrame.PARQUET_FORMAT;
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            // the metadata is copied from the file, so the column indexes match
+            return columnIndex;
+        }
+
+        @Override
+        public LPSZ getParquetPath() {
+            return path;
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return rowGroup;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return partitionHi;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return partitionLo;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
 import io.questdb.std.*;
 import io.questdb.std.str.*;
 import org.jetbrains.annotations.Nullable;
@@ -45,14 +46,16 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
     private final PartitionDecoder decoder;
     private final RecordMetadata metadata;
     private final ParquetRecord record;
+    private final RowGroupStatsFilter rowGroupFilter;
     private int currentRowInRowGroup;
     private int rowGroup;
     private long rowGroupRowCount;
 
-    public ReadParquetRecordCursor(FilesFacade ff, RecordMetadata metadata) {
+    public ReadParquetRecordCursor(FilesFacade ff, RecordMetadata metadata, RowGroupStatsFilter rowGroupFilter) {
         this.metadata = metadata;
         this.decoder = new PartitionDecoder(ff);
         this.record = new ParquetRecord();
+        this.rowGroupFilter = rowGroupFilter;
     }
 
     public void close() {
@@ -123,7 +126,11 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
         columnChunkBufferPtrs.clear();
         dataPtrs.clear();
         auxPtrs.clear();
-        if (++rowGroup < decoder.getMetadata().rowGroupCount()) {
+        final int rowGroupCount = decoder.getMetadata().rowGroupCount();
+        while (++rowGroup < rowGroupCount && rowGroupFilter.canSkip(decoder, rowGroup)) {
+            // the row group can't match the filter, no need to decode it
+        }
+        if (rowGroup < rowGroupCount) {
             rowGroupRowCount = -1;
             for (int columnIndex = 0, n = metadata.getColumnCount(); columnIndex < n; columnIndex++) {
                 int columnType = metadata.getColumnType(columnIndex);
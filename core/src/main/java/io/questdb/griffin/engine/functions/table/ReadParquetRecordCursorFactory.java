@@ -25,23 +25,32 @@
 package io.questdb.griffin.engine.functions.table;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
+import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 import io.questdb.std.str.Path;
 
 public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final boolean framingSupported;
+    private final RowGroupStatsFilter rowGroupFilter = new RowGroupStatsFilter();
     private ReadParquetRecordCursor cursor;
+    private ReadParquetPageFrameCursor pageFrameCursor;
     private Path path;
 
     public ReadParquetRecordCursorFactory(@Transient Path path, RecordMetadata metadata, FilesFacade ff) {
         super(metadata);
         this.path = new Path().of(path);
-        this.cursor = new ReadParquetRecordCursor(ff, metadata);
+        this.cursor = new ReadParquetRecordCursor(ff, metadata, rowGroupFilter);
+        this.framingSupported = isFramingSupported(metadata);
+        this.pageFrameCursor = framingSupported ? new ReadParquetPageFrameCursor(ff, metadata, rowGroupFilter) : null;
     }
 
     @Override
@@ -50,17 +59,47 @@ public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory
         return cursor;
     }
 
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) {
+        if (framingSupported) {
+            // row groups are always scanned in the file order
+            return pageFrameCursor.of(path.$());
+        }
+        return null;
+    }
+
+    @Override
+    public void pushDownFilter(ExpressionNode filter) {
+        rowGroupFilter.of(filter, getMetadata());
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return false;
     }
 
+    @Override
+    public boolean supportsPageFrameCursor() {
+        return framingSupported;
+    }
+
     @Override
     protected void _close() {
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
         path = Misc.free(path);
     }
 
+    private static boolean isFramingSupported(RecordMetadata metadata) {
+        // symbol tables are not stored in Parquet files, so symbol columns can't be read via page frames
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("parquet file sequential scan");
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.TableMetadata;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.table.PendingWalRecordCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+/**
+ * Opt-in read of a WAL table that includes rows committed to the sequencer
+ * but not yet applied by the WAL apply job, e.g. {@code select * from table_with_pending_wal('trades')}.
+ */
+public class TableWithPendingWalFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "table_with_pending_wal(s)";
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final CharSequence tableName = args.getQuick(0).getStrA(null);
+        final TableToken tableToken = sqlExecutionContext.getCairoEngine().getTableTokenIfExists(tableName);
+        if (tableToken == null) {
+            throw SqlException.$(argPositions.getQuick(0), "table does not exist: ").put(tableName);
+        }
+        if (!tableToken.isWal()) {
+            throw SqlException.$(argPositions.getQuick(0), "table is not a WAL table: ").put(tableName);
+        }
+        try (TableMetadata metadata = sqlExecutionContext.getMetadataForRead(tableToken)) {
+            return new CursorFunction(new PendingWalRecordCursorFactory(configuration, metadata));
+        }
+    }
+}
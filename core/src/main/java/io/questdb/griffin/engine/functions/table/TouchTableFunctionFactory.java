@@ -140,6 +140,10 @@ public class TouchTableFunctionFactory implements FunctionFactory {
         }
 
         private long touchMemory(long pageSize, long baseAddress, long memorySize) {
+            if (baseAddress == 0) {
+                // compressed columns are decoded on access, there is nothing mapped to touch
+                return 0;
+            }
             final long pageCount = (memorySize + pageSize - 1) / pageSize;
 
             for (long i = 0; i < pageCount; i++) {
@@ -0,0 +1,943 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+
+/**
+ * Base for min() and max() window functions over long and timestamp values. These work the same
+ * way as {@link AbstractMinMaxDoubleWindowFunctionFactory}, but keep values as longs, so that large
+ * values don't lose precision and timestamps stay timestamps.
+ */
+public abstract class AbstractMinMaxLongWindowFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes MIN_MAX_COLUMN_TYPES;
+    private final int columnType;
+    private final SlidingWindowFrame.LongValueComparator comparator;
+    private final String name;
+
+    protected AbstractMinMaxLongWindowFunctionFactory(String name, SlidingWindowFrame.LongValueComparator comparator, int columnType) {
+        this.name = name;
+        this.comparator = comparator;
+        this.columnType = columnType;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final Function function = newLongFunction(position, args, configuration, sqlExecutionContext);
+        if (columnType == ColumnType.TIMESTAMP) {
+            return new TimestampResultFunction((BaseLongWindowFunction) function);
+        }
+        return function;
+    }
+
+    private Function newFrameFunction(
+            CairoConfiguration configuration,
+            long rowsLo,
+            long rowsHi,
+            Function arg,
+            int timestampIndex
+    ) {
+        MemoryARW mem = Vm.getARWInstance(
+                configuration.getSqlWindowStorePageSize(),
+                configuration.getSqlWindowStoreMaxPages(),
+                MemoryTag.NATIVE_CIRCULAR_BUFFER
+        );
+        return new MinMaxOverFrameFunction(
+                rowsLo,
+                rowsHi,
+                arg,
+                mem,
+                configuration.getSqlWindowInitialRangeBufferSize(),
+                timestampIndex,
+                name,
+                comparator
+        );
+    }
+
+    private Function newLongFunction(
+            int position,
+            ObjList<Function> args,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        int framingMode = windowContext.getFramingMode();
+        if (framingMode == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+
+        RecordSink partitionBySink = windowContext.getPartitionBySink();
+        ColumnTypes partitionByKeyTypes = windowContext.getPartitionByKeyTypes();
+        VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        boolean wholeFrame = rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE;
+
+        if (partitionByRecord != null) {
+            if (framingMode == WindowColumn.FRAMING_RANGE) {
+                // extreme over whole partition (no order by, default frame) or (order by, unbounded preceding to unbounded following)
+                if (wholeFrame || (windowContext.isDefaultFrame() && !windowContext.isOrdered())) {
+                    Map map = MapFactory.createOrderedMap(
+                            configuration,
+                            partitionByKeyTypes,
+                            MIN_MAX_COLUMN_TYPES
+                    );
+
+                    return new MinMaxOverPartitionFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            args.get(0),
+                            name,
+                            comparator
+                    );
+                } // between unbounded preceding and current row
+                else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                    Map map = MapFactory.createOrderedMap(
+                            configuration,
+                            partitionByKeyTypes,
+                            MIN_MAX_COLUMN_TYPES
+                    );
+
+                    // same as for rows because calculation stops at current rows even if there are 'equal' following rows
+                    return new MinMaxOverUnboundedPartitionRowsFrameFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            args.get(0),
+                            name,
+                            comparator
+                    );
+                } // range between [unbounded | x] preceding and [x preceding | current row], except unbounded preceding to current row
+                else {
+                    if (windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+                        throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+                    }
+
+                    int timestampIndex = windowContext.getTimestampIndex();
+                    if (timestampIndex == -1) {
+                        throw SqlException.$(position, "RANGE is supported only for queries ordered by designated timestamp");
+                    }
+
+                    return newPartitionFrameFunction(
+                            configuration,
+                            partitionByKeyTypes,
+                            partitionByRecord,
+                            partitionBySink,
+                            rowsLo,
+                            rowsHi,
+                            args.get(0),
+                            timestampIndex
+                    );
+                }
+            } else if (framingMode == WindowColumn.FRAMING_ROWS) {
+                // between unbounded preceding and current row
+                if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                    Map map = MapFactory.createOrderedMap(
+                            configuration,
+                            partitionByKeyTypes,
+                            MIN_MAX_COLUMN_TYPES
+                    );
+
+                    return new MinMaxOverUnboundedPartitionRowsFrameFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            args.get(0),
+                            name,
+                            comparator
+                    );
+                } // between current row and current row
+                else if (rowsLo == 0 && rowsLo == rowsHi) {
+                    return new MinMaxOverCurrentRowFunction(args.get(0), name);
+                } // whole partition
+                else if (wholeFrame) {
+                    Map map = MapFactory.createOrderedMap(
+                            configuration,
+                            partitionByKeyTypes,
+                            MIN_MAX_COLUMN_TYPES
+                    );
+
+                    return new MinMaxOverPartitionFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            args.get(0),
+                            name,
+                            comparator
+                    );
+                }
+                //between [unbounded | x] preceding and [x preceding | current row]
+                else {
+                    return newPartitionFrameFunction(
+                            configuration,
+                            partitionByKeyTypes,
+                            partitionByRecord,
+                            partitionBySink,
+                            rowsLo,
+                            rowsHi,
+                            args.get(0),
+                            -1
+                    );
+                }
+            }
+        } else { // no partition key
+            if (framingMode == WindowColumn.FRAMING_RANGE) {
+                // if there's no order by then all elements are equal in range mode, thus calculation is done on whole result set
+                if (wholeFrame || (!windowContext.isOrdered() && windowContext.isDefaultFrame())) {
+                    return new MinMaxOverWholeResultSetFunction(args.get(0), name, comparator);
+                } // between unbounded preceding and current row
+                else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                    // same as for rows because calculation stops at current rows even if there are 'equal' following rows
+                    return new MinMaxOverUnboundedRowsFrameFunction(args.get(0), name, comparator);
+                } // range between [unbounded | x] preceding and [x preceding | current row]
+                else {
+                    if (windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+                        throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+                    }
+
+                    int timestampIndex = windowContext.getTimestampIndex();
+                    if (timestampIndex == -1) {
+                        throw SqlException.$(position, "RANGE is supported only for queries ordered by designated timestamp");
+                    }
+
+                    return newFrameFunction(configuration, rowsLo, rowsHi, args.get(0), timestampIndex);
+                }
+            } else if (framingMode == WindowColumn.FRAMING_ROWS) {
+                // between unbounded preceding and current row
+                if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                    return new MinMaxOverUnboundedRowsFrameFunction(args.get(0), name, comparator);
+                } // between current row and current row
+                else if (rowsLo == 0 && rowsLo == rowsHi) {
+                    return new MinMaxOverCurrentRowFunction(args.get(0), name);
+                } // whole result set
+                else if (wholeFrame) {
+                    return new MinMaxOverWholeResultSetFunction(args.get(0), name, comparator);
+                } // between [unbounded | x] preceding and [x preceding | current row]
+                else {
+                    return newFrameFunction(configuration, rowsLo, rowsHi, args.get(0), -1);
+                }
+            }
+        }
+
+        throw SqlException.$(position, "function not implemented for given window parameters");
+    }
+
+    private Function newPartitionFrameFunction(
+            CairoConfiguration configuration,
+            ColumnTypes partitionByKeyTypes,
+            VirtualRecord partitionByRecord,
+            RecordSink partitionBySink,
+            long rowsLo,
+            long rowsHi,
+            Function arg,
+            int timestampIndex
+    ) {
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            map = MapFactory.createOrderedMap(
+                    configuration,
+                    partitionByKeyTypes,
+                    SlidingWindowFrame.COLUMN_TYPES
+            );
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+
+            return new MinMaxOverPartitionFrameFunction(
+                    map,
+                    partitionByRecord,
+                    partitionBySink,
+                    rowsLo,
+                    rowsHi,
+                    arg,
+                    mem,
+                    configuration.getSqlWindowInitialRangeBufferSize(),
+                    timestampIndex,
+                    name,
+                    comparator
+            );
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    // (rows between current row and current row) processes 1-element-big set, so simply it returns expression value
+    static class MinMaxOverCurrentRowFunction extends BaseLongWindowFunction {
+        private final String name;
+        private long value;
+
+        MinMaxOverCurrentRowFunction(Function arg, String name) {
+            super(arg);
+            this.name = name;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            value = arg.getLong(record);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    // Handles min()/max() over ([order by o] rows | [order by ts] range between [unbounded | x] preceding and [x preceding | current row]);
+    // there's no partition by.
+    // Frame is kept as a monotonic deque, see SlidingWindowFrame.
+    static class MinMaxOverFrameFunction extends BaseLongWindowFunction implements Reopenable {
+        private final SlidingWindowFrame frame;
+        private final LongList freeList = new LongList();
+        private final MemoryARW memory;
+        private final String name;
+        private final long rowsHi;
+        private final long rowsLo;
+        private final int timestampIndex;
+        private long value = Numbers.LONG_NULL;
+
+        MinMaxOverFrameFunction(
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                long initialCapacity,
+                int timestampIndex,
+                String name,
+                SlidingWindowFrame.LongValueComparator comparator
+        ) {
+            super(arg);
+            this.rowsLo = rowsLo;
+            this.rowsHi = rowsHi;
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.name = name;
+            this.frame = new SlidingWindowFrame(memory, freeList, comparator, rowsLo, rowsHi, initialCapacity);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            long ordinal = timestampIndex != -1 ? record.getTimestamp(timestampIndex) : frame.nextRowIndex();
+            frame.addLong(ordinal, arg.getLong(record));
+            value = frame.getLongExtreme();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            value = Numbers.LONG_NULL;
+            frame.clear();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+            value = Numbers.LONG_NULL;
+            frame.clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(getName());
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            SlidingWindowFrame.putFrame(sink, timestampIndex != -1, rowsLo, rowsHi);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+            value = Numbers.LONG_NULL;
+            frame.clear();
+        }
+    }
+
+    // Handles min()/max() over (partition by x [order by o] rows | [order by ts] range between [unbounded | y] preceding and [z preceding | current row]).
+    // Each partition keeps its own monotonic deque, see SlidingWindowFrame.
+    static class MinMaxOverPartitionFrameFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final LongList freeList = new LongList();
+        private final MemoryARW memory;
+        private final String name;
+        private final long rowsHi;
+        private final long rowsLo;
+        private final int timestampIndex;
+        private long value = Numbers.LONG_NULL;
+
+        MinMaxOverPartitionFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                long initialCapacity,
+                int timestampIndex,
+                String name,
+                SlidingWindowFrame.LongValueComparator comparator
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.rowsLo = rowsLo;
+            this.rowsHi = rowsHi;
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.name = name;
+            this.frame = new SlidingWindowFrame(memory, freeList, comparator, rowsLo, rowsHi, initialCapacity);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            if (mapValue.isNew()) {
+                frame.clear();
+            } else {
+                frame.load(mapValue);
+            }
+
+            long ordinal = timestampIndex != -1 ? record.getTimestamp(timestampIndex) : frame.nextRowIndex();
+            frame.addLong(ordinal, arg.getLong(record));
+            value = frame.getLongExtreme();
+            frame.store(mapValue);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+            value = Numbers.LONG_NULL;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(getName());
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            SlidingWindowFrame.putFrame(sink, timestampIndex != -1, rowsLo, rowsHi);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+        }
+    }
+
+    // handles min()/max() over (partition by x)
+    // order by is absent so default frame mode includes all rows in partition
+    static class MinMaxOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame.LongValueComparator comparator;
+        private final String name;
+
+        MinMaxOverPartitionFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                String name,
+                SlidingWindowFrame.LongValueComparator comparator
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            long l = arg.getLong(record);
+            if (l != Numbers.LONG_NULL) {
+                partitionByRecord.of(record);
+                MapKey key = map.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                MapValue value = key.createValue();
+                if (value.isNew() || comparator.dominates(l, value.getLong(0))) {
+                    value.putLong(0, l);
+                }
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+
+            long val = value != null ? value.getLong(0) : Numbers.LONG_NULL;
+
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), val);
+        }
+    }
+
+    // Handles:
+    // - min()/max() over (partition by x rows between unbounded preceding and current row)
+    // - min()/max() over (partition by x order by ts range between unbounded preceding and current row)
+    // Doesn't require value buffering.
+    static class MinMaxOverUnboundedPartitionRowsFrameFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame.LongValueComparator comparator;
+        private final String name;
+        private long value;
+
+        MinMaxOverUnboundedPartitionRowsFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                String name,
+                SlidingWindowFrame.LongValueComparator comparator
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            long extreme = mapValue.isNew() ? Numbers.LONG_NULL : mapValue.getLong(0);
+            long l = arg.getLong(record);
+            if (l != Numbers.LONG_NULL && (extreme == Numbers.LONG_NULL || comparator.dominates(l, extreme))) {
+                extreme = l;
+            }
+            mapValue.putLong(0, extreme);
+            value = extreme;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(getName());
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(" rows between unbounded preceding and current row)");
+        }
+    }
+
+    // Handles min()/max() over (rows between unbounded preceding and current row); there's no partition by.
+    static class MinMaxOverUnboundedRowsFrameFunction extends BaseLongWindowFunction {
+        private final SlidingWindowFrame.LongValueComparator comparator;
+        private final String name;
+        private long value = Numbers.LONG_NULL;
+
+        MinMaxOverUnboundedRowsFrameFunction(Function arg, String name, SlidingWindowFrame.LongValueComparator comparator) {
+            super(arg);
+            this.name = name;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            long l = arg.getLong(record);
+            if (l != Numbers.LONG_NULL && (value == Numbers.LONG_NULL || comparator.dominates(l, value))) {
+                value = l;
+            }
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = Numbers.LONG_NULL;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(getName());
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (rows between unbounded preceding and current row)");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = Numbers.LONG_NULL;
+        }
+    }
+
+    // min()/max() over () - empty clause, no partition by no order by, no frame == default frame
+    static class MinMaxOverWholeResultSetFunction extends BaseLongWindowFunction {
+        private final SlidingWindowFrame.LongValueComparator comparator;
+        private final String name;
+        private long value = Numbers.LONG_NULL;
+
+        MinMaxOverWholeResultSetFunction(Function arg, String name, SlidingWindowFrame.LongValueComparator comparator) {
+            super(arg);
+            this.name = name;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            long l = arg.getLong(record);
+            if (l != Numbers.LONG_NULL && (value == Numbers.LONG_NULL || comparator.dominates(l, value))) {
+                value = l;
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = Numbers.LONG_NULL;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = Numbers.LONG_NULL;
+        }
+    }
+
+    // Exposes result of a long min()/max() function as a timestamp; values are kept the same way.
+    static class TimestampResultFunction extends TimestampFunction implements WindowFunction, ScalarFunction, Reopenable {
+        private final BaseLongWindowFunction function;
+
+        TimestampResultFunction(BaseLongWindowFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public void close() {
+            function.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            function.computeNext(record);
+        }
+
+        @Override
+        public void cursorClosed() {
+            function.cursorClosed();
+        }
+
+        @Override
+        public String getName() {
+            return function.getName();
+        }
+
+        @Override
+        public int getPassCount() {
+            return function.getPassCount();
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return function.getLong(rec);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            function.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+            function.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            function.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            function.pass2(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2() {
+            function.preparePass2();
+        }
+
+        @Override
+        public void reopen() {
+            if (function instanceof Reopenable) {
+                ((Reopenable) function).reopen();
+            }
+        }
+
+        @Override
+        public void reset() {
+            function.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            function.setColumnIndex(columnIndex);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            function.toPlan(sink);
+        }
+
+        @Override
+        public void toTop() {
+            function.toTop();
+        }
+    }
+
+    static {
+        MIN_MAX_COLUMN_TYPES = new ArrayColumnTypes();
+        MIN_MAX_COLUMN_TYPES.add(ColumnType.LONG); // current extreme, never a null for existing keys
+    }
+}
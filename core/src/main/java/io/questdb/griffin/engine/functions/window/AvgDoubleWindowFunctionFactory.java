@@ -1342,10 +1342,10 @@ public class AvgDoubleWindowFunctionFactory implements FunctionFactory {
             if (Numbers.isFinite(d)) {
                 sum += d;
                 count++;
-
-                value.putDouble(0, sum);
-                value.putLong(1, count);
             }
+            // new values must be initialized even when the first row is null
+            value.putDouble(0, sum);
+            value.putLong(1, count);
 
             avg = count != 0 ? sum / count : Double.NaN;
         }
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
+
+/**
+ * Sliding frame over non-null (ordinal, value) pairs, where ordinal is either the designated timestamp
+ * (RANGE frames) or the row number within the partition (ROWS frames). Values are either doubles or longs,
+ * depending on the comparator the frame is created with; both are stored as raw 8-byte values.
+ * <p>
+ * Pairs are kept in a resizable ring buffer allocated in shared memory. The buffer holds two regions:
+ * <ul>
+ *     <li>[firstIdx, firstIdx + dequeSize) - values that belong to the frame;</li>
+ *     <li>[firstIdx + pendingIdx, firstIdx + size) - values between the frame end and the current row that
+ *     are yet to enter the frame.</li>
+ * </ul>
+ * Slots between the two regions are unused. When a comparator is given, the frame region is maintained as
+ * a monotonic deque: values dominated by a newly entering value are dropped from its tail, so the head always
+ * holds the frame's min or max. Without a comparator all values are kept, and the region size is the number
+ * of non-null values in the frame. Either way each value enters and leaves the frame at most once, which
+ * makes frame maintenance amortised O(1) per row.
+ * <p>
+ * Dropping values from the deque tail leaves unused slots behind the deque. Once there are more of them than
+ * values in the deque, the deque is moved next to the pending region, so the buffer never holds more than
+ * twice the frame plus the pending values.
+ * <p>
+ * When the frame start is unbounded, nothing ever leaves the frame, so entering values are folded into
+ * a running extreme and count instead of being buffered.
+ * <p>
+ * Partitioned functions keep one frame state per partition in map values, see {@link #COLUMN_TYPES}.
+ */
+final class SlidingWindowFrame {
+    static final ArrayColumnTypes COLUMN_TYPES;
+    static final ValueComparator MAX = (value, other) -> value >= other;
+    static final LongValueComparator MAX_LONG = (value, other) -> value >= other;
+    static final ValueComparator MIN = (value, other) -> value <= other;
+    static final LongValueComparator MIN_LONG = (value, other) -> value <= other;
+    private static final int RECORD_SIZE = 2 * Long.BYTES;
+    private final ValueComparator comparator;
+    private final boolean frameLoBounded;
+    // list of [size, startOffset] pairs marking free space within memory
+    private final LongList freeList;
+    private final long initialCapacity;
+    private final LongValueComparator longComparator;
+    private final long maxDiff;
+    private final MemoryARW memory;
+    private final long minDiff;
+    private long capacity;
+    private long count;
+    private long dequeSize;
+    // raw bits of the running extreme, i.e. a long or a double
+    private long extreme;
+    private long firstIdx;
+    private long pendingIdx;
+    private long rowIndex;
+    private long size;
+    private long startOffset;
+
+    /**
+     * Creates a frame that keeps all non-null values, i.e. one that counts them.
+     */
+    SlidingWindowFrame(MemoryARW memory, LongList freeList, long rowsLo, long rowsHi, long initialCapacity) {
+        this(memory, freeList, null, null, rowsLo, rowsHi, initialCapacity);
+    }
+
+    /**
+     * Creates a frame that tracks min or max of double values.
+     */
+    SlidingWindowFrame(
+            MemoryARW memory,
+            LongList freeList,
+            ValueComparator comparator,
+            long rowsLo,
+            long rowsHi,
+            long initialCapacity
+    ) {
+        this(memory, freeList, comparator, null, rowsLo, rowsHi, initialCapacity);
+    }
+
+    /**
+     * Creates a frame that tracks min or max of long values.
+     */
+    SlidingWindowFrame(
+            MemoryARW memory,
+            LongList freeList,
+            LongValueComparator comparator,
+            long rowsLo,
+            long rowsHi,
+            long initialCapacity
+    ) {
+        this(memory, freeList, null, comparator, rowsLo, rowsHi, initialCapacity);
+    }
+
+    private SlidingWindowFrame(
+            MemoryARW memory,
+            LongList freeList,
+            ValueComparator comparator,
+            LongValueComparator longComparator,
+            long rowsLo,
+            long rowsHi,
+            long initialCapacity
+    ) {
+        this.memory = memory;
+        this.freeList = freeList;
+        this.comparator = comparator;
+        this.longComparator = longComparator;
+        frameLoBounded = rowsLo != Long.MIN_VALUE;
+        maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE;
+        minDiff = Math.abs(rowsHi);
+        // rows frame never holds more than (rowsLo + 1) values, no need to pre-allocate more
+        this.initialCapacity = Math.max(1, Math.min(initialCapacity, (frameLoBounded ? maxDiff : minDiff) + 1));
+        clear();
+    }
+
+    /**
+     * Adds the current row's double value, then slides the frame so that it covers ordinals in
+     * [ordinal - maxDiff, ordinal - minDiff]. Null values are not buffered.
+     */
+    void add(long ordinal, double value) {
+        if (Numbers.isFinite(value)) {
+            append(ordinal, Double.doubleToRawLongBits(value));
+        }
+        slide(ordinal);
+    }
+
+    /**
+     * Same as {@link #add(long, double)}, but for long values.
+     */
+    void addLong(long ordinal, long value) {
+        if (value != Numbers.LONG_NULL) {
+            append(ordinal, value);
+        }
+        slide(ordinal);
+    }
+
+    void clear() {
+        capacity = 0;
+        count = 0;
+        dequeSize = 0;
+        extreme = 0;
+        firstIdx = 0;
+        pendingIdx = 0;
+        rowIndex = 0;
+        size = 0;
+        startOffset = 0;
+    }
+
+    /**
+     * Returns number of non-null values in the frame. Meaningful only for frames without a comparator.
+     */
+    long getCount() {
+        return frameLoBounded ? dequeSize : count;
+    }
+
+    /**
+     * Returns frame's min or max value, or NaN if the frame has no non-null values.
+     */
+    double getExtreme() {
+        if (frameLoBounded) {
+            return dequeSize > 0 ? memory.getDouble(offset(firstIdx) + Long.BYTES) : Double.NaN;
+        }
+        return count > 0 ? Double.longBitsToDouble(extreme) : Double.NaN;
+    }
+
+    /**
+     * Returns frame's min or max long value, or null if the frame has no non-null values.
+     */
+    long getLongExtreme() {
+        if (frameLoBounded) {
+            return dequeSize > 0 ? memory.getLong(offset(firstIdx) + Long.BYTES) : Numbers.LONG_NULL;
+        }
+        return count > 0 ? extreme : Numbers.LONG_NULL;
+    }
+
+    void load(MapValue value) {
+        extreme = value.getLong(0);
+        count = value.getLong(1);
+        rowIndex = value.getLong(2);
+        startOffset = value.getLong(3);
+        capacity = value.getLong(4);
+        firstIdx = value.getLong(5);
+        size = value.getLong(6);
+        dequeSize = value.getLong(7);
+        pendingIdx = value.getLong(8);
+    }
+
+    long nextRowIndex() {
+        return rowIndex++;
+    }
+
+    static void putFrame(PlanSink sink, boolean rangeFraming, long rowsLo, long rowsHi) {
+        sink.val(rangeFraming ? "range between " : "rows between ");
+        if (rowsLo != Long.MIN_VALUE) {
+            sink.val(Math.abs(rowsLo));
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        if (rowsHi == 0) {
+            sink.val("current row");
+        } else {
+            sink.val(Math.abs(rowsHi)).val(" preceding");
+        }
+    }
+
+    void store(MapValue value) {
+        value.putLong(0, extreme);
+        value.putLong(1, count);
+        value.putLong(2, rowIndex);
+        value.putLong(3, startOffset);
+        value.putLong(4, capacity);
+        value.putLong(5, firstIdx);
+        value.putLong(6, size);
+        value.putLong(7, dequeSize);
+        value.putLong(8, pendingIdx);
+    }
+
+    private void append(long ordinal, long value) {
+        if (capacity == 0) {
+            capacity = initialCapacity;
+            startOffset = memory.appendAddressFor(capacity * RECORD_SIZE) - memory.getPageAddress(0);
+        } else if (size == capacity) {
+            grow();
+        }
+        final long offset = offset(firstIdx + size);
+        memory.putLong(offset, ordinal);
+        memory.putLong(offset + Long.BYTES, value);
+        size++;
+    }
+
+    /**
+     * Moves the deque right before the first pending value, dropping the unused slots between the two.
+     */
+    private void compact() {
+        final long gap = pendingIdx - dequeSize;
+        // the regions don't overlap, since there are more unused slots than values in the deque
+        for (long i = dequeSize - 1; i > -1; i--) {
+            final long src = offset(firstIdx + i);
+            final long dst = offset(firstIdx + gap + i);
+            memory.putLong(dst, memory.getLong(src));
+            memory.putLong(dst + Long.BYTES, memory.getLong(src + Long.BYTES));
+        }
+        firstIdx = (firstIdx + gap) % capacity;
+        size -= gap;
+        pendingIdx = dequeSize;
+    }
+
+    private boolean dominates(long value, long other) {
+        if (longComparator != null) {
+            return longComparator.dominates(value, other);
+        }
+        return comparator.dominates(Double.longBitsToDouble(value), Double.longBitsToDouble(other));
+    }
+
+    private void grow() {
+        final long oldCapacity = capacity;
+        final long newCapacity = oldCapacity << 1;
+        long newAddress = -1;
+
+        // try to find matching block in free list
+        for (int i = 0, n = freeList.size(); i < n; i += 2) {
+            if (freeList.getQuick(i) == newCapacity) {
+                newAddress = memory.getPageAddress(0) + freeList.getQuick(i + 1);
+                // replace block info with ours
+                freeList.setQuick(i, oldCapacity);
+                freeList.setQuick(i + 1, startOffset);
+                break;
+            }
+        }
+
+        if (newAddress == -1) {
+            newAddress = memory.appendAddressFor(newCapacity * RECORD_SIZE);
+            freeList.add(oldCapacity, startOffset);
+        }
+
+        // call above can end up resizing and thus changing memory start address
+        final long oldAddress = memory.getPageAddress(0) + startOffset;
+        // we can't simply copy because that'd leave a gap in the middle
+        final long firstPieceSize = (oldCapacity - firstIdx) * RECORD_SIZE;
+        Vect.memcpy(newAddress, oldAddress + firstIdx * RECORD_SIZE, firstPieceSize);
+        Vect.memcpy(newAddress + firstPieceSize, oldAddress, firstIdx * RECORD_SIZE);
+
+        firstIdx = 0;
+        capacity = newCapacity;
+        startOffset = newAddress - memory.getPageAddress(0);
+    }
+
+    private long offset(long idx) {
+        return startOffset + (idx % capacity) * RECORD_SIZE;
+    }
+
+    private void slide(long ordinal) {
+        final boolean hasComparator = comparator != null || longComparator != null;
+        // move pending values that are far enough behind the current row into the frame
+        while (pendingIdx < size) {
+            final long offset = offset(firstIdx + pendingIdx);
+            if (Math.abs(ordinal - memory.getLong(offset)) < minDiff) {
+                break;
+            }
+            final long v = memory.getLong(offset + Long.BYTES);
+            if (frameLoBounded) {
+                if (hasComparator) {
+                    while (dequeSize > 0 && dominates(v, memory.getLong(offset(firstIdx + dequeSize - 1) + Long.BYTES))) {
+                        dequeSize--;
+                    }
+                }
+                final long dequeOffset = offset(firstIdx + dequeSize);
+                if (dequeOffset != offset) {
+                    memory.putLong(dequeOffset, memory.getLong(offset));
+                    memory.putLong(dequeOffset + Long.BYTES, v);
+                }
+                dequeSize++;
+            } else {
+                if (count == 0 || !hasComparator || dominates(v, extreme)) {
+                    extreme = v;
+                }
+                count++;
+            }
+            pendingIdx++;
+        }
+
+        if (frameLoBounded) {
+            // drop values that fell behind the frame start
+            while (dequeSize > 0 && Math.abs(ordinal - memory.getLong(offset(firstIdx))) > maxDiff) {
+                firstIdx = (firstIdx + 1) % capacity;
+                dequeSize--;
+                pendingIdx--;
+                size--;
+            }
+        }
+
+        if (pendingIdx - dequeSize > dequeSize) {
+            // reclaim unused slots left behind by values dropped from the deque tail,
+            // so that the buffer starts with the deque again
+            compact();
+        }
+    }
+
+    @FunctionalInterface
+    interface ValueComparator {
+        /**
+         * Returns true if value makes the other value redundant, i.e. the other value can never be
+         * the frame's extreme while value remains in the frame.
+         */
+        boolean dominates(double value, double other);
+    }
+
+    @FunctionalInterface
+    interface LongValueComparator {
+        /**
+         * Same as {@link ValueComparator#dominates(double, double)}, but for long values.
+         */
+        boolean dominates(long value, long other);
+    }
+
+    static {
+        COLUMN_TYPES = new ArrayColumnTypes();
+        COLUMN_TYPES.add(ColumnType.LONG);   // raw bits of running extreme, used when frame start is unbounded
+        COLUMN_TYPES.add(ColumnType.LONG);   // running count, used when frame start is unbounded
+        COLUMN_TYPES.add(ColumnType.LONG);   // row index within partition, used by rows frames
+        COLUMN_TYPES.add(ColumnType.LONG);   // native array start offset, requires updating on resize
+        COLUMN_TYPES.add(ColumnType.LONG);   // native buffer capacity
+        COLUMN_TYPES.add(ColumnType.LONG);   // index of first buffered element
+        COLUMN_TYPES.add(ColumnType.LONG);   // number of buffered slots
+        COLUMN_TYPES.add(ColumnType.LONG);   // number of frame values at buffer start
+        COLUMN_TYPES.add(ColumnType.LONG);   // index of first pending value, relative to first buffered element
+    }
+}
@@ -525,10 +525,10 @@ public class SumDoubleWindowFunctionFactory implements FunctionFactory {
             if (Numbers.isFinite(d)) {
                 sum += d;
                 count++;
-
-                value.putDouble(0, sum);
-                value.putLong(1, count);
             }
+            // new values must be initialized even when the first row is null
+            value.putDouble(0, sum);
+            value.putLong(1, count);
 
             this.sum = count != 0 ? sum : Double.NaN;
         }
@@ -0,0 +1,425 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.constants.NullConstant;
+import io.questdb.griffin.engine.functions.constants.TimestampConstant;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fills missing buckets with the values of the previous bucket. Generated as a parent node
+ * to a group by keyed with the bucket timestamp only, to support parallel SAMPLE BY with FILL(PREV).
+ * <p>
+ * Unlike {@link FillRangeRecordCursorFactory}, gaps can't be appended after the base rows,
+ * so the cursor orders the bucket timestamps first and then walks the buckets one by one,
+ * accessing the aggregated rows via {@link RecordCursor#recordAt(Record, long)}. The output
+ * is ordered by the bucket timestamp, so ascending order by the timestamp needs no sort.
+ */
+public class FillPrevRangeRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final FillPrevRangeRecordCursor cursor;
+    private final Function fromFunc;
+    private final CharSequence stride;
+    private final Function toFunc;
+
+    public FillPrevRangeRecordCursorFactory(
+            @NotNull RecordCursorFactory base,
+            @NotNull Function fromFunc,
+            @NotNull Function toFunc,
+            @NotNull TimestampSampler timestampSampler,
+            @NotNull CharSequence stride,
+            int timestampIndex
+    ) {
+        super(metadataWithTimestamp(base.getMetadata(), timestampIndex));
+        assert base.recordCursorSupportsRandomAccess();
+        this.base = base;
+        this.fromFunc = fromFunc;
+        this.toFunc = toFunc;
+        this.stride = stride;
+        this.cursor = new FillPrevRangeRecordCursor(timestampSampler, timestampIndex);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, fromFunc, toFunc, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SCAN_DIRECTION_FORWARD;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Fill Prev Range");
+        if (fromFunc != TimestampConstant.NULL || toFunc != TimestampConstant.NULL) {
+            sink.attr("range").val('(').val(fromFunc).val(',').val(toFunc).val(')');
+        }
+        sink.attr("stride").val('\'').val(stride).val('\'');
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static GenericRecordMetadata metadataWithTimestamp(RecordMetadata metadata, int timestampIndex) {
+        final GenericRecordMetadata copy = GenericRecordMetadata.copyOf(metadata);
+        copy.setTimestampIndex(timestampIndex);
+        return copy;
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+        Misc.free(fromFunc);
+        Misc.free(toFunc);
+    }
+
+    private static class FillPrevRangeRecordCursor implements NoRandomAccessRecordCursor {
+        private final LongList bucketTimestamps = new LongList();
+        private final FillPrevRangeRecord record = new FillPrevRangeRecord();
+        private final LongLongHashMap rowIds = new LongLongHashMap();
+        private final int timestampIndex;
+        private final TimestampSampler timestampSampler;
+        private RecordCursor baseCursor;
+        private Record baseRecord;
+        private long bucketTimestamp;
+        private boolean fromBound;
+        private long fromTimestamp;
+        private boolean hasPrev;
+        private boolean isOrdered;
+        private boolean isStarted;
+        private boolean toBound;
+        private long toTimestamp;
+        private int timestampsIndex;
+
+        private FillPrevRangeRecordCursor(TimestampSampler timestampSampler, int timestampIndex) {
+            this.timestampSampler = timestampSampler;
+            this.timestampIndex = timestampIndex;
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isOrdered) {
+                orderBuckets();
+                isOrdered = true;
+            }
+
+            if (!isStarted) {
+                isStarted = true;
+                if (fromBound) {
+                    bucketTimestamp = fromTimestamp;
+                } else if (bucketTimestamps.size() > 0) {
+                    bucketTimestamp = bucketTimestamps.getQuick(0);
+                } else {
+                    // no rows and no lower bound, nothing to fill
+                    return false;
+                }
+            } else {
+                bucketTimestamp = timestampSampler.nextTimestamp(bucketTimestamp);
+            }
+
+            if (toBound) {
+                if (bucketTimestamp >= toTimestamp) {
+                    return false;
+                }
+            } else if (timestampsIndex == bucketTimestamps.size()) {
+                return false;
+            }
+
+            if (timestampsIndex < bucketTimestamps.size()) {
+                final long timestamp = bucketTimestamps.getQuick(timestampsIndex);
+                if (timestamp <= bucketTimestamp) {
+                    // The bucket is present, so position the record at it. Otherwise,
+                    // the record stays at the previous bucket which is what we need.
+                    bucketTimestamp = timestamp;
+                    baseCursor.recordAt(baseRecord, rowIds.get(timestamp));
+                    timestampsIndex++;
+                    hasPrev = true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            // the buckets, if already ordered, are kept, so we only restart from the first one
+            isStarted = false;
+            timestampsIndex = 0;
+            hasPrev = false;
+        }
+
+        private void of(
+                RecordCursor baseCursor,
+                Function fromFunc,
+                Function toFunc,
+                SqlExecutionContext executionContext
+        ) throws SqlException {
+            this.baseCursor = baseCursor;
+            baseRecord = baseCursor.getRecordB();
+            fromFunc.init(baseCursor, executionContext);
+            toFunc.init(baseCursor, executionContext);
+            fromBound = fromFunc != TimestampConstant.NULL;
+            toBound = toFunc != TimestampConstant.NULL;
+            fromTimestamp = fromBound ? fromFunc.getTimestamp(null) : 0;
+            toTimestamp = toBound ? toFunc.getTimestamp(null) : Long.MAX_VALUE;
+            timestampSampler.setStart(fromTimestamp);
+            bucketTimestamps.clear();
+            rowIds.clear();
+            isOrdered = false;
+            toTop();
+        }
+
+        private void orderBuckets() {
+            final Record baseRecord = baseCursor.getRecord();
+            while (baseCursor.hasNext()) {
+                final long timestamp = baseRecord.getTimestamp(timestampIndex);
+                bucketTimestamps.add(timestamp);
+                rowIds.put(timestamp, baseRecord.getRowId());
+            }
+            bucketTimestamps.sort();
+        }
+
+        private class FillPrevRangeRecord implements Record {
+
+            @Override
+            public BinarySequence getBin(int col) {
+                return hasPrev ? baseRecord.getBin(col) : NullConstant.NULL.getBin(null);
+            }
+
+            @Override
+            public long getBinLen(int col) {
+                return hasPrev ? baseRecord.getBinLen(col) : NullConstant.NULL.getBinLen(null);
+            }
+
+            @Override
+            public boolean getBool(int col) {
+                return hasPrev ? baseRecord.getBool(col) : NullConstant.NULL.getBool(null);
+            }
+
+            @Override
+            public byte getByte(int col) {
+                return hasPrev ? baseRecord.getByte(col) : NullConstant.NULL.getByte(null);
+            }
+
+            @Override
+            public char getChar(int col) {
+                return hasPrev ? baseRecord.getChar(col) : NullConstant.NULL.getChar(null);
+            }
+
+            @Override
+            public double getDouble(int col) {
+                return hasPrev ? baseRecord.getDouble(col) : NullConstant.NULL.getDouble(null);
+            }
+
+            @Override
+            public float getFloat(int col) {
+                return hasPrev ? baseRecord.getFloat(col) : NullConstant.NULL.getFloat(null);
+            }
+
+            @Override
+            public byte getGeoByte(int col) {
+                return hasPrev ? baseRecord.getGeoByte(col) : NullConstant.NULL.getGeoByte(null);
+            }
+
+            @Override
+            public int getGeoInt(int col) {
+                return hasPrev ? baseRecord.getGeoInt(col) : NullConstant.NULL.getGeoInt(null);
+            }
+
+            @Override
+            public long getGeoLong(int col) {
+                return hasPrev ? baseRecord.getGeoLong(col) : NullConstant.NULL.getGeoLong(null);
+            }
+
+            @Override
+            public short getGeoShort(int col) {
+                return hasPrev ? baseRecord.getGeoShort(col) : NullConstant.NULL.getGeoShort(null);
+            }
+
+            @Override
+            public int getIPv4(int col) {
+                return hasPrev ? baseRecord.getIPv4(col) : NullConstant.NULL.getIPv4(null);
+            }
+
+            @Override
+            public int getInt(int col) {
+                return hasPrev ? baseRecord.getInt(col) : NullConstant.NULL.getInt(null);
+            }
+
+            @Override
+            public long getLong(int col) {
+                return hasPrev ? baseRecord.getLong(col) : NullConstant.NULL.getLong(null);
+            }
+
+            @Override
+            public long getLong128Hi(int col) {
+                return hasPrev ? baseRecord.getLong128Hi(col) : NullConstant.NULL.getLong128Hi(null);
+            }
+
+            @Override
+            public long getLong128Lo(int col) {
+                return hasPrev ? baseRecord.getLong128Lo(col) : NullConstant.NULL.getLong128Lo(null);
+            }
+
+            @Override
+            public void getLong256(int col, CharSink<?> sink) {
+                if (hasPrev) {
+                    baseRecord.getLong256(col, sink);
+                } else {
+                    NullConstant.NULL.getLong256(null, sink);
+                }
+            }
+
+            @Override
+            public Long256 getLong256A(int col) {
+                return hasPrev ? baseRecord.getLong256A(col) : NullConstant.NULL.getLong256A(null);
+            }
+
+            @Override
+            public Long256 getLong256B(int col) {
+                return hasPrev ? baseRecord.getLong256B(col) : NullConstant.NULL.getLong256B(null);
+            }
+
+            @Override
+            public long getLongIPv4(int col) {
+                return hasPrev ? baseRecord.getLongIPv4(col) : NullConstant.NULL.getLong(null);
+            }
+
+            @Override
+            public short getShort(int col) {
+                return hasPrev ? baseRecord.getShort(col) : NullConstant.NULL.getShort(null);
+            }
+
+            @Override
+            public @Nullable CharSequence getStrA(int col) {
+                return hasPrev ? baseRecord.getStrA(col) : NullConstant.NULL.getStrA(null);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return hasPrev ? baseRecord.getStrB(col) : NullConstant.NULL.getStrB(null);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return hasPrev ? baseRecord.getStrLen(col) : NullConstant.NULL.getStrLen(null);
+            }
+
+            @Override
+            public CharSequence getSymA(int col) {
+                return hasPrev ? baseRecord.getSymA(col) : NullConstant.NULL.getSymbol(null);
+            }
+
+            @Override
+            public CharSequence getSymB(int col) {
+                return hasPrev ? baseRecord.getSymB(col) : NullConstant.NULL.getSymbolB(null);
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                if (col == timestampIndex) {
+                    return bucketTimestamp;
+                }
+                return hasPrev ? baseRecord.getTimestamp(col) : NullConstant.NULL.getTimestamp(null);
+            }
+
+            @Override
+            public @Nullable Utf8Sequence getVarcharA(int col) {
+                return hasPrev ? baseRecord.getVarcharA(col) : NullConstant.NULL.getVarcharA(null);
+            }
+
+            @Override
+            public @Nullable Utf8Sequence getVarcharB(int col) {
+                return hasPrev ? baseRecord.getVarcharB(col) : NullConstant.NULL.getVarcharB(null);
+            }
+
+            @Override
+            public int getVarcharSize(int col) {
+                return hasPrev ? baseRecord.getVarcharSize(col) : NullConstant.NULL.getVarcharSize(null);
+            }
+        }
+    }
+}
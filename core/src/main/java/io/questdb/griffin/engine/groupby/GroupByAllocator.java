@@ -25,7 +25,6 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.std.QuietCloseable;
-import org.jetbrains.annotations.TestOnly;
 
 /**
  * Specialized allocator used in GROUP BY functions.
@@ -35,9 +34,11 @@ import org.jetbrains.annotations.TestOnly;
 public interface GroupByAllocator extends QuietCloseable {
 
     /**
+     * Returns allocated chunks total, in bytes. Used to check group by functions
+     * against the GROUP BY spill budget, so the value may be approximate.
+     *
      * @return allocated chunks total (bytes).
      */
-    @TestOnly
     long allocated();
 
     /**
@@ -26,7 +26,6 @@ package io.questdb.griffin.engine.groupby;
 
 import io.questdb.std.ObjList;
 import io.questdb.std.ThreadLocal;
-import org.jetbrains.annotations.TestOnly;
 
 /**
  * Thread-safe allocator implementation. Uses thread-local {@link GroupByAllocatorArena}s.
@@ -51,15 +50,16 @@ public class GroupByAllocatorImpl implements GroupByAllocator {
     }
 
     /**
-     * Returns allocated chunks total, in bytes. This method is not thread-safe
-     * and shouldn't be called concurrently with any alloc/free calls.
+     * Returns allocated chunks total, in bytes. When called concurrently with
+     * alloc/free calls, the returned value is approximate.
      */
-    @TestOnly
     @Override
     public long allocated() {
         long allocated = 0;
-        for (int i = 0, n = arenas.size(); i < n; i++) {
-            allocated += arenas.getQuick(i).allocated();
+        synchronized (lock) {
+            for (int i = 0, n = arenas.size(); i < n; i++) {
+                allocated += arenas.getQuick(i).allocated();
+            }
         }
         return allocated;
     }
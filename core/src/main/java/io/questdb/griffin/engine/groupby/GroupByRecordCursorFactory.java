@@ -42,7 +42,6 @@ import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
 
 public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
-
     protected final RecordCursorFactory base;
     private final GroupByRecordCursor cursor;
     private final ObjList<GroupByFunction> groupByFunctions;
@@ -50,6 +49,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
     private final ObjList<Function> recordFunctions;
+    private final boolean spillEnabled;
 
     public GroupByRecordCursorFactory(
             @Transient @NotNull BytecodeAssembler asm,
@@ -72,13 +72,20 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             // sink will be storing record columns to map key
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, keyFunctions, null);
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
-            this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, keyTypes, valueTypes);
+            this.spillEnabled = isSpillSupported(configuration, base.getMetadata());
+            final GroupByRowSpill spill = spillEnabled ? new GroupByRowSpill(asm, configuration, base.getMetadata()) : null;
+            this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, spill, keyTypes, valueTypes);
         } catch (Throwable e) {
             close();
             throw e;
         }
     }
 
+    public static boolean isSpillSupported(CairoConfiguration configuration, ColumnTypes baseColumnTypes) {
+        // input rows are spilled as they are, so all base columns have to be supported by the spill
+        return GroupByRowSpill.isSpillEnabled(configuration) && GroupByRowSpill.isSupported(baseColumnTypes);
+    }
+
     public static ObjList<String> getKeys(ObjList<Function> recordFunctions, RecordMetadata metadata) {
         ObjList<String> keyFuncs = null;
         for (int i = 0, n = recordFunctions.size(); i < n; i++) {
@@ -119,7 +126,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // spilled rows are aggregated and returned partition by partition, so row ids aren't stable
+        return !spillEnabled;
     }
 
     @Override
@@ -153,6 +161,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         private final GroupByAllocator allocator;
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final GroupByRowSpill.RowHasher hasher = this::hashKey;
+        // null when spill to disk is disabled
+        private final GroupByRowSpill spill;
+        private final long spillMemoryBudget;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isDataMapBuilt;
         private boolean isOpen;
@@ -163,13 +175,16 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 ObjList<Function> functions,
                 ObjList<GroupByFunction> groupByFunctions,
                 GroupByFunctionsUpdater groupByFunctionsUpdater,
+                GroupByRowSpill spill,
                 @Transient @NotNull ArrayColumnTypes keyTypes,
                 @Transient @NotNull ArrayColumnTypes valueTypes
         ) {
             super(functions);
             try {
                 this.isOpen = true;
+                this.spill = spill;
                 this.dataMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+                this.spillMemoryBudget = GroupByRowSpill.getMemoryBudget(configuration, dataMap.getUsedMemorySize(), 1);
                 this.groupByFunctionsUpdater = groupByFunctionsUpdater;
                 this.allocator = GroupByAllocatorFactory.createThreadUnsafeAllocator(configuration);
                 GroupByUtils.setAllocator(groupByFunctions, allocator);
@@ -184,6 +199,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (!isDataMapBuilt) {
                 buildDataMap();
             }
+            if (isSpilled()) {
+                while (hasNext()) {
+                    counter.inc();
+                }
+                return;
+            }
             baseCursor.calculateSize(circuitBreaker, counter);
         }
 
@@ -192,6 +213,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (isOpen) {
                 isOpen = false;
                 Misc.free(dataMap);
+                Misc.free(spill);
                 Misc.free(allocator);
                 Misc.clearObjList(groupByFunctions);
                 super.close();
@@ -203,7 +225,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (!isDataMapBuilt) {
                 buildDataMap();
             }
-            return super.hasNext();
+            return super.hasNext() || (isSpilled() && nextSpillPartition());
         }
 
         public void of(RecordCursor managedCursor, SqlExecutionContext executionContext) throws SqlException {
@@ -214,17 +236,53 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             }
             this.circuitBreaker = executionContext.getCircuitBreaker();
             Function.init(keyFunctions, managedCursor, executionContext);
+            if (spill != null) {
+                spill.of(managedCursor);
+            }
             isDataMapBuilt = false;
             rowId = 0;
         }
 
+        @Override
+        public long size() {
+            return isSpilled() ? -1 : super.size();
+        }
+
         @Override
         public void toTop() {
             super.toTop();
+            if (isSpilled()) {
+                // replay the spilled partitions rather than scanning the base cursor once again
+                spill.toTop();
+                resetDataMap();
+                super.of(dataMap.getCursor());
+                return;
+            }
             isDataMapBuilt = false;
             rowId = 0;
         }
 
+        private boolean aggregateSpillPartition() {
+            final Record record = spill.getRecord();
+            while (spill.hasNextRow()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = dataMap.withKey();
+                mapSink.copy(record, key);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    groupByFunctionsUpdater.updateNew(value, record, spill.getRowId());
+                } else {
+                    groupByFunctionsUpdater.updateExisting(value, record, spill.getRowId());
+                }
+                if (isOverBudget() && dataMap.size() > 1 && spill.canSplit()) {
+                    resetDataMap();
+                    spill.split(hasher);
+                    return false;
+                }
+            }
+            return true;
+        }
+
         private void buildDataMap() {
             final Record baseRecord = managedCursor.getRecord();
             while (managedCursor.hasNext()) {
@@ -237,9 +295,65 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 } else {
                     groupByFunctionsUpdater.updateExisting(value, baseRecord, rowId++);
                 }
+                if (spill != null && isOverBudget()) {
+                    spillBaseCursor();
+                    break;
+                }
             }
             super.of(dataMap.getCursor());
             isDataMapBuilt = true;
         }
+
+        private long hashKey(Record record) {
+            final MapKey key = dataMap.withKey();
+            mapSink.copy(record, key);
+            key.commit();
+            return key.hash();
+        }
+
+        private boolean isOverBudget() {
+            return dataMap.getUsedMemorySize() + allocator.allocated() > spillMemoryBudget;
+        }
+
+        private boolean isSpilled() {
+            return spill != null && spill.isSpilled();
+        }
+
+        private boolean nextSpillPartition() {
+            while (spill.nextPartition()) {
+                resetDataMap();
+                if (aggregateSpillPartition()) {
+                    super.of(dataMap.getCursor());
+                    if (super.hasNext()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void resetDataMap() {
+            dataMap.clear();
+            dataMap.restoreInitialCapacity();
+            // values of the spilled keys are gone, so is the memory held by the group by functions
+            allocator.close();
+        }
+
+        /**
+         * Drops everything aggregated so far and writes all rows of the base cursor to the spill,
+         * so that the memory is released right away. The spill is then aggregated partition by partition.
+         */
+        private void spillBaseCursor() {
+            resetDataMap();
+            managedCursor.toTop();
+            rowId = 0;
+            final Record baseRecord = managedCursor.getRecord();
+            spill.beginWrite(GroupByRowSpill.SPLIT_BITS);
+            while (managedCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                spill.put(baseRecord, hashKey(baseRecord), rowId++);
+            }
+            spill.endWrite();
+        }
     }
 }
@@ -0,0 +1,449 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.EntityColumnFilter;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.RecordSinkFactory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Transient;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed partitions of raw GROUP BY input rows. Keyed GROUP BY switches to this spill once
+ * its hash table and the group by function memory exceed the memory budget.
+ * <p>
+ * Rows are written to files under the SQL copy work root along with their row ids, so that
+ * first()/last() style functions see the original ids when the rows are aggregated again.
+ * A partition is chosen by the high bits of the key hash code, so all rows of a key end up
+ * in the same partition and partitions can be aggregated one by one. A partition that still
+ * doesn't fit into the budget is split further by the next bits of the hash code, see
+ * {@link #split(RowHasher)}.
+ * <p>
+ * Partitions created by {@link #beginWrite(int)} are kept until {@link #clear()}, so that
+ * {@link #toTop()} can replay them. Partitions created by splits are removed once read.
+ */
+public class GroupByRowSpill implements QuietCloseable {
+    public static final int SPLIT_BITS = 4;
+    private static final AtomicLong ID = new AtomicLong();
+    private static final Log LOG = LogFactory.getLog(GroupByRowSpill.class);
+    private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+    private final ObjList<Partition> donePartitions = new ObjList<>();
+    private final FilesFacade ff;
+    private final ObjList<Partition> freePartitions = new ObjList<>();
+    private final int mkDirMode;
+    private final long pageSize;
+    private final ObjList<Partition> pendingPartitions = new ObjList<>();
+    private final RecordSink recordSink;
+    private final RowIdFunction rowIdFunction = new RowIdFunction();
+    private final int rowIdIndex;
+    private final CharSequence workRoot;
+    private final ObjList<Partition> writePartitions = new ObjList<>();
+    private Partition currentPartition;
+    private int nextFileIndex;
+    private Path path;
+    private int rootLen;
+    private SymbolTableSource symbolTableSource;
+    private int writeBits;
+    private int writePrefixBits;
+
+    public GroupByRowSpill(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes baseColumnTypes
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.workRoot = configuration.getSqlCopyInputWorkRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        // partitions are many and mostly small, so they grow in small steps
+        this.pageSize = configuration.getSqlSortKeyPageSize();
+        this.rowIdIndex = baseColumnTypes.getColumnCount();
+        for (int i = 0; i < rowIdIndex; i++) {
+            columnTypes.add(baseColumnTypes.getColumnType(i));
+        }
+        columnTypes.add(ColumnType.LONG);
+        final EntityColumnFilter columnFilter = new EntityColumnFilter();
+        columnFilter.of(rowIdIndex);
+        final ObjList<Function> rowIdFunctions = new ObjList<>();
+        rowIdFunctions.add(rowIdFunction);
+        this.recordSink = RecordSinkFactory.getInstance(asm, baseColumnTypes, columnFilter, rowIdFunctions, null);
+    }
+
+    /**
+     * Returns memory budget for the given number of GROUP BY hash tables along with their group by
+     * function memory. The configured budget is raised to twice the size of the empty tables and
+     * an allocator chunk per table, since a smaller budget would have every few keys spilled.
+     */
+    public static long getMemoryBudget(CairoConfiguration configuration, long emptyMapSize, int mapCount) {
+        final long minBudget = 2 * mapCount * (emptyMapSize + configuration.getGroupByAllocatorDefaultChunkSize());
+        return Math.max(configuration.getGroupBySpillMemoryBudget(), minBudget);
+    }
+
+    public static boolean isSpillEnabled(CairoConfiguration configuration) {
+        return configuration.getGroupBySpillMemoryBudget() > 0 && configuration.getSqlCopyInputWorkRoot() != null;
+    }
+
+    /**
+     * Checks that rows of the given types can be written to the spill.
+     */
+    public static boolean isSupported(ColumnTypes columnTypes) {
+        for (int i = 0, n = columnTypes.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(columnTypes.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.IPv4:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.VARCHAR:
+                case ColumnType.SYMBOL:
+                case ColumnType.LONG256:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                case ColumnType.BINARY:
+                case ColumnType.UUID:
+                case ColumnType.LONG128:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts writing rows to 2^bits partitions chosen by the high bits of the key hash code.
+     * Zero bits means a single partition.
+     */
+    public void beginWrite(int bits) {
+        assert writePartitions.size() == 0;
+        openWritePartitions(0, 0, bits, true);
+    }
+
+    public boolean canSplit() {
+        return currentPartition != null && currentPartition.splittable && currentPartition.prefixBits + SPLIT_BITS <= Long.SIZE;
+    }
+
+    /**
+     * Removes all partitions and their files.
+     */
+    public void clear() {
+        releasePartition(currentPartition);
+        currentPartition = null;
+        releasePartitions(writePartitions);
+        releasePartitions(pendingPartitions);
+        releasePartitions(donePartitions);
+        nextFileIndex = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndClear(freePartitions);
+        path = Misc.free(path);
+        symbolTableSource = null;
+    }
+
+    /**
+     * Checks if the given hash code belongs to the current partition.
+     */
+    public boolean contains(long hashCode) {
+        final int prefixBits = currentPartition.prefixBits;
+        return prefixBits == 0 || ((hashCode ^ currentPartition.prefix) >>> (Long.SIZE - prefixBits)) == 0;
+    }
+
+    /**
+     * Moves the partitions written since {@link #beginWrite(int)} to the read queue.
+     */
+    public void endWrite() {
+        for (int i = writePartitions.size() - 1; i > -1; i--) {
+            pendingPartitions.add(writePartitions.getQuick(i));
+        }
+        writePartitions.clear();
+    }
+
+    /**
+     * Returns the high bits shared by hash codes of the current partition, see {@link #contains(long)}.
+     */
+    public long getPartitionPrefix() {
+        return currentPartition.prefix;
+    }
+
+    public Record getRecord() {
+        return currentPartition.chain.getRecord();
+    }
+
+    /**
+     * Returns row id of the current row.
+     */
+    public long getRowId() {
+        return currentPartition.chain.getRecord().getLong(rowIdIndex);
+    }
+
+    public boolean hasNextRow() {
+        return currentPartition.chain.hasNext();
+    }
+
+    public boolean isSpilled() {
+        return writePartitions.size() > 0 || donePartitions.size() > 0 || pendingPartitions.size() > 0 || currentPartition != null;
+    }
+
+    public boolean isWriting() {
+        return writePartitions.size() > 0;
+    }
+
+    /**
+     * Moves to the next partition to be read. Partitions created by splits are removed once
+     * the reader moves on.
+     *
+     * @return false when there are no more partitions
+     */
+    public boolean nextPartition() {
+        retireCurrentPartition();
+        final int n = pendingPartitions.size();
+        if (n == 0) {
+            return false;
+        }
+        currentPartition = pendingPartitions.getQuick(n - 1);
+        pendingPartitions.setPos(n - 1);
+        currentPartition.chain.toTop();
+        return true;
+    }
+
+    public void of(SymbolTableSource symbolTableSource) {
+        this.symbolTableSource = symbolTableSource;
+    }
+
+    /**
+     * Writes the row to the partition of the given hash code.
+     *
+     * @return offset of the row within its partition, see {@link #seek(long)}
+     */
+    public long put(Record record, long hashCode, long rowId) {
+        final int index = writeBits == 0 ? 0 : (int) ((hashCode << writePrefixBits) >>> (Long.SIZE - writeBits));
+        final Partition partition = writePartitions.getQuick(index);
+        rowIdFunction.value = rowId;
+        final long offset = partition.chain.put(record, partition.tail);
+        partition.tail = offset;
+        partition.rowCount++;
+        return offset;
+    }
+
+    /**
+     * Positions the current partition at the row previously written at the given offset.
+     * The row becomes current after the following {@link #hasNextRow()} call.
+     */
+    public void seek(long offset) {
+        currentPartition.chain.of(offset);
+    }
+
+    /**
+     * Splits the current partition by the next {@link #SPLIT_BITS} bits of the key hash code
+     * and queues the sub-partitions for reading. The current partition is consumed.
+     */
+    public void split(RowHasher hasher) {
+        assert canSplit();
+        final Partition partition = currentPartition;
+        openWritePartitions(partition.prefix, partition.prefixBits, SPLIT_BITS, false);
+        final RecordChain chain = partition.chain;
+        final Record record = chain.getRecord();
+        chain.toTop();
+        while (chain.hasNext()) {
+            put(record, hasher.hash(record), record.getLong(rowIdIndex));
+        }
+
+        int nonEmpty = 0;
+        Partition last = null;
+        for (int i = 0, n = writePartitions.size(); i < n; i++) {
+            Partition p = writePartitions.getQuick(i);
+            if (p.rowCount > 0) {
+                nonEmpty++;
+                last = p;
+            }
+        }
+        if (nonEmpty == 1 && last.rowCount == partition.rowCount) {
+            // all rows share the hash prefix, so further splits won't make the partition any smaller
+            last.splittable = false;
+        }
+        endWrite();
+    }
+
+    /**
+     * Returns to the partitions created by {@link #beginWrite(int)}, so that they can be read again.
+     */
+    public void toTop() {
+        retireCurrentPartition();
+        releasePartitions(pendingPartitions);
+        for (int i = 0, n = donePartitions.size(); i < n; i++) {
+            pendingPartitions.add(donePartitions.getQuick(i));
+        }
+        donePartitions.clear();
+    }
+
+    private Partition nextFreePartition() {
+        final int n = freePartitions.size();
+        if (n > 0) {
+            Partition partition = freePartitions.getQuick(n - 1);
+            freePartitions.setPos(n - 1);
+            return partition;
+        }
+        return new Partition();
+    }
+
+    private LPSZ nextPath() {
+        if (path == null) {
+            if (workRoot == null) {
+                throw CairoException.nonCritical().put("cannot spill GROUP BY to disk, sql copy work root is not set");
+            }
+            path = new Path();
+            path.of(workRoot).slash();
+            if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create [dir=").put(path).put(']');
+            }
+            path.put("groupby_spill_").put(Os.getPid()).put('_').put(ID.incrementAndGet()).put('_');
+            rootLen = path.size();
+        }
+        return partitionPath(nextFileIndex++);
+    }
+
+    private void openWritePartitions(long prefix, int prefixBits, int bits, boolean replayable) {
+        this.writeBits = bits;
+        this.writePrefixBits = prefixBits;
+        for (int i = 0, n = 1 << bits; i < n; i++) {
+            final Partition partition = nextFreePartition();
+            final int fileIndex = nextFileIndex;
+            partition.mem.of(ff, nextPath(), pageSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            partition.fileIndex = fileIndex;
+            partition.chain.setSymbolTableResolver(symbolTableSource);
+            partition.prefix = bits == 0 ? prefix : prefix | (((long) i << (Long.SIZE - bits)) >>> prefixBits);
+            partition.prefixBits = prefixBits + bits;
+            partition.replayable = replayable;
+            partition.splittable = true;
+            partition.tail = -1;
+            partition.rowCount = 0;
+            writePartitions.add(partition);
+        }
+    }
+
+    private LPSZ partitionPath(int fileIndex) {
+        return path.trimTo(rootLen).put(fileIndex).put(".d").$();
+    }
+
+    private void releasePartition(Partition partition) {
+        if (partition != null) {
+            // the file is removed right away, so there is no point in truncating it
+            partition.mem.close(false);
+            partition.chain.clear();
+            if (!ff.removeQuiet(partitionPath(partition.fileIndex))) {
+                LOG.error().$("could not remove group by spill [path=").$(path).$(", errno=").$(ff.errno()).I$();
+            }
+            freePartitions.add(partition);
+        }
+    }
+
+    private void releasePartitions(ObjList<Partition> partitions) {
+        for (int i = 0, n = partitions.size(); i < n; i++) {
+            releasePartition(partitions.getQuick(i));
+        }
+        partitions.clear();
+    }
+
+    private void retireCurrentPartition() {
+        if (currentPartition != null) {
+            if (currentPartition.replayable) {
+                donePartitions.add(currentPartition);
+            } else {
+                releasePartition(currentPartition);
+            }
+            currentPartition = null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowHasher {
+        /**
+         * Returns hash code of the GROUP BY key of the given spilled row.
+         */
+        long hash(Record record);
+    }
+
+    private static class RowIdFunction extends LongFunction {
+        private long value;
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+    }
+
+    private class Partition implements QuietCloseable {
+        final MemoryCMARW mem = Vm.getCMARWInstance();
+        final RecordChain chain = new RecordChain(columnTypes, recordSink, mem);
+        int fileIndex;
+        long prefix;
+        int prefixBits;
+        boolean replayable;
+        long rowCount;
+        boolean splittable;
+        long tail;
+
+        @Override
+        public void close() {
+            chain.close();
+        }
+    }
+}
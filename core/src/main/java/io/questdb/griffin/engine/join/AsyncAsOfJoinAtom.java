@@ -0,0 +1,367 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleRecordSink;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds the state of parallel ASOF and LT joins. All slave page frames are registered in
+ * the address cache by the query owner thread before any master page frame is dispatched.
+ * After that, the workers navigate slave frames concurrently, each using its own memory pool
+ * and record, to find the slave row for each master row of the reduced frame.
+ */
+public class AsyncAsOfJoinAtom implements StatefulAtom, Closeable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final RecordSink masterKeySink;
+    private final int masterTimestampIndex;
+    private final SingleRecordSink ownerMasterSinkTarget;
+    private final PageFrameMemoryPool ownerSlaveFrameMemoryPool;
+    private final PageFrameMemoryRecord ownerSlaveRecord;
+    private final SingleRecordSink ownerSlaveSinkTarget;
+    private final ObjList<SingleRecordSink> perWorkerMasterSinkTargets;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<PageFrameMemoryPool> perWorkerSlaveFrameMemoryPools;
+    private final ObjList<PageFrameMemoryRecord> perWorkerSlaveRecords;
+    private final ObjList<SingleRecordSink> perWorkerSlaveSinkTargets;
+    private final PageFrameAddressCache slaveFrameAddressCache;
+    private final LongList slaveFrameTimestampLos = new LongList();
+    private final RecordSink slaveKeySink;
+    private final int slaveTimestampIndex;
+    // LT join looks for strictly less slave timestamps while ASOF join allows equal ones.
+    private final boolean strict;
+    private int slaveFrameCount;
+
+    public AsyncAsOfJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull RecordMetadata slaveMetadata,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            boolean strict,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            int workerCount
+    ) {
+        assert (masterKeySink == null) == (slaveKeySink == null);
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.masterTimestampIndex = masterTimestampIndex;
+        this.slaveTimestampIndex = slaveTimestampIndex;
+        this.strict = strict;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.filter = filter;
+        this.perWorkerSlaveFrameMemoryPools = new ObjList<>(workerCount);
+        this.perWorkerSlaveRecords = new ObjList<>(workerCount);
+        this.perWorkerMasterSinkTargets = new ObjList<>(workerCount);
+        this.perWorkerSlaveSinkTargets = new ObjList<>(workerCount);
+        try {
+            slaveFrameAddressCache = new PageFrameAddressCache(configuration);
+            slaveFrameAddressCache.of(slaveMetadata);
+            ownerSlaveFrameMemoryPool = new PageFrameMemoryPool();
+            ownerSlaveRecord = new PageFrameMemoryRecord();
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerSlaveFrameMemoryPools.extendAndSet(i, new PageFrameMemoryPool());
+                perWorkerSlaveRecords.extendAndSet(i, new PageFrameMemoryRecord());
+            }
+            if (masterKeySink != null) {
+                final long maxSinkTargetHeapSize = (long) configuration.getSqlHashJoinValuePageSize() * configuration.getSqlHashJoinValueMaxPages();
+                ownerMasterSinkTarget = new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN);
+                ownerSlaveSinkTarget = new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN);
+                for (int i = 0; i < workerCount; i++) {
+                    perWorkerMasterSinkTargets.extendAndSet(i, new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN));
+                    perWorkerSlaveSinkTargets.extendAndSet(i, new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN));
+                }
+            } else {
+                ownerMasterSinkTarget = null;
+                ownerSlaveSinkTarget = null;
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own slave record anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        slaveFrameAddressCache.clear();
+        slaveFrameTimestampLos.clear();
+        slaveFrameCount = 0;
+        Misc.free(ownerSlaveFrameMemoryPool);
+        Misc.free(ownerSlaveRecord);
+        Misc.freeObjListAndKeepObjects(perWorkerSlaveFrameMemoryPools);
+        Misc.freeObjListAndKeepObjects(perWorkerSlaveRecords);
+        Misc.free(ownerMasterSinkTarget);
+        Misc.free(ownerSlaveSinkTarget);
+        Misc.freeObjListAndKeepObjects(perWorkerMasterSinkTargets);
+        Misc.freeObjListAndKeepObjects(perWorkerSlaveSinkTargets);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(perWorkerSlaveFrameMemoryPools);
+        Misc.freeObjList(perWorkerSlaveRecords);
+        Misc.freeObjList(perWorkerMasterSinkTargets);
+        Misc.freeObjList(perWorkerSlaveSinkTargets);
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+    }
+
+    /**
+     * Finds the slave row for each of the given master rows. The list of master row indexes
+     * is expanded in place into [master row index, slave row id] pairs, where the slave row id
+     * is -1 when there is no matching slave row.
+     *
+     * @param slotId         slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param record         record initialized with the master page frame memory
+     * @param rows           master row indexes
+     * @param circuitBreaker circuit breaker to check during slave key scans
+     */
+    public void findSlaveRows(int slotId, PageFrameMemoryRecord record, DirectLongList rows, SqlExecutionCircuitBreaker circuitBreaker) {
+        final PageFrameMemoryPool slaveFrameMemoryPool = slotId == -1 ? ownerSlaveFrameMemoryPool : perWorkerSlaveFrameMemoryPools.getQuick(slotId);
+        final PageFrameMemoryRecord slaveRecord = slotId == -1 ? ownerSlaveRecord : perWorkerSlaveRecords.getQuick(slotId);
+
+        final long rowCount = rows.size();
+        if (rows.getCapacity() < 2 * rowCount) {
+            rows.setCapacity(2 * rowCount);
+        }
+        rows.setPos(2 * rowCount);
+        // Go backwards, so that the master row indexes are not overwritten by the pairs.
+        for (long i = rowCount - 1; i > -1; i--) {
+            final long r = rows.get(i);
+            record.setRowIndex(r);
+            final long masterTimestamp = record.getTimestamp(masterTimestampIndex);
+            long slaveRowId = findSlaveRow(slaveFrameMemoryPool, masterTimestamp);
+            if (slaveRowId != -1 && masterKeySink != null) {
+                final SingleRecordSink masterSinkTarget = slotId == -1 ? ownerMasterSinkTarget : perWorkerMasterSinkTargets.getQuick(slotId);
+                final SingleRecordSink slaveSinkTarget = slotId == -1 ? ownerSlaveSinkTarget : perWorkerSlaveSinkTargets.getQuick(slotId);
+                masterSinkTarget.clear();
+                masterKeySink.copy(record, masterSinkTarget);
+                slaveRowId = findSlaveRowWithKey(slaveFrameMemoryPool, slaveRecord, masterSinkTarget, slaveSinkTarget, slaveRowId, circuitBreaker);
+            }
+            rows.set(2 * i, r);
+            rows.set(2 * i + 1, slaveRowId);
+        }
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter() {
+        return filter;
+    }
+
+    public PageFrameAddressCache getSlaveFrameAddressCache() {
+        return slaveFrameAddressCache;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+    }
+
+    /**
+     * Registers all slave page frames. Has to be called by the query owner thread
+     * before any master page frame is dispatched.
+     *
+     * @param slaveFrameCursor slave page frame cursor in forward (timestamp) order
+     */
+    public void ofSlave(PageFrameCursor slaveFrameCursor) {
+        // registration may be retried after DataUnavailableException,
+        // so we always start from the first slave frame
+        slaveFrameCursor.toTop();
+        slaveFrameAddressCache.clear();
+        slaveFrameTimestampLos.clear();
+        slaveFrameCount = 0;
+        ownerSlaveFrameMemoryPool.of(slaveFrameAddressCache);
+        ownerSlaveRecord.of(slaveFrameCursor);
+        for (int i = 0, n = perWorkerSlaveFrameMemoryPools.size(); i < n; i++) {
+            perWorkerSlaveFrameMemoryPools.getQuick(i).of(slaveFrameAddressCache);
+            perWorkerSlaveRecords.getQuick(i).of(slaveFrameCursor);
+        }
+        if (masterKeySink != null) {
+            ownerMasterSinkTarget.reopen();
+            ownerSlaveSinkTarget.reopen();
+            for (int i = 0, n = perWorkerMasterSinkTargets.size(); i < n; i++) {
+                perWorkerMasterSinkTargets.getQuick(i).reopen();
+                perWorkerSlaveSinkTargets.getQuick(i).reopen();
+            }
+        }
+
+        PageFrame frame;
+        while ((frame = slaveFrameCursor.next()) != null) {
+            if (frame.getPartitionHi() > frame.getPartitionLo()) {
+                slaveFrameAddressCache.add(slaveFrameCount, frame);
+                final PageFrameMemory frameMemory = ownerSlaveFrameMemoryPool.navigateTo(slaveFrameCount);
+                slaveFrameTimestampLos.add(Unsafe.getUnsafe().getLong(frameMemory.getPageAddress(slaveTimestampIndex)));
+                slaveFrameCount++;
+            }
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    public void toTop() {
+        if (filter != null) {
+            filter.toTop();
+        }
+    }
+
+    private static long lastSlaveRow(long timestampAddress, long rowHi, long masterTimestamp, boolean strict) {
+        // Finds the last row with timestamp less or equal (or strictly less) than the master timestamp.
+        long lo = 0;
+        long hi = rowHi - 1;
+        while (lo < hi) {
+            final long mid = (lo + hi + 1) >>> 1;
+            final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress + (mid << 3));
+            if (timestamp < masterTimestamp || (!strict && timestamp == masterTimestamp)) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private long findSlaveRow(PageFrameMemoryPool slaveFrameMemoryPool, long masterTimestamp) {
+        // Find the last frame that starts with a matching timestamp.
+        int lo = 0;
+        int hi = slaveFrameCount - 1;
+        int frameIndex = -1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final long timestampLo = slaveFrameTimestampLos.getQuick(mid);
+            if (timestampLo < masterTimestamp || (!strict && timestampLo == masterTimestamp)) {
+                frameIndex = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (frameIndex == -1) {
+            return -1;
+        }
+        final PageFrameMemory frameMemory = slaveFrameMemoryPool.navigateTo(frameIndex);
+        final long frameRowCount = slaveFrameAddressCache.getFrameSize(frameIndex);
+        final long row = lastSlaveRow(frameMemory.getPageAddress(slaveTimestampIndex), frameRowCount, masterTimestamp, strict);
+        return Rows.toRowID(frameIndex, row);
+    }
+
+    private long findSlaveRowWithKey(
+            PageFrameMemoryPool slaveFrameMemoryPool,
+            PageFrameMemoryRecord slaveRecord,
+            SingleRecordSink masterSinkTarget,
+            SingleRecordSink slaveSinkTarget,
+            long slaveRowId,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        // Scan the slave rows backwards until the key matches.
+        int frameIndex = Rows.toPartitionIndex(slaveRowId);
+        long row = Rows.toLocalRowID(slaveRowId);
+        slaveFrameMemoryPool.navigateTo(frameIndex, slaveRecord);
+        while (true) {
+            slaveRecord.setRowIndex(row);
+            slaveSinkTarget.clear();
+            slaveKeySink.copy(slaveRecord, slaveSinkTarget);
+            if (masterSinkTarget.memeq(slaveSinkTarget)) {
+                return Rows.toRowID(frameIndex, row);
+            }
+            if (--row < 0) {
+                if (--frameIndex < 0) {
+                    return -1;
+                }
+                slaveFrameMemoryPool.navigateTo(frameIndex, slaveRecord);
+                row = slaveFrameAddressCache.getFrameSize(frameIndex) - 1;
+                circuitBreaker.statefulThrowExceptionIfTripped();
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Registers slave page frames on the first call to {@link #hasNext()} and then iterates
+ * master page frames, for which the workers have already found the slave rows, in the frame
+ * order, so that the output order is the same as in the single-threaded ASOF or LT join.
+ */
+class AsyncAsOfJoinRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncAsOfJoinRecordCursor.class);
+    private final int columnSplit;
+    private final PageFrameMemoryRecord masterRecord;
+    private final OuterJoinRecord record;
+    private final PageFrameMemoryPool slaveFrameMemoryPool;
+    private final PageFrameMemoryRecord slaveRecord;
+    private boolean allFramesActive;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long frameRowCount;
+    private long frameRowIndex;
+    private PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSlaveReady;
+    private DirectLongList rows;
+    private PageFrameCursor slaveFrameCursor;
+
+    public AsyncAsOfJoinRecordCursor(int columnSplit, Record nullRecord) {
+        this.columnSplit = columnSplit;
+        record = new OuterJoinRecord(columnSplit, nullRecord);
+        masterRecord = new PageFrameMemoryRecord();
+        slaveRecord = new PageFrameMemoryRecord();
+        slaveFrameMemoryPool = new PageFrameMemoryPool();
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameIndex=").$(frameIndex)
+                        .$(", frameCount=").$(frameLimit)
+                        .$(", frameId=").$(frameSequence.getId())
+                        .$(", cursor=").$(cursor)
+                        .I$();
+
+                collectCursor(true);
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            Misc.free(slaveFrameMemoryPool);
+            Misc.free(slaveRecord);
+            slaveFrameCursor = Misc.free(slaveFrameCursor);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(slaveRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slaveFrameCursor.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            registerSlaveFrames();
+            fetchNextFrame();
+        }
+
+        // We have rows in the current frame we still need to dispatch
+        if (frameRowIndex < frameRowCount) {
+            nextRow();
+            return true;
+        }
+
+        // Release the previous queue item.
+        // There is no identity check here because this check
+        // had been done when 'cursor' was assigned.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameRowCount > 0 && frameRowIndex < frameRowCount) {
+                nextRow();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slaveFrameCursor.newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        // unless master rows are filtered, there is a row per master row
+        final AsyncAsOfJoinAtom atom = frameSequence.getAtom();
+        if (atom.getFilter() == null && atom.getCompiledFilter() == null) {
+            return frameSequence.getRowCount();
+        }
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == 0 && frameRowIndex == 0) {
+            return;
+        }
+        collectCursor(false);
+        frameSequence.getAtom().toTop();
+        frameSequence.toTop();
+        frameIndex = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled())
+                                .setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    rows = task.getFilteredRows();
+                    frameRowCount = rows.size();
+                    frameIndex = task.getFrameIndex();
+                    frameRowIndex = 0;
+                    if (frameRowCount > 0 && frameSequence.isActive()) {
+                        masterRecord.init(task.getFrameMemory());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameRowCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to join
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("asof join error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException();
+                } else {
+                    LOG.error().$("asof join error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("asof join error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextRow() {
+        // The rows are stored as [master row index, slave row id] pairs.
+        masterRecord.setRowIndex(rows.get(frameRowIndex++));
+        final long slaveRowId = rows.get(frameRowIndex++);
+        if (slaveRowId != -1) {
+            slaveFrameMemoryPool.navigateTo(Rows.toPartitionIndex(slaveRowId), slaveRecord);
+            slaveRecord.setRowIndex(Rows.toLocalRowID(slaveRowId));
+            record.hasSlave(true);
+        } else {
+            record.hasSlave(false);
+        }
+    }
+
+    private void registerSlaveFrames() {
+        if (!isSlaveReady) {
+            // All slave frames have to be registered before any master frame is dispatched,
+            // so that the workers access the frame address cache in read-only mode.
+            final AsyncAsOfJoinAtom atom = frameSequence.getAtom();
+            atom.ofSlave(slaveFrameCursor);
+            slaveFrameMemoryPool.of(atom.getSlaveFrameAddressCache());
+            isSlaveReady = true;
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncAsOfJoinAtom> frameSequence, PageFrameCursor slaveFrameCursor) {
+        this.isOpen = true;
+        this.frameSequence = frameSequence;
+        this.slaveFrameCursor = slaveFrameCursor;
+        masterRecord.of(frameSequence.getSymbolTableSource());
+        slaveRecord.of(slaveFrameCursor);
+        record.of(masterRecord, slaveRecord);
+        frameIndex = -1;
+        frameLimit = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+        isSlaveReady = false;
+    }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel ASOF and LT join. Master page frames are optionally filtered and then the workers
+ * look up the slave row for each master row via binary search over the slave page frames.
+ * For keyed joins, the slave rows are scanned backwards from the found row until the key matches.
+ */
+public class AsyncAsOfJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncAsOfJoinRecordCursorFactory::filterAndJoin;
+
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncAsOfJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private final boolean strict;
+    private final int workerCount;
+
+    public AsyncAsOfJoinRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            int columnSplit,
+            boolean strict,
+            @Nullable JoinContext joinContext,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert masterFactory.supportsPageFrameCursor();
+        assert masterFactory.getScanDirection() == SCAN_DIRECTION_FORWARD;
+        assert slaveFactory.supportsTimeFrameCursor();
+        try {
+            final AsyncAsOfJoinAtom atom = new AsyncAsOfJoinAtom(
+                    configuration,
+                    slaveFactory.getMetadata(),
+                    masterKeySink,
+                    slaveKeySink,
+                    masterFactory.getMetadata().getTimestampIndex(),
+                    slaveFactory.getMetadata().getTimestampIndex(),
+                    strict,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, workerCount, PageFrameReduceTask.TYPE_ASOF_JOIN);
+            this.cursor = new AsyncAsOfJoinRecordCursor(columnSplit, NullRecordFactory.getInstance(slaveFactory.getMetadata()));
+            this.strict = strict;
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncAsOfJoinAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(masterFactory, executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        // The filter is applied to master records only.
+        return masterFactory.getMetadata().getColumnName(idx);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameCursor slaveFrameCursor = slaveFactory.getPageFrameCursor(executionContext, ORDER_ASC);
+        try {
+            cursor.of(execute(executionContext, collectSubSeq, ORDER_ASC), slaveFrameCursor);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveFrameCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        final String joinType = strict ? "Lt" : "AsOf";
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT " + joinType + " Join");
+        } else {
+            sink.type("Async " + joinType + " Join");
+        }
+        sink.meta("workers").val(workerCount);
+        if (joinContext != null && !joinContext.isEmpty()) {
+            sink.attr("condition").val(joinContext);
+        }
+        sink.optAttr("filter", frameSequence.getAtom(), true);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    private static void filterAndJoin(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final PageFrameSequence<AsyncAsOfJoinAtom> frameSequence = task.getFrameSequence(AsyncAsOfJoinAtom.class);
+        final AsyncAsOfJoinAtom atom = frameSequence.getAtom();
+
+        final PageFrameMemory frameMemory = task.populateFrameMemory();
+        record.init(frameMemory);
+
+        rows.clear();
+
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == frameSequence;
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        final Function filter = atom.getFilter();
+        try {
+            if (filter == null) {
+                if (rows.getCapacity() < frameRowCount) {
+                    rows.setCapacity(frameRowCount);
+                }
+                for (long r = 0; r < frameRowCount; r++) {
+                    rows.add(r);
+                }
+            } else if (compiledFilter == null || frameSequence.getPageFrameAddressCache().hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+            }
+
+            if (rows.size() > 0) {
+                atom.findSlaveRows(slotId, record, rows, circuitBreaker);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(cursor);
+        if (cursor != null) {
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+    }
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds the state of parallel hash join. The join key map is built from the slave (build) side
+ * by the query owner thread before any master page frame is dispatched. After that, the map is
+ * read-only, so the workers probe it concurrently, each writing the lookup key into its own
+ * small key map, see {@link OrderedMap#findValueConcurrent(OrderedMap)}.
+ * <p>
+ * The build phase is deliberately not sharded across workers. The slave side is an arbitrary
+ * {@link RecordCursor} that exposes a single record, so it can't be scanned by several threads,
+ * and hashing the keys is cheap compared to reading the rows. Sharded maps would also need
+ * the probe to pick the shard per master row and the slave row id chains to be merged into
+ * a single {@link LongChain}, which only pays off once the slave side is a page frame cursor.
+ */
+public class AsyncHashJoinAtom implements StatefulAtom, Closeable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final OrderedMap joinKeyMap;
+    private final RecordSink masterKeySink;
+    private final OrderedMap ownerKeyMap;
+    private final ObjList<Function> perWorkerFilters;
+    private final ObjList<OrderedMap> perWorkerKeyMaps;
+    private final PerWorkerLocks perWorkerLocks;
+
+    public AsyncHashJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordSink masterKeySink,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        this.masterKeySink = masterKeySink;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.perWorkerKeyMaps = new ObjList<>(workerCount);
+        try {
+            joinKeyMap = (OrderedMap) MapFactory.createOrderedMap(configuration, joinColumnTypes, valueTypes);
+            ownerKeyMap = (OrderedMap) MapFactory.createOrderedMap(configuration, joinColumnTypes, valueTypes);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerKeyMaps.extendAndSet(i, (OrderedMap) MapFactory.createOrderedMap(configuration, joinColumnTypes, valueTypes));
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own key map and filter anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(joinKeyMap);
+        Misc.free(ownerKeyMap);
+        Misc.freeObjListAndKeepObjects(perWorkerKeyMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(joinKeyMap);
+        Misc.free(ownerKeyMap);
+        Misc.freeObjList(perWorkerKeyMaps);
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    /**
+     * Returns the number of slave rows that match the given master row. Uses the owner's
+     * key map, so it may be called by the query owner thread only.
+     *
+     * @param record record initialized with the master page frame memory
+     * @return number of matching slave rows
+     */
+    public int countMatches(PageFrameMemoryRecord record) {
+        ownerKeyMap.withKey().put(record, masterKeySink);
+        final MapValue value = joinKeyMap.findValueConcurrent(ownerKeyMap);
+        return value != null ? value.getInt(1) : 0;
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public OrderedMap getJoinKeyMap() {
+        return joinKeyMap;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        joinKeyMap.reopen();
+        ownerKeyMap.reopen();
+        for (int i = 0, n = perWorkerKeyMaps.size(); i < n; i++) {
+            perWorkerKeyMaps.getQuick(i).reopen();
+        }
+
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    /**
+     * Probes the join key map with the given master rows. Rows with no matching key are
+     * removed from the list, while the remaining ones are replaced in place with
+     * [row index, slave chain offset] pairs encoded into a single long value.
+     *
+     * @param slotId slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param record record initialized with the master page frame memory
+     * @param rows   master row indexes
+     */
+    public void probe(int slotId, PageFrameMemoryRecord record, DirectLongList rows) {
+        final OrderedMap keyMap = slotId == -1 ? ownerKeyMap : perWorkerKeyMaps.getQuick(slotId);
+        final long rowCount = rows.size();
+        long matchCount = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long r = rows.get(i);
+            record.setRowIndex(r);
+            keyMap.withKey().put(record, masterKeySink);
+            final MapValue value = joinKeyMap.findValueConcurrent(keyMap);
+            if (value != null) {
+                rows.set(matchCount++, Numbers.encodeLowHighInts((int) r, value.getInt(0)));
+            }
+        }
+        rows.setPos(matchCount);
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    public void toTop() {
+        if (filter != null) {
+            filter.toTop();
+        }
+    }
+}
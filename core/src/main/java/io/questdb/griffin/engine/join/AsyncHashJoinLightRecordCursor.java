@@ -0,0 +1,349 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Os;
+
+/**
+ * Builds the join key map from the slave cursor on the first call to {@link #hasNext()}
+ * and then iterates master page frames probed by the workers in the frame order, so that
+ * the output order is the same as in the single-threaded hash join.
+ */
+class AsyncHashJoinLightRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursor.class);
+    private final int columnSplit;
+    private final PageFrameMemoryRecord masterRecord;
+    private final JoinRecord record;
+    // used to calculate the cursor size on the query owner thread
+    private final PageFrameMemoryPool sizeFrameMemoryPool;
+    private final PageFrameMemoryRecord sizeRecord;
+    private final LongChain slaveChain;
+    private final RecordSink slaveKeySink;
+    private boolean allFramesActive;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long frameRowCount;
+    private long frameRowIndex;
+    private PageFrameSequence<AsyncHashJoinAtom> frameSequence;
+    private boolean isMapBuilt;
+    private boolean isOpen;
+    private DirectLongList rows;
+    private long size = -1;
+    private LongChain.Cursor slaveChainCursor;
+    private RecordCursor slaveCursor;
+    private Record slaveRecord;
+
+    public AsyncHashJoinLightRecordCursor(CairoConfiguration configuration, RecordSink slaveKeySink, int columnSplit) {
+        this.slaveKeySink = slaveKeySink;
+        this.columnSplit = columnSplit;
+        record = new JoinRecord(columnSplit);
+        masterRecord = new PageFrameMemoryRecord();
+        sizeRecord = new PageFrameMemoryRecord();
+        sizeFrameMemoryPool = new PageFrameMemoryPool();
+        slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameIndex=").$(frameIndex)
+                        .$(", frameCount=").$(frameLimit)
+                        .$(", frameId=").$(frameSequence.getId())
+                        .$(", cursor=").$(cursor)
+                        .I$();
+
+                collectCursor(true);
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            Misc.free(sizeFrameMemoryPool);
+            Misc.free(sizeRecord);
+            slaveCursor = Misc.free(slaveCursor);
+            Misc.free(slaveChain);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(sizeRecord);
+        Misc.free(slaveChain);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            buildMapOfSlaveRecords();
+            fetchNextFrame();
+        }
+
+        if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+            slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+            return true;
+        }
+
+        // We have rows in the current frame we still need to dispatch
+        if (frameRowIndex < frameRowCount) {
+            nextMatch();
+            return true;
+        }
+
+        // Release the previous queue item.
+        // There is no identity check here because this check
+        // had been done when 'cursor' was assigned.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameRowCount > 0 && frameRowIndex < frameRowCount) {
+                nextMatch();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slaveCursor.newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        if (size > -1) {
+            return size;
+        }
+        final AsyncHashJoinAtom atom = frameSequence.getAtom();
+        // same as in single-threaded hash join, we probe the map with every filtered master row;
+        // the owner's filter is only used on this thread, so it's safe to use it here
+        final Function filter = atom.getFilter(-1);
+        buildMapOfSlaveRecords();
+        frameSequence.prepareForDispatch();
+        sizeFrameMemoryPool.of(frameSequence.getPageFrameAddressCache());
+        long size = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            sizeRecord.init(sizeFrameMemoryPool.navigateTo(i));
+            for (long r = 0, m = frameSequence.getFrameRowCount(i); r < m; r++) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                sizeRecord.setRowIndex(r);
+                if (filter == null || filter.getBool(sizeRecord)) {
+                    size += atom.countMatches(sizeRecord);
+                }
+            }
+        }
+        return this.size = size;
+    }
+
+    @Override
+    public void toTop() {
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == 0 && frameRowIndex == 0) {
+            return;
+        }
+        collectCursor(false);
+        frameSequence.getAtom().toTop();
+        frameSequence.toTop();
+        frameIndex = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        slaveChainCursor = null;
+        allFramesActive = true;
+        if (!isMapBuilt) {
+            slaveCursor.toTop();
+            frameSequence.getAtom().getJoinKeyMap().clear();
+            slaveChain.clear();
+        }
+    }
+
+    private void buildMapOfSlaveRecords() {
+        if (!isMapBuilt) {
+            // The map has to be fully built before any master frame is dispatched,
+            // so that the workers access it in read-only mode.
+            HashJoinLightRecordCursorFactory.populateRowIDHashMap(
+                    circuitBreaker,
+                    slaveCursor,
+                    frameSequence.getAtom().getJoinKeyMap(),
+                    slaveKeySink,
+                    slaveChain
+            );
+            isMapBuilt = true;
+        }
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled())
+                                .setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    rows = task.getFilteredRows();
+                    frameRowCount = rows.size();
+                    frameIndex = task.getFrameIndex();
+                    frameRowIndex = 0;
+                    if (frameRowCount > 0 && frameSequence.isActive()) {
+                        masterRecord.init(task.getFrameMemory());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameRowCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to join
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("hash join error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException();
+                } else {
+                    LOG.error().$("hash join error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("hash join error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextMatch() {
+        final long match = rows.get(frameRowIndex++);
+        masterRecord.setRowIndex(Numbers.decodeLowInt(match));
+        slaveChainCursor = slaveChain.getCursor(Numbers.decodeHighInt(match));
+        // we know cursor has values
+        // advance to get the first value
+        slaveChainCursor.hasNext();
+        slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncHashJoinAtom> frameSequence, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (!isOpen) {
+            isOpen = true;
+            slaveChain.reopen();
+        }
+        this.frameSequence = frameSequence;
+        this.slaveCursor = slaveCursor;
+        this.circuitBreaker = circuitBreaker;
+        slaveRecord = slaveCursor.getRecordB();
+        masterRecord.of(frameSequence.getSymbolTableSource());
+        sizeRecord.of(frameSequence.getSymbolTableSource());
+        record.of(masterRecord, slaveRecord);
+        slaveChain.clear();
+        slaveChainCursor = null;
+        frameIndex = -1;
+        frameLimit = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+        isMapBuilt = false;
+        size = -1;
+    }
+}
@@ -131,7 +131,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
         }
     }
 
-    private static void populateRowIDHashMap(
+    static void populateRowIDHashMap(
             SqlExecutionCircuitBreaker circuitBreaker,
             RecordCursor cursor,
             Map keyMap,
@@ -61,6 +61,8 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
     public final static short CHANGE_COLUMN_TYPE = SET_DEDUP_DISABLE + 1; // 17
     public final static short CONVERT_PARTITION = CHANGE_COLUMN_TYPE + 1; // 18
+    public final static short SET_PARAM_WAL_APPLY_PRIORITY = CONVERT_PARTITION + 1; // 19
+    public final static short COMPRESS_PARTITION = SET_PARAM_WAL_APPLY_PRIORITY + 1; // 20
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -126,6 +128,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case CONVERT_PARTITION:
                     applyConvertPartition(svc);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(svc);
+                    break;
                 case DETACH_PARTITION:
                     applyDetachPartition(svc);
                     break;
@@ -150,6 +155,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamO3MaxLag(svc);
                     break;
+                case SET_PARAM_WAL_APPLY_PRIORITY:
+                    applyParamWalApplyPriority(svc);
+                    break;
                 case RENAME_TABLE:
                     applyRenameTable(svc);
                     break;
@@ -412,6 +420,21 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataService svc) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            long partitionTimestamp = extraInfo.getQuick(i * 2);
+            if (!svc.compressPartition(partitionTimestamp)) {
+                throw CairoException.partitionManipulationRecoverable()
+                        .put("could not compress partition, partition is read-only [table=").put(tableToken != null ? tableToken.getTableName() : "<null>")
+                        .put(", partitionTimestamp=").ts(partitionTimestamp)
+                        .put(", partitionBy=").put(PartitionBy.toString(svc.getPartitionBy()))
+                        .put(']')
+                        .position((int) extraInfo.getQuick(i * 2 + 1));
+            }
+        }
+    }
+
     private void applyConvertPartition(MetadataService svc) {
         // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
@@ -488,6 +511,16 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyParamWalApplyPriority(MetadataService svc) {
+        int walApplyPriority = (int) extraInfo.get(0);
+        try {
+            svc.setMetaWalApplyPriority(walApplyPriority);
+        } catch (CairoException e) {
+            e.position(tableNamePosition);
+            throw e;
+        }
+    }
+
     private void applyParamUncommittedRows(MetadataService svc) {
         int maxUncommittedRows = (int) extraInfo.get(0);
         try {
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for external ORDER BY. Sorted runs are written to files under the SQL copy work
+ * root once the in-memory tree exceeds the memory budget and are k-way merged lazily using
+ * a binary heap of run indexes.
+ * <p>
+ * Rows with equal sort keys are returned in run order, so the merge preserves the insertion
+ * order of the tree chains.
+ */
+abstract class AbstractSortRuns implements QuietCloseable {
+    private static final AtomicLong ID = new AtomicLong();
+    private static final Log LOG = LogFactory.getLog(AbstractSortRuns.class);
+    protected final FilesFacade ff;
+    protected final long pageSize;
+    private final IntList heap = new IntList();
+    private final int mkDirMode;
+    private final CharSequence workRoot;
+    protected int runCount;
+    private boolean isHeapInitialized;
+    private Path path;
+    private int rootLen;
+
+    AbstractSortRuns(CairoConfiguration configuration, long pageSize) {
+        this.ff = configuration.getFilesFacade();
+        this.workRoot = configuration.getSqlCopyInputWorkRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = pageSize;
+    }
+
+    public static boolean isExternalSortEnabled(CairoConfiguration configuration) {
+        return configuration.getSqlSortSpillMemoryBudget() > 0 && configuration.getSqlCopyInputWorkRoot() != null;
+    }
+
+    /**
+     * Closes all runs and removes their files.
+     */
+    public void clear() {
+        for (int i = 0; i < runCount; i++) {
+            closeRun(i);
+            if (!ff.removeQuiet(runPath(i))) {
+                LOG.error().$("could not remove sort run [path=").$(path).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+        runCount = 0;
+        heap.clear();
+        isHeapInitialized = false;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        path = Misc.free(path);
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    public void toTop() {
+        for (int i = 0; i < runCount; i++) {
+            runToTop(i);
+        }
+        heap.clear();
+        isHeapInitialized = false;
+    }
+
+    private boolean less(int runA, int runB) {
+        final int cmp = compareRuns(runA, runB);
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+
+    private void siftDown(int index) {
+        final int size = heap.size();
+        final int run = heap.getQuick(index);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap.getQuick(child + 1), heap.getQuick(child))) {
+                child++;
+            }
+            if (!less(heap.getQuick(child), run)) {
+                break;
+            }
+            heap.setQuick(index, heap.getQuick(child));
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void siftUp(int index) {
+        final int run = heap.getQuick(index);
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!less(run, heap.getQuick(parent))) {
+                break;
+            }
+            heap.setQuick(index, heap.getQuick(parent));
+            index = parent;
+        }
+        heap.setQuick(index, run);
+    }
+
+    protected abstract void closeRun(int runIndex);
+
+    /**
+     * Compares current rows of the given runs with the sort comparator.
+     */
+    protected abstract int compareRuns(int runA, int runB);
+
+    /**
+     * Advances the run to its next row.
+     *
+     * @return false when the run is exhausted
+     */
+    protected abstract boolean nextInRun(int runIndex);
+
+    /**
+     * Returns the run holding the next row in sort order or -1 when all runs are exhausted.
+     * Current row of the previously returned run is consumed by this call.
+     */
+    protected int nextRun() {
+        if (!isHeapInitialized) {
+            isHeapInitialized = true;
+            for (int i = 0; i < runCount; i++) {
+                if (nextInRun(i)) {
+                    heap.add(i);
+                    siftUp(heap.size() - 1);
+                }
+            }
+        } else if (heap.size() > 0) {
+            if (nextInRun(heap.getQuick(0))) {
+                siftDown(0);
+            } else {
+                final int last = heap.size() - 1;
+                heap.setQuick(0, heap.getQuick(last));
+                heap.setPos(last);
+                if (last > 0) {
+                    siftDown(0);
+                }
+            }
+        }
+        return heap.size() > 0 ? heap.getQuick(0) : -1;
+    }
+
+    /**
+     * Returns path for the file of the next run. The caller must increment run count
+     * as soon as the file is created, so that it's removed on {@link #clear()}.
+     */
+    protected LPSZ nextRunPath() {
+        if (runCount == 0) {
+            if (workRoot == null) {
+                throw CairoException.nonCritical().put("cannot sort on disk, sql copy work root is not set");
+            }
+            if (path == null) {
+                path = new Path();
+            }
+            path.of(workRoot).slash();
+            if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create [dir=").put(path).put(']');
+            }
+            path.put("sort_run_").put(Os.getPid()).put('_').put(ID.incrementAndGet()).put('_');
+            rootLen = path.size();
+        }
+        return runPath(runCount);
+    }
+
+    protected LPSZ runPath(int runIndex) {
+        return path.trimTo(rootLen).put(runIndex).put(".d").$();
+    }
+
+    protected abstract void runToTop(int runIndex);
+}
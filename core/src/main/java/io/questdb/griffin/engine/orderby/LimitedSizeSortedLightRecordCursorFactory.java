@@ -252,7 +252,7 @@ public class LimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCur
                 configuration.getSqlSortLightValuePageSize(),
                 configuration.getSqlSortLightValueMaxPages()
         );
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        this.cursor = new SortedLightRecordCursor(configuration, chain, comparator);
     }
 
     private boolean isInitialized() {
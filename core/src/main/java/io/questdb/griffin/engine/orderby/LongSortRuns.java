@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Sorted runs of &lt;value, rowId&gt; pairs produced by the radix sort. Values are compared
+ * as unsigned 64-bit integers, so runs are merged without re-positioning records.
+ */
+class LongSortRuns extends AbstractSortRuns {
+    private final boolean ascOrder;
+    private final LongList runPositions = new LongList();
+    private final LongList runRowIds = new LongList();
+    private final LongList runSizes = new LongList();
+    private final LongList runValues = new LongList();
+    private final ObjList<MemoryCMR> runs = new ObjList<>();
+
+    LongSortRuns(CairoConfiguration configuration, boolean ascOrder) {
+        super(configuration, configuration.getSqlSortLightValuePageSize());
+        this.ascOrder = ascOrder;
+    }
+
+    /**
+     * Advances to the next row in sort order.
+     *
+     * @return row id or -1 when all runs are exhausted
+     */
+    public long next() {
+        final int run = nextRun();
+        return run != -1 ? runRowIds.getQuick(run) : -1;
+    }
+
+    /**
+     * Writes pairs, sorted in ascending value order, into a new run in the order of this sort.
+     */
+    public void spill(DirectLongList valueRowIdMem) {
+        final int runIndex = runCount;
+        final long size = valueRowIdMem.size() * Long.BYTES;
+        try (MemoryCMARW mem = Vm.getCMARWInstance(ff, nextRunPath(), pageSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE)) {
+            runs.extendAndSet(runIndex, null);
+            runSizes.extendAndSet(runIndex, 0);
+            runPositions.extendAndSet(runIndex, 0);
+            runValues.extendAndSet(runIndex, 0);
+            runRowIds.extendAndSet(runIndex, -1);
+            runCount++;
+
+            final long pairCount = valueRowIdMem.size() >>> 1;
+            if (ascOrder) {
+                for (long i = 0; i < pairCount; i++) {
+                    mem.putLong(valueRowIdMem.get(i << 1));
+                    mem.putLong(valueRowIdMem.get((i << 1) + 1));
+                }
+            } else {
+                for (long i = pairCount - 1; i > -1; i--) {
+                    mem.putLong(valueRowIdMem.get(i << 1));
+                    mem.putLong(valueRowIdMem.get((i << 1) + 1));
+                }
+            }
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        if (size > 0) {
+            runs.setQuick(runIndex, Vm.getCMRInstance(ff, runPath(runIndex), size, MemoryTag.MMAP_DEFAULT));
+            runSizes.setQuick(runIndex, size);
+        }
+    }
+
+    @Override
+    protected void closeRun(int runIndex) {
+        runs.setQuick(runIndex, Misc.free(runs.getQuick(runIndex)));
+    }
+
+    @Override
+    protected int compareRuns(int runA, int runB) {
+        final int cmp = Long.compareUnsigned(runValues.getQuick(runA), runValues.getQuick(runB));
+        return ascOrder ? cmp : -cmp;
+    }
+
+    @Override
+    protected boolean nextInRun(int runIndex) {
+        final long position = runPositions.getQuick(runIndex);
+        if (position < runSizes.getQuick(runIndex)) {
+            final MemoryCMR run = runs.getQuick(runIndex);
+            runValues.setQuick(runIndex, run.getLong(position));
+            runRowIds.setQuick(runIndex, run.getLong(position + Long.BYTES));
+            runPositions.setQuick(runIndex, position + 2 * Long.BYTES);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void runToTop(int runIndex) {
+        runPositions.setQuick(runIndex, 0);
+    }
+}
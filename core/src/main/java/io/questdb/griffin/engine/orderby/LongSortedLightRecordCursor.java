@@ -40,6 +40,9 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
     private final int columnType;
     private final long radixSortThreshold;
     private final Cursor rowIdCursor;
+    // null when external sort is disabled
+    private final LongSortRuns runs;
+    private final long spillMemoryBudget;
     private final DirectLongList valueRowIdMem; // holds <value, rowId> pairs
     private final DirectLongList valueRowIdMemCpy; // used in radix sort
     private boolean areValuesSorted;
@@ -58,6 +61,13 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
             valueRowIdMem = new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT);
             valueRowIdMemCpy = new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT);
             rowIdCursor = ascOrder ? new FwdCursor() : new BwdCursor();
+            if (AbstractSortRuns.isExternalSortEnabled(configuration)) {
+                runs = new LongSortRuns(configuration, ascOrder);
+                spillMemoryBudget = configuration.getSqlSortSpillMemoryBudget();
+            } else {
+                runs = null;
+                spillMemoryBudget = 0;
+            }
         } catch (Throwable th) {
             close();
             throw th;
@@ -70,6 +80,7 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
             isOpen = false;
             Misc.free(valueRowIdMem);
             Misc.free(valueRowIdMemCpy);
+            Misc.free(runs);
             baseCursor = Misc.free(baseCursor);
             baseRecord = null;
         }
@@ -96,6 +107,14 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
             sortValues();
             areValuesSorted = true;
         }
+        if (isSpilled()) {
+            final long rowId = runs.next();
+            if (rowId != -1) {
+                baseCursor.recordAt(baseRecord, rowId);
+                return true;
+            }
+            return false;
+        }
         if (rowIdCursor.hasNext()) {
             baseCursor.recordAt(baseRecord, rowIdCursor.next());
             return true;
@@ -154,7 +173,12 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
         rowIdCursor.toTop();
         if (!areValuesSorted) {
             valueRowIdMem.clear();
+            if (runs != null) {
+                runs.clear();
+            }
             baseCursor.toTop();
+        } else if (isSpilled()) {
+            runs.toTop();
         }
     }
 
@@ -174,16 +198,11 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
         return record.getLong(columnIndex);
     }
 
-    private void sortValues() {
-        // first, copy all values to the buffer
-        while (baseCursor.hasNext()) {
-            circuitBreaker.statefulThrowExceptionIfTripped();
-            // later sort assumes unsigned 64-bit integers,
-            // so we flip the highest bit to get the correct order
-            valueRowIdMem.add(recordAdapter.getLong(baseRecord, columnIndex) ^ Long.MIN_VALUE);
-            valueRowIdMem.add(baseRecord.getRowId());
-        }
-        // now do the actual sort
+    private boolean isSpilled() {
+        return runs != null && runs.getRunCount() > 0;
+    }
+
+    private void sortValueBuffer() {
         final long size = valueRowIdMem.size();
         if (size > 0) {
             if (size > radixSortThreshold) {
@@ -197,10 +216,37 @@ class LongSortedLightRecordCursor implements DelegatingRecordCursor {
                 Vect.quickSortLongIndexAscInPlace(valueRowIdMem.getAddress(), valueRowIdMem.size() >>> 1);
             }
         }
+    }
+
+    private void sortValues() {
+        // first, copy all values to the buffer
+        while (baseCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            // later sort assumes unsigned 64-bit integers,
+            // so we flip the highest bit to get the correct order
+            valueRowIdMem.add(recordAdapter.getLong(baseRecord, columnIndex) ^ Long.MIN_VALUE);
+            valueRowIdMem.add(baseRecord.getRowId());
+            if (runs != null && valueRowIdMem.size() * Long.BYTES > spillMemoryBudget) {
+                spillValues();
+            }
+        }
+        if (isSpilled()) {
+            // remaining rows become the last run, so that all rows are merged the same way
+            spillValues();
+            runs.toTop();
+            return;
+        }
+        sortValueBuffer();
         // we're ready to go
         rowIdCursor.toTop();
     }
 
+    private void spillValues() {
+        sortValueBuffer();
+        runs.spill(valueRowIdMem);
+        valueRowIdMem.clear();
+    }
+
     private interface Cursor {
         boolean hasNext();
 
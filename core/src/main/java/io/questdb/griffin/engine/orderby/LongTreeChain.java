@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.orderby;
 import io.questdb.cairo.Reopenable;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
 import io.questdb.griffin.engine.AbstractRedBlackTree;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.RecordComparator;
@@ -82,6 +83,11 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         return cursor;
     }
 
+    @Override
+    public long getUsedHeapSize() {
+        return super.getUsedHeapSize() + valueHeapPos - valueHeapStart;
+    }
+
     public void put(
             Record leftRecord,
             RecordCursor sourceCursor,
@@ -195,7 +201,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         Unsafe.getUnsafe().putInt(valueHeapStart + uncompressValueOffset(valueOffset) + 8, nextValueOffset);
     }
 
-    public class TreeCursor {
+    public class TreeCursor implements RowCursor {
         private int chainCurrent;
         private int treeCurrent;
 
@@ -204,6 +210,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
             chainCurrent = -1;
         }
 
+        @Override
         public boolean hasNext() {
             if (chainCurrent != -1) {
                 return true;
@@ -218,6 +225,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
             return true;
         }
 
+        @Override
         public long next() {
             int result = chainCurrent;
             chainCurrent = nextValueOffset(chainCurrent);
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Sorted runs of full records used by {@link SortedRecordCursor}. Each run is a {@link RecordChain}
+ * on top of a memory-mapped file, so merged records are read straight from the page cache.
+ */
+class RecordSortRuns extends AbstractSortRuns {
+    private final ColumnTypes columnTypes;
+    private final RecordComparator comparator;
+    private final RecordSink recordSink;
+    private final ObjList<RecordChain> runs = new ObjList<>();
+
+    RecordSortRuns(
+            CairoConfiguration configuration,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RecordComparator comparator
+    ) {
+        super(configuration, configuration.getSqlSortValuePageSize());
+        this.columnTypes = columnTypes;
+        this.recordSink = recordSink;
+        this.comparator = comparator;
+    }
+
+    public Record getRecord(int runIndex) {
+        return runs.getQuick(runIndex).getRecord();
+    }
+
+    /**
+     * Advances to the next record in sort order.
+     *
+     * @return index of the run positioned at the current record or -1 when all runs are exhausted
+     */
+    public int next() {
+        return nextRun();
+    }
+
+    public Record newRecord(int runIndex) {
+        return runs.getQuick(runIndex).newRecord();
+    }
+
+    /**
+     * Positions record, obtained via {@link #newRecord(int)} for the same run,
+     * at the given offset of the run.
+     */
+    public void recordAt(Record record, int runIndex, long offset) {
+        runs.getQuick(runIndex).recordAt(record, offset);
+    }
+
+    /**
+     * Writes records of the tree in sort order into a new run.
+     */
+    public void spill(RecordTreeChain.TreeCursor treeCursor, SymbolTableSource symbolTableSource) {
+        final MemoryCMARW mem = Vm.getCMARWInstance(ff, nextRunPath(), pageSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        final RecordChain run = new RecordChain(columnTypes, recordSink, mem);
+        runs.extendAndSet(runCount++, run);
+        run.setSymbolTableResolver(symbolTableSource);
+
+        final Record record = treeCursor.getRecord();
+        treeCursor.toTop();
+        long prevOffset = -1;
+        while (treeCursor.hasNext()) {
+            prevOffset = run.put(record, prevOffset);
+        }
+        run.toTop();
+    }
+
+    @Override
+    protected void closeRun(int runIndex) {
+        runs.setQuick(runIndex, Misc.free(runs.getQuick(runIndex)));
+    }
+
+    @Override
+    protected int compareRuns(int runA, int runB) {
+        comparator.setLeft(runs.getQuick(runA).getRecord());
+        return comparator.compare(runs.getQuick(runB).getRecord());
+    }
+
+    @Override
+    protected boolean nextInRun(int runIndex) {
+        return runs.getQuick(runIndex).hasNext();
+    }
+
+    @Override
+    protected void runToTop(int runIndex) {
+        runs.getQuick(runIndex).toTop();
+    }
+}
@@ -97,6 +97,13 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * Returns approximate amount of memory occupied by the tree and the records.
+     */
+    public long getUsedMemorySize() {
+        return mem.size() + recordChain.getUsedMemorySize();
+    }
+
     public void put(Record record) {
         if (root == -1) {
             putParent(record);
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Sorted runs of row ids used by {@link SortedLightRecordCursor} and the parallel
+ * light sort. Each run is a single long column file, which is memory-mapped read-only
+ * for the merge. Records are compared by positioning base cursor records at the row ids,
+ * same as {@link LongTreeChain} does.
+ */
+public class RowIdSortRuns extends AbstractSortRuns {
+    private final RecordComparator comparator;
+    private final LongList runPositions = new LongList();
+    private final LongList runRowIds = new LongList();
+    private final LongList runSizes = new LongList();
+    private final ObjList<MemoryCMR> runs = new ObjList<>();
+    private RecordCursor baseCursor;
+    private Record leftRecord;
+    // row ids the comparison records are positioned at, -1 when unknown
+    private long leftRowId = -1;
+    private Record rightRecord;
+    private long rightRowId = -1;
+
+    public RowIdSortRuns(CairoConfiguration configuration, RecordComparator comparator) {
+        super(configuration, configuration.getSqlSortLightValuePageSize());
+        this.comparator = comparator;
+    }
+
+    /**
+     * Advances to the next row in sort order.
+     *
+     * @return row id or -1 when all runs are exhausted
+     */
+    public long next() {
+        // records are shared with the caller, so they may have been re-positioned since the last call
+        leftRowId = -1;
+        rightRowId = -1;
+        final int run = nextRun();
+        return run != -1 ? runRowIds.getQuick(run) : -1;
+    }
+
+    public void of(RecordCursor baseCursor, Record leftRecord, Record rightRecord) {
+        this.baseCursor = baseCursor;
+        this.leftRecord = leftRecord;
+        this.rightRecord = rightRecord;
+    }
+
+    /**
+     * Writes row ids of the tree in sort order into a new run.
+     */
+    public void spill(LongTreeChain.TreeCursor treeCursor) {
+        treeCursor.toTop();
+        spill((RowCursor) treeCursor);
+    }
+
+    /**
+     * Writes the given row ids into a new run. The ids must come in sort order.
+     */
+    public void spill(RowCursor rowIds) {
+        final int runIndex = runCount;
+        long size;
+        try (MemoryCMARW mem = Vm.getCMARWInstance(ff, nextRunPath(), pageSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE)) {
+            runs.extendAndSet(runIndex, null);
+            runSizes.extendAndSet(runIndex, 0);
+            runPositions.extendAndSet(runIndex, 0);
+            runRowIds.extendAndSet(runIndex, -1);
+            runCount++;
+
+            while (rowIds.hasNext()) {
+                mem.putLong(rowIds.next());
+            }
+            size = mem.getAppendOffset();
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        if (size > 0) {
+            runs.setQuick(runIndex, Vm.getCMRInstance(ff, runPath(runIndex), size, MemoryTag.MMAP_DEFAULT));
+            runSizes.setQuick(runIndex, size);
+        }
+    }
+
+    @Override
+    protected void closeRun(int runIndex) {
+        runs.setQuick(runIndex, Misc.free(runs.getQuick(runIndex)));
+    }
+
+    @Override
+    protected int compareRuns(int runA, int runB) {
+        final long rowIdA = runRowIds.getQuick(runA);
+        final long rowIdB = runRowIds.getQuick(runB);
+        // heap sift compares the same row against a number of others, so
+        // re-position only the record that doesn't point at the wanted row yet
+        if (rowIdA == rightRowId || rowIdB == leftRowId) {
+            return -compareRowIds(rowIdB, rowIdA);
+        }
+        return compareRowIds(rowIdA, rowIdB);
+    }
+
+    @Override
+    protected boolean nextInRun(int runIndex) {
+        final long position = runPositions.getQuick(runIndex);
+        if (position < runSizes.getQuick(runIndex)) {
+            runRowIds.setQuick(runIndex, runs.getQuick(runIndex).getLong(position));
+            runPositions.setQuick(runIndex, position + Long.BYTES);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void runToTop(int runIndex) {
+        runPositions.setQuick(runIndex, 0);
+    }
+
+    private int compareRowIds(long left, long right) {
+        if (left != leftRowId) {
+            baseCursor.recordAt(leftRecord, left);
+            leftRowId = left;
+        }
+        if (right != rightRowId) {
+            baseCursor.recordAt(rightRecord, right);
+            rightRowId = right;
+        }
+        comparator.setLeft(leftRecord);
+        return comparator.compare(rightRecord);
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
@@ -34,15 +35,25 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     private final LongTreeChain chain;
     private final LongTreeChain.TreeCursor chainCursor;
     private final RecordComparator comparator;
+    // null when external sort is disabled
+    private final RowIdSortRuns runs;
+    private final long spillMemoryBudget;
     private RecordCursor baseCursor;
     private Record baseRecord;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private boolean isChainBuilt;
     private boolean isOpen;
 
-    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator) {
+    public SortedLightRecordCursor(CairoConfiguration configuration, LongTreeChain chain, RecordComparator comparator) {
         this.chain = chain;
         this.comparator = comparator;
+        if (AbstractSortRuns.isExternalSortEnabled(configuration)) {
+            this.runs = new RowIdSortRuns(configuration, comparator);
+            this.spillMemoryBudget = configuration.getSqlSortSpillMemoryBudget();
+        } else {
+            this.runs = null;
+            this.spillMemoryBudget = 0;
+        }
         // assign it once, it's the same instance anyway
         this.chainCursor = chain.getCursor();
         this.isOpen = true;
@@ -53,6 +64,7 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
         if (isOpen) {
             isOpen = false;
             Misc.free(chain);
+            Misc.free(runs);
             baseCursor = Misc.free(baseCursor);
             baseRecord = null;
         }
@@ -79,6 +91,14 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
             buildChain();
             isChainBuilt = true;
         }
+        if (isSpilled()) {
+            final long rowId = runs.next();
+            if (rowId != -1) {
+                baseCursor.recordAt(baseRecord, rowId);
+                return true;
+            }
+            return false;
+        }
         if (chainCursor.hasNext()) {
             baseCursor.recordAt(baseRecord, chainCursor.next());
             return true;
@@ -99,6 +119,9 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
             isOpen = true;
             chain.reopen();
         }
+        if (runs != null) {
+            runs.of(baseCursor, baseRecord, baseCursor.getRecordB());
+        }
         circuitBreaker = executionContext.getCircuitBreaker();
         isChainBuilt = false;
     }
@@ -115,7 +138,11 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (isSpilled()) {
+            runs.toTop();
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     private void buildChain() {
@@ -132,7 +159,23 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
                     placeHolderRecord,
                     comparator
             );
+            if (runs != null && chain.getUsedHeapSize() > spillMemoryBudget) {
+                spillChain();
+            }
+        }
+        if (isSpilled()) {
+            // remaining rows become the last run, so that all rows are merged the same way
+            spillChain();
         }
         toTop();
     }
+
+    private boolean isSpilled() {
+        return runs != null && runs.getRunCount() > 0;
+    }
+
+    private void spillChain() {
+        runs.spill(chainCursor);
+        chain.clear();
+    }
 }
@@ -55,7 +55,7 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
                 configuration.getSqlSortLightValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        this.cursor = new SortedLightRecordCursor(configuration, chain, comparator);
         this.sortColumnFilter = sortColumnFilter;
     }
 
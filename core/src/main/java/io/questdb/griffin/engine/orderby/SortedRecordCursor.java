@@ -24,21 +24,51 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
 
 class SortedRecordCursor implements DelegatingRecordCursor {
     private final RecordTreeChain chain;
+    // point at records of either the tree chain or the sorted runs;
+    // both are null when external sort is disabled
+    private final SortRunRecord mergedRecord;
+    private final SortRunRecord mergedRecordB;
+    // null when external sort is disabled
+    private final RecordSortRuns runs;
+    private final long spillMemoryBudget;
     private RecordCursor baseCursor;
     private RecordTreeChain.TreeCursor chainCursor;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private boolean isChainBuilt;
     private boolean isOpen;
 
-    public SortedRecordCursor(RecordTreeChain chain) {
+    public SortedRecordCursor(
+            CairoConfiguration configuration,
+            RecordTreeChain chain,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RecordComparator comparator
+    ) {
         this.chain = chain;
+        if (AbstractSortRuns.isExternalSortEnabled(configuration)) {
+            this.runs = new RecordSortRuns(configuration, columnTypes, recordSink, comparator);
+            this.mergedRecord = new SortRunRecord();
+            this.mergedRecordB = new SortRunRecord();
+            this.spillMemoryBudget = configuration.getSqlSortSpillMemoryBudget();
+        } else {
+            this.runs = null;
+            this.mergedRecord = null;
+            this.mergedRecordB = null;
+            this.spillMemoryBudget = 0;
+        }
         this.isOpen = true;
     }
 
@@ -49,17 +79,18 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             chainCursor = Misc.free(chainCursor);
             baseCursor = Misc.free(baseCursor);
             Misc.free(chain);
+            Misc.free(runs);
         }
     }
 
     @Override
     public Record getRecord() {
-        return chainCursor.getRecord();
+        return runs != null ? mergedRecord : chainCursor.getRecord();
     }
 
     @Override
     public Record getRecordB() {
-        return chainCursor.getRecordB();
+        return runs != null ? mergedRecordB : chainCursor.getRecordB();
     }
 
     @Override
@@ -73,6 +104,14 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             buildChain();
             isChainBuilt = true;
         }
+        if (isSpilled()) {
+            final int runIndex = runs.next();
+            if (runIndex != -1) {
+                mergedRecord.ofRun(runIndex, runs.getRecord(runIndex));
+                return true;
+            }
+            return false;
+        }
         return chainCursor.hasNext();
     }
 
@@ -89,13 +128,23 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             chain.reopen();
         }
         chainCursor = chain.getCursor(baseCursor);
+        if (runs != null) {
+            mergedRecord.of(chainCursor.getRecord());
+            mergedRecordB.of(chainCursor.getRecordB());
+        }
         circuitBreaker = executionContext.getCircuitBreaker();
         isChainBuilt = false;
     }
 
     @Override
     public void recordAt(Record record, long atRowId) {
-        chainCursor.recordAt(record, atRowId);
+        if (runs == null) {
+            chainCursor.recordAt(record, atRowId);
+        } else if (isSpilled()) {
+            ((SortRunRecord) record).positionAt(atRowId);
+        } else {
+            chainCursor.recordAt(((SortRunRecord) record).chainRecord, atRowId);
+        }
     }
 
     @Override
@@ -105,7 +154,11 @@ class SortedRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (isSpilled()) {
+            runs.toTop();
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     private void buildChain() {
@@ -117,7 +170,64 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             // own record instance in case base cursor keeps
             // state in the record it returns.
             chain.put(record);
+            if (runs != null && chain.getUsedMemorySize() > spillMemoryBudget) {
+                spillChain();
+            }
+        }
+        if (isSpilled()) {
+            // remaining rows become the last run, so that all rows are merged the same way
+            spillChain();
         }
         toTop();
     }
+
+    private boolean isSpilled() {
+        return runs != null && runs.getRunCount() > 0;
+    }
+
+    private void spillChain() {
+        runs.spill(chainCursor, baseCursor);
+        chain.clear();
+    }
+
+    /**
+     * Delegates to a record of the tree chain or, once the chain is spilled, to a record
+     * of one of the sorted runs. Row ids of the latter pack run index and record offset
+     * within the run the same way table row ids pack partition index and row number.
+     */
+    private class SortRunRecord extends DelegatingRecord {
+        // records positioned via recordAt(), one per run
+        private final ObjList<Record> runRecords = new ObjList<>();
+        private Record chainRecord;
+        private int runIndex = -1;
+
+        @Override
+        public long getRowId() {
+            return runIndex != -1 ? Rows.toRowID(runIndex, base.getRowId()) : base.getRowId();
+        }
+
+        @Override
+        public void of(Record chainRecord) {
+            super.of(chainRecord);
+            this.chainRecord = chainRecord;
+            runRecords.clear();
+            runIndex = -1;
+        }
+
+        private void ofRun(int runIndex, Record runRecord) {
+            super.of(runRecord);
+            this.runIndex = runIndex;
+        }
+
+        private void positionAt(long rowId) {
+            final int runIndex = Rows.toPartitionIndex(rowId);
+            Record runRecord = runRecords.getQuiet(runIndex);
+            if (runRecord == null) {
+                runRecord = runs.newRecord(runIndex);
+                runRecords.extendAndSet(runIndex, runRecord);
+            }
+            runs.recordAt(runRecord, runIndex, Rows.toLocalRowID(rowId));
+            ofRun(runIndex, runRecord);
+        }
+    }
 }
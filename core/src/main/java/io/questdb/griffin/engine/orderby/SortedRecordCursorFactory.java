@@ -62,7 +62,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedRecordCursor(chain);
+        this.cursor = new SortedRecordCursor(configuration, chain, metadata, recordSink, comparator);
         this.sortColumnFilter = sortColumnFilter;
     }
 
@@ -118,7 +118,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
-    static int getScanDirection(ListColumnFilter sortColumnFilter) {
+    public static int getScanDirection(ListColumnFilter sortColumnFilter) {
         assert sortColumnFilter.size() > 0;
 
         return toOrder(sortColumnFilter.get(0));
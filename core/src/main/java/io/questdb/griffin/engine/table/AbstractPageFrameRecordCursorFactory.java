@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.PartitionStatsFilter;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
@@ -43,6 +44,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
     protected final int pageFrameMaxRows;
     protected final int pageFrameMinRows;
     protected final PartitionFrameCursorFactory partitionFrameCursorFactory;
+    // value ranges and bloom filter keys of the filter applied on top of the factory, if any
+    protected final PartitionStatsFilter statsFilter = new PartitionStatsFilter();
     protected PageFrameCursor pageFrameCursor;
 
     public AbstractPageFrameRecordCursorFactory(
@@ -94,6 +97,7 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
     protected PageFrameCursor initPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
         final int order = partitionFrameCursorFactory.getOrder();
         PartitionFrameCursor partitionFrameCursor = partitionFrameCursorFactory.getCursor(executionContext, ORDER_ANY);
+        statsFilter.prepare(executionContext);
         if (pageFrameCursor == null) {
             if (order == ORDER_ASC || order == ORDER_ANY) {
                 pageFrameCursor = new FwdTableReaderPageFrameCursor(
@@ -101,7 +105,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        statsFilter
                 );
             } else {
                 pageFrameCursor = new BwdTableReaderPageFrameCursor(
@@ -109,7 +114,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        statsFilter
                 );
             }
         }
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
@@ -37,6 +38,8 @@ import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.groupby.GroupByAllocator;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.GroupByRowSpill;
 import io.questdb.griffin.engine.groupby.GroupByUtils;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.*;
@@ -56,14 +59,18 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     private final CairoConfiguration configuration;
     // Used to merge shards from ownerFragment and perWorkerFragments.
     private final ObjList<Map> destShards;
+    // Spilled rows partitioned in the same way as destShards; null when spill to disk is disabled.
+    private final GroupByRowSpill destSpill;
     private final Function filter;
     private final GroupByFunctionsUpdater functionUpdater;
+    private final GroupByRowSpill.RowHasher hasher = this::hashKey;
     private final ObjList<Function> keyFunctions;
     private final ColumnTypes keyTypes;
     private final MapStats lastOwnerStats;
     private final ObjList<MapStats> lastShardStats;
     private final MapFragment ownerFragment;
     private final RecordSink ownerMapSink;
+    private final GroupByRowSpill ownerSpill;
     private final ObjList<Function> perWorkerFilters;
     private final ObjList<MapFragment> perWorkerFragments;
     private final ObjList<GroupByFunctionsUpdater> perWorkerFunctionUpdaters;
@@ -71,12 +78,20 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     private final ObjList<ObjList<Function>> perWorkerKeyFunctions;
     private final PerWorkerLocks perWorkerLocks;
     private final ObjList<RecordSink> perWorkerMapSinks;
+    private final ObjList<GroupByRowSpill> perWorkerSpills;
     private final int shardCount;
     private final int shardCountShr;
+    // <slot id + 2, offset of the first row, row count> triplets per frame, zero slot means the frame wasn't spilled.
+    private final LongList spillFrameSegments = new LongList();
+    // Used to aggregate destSpill partitions one by one.
+    private final Map spillMap;
+    private final long spillMemoryBudget;
     private final ColumnTypes valueTypes;
+    private GroupByAllocator allocator;
     // Set to true if we had to shard during the last query execution.
     private boolean lastSharded;
     private volatile boolean sharded;
+    private volatile boolean spilling;
 
     public AsyncGroupByAtom(
             @Transient @NotNull BytecodeAssembler asm,
@@ -152,6 +167,25 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             } else {
                 perWorkerMapSinks = null;
             }
+
+            if (GroupByRecordCursorFactory.isSpillSupported(configuration, columnTypes)) {
+                // frames that don't fit into the budget are written to per-worker spills as they are,
+                // and then distributed between destSpill partitions
+                ownerSpill = new GroupByRowSpill(asm, configuration, columnTypes);
+                perWorkerSpills = new ObjList<>(slotCount);
+                for (int i = 0; i < slotCount; i++) {
+                    perWorkerSpills.extendAndSet(i, new GroupByRowSpill(asm, configuration, columnTypes));
+                }
+                destSpill = new GroupByRowSpill(asm, configuration, columnTypes);
+                spillMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+                spillMemoryBudget = GroupByRowSpill.getMemoryBudget(configuration, spillMap.getUsedMemorySize(), slotCount + 1);
+            } else {
+                ownerSpill = null;
+                perWorkerSpills = null;
+                destSpill = null;
+                spillMap = null;
+                spillMemoryBudget = Long.MAX_VALUE;
+            }
         } catch (Throwable e) {
             close();
             throw e;
@@ -174,9 +208,31 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
+    /**
+     * Called by a worker once the frame is aggregated in memory. Switches the remaining frames
+     * to the spill once the fragments and the group by functions exceed the memory budget.
+     */
+    public void checkSpillBudget(MapFragment fragment) {
+        if (destSpill == null || spilling) {
+            return;
+        }
+        // other fragments' sizes are read without synchronization, so it's an estimate
+        long usedMemorySize = fragment.updateUsedMemorySize();
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            usedMemorySize += perWorkerFragments.getQuick(i).usedMemorySize;
+        }
+        usedMemorySize += ownerFragment.usedMemorySize - fragment.usedMemorySize;
+        if (usedMemorySize + allocator.allocated() > spillMemoryBudget) {
+            // spilled rows are partitioned by the same hash bits as the shards
+            sharded = true;
+            spilling = true;
+        }
+    }
+
     @Override
     public void clear() {
         sharded = false;
+        spilling = false;
         ownerFragment.close();
         for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
             Misc.free(perWorkerFragments.getQuick(i));
@@ -189,6 +245,15 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
                 Misc.clearObjList(perWorkerGroupByFunctions.getQuick(i));
             }
         }
+        if (destSpill != null) {
+            ownerSpill.clear();
+            for (int i = 0, n = perWorkerSpills.size(); i < n; i++) {
+                perWorkerSpills.getQuick(i).clear();
+            }
+            destSpill.clear();
+            spillMap.close();
+            spillFrameSegments.clear();
+        }
     }
 
     @Override
@@ -196,6 +261,10 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         Misc.free(ownerFragment);
         Misc.freeObjList(perWorkerFragments);
         Misc.freeObjList(destShards);
+        Misc.free(ownerSpill);
+        Misc.freeObjList(perWorkerSpills);
+        Misc.free(destSpill);
+        Misc.free(spillMap);
         Misc.free(compiledFilter);
         Misc.free(bindVarMemory);
         Misc.freeObjList(bindVarFunctions);
@@ -310,6 +379,25 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             Function.init(bindVarFunctions, symbolTableSource, executionContext);
             prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
         }
+
+        if (destSpill != null) {
+            // spilled symbols are stored as keys and resolved via the base symbol tables
+            ownerSpill.of(symbolTableSource);
+            for (int i = 0, n = perWorkerSpills.size(); i < n; i++) {
+                perWorkerSpills.getQuick(i).of(symbolTableSource);
+            }
+            destSpill.of(symbolTableSource);
+        }
+    }
+
+    /**
+     * Prepares spill bookkeeping for the given number of frames. Must be called before
+     * the frames are dispatched.
+     */
+    public void initSpill(int frameCount) {
+        if (destSpill != null) {
+            spillFrameSegments.setAll(3 * frameCount, 0);
+        }
     }
 
     @Override
@@ -332,6 +420,14 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return sharded;
     }
 
+    public boolean isSpillEnabled() {
+        return destSpill != null;
+    }
+
+    public boolean isSpilling() {
+        return spilling;
+    }
+
     public Map mergeOwnerMap() {
         lastSharded = false;
         final Map destMap = ownerFragment.reopenMap();
@@ -420,6 +516,65 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    /**
+     * Aggregates the next spilled partition of rows along with the matching entries of the
+     * merged in-memory shards. A partition that doesn't fit into the memory budget is split
+     * and its sub-partitions are aggregated on the following calls.
+     *
+     * @param allocator allocator used by the owner group by functions, it's released between partitions
+     * @return the aggregated partition or null when all partitions are consumed
+     */
+    public Map nextSpillPartition(GroupByAllocator allocator, SqlExecutionCircuitBreaker circuitBreaker) {
+        while (destSpill.nextPartition()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            resetSpillMap(allocator);
+            if (aggregateSpillPartition(allocator, circuitBreaker)) {
+                mergeDestShardEntries();
+                if (spillMap.size() > 0) {
+                    return spillMap;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Distributes the rows spilled by the workers between destSpill partitions. The frames
+     * are read in their order, so the rows of each partition keep the scan order.
+     *
+     * @return empty map to start iterating the partitions with
+     */
+    public Map partitionSpill(GroupByAllocator allocator, SqlExecutionCircuitBreaker circuitBreaker) {
+        resetSpillMap(allocator);
+        startSpillRead(ownerSpill);
+        for (int i = 0, n = perWorkerSpills.size(); i < n; i++) {
+            startSpillRead(perWorkerSpills.getQuick(i));
+        }
+
+        destSpill.beginWrite(Long.SIZE - shardCountShr);
+        for (int i = 0, n = spillFrameSegments.size(); i < n; i += 3) {
+            final int slotId = (int) spillFrameSegments.getQuick(i) - 2;
+            if (slotId == -2) {
+                continue;
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final GroupByRowSpill spill = getSpill(slotId);
+            final Record record = spill.getRecord();
+            spill.seek(spillFrameSegments.getQuick(i + 1));
+            for (long r = 0, rowCount = spillFrameSegments.getQuick(i + 2); r < rowCount; r++) {
+                spill.hasNextRow();
+                destSpill.put(record, hashKey(record), spill.getRowId());
+            }
+        }
+        destSpill.endWrite();
+
+        ownerSpill.clear();
+        for (int i = 0, n = perWorkerSpills.size(); i < n; i++) {
+            perWorkerSpills.getQuick(i).clear();
+        }
+        return spillMap;
+    }
+
     public void release(int slotId) {
         perWorkerLocks.releaseSlot(slotId);
     }
@@ -440,6 +595,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     }
 
     public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
         if (perWorkerGroupByFunctions != null) {
             for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
                 GroupByUtils.setAllocator(perWorkerGroupByFunctions.getQuick(i), allocator);
@@ -447,6 +603,43 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    /**
+     * Writes the frame rows to the worker's spill instead of aggregating them.
+     */
+    public void spillFilteredFrame(int slotId, int frameIndex, PageFrameMemoryRecord record, DirectLongList rows, long baseRowId) {
+        final long rowCount = rows.size();
+        if (rowCount == 0) {
+            return;
+        }
+        final GroupByRowSpill spill = startSpillWrite(slotId);
+        long firstOffset = -1;
+        for (long p = 0; p < rowCount; p++) {
+            long r = rows.get(p);
+            record.setRowIndex(r);
+            final long offset = spill.put(record, 0, baseRowId + r);
+            if (p == 0) {
+                firstOffset = offset;
+            }
+        }
+        setSpillFrameSegment(slotId, frameIndex, firstOffset, rowCount);
+    }
+
+    /**
+     * Writes the frame rows to the worker's spill instead of aggregating them.
+     */
+    public void spillFrame(int slotId, int frameIndex, PageFrameMemoryRecord record, long frameRowCount, long baseRowId) {
+        final GroupByRowSpill spill = startSpillWrite(slotId);
+        long firstOffset = -1;
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+            final long offset = spill.put(record, 0, baseRowId + r);
+            if (r == 0) {
+                firstOffset = offset;
+            }
+        }
+        setSpillFrameSegment(slotId, frameIndex, firstOffset, frameRowCount);
+    }
+
     public void shardAll() {
         lastSharded = true;
         ownerFragment.shard();
@@ -468,6 +661,107 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    /**
+     * Rewinds spilled partitions, so that they're aggregated once again.
+     *
+     * @return empty map to start iterating the partitions with
+     */
+    public Map toTopSpill(GroupByAllocator allocator) {
+        destSpill.toTop();
+        resetSpillMap(allocator);
+        return spillMap;
+    }
+
+    private boolean aggregateSpillPartition(GroupByAllocator allocator, SqlExecutionCircuitBreaker circuitBreaker) {
+        final Record record = destSpill.getRecord();
+        while (destSpill.hasNextRow()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final MapKey key = spillMap.withKey();
+            ownerMapSink.copy(record, key);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                functionUpdater.updateNew(value, record, destSpill.getRowId());
+            } else {
+                functionUpdater.updateExisting(value, record, destSpill.getRowId());
+            }
+            if (spillMap.getUsedMemorySize() + allocator.allocated() > spillMemoryBudget && spillMap.size() > 1 && destSpill.canSplit()) {
+                resetSpillMap(allocator);
+                destSpill.split(hasher);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private GroupByRowSpill getSpill(int slotId) {
+        if (slotId == -1) {
+            return ownerSpill;
+        }
+        return perWorkerSpills.getQuick(slotId);
+    }
+
+    private long hashKey(Record record) {
+        final MapKey key = spillMap.withKey();
+        ownerMapSink.copy(record, key);
+        key.commit();
+        return key.hash();
+    }
+
+    // Merges entries of the in-memory part of the result that belong to the current spilled partition.
+    private void mergeDestShardEntries() {
+        final Map shard = destShards.getQuick((int) (destSpill.getPartitionPrefix() >>> shardCountShr));
+        if (shard == null || !shard.isOpen() || shard.size() == 0) {
+            return;
+        }
+        final RecordCursor cursor = shard.getCursor();
+        final MapRecord record = shard.getRecord();
+        while (cursor.hasNext()) {
+            final long hashCode = record.keyHashCode();
+            if (!destSpill.contains(hashCode)) {
+                continue;
+            }
+            final MapKey key = spillMap.withKey();
+            record.copyToKey(key);
+            final MapValue value = key.createValue(hashCode);
+            if (value.isNew()) {
+                record.copyValue(value);
+            } else {
+                functionUpdater.merge(value, record.getValue());
+            }
+        }
+    }
+
+    private void resetSpillMap(GroupByAllocator allocator) {
+        if (!spillMap.isOpen()) {
+            spillMap.reopen();
+        }
+        spillMap.clear();
+        spillMap.restoreInitialCapacity();
+        allocator.close();
+    }
+
+    private void setSpillFrameSegment(int slotId, int frameIndex, long firstOffset, long rowCount) {
+        final int index = 3 * frameIndex;
+        spillFrameSegments.setQuick(index, slotId + 2);
+        spillFrameSegments.setQuick(index + 1, firstOffset);
+        spillFrameSegments.setQuick(index + 2, rowCount);
+    }
+
+    private void startSpillRead(GroupByRowSpill spill) {
+        if (spill.isWriting()) {
+            spill.endWrite();
+            spill.nextPartition();
+        }
+    }
+
+    private GroupByRowSpill startSpillWrite(int slotId) {
+        final GroupByRowSpill spill = getSpill(slotId);
+        if (!spill.isWriting()) {
+            spill.beginWrite(0);
+        }
+        return spill;
+    }
+
     private Map reopenDestShard(int shardIndex) {
         Map destMap = destShards.getQuick(shardIndex);
         if (destMap == null) {
@@ -553,6 +847,8 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         private final boolean owner;
         private final ObjList<Map> shards; // this.map split into shards
         private boolean sharded;
+        // Memory occupied by the maps as of the last frame, see checkSpillBudget().
+        private long usedMemorySize;
 
         private MapFragment(boolean owner) {
             this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
@@ -563,6 +859,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         @Override
         public void close() {
             sharded = false;
+            usedMemorySize = 0;
             map.close();
             for (int i = 0, n = shards.size(); i < n; i++) {
                 Map m = shards.getQuick(i);
@@ -619,6 +916,18 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             sharded = true;
         }
 
+        private long updateUsedMemorySize() {
+            long size = 0;
+            if (sharded) {
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    size += shards.getQuick(i).getUsedMemorySize();
+                }
+            } else {
+                size = map.getUsedMemorySize();
+            }
+            return usedMemorySize = size;
+        }
+
         private void reopenShards() {
             int size = shards.size();
             if (size == 0) {
@@ -254,7 +254,7 @@ public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCurso
         }
     }
 
-    static void applyCompiledFilter(
+    public static void applyCompiledFilter(
             CompiledFilter compiledFilter,
             MemoryCARW bindVarMemory,
             ObjList<Function> bindVarFunctions,
@@ -277,7 +277,7 @@ public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCurso
         rows.setPos(hi);
     }
 
-    static void applyFilter(Function filter, DirectLongList rows, PageFrameMemoryRecord record, long frameRowCount) {
+    public static void applyFilter(Function filter, DirectLongList rows, PageFrameMemoryRecord record, long frameRowCount) {
         for (long r = 0; r < frameRowCount; r++) {
             record.setRowIndex(r);
             if (filter.getBool(record)) {
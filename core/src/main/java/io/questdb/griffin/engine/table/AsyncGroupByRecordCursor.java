@@ -68,11 +68,15 @@ class AsyncGroupByRecordCursor implements RecordCursor {
     private final VirtualRecord recordB;
     private final ObjList<Function> recordFunctions;
     private final ShardedMapCursor shardedCursor = new ShardedMapCursor();
+    // Used by the owner group by functions when aggregating spilled partitions, so that
+    // a partition's memory can be released without touching the merged in-memory part.
+    private final GroupByAllocator spillAllocator;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private int frameLimit;
     private PageFrameSequence<AsyncGroupByAtom> frameSequence;
     private boolean isDataMapBuilt;
     private boolean isOpen;
+    private boolean isSpilled;
     private MapRecordCursor mapCursor;
 
     public AsyncGroupByRecordCursor(
@@ -84,6 +88,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         this.allocator = GroupByAllocatorFactory.createThreadSafeAllocator(configuration);
         this.groupByFunctions = groupByFunctions;
         GroupByUtils.setAllocator(groupByFunctions, allocator);
+        this.spillAllocator = GroupByAllocatorFactory.createThreadUnsafeAllocator(configuration);
         this.recordFunctions = recordFunctions;
         this.messageBus = messageBus;
         recordA = new VirtualRecord(recordFunctions);
@@ -97,6 +102,12 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         if (!isDataMapBuilt) {
             buildMap();
         }
+        if (isSpilled) {
+            while (hasNext()) {
+                counter.inc();
+            }
+            return;
+        }
         mapCursor.calculateSize(circuitBreaker, counter);
     }
 
@@ -105,6 +116,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         if (isOpen) {
             isOpen = false;
             Misc.free(allocator);
+            Misc.free(spillAllocator);
             Misc.clearObjList(groupByFunctions);
             mapCursor = Misc.free(mapCursor);
 
@@ -142,7 +154,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         if (!isDataMapBuilt) {
             buildMap();
         }
-        return mapCursor.hasNext();
+        return mapCursor.hasNext() || (isSpilled && nextSpillPartition());
     }
 
     @Override
@@ -159,7 +171,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
 
     @Override
     public long size() {
-        if (!isDataMapBuilt) {
+        if (!isDataMapBuilt || isSpilled) {
             return -1;
         }
         return mapCursor != null ? mapCursor.size() : -1;
@@ -170,7 +182,12 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         if (mapCursor != null) {
             mapCursor.toTop();
             GroupByUtils.toTop(recordFunctions);
-            frameSequence.getAtom().toTop();
+            final AsyncGroupByAtom atom = frameSequence.getAtom();
+            atom.toTop();
+            if (isSpilled) {
+                GroupByUtils.toTop(groupByFunctions);
+                setMapCursor(atom.toTopSpill(spillAllocator).getCursor());
+            }
         }
     }
 
@@ -178,6 +195,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         if (frameLimit == -1) {
             frameSequence.prepareForDispatch();
             frameLimit = frameSequence.getFrameCount() - 1;
+            frameSequence.getAtom().initSpill(frameSequence.getFrameCount());
         }
 
         int frameIndex = -1;
@@ -224,6 +242,18 @@ class AsyncGroupByRecordCursor implements RecordCursor {
 
         final AsyncGroupByAtom atom = frameSequence.getAtom();
 
+        if (atom.isSpilling()) {
+            // Some frames were spilled to disk. The shards hold what was aggregated in memory,
+            // and the spilled rows are aggregated partition by partition along with the matching
+            // shard entries.
+            mergeShards(atom);
+            GroupByUtils.setAllocator(groupByFunctions, spillAllocator);
+            isSpilled = true;
+            setMapCursor(atom.partitionSpill(spillAllocator, circuitBreaker).getCursor());
+            isDataMapBuilt = true;
+            return;
+        }
+
         if (!atom.isSharded()) {
             // No sharding was necessary, so the maps are small, and we merge them ourselves.
             final Map dataMap = atom.mergeOwnerMap();
@@ -324,6 +354,21 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         return atom.getDestShards();
     }
 
+    private boolean nextSpillPartition() {
+        final Map partition = frameSequence.getAtom().nextSpillPartition(spillAllocator, circuitBreaker);
+        if (partition == null) {
+            return false;
+        }
+        setMapCursor(partition.getCursor());
+        return mapCursor.hasNext();
+    }
+
+    private void setMapCursor(MapRecordCursor mapCursor) {
+        this.mapCursor = mapCursor;
+        recordA.of(mapCursor.getRecord());
+        recordB.of(mapCursor.getRecordB());
+    }
+
     private void throwTimeoutException() {
         if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
             throw CairoException.queryCancelled();
@@ -335,6 +380,8 @@ class AsyncGroupByRecordCursor implements RecordCursor {
     void of(PageFrameSequence<AsyncGroupByAtom> frameSequence, SqlExecutionContext executionContext) throws SqlException {
         final AsyncGroupByAtom atom = frameSequence.getAtom();
         atom.setAllocator(allocator);
+        GroupByUtils.setAllocator(groupByFunctions, allocator);
+        isSpilled = false;
         if (!isOpen) {
             isOpen = true;
             atom.reopen();
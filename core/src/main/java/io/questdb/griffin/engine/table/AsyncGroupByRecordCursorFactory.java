@@ -146,7 +146,8 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // spilled rows are aggregated and returned partition by partition, so row ids aren't stable
+        return !frameSequence.getAtom().isSpillEnabled();
     }
 
     @Override
@@ -200,6 +201,11 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             record.setRowIndex(0);
             long baseRowId = record.getRowId();
 
+            if (atom.isSpilling()) {
+                atom.spillFrame(slotId, task.getFrameIndex(), record, frameRowCount, baseRowId);
+                return;
+            }
+
             if (!fragment.isSharded()) {
                 aggregateNonSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
             } else {
@@ -207,6 +213,7 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             }
 
             atom.requestSharding(fragment);
+            atom.checkSpillBudget(fragment);
         } finally {
             atom.release(slotId);
             task.releaseFrameMemory();
@@ -374,6 +381,11 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             record.setRowIndex(0);
             long baseRowId = record.getRowId();
 
+            if (atom.isSpilling()) {
+                atom.spillFilteredFrame(slotId, task.getFrameIndex(), record, rows, baseRowId);
+                return;
+            }
+
             if (!fragment.isSharded()) {
                 aggregateFilteredNonSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
             } else {
@@ -381,6 +393,7 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             }
 
             atom.requestSharding(fragment);
+            atom.checkSpillBudget(fragment);
         } finally {
             atom.release(slotId);
             task.releaseFrameMemory();
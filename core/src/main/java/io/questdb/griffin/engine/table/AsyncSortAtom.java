@@ -0,0 +1,342 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds per-worker state of parallel ORDER BY. Each reduce task filters its page frame
+ * (if there is a filter) and sorts the remaining row indexes with a stable merge sort.
+ * The owner thread then k-way merges the sorted runs, see {@link AsyncSortedLightRecordCursor}.
+ */
+public class AsyncSortAtom implements StatefulAtom, Closeable, Plannable {
+    // runs shorter than this are sorted with insertion sort before merging
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final RecordComparator ownerComparator;
+    private final PageFrameMemoryRecord ownerRecordB;
+    private final DirectLongList ownerSortBuffer;
+    private final ObjList<RecordComparator> perWorkerComparators;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<PageFrameMemoryRecord> perWorkerRecordsB;
+    private final ObjList<DirectLongList> perWorkerSortBuffers;
+
+    public AsyncSortAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull RecordComparatorCompiler comparatorCompiler,
+            @NotNull RecordMetadata metadata,
+            @Transient @NotNull ListColumnFilter sortColumnFilter,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.perWorkerComparators = new ObjList<>(workerCount);
+        this.perWorkerRecordsB = new ObjList<>(workerCount);
+        this.perWorkerSortBuffers = new ObjList<>(workerCount);
+        try {
+            final long sortBufferCapacity = configuration.getPageFrameReduceRowIdListCapacity();
+            ownerComparator = comparatorCompiler.compile(metadata, sortColumnFilter);
+            ownerRecordB = new PageFrameMemoryRecord();
+            ownerSortBuffer = new DirectLongList(sortBufferCapacity, MemoryTag.NATIVE_OFFLOAD);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerComparators.extendAndSet(i, comparatorCompiler.compile(metadata, sortColumnFilter));
+                perWorkerRecordsB.extendAndSet(i, new PageFrameMemoryRecord());
+                perWorkerSortBuffers.extendAndSet(i, new DirectLongList(sortBufferCapacity, MemoryTag.NATIVE_OFFLOAD));
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own comparator and filter anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerRecordB);
+        Misc.freeObjListAndKeepObjects(perWorkerRecordsB);
+        ownerSortBuffer.resetCapacity();
+        for (int i = 0, n = perWorkerSortBuffers.size(); i < n; i++) {
+            perWorkerSortBuffers.getQuick(i).resetCapacity();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.free(ownerRecordB);
+        Misc.freeObjList(perWorkerRecordsB);
+        Misc.free(ownerSortBuffer);
+        Misc.freeObjList(perWorkerSortBuffers);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+
+        // Each record gets its own symbol table copies, so that symbol
+        // sort keys can be compared concurrently.
+        ownerRecordB.of(symbolTableSource);
+        for (int i = 0, n = perWorkerRecordsB.size(); i < n; i++) {
+            perWorkerRecordsB.getQuick(i).of(symbolTableSource);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Sorts row indexes of the given page frame in place. The sort is stable, so rows with
+     * equal keys preserve their original order within the frame.
+     *
+     * @param slotId      slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param frameMemory page frame the rows belong to
+     * @param recordA     record initialized with the page frame memory
+     * @param rows        row indexes to be sorted
+     */
+    public void sort(int slotId, PageFrameMemory frameMemory, PageFrameMemoryRecord recordA, DirectLongList rows) {
+        final long size = rows.size();
+        if (size < 2) {
+            return;
+        }
+
+        final RecordComparator comparator;
+        final PageFrameMemoryRecord recordB;
+        final DirectLongList buffer;
+        if (slotId == -1) {
+            comparator = ownerComparator;
+            recordB = ownerRecordB;
+            buffer = ownerSortBuffer;
+        } else {
+            comparator = perWorkerComparators.getQuick(slotId);
+            recordB = perWorkerRecordsB.getQuick(slotId);
+            buffer = perWorkerSortBuffers.getQuick(slotId);
+        }
+        recordB.init(frameMemory);
+
+        // sort short runs with insertion sort
+        final long rowsAddr = rows.getAddress();
+        for (long lo = 0; lo < size; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(comparator, recordA, recordB, rowsAddr, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, size));
+        }
+        if (size <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+
+        // then merge them bottom-up, ping-ponging between the row list and the buffer
+        if (buffer.getCapacity() < size) {
+            buffer.setCapacity(size);
+        }
+        long src = rowsAddr;
+        long dst = buffer.getAddress();
+        for (long width = INSERTION_SORT_THRESHOLD; width < size; width <<= 1) {
+            for (long lo = 0; lo < size; lo += width << 1) {
+                final long mid = Math.min(lo + width, size);
+                final long hi = Math.min(lo + (width << 1), size);
+                merge(comparator, recordA, recordB, src, dst, lo, mid, hi);
+            }
+            final long tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != rowsAddr) {
+            Vect.memcpy(rowsAddr, src, size << 3);
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    private static int compare(
+            RecordComparator comparator,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            long rowA,
+            long rowB
+    ) {
+        recordA.setRowIndex(rowA);
+        comparator.setLeft(recordA);
+        recordB.setRowIndex(rowB);
+        return comparator.compare(recordB);
+    }
+
+    private static long getRow(long addr, long index) {
+        return Unsafe.getUnsafe().getLong(addr + (index << 3));
+    }
+
+    private static void insertionSort(
+            RecordComparator comparator,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            long addr,
+            long lo,
+            long hi
+    ) {
+        for (long i = lo + 1; i < hi; i++) {
+            final long row = getRow(addr, i);
+            long j = i - 1;
+            while (j >= lo && compare(comparator, recordA, recordB, row, getRow(addr, j)) < 0) {
+                putRow(addr, j + 1, getRow(addr, j));
+                j--;
+            }
+            putRow(addr, j + 1, row);
+        }
+    }
+
+    private static void merge(
+            RecordComparator comparator,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            long src,
+            long dst,
+            long lo,
+            long mid,
+            long hi
+    ) {
+        if (mid >= hi || compare(comparator, recordA, recordB, getRow(src, mid), getRow(src, mid - 1)) >= 0) {
+            // the runs are already in order
+            Vect.memcpy(dst + (lo << 3), src + (lo << 3), (hi - lo) << 3);
+            return;
+        }
+
+        long i = lo;
+        long j = mid;
+        long k = lo;
+        while (i < mid && j < hi) {
+            final long rowI = getRow(src, i);
+            final long rowJ = getRow(src, j);
+            // take the right row only when it is strictly less to keep the sort stable
+            if (compare(comparator, recordA, recordB, rowJ, rowI) < 0) {
+                putRow(dst, k++, rowJ);
+                j++;
+            } else {
+                putRow(dst, k++, rowI);
+                i++;
+            }
+        }
+        if (i < mid) {
+            Vect.memcpy(dst + (k << 3), src + (i << 3), (mid - i) << 3);
+        } else if (j < hi) {
+            Vect.memcpy(dst + (k << 3), src + (j << 3), (hi - j) << 3);
+        }
+    }
+
+    private static void putRow(long addr, long index, long row) {
+        Unsafe.getUnsafe().putLong(addr + (index << 3), row);
+    }
+}
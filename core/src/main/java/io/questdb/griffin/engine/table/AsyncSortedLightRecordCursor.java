@@ -0,0 +1,412 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.RowIdSortRuns;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Collects page frame row indexes sorted by the workers and lazily k-way merges
+ * them with a binary heap of runs. Ties are broken by the frame order, so the
+ * output matches the one of the single-threaded sort.
+ * <p>
+ * When external sort is enabled and the collected row indexes outgrow the memory budget,
+ * the frame runs collected so far are merged into a run of row ids on disk, same as
+ * the single-threaded light sort does with its tree. The disk runs are then merged instead.
+ */
+class AsyncSortedLightRecordCursor implements RecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSortedLightRecordCursor.class);
+    private final RecordComparator comparator;
+    private final PageFrameMemoryPool frameMemoryPool;
+    private final IntList heap = new IntList();
+    private final PageFrameMemoryRecord heapRecordA;
+    private final PageFrameMemoryRecord heapRecordB;
+    private final PageFrameMemoryRecord record;
+    // frame index per sorted run
+    private final IntList runFrameIndexes = new IntList();
+    // start offset of each run in sortedRows, followed by the end offset of the last run
+    private final LongList runOffsets = new LongList();
+    // offset of the head row of each run in sortedRows
+    private final LongList runPositions = new LongList();
+    private final RowIdSortRuns runs;
+    private final DirectLongList sortedRows;
+    private final RowCursor sortedRowIds = new SortedRowIdCursor();
+    private final long spillMemoryBudget;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSortAtom> frameSequence;
+    private int heapSize;
+    private boolean isOpen;
+    private boolean isSorted;
+    private PageFrameMemoryRecord recordB;
+
+    public AsyncSortedLightRecordCursor(CairoConfiguration configuration, RecordComparator comparator) {
+        this.comparator = comparator;
+        this.record = new PageFrameMemoryRecord();
+        this.heapRecordA = new PageFrameMemoryRecord();
+        this.heapRecordB = new PageFrameMemoryRecord();
+        this.frameMemoryPool = new PageFrameMemoryPool();
+        this.sortedRows = new DirectLongList(configuration.getSqlSortLightValuePageSize() / Long.BYTES, MemoryTag.NATIVE_OFFLOAD);
+        if (RowIdSortRuns.isExternalSortEnabled(configuration)) {
+            this.runs = new RowIdSortRuns(configuration, comparator);
+            this.spillMemoryBudget = configuration.getSqlSortSpillMemoryBudget();
+        } else {
+            this.runs = null;
+            this.spillMemoryBudget = 0;
+        }
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            if (runs != null) {
+                runs.clear();
+            }
+            Misc.free(frameMemoryPool);
+            Misc.free(sortedRows);
+            runFrameIndexes.clear();
+            runOffsets.clear();
+            runPositions.clear();
+            heap.clear();
+            heapSize = 0;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(heapRecordA);
+        Misc.free(heapRecordB);
+        Misc.free(frameMemoryPool);
+        Misc.free(runs);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageFrameMemoryRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            collectRuns();
+            initHeap();
+            isSorted = true;
+        }
+
+        if (isSpilled()) {
+            final long rowId = runs.next();
+            if (rowId != -1) {
+                recordAt(record, rowId);
+                return true;
+            }
+            return false;
+        }
+
+        if (heapSize == 0) {
+            return false;
+        }
+
+        final int run = heap.getQuick(0);
+        frameMemoryPool.navigateTo(runFrameIndexes.getQuick(run), record);
+        record.setRowIndex(sortedRows.get(runPositions.getQuick(run)));
+        nextInHeap(run);
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final PageFrameMemoryRecord frameMemoryRecord = (PageFrameMemoryRecord) record;
+        frameMemoryPool.navigateTo(Rows.toPartitionIndex(atRowId), frameMemoryRecord);
+        frameMemoryRecord.setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        // same as the single-threaded sort, the size is known only when rows aren't filtered
+        return frameSequence.getAtom().getFilter(-1) == null ? frameSequence.getRowCount() : -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSpilled()) {
+            runs.toTop();
+        } else if (isSorted) {
+            initHeap();
+        }
+    }
+
+    private void collectRuns() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        int frameIndex = -1;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled())
+                                .setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    // Copy sorted rows before the task is released back to the queue.
+                    final DirectLongList rows = task.getFilteredRows();
+                    if (rows.size() > 0 && frameSequence.isActive()) {
+                        runFrameIndexes.add(frameIndex);
+                        runOffsets.add(sortedRows.size());
+                        sortedRows.addAll(rows);
+                    }
+
+                    frameSequence.collect(cursor, false);
+                    circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                    if (runs != null && sortedRows.size() * Long.BYTES > spillMemoryBudget) {
+                        spillRows();
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to sort.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("sort error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+
+        if (isSpilled()) {
+            // remaining rows become the last run, so that all rows are merged the same way
+            if (sortedRows.size() > 0) {
+                spillRows();
+            }
+            runs.toTop();
+        } else {
+            // sentinel end offset of the last run
+            runOffsets.add(sortedRows.size());
+        }
+    }
+
+    private void initHeap() {
+        final int runCount = runFrameIndexes.size();
+        runPositions.clear();
+        heap.clear();
+        for (int i = 0; i < runCount; i++) {
+            runPositions.add(runOffsets.getQuick(i));
+            heap.add(i);
+        }
+        heapSize = runCount;
+        for (int i = (heapSize >> 1) - 1; i > -1; i--) {
+            siftDown(i);
+        }
+    }
+
+    private boolean isSpilled() {
+        return runs != null && runs.getRunCount() > 0;
+    }
+
+    // Returns true when the head of run A goes before the head of run B.
+    private boolean isLess(int runA, int runB) {
+        frameMemoryPool.navigateTo(runFrameIndexes.getQuick(runA), heapRecordA);
+        heapRecordA.setRowIndex(sortedRows.get(runPositions.getQuick(runA)));
+        frameMemoryPool.navigateTo(runFrameIndexes.getQuick(runB), heapRecordB);
+        heapRecordB.setRowIndex(sortedRows.get(runPositions.getQuick(runB)));
+        comparator.setLeft(heapRecordA);
+        final int cmp = comparator.compare(heapRecordB);
+        // runs are ordered by frame index, so this keeps the sort stable
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+
+    // Consumes the head row of the given run, which must be at the top of the heap.
+    private void nextInHeap(int run) {
+        final long position = runPositions.getQuick(run) + 1;
+        if (position < runOffsets.getQuick(run + 1)) {
+            runPositions.setQuick(run, position);
+        } else {
+            // the run is exhausted, replace it with the last heap element
+            heap.setQuick(0, heap.getQuick(--heapSize));
+        }
+        if (heapSize > 1) {
+            siftDown(0);
+        }
+    }
+
+    private void siftDown(int index) {
+        final int run = heap.getQuick(index);
+        final int half = heapSize >> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int childRun = heap.getQuick(child);
+            final int right = child + 1;
+            if (right < heapSize && isLess(heap.getQuick(right), childRun)) {
+                child = right;
+                childRun = heap.getQuick(right);
+            }
+            if (!isLess(childRun, run)) {
+                break;
+            }
+            heap.setQuick(index, childRun);
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void spillRows() {
+        // sentinel end offset of the last run
+        runOffsets.add(sortedRows.size());
+        initHeap();
+        runs.spill(sortedRowIds);
+        sortedRows.clear();
+        runFrameIndexes.clear();
+        runOffsets.clear();
+        runPositions.clear();
+        heap.clear();
+        heapSize = 0;
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncSortAtom> frameSequence, SqlExecutionContext executionContext) {
+        if (!isOpen) {
+            isOpen = true;
+            sortedRows.reopen();
+        }
+        this.frameSequence = frameSequence;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        sortedRows.clear();
+        runFrameIndexes.clear();
+        runOffsets.clear();
+        runPositions.clear();
+        heap.clear();
+        heapSize = 0;
+        frameLimit = -1;
+        isSorted = false;
+        if (runs != null) {
+            runs.clear();
+            runs.of(this, heapRecordA, heapRecordB);
+        }
+        frameMemoryPool.of(frameSequence.getPageFrameAddressCache());
+        record.of(frameSequence.getSymbolTableSource());
+        heapRecordA.of(frameSequence.getSymbolTableSource());
+        heapRecordB.of(frameSequence.getSymbolTableSource());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource());
+        }
+    }
+
+    // Merges in-memory frame runs into row ids for spilling.
+    private class SortedRowIdCursor implements RowCursor {
+
+        @Override
+        public boolean hasNext() {
+            return heapSize > 0;
+        }
+
+        @Override
+        public long next() {
+            final int run = heap.getQuick(0);
+            final long rowId = Rows.toRowID(runFrameIndexes.getQuick(run), sortedRows.get(runPositions.getQuick(run)));
+            nextInHeap(run);
+            return rowId;
+        }
+    }
+}
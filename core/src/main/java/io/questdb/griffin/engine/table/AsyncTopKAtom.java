@@ -0,0 +1,403 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds per-worker state of parallel ORDER BY ... LIMIT N. Each worker keeps a bounded
+ * max-heap of the best N row ids it has seen so far across all page frames it reduced.
+ * Once all frames are reduced, the owner thread merges only N x (workers + 1) candidates.
+ * <p>
+ * When rows have equal sort keys, the rows seen first in the scan order are kept, so that
+ * the result is the same as the one of the single-threaded limited size sort.
+ */
+public class AsyncTopKAtom implements StatefulAtom, Closeable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final long limit;
+    private final RecordComparator ownerComparator;
+    private final PageFrameMemoryPool ownerFrameMemoryPool;
+    private final DirectLongList ownerHeap;
+    private final PageFrameMemoryRecord ownerRecordA;
+    private final PageFrameMemoryRecord ownerRecordB;
+    private final ObjList<RecordComparator> perWorkerComparators;
+    private final ObjList<Function> perWorkerFilters;
+    private final ObjList<PageFrameMemoryPool> perWorkerFrameMemoryPools;
+    private final ObjList<DirectLongList> perWorkerHeaps;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<PageFrameMemoryRecord> perWorkerRecordsA;
+    private final ObjList<PageFrameMemoryRecord> perWorkerRecordsB;
+
+    public AsyncTopKAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull RecordComparatorCompiler comparatorCompiler,
+            @NotNull RecordMetadata metadata,
+            @Transient @NotNull ListColumnFilter sortColumnFilter,
+            long limit,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        assert limit > -1;
+        this.limit = limit;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.perWorkerComparators = new ObjList<>(workerCount);
+        this.perWorkerFrameMemoryPools = new ObjList<>(workerCount);
+        this.perWorkerHeaps = new ObjList<>(workerCount);
+        this.perWorkerRecordsA = new ObjList<>(workerCount);
+        this.perWorkerRecordsB = new ObjList<>(workerCount);
+        try {
+            final long heapCapacity = Math.max(1, Math.min(limit, configuration.getPageFrameReduceRowIdListCapacity()));
+            ownerComparator = comparatorCompiler.compile(metadata, sortColumnFilter);
+            ownerFrameMemoryPool = new PageFrameMemoryPool();
+            ownerHeap = new DirectLongList(heapCapacity, MemoryTag.NATIVE_OFFLOAD);
+            ownerRecordA = new PageFrameMemoryRecord();
+            ownerRecordB = new PageFrameMemoryRecord();
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerComparators.extendAndSet(i, comparatorCompiler.compile(metadata, sortColumnFilter));
+                perWorkerFrameMemoryPools.extendAndSet(i, new PageFrameMemoryPool());
+                perWorkerHeaps.extendAndSet(i, new DirectLongList(heapCapacity, MemoryTag.NATIVE_OFFLOAD));
+                perWorkerRecordsA.extendAndSet(i, new PageFrameMemoryRecord());
+                perWorkerRecordsB.extendAndSet(i, new PageFrameMemoryRecord());
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own heap and filter anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerFrameMemoryPool);
+        Misc.free(ownerRecordA);
+        Misc.free(ownerRecordB);
+        Misc.freeObjListAndKeepObjects(perWorkerFrameMemoryPools);
+        Misc.freeObjListAndKeepObjects(perWorkerRecordsA);
+        Misc.freeObjListAndKeepObjects(perWorkerRecordsB);
+        ownerHeap.clear();
+        ownerHeap.resetCapacity();
+        for (int i = 0, n = perWorkerHeaps.size(); i < n; i++) {
+            final DirectLongList heap = perWorkerHeaps.getQuick(i);
+            heap.clear();
+            heap.resetCapacity();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.free(ownerFrameMemoryPool);
+        Misc.free(ownerRecordA);
+        Misc.free(ownerRecordB);
+        Misc.free(ownerHeap);
+        Misc.freeObjList(perWorkerFrameMemoryPools);
+        Misc.freeObjList(perWorkerRecordsA);
+        Misc.freeObjList(perWorkerRecordsB);
+        Misc.freeObjList(perWorkerHeaps);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+
+        // Each record gets its own symbol table copies, so that symbol
+        // sort keys can be compared concurrently.
+        ownerRecordA.of(symbolTableSource);
+        ownerRecordB.of(symbolTableSource);
+        ownerHeap.clear();
+        for (int i = 0, n = perWorkerHeaps.size(); i < n; i++) {
+            perWorkerRecordsA.getQuick(i).of(symbolTableSource);
+            perWorkerRecordsB.getQuick(i).of(symbolTableSource);
+            perWorkerHeaps.getQuick(i).clear();
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    /**
+     * Merges heaps of all workers into the given list and sorts it. Has to be called
+     * by the query owner thread once all page frames are reduced.
+     *
+     * @param frameAddressCache address cache of the reduced page frames
+     * @param dest              list to be populated with the top row ids in the sort order
+     */
+    public void merge(PageFrameAddressCache frameAddressCache, DirectLongList dest) {
+        dest.clear();
+        dest.addAll(ownerHeap);
+        for (int i = 0, n = perWorkerHeaps.size(); i < n; i++) {
+            dest.addAll(perWorkerHeaps.getQuick(i));
+        }
+
+        ownerFrameMemoryPool.of(frameAddressCache);
+        final long size = dest.size();
+        // heap sort: build the max-heap, then move the max element to the end one by one
+        for (long i = (size >> 1) - 1; i > -1; i--) {
+            siftDown(ownerComparator, ownerFrameMemoryPool, ownerRecordA, ownerRecordB, dest, i, size);
+        }
+        for (long n = size - 1; n > 0; n--) {
+            final long max = dest.get(0);
+            dest.set(0, dest.get(n));
+            dest.set(n, max);
+            siftDown(ownerComparator, ownerFrameMemoryPool, ownerRecordA, ownerRecordB, dest, 0, n);
+        }
+        if (size > limit) {
+            dest.setPos(limit);
+        }
+
+        // The single-threaded limited size sort emits rows with equal keys in the reverse
+        // scan order, so we do the same with each group of equal rows.
+        for (long lo = 0, n = dest.size(); lo < n; ) {
+            long hi = lo + 1;
+            while (hi < n && compareKeys(ownerComparator, ownerFrameMemoryPool, ownerRecordA, ownerRecordB, dest.get(lo), dest.get(hi)) == 0) {
+                hi++;
+            }
+            for (long i = lo, j = hi - 1; i < j; i++, j--) {
+                final long tmp = dest.get(i);
+                dest.set(i, dest.get(j));
+                dest.set(j, tmp);
+            }
+            lo = hi;
+        }
+    }
+
+    /**
+     * Offers rows of the given page frame to the slot's bounded heap.
+     *
+     * @param slotId            slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param frameAddressCache address cache of the reduced page frames
+     * @param frameIndex        page frame index
+     * @param rows              row indexes within the page frame
+     */
+    public void offer(int slotId, PageFrameAddressCache frameAddressCache, int frameIndex, DirectLongList rows) {
+        if (limit == 0) {
+            return;
+        }
+
+        final RecordComparator comparator;
+        final PageFrameMemoryPool frameMemoryPool;
+        final PageFrameMemoryRecord recordA;
+        final PageFrameMemoryRecord recordB;
+        final DirectLongList heap;
+        if (slotId == -1) {
+            comparator = ownerComparator;
+            frameMemoryPool = ownerFrameMemoryPool;
+            recordA = ownerRecordA;
+            recordB = ownerRecordB;
+            heap = ownerHeap;
+        } else {
+            comparator = perWorkerComparators.getQuick(slotId);
+            frameMemoryPool = perWorkerFrameMemoryPools.getQuick(slotId);
+            recordA = perWorkerRecordsA.getQuick(slotId);
+            recordB = perWorkerRecordsB.getQuick(slotId);
+            heap = perWorkerHeaps.getQuick(slotId);
+        }
+        frameMemoryPool.of(frameAddressCache);
+
+        for (long i = 0, n = rows.size(); i < n; i++) {
+            final long rowId = Rows.toRowID(frameIndex, rows.get(i));
+            final long size = heap.size();
+            if (size < limit) {
+                // sift the new row up
+                heap.add(rowId);
+                long index = size;
+                while (index > 0) {
+                    final long parentIndex = (index - 1) >> 1;
+                    final long parentRowId = heap.get(parentIndex);
+                    if (compare(comparator, frameMemoryPool, recordA, recordB, rowId, parentRowId) <= 0) {
+                        break;
+                    }
+                    heap.set(index, parentRowId);
+                    index = parentIndex;
+                }
+                heap.set(index, rowId);
+            } else if (compare(comparator, frameMemoryPool, recordA, recordB, rowId, heap.get(0)) < 0) {
+                // the row goes before the current max, so it replaces the max
+                heap.set(0, rowId);
+                siftDown(comparator, frameMemoryPool, recordA, recordB, heap, 0, size);
+            }
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    private static int compare(
+            RecordComparator comparator,
+            PageFrameMemoryPool frameMemoryPool,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            long rowIdA,
+            long rowIdB
+    ) {
+        final int cmp = compareKeys(comparator, frameMemoryPool, recordA, recordB, rowIdA, rowIdB);
+        // row ids follow the scan order, so the rows seen first win the ties
+        return cmp != 0 ? cmp : Long.compare(rowIdA, rowIdB);
+    }
+
+    private static int compareKeys(
+            RecordComparator comparator,
+            PageFrameMemoryPool frameMemoryPool,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            long rowIdA,
+            long rowIdB
+    ) {
+        frameMemoryPool.navigateTo(Rows.toPartitionIndex(rowIdA), recordA);
+        recordA.setRowIndex(Rows.toLocalRowID(rowIdA));
+        frameMemoryPool.navigateTo(Rows.toPartitionIndex(rowIdB), recordB);
+        recordB.setRowIndex(Rows.toLocalRowID(rowIdB));
+        comparator.setLeft(recordA);
+        return comparator.compare(recordB);
+    }
+
+    private static void siftDown(
+            RecordComparator comparator,
+            PageFrameMemoryPool frameMemoryPool,
+            PageFrameMemoryRecord recordA,
+            PageFrameMemoryRecord recordB,
+            DirectLongList heap,
+            long index,
+            long size
+    ) {
+        final long rowId = heap.get(index);
+        final long half = size >> 1;
+        while (index < half) {
+            long child = (index << 1) + 1;
+            long childRowId = heap.get(child);
+            final long right = child + 1;
+            if (right < size) {
+                final long rightRowId = heap.get(right);
+                if (compare(comparator, frameMemoryPool, recordA, recordB, rightRowId, childRowId) > 0) {
+                    child = right;
+                    childRowId = rightRowId;
+                }
+            }
+            if (compare(comparator, frameMemoryPool, recordA, recordB, childRowId, rowId) <= 0) {
+                break;
+            }
+            heap.set(index, childRowId);
+            index = child;
+        }
+        heap.set(index, rowId);
+    }
+}
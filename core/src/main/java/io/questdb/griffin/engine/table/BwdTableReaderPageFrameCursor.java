@@ -27,11 +27,14 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.PartitionStatsFilter;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryCMR;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
 import org.jetbrains.annotations.Nullable;
 
 public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
@@ -40,6 +43,8 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     private final LongList columnPageAddress = new LongList();
     private final LongList columnPageNextAddress = new LongList();
     private final IntList columnSizeShifts;
+    // <compressed file address, frame offset within the decoded column> per column, see PageFrame#getCompressedPageAddress()
+    private final LongList compressedPageAddresses = new LongList();
     // Holds PageFrame#*_FORMAT per each partition.
     private final ByteList formats = new ByteList();
     private final TableReaderPageFrame frame = new TableReaderPageFrame();
@@ -48,6 +53,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     private final LongList pageRowsRemaining = new LongList();
     private final LongList pageSizes = new LongList();
     private final IntList pages = new IntList();
+    private final PartitionStatsFilter statsFilter;
     private final LongList topsRemaining = new LongList();
     private final int workerCount;
     private long currentPageFrameRowLimit;
@@ -63,7 +69,8 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             IntList columnSizeShifts,
             int workerCount,
             int pageFrameMinRows,
-            int pageFrameMaxRows
+            int pageFrameMaxRows,
+            PartitionStatsFilter statsFilter
     ) {
         this.columnIndexes = columnIndexes;
         this.columnSizeShifts = columnSizeShifts;
@@ -71,6 +78,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         this.workerCount = workerCount;
         this.pageFrameMinRows = pageFrameMinRows;
         this.pageFrameMaxRows = pageFrameMaxRows;
+        this.statsFilter = statsFilter;
     }
 
     @Override
@@ -78,6 +86,13 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         partitionFrameCursor.calculateSize(counter);
     }
 
+    @Override
+    public boolean canSkip(PageFrame frame) {
+        return !statsFilter.isEmpty()
+                && frame.getFormat() == PageFrame.NATIVE_FORMAT
+                && statsFilter.canSkip(reader, columnIndexes, frame.getPartitionIndex(), frame.getPartitionLo(), frame.getPartitionHi());
+    }
+
     @Override
     public void close() {
         partitionFrameCursor = Misc.free(partitionFrameCursor);
@@ -146,6 +161,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         pages.setAll(columnCount, 0);
         topsRemaining.setAll(columnCount, 0);
         columnPageAddress.setAll(2 * columnCount, 0);
+        compressedPageAddresses.setAll(2 * columnCount, 0);
         columnPageNextAddress.setAll(2 * columnCount, 0);
         pageRowsRemaining.setAll(columnCount, -1L);
         pageSizes.setAll(2 * columnCount, -1L);
@@ -180,12 +196,19 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
 
             if (partitionHiAdjusted > 0) {
                 if (sh > -1) {
-                    // this assumes reader uses single page to map the whole column
                     // non-negative sh means fixed length column
-                    final long address = colMem.getPageAddress(0);
                     final long addressSize = partitionHiAdjusted << sh;
                     final long offset = partitionLoAdjusted << sh;
-                    columnPageAddress.setQuick(2 * i, address + offset);
+                    if (colMem instanceof MemoryCMRCompressedImpl) {
+                        // compressed column has no decoded page, the frame is decoded on navigation
+                        columnPageAddress.setQuick(2 * i, 0);
+                        compressedPageAddresses.setQuick(2 * i, ((MemoryCMRCompressedImpl) colMem).getFileAddress());
+                        compressedPageAddresses.setQuick(2 * i + 1, offset);
+                    } else {
+                        // this assumes reader uses single page to map the whole column
+                        columnPageAddress.setQuick(2 * i, colMem.getPageAddress(0) + offset);
+                        compressedPageAddresses.setQuick(2 * i, 0);
+                    }
                     pageSizes.setQuick(2 * i, addressSize - offset);
                 } else {
                     final int columnType = reader.getMetadata().getColumnType(columnIndex);
@@ -207,6 +230,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             } else { // column top
                 columnPageAddress.setQuick(2 * i, 0);
                 columnPageAddress.setQuick(2 * i + 1, 0);
+                compressedPageAddresses.setQuick(2 * i, 0);
                 // data page size is used by VectorAggregateFunction as the size hint
                 // in the following way:
                 //   size = page_size >>> column_size_hint
@@ -260,6 +284,16 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return columnCount;
         }
 
+        @Override
+        public long getCompressedPageAddress(int columnIndex) {
+            return compressedPageAddresses.getQuick(2 * columnIndex);
+        }
+
+        @Override
+        public long getCompressedPageOffset(int columnIndex) {
+            return compressedPageAddresses.getQuick(2 * columnIndex + 1);
+        }
+
         @Override
         public byte getFormat() {
             return formats.getQuick(partitionIndex);
@@ -275,6 +309,21 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return pageSizes.getQuick(2 * columnIndex);
         }
 
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            return -1;
+        }
+
+        @Override
+        public @Nullable LPSZ getParquetPath() {
+            return null;
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return -1;
+        }
+
         @Override
         public long getPartitionHi() {
             return partitionHi;
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.str.CharSink;
@@ -121,6 +122,12 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
         return null;
     }
 
+    @Override
+    public void pushDownFilter(ExpressionNode filter) {
+        // page frames that can't match the filter are skipped based on zone maps
+        statsFilter.of(filter, getMetadata());
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return supportsRandomAccess;
@@ -172,13 +179,15 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
             PartitionFrameCursor partitionFrameCursor,
             SqlExecutionContext executionContext
     ) {
+        statsFilter.prepare(executionContext);
         if (bwdPageFrameCursor == null) {
             bwdPageFrameCursor = new BwdTableReaderPageFrameCursor(
                     columnIndexes,
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    statsFilter
             );
         }
         return bwdPageFrameCursor.of(partitionFrameCursor);
@@ -188,13 +197,15 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
             PartitionFrameCursor partitionFrameCursor,
             SqlExecutionContext executionContext
     ) {
+        statsFilter.prepare(executionContext);
         if (fwdPageFrameCursor == null) {
             fwdPageFrameCursor = new FwdTableReaderPageFrameCursor(
                     columnIndexes,
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    statsFilter
             );
         }
         return fwdPageFrameCursor.of(partitionFrameCursor);
@@ -101,6 +101,10 @@ class PageFrameRecordCursorImpl extends AbstractPageFrameRecordCursor {
 
             PageFrame frame;
             while ((frame = frameCursor.next()) != null) {
+                if (frameCursor.canSkip(frame)) {
+                    // none of the frame rows can match the filter
+                    continue;
+                }
                 frameAddressCache.add(frameCount, frame);
                 final PageFrameMemory frameMemory = frameMemoryPool.navigateTo(frameCount++);
                 rowCursor = rowCursorFactory.getCursor(frame, frameMemory);
@@ -0,0 +1,561 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.FullFwdPartitionFrameCursorFactory;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.TableMetadata;
+import io.questdb.cairo.wal.SymbolMapDiff;
+import io.questdb.cairo.wal.SymbolMapDiffEntry;
+import io.questdb.cairo.wal.WalDataRecord;
+import io.questdb.cairo.wal.WalEventCursor;
+import io.questdb.cairo.wal.WalEventReader;
+import io.questdb.cairo.wal.WalReader;
+import io.questdb.cairo.wal.WalTxnType;
+import io.questdb.cairo.wal.seq.TransactionLogCursor;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.IntObjHashMap;
+import io.questdb.std.Long256;
+import io.questdb.std.LongList;
+import io.questdb.std.LongObjHashMap;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+
+import static io.questdb.cairo.wal.WalUtils.WAL_FORMAT_VERSION;
+import static io.questdb.cairo.wal.WalUtils.WAL_NAME_BASE;
+
+/**
+ * Full table scan that additionally returns rows of WAL transactions which are committed
+ * to the sequencer but not yet applied to the table. Table rows come first, as seen by the
+ * table reader, followed by pending WAL rows in sequencer txn order.
+ * <p>
+ * Pending transactions are read up to the first one that is not a plain data commit, e.g.
+ * an ALTER, UPDATE or TRUNCATE. Rows past such a transaction could only be interpreted
+ * after the transaction itself is applied.
+ * <p>
+ * WAL rows are not sorted, so the output has no designated timestamp. Symbol keys in WAL
+ * segments are local to the segment, hence symbol columns are exposed as strings.
+ */
+public class PendingWalRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(PendingWalRecordCursorFactory.class);
+    private final PageFrameRecordCursorFactory base;
+    private final PendingWalRecordCursor cursor;
+    private final Path path = new Path();
+    private final TableToken tableToken;
+
+    public PendingWalRecordCursorFactory(CairoConfiguration configuration, TableMetadata tableMetadata) {
+        super(toPendingWalMetadata(tableMetadata));
+        this.tableToken = tableMetadata.getTableToken();
+        final int columnCount = tableMetadata.getColumnCount();
+        final IntList columnIndexes = new IntList(columnCount);
+        final IntList columnSizeShifts = new IntList(columnCount);
+        final IntList symbolColumns = new IntList(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int type = tableMetadata.getColumnType(i);
+            columnIndexes.add(i);
+            columnSizeShifts.add(Numbers.msb(ColumnType.sizeOf(type)));
+            symbolColumns.add(ColumnType.isSymbol(type) ? 1 : 0);
+        }
+        this.base = new PageFrameRecordCursorFactory(
+                configuration,
+                GenericRecordMetadata.deepCopyOf(tableMetadata),
+                new FullFwdPartitionFrameCursorFactory(tableToken, tableMetadata.getMetadataVersion(), GenericRecordMetadata.deepCopyOf(tableMetadata)),
+                new PageFrameFwdRowCursorFactory(),
+                false,
+                null,
+                true,
+                columnIndexes,
+                columnSizeShifts,
+                false
+        );
+        this.cursor = new PendingWalRecordCursor(configuration, getMetadata(), symbolColumns, path);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameRecordCursor baseCursor = (PageFrameRecordCursor) base.getCursor(executionContext);
+        try {
+            cursor.of(executionContext.getCairoEngine(), baseCursor);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("PendingWal");
+        sink.meta("on").val(tableToken.getTableName());
+        sink.child(base);
+    }
+
+    private static RecordMetadata toPendingWalMetadata(TableMetadata tableMetadata) {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        for (int i = 0, n = tableMetadata.getColumnCount(); i < n; i++) {
+            final int type = tableMetadata.getColumnType(i);
+            metadata.add(new TableColumnMetadata(
+                    tableMetadata.getColumnName(i),
+                    ColumnType.isSymbol(type) ? ColumnType.STRING : type
+            ));
+        }
+        return metadata;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(path);
+    }
+
+    private static class PendingWalRecordCursor implements RecordCursor {
+        // walId, segmentId, segmentTxn, startRowID, endRowID per pending transaction
+        private static final int ENTRY_SIZE = 5;
+        private final CairoConfiguration configuration;
+        private final WalEventReader eventReader;
+        private final RecordMetadata metadata;
+        private final ObjList<WalReader> openReaders = new ObjList<>();
+        private final Path path;
+        private final LongList pendingTxns = new LongList();
+        private final LongObjHashMap<WalReader> readers = new LongObjHashMap<>();
+        private final PendingWalRecord record;
+        private final IntList symbolColumns;
+        private final IntList tableColumnIndexes = new IntList();
+        private final ObjList<IntObjHashMap<String>> txnSymbols = new ObjList<>();
+        private final IntList walColumnIndexes = new IntList();
+        private final WalDataRecord walRecord = new WalDataRecord();
+        private PageFrameRecordCursor baseCursor;
+        private boolean baseExhausted;
+        private long endRowId;
+        private int entryIndex;
+        private TableToken tableToken;
+
+        private PendingWalRecordCursor(CairoConfiguration configuration, RecordMetadata metadata, IntList symbolColumns, Path path) {
+            this.configuration = configuration;
+            this.eventReader = new WalEventReader(configuration.getFilesFacade());
+            this.path = path;
+            this.metadata = metadata;
+            this.symbolColumns = symbolColumns;
+            this.record = new PendingWalRecord();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                tableColumnIndexes.add(i);
+                txnSymbols.add(symbolColumns.getQuick(i) == 1 ? new IntObjHashMap<>() : null);
+            }
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            Misc.free(eventReader);
+            closeReaders();
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!baseExhausted) {
+                if (baseCursor.hasNext()) {
+                    return true;
+                }
+                baseExhausted = true;
+                entryIndex = -ENTRY_SIZE;
+                endRowId = 0;
+            }
+
+            walRecord.incrementRecordIndex();
+            while (walRecord.getRecordIndex() >= endRowId) {
+                entryIndex += ENTRY_SIZE;
+                if (entryIndex >= pendingTxns.size()) {
+                    return false;
+                }
+                if (!switchToEntry(entryIndex)) {
+                    pendingTxns.setPos(entryIndex);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            baseExhausted = false;
+            record.of(baseCursor.getRecord(), tableColumnIndexes, false);
+        }
+
+        private static int findWalColumn(WalReader reader, CharSequence columnName) {
+            for (int i = 0, n = reader.getColumnCount(); i < n; i++) {
+                if (reader.getColumnType(i) > 0 && Chars.equalsIgnoreCase(reader.getColumnName(i), columnName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static long segmentKey(long walId, long segmentId) {
+            return (walId << 32) | segmentId;
+        }
+
+        private void closeReaders() {
+            readers.clear();
+            Misc.freeObjListAndClear(openReaders);
+        }
+
+        private void collectPendingTxns(CairoEngine engine, long readerSeqTxn) {
+            pendingTxns.clear();
+            try (
+                    TransactionLogCursor logCursor = engine.getTableSequencerAPI().getCursor(tableToken, readerSeqTxn);
+                    WalEventReader eventReader = this.eventReader
+            ) {
+                while (logCursor.hasNext()) {
+                    final int walId = logCursor.getWalId();
+                    if (walId < 1) {
+                        // metadata change or table drop
+                        break;
+                    }
+                    final int segmentId = logCursor.getSegmentId();
+                    final int segmentTxn = logCursor.getSegmentTxn();
+                    final WalEventCursor eventCursor = eventReader.of(segmentPath(walId, segmentId), WAL_FORMAT_VERSION, segmentTxn);
+                    if (eventCursor.getType() != WalTxnType.DATA) {
+                        break;
+                    }
+                    final WalEventCursor.DataInfo dataInfo = eventCursor.getDataInfo();
+                    pendingTxns.add(walId, segmentId, segmentTxn, dataInfo.getStartRowID());
+                    pendingTxns.add(dataInfo.getEndRowID());
+                }
+            }
+        }
+
+        private CharSequence getWalSymbol(int col, boolean b) {
+            final int key = walRecord.getInt(walColumnIndexes.getQuick(col));
+            if (key < 0) {
+                return null;
+            }
+            // symbol keys of a WAL transaction are either keys of the table's
+            // symbol map or the keys added by the transaction itself
+            final String value = txnSymbols.getQuick(col).get(key);
+            if (value != null) {
+                return value;
+            }
+            final StaticSymbolTable symbolTable = baseCursor.getSymbolTable(col);
+            return b ? symbolTable.valueBOf(key) : symbolTable.valueOf(key);
+        }
+
+        private void loadTxnSymbols(int walId, int segmentId, int segmentTxn) {
+            for (int i = 0, n = txnSymbols.size(); i < n; i++) {
+                final IntObjHashMap<String> symbols = txnSymbols.getQuick(i);
+                if (symbols != null) {
+                    symbols.clear();
+                }
+            }
+            try (WalEventReader eventReader = this.eventReader) {
+                final WalEventCursor eventCursor = eventReader.of(segmentPath(walId, segmentId), WAL_FORMAT_VERSION, segmentTxn);
+                final WalEventCursor.DataInfo dataInfo = eventCursor.getDataInfo();
+                SymbolMapDiff symbolDiff = dataInfo.nextSymbolMapDiff();
+                while (symbolDiff != null) {
+                    IntObjHashMap<String> symbols = null;
+                    for (int i = 0, n = walColumnIndexes.size(); i < n; i++) {
+                        if (walColumnIndexes.getQuick(i) == symbolDiff.getColumnIndex()) {
+                            symbols = txnSymbols.getQuick(i);
+                            break;
+                        }
+                    }
+                    SymbolMapDiffEntry entry = symbolDiff.nextEntry();
+                    while (entry != null) {
+                        if (symbols != null) {
+                            symbols.put(entry.getKey(), Chars.toString(entry.getSymbol()));
+                        }
+                        entry = symbolDiff.nextEntry();
+                    }
+                    symbolDiff = dataInfo.nextSymbolMapDiff();
+                }
+            }
+        }
+
+        private void of(CairoEngine engine, PageFrameRecordCursor baseCursor) {
+            this.baseCursor = baseCursor;
+            this.tableToken = baseCursor.getPageFrameCursor().getTableReader().getTableToken();
+            closeReaders();
+            collectPendingTxns(engine, baseCursor.getPageFrameCursor().getTableReader().getTxFile().getSeqTxn());
+            toTop();
+        }
+
+        private Path segmentPath(long walId, long segmentId) {
+            return path.of(configuration.getRoot()).concat(tableToken).concat(WAL_NAME_BASE).put(walId).slash().put(segmentId);
+        }
+
+        private boolean switchToEntry(int index) {
+            final long walId = pendingTxns.getQuick(index);
+            final long segmentId = pendingTxns.getQuick(index + 1);
+            final long key = segmentKey(walId, segmentId);
+            WalReader reader = readers.get(key);
+            if (reader == null) {
+                // map the segment once, up to the last row referenced by any pending txn
+                long rowCount = 0;
+                for (int i = index, n = pendingTxns.size(); i < n; i += ENTRY_SIZE) {
+                    if (pendingTxns.getQuick(i) == walId && pendingTxns.getQuick(i + 1) == segmentId) {
+                        rowCount = Math.max(rowCount, pendingTxns.getQuick(i + 4));
+                    }
+                }
+                reader = new WalReader(configuration, tableToken, WAL_NAME_BASE + walId, (int) segmentId, rowCount);
+                openReaders.add(reader);
+                readers.put(key, reader);
+            }
+
+            walColumnIndexes.clear();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int walColumnIndex = findWalColumn(reader, metadata.getColumnName(i));
+                if (walColumnIndex < 0) {
+                    LOG.info().$("pending WAL segment does not match table structure [table=").$(tableToken)
+                            .$(", wal=").$(walId)
+                            .$(", segment=").$(segmentId)
+                            .$(", column=").$(metadata.getColumnName(i))
+                            .I$();
+                    return false;
+                }
+                walColumnIndexes.add(walColumnIndex);
+            }
+            loadTxnSymbols((int) walId, (int) segmentId, (int) pendingTxns.getQuick(index + 2));
+
+            walRecord.of(reader);
+            walRecord.jumpTo(pendingTxns.getQuick(index + 3));
+            endRowId = pendingTxns.getQuick(index + 4);
+            record.of(walRecord, walColumnIndexes, true);
+            return true;
+        }
+
+        private class PendingWalRecord implements Record {
+            private Record base;
+            private IntList columnIndexes;
+            private boolean wal;
+
+            @Override
+            public BinarySequence getBin(int col) {
+                return base.getBin(getColumnIndex(col));
+            }
+
+            @Override
+            public long getBinLen(int col) {
+                return base.getBinLen(getColumnIndex(col));
+            }
+
+            @Override
+            public boolean getBool(int col) {
+                return base.getBool(getColumnIndex(col));
+            }
+
+            @Override
+            public byte getByte(int col) {
+                return base.getByte(getColumnIndex(col));
+            }
+
+            @Override
+            public char getChar(int col) {
+                return base.getChar(getColumnIndex(col));
+            }
+
+            @Override
+            public long getDate(int col) {
+                return base.getDate(getColumnIndex(col));
+            }
+
+            @Override
+            public double getDouble(int col) {
+                return base.getDouble(getColumnIndex(col));
+            }
+
+            @Override
+            public float getFloat(int col) {
+                return base.getFloat(getColumnIndex(col));
+            }
+
+            @Override
+            public byte getGeoByte(int col) {
+                return base.getGeoByte(getColumnIndex(col));
+            }
+
+            @Override
+            public int getGeoInt(int col) {
+                return base.getGeoInt(getColumnIndex(col));
+            }
+
+            @Override
+            public long getGeoLong(int col) {
+                return base.getGeoLong(getColumnIndex(col));
+            }
+
+            @Override
+            public short getGeoShort(int col) {
+                return base.getGeoShort(getColumnIndex(col));
+            }
+
+            @Override
+            public int getIPv4(int col) {
+                return base.getIPv4(getColumnIndex(col));
+            }
+
+            @Override
+            public int getInt(int col) {
+                return base.getInt(getColumnIndex(col));
+            }
+
+            @Override
+            public long getLong(int col) {
+                return base.getLong(getColumnIndex(col));
+            }
+
+            @Override
+            public long getLong128Hi(int col) {
+                return base.getLong128Hi(getColumnIndex(col));
+            }
+
+            @Override
+            public long getLong128Lo(int col) {
+                return base.getLong128Lo(getColumnIndex(col));
+            }
+
+            @Override
+            public void getLong256(int col, CharSink<?> sink) {
+                base.getLong256(getColumnIndex(col), sink);
+            }
+
+            @Override
+            public Long256 getLong256A(int col) {
+                return base.getLong256A(getColumnIndex(col));
+            }
+
+            @Override
+            public Long256 getLong256B(int col) {
+                return base.getLong256B(getColumnIndex(col));
+            }
+
+            @Override
+            public short getShort(int col) {
+                return base.getShort(getColumnIndex(col));
+            }
+
+            @Override
+            public CharSequence getStrA(int col) {
+                if (symbolColumns.getQuick(col) == 1) {
+                    return wal ? getWalSymbol(col, false) : base.getSymA(col);
+                }
+                return base.getStrA(getColumnIndex(col));
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                if (symbolColumns.getQuick(col) == 1) {
+                    return wal ? getWalSymbol(col, true) : base.getSymB(col);
+                }
+                return base.getStrB(getColumnIndex(col));
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                if (symbolColumns.getQuick(col) == 1) {
+                    return TableUtils.lengthOf(getStrA(col));
+                }
+                return base.getStrLen(getColumnIndex(col));
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                return base.getTimestamp(getColumnIndex(col));
+            }
+
+            @Override
+            public Utf8Sequence getVarcharA(int col) {
+                return base.getVarcharA(getColumnIndex(col));
+            }
+
+            @Override
+            public Utf8Sequence getVarcharB(int col) {
+                return base.getVarcharB(getColumnIndex(col));
+            }
+
+            @Override
+            public int getVarcharSize(int col) {
+                return base.getVarcharSize(getColumnIndex(col));
+            }
+
+            private int getColumnIndex(int col) {
+                return columnIndexes.getQuick(col);
+            }
+
+            private void of(Record base, IntList columnIndexes, boolean wal) {
+                this.base = base;
+                this.columnIndexes = columnIndexes;
+                this.wal = wal;
+            }
+        }
+    }
+}
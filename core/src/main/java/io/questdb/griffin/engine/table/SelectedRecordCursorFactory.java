@@ -36,6 +36,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.str.LPSZ;
 import org.jetbrains.annotations.Nullable;
 
 public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -192,6 +193,16 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             return columnCrossIndex.size();
         }
 
+        @Override
+        public long getCompressedPageAddress(int columnIndex) {
+            return baseFrame.getCompressedPageAddress(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public long getCompressedPageOffset(int columnIndex) {
+            return baseFrame.getCompressedPageOffset(columnCrossIndex.getQuick(columnIndex));
+        }
+
         @Override
         public byte getFormat() {
             return baseFrame.getFormat();
@@ -207,6 +218,21 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             return baseFrame.getPageSize(columnCrossIndex.getQuick(columnIndex));
         }
 
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            return baseFrame.getParquetColumnIndex(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public @Nullable LPSZ getParquetPath() {
+            return baseFrame.getParquetPath();
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return baseFrame.getParquetRowGroup();
+        }
+
         @Override
         public long getPartitionHi() {
             return baseFrame.getPartitionHi();
@@ -43,7 +43,9 @@ public class PartitionDecoder implements QuietCloseable {
     public static final int INT32_PHYSICAL_TYPE = 1;
     public static final int INT64_PHYSICAL_TYPE = 2;
     private static final long CHUNK_AUX_PTR_OFFSET;
+    private static final long CHUNK_AUX_SIZE_OFFSET;
     private static final long CHUNK_DATA_PTR_OFFSET;
+    private static final long CHUNK_DATA_SIZE_OFFSET;
     private static final long CHUNK_ROW_GROUP_COUNT_PTR_OFFSET;
     private static final long COLUMNS_PTR_OFFSET;
     private static final long COLUMN_COUNT_OFFSET;
@@ -61,6 +63,8 @@ public class PartitionDecoder implements QuietCloseable {
     private long columnsPtr;
     private long fd;
     private long ptr;
+    // min, max and null count of the last read column chunk statistics
+    private long rowGroupStatsPtr;
 
     public PartitionDecoder(FilesFacade ff) {
         this.ff = ff;
@@ -70,10 +74,18 @@ public class PartitionDecoder implements QuietCloseable {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_AUX_PTR_OFFSET);
     }
 
+    public static long getChunkAuxSize(long chunkPtr) {
+        return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_AUX_SIZE_OFFSET);
+    }
+
     public static long getChunkDataPtr(long chunkPtr) {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_DATA_PTR_OFFSET);
     }
 
+    public static long getChunkDataSize(long chunkPtr) {
+        return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_DATA_SIZE_OFFSET);
+    }
+
     public static long getRowGroupRowCount(long chunkPtr) {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_ROW_GROUP_COUNT_PTR_OFFSET);
     }
@@ -83,6 +95,7 @@ public class PartitionDecoder implements QuietCloseable {
         destroy();
         // parquet decoder will close the FD
         fd = -1;
+        rowGroupStatsPtr = Unsafe.free(rowGroupStatsPtr, 3 * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
     }
 
     public long decodeColumnChunk(
@@ -114,6 +127,44 @@ public class PartitionDecoder implements QuietCloseable {
         return metadata;
     }
 
+    public long getRowGroupMax() {
+        return Unsafe.getUnsafe().getLong(rowGroupStatsPtr + Long.BYTES);
+    }
+
+    public long getRowGroupMin() {
+        return Unsafe.getUnsafe().getLong(rowGroupStatsPtr);
+    }
+
+    /**
+     * Returns null count of the column chunk read by the last successful
+     * {@link #readRowGroupMinMax(int, int)} call or -1 if the count is unknown.
+     */
+    public long getRowGroupNullCount() {
+        return Unsafe.getUnsafe().getLong(rowGroupStatsPtr + 2 * Long.BYTES);
+    }
+
+    /**
+     * Reads min/max statistics of the given column chunk. The values are then available via
+     * {@link #getRowGroupMin()}, {@link #getRowGroupMax()} and {@link #getRowGroupNullCount()}.
+     *
+     * @return false if the file has no statistics for the chunk or if the statistics
+     * can't be compared with the column values, e.g. for non-integer columns
+     */
+    public boolean readRowGroupMinMax(int rowGroup, int columnIndex) {
+        assert ptr != 0;
+        if (rowGroupStatsPtr == 0) {
+            rowGroupStatsPtr = Unsafe.malloc(3 * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+        try {
+            return rowGroupMinMax(ptr, rowGroup, columnIndex, rowGroupStatsPtr);
+        } catch (Throwable th) {
+            throw CairoException.nonCritical().put("could not read row group statistics [rowGroup=").put(rowGroup)
+                    .put(", columnIndex=").put(columnIndex)
+                    .put(", msg=").put(th.getMessage())
+                    .put(']');
+        }
+    }
+
     public void of(@Transient LPSZ srcPath) {
         destroy();
         this.fd = TableUtils.openRO(ff, srcPath, LOG);
@@ -130,8 +181,12 @@ public class PartitionDecoder implements QuietCloseable {
 
     private static native long chunkAuxPtrOffset();
 
+    private static native long chunkAuxSizeOffset();
+
     private static native long chunkDataPtrOffset();
 
+    private static native long chunkDataSizeOffset();
+
     private static native long chunkRowGroupCountPtrOffset();
 
     private static native long columnCountOffset();
@@ -165,6 +220,10 @@ public class PartitionDecoder implements QuietCloseable {
 
     private static native long rowGroupCountOffset();
 
+    private static native boolean rowGroupMinMax(long decoderPtr, int rowGroup, int columnIndex, long outPtr);
+
+    private static native long rowGroupSize(long decoderPtr, int rowGroup);
+
     private void destroy() {
         if (ptr != 0) {
             destroy(ptr);
@@ -207,6 +266,10 @@ public class PartitionDecoder implements QuietCloseable {
             return Unsafe.getUnsafe().getInt(ptr + ROW_GROUP_COUNT_OFFSET);
         }
 
+        public long rowGroupSize(int rowGroup) {
+            return PartitionDecoder.rowGroupSize(ptr, rowGroup);
+        }
+
         private void init() {
             columnNames.clear();
             directStringPool.clear();
@@ -238,6 +301,8 @@ public class PartitionDecoder implements QuietCloseable {
         COLUMN_IDS_OFFSET = columnIdsOffset();
         CHUNK_DATA_PTR_OFFSET = chunkDataPtrOffset();
         CHUNK_AUX_PTR_OFFSET = chunkAuxPtrOffset();
+        CHUNK_DATA_SIZE_OFFSET = chunkDataSizeOffset();
+        CHUNK_AUX_SIZE_OFFSET = chunkAuxSizeOffset();
         CHUNK_ROW_GROUP_COUNT_PTR_OFFSET = chunkRowGroupCountPtrOffset();
     }
 }
@@ -44,6 +44,49 @@ public class PartitionEncoder {
     public static int PARQUET_VERSION_V1 = 1;
     public static int PARQUET_VERSION_V2 = 2;
 
+    public static native void clearStreamingBuffer(long encoderPtr);
+
+    public static native void closeStreamingEncoder(long encoderPtr);
+
+    /**
+     * Creates an encoder that writes a parquet file into an in-memory buffer, one chunk at a time.
+     * The schema is taken from the column names, types and ids of the descriptor, column data
+     * is ignored. The encoder must be released with {@link #closeStreamingEncoder(long)}.
+     */
+    public static long createStreamingEncoder(
+            PartitionDescriptor descriptor,
+            long compressionCodec,
+            boolean statisticsEnabled,
+            long rowGroupSize,
+            long dataPageSize,
+            int version
+    ) {
+        final Utf8Sequence tableName = descriptor.getTableName();
+        try {
+            return createStreamingEncoder(
+                    tableName.ptr(),
+                    tableName.size(),
+                    descriptor.getColumnCount(),
+                    descriptor.getColumnNamesPtr(),
+                    descriptor.getColumnNamesSize(),
+                    descriptor.getColumnNameLengthsPtr(),
+                    descriptor.getColumnTypesPtr(),
+                    descriptor.getColumnIdsPtr(),
+                    descriptor.getTimestampIndex(),
+                    compressionCodec,
+                    statisticsEnabled,
+                    rowGroupSize,
+                    dataPageSize,
+                    version
+            );
+        } catch (Throwable th) {
+            throw CairoException.critical(0).put("Could not create parquet encoder: [table=").put(tableName)
+                    .put(", exception=").put(th.getClass().getSimpleName())
+                    .put(", msg=").put(th.getMessage())
+                    .put(']');
+        }
+    }
+
     public static void encode(PartitionDescriptor descriptor, Path destPath) {
         encodeWithOptions(
                 descriptor,
@@ -106,6 +149,48 @@ public class PartitionEncoder {
         }
     }
 
+    /**
+     * Encodes the rows of the descriptor as one or more row groups and appends them to the buffer
+     * of the streaming encoder. Column count and types must match the ones the encoder was created with.
+     */
+    public static void encodeStreamingChunk(long encoderPtr, PartitionDescriptor descriptor) {
+        try {
+            encodeStreamingChunk(
+                    encoderPtr,
+                    descriptor.getColumnTopsPtr(),
+                    descriptor.getColumnAddressesPtr(),
+                    descriptor.getColumnSizesPtr(),
+                    descriptor.getColumnSecondaryAddressesPtr(),
+                    descriptor.getColumnSecondarySizesPtr(),
+                    descriptor.getSymbolOffsetsAddressesPtr(),
+                    descriptor.getSymbolOffsetsSizesPtr(),
+                    descriptor.getPartitionRowCount()
+            );
+        } catch (Throwable th) {
+            throw CairoException.critical(0).put("Could not encode parquet chunk: [table=").put(descriptor.getTableName())
+                    .put(", exception=").put(th.getClass().getSimpleName())
+                    .put(", msg=").put(th.getMessage())
+                    .put(']');
+        }
+    }
+
+    /**
+     * Appends the parquet footer to the buffer of the streaming encoder.
+     */
+    public static void finishStreamingEncoder(long encoderPtr) {
+        try {
+            finishStreamingEncoder0(encoderPtr);
+        } catch (Throwable th) {
+            throw CairoException.critical(0).put("Could not finish parquet encoder: [exception=").put(th.getClass().getSimpleName())
+                    .put(", msg=").put(th.getMessage())
+                    .put(']');
+        }
+    }
+
+    public static native long getStreamingBufferAddress(long encoderPtr);
+
+    public static native long getStreamingBufferSize(long encoderPtr);
+
     public static void populateFromTableReader(TableReader tableReader, PartitionDescriptor descriptor, int partitionIndex) {
         final long partitionSize = tableReader.openPartition(partitionIndex);
         assert partitionSize != 0;
@@ -173,6 +258,23 @@ public class PartitionEncoder {
         }
     }
 
+    private static native long createStreamingEncoder(
+            long tableNamePtr,
+            int tableNameSize,
+            int columnCount,
+            long columnNamesPtr,
+            int columnNamesLength,
+            long columnNameLengthsPtr,
+            long columnTypesPtr,
+            long columnIdsPtr,
+            int timestampIndex,
+            long compressionCodec,
+            boolean statisticsEnabled,
+            long rowGroupSize,
+            long dataPageSize,
+            int version
+    );
+
     private static native void encodePartition(
             long tableNamePtr,
             int tableNameSize,
@@ -200,6 +302,20 @@ public class PartitionEncoder {
             int version
     );
 
+    private static native void encodeStreamingChunk(
+            long encoderPtr,
+            long columnTopsPtr,
+            long columnAddrsPtr,
+            long columnSizesPtr,
+            long columnSecondaryAddrsPtr,
+            long columnSecondarySizesPtr,
+            long symbolOffsetsAddrsPtr,
+            long symbolOffsetsSizesPtr,
+            long rowCount
+    );
+
+    private static native void finishStreamingEncoder0(long encoderPtr);
+
     static {
         Os.init();
     }
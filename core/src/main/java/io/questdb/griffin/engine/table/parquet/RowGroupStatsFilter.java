@@ -0,0 +1,354 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.IntervalOperation;
+import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.std.*;
+
+import static io.questdb.griffin.SqlKeywords.*;
+
+/**
+ * Value ranges of integer and time columns implied by a query filter. The ranges are
+ * checked against min/max statistics of Parquet row groups, so that the row groups that
+ * can't contain a matching row are skipped without being decoded. Native partitions check
+ * the same ranges against their zone maps, see {@link io.questdb.cairo.PartitionStatsFilter}.
+ * <p>
+ * Only the top-level AND-ed comparisons of a column with a constant, BETWEEN
+ * and timestamp IN 'interval' are taken into account, anything else is ignored.
+ * Since the ranges are a superset of the matching values, the filter must still
+ * be applied to the rows of the remaining row groups.
+ */
+public class RowGroupStatsFilter implements Mutable {
+    private static final int OP_EQ = 0;
+    private static final int OP_GE = 4;
+    private static final int OP_GT = 3;
+    private static final int OP_LE = 2;
+    private static final int OP_LT = 1;
+    private final IntList columnIndexes = new IntList();
+    // inclusive lo/hi pairs, one per column index
+    private final LongList ranges = new LongList();
+    private final LongList tempIntervals = new LongList();
+
+    /**
+     * Returns index of the column, which may be prefixed with the table alias, or -1 if there is no such column.
+     */
+    public static int findColumnIndex(ExpressionNode column, RecordMetadata metadata) {
+        int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            final int dot = Chars.indexOf(column.token, '.');
+            if (dot > -1) {
+                columnIndex = metadata.getColumnIndexQuiet(column.token, dot + 1, column.token.length());
+            }
+        }
+        return columnIndex;
+    }
+
+    // numeric constants may come negated, e.g. -10 is parsed as unary minus applied to 10
+    public static boolean isConstant(ExpressionNode node) {
+        return node.type == ExpressionNode.CONSTANT || isNegatedConstant(node);
+    }
+
+    public static long parseValue(ExpressionNode node, int columnType) throws NumericException {
+        if (isNegatedConstant(node)) {
+            final long value = Numbers.parseLong(node.rhs.token);
+            if (value == Numbers.LONG_NULL) {
+                throw NumericException.INSTANCE;
+            }
+            return -value;
+        }
+        final CharSequence token = node.token;
+        if (isNullKeyword(token)) {
+            throw NumericException.INSTANCE;
+        }
+        if (ColumnType.isTimestamp(columnType) && Chars.isQuoted(token)) {
+            return IntervalUtils.parseFloorPartialTimestamp(token, 1, token.length() - 1);
+        }
+        return Numbers.parseLong(token);
+    }
+
+    /**
+     * Returns true if none of the rows in the given row group can match the filter.
+     */
+    public boolean canSkip(PartitionDecoder decoder, int rowGroup) {
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            if (decoder.readRowGroupMinMax(rowGroup, columnIndexes.getQuick(i))) {
+                // nulls are stored as min values, so keep them in the range
+                final long min = decoder.getRowGroupNullCount() != 0 ? Long.MIN_VALUE : decoder.getRowGroupMin();
+                final long max = decoder.getRowGroupMax();
+                if (max < ranges.getQuick(2 * i) || min > ranges.getQuick(2 * i + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        columnIndexes.clear();
+        ranges.clear();
+    }
+
+    public int getColumnIndex(int rangeIndex) {
+        return columnIndexes.getQuick(rangeIndex);
+    }
+
+    public long getRangeHi(int rangeIndex) {
+        return ranges.getQuick(2 * rangeIndex + 1);
+    }
+
+    public long getRangeLo(int rangeIndex) {
+        return ranges.getQuick(2 * rangeIndex);
+    }
+
+    public boolean isEmpty() {
+        return columnIndexes.size() == 0;
+    }
+
+    public void of(ExpressionNode filter, RecordMetadata metadata) {
+        clear();
+        extract(filter, metadata);
+    }
+
+    public int size() {
+        return columnIndexes.size();
+    }
+
+    private static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    private static boolean isNegatedConstant(ExpressionNode node) {
+        return node.type == ExpressionNode.OPERATION
+                && node.paramCount == 1
+                && Chars.equals(node.token, '-')
+                && node.rhs != null
+                && node.rhs.type == ExpressionNode.CONSTANT
+                && !Chars.isQuoted(node.rhs.token);
+    }
+
+    private static int opCode(CharSequence op) {
+        if (Chars.equals(op, "=")) {
+            return OP_EQ;
+        }
+        if (Chars.equals(op, "<")) {
+            return OP_LT;
+        }
+        if (Chars.equals(op, "<=")) {
+            return OP_LE;
+        }
+        if (Chars.equals(op, ">")) {
+            return OP_GT;
+        }
+        if (Chars.equals(op, ">=")) {
+            return OP_GE;
+        }
+        return -1;
+    }
+
+    private void addRange(int columnIndex, long lo, long hi) {
+        final int index = columnIndexes.indexOf(columnIndex, 0, columnIndexes.size());
+        if (index == -1) {
+            columnIndexes.add(columnIndex);
+            ranges.add(lo, hi);
+        } else {
+            // intersect with the existing range
+            ranges.setQuick(2 * index, Math.max(lo, ranges.getQuick(2 * index)));
+            ranges.setQuick(2 * index + 1, Math.min(hi, ranges.getQuick(2 * index + 1)));
+        }
+    }
+
+    private void extract(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            extract(node.lhs, metadata);
+            extract(node.rhs, metadata);
+            return;
+        }
+
+        if (node.paramCount == 3 && isBetweenKeyword(node.token)) {
+            extractBetween(node, metadata);
+            return;
+        }
+
+        if (node.paramCount != 2) {
+            return;
+        }
+
+        if (isInKeyword(node.token)) {
+            extractInInterval(node, metadata);
+            return;
+        }
+
+        if (node.type != ExpressionNode.OPERATION) {
+            return;
+        }
+
+        int op = opCode(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode value = node.rhs;
+        if (isConstant(column) && value.type == ExpressionNode.LITERAL) {
+            column = node.rhs;
+            value = node.lhs;
+            op = flip(op);
+        }
+        if (column.type != ExpressionNode.LITERAL || !isConstant(value)) {
+            return;
+        }
+
+        final int columnIndex = getColumnIndex(column, metadata);
+        if (columnIndex == -1) {
+            return;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (op == OP_EQ && ColumnType.isTimestamp(columnType) && Chars.isQuoted(value.token)) {
+            // partial timestamps, e.g. '2024-01', may stand for an interval
+            extractInterval(columnIndex, value.token);
+            return;
+        }
+
+        final long v;
+        try {
+            v = parseValue(value, columnType);
+        } catch (NumericException e) {
+            return;
+        }
+
+        switch (op) {
+            case OP_EQ:
+                addRange(columnIndex, v, v);
+                break;
+            case OP_LT:
+                if (v != Long.MIN_VALUE) {
+                    addRange(columnIndex, Long.MIN_VALUE, v - 1);
+                }
+                break;
+            case OP_LE:
+                addRange(columnIndex, Long.MIN_VALUE, v);
+                break;
+            case OP_GT:
+                if (v != Long.MAX_VALUE) {
+                    addRange(columnIndex, v + 1, Long.MAX_VALUE);
+                }
+                break;
+            default:
+                addRange(columnIndex, v, Long.MAX_VALUE);
+                break;
+        }
+    }
+
+    private void extractBetween(ExpressionNode node, RecordMetadata metadata) {
+        final ExpressionNode column = node.args.getLast();
+        final ExpressionNode lo = node.args.getQuick(1);
+        final ExpressionNode hi = node.args.getQuick(0);
+        if (column.type != ExpressionNode.LITERAL || !isConstant(lo) || !isConstant(hi)) {
+            return;
+        }
+
+        final int columnIndex = getColumnIndex(column, metadata);
+        if (columnIndex == -1) {
+            return;
+        }
+
+        try {
+            final int columnType = metadata.getColumnType(columnIndex);
+            final long loValue = parseValue(lo, columnType);
+            final long hiValue = parseValue(hi, columnType);
+            // the bounds may come in any order
+            addRange(columnIndex, Math.min(loValue, hiValue), Math.max(loValue, hiValue));
+        } catch (NumericException ignore) {
+        }
+    }
+
+    private void extractInInterval(ExpressionNode node, RecordMetadata metadata) {
+        final ExpressionNode column = node.lhs;
+        final ExpressionNode value = node.rhs;
+        if (column.type != ExpressionNode.LITERAL || value.type != ExpressionNode.CONSTANT || !Chars.isQuoted(value.token)) {
+            return;
+        }
+
+        final int columnIndex = getColumnIndex(column, metadata);
+        if (columnIndex != -1 && ColumnType.isTimestamp(metadata.getColumnType(columnIndex))) {
+            extractInterval(columnIndex, value.token);
+        }
+    }
+
+    private void extractInterval(int columnIndex, CharSequence quotedInterval) {
+        tempIntervals.clear();
+        try {
+            IntervalUtils.parseInterval(quotedInterval, 1, quotedInterval.length() - 1, IntervalOperation.INTERSECT, tempIntervals);
+            addRange(columnIndex, tempIntervals.getQuick(0), tempIntervals.getQuick(1));
+        } catch (NumericException e) {
+            try {
+                final long ts = IntervalUtils.parseFloorPartialTimestamp(quotedInterval, 1, quotedInterval.length() - 1);
+                addRange(columnIndex, ts, ts);
+            } catch (NumericException ignore) {
+                // e.g. an interval with a period, no pruning then
+            }
+        }
+    }
+
+    private int getColumnIndex(ExpressionNode column, RecordMetadata metadata) {
+        final int columnIndex = findColumnIndex(column, metadata);
+        if (columnIndex == -1) {
+            return -1;
+        }
+        switch (ColumnType.tagOf(metadata.getColumnType(columnIndex))) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return columnIndex;
+            default:
+                return -1;
+        }
+    }
+}
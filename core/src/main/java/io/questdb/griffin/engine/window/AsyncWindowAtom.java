@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+
+/**
+ * Shared state of the parallel window factory. Rows of the record chain are distributed
+ * into shards by the hash of their PARTITION BY key, so that every partition is owned by
+ * exactly one shard. Each shard has its own copy of window functions and evaluates them
+ * over its rows in base order, writing results straight into the record chain.
+ */
+public class AsyncWindowAtom implements QuietCloseable, Reopenable {
+    private static final int ROW_LIST_CAPACITY = 1024;
+    private final IntList functionColumnIndexes;
+    private final IntList keyColumnIndexes;
+    private final IntList keyColumnSizes;
+    private final RecordChain recordChain;
+    private final int shardCount;
+    private final int shardCountShr;
+    private final ObjList<ObjList<WindowFunction>> shardFunctions;
+    private final ObjList<DirectLongList> shardRows;
+    private final ObjList<ShardWindowSPI> shardSpis;
+    private final ObjList<ObjList<WindowFunction>> shardTwoPassFunctions;
+
+    public AsyncWindowAtom(
+            RecordChain recordChain,
+            ObjList<ObjList<WindowFunction>> shardFunctions,
+            IntList functionColumnIndexes,
+            IntList keyColumnIndexes,
+            IntList keyColumnSizes
+    ) {
+        try {
+            this.recordChain = recordChain;
+            this.shardFunctions = shardFunctions;
+            this.functionColumnIndexes = functionColumnIndexes;
+            this.keyColumnIndexes = keyColumnIndexes;
+            this.keyColumnSizes = keyColumnSizes;
+            this.shardCount = shardFunctions.size();
+            assert Numbers.isPow2(shardCount);
+            this.shardCountShr = Long.numberOfLeadingZeros(shardCount) + 1;
+            this.shardRows = new ObjList<>(shardCount);
+            this.shardSpis = new ObjList<>(shardCount);
+            this.shardTwoPassFunctions = new ObjList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shardRows.add(new DirectLongList(ROW_LIST_CAPACITY, MemoryTag.NATIVE_LONG_LIST));
+                shardSpis.add(new ShardWindowSPI());
+                final ObjList<WindowFunction> functions = shardFunctions.getQuick(i);
+                final ObjList<WindowFunction> twoPassFunctions = new ObjList<>();
+                for (int j = 0, n = functions.size(); j < n; j++) {
+                    final WindowFunction function = functions.getQuick(j);
+                    if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                        twoPassFunctions.add(function);
+                    }
+                }
+                shardTwoPassFunctions.add(twoPassFunctions);
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public void addRow(long offset) {
+        long hash = 0;
+        for (int i = 0, n = keyColumnIndexes.size(); i < n; i++) {
+            hash = 31 * hash + Hash.hashMem64(recordChain.getAddress(offset, keyColumnIndexes.getQuick(i)), keyColumnSizes.getQuick(i));
+        }
+        shardRows.getQuick((int) (hash >>> shardCountShr)).add(offset);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(shardRows);
+        if (shardFunctions != null) {
+            for (int i = 0, n = shardFunctions.size(); i < n; i++) {
+                Misc.freeObjList(shardFunctions.getQuick(i));
+            }
+        }
+    }
+
+    /**
+     * Runs all passes of the shard's window functions over the rows owned by the shard.
+     * Called concurrently for different shards, possibly from worker threads.
+     */
+    public void evaluateShard(int shardIndex, AtomicBooleanCircuitBreaker circuitBreaker) {
+        final DirectLongList rows = shardRows.getQuick(shardIndex);
+        final ShardWindowSPI spi = shardSpis.getQuick(shardIndex);
+        final Record record = spi.record;
+        final ObjList<WindowFunction> functions = shardFunctions.getQuick(shardIndex);
+        final int functionCount = functions.size();
+        final long rowCount = rows.size();
+
+        for (long i = 0; i < rowCount; i++) {
+            if (circuitBreaker.checkIfTripped()) {
+                return;
+            }
+            final long offset = rows.get(i);
+            recordChain.recordAt(record, offset);
+            for (int j = 0; j < functionCount; j++) {
+                final WindowFunction function = functions.getQuick(j);
+                if (function.getPassCount() == WindowFunction.ZERO_PASS) {
+                    // streaming functions don't necessarily implement pass1()
+                    function.computeNext(record);
+                    putValue(function, record, offset, functionColumnIndexes.getQuick(j), spi);
+                } else {
+                    function.pass1(record, offset, spi);
+                }
+            }
+        }
+
+        final ObjList<WindowFunction> twoPassFunctions = shardTwoPassFunctions.getQuick(shardIndex);
+        final int twoPassFunctionCount = twoPassFunctions.size();
+        if (twoPassFunctionCount > 0) {
+            for (int j = 0; j < twoPassFunctionCount; j++) {
+                twoPassFunctions.getQuick(j).preparePass2();
+            }
+            for (long i = 0; i < rowCount; i++) {
+                if (circuitBreaker.checkIfTripped()) {
+                    return;
+                }
+                final long offset = rows.get(i);
+                recordChain.recordAt(record, offset);
+                for (int j = 0; j < twoPassFunctionCount; j++) {
+                    twoPassFunctions.getQuick(j).pass2(record, offset, spi);
+                }
+            }
+        }
+    }
+
+    public ObjList<WindowFunction> getOwnerFunctions() {
+        return shardFunctions.getQuick(0);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        for (int i = 0; i < shardCount; i++) {
+            Function.init(shardFunctions.getQuick(i), symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void reopen() {
+        for (int i = 0; i < shardCount; i++) {
+            shardRows.getQuick(i).reopen();
+            final ObjList<WindowFunction> functions = shardFunctions.getQuick(i);
+            for (int j = 0, n = functions.size(); j < n; j++) {
+                final WindowFunction function = functions.getQuick(j);
+                if (function instanceof Reopenable) {
+                    ((Reopenable) function).reopen();
+                }
+            }
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < shardCount; i++) {
+            // row lists are reallocated on reopen()
+            shardRows.getQuick(i).close();
+            final ObjList<WindowFunction> functions = shardFunctions.getQuick(i);
+            for (int j = 0, n = functions.size(); j < n; j++) {
+                functions.getQuick(j).reset();
+            }
+        }
+    }
+
+    private static void putValue(WindowFunction function, Record record, long offset, int columnIndex, ShardWindowSPI spi) {
+        switch (ColumnType.tagOf(function.getType())) {
+            case ColumnType.DOUBLE:
+                Unsafe.getUnsafe().putDouble(spi.getAddress(offset, columnIndex), function.getDouble(record));
+                break;
+            case ColumnType.FLOAT:
+                Unsafe.getUnsafe().putFloat(spi.getAddress(offset, columnIndex), function.getFloat(record));
+                break;
+            case ColumnType.LONG:
+                Unsafe.getUnsafe().putLong(spi.getAddress(offset, columnIndex), function.getLong(record));
+                break;
+            case ColumnType.INT:
+                Unsafe.getUnsafe().putInt(spi.getAddress(offset, columnIndex), function.getInt(record));
+                break;
+            case ColumnType.DATE:
+                Unsafe.getUnsafe().putLong(spi.getAddress(offset, columnIndex), function.getDate(record));
+                break;
+            case ColumnType.TIMESTAMP:
+                Unsafe.getUnsafe().putLong(spi.getAddress(offset, columnIndex), function.getTimestamp(record));
+                break;
+            default:
+                function.pass1(record, offset, spi);
+        }
+    }
+
+    // Record chain records are not thread-safe, so each shard reads the chain via its own records.
+    private class ShardWindowSPI implements WindowSPI {
+        private final Record record = recordChain.newRecord();
+        private final Record recordAt = recordChain.newRecord();
+
+        @Override
+        public long getAddress(long recordOffset, int columnIndex) {
+            return recordChain.getAddress(recordOffset, columnIndex);
+        }
+
+        @Override
+        public Record getRecordAt(long recordOffset) {
+            recordChain.recordAt(recordAt, recordOffset);
+            return recordAt;
+        }
+    }
+}
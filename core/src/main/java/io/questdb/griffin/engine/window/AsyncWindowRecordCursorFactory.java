@@ -0,0 +1,365 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.WorkStealingStrategy;
+import io.questdb.cairo.sql.async.WorkStealingStrategyFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import io.questdb.tasks.WindowShardTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel flavour of {@link CachedWindowRecordCursorFactory} for window functions that are
+ * partitioned by the same key and don't require sorting. Base rows are cached in a record chain,
+ * then distributed into shards by partition key hash and evaluated by shared pool workers.
+ * Results are written into the chain, so the cursor returns rows in base order.
+ */
+public class AsyncWindowRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(AsyncWindowRecordCursorFactory.class);
+    private final AsyncWindowAtom atom;
+    private final RecordCursorFactory base;
+    private final GenericRecordMetadata chainMetadata;
+    private final AsyncWindowRecordCursor cursor;
+    private final int workerCount;
+
+    public AsyncWindowRecordCursorFactory(
+            CairoConfiguration configuration,
+            MessageBus messageBus,
+            RecordCursorFactory base,
+            RecordSink recordSink,
+            GenericRecordMetadata metadata,
+            @Transient ColumnTypes chainTypes,
+            @NotNull ObjList<ObjList<WindowFunction>> shardFunctions,
+            @NotNull IntList functionColumnIndexes,
+            @NotNull IntList keyColumnIndexes,
+            @NotNull IntList keyColumnSizes,
+            @NotNull IntList columnIndexes,
+            @NotNull GenericRecordMetadata chainMetadata,
+            int workerCount
+    ) {
+        super(metadata);
+        this.base = base;
+        this.chainMetadata = chainMetadata;
+        this.workerCount = workerCount;
+        final RecordChain recordChain = new RecordChain(
+                chainTypes,
+                recordSink,
+                configuration.getSqlWindowStorePageSize(),
+                configuration.getSqlWindowStoreMaxPages()
+        );
+        try {
+            this.atom = new AsyncWindowAtom(recordChain, shardFunctions, functionColumnIndexes, keyColumnIndexes, keyColumnSizes);
+        } catch (Throwable th) {
+            recordChain.close();
+            throw th;
+        }
+        this.cursor = new AsyncWindowRecordCursor(
+                configuration,
+                messageBus,
+                columnIndexes,
+                recordChain,
+                workerCount
+        );
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return chainMetadata.getColumnName(idx);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Window");
+        sink.meta("workers").val(workerCount);
+
+        boolean oldVal = sink.getUseBaseMetadata();
+        try {
+            sink.useBaseMetadata(true);
+            sink.optAttr("functions", atom.getOwnerFunctions(), true);
+        } finally {
+            sink.useBaseMetadata(oldVal);
+        }
+
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.free(atom);
+    }
+
+    private class AsyncWindowRecordCursor implements RecordCursor {
+        private final IntList columnIndexes; // Used for symbol table lookups.
+        private final AtomicInteger startedCounter = new AtomicInteger();
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+        private final MessageBus messageBus;
+        private final RecordChain recordChain;
+        private final AtomicBooleanCircuitBreaker shardCircuitBreaker = new AtomicBooleanCircuitBreaker();
+        private final WorkStealingStrategy workStealingStrategy;
+        private RecordCursor baseCursor;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean isOpen;
+        private boolean isRecordChainBuilt;
+
+        public AsyncWindowRecordCursor(
+                CairoConfiguration configuration,
+                MessageBus messageBus,
+                IntList columnIndexes,
+                RecordChain recordChain,
+                int workerCount
+        ) {
+            this.columnIndexes = columnIndexes;
+            this.messageBus = messageBus;
+            this.recordChain = recordChain;
+            this.recordChain.setSymbolTableResolver(this);
+            this.workStealingStrategy = WorkStealingStrategyFactory.getInstance(configuration, workerCount).of(startedCounter);
+            this.isOpen = true;
+        }
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, RecordCursor.Counter counter) {
+            if (!isRecordChainBuilt) {
+                buildRecordChain();
+            }
+            recordChain.calculateSize(circuitBreaker, counter);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                baseCursor = Misc.free(baseCursor);
+                Misc.free(recordChain);
+                atom.reset();
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordChain.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordChain.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isRecordChainBuilt) {
+                buildRecordChain();
+            }
+            return recordChain.hasNext();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordChain.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return isRecordChainBuilt ? recordChain.size() : -1;
+        }
+
+        @Override
+        public void toTop() {
+            recordChain.toTop();
+        }
+
+        private void buildRecordChain() {
+            // step #1: cache base rows and assign each row to the shard owning its partition
+            final Record record = baseCursor.getRecord();
+            long offset = -1;
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                offset = recordChain.put(record, offset);
+                atom.addRow(offset);
+            }
+
+            // step #2: evaluate shards in parallel, window functions write results into the chain
+            evaluateShards();
+
+            recordChain.toTop();
+            isRecordChainBuilt = true;
+        }
+
+        private void evaluateShards() {
+            shardCircuitBreaker.reset();
+            startedCounter.set(0);
+            doneLatch.reset();
+
+            final int shardCount = atom.getShardCount();
+            final RingQueue<WindowShardTask> queue = messageBus.getWindowShardQueue();
+            final MPSequence pubSeq = messageBus.getWindowShardPubSeq();
+            final MCSequence subSeq = messageBus.getWindowShardSubSeq();
+
+            int queuedCount = 0;
+            int ownCount = 0;
+            int reclaimed = 0;
+            int evaluatedCount = 0; // used for work stealing decisions
+
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    while (true) {
+                        long cursor = pubSeq.next();
+                        if (cursor < 0) {
+                            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+
+                            if (workStealingStrategy.shouldSteal(evaluatedCount)) {
+                                atom.evaluateShard(i, shardCircuitBreaker);
+                                ownCount++;
+                                evaluatedCount = doneLatch.getCount();
+                                break;
+                            }
+                            evaluatedCount = doneLatch.getCount();
+                        } else {
+                            queue.get(cursor).of(shardCircuitBreaker, startedCounter, doneLatch, atom, i);
+                            pubSeq.done(cursor);
+                            queuedCount++;
+                            break;
+                        }
+                    }
+                }
+            } catch (Throwable th) {
+                shardCircuitBreaker.cancel();
+                throw th;
+            } finally {
+                // Consume our own queue while waiting for the workers, the latch tells us
+                // when all tasks published by this cursor are processed.
+                while (!doneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        shardCircuitBreaker.cancel();
+                    }
+
+                    if (workStealingStrategy.shouldSteal(evaluatedCount)) {
+                        long cursor = subSeq.next();
+                        if (cursor > -1) {
+                            WindowShardJob.run(queue.get(cursor), subSeq, cursor);
+                            reclaimed++;
+                        }
+                    }
+                    evaluatedCount = doneLatch.getCount();
+                }
+            }
+
+            if (shardCircuitBreaker.checkIfTripped()) {
+                circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                throw CairoException.nonCritical().put("window function evaluation failed, see server logs for details");
+            }
+
+            LOG.debug().$("window shards done [total=").$(shardCount)
+                    .$(", ownCount=").$(ownCount)
+                    .$(", reclaimed=").$(reclaimed)
+                    .$(", queuedCount=").$(queuedCount).I$();
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            this.baseCursor = baseCursor;
+            isRecordChainBuilt = false;
+            circuitBreaker = executionContext.getCircuitBreaker();
+            if (!isOpen) {
+                isOpen = true;
+                recordChain.reopen();
+                recordChain.setSymbolTableResolver(this);
+                atom.reopen();
+            }
+            atom.init(this, executionContext);
+        }
+    }
+}
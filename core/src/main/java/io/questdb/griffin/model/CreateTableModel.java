@@ -38,6 +38,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private static final int COLUMN_FLAG_CACHED = 1;
     private static final int COLUMN_FLAG_INDEXED = COLUMN_FLAG_CACHED << 1;
     private static final int COLUMN_FLAG_DEDUP_KEY = COLUMN_FLAG_INDEXED << 1;
+    private static final int COLUMN_FLAG_BLOOM_FILTER = COLUMN_FLAG_DEDUP_KEY << 1;
     private final LongList columnBits = new LongList();
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
     private final LowerCaseCharSequenceIntHashMap columnNameIndexMap = new LowerCaseCharSequenceIntHashMap();
@@ -210,6 +211,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return batchSize == -1;
     }
 
+    @Override
+    public boolean isBloomFilterIndexed(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_BLOOM_FILTER) != 0;
+    }
+
     @Override
     public boolean isDedupKey(int index) {
         return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
@@ -243,6 +249,12 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.batchSize = batchSize;
     }
 
+    public void setBloomFilterFlag(int index) {
+        int flagsIndex = index * 2 + 1;
+        int flags = getLowAt(flagsIndex) | COLUMN_FLAG_BLOOM_FILTER;
+        columnBits.setQuick(flagsIndex, Numbers.encodeLowHighInts(flags, getHighAt(flagsIndex)));
+    }
+
     public void setDedupKeyFlag(int index) {
         int flagsIndex = index * 2 + 1;
         int flags = getLowAt(flagsIndex) | COLUMN_FLAG_DEDUP_KEY;
@@ -334,6 +346,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
                     sink.put(getIndexBlockCapacity(i));
                     sink.putAscii(')');
                 }
+                if (isBloomFilterIndexed(i)) {
+                    sink.putAscii(", index(");
+                    sink.put(getColumnName(i));
+                    sink.putAscii(" type bloom)");
+                }
             }
             final ObjList<CharSequence> castColumns = getColumnCastModels().keys();
             for (int i = 0, n = castColumns.size(); i < n; i++) {
@@ -392,6 +409,13 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
                         sink.put(getIndexBlockCapacity(i));
                     }
                 }
+                for (int i = 0; i < count; i++) {
+                    if (isBloomFilterIndexed(i)) {
+                        sink.putAscii(", index(");
+                        sink.put(getColumnName(i));
+                        sink.putAscii(" type bloom)");
+                    }
+                }
             }
             sink.putAscii(')');
         }
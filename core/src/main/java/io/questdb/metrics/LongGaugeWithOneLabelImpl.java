@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.metrics;
+
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.str.BorrowableUtf8Sink;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LongGaugeWithOneLabelImpl implements LongGaugeWithOneLabel {
+    private final CharSequence labelName0;
+    private final CharSequence name;
+    private final ConcurrentHashMap<AtomicLong> values = new ConcurrentHashMap<>();
+
+    LongGaugeWithOneLabelImpl(CharSequence name, CharSequence labelName0) {
+        this.name = name;
+        this.labelName0 = labelName0;
+    }
+
+    @Override
+    public long getValue(CharSequence labelValue0) {
+        final AtomicLong value = values.get(labelValue0);
+        return value != null ? value.get() : 0;
+    }
+
+    @Override
+    public void remove(CharSequence labelValue0) {
+        values.remove(labelValue0);
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        appendType(sink);
+        for (Map.Entry<CharSequence, AtomicLong> e : values.entrySet()) {
+            appendMetricName(sink);
+            sink.putAscii('{');
+            PrometheusFormatUtils.appendLabel(sink, labelName0, e.getKey());
+            sink.putAscii('}');
+            PrometheusFormatUtils.appendSampleLineSuffix(sink, e.getValue().get());
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    @Override
+    public void setValue(CharSequence labelValue0, long value) {
+        AtomicLong holder = values.get(labelValue0);
+        if (holder == null) {
+            holder = values.computeIfAbsent(Chars.toString(labelValue0), k -> new AtomicLong());
+        }
+        holder.set(value);
+    }
+
+    private void appendMetricName(CharSink<?> sink) {
+        sink.putAscii(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+        sink.put(name);
+    }
+
+    private void appendType(CharSink<?> sink) {
+        sink.putAscii(PrometheusFormatUtils.TYPE_PREFIX);
+        sink.put(name);
+        sink.putAscii(" gauge\n");
+    }
+}
@@ -80,6 +80,13 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public LongGaugeWithOneLabel newLongGauge(CharSequence name, CharSequence labelName0) {
+        LongGaugeWithOneLabel gauge = new LongGaugeWithOneLabelImpl(name, labelName0);
+        metrics.add(gauge);
+        return gauge;
+    }
+
     @Override
     public LongGauge newVirtualGauge(CharSequence _name, VirtualLongGauge.StatProvider provider) {
         VirtualLongGauge gauge = new VirtualLongGauge(_name, provider);
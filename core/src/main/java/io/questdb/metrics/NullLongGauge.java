@@ -27,7 +27,7 @@ package io.questdb.metrics;
 import io.questdb.std.str.BorrowableUtf8Sink;
 import org.jetbrains.annotations.NotNull;
 
-public class NullLongGauge implements LongGauge {
+public class NullLongGauge implements LongGauge, LongGaugeWithOneLabel {
     public static final NullLongGauge INSTANCE = new NullLongGauge();
 
     private NullLongGauge() {
@@ -46,10 +46,19 @@ public class NullLongGauge implements LongGauge {
         return 0;
     }
 
+    @Override
+    public long getValue(CharSequence labelValue0) {
+        return 0;
+    }
+
     @Override
     public void inc() {
     }
 
+    @Override
+    public void remove(CharSequence labelValue0) {
+    }
+
     @Override
     public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
     }
@@ -57,4 +66,8 @@ public class NullLongGauge implements LongGauge {
     @Override
     public void setValue(long value) {
     }
+
+    @Override
+    public void setValue(CharSequence labelValue0, long value) {
+    }
 }
@@ -32,6 +32,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByVectorAggregateJob;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.window.WindowShardJob;
 import io.questdb.std.NanosecondClock;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -55,7 +56,17 @@ public class WorkerPoolUtils {
             workerPool.assign(new GroupByMergeShardJob(messageBus));
         }
 
-        if (configuration.isSqlParallelFilterEnabled() || configuration.isSqlParallelGroupByEnabled()) {
+        if (configuration.isSqlParallelWindowEnabled()) {
+            workerPool.assign(new WindowShardJob(messageBus));
+        }
+
+        if (
+                configuration.isSqlParallelFilterEnabled()
+                        || configuration.isSqlParallelGroupByEnabled()
+                        || configuration.isSqlParallelAsOfJoinEnabled()
+                        || configuration.isSqlParallelHashJoinEnabled()
+                        || configuration.isSqlParallelOrderByEnabled()
+        ) {
             final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
             final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
             for (int i = 0; i < workerCount; i++) {
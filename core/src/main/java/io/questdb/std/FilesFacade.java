@@ -70,6 +70,12 @@ public interface FilesFacade {
 
     void fsync(long fd);
 
+    /**
+     * Syncs two files, e.g. fixed and var-size parts of a column. Descriptors equal
+     * to -1 are skipped.
+     */
+    void fsync(long fd1, long fd2);
+
     void fsyncAndClose(long fd);
 
     long getDirSize(Path path);
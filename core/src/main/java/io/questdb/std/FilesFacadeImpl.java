@@ -177,6 +177,16 @@ public class FilesFacadeImpl implements FilesFacade {
         throw CairoException.critical(errno()).put("could not fsync [fd=").put(fd).put(']');
     }
 
+    @Override
+    public void fsync(long fd1, long fd2) {
+        if (fd1 != -1) {
+            fsync(fd1);
+        }
+        if (fd2 != -1) {
+            fsync(fd2);
+        }
+    }
+
     @Override
     public void fsyncAndClose(long fd) {
         int res = Files.fsync(fd);
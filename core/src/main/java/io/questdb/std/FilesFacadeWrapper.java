@@ -0,0 +1,413 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.log.Log;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.MutableUtf8Sink;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+public class FilesFacadeWrapper implements FilesFacade {
+    private final FilesFacade delegate;
+
+    public FilesFacadeWrapper(@NotNull FilesFacade delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean allocate(long fd, long size) {
+        return getDelegate().allocate(fd, size);
+    }
+
+    @Override
+    public boolean allowMixedIO(CharSequence root) {
+        return getDelegate().allowMixedIO(root);
+    }
+
+    @Override
+    public long append(long fd, long buf, int len) {
+        return getDelegate().append(fd, buf, len);
+    }
+
+    @Override
+    public boolean close(long fd) {
+        return getDelegate().close(fd);
+    }
+
+    @Override
+    public boolean closeRemove(long fd, LPSZ path) {
+        return getDelegate().closeRemove(fd, path);
+    }
+
+    @Override
+    public int copy(LPSZ from, LPSZ to) {
+        return getDelegate().copy(from, to);
+    }
+
+    @Override
+    public long copyData(long srcFd, long destFd, long offsetSrc, long destOffset, long length) {
+        return getDelegate().copyData(srcFd, destFd, offsetSrc, destOffset, length);
+    }
+
+    @Override
+    public long copyData(long srcFd, long destFd, long offsetSrc, long length) {
+        return getDelegate().copyData(srcFd, destFd, offsetSrc, length);
+    }
+
+    @Override
+    public int copyRecursive(Path src, Path dst, int dirMode) {
+        return getDelegate().copyRecursive(src, dst, dirMode);
+    }
+
+    @Override
+    public int errno() {
+        return getDelegate().errno();
+    }
+
+    @Override
+    public boolean exists(LPSZ path) {
+        return getDelegate().exists(path);
+    }
+
+    @Override
+    public boolean exists(long fd) {
+        return getDelegate().exists(fd);
+    }
+
+    @Override
+    public void fadvise(long fd, long offset, long len, int advise) {
+        getDelegate().fadvise(fd, offset, len, advise);
+    }
+
+    @Override
+    public long findClose(long findPtr) {
+        return getDelegate().findClose(findPtr);
+    }
+
+    @Override
+    public long findFirst(LPSZ path) {
+        return getDelegate().findFirst(path);
+    }
+
+    @Override
+    public long findName(long findPtr) {
+        return getDelegate().findName(findPtr);
+    }
+
+    @Override
+    public int findNext(long findPtr) {
+        return getDelegate().findNext(findPtr);
+    }
+
+    @Override
+    public int findType(long findPtr) {
+        return getDelegate().findType(findPtr);
+    }
+
+    @Override
+    public void fsync(long fd) {
+        getDelegate().fsync(fd);
+    }
+
+    @Override
+    public void fsync(long fd1, long fd2) {
+        getDelegate().fsync(fd1, fd2);
+    }
+
+    @Override
+    public void fsyncAndClose(long fd) {
+        getDelegate().fsyncAndClose(fd);
+    }
+
+    @Override
+    public long getDirSize(Path path) {
+        return getDelegate().getDirSize(path);
+    }
+
+    @Override
+    public long getDiskFreeSpace(LPSZ path) {
+        return getDelegate().getDiskFreeSpace(path);
+    }
+
+    @Override
+    public long getFileLimit() {
+        return getDelegate().getFileLimit();
+    }
+
+    @Override
+    public int getFileSystemStatus(LPSZ lpszName) {
+        return getDelegate().getFileSystemStatus(lpszName);
+    }
+
+    @Override
+    public long getLastModified(LPSZ path) {
+        return getDelegate().getLastModified(path);
+    }
+
+    @Override
+    public long getMapCountLimit() {
+        return getDelegate().getMapCountLimit();
+    }
+
+    @Override
+    public long getMapPageSize() {
+        return getDelegate().getMapPageSize();
+    }
+
+    @Override
+    public long getOpenFileCount() {
+        return getDelegate().getOpenFileCount();
+    }
+
+    @Override
+    public long getPageSize() {
+        return getDelegate().getPageSize();
+    }
+
+    @Override
+    public int hardLink(LPSZ src, LPSZ hardLink) {
+        return getDelegate().hardLink(src, hardLink);
+    }
+
+    @Override
+    public int hardLinkDirRecursive(Path src, Path dst, int dirMode) {
+        return getDelegate().hardLinkDirRecursive(src, dst, dirMode);
+    }
+
+    @Override
+    public boolean isCrossDeviceCopyError(int errno) {
+        return getDelegate().isCrossDeviceCopyError(errno);
+    }
+
+    @Override
+    public boolean isDirOrSoftLinkDir(LPSZ path) {
+        return getDelegate().isDirOrSoftLinkDir(path);
+    }
+
+    @Override
+    public boolean isDirOrSoftLinkDirNoDots(Path path, int rootLen, long pUtf8NameZ, int type) {
+        return getDelegate().isDirOrSoftLinkDirNoDots(path, rootLen, pUtf8NameZ, type);
+    }
+
+    @Override
+    public boolean isDirOrSoftLinkDirNoDots(Path path, int rootLen, long pUtf8NameZ, int type, MutableUtf8Sink nameSink) {
+        return getDelegate().isDirOrSoftLinkDirNoDots(path, rootLen, pUtf8NameZ, type, nameSink);
+    }
+
+    @Override
+    public boolean isRestrictedFileSystem() {
+        return getDelegate().isRestrictedFileSystem();
+    }
+
+    @Override
+    public boolean isSoftLink(LPSZ softLink) {
+        return getDelegate().isSoftLink(softLink);
+    }
+
+    @Override
+    public void iterateDir(LPSZ path, FindVisitor func) {
+        getDelegate().iterateDir(path, func);
+    }
+
+    @Override
+    public long length(LPSZ name) {
+        return getDelegate().length(name);
+    }
+
+    @Override
+    public long length(long fd) {
+        return getDelegate().length(fd);
+    }
+
+    @Override
+    public int lock(long fd) {
+        return getDelegate().lock(fd);
+    }
+
+    @Override
+    public void madvise(long address, long len, int advise) {
+        getDelegate().madvise(address, len, advise);
+    }
+
+    @Override
+    public int mkdir(LPSZ path, int mode) {
+        return getDelegate().mkdir(path, mode);
+    }
+
+    @Override
+    public int mkdirs(Path path, int mode) {
+        return getDelegate().mkdirs(path, mode);
+    }
+
+    @Override
+    public long mmap(long fd, long len, long offset, int flags, int memoryTag) {
+        return getDelegate().mmap(fd, len, offset, flags, memoryTag);
+    }
+
+    @Override
+    public long mremap(long fd, long addr, long previousSize, long newSize, long offset, int mode, int memoryTag) {
+        return getDelegate().mremap(fd, addr, previousSize, newSize, offset, mode, memoryTag);
+    }
+
+    @Override
+    public void msync(long addr, long len, boolean async) {
+        getDelegate().msync(addr, len, async);
+    }
+
+    @Override
+    public void munmap(long address, long size, int memoryTag) {
+        getDelegate().munmap(address, size, memoryTag);
+    }
+
+    @Override
+    public long openAppend(LPSZ name) {
+        return getDelegate().openAppend(name);
+    }
+
+    @Override
+    public long openCleanRW(LPSZ name, long size) {
+        return getDelegate().openCleanRW(name, size);
+    }
+
+    @Override
+    public long openRO(LPSZ name) {
+        return getDelegate().openRO(name);
+    }
+
+    @Override
+    public long openRW(LPSZ name, long opts) {
+        return getDelegate().openRW(name, opts);
+    }
+
+    @Override
+    public long read(long fd, long buf, long size, long offset) {
+        return getDelegate().read(fd, buf, size, offset);
+    }
+
+    @Override
+    public long readIntAsUnsignedLong(long fd, long offset) {
+        return getDelegate().readIntAsUnsignedLong(fd, offset);
+    }
+
+    @Override
+    public boolean readLink(Path softLink, Path readTo) {
+        return getDelegate().readLink(softLink, readTo);
+    }
+
+    @Override
+    public byte readNonNegativeByte(long fd, long offset) {
+        return getDelegate().readNonNegativeByte(fd, offset);
+    }
+
+    @Override
+    public int readNonNegativeInt(long fd, long offset) {
+        return getDelegate().readNonNegativeInt(fd, offset);
+    }
+
+    @Override
+    public long readNonNegativeLong(long fd, long offset) {
+        return getDelegate().readNonNegativeLong(fd, offset);
+    }
+
+    @Override
+    public void remove(LPSZ name) {
+        getDelegate().remove(name);
+    }
+
+    @Override
+    public boolean removeQuiet(LPSZ name) {
+        return getDelegate().removeQuiet(name);
+    }
+
+    @Override
+    public int rename(LPSZ from, LPSZ to) {
+        return getDelegate().rename(from, to);
+    }
+
+    @Override
+    public boolean rmdir(Path name) {
+        return getDelegate().rmdir(name);
+    }
+
+    @Override
+    public boolean rmdir(Path name, boolean haltOnError) {
+        return getDelegate().rmdir(name, haltOnError);
+    }
+
+    @Override
+    public int softLink(LPSZ src, LPSZ softLink) {
+        return getDelegate().softLink(src, softLink);
+    }
+
+    @Override
+    public int sync() {
+        return getDelegate().sync();
+    }
+
+    @Override
+    public boolean touch(LPSZ path) {
+        return getDelegate().touch(path);
+    }
+
+    @Override
+    public boolean truncate(long fd, long size) {
+        return getDelegate().truncate(fd, size);
+    }
+
+    @Override
+    public int typeDirOrSoftLinkDirNoDots(Path path, int rootLen, long pUtf8NameZ, int type, MutableUtf8Sink nameSink) {
+        return getDelegate().typeDirOrSoftLinkDirNoDots(path, rootLen, pUtf8NameZ, type, nameSink);
+    }
+
+    @Override
+    public int unlink(LPSZ softLink) {
+        return getDelegate().unlink(softLink);
+    }
+
+    @Override
+    public boolean unlinkOrRemove(Path path, Log LOG) {
+        return getDelegate().unlinkOrRemove(path, LOG);
+    }
+
+    @Override
+    public boolean unlinkOrRemove(Path path, int checkedType, Log LOG) {
+        return getDelegate().unlinkOrRemove(path, checkedType, LOG);
+    }
+
+    @Override
+    public void walk(Path src, FindVisitor func) {
+        getDelegate().walk(src, func);
+    }
+
+    @Override
+    public long write(long fd, long address, long len, long offset) {
+        return getDelegate().write(fd, address, len, offset);
+    }
+
+    protected FilesFacade getDelegate() {
+        return delegate;
+    }
+}
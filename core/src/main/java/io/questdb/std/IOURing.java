@@ -36,8 +36,24 @@ public interface IOURing extends Closeable {
     @TestOnly
     long enqueueNop();
 
+    /**
+     * Enqueues fsync of the given file. Completion result is 0 on success
+     * and negated errno on failure.
+     *
+     * @return id of the operation or -1 if the submission queue is full.
+     */
+    long enqueueFsync(long fd);
+
     long enqueueRead(long fd, long offset, long bufPtr, int len);
 
+    /**
+     * Enqueues positional write of {@code len} bytes from {@code bufPtr} to the given file.
+     * Completion result is the number of bytes written, which may be short, or negated errno.
+     *
+     * @return id of the operation or -1 if the submission queue is full.
+     */
+    long enqueueWrite(long fd, long offset, long bufPtr, int len);
+
     long getCqeId();
 
     int getCqeRes();
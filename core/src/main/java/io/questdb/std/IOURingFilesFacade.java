@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.Arrays;
+
+/**
+ * Files facade that performs large positional writes as a batch of chunked io_uring
+ * writes instead of a single blocking pwrite() call. Keeping several chunks in flight
+ * lets NVMe devices work on them in parallel, which smooths out latency of column
+ * copies during O3 merges and partition rewrites. Pairs of fsync() calls are submitted
+ * to the ring together, too.
+ * <p>
+ * Writes smaller than two chunks, and writes that io_uring fails to complete, go
+ * through the delegate facade. Rings are created lazily and pooled, so that each
+ * thread writing via the facade at the same time holds a ring of its own and keeps
+ * it for the subsequent calls. The facade is safe to use from multiple threads and
+ * must be closed to release the pooled rings.
+ */
+public class IOURingFilesFacade extends FilesFacadeWrapper implements QuietCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_RING_CAPACITY = 16;
+    private static final Log LOG = LogFactory.getLog(IOURingFilesFacade.class);
+    private final int chunkSize;
+    private final ObjList<IOURing> freeRings = new ObjList<>();
+    private final IOURingFacade rf;
+    private final int ringCapacity;
+    private final ThreadLocal<long[]> tlChunkLens;
+    private final ThreadLocal<long[]> tlChunkOffsets;
+    private final ThreadLocal<long[]> tlIds;
+    private boolean closed;
+    private int ringCount;
+    private volatile boolean ringsUnavailable;
+
+    public IOURingFilesFacade(@NotNull FilesFacade delegate, @NotNull IOURingFacade rf) {
+        this(delegate, rf, DEFAULT_CHUNK_SIZE, DEFAULT_RING_CAPACITY);
+    }
+
+    public IOURingFilesFacade(@NotNull FilesFacade delegate, @NotNull IOURingFacade rf, int chunkSize, int ringCapacity) {
+        super(delegate);
+        assert Numbers.isPow2(ringCapacity) && ringCapacity > 1;
+        this.rf = rf;
+        this.chunkSize = chunkSize;
+        this.ringCapacity = ringCapacity;
+        this.tlIds = new ThreadLocal<>(() -> new long[ringCapacity]);
+        this.tlChunkOffsets = new ThreadLocal<>(() -> new long[ringCapacity]);
+        this.tlChunkLens = new ThreadLocal<>(() -> new long[ringCapacity]);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ringCount -= freeRings.size();
+        Misc.freeObjListAndClear(freeRings);
+    }
+
+    @Override
+    public void fsync(long fd1, long fd2) {
+        if (fd1 == -1 || fd2 == -1) {
+            super.fsync(fd1, fd2);
+            return;
+        }
+        final IOURing ring = acquireRing();
+        if (ring == null) {
+            super.fsync(fd1, fd2);
+            return;
+        }
+        int errno = 0;
+        long failedFd = -1;
+        try {
+            final long id1 = ring.enqueueFsync(fd1);
+            final long id2 = ring.enqueueFsync(fd2);
+            // the ring is drained after each batch, so it has room for both operations
+            assert id1 > -1 && id2 > -1;
+            for (int pending = 2; pending > 0; ) {
+                ring.submitAndWait();
+                while (ring.nextCqe()) {
+                    pending--;
+                    final int res = ring.getCqeRes();
+                    if (res < 0 && failedFd == -1) {
+                        errno = -res;
+                        failedFd = ring.getCqeId() == id1 ? fd1 : fd2;
+                    }
+                }
+            }
+        } catch (Throwable th) {
+            discardRing(ring);
+            throw th;
+        }
+        releaseRing(ring);
+        if (failedFd != -1) {
+            throw CairoException.critical(errno).put("could not fsync [fd=").put(failedFd).put(']');
+        }
+    }
+
+    @TestOnly
+    public synchronized int getRingCount() {
+        return ringCount;
+    }
+
+    @Override
+    public long write(long fd, long address, long len, long offset) {
+        if (len < 2L * chunkSize) {
+            return super.write(fd, address, len, offset);
+        }
+        final IOURing ring = acquireRing();
+        if (ring != null) {
+            final boolean written;
+            try {
+                written = writeBatch(ring, fd, address, len, offset);
+            } catch (Throwable th) {
+                discardRing(ring);
+                throw th;
+            }
+            releaseRing(ring);
+            if (written) {
+                return len;
+            }
+        }
+        // writes are idempotent, so the whole range can be safely re-written
+        return super.write(fd, address, len, offset);
+    }
+
+    private IOURing acquireRing() {
+        if (ringsUnavailable) {
+            return null;
+        }
+        synchronized (this) {
+            if (closed) {
+                return null;
+            }
+            if (freeRings.size() > 0) {
+                final int last = freeRings.size() - 1;
+                final IOURing ring = freeRings.getQuick(last);
+                freeRings.setPos(last);
+                return ring;
+            }
+            ringCount++;
+        }
+        try {
+            return rf.newInstance(ringCapacity);
+        } catch (CairoException e) {
+            // ring could not be created, e.g. due to memlock limits; don't try again
+            LOG.info().$("io_uring write is unavailable [errno=").$(e.getErrno()).$(", msg=").$(e.getFlyweightMessage()).I$();
+            ringsUnavailable = true;
+            synchronized (this) {
+                ringCount--;
+            }
+            return null;
+        }
+    }
+
+    private synchronized void discardRing(IOURing ring) {
+        // the ring may have operations in flight, so it can't be reused
+        ringCount--;
+        ring.close();
+    }
+
+    private synchronized void releaseRing(IOURing ring) {
+        if (closed) {
+            ringCount--;
+            ring.close();
+        } else {
+            freeRings.add(ring);
+        }
+    }
+
+    private boolean writeBatch(IOURing ring, long fd, long address, long len, long offset) {
+        // in-flight operations: id, buffer offset relative to address and length
+        final long[] ids = tlIds.get();
+        final long[] chunkOffsets = tlChunkOffsets.get();
+        final long[] chunkLens = tlChunkLens.get();
+        Arrays.fill(ids, -1);
+
+        long enqueued = 0;
+        int inFlight = 0;
+        boolean failed = false;
+        while (inFlight > 0 || (!failed && enqueued < len)) {
+            while (!failed && enqueued < len && inFlight < ringCapacity) {
+                final int chunkLen = (int) Math.min(chunkSize, len - enqueued);
+                if (!enqueue(ring, ids, chunkOffsets, chunkLens, fd, address, offset, enqueued, chunkLen)) {
+                    break;
+                }
+                enqueued += chunkLen;
+                inFlight++;
+            }
+            if (inFlight == 0) {
+                failed = true;
+                break;
+            }
+            ring.submitAndWait();
+            while (ring.nextCqe()) {
+                final long id = ring.getCqeId();
+                final int res = ring.getCqeRes();
+                final int slot = slotOf(ids, id);
+                assert slot > -1;
+                ids[slot] = -1;
+                inFlight--;
+                if (res < 0 || failed) {
+                    failed = true;
+                    continue;
+                }
+                final long chunkLen = chunkLens[slot];
+                if (res < chunkLen) {
+                    // short write, continue from where the kernel stopped
+                    if (res == 0 || !enqueue(ring, ids, chunkOffsets, chunkLens, fd, address, offset, chunkOffsets[slot] + res, (int) (chunkLen - res))) {
+                        failed = true;
+                        continue;
+                    }
+                    inFlight++;
+                }
+            }
+        }
+        return !failed;
+    }
+
+    private static boolean enqueue(
+            IOURing ring,
+            long[] ids,
+            long[] chunkOffsets,
+            long[] chunkLens,
+            long fd,
+            long address,
+            long offset,
+            long chunkOffset,
+            int chunkLen
+    ) {
+        final int slot = slotOf(ids, -1);
+        if (slot < 0) {
+            return false;
+        }
+        final long id = ring.enqueueWrite(fd, offset + chunkOffset, address + chunkOffset, chunkLen);
+        if (id < 0) {
+            return false;
+        }
+        ids[slot] = id;
+        chunkOffsets[slot] = chunkOffset;
+        chunkLens[slot] = chunkLen;
+        return true;
+    }
+
+    private static int slotOf(long[] ids, long id) {
+        for (int i = 0, n = ids.length; i < n; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
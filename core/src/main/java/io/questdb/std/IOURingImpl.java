@@ -98,11 +98,21 @@ public class IOURingImpl implements IOURing {
         return enqueueSqe(IORING_OP_NOP, -1, 0, 0, 0);
     }
 
+    @Override
+    public long enqueueFsync(long fd) {
+        return enqueueSqe(IORING_OP_FSYNC, fd, 0, 0, 0);
+    }
+
     @Override
     public long enqueueRead(long fd, long offset, long bufAddr, int len) {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
     }
 
+    @Override
+    public long enqueueWrite(long fd, long offset, long bufAddr, int len) {
+        return enqueueSqe(IORING_OP_WRITE, fd, offset, bufAddr, len);
+    }
+
     @Override
     public long getCqeId() {
         if (cachedIndex < cachedSize) {
@@ -33,8 +33,10 @@ public class IOUringAccessor {
     static final short CQ_KRING_ENTRIES_OFFSET;
     static final short CQ_KRING_MASK_OFFSET;
     static final short CQ_KTAIL_OFFSET;
+    static final byte IORING_OP_FSYNC = 3;
     static final byte IORING_OP_NOP = 0;
     static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_WRITE = 23;
     static final short RING_FD_OFFSET;
     static final short SIZEOF_CQE;
     static final short SIZEOF_SQE;
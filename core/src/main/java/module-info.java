@@ -39,6 +39,7 @@ open module io.questdb {
     exports io.questdb.cairo.security;
 
     exports io.questdb.cutlass;
+    exports io.questdb.cutlass.arrow;
     exports io.questdb.cutlass.http;
     exports io.questdb.cutlass.http.processors;
     exports io.questdb.cutlass.http.ex;
@@ -47,6 +48,7 @@ open module io.questdb {
     exports io.questdb.cutlass.line.udp;
     exports io.questdb.cutlass.line.tcp;
     exports io.questdb.cutlass.line.http;
+    exports io.questdb.cutlass.parquet;
     exports io.questdb.cutlass.pgwire;
     exports io.questdb.cutlass.text;
     exports io.questdb.cutlass.text.types;
@@ -921,6 +923,7 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.table.ParquetScanFunctionFactory,
             io.questdb.griffin.engine.functions.table.HydrateTableMetadataFunctionFactory,
             io.questdb.griffin.engine.functions.table.WaitWalTableFunctionFactory,
+            io.questdb.griffin.engine.functions.table.TableWithPendingWalFunctionFactory,
 
             // strpos
             io.questdb.griffin.engine.functions.str.StrPosFunctionFactory,
@@ -982,6 +985,14 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.window.AvgDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.FirstValueDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.SumDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountConstWindowFunctionFactory,
 
             // metadata functions
             io.questdb.griffin.engine.functions.metadata.BuildFunctionFactory,
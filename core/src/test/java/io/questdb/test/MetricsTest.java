@@ -189,6 +189,13 @@ public class MetricsTest {
             return delegate.newLongGauge(memoryTag);
         }
 
+        @Override
+        public LongGaugeWithOneLabel newLongGauge(CharSequence name, CharSequence labelName0) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newLongGauge(name, labelName0);
+        }
+
         @Override
         public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
             addMetricName(name);
@@ -0,0 +1,357 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.BloomFilterWriter;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Rows;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8String;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BloomFilterTest extends AbstractCairoTest {
+    private static final int BLOCK_ROWS = 100;
+    // pairs of equivalent filters, the first one cannot use bloom filters
+    private static final String[][] FILTERS = {
+            {"id + 0 = 11878500", "id = 11878500"},
+            {"id + 0 = 11878501", "id = 11878501"},
+            {"i + 0 = 2020", "i = 2020"},
+            {"u::string = '11111111-2222-3333-4444-100000000777'", "u = '11111111-2222-3333-4444-100000000777'"},
+            {"u::string = '11111111-2222-3333-4444-999999999999'", "'11111111-2222-3333-4444-999999999999' = u"},
+            {"concat(v, '') = 'key_42'", "v = 'key_42'"},
+            {"concat(v, '') = 'absent'", "v = 'absent'"},
+            {"concat(v, '') = 'key_1200' and i + 0 > 1000", "v = 'key_1200' and i > 1000"},
+            {"id + 0 = 11878500 or i + 0 = 5", "id = 11878500 or i = 5"}
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, BLOCK_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, BLOCK_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, BLOCK_ROWS);
+        super.setUp();
+    }
+
+    @Test
+    public void testBindVariables() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 7919L * 1500);
+            assertSqlCursors("select * from x where id + 0 = $1", "select * from x where id = $1");
+            bindVariableService.setLong(0, 7919L * 1500 + 1);
+            assertSqlCursors("select * from x where id + 0 = $1", "select * from x where id = $1");
+
+            bindVariableService.clear();
+            bindVariableService.setStr("v", "key_2001");
+            bindVariableService.setStr("u", "11111111-2222-3333-4444-100000000033");
+            assertSqlCursors(
+                    "select * from x where concat(v, '') = :v or u::string = :u",
+                    "select * from x where v = :v or u = :u"
+            );
+            assertSqlCursors(
+                    "select * from x where concat(v, '') = :v and u::string = :u",
+                    "select * from x where v = :v and u = :u"
+            );
+            bindVariableService.setStr("u", "11111111-2222-3333-4444-100000002001");
+            assertSqlCursors(
+                    "select * from x where concat(v, '') = :v and u::string = :u",
+                    "select * from x where v = :v and u = :u"
+            );
+        });
+    }
+
+    @Test
+    public void testBlocks() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+
+            assertBloomFilterFile("x", "2024-01-01", "id", true);
+            assertBloomFilterFile("x", "2024-01-01", "u", true);
+            assertBloomFilterFile("x", "2024-01-01", "v", true);
+            assertBloomFilterFile("x", "2024-01-01", "i", true);
+            assertBloomFilterFile("x", "2024-01-01", "l", false);
+            assertBloomFilterFile("x", "2024-01-01", "ts", false);
+
+            try (TableReader reader = getReader("x")) {
+                final int id = reader.getMetadata().getColumnIndex("id");
+                final int l = reader.getMetadata().getColumnIndex("l");
+                Assert.assertEquals(3, reader.getPartitionCount());
+                for (int p = 0; p < 3; p++) {
+                    reader.openPartition(p);
+                }
+                // row 41 of the first partition holds key 42
+                final long hash = BloomFilterWriter.hashLong(7919L * 42);
+                Assert.assertFalse(reader.bloomFilterExcludes(0, id, 0, 100, hash));
+                Assert.assertFalse(reader.bloomFilterExcludes(0, id, 41, 42, hash));
+                Assert.assertTrue(reader.bloomFilterExcludes(1, id, 0, 1000, hash));
+                // not declared
+                Assert.assertFalse(reader.bloomFilterExcludes(1, l, 0, 1000, BloomFilterWriter.hashLong(-1)));
+                // incomplete block
+                Assert.assertFalse(reader.bloomFilterExcludes(2, id, 0, 50, hash));
+            }
+            assertFilters("x");
+            assertNoFalseNegatives("x");
+        });
+    }
+
+    @Test
+    public void testCreateTableAsSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+            ddl("create table y as (select * from x), index(v type bloom), index(id type bloom) timestamp(ts) partition by DAY");
+            try (TableReader reader = getReader("y")) {
+                Assert.assertTrue(reader.getMetadata().isBloomFilterIndexed(reader.getMetadata().getColumnIndex("v")));
+                Assert.assertTrue(reader.getMetadata().isBloomFilterIndexed(reader.getMetadata().getColumnIndex("id")));
+                Assert.assertFalse(reader.getMetadata().isBloomFilterIndexed(reader.getMetadata().getColumnIndex("u")));
+            }
+            assertBloomFilterFile("y", "2024-01-02", "v", true);
+            assertBloomFilterFile("y", "2024-01-02", "u", false);
+            assertFilters("y");
+            assertNoFalseNegatives("y");
+
+            String sql = "create table z as (select ts, l::double d from x), index(d type bloom) timestamp(ts)";
+            assertException(sql, 0, "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: d");
+            sql = "create table z as (select ts, l::double d from x), cast(d as long), index(d type bloom) timestamp(ts)";
+            ddl(sql);
+            try (TableReader reader = getReader("z")) {
+                Assert.assertTrue(reader.getMetadata().isBloomFilterIndexed(reader.getMetadata().getColumnIndex("d")));
+            }
+        });
+    }
+
+    @Test
+    public void testDdl() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            try (TableReader reader = getReader("x")) {
+                for (int i = 0, n = reader.getMetadata().getColumnCount(); i < n; i++) {
+                    final String name = reader.getMetadata().getColumnName(i);
+                    Assert.assertEquals(name, !name.equals("l") && !name.equals("ts"), reader.getMetadata().isBloomFilterIndexed(i));
+                }
+            }
+
+            String sql = "create table y (s symbol, ts timestamp), index(s type bloom) timestamp(ts)";
+            assertException(sql, sql.indexOf("s type"), "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: s");
+            sql = "create table y (d double, ts timestamp), index(d type bloom) timestamp(ts)";
+            assertException(sql, sql.indexOf("d type"), "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: d");
+            sql = "create table y (l long, ts timestamp), index(l type bitmap) timestamp(ts)";
+            assertException(sql, sql.indexOf("bitmap"), "'bloom' expected");
+            sql = "create table y (l long, ts timestamp), index(l capacity 128) timestamp(ts)";
+            assertException(sql, sql.indexOf("l capacity"), "indexes are supported only for SYMBOL columns: l");
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            insertRows("x", 0, 1000);
+            ddl("truncate table x");
+            insertRows("x", 5000, 450);
+            insertRows("x", 6000, 600);
+
+            assertNoFalseNegatives("x");
+            assertFilters("x");
+        });
+    }
+
+    @Test
+    public void testOutOfOrder() throws Exception {
+        setProperty(PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 100);
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 3000);
+            // merge into the middle partition and split the last one
+            insertRows("x", 1100, 150, "2024-01-02T05", 60000000L);
+            insertRows("x", 5000, 150, "2024-01-03T20", 60000000L);
+            insertRows("x", 3000, 777);
+            insertRows("x", 7000, 333, "2024-01-03T21", 1000000L);
+
+            assertFilters("x");
+            Assert.assertTrue(assertNoFalseNegatives("x") > 0);
+        });
+    }
+
+    @Test
+    public void testRenameColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+            ddl("alter table x rename column id to order_id");
+            insertRows("x", 2050, 500);
+
+            assertSqlCursors("select * from x where order_id + 0 = 11878500", "select * from x where order_id = 11878500");
+            assertSqlCursors("select * from x where order_id + 0 = 7919", "select * from x where order_id = 7919");
+            Assert.assertTrue(assertNoFalseNegatives("x") > 0);
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2550);
+            update("update x set v = concat(v, '_u') where ts in '2024-01-02'");
+            update("update x set id = -id where ts in '2024-01-03'");
+            insertRows("x", 2550, 500);
+
+            assertSqlCursors("select * from x where concat(v, '') = 'key_1200_u'", "select * from x where v = 'key_1200_u'");
+            assertSqlCursors("select * from x where concat(v, '') = 'key_1200'", "select * from x where v = 'key_1200'");
+            assertSqlCursors("select * from x where id + 0 = -15838000", "select * from x where id = -15838000");
+            assertFilters("x");
+            assertNoFalseNegatives("x");
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY WAL");
+            insertRows("x", 0, 1234);
+            insertRows("x", 1234, 1234);
+            insertRows("x", 3000, 150, "2024-01-01T12", 60000000L);
+            drainWalQueue();
+
+            assertFilters("x");
+            Assert.assertTrue(assertNoFalseNegatives("x") > 0);
+        });
+    }
+
+    private static void createTable(String tableName, String suffix) throws Exception {
+        ddl(
+                "create table " + tableName + " (id long, u uuid, v varchar, i int, l long, ts timestamp)" +
+                        ", index(id type bloom), index(u type bloom), index(v type bloom), index(i type bloom)" +
+                        " timestamp(ts) " + suffix
+        );
+    }
+
+    private static void insertRows(String tableName, long offset, long count) throws Exception {
+        // 1000 rows per day
+        insertRows(tableName, offset, count, "dateadd('s', " + offset * 86_400 / 1000 + ", '2024-01-01')", 86400000L);
+    }
+
+    private static void insertRows(String tableName, long offset, long count, String start, long step) throws Exception {
+        if (start.startsWith("20")) {
+            start = "'" + start + "'";
+        }
+        // the key of row k is k * 7919, its uuid and varchar have k at the end
+        insert(
+                "insert into " + tableName + " select (x + " + offset + ") * 7919, " +
+                        "cast(concat('11111111-2222-3333-4444-', 100000000000 + x + " + offset + ") as uuid), " +
+                        "concat('key_', x + " + offset + ")::varchar, (x + " + offset + ")::int, x, " +
+                        "timestamp_sequence(" + start + ", " + step + ") from long_sequence(" + count + ")"
+        );
+    }
+
+    private void assertBloomFilterFile(String tableName, String partition, String columnName, boolean exists) {
+        try (Path path = new Path().of(configuration.getRoot())) {
+            path.concat(engine.verifyTableName(tableName).getDirName()).concat(partition);
+            final FilesFacade ff = configuration.getFilesFacade();
+            Assert.assertEquals(columnName, exists, ff.exists(TableUtils.bloomFilterFile(path, columnName, -1)));
+        }
+    }
+
+    private void assertFilters(String tableName) throws Exception {
+        final boolean parallelFilterEnabled = sqlExecutionContext.isParallelFilterEnabled();
+        try {
+            for (int parallel = 0; parallel < 2; parallel++) {
+                sqlExecutionContext.setParallelFilterEnabled(parallel == 1);
+                for (String[] filter : FILTERS) {
+                    assertSqlCursors(
+                            "select * from " + tableName + " where " + filter[0],
+                            "select * from " + tableName + " where " + filter[1]
+                    );
+                }
+            }
+        } finally {
+            sqlExecutionContext.setParallelFilterEnabled(parallelFilterEnabled);
+        }
+    }
+
+    // verifies that bloom filters never exclude the rows holding a key, returns the number
+    // of blocks they excluded for a key that is not in the table
+    private int assertNoFalseNegatives(String tableName) {
+        final Utf8String absent = new Utf8String("absent");
+        try (
+                TableReader reader = getReader(tableName);
+                TestTableReaderRecordCursor cursor = new TestTableReaderRecordCursor().of(reader)
+        ) {
+            final Record record = cursor.getRecord();
+            final int columnCount = reader.getMetadata().getColumnCount();
+            while (cursor.hasNext()) {
+                final long rowId = record.getRowId();
+                final int partitionIndex = Rows.toPartitionIndex(rowId);
+                final long row = Rows.toLocalRowID(rowId);
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnType = reader.getMetadata().getColumnType(i);
+                    final long hash;
+                    switch (ColumnType.tagOf(columnType)) {
+                        case ColumnType.INT:
+                            hash = BloomFilterWriter.hashLong(record.getInt(i));
+                            break;
+                        case ColumnType.LONG:
+                            hash = BloomFilterWriter.hashLong(record.getLong(i));
+                            break;
+                        case ColumnType.UUID:
+                            hash = BloomFilterWriter.hashUuid(record.getLong128Lo(i), record.getLong128Hi(i));
+                            break;
+                        case ColumnType.VARCHAR:
+                            hash = BloomFilterWriter.hashVarchar(record.getVarcharA(i));
+                            break;
+                        default:
+                            continue;
+                    }
+                    Assert.assertFalse(reader.bloomFilterExcludes(partitionIndex, i, row, row + 1, hash));
+                }
+            }
+
+            int excluded = 0;
+            final int v = reader.getMetadata().getColumnIndex("v");
+            for (int p = 0, n = reader.getPartitionCount(); p < n; p++) {
+                final long rowCount = reader.openPartition(p);
+                for (long lo = 0; lo < rowCount; lo += BLOCK_ROWS) {
+                    if (reader.bloomFilterExcludes(p, v, lo, Math.min(rowCount, lo + BLOCK_ROWS), BloomFilterWriter.hashVarchar(absent))) {
+                        excluded++;
+                    }
+                }
+            }
+            return excluded;
+        }
+    }
+}
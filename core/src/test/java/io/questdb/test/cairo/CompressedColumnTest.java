@@ -0,0 +1,302 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.CompressedColumn;
+import io.questdb.cairo.vm.CompressedBlockCache;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressedColumnTest extends AbstractTest {
+    private final FilesFacade ff = TestFilesFacadeImpl.INSTANCE;
+
+    @Test
+    public void testBinarySearch() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Rnd rnd = new Rnd();
+            final long rowCount = 5000;
+            final long[] ts = {1_700_000_000_000_000L};
+            try (Path path = new Path().of(root).concat(testName.getMethodName()).put(".z")) {
+                // timestamps with duplicates, as in a designated timestamp column
+                final long expected = writeColumn(path, ColumnType.TIMESTAMP, rowCount, (addr, i) -> {
+                    ts[0] += rnd.nextInt(3) * 1_000;
+                    Unsafe.getUnsafe().putLong(addr, ts[0]);
+                });
+                try (
+                        CompressedBlockCache cache = new CompressedBlockCache(CompressedColumn.BLOCK_SIZE);
+                        MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(cache)
+                ) {
+                    mem.of(ff, path.$(), 0, rowCount * Long.BYTES, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    final long lo = Unsafe.getUnsafe().getLong(expected);
+                    for (long value = lo - 1_000; value <= ts[0] + 1_000; value += 500) {
+                        for (int scanDir : new int[]{BinarySearch.SCAN_UP, BinarySearch.SCAN_DOWN}) {
+                            Assert.assertEquals(
+                                    Vect.binarySearch64Bit(expected, value, 0, rowCount - 1, scanDir),
+                                    mem.binarySearch64Bit(value, 0, rowCount - 1, scanDir)
+                            );
+                            Assert.assertEquals(
+                                    Vect.binarySearch64Bit(expected, value, 100, 3000, scanDir),
+                                    mem.binarySearch64Bit(value, 100, 3000, scanDir)
+                            );
+                        }
+                    }
+                } finally {
+                    Unsafe.free(expected, rowCount * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                    ff.remove(path.$());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testDoubleRandom() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.DOUBLE, 3000, (addr, i) -> Unsafe.getUnsafe().putDouble(addr, rnd.nextDouble()), false);
+    }
+
+    @Test
+    public void testDoubleSlowlyChanging() throws Exception {
+        final Rnd rnd = new Rnd();
+        final double[] value = {100.0};
+        assertRoundTrip(ColumnType.DOUBLE, 5000, (addr, i) -> {
+            if (rnd.nextInt(10) == 0) {
+                value[0] += rnd.nextInt(100) / 4.0;
+            }
+            Unsafe.getUnsafe().putDouble(addr, value[0]);
+        }, true);
+    }
+
+    @Test
+    public void testDoubleSpecialValues() throws Exception {
+        final double[] values = {Double.NaN, 0.0, -0.0, Double.MAX_VALUE, Double.MIN_VALUE, 1.0, Double.NEGATIVE_INFINITY, 1.5};
+        assertRoundTrip(ColumnType.DOUBLE, 1025, (addr, i) -> Unsafe.getUnsafe().putDouble(addr, values[(int) (i % values.length)]), false);
+    }
+
+    @Test
+    public void testExtendBeyondSizeFails() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(root).concat(testName.getMethodName()).put(".z")) {
+                final long values = writeColumn(path, ColumnType.LONG, 100, (addr, i) -> Unsafe.getUnsafe().putLong(addr, i));
+                Unsafe.free(values, 100 * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                try (
+                        CompressedBlockCache cache = new CompressedBlockCache(CompressedColumn.BLOCK_SIZE);
+                        MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(cache)
+                ) {
+                    mem.of(ff, path.$(), 0, 50 * Long.BYTES, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    Assert.assertEquals(49, mem.getLong(49 * Long.BYTES));
+                    try {
+                        mem.extend(200 * Long.BYTES);
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "compressed column cannot be extended");
+                    }
+                }
+                try (
+                        CompressedBlockCache cache = new CompressedBlockCache(CompressedColumn.BLOCK_SIZE);
+                        MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(cache)
+                ) {
+                    mem.of(ff, path.$(), 0, 101 * Long.BYTES, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "compressed column is shorter than expected");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testIntRandom() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.INT, 2049, (addr, i) -> Unsafe.getUnsafe().putInt(addr, rnd.nextInt()), false);
+    }
+
+    @Test
+    public void testIntRuns() throws Exception {
+        final Rnd rnd = new Rnd();
+        final int[] value = {0};
+        assertRoundTrip(ColumnType.SYMBOL, 10_000, (addr, i) -> {
+            if (rnd.nextInt(50) == 0) {
+                value[0] = rnd.nextInt(16);
+            }
+            Unsafe.getUnsafe().putInt(addr, value[0]);
+        }, true);
+    }
+
+    @Test
+    public void testLongRandom() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.LONG, 1500, (addr, i) -> Unsafe.getUnsafe().putLong(addr, rnd.nextLong()), false);
+    }
+
+    @Test
+    public void testSingleRow() throws Exception {
+        assertRoundTrip(ColumnType.TIMESTAMP, 1, (addr, i) -> Unsafe.getUnsafe().putLong(addr, 1_700_000_000_000_000L), false);
+        assertRoundTrip(ColumnType.DOUBLE, 1, (addr, i) -> Unsafe.getUnsafe().putDouble(addr, 42.5), false);
+        assertRoundTrip(ColumnType.INT, 1, (addr, i) -> Unsafe.getUnsafe().putInt(addr, 42), false);
+    }
+
+    @Test
+    public void testTimestampJitter() throws Exception {
+        final Rnd rnd = new Rnd();
+        final long[] ts = {1_700_000_000_000_000L};
+        assertRoundTrip(ColumnType.TIMESTAMP, 10_000, (addr, i) -> {
+            ts[0] += 1_000_000 + rnd.nextInt(1000) - 500;
+            Unsafe.getUnsafe().putLong(addr, ts[0]);
+        }, true);
+    }
+
+    @Test
+    public void testTimestampLargeJumps() throws Exception {
+        final Rnd rnd = new Rnd();
+        final long[] ts = {0};
+        assertRoundTrip(ColumnType.TIMESTAMP, 3000, (addr, i) -> {
+            ts[0] += rnd.nextBoolean() ? 1 : rnd.nextLong() >>> 2;
+            Unsafe.getUnsafe().putLong(addr, ts[0]);
+        }, false);
+    }
+
+    @Test
+    public void testTimestampRegular() throws Exception {
+        assertRoundTrip(ColumnType.TIMESTAMP, 100_000, (addr, i) -> Unsafe.getUnsafe().putLong(addr, 1_700_000_000_000_000L + i * 1_000_000L), true);
+    }
+
+    @Test
+    public void testUnsupportedTypes() {
+        Assert.assertEquals(CompressedColumn.CODEC_NONE, CompressedColumn.getCodec(ColumnType.VARCHAR));
+        Assert.assertEquals(CompressedColumn.CODEC_NONE, CompressedColumn.getCodec(ColumnType.UUID));
+        Assert.assertEquals(CompressedColumn.CODEC_NONE, CompressedColumn.getCodec(ColumnType.SHORT));
+        Assert.assertEquals(CompressedColumn.CODEC_DELTA_OF_DELTA, CompressedColumn.getCodec(ColumnType.DATE));
+    }
+
+    private void assertBytes(long expected, long actual, long size) {
+        for (long i = 0; i < size; i += Integer.BYTES) {
+            if (Unsafe.getUnsafe().getInt(expected + i) != Unsafe.getUnsafe().getInt(actual + i)) {
+                Assert.fail("mismatch at offset " + i);
+            }
+        }
+    }
+
+    private void assertDecodeRange(long expected, long fileAddress, long lo, long hi) {
+        if (lo == hi) {
+            return;
+        }
+        final long buf = Unsafe.malloc(hi - lo, MemoryTag.NATIVE_DEFAULT);
+        final long scratch = Unsafe.malloc(CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            CompressedColumn.decodeRange(new CompressedColumn.BitReader(), fileAddress, lo, hi, buf, scratch);
+            assertBytes(expected + lo, buf, hi - lo);
+        } finally {
+            Unsafe.free(scratch, CompressedColumn.BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(buf, hi - lo, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private void assertRoundTrip(int columnType, long rowCount, ValueGenerator generator, boolean expectSmaller) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int shift = ColumnType.pow2SizeOf(columnType);
+            final long size = rowCount << shift;
+            try (Path path = new Path().of(root).concat(testName.getMethodName()).put(".z")) {
+                final long expected = writeColumn(path, columnType, rowCount, generator);
+                try {
+                    if (expectSmaller) {
+                        Assert.assertTrue(ff.length(path.$()) < size / 2);
+                    }
+                    Assert.assertTrue(ff.length(path.$()) < size + CompressedColumn.HEADER_SIZE + (rowCount / 512 + 2) * 2 * Long.BYTES);
+
+                    // random access decodes individual blocks; the cache is smaller than the column,
+                    // so that blocks get evicted and decoded again
+                    try (
+                            CompressedBlockCache cache = new CompressedBlockCache(2 * CompressedColumn.BLOCK_SIZE);
+                            MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(cache)
+                    ) {
+                        mem.of(ff, path.$(), 0, size, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                        Assert.assertEquals(size, mem.size());
+                        for (int pass = 0; pass < 2; pass++) {
+                            for (long i = rowCount - 1; i > -1; i -= 7) {
+                                if (shift == 3) {
+                                    Assert.assertEquals(Unsafe.getUnsafe().getLong(expected + (i << 3)), mem.getLong(i << 3));
+                                } else {
+                                    Assert.assertEquals(Unsafe.getUnsafe().getInt(expected + (i << 2)), mem.getInt(i << 2));
+                                }
+                            }
+                        }
+                    }
+
+                    // size taken from the file header; page frames decode row ranges
+                    try (
+                            CompressedBlockCache cache = new CompressedBlockCache(CompressedColumn.BLOCK_SIZE);
+                            MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(cache)
+                    ) {
+                        mem.of(ff, path.$(), 0, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                        Assert.assertEquals(size, mem.size());
+                        assertDecodeRange(expected, mem.getFileAddress(), 0, size);
+                        assertDecodeRange(expected, mem.getFileAddress(), (rowCount / 3) << shift, size);
+                        assertDecodeRange(expected, mem.getFileAddress(), (rowCount / 5) << shift, (rowCount / 2) << shift);
+                    }
+                } finally {
+                    Unsafe.free(expected, size, MemoryTag.NATIVE_DEFAULT);
+                    ff.remove(path.$());
+                }
+            }
+        });
+    }
+
+    private long writeColumn(Path path, int columnType, long rowCount, ValueGenerator generator) {
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final long size = rowCount << shift;
+        final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        for (long i = 0; i < rowCount; i++) {
+            generator.put(addr + (i << shift), i);
+        }
+        try (MemoryCMARW mem = Vm.getCMARWInstance()) {
+            mem.of(ff, path.$(), ff.getPageSize(), MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            CompressedColumn.compress(mem, addr, rowCount, columnType);
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        return addr;
+    }
+
+    @FunctionalInterface
+    private interface ValueGenerator {
+        void put(long addr, long row);
+    }
+}
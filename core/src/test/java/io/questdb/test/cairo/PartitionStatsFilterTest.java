@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.BloomFilterWriter;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.PartitionStatsFilter;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.NumericException;
+import io.questdb.std.Uuid;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8String;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionStatsFilterTest extends AbstractCairoTest {
+    private static final GenericRecordMetadata metadata = new GenericRecordMetadata();
+    private final PartitionStatsFilter filter = new PartitionStatsFilter();
+    private final QueryModel queryModel = QueryModel.FACTORY.newInstance();
+
+    @Test
+    public void testBloomKeys() throws SqlException, NumericException {
+        final String uuid = "11111111-2222-3333-4444-555555555555";
+        assertBloomKeys("l:" + BloomFilterWriter.hashLong(42) + "\n", "l = 42 and l > 0");
+        assertBloomKeys("i:" + BloomFilterWriter.hashLong(-7) + "\n", "-7 = i");
+        assertBloomKeys("v:" + BloomFilterWriter.hashVarchar(new Utf8String("ab'c")) + "\n", "v = 'ab''c'");
+        assertBloomKeys("u:" + BloomFilterWriter.hashUuid(Uuid.parseLo(uuid), Uuid.parseHi(uuid)) + "\n", "u = '" + uuid + "'");
+        assertBloomKeys("", "l = null or l = 1");
+        assertBloomKeys("", "i = 10000000000");
+        assertBloomKeys("", "s = 'abc'");
+        assertBloomKeys("", "u = 'abc'");
+        assertBloomKeys("", "v != 'abc'");
+    }
+
+    @Test
+    public void testBloomKeysBindVariables() throws SqlException, NumericException {
+        final String uuid = "11111111-2222-3333-4444-555555555555";
+        bindVariableService.clear();
+        bindVariableService.setLong(0, 42);
+        bindVariableService.setStr(1, uuid);
+        bindVariableService.setLong(2, Long.MIN_VALUE);
+        bindVariableService.setStr("v", "abc");
+        assertBloomKeys(
+                "l:" + BloomFilterWriter.hashLong(42) + "\n" +
+                        "u:" + BloomFilterWriter.hashUuid(Uuid.parseLo(uuid), Uuid.parseHi(uuid)) + "\n" +
+                        "v:" + BloomFilterWriter.hashVarchar(new Utf8String("abc")) + "\n" +
+                        // null values are not looked up
+                        "i:" + Long.MIN_VALUE + "\n",
+                "l = $1 and $2 = u and v = :v and i = $3"
+        );
+
+        // values are resolved on each execution
+        bindVariableService.setLong(0, 43);
+        filter.prepare(sqlExecutionContext);
+        Assert.assertEquals(BloomFilterWriter.hashLong(43), filter.getBloomKeyHash(0));
+    }
+
+    @Test
+    public void testIsEmpty() throws SqlException {
+        parse("dbl > 0.5 or l = 1");
+        Assert.assertTrue(filter.isEmpty());
+
+        parse("v = 'abc'");
+        Assert.assertFalse(filter.isEmpty());
+        Assert.assertEquals(0, filter.getRanges().size());
+
+        parse("l > 0 and dbl > 0.5");
+        Assert.assertFalse(filter.isEmpty());
+        Assert.assertEquals(0, filter.getBloomKeyCount());
+    }
+
+    @Test
+    public void testRanges() throws SqlException {
+        parse("l = 42 and ts > '2024-01-01' and v = 'abc'");
+        final RowGroupStatsFilter ranges = filter.getRanges();
+        final StringSink actual = new StringSink();
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            actual.put(metadata.getColumnName(ranges.getColumnIndex(i)))
+                    .put(":[").put(Long.toString(ranges.getRangeLo(i)))
+                    .put(',').put(Long.toString(ranges.getRangeHi(i)))
+                    .put("]\n");
+        }
+        TestUtils.assertEquals("l:[42,42]\nts:[1704067200000001,9223372036854775807]\n", actual);
+        Assert.assertEquals(2, filter.getBloomKeyCount());
+    }
+
+    private void assertBloomKeys(String expected, String where) throws SqlException {
+        parse(where);
+        filter.prepare(sqlExecutionContext);
+        final StringSink actual = new StringSink();
+        for (int i = 0, n = filter.getBloomKeyCount(); i < n; i++) {
+            actual.put(metadata.getColumnName(filter.getBloomKeyColumnIndex(i)))
+                    .put(':').put(Long.toString(filter.getBloomKeyHash(i)))
+                    .put('\n');
+        }
+        TestUtils.assertEquals(expected, actual);
+    }
+
+    private void parse(String where) throws SqlException {
+        queryModel.clear();
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            filter.of(compiler.testParseExpression(where, queryModel), metadata);
+        }
+    }
+
+    static {
+        metadata.add(new TableColumnMetadata("i", ColumnType.INT));
+        metadata.add(new TableColumnMetadata("l", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("ts", ColumnType.TIMESTAMP));
+        metadata.add(new TableColumnMetadata("dbl", ColumnType.DOUBLE));
+        metadata.add(new TableColumnMetadata("s", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("u", ColumnType.UUID));
+        metadata.add(new TableColumnMetadata("v", ColumnType.VARCHAR));
+    }
+}
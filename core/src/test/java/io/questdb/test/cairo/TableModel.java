@@ -146,6 +146,11 @@ public class TableModel implements TableStructure {
         return this;
     }
 
+    @Override
+    public boolean isBloomFilterIndexed(int index) {
+        return false;
+    }
+
     @Override
     public boolean isDedupKey(int index) {
         return (columnBits.getQuick(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) == COLUMN_FLAG_DEDUP_KEY;
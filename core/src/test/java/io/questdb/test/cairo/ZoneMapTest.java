@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractCairoTest {
+    private static final int BLOCK_ROWS = 100;
+    private static final String[] FILTERS = {
+            "i between 1500 and 1520",
+            "i > 2950",
+            "i < 30",
+            "i = 777",
+            "i >= 1200 and l <= 1250",
+            "l in (5, 2500)",
+            "i between -10 and 10"
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, "true");
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, BLOCK_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, BLOCK_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, BLOCK_ROWS);
+        super.setUp();
+    }
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 1550);
+            ddl("alter table x add column j int");
+            insert("insert into x select x::int, x, x::short, timestamp_sequence('2024-01-02T13:12', 86400000L), x::int from long_sequence(1000)");
+
+            assertFilters("x");
+            assertSqlCursors("select * from x where j + 0 > 900", "select * from x where j > 900");
+            assertSqlCursors("select * from x where j + 0 < 3", "select * from x where j < 3");
+            checkZoneMaps("x", "i");
+            checkZoneMaps("x", "j");
+        });
+    }
+
+    @Test
+    public void testAppendInSmallCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            for (int i = 0; i < 20; i++) {
+                insertRows("x", i * 137, 137);
+            }
+            assertFilters("x");
+            Assert.assertTrue(checkZoneMaps("x", "i") > 0);
+            Assert.assertTrue(checkZoneMaps("x", "l") > 0);
+        });
+    }
+
+    @Test
+    public void testBlocks() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+
+            assertZoneMapFile("x", "2024-01-01", "i", true);
+            assertZoneMapFile("x", "2024-01-01", "l", true);
+            assertZoneMapFile("x", "2024-01-01", "s", true);
+            assertZoneMapFile("x", "2024-01-01", "ts", false);
+
+            try (TableReader reader = getReader("x")) {
+                final int i = reader.getMetadata().getColumnIndex("i");
+                Assert.assertEquals(3, reader.getPartitionCount());
+                for (int p = 0; p < 3; p++) {
+                    reader.openPartition(p);
+                }
+                // rows 0..99 of the first partition hold values 1..100
+                Assert.assertTrue(reader.zoneMapExcludes(0, i, 0, 100, 101, 2000));
+                Assert.assertFalse(reader.zoneMapExcludes(0, i, 0, 100, 100, 2000));
+                Assert.assertFalse(reader.zoneMapExcludes(0, i, 0, 101, 101, 2000));
+                Assert.assertTrue(reader.zoneMapExcludes(1, i, 0, 1000, 0, 1000));
+                Assert.assertFalse(reader.zoneMapExcludes(1, i, 0, 1000, 0, 1001));
+                Assert.assertTrue(reader.zoneMapExcludes(1, i, 250, 450, 1100, 1200));
+                // incomplete block
+                Assert.assertFalse(reader.zoneMapExcludes(2, i, 0, 50, 0, 10));
+            }
+            assertFilters("x");
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, "false");
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+            assertZoneMapFile("x", "2024-01-01", "i", false);
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                Assert.assertFalse(reader.zoneMapExcludes(0, reader.getMetadata().getColumnIndex("i"), 0, 100, 101, 2000));
+            }
+            assertFilters("x");
+        });
+    }
+
+    @Test
+    public void testOutOfOrder() throws Exception {
+        setProperty(PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 100);
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 3000);
+            // merge into the middle partition and split the last one
+            insert("insert into x select -x::int, -x, x::short, timestamp_sequence('2024-01-02T05', 60000000L) from long_sequence(150)");
+            insert("insert into x select (x + 5000)::int, x + 5000, x::short, timestamp_sequence('2024-01-03T20', 60000000L) from long_sequence(150)");
+            insertRows("x", 3000, 777);
+            insert("insert into x select (x + 7000)::int, x + 7000, x::short, timestamp_sequence('2024-01-03T21', 1000000L) from long_sequence(333)");
+            insertRows("x", 3777, 500);
+
+            assertFilters("x");
+            checkZoneMaps("x", "i");
+            checkZoneMaps("x", "l");
+        });
+    }
+
+    @Test
+    public void testRenameColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2050);
+            ddl("alter table x rename column i to k");
+            insertRows("x", 2050, 500);
+
+            assertSqlCursors("select * from x where k + 0 between 1500 and 1520", "select * from x where k between 1500 and 1520");
+            Assert.assertTrue(checkZoneMaps("x", "k") > 0);
+        });
+    }
+
+    @Test
+    public void testTruncateNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            insertRows("x", 0, 1000);
+            ddl("truncate table x");
+            insertRows("x", 5000, 450);
+            insert("insert into x select x::int, x, x::short, timestamp_sequence('2024-01-10', 86400000L) from long_sequence(600)");
+
+            assertFilters("x");
+            Assert.assertTrue(checkZoneMaps("x", "i") > 0);
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY");
+            insertRows("x", 0, 2550);
+            update("update x set i = i + 2000 where ts in '2024-01-02'");
+            update("update x set l = -l where ts in '2024-01-03'");
+            insertRows("x", 2550, 500);
+
+            assertFilters("x");
+            checkZoneMaps("x", "i");
+            checkZoneMaps("x", "l");
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "PARTITION BY DAY WAL");
+            insertRows("x", 0, 1234);
+            insertRows("x", 1234, 1234);
+            insert("insert into x select -x::int, -x, x::short, timestamp_sequence('2024-01-01T12', 60000000L) from long_sequence(150)");
+            drainWalQueue();
+
+            assertFilters("x");
+            Assert.assertTrue(checkZoneMaps("x", "i") > 0);
+            checkZoneMaps("x", "l");
+        });
+    }
+
+    private static void createTable(String tableName, String suffix) throws Exception {
+        ddl("create table " + tableName + " (i int, l long, s short, ts timestamp) timestamp(ts) " + suffix);
+    }
+
+    private static void insertRows(String tableName, long offset, long count) throws Exception {
+        // 1000 rows per day
+        insert("insert into " + tableName + " select (x + " + offset + ")::int, x + " + offset + ", (x % 100)::short, " +
+                "timestamp_sequence(dateadd('s', " + offset * 86_400 / 1000 + ", '2024-01-01'), 86400000L) from long_sequence(" + count + ")");
+    }
+
+    private void assertFilters(String tableName) throws Exception {
+        final boolean parallelFilterEnabled = sqlExecutionContext.isParallelFilterEnabled();
+        try {
+            for (int parallel = 0; parallel < 2; parallel++) {
+                sqlExecutionContext.setParallelFilterEnabled(parallel == 1);
+                for (String filter : FILTERS) {
+                    // arithmetic keeps the filter from being used for skipping
+                    final String expected = filter.replace("i ", "i + 0 ").replace("l ", "l + 0 ");
+                    assertSqlCursors(
+                            "select * from " + tableName + " where " + expected,
+                            "select * from " + tableName + " where " + filter
+                    );
+                }
+            }
+        } finally {
+            sqlExecutionContext.setParallelFilterEnabled(parallelFilterEnabled);
+        }
+    }
+
+    private void assertZoneMapFile(String tableName, String partition, String columnName, boolean exists) {
+        try (Path path = new Path().of(configuration.getRoot())) {
+            path.concat(engine.verifyTableName(tableName).getDirName()).concat(partition);
+            final FilesFacade ff = configuration.getFilesFacade();
+            Assert.assertEquals(columnName, exists, ff.exists(TableUtils.zoneMapFile(path, columnName, -1)));
+        }
+    }
+
+    // verifies that zone maps never exclude the values column holds, returns the number of blocks they excluded
+    private int checkZoneMaps(String tableName, String columnName) {
+        int excluded = 0;
+        try (TableReader reader = getReader(tableName)) {
+            final int columnIndex = reader.getMetadata().getColumnIndex(columnName);
+            final int columnType = reader.getMetadata().getColumnType(columnIndex);
+            for (int p = 0, n = reader.getPartitionCount(); p < n; p++) {
+                final long rowCount = reader.openPartition(p);
+                final int base = reader.getColumnBase(p);
+                final long columnTop = reader.getColumnTop(base, columnIndex);
+                final MemoryCR mem = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndex));
+                for (long lo = 0; lo < rowCount; lo += BLOCK_ROWS / 2) {
+                    final long hi = Math.min(rowCount, lo + BLOCK_ROWS);
+                    long min = Long.MAX_VALUE;
+                    long max = Long.MIN_VALUE;
+                    for (long r = Math.max(lo, columnTop); r < hi; r++) {
+                        final long v = ColumnType.isInt(columnType) ? mem.getInt((r - columnTop) * Integer.BYTES) : mem.getLong((r - columnTop) * Long.BYTES);
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    }
+                    if (min > max) {
+                        continue;
+                    }
+                    Assert.assertFalse(reader.zoneMapExcludes(p, columnIndex, lo, hi, min, min));
+                    Assert.assertFalse(reader.zoneMapExcludes(p, columnIndex, lo, hi, max, max));
+                    Assert.assertFalse(reader.zoneMapExcludes(p, columnIndex, lo, hi, Long.MIN_VALUE, Long.MAX_VALUE));
+                    if (max < Long.MAX_VALUE && reader.zoneMapExcludes(p, columnIndex, lo, hi, max + 1, Long.MAX_VALUE)) {
+                        excluded++;
+                    }
+                }
+            }
+        }
+        return excluded;
+    }
+}
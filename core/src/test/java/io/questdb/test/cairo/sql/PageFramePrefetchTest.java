@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo.sql;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageFramePrefetchTest extends AbstractCairoTest {
+    private static final int FRAME_ROWS = 1000;
+    private long adviseBytes;
+    private int adviseCount;
+    private FilesFacade prefetchFf;
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        adviseCount = 0;
+        adviseBytes = 0;
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, FRAME_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, FRAME_ROWS);
+        prefetchFf = new TestFilesFacadeImpl() {
+            @Override
+            public void madvise(long address, long len, int advise) {
+                if (advise == Files.POSIX_MADV_WILLNEED) {
+                    Assert.assertEquals(0, address % Files.PAGE_SIZE);
+                    adviseCount++;
+                    adviseBytes += len;
+                }
+                super.madvise(address, len, advise);
+            }
+        };
+    }
+
+    @Test
+    public void testBudgetLimitsWindow() throws Exception {
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 8);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUDGET, 20_000);
+        final long pageSize = 8000;
+        // frames are not backed by real memory, so madvise() calls are only recorded
+        assertMemoryLeak(new TestFilesFacadeImpl() {
+            @Override
+            public void madvise(long address, long len, int advise) {
+                if (advise == Files.POSIX_MADV_WILLNEED) {
+                    adviseCount++;
+                    adviseBytes += len;
+                }
+            }
+        }, () -> {
+            final GenericRecordMetadata metadata = new GenericRecordMetadata();
+            metadata.add(new TableColumnMetadata("l", ColumnType.LONG));
+            final PageFrameAddressCache addressCache = new PageFrameAddressCache(configuration);
+            addressCache.of(metadata);
+            final TestPageFrame frame = new TestPageFrame();
+            for (int i = 0; i < 10; i++) {
+                frame.pageAddress = Files.PAGE_SIZE * (1 + i * 2);
+                frame.pageSize = pageSize;
+                addressCache.add(i, frame);
+            }
+
+            // two frames fit into the budget, the third one doesn't
+            addressCache.prefetch(0);
+            Assert.assertEquals(2, adviseCount);
+            Assert.assertEquals(2 * pageSize, adviseBytes);
+
+            addressCache.prefetch(1);
+            Assert.assertEquals(3, adviseCount);
+
+            // frames are advised only once
+            addressCache.prefetch(0);
+            addressCache.prefetch(1);
+            Assert.assertEquals(3, adviseCount);
+
+            addressCache.prefetch(9);
+            Assert.assertEquals(4, adviseCount);
+
+            addressCache.clear();
+            addressCache.add(0, frame);
+            addressCache.prefetch(0);
+            Assert.assertEquals(5, adviseCount);
+        });
+    }
+
+    @Test
+    public void testFilteredScanAdvisesEachFrameOnce() throws Exception {
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 3);
+        assertMemoryLeak(prefetchFf, () -> {
+            ddl("create table x as (select x l, cast(x as int) i from long_sequence(" + 10 * FRAME_ROWS + "))");
+            assertSql(
+                    "count\n" +
+                            "5000\n",
+                    "select count() from (x where l % 2 = 0)"
+            );
+            Assert.assertEquals(20, adviseCount);
+            Assert.assertTrue(adviseBytes >= 10 * FRAME_ROWS * 12);
+        });
+    }
+
+    @Test
+    public void testForwardScanAdvisesFramesAhead() throws Exception {
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 4);
+        assertMemoryLeak(prefetchFf, () -> {
+            ddl("create table x as (select x l, cast(x as int) i from long_sequence(" + 10 * FRAME_ROWS + "))");
+            try (
+                    RecordCursorFactory factory = select("x");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor.hasNext());
+                // frames are added to the address cache one by one, so only the current one is advised
+                Assert.assertEquals(2, adviseCount);
+                long rows = 1;
+                while (cursor.hasNext()) {
+                    rows++;
+                }
+                Assert.assertEquals(10 * FRAME_ROWS, rows);
+            }
+            Assert.assertEquals(20, adviseCount);
+            Assert.assertTrue(adviseBytes >= 10 * FRAME_ROWS * 12);
+        });
+    }
+
+    @Test
+    public void testPrefetchDisabled() throws Exception {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 0);
+        assertMemoryLeak(prefetchFf, () -> {
+            ddl("create table x as (select x l, rnd_varchar(1, 40, 1) v from long_sequence(" + 10 * FRAME_ROWS + "))");
+            printSql("x");
+            Assert.assertEquals(0, adviseCount);
+        });
+    }
+
+    @Test
+    public void testVarSizeColumns() throws Exception {
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 4);
+        assertMemoryLeak(prefetchFf, () -> {
+            ddl(
+                    "create table x as (" +
+                            "select rnd_varchar(20, 40, 0) v, rnd_str(20, 40, 0) s, timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(" + 10 * FRAME_ROWS + ")" +
+                            ") timestamp(ts) partition by day"
+            );
+            // single partition, so each frame's data vector continues the previous one
+            printSql("x");
+            // aux vectors of both var-size columns plus the timestamp in all frames,
+            // data vectors in all but the first frame
+            Assert.assertEquals(10 * 3 + 9 * 2, adviseCount);
+            Assert.assertTrue(adviseBytes >= 9 * FRAME_ROWS * (20 + 20 * 2 + 8));
+        });
+    }
+
+    private static class TestPageFrame implements PageFrame {
+        long pageAddress;
+        long pageSize;
+
+        @Override
+        public long getAuxPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getAuxPageSize(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return null;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public byte getFormat() {
+            return PageFrame.NATIVE_FORMAT;
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return pageAddress;
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            return pageSize;
+        }
+
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            return -1;
+        }
+
+        @Override
+        public LPSZ getParquetPath() {
+            return null;
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return -1;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return pageSize >> 3;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo.wal;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.WalApplyScheduler;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplySchedulerTest extends AbstractCairoTest {
+
+    @Test
+    public void testHigherPriorityTableIsAppliedFirst() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table live set param walApplyPriority = 10");
+            drainWalQueue();
+            Assert.assertEquals(10, engine.getWalApplyPriority(engine.verifyTableName("live")));
+
+            // backfill is notified first and has the same lag as live
+            insert("insert into backfill values (1, '2024-01-01')");
+            insert("insert into live values (1, '2024-01-01')");
+
+            try (ApplyWal2TableJob job = createWalApplyJob()) {
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(0, 1);
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(1, 1);
+                Assert.assertFalse(job.run(0));
+            }
+        });
+    }
+
+    @Test
+    public void testLaggingTableIsAppliedLast() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            for (int i = 0; i < 5; i++) {
+                insert("insert into backfill values (" + i + ", '2024-01-01')");
+            }
+            insert("insert into live values (1, '2024-01-01')");
+
+            try (ApplyWal2TableJob job = createWalApplyJob()) {
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(0, 1);
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(5, 1);
+            }
+        });
+    }
+
+    @Test
+    public void testMaxWaitTimeRestoresArrivalOrder() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_APPLY_MAX_WAIT_TIME, 0);
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table live set param walApplyPriority = 10");
+            drainWalQueue();
+
+            for (int i = 0; i < 5; i++) {
+                insert("insert into backfill values (" + i + ", '2024-01-01')");
+            }
+            insert("insert into live values (1, '2024-01-01')");
+
+            try (ApplyWal2TableJob job = createWalApplyJob()) {
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(5, 0);
+                Assert.assertTrue(job.run(0));
+                assertRowCounts(5, 1);
+            }
+        });
+    }
+
+    @Test
+    public void testNotificationsAreCollapsed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final TableToken backfill = engine.verifyTableName("backfill");
+            final TableToken live = engine.verifyTableName("live");
+            final WalApplyScheduler scheduler = engine.getWalApplyScheduler();
+
+            scheduler.schedule(backfill);
+            scheduler.schedule(live);
+            scheduler.schedule(backfill);
+            Assert.assertEquals(2, scheduler.size());
+
+            final TableToken first = scheduler.next();
+            Assert.assertNotNull(first);
+            // the table is being applied, a new notification queues it but does not hand it out twice
+            scheduler.schedule(first);
+            final TableToken second = scheduler.next();
+            Assert.assertNotNull(second);
+            Assert.assertNotEquals(first, second);
+            Assert.assertNull(scheduler.next());
+            Assert.assertEquals(1, scheduler.size());
+
+            scheduler.done(first);
+            Assert.assertEquals(first, scheduler.next());
+            scheduler.done(first);
+            scheduler.done(second);
+            Assert.assertNull(scheduler.next());
+            Assert.assertEquals(0, scheduler.size());
+        });
+    }
+
+    @Test
+    public void testSetParamWalApplyPriority() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (a int, ts timestamp) timestamp(ts) partition by day bypass wal");
+            final TableToken tableToken = engine.verifyTableName("x");
+            Assert.assertEquals(0, engine.getWalApplyPriority(tableToken));
+
+            ddl("alter table x set param walApplyPriority = 3");
+            Assert.assertEquals(3, engine.getWalApplyPriority(tableToken));
+
+            // the parameter survives other metadata changes
+            ddl("alter table x add column b long");
+            ddl("alter table x set param maxUncommittedRows = 100");
+            engine.metadataCacheHydrateTable(tableToken, true, false);
+            Assert.assertEquals(3, engine.getWalApplyPriority(tableToken));
+
+            assertException("alter table x set param walApplyPriority = abc", 24, "invalid value");
+        });
+    }
+
+    private void assertRowCounts(long backfillCount, long liveCount) throws Exception {
+        assertSql("count\n" + backfillCount + "\n", "select count() from backfill");
+        assertSql("count\n" + liveCount + "\n", "select count() from live");
+    }
+
+    private static void createTables() throws Exception {
+        ddl("create table backfill (a int, ts timestamp) timestamp(ts) partition by day wal");
+        ddl("create table live (a int, ts timestamp) timestamp(ts) partition by day wal");
+        drainWalQueue();
+    }
+}
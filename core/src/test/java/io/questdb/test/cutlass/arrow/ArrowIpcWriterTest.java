@@ -0,0 +1,273 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.arrow;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PartitionFrameCursorFactory;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.arrow.ArrowIpcWriter;
+import io.questdb.std.Unsafe;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ArrowIpcWriterTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 2);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 2);
+    }
+
+    @Test
+    public void testAllTypes() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (" +
+                    "b boolean, bt byte, sh short, c char, i int, ip ipv4, l long, d date, f float, db double, " +
+                    "g1 geohash(1c), g2 geohash(2c), g4 geohash(4c), g8 geohash(8c), u uuid, l256 long256, " +
+                    "s symbol, st string, vc varchar, bin binary, ts timestamp" +
+                    ") timestamp(ts) partition by day");
+            insert("insert into x values (true, 1, 2, 'a', 3, '1.2.3.4', 4, 5, 6.5, 7.25, " +
+                    "#u, #u3, #u33z, #u33zzzzz, '11111111-2222-3333-4444-555555555555', '0x01', " +
+                    "'sym', 'str', 'vär', null, 1000)");
+            insert("insert into x values (false, 0, 0, null, null, null, null, null, null, null, " +
+                    "null, null, null, null, null, null, null, null, null, null, 2000)");
+            insert("insert into x values (true, -1, -2, 'z', -3, '255.255.255.255', -4, -5, -6.5, -7.25, " +
+                    "#z, #zz, #zzzz, #zzzzzzzz, '00000000-0000-0000-0000-000000000001', '0xff', " +
+                    "'sym2', '', '', null, 86400000000)");
+
+            final String expected = "b:Bool\tbt:Int8\tsh:Int16\tc:UInt16\ti:Int32\tip:UInt32\tl:Int64\td:Date(ms)\tf:Float32\tdb:Float64\t" +
+                    "g1:Int8\tg2:Int16\tg4:Int32\tg8:Int64\tu:FixedSizeBinary(16)\tl256:FixedSizeBinary(32)\t" +
+                    "s:Utf8%s\tst:Utf8\tvc:Utf8\tbin:Binary\tts:Timestamp(us)\n" +
+                    "%s" +
+                    "true\t1\t2\t97\t3\t16909060\t4\t5\t6.5\t7.25\t26\t835\t855167\t896708640767\t" +
+                    "11111111222233334444555555555555\t0100000000000000000000000000000000000000000000000000000000000000\t" +
+                    "sym\tstr\tvär\tnull\t1000\n" +
+                    "false\t0\t0\tnull\tnull\tnull\tnull\tnull\tnull\tnull\tnull\tnull\tnull\tnull\t" +
+                    "null\tnull\tnull\tnull\tnull\tnull\t2000\n" +
+                    "%s" +
+                    "true\t-1\t-2\t122\t-3\t4294967295\t-4\t-5\t-6.5\t-7.25\t31\t1023\t1048575\t1099511627775\t" +
+                    "00000000000000000000000000000001\tff00000000000000000000000000000000000000000000000000000000000000\t" +
+                    "sym2\t\t\tnull\t86400000000\n" +
+                    "eos\n";
+            TestUtils.assertEquals(String.format(expected, "", "batch 3\n", ""), exportRecords("x", 100));
+            // page frames of at most 2 rows, the third row is in another partition
+            TestUtils.assertEquals(String.format(expected, " dict", "batch 2\n", "batch 1\n"), exportFrames("x"));
+        });
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x l, timestamp_sequence(0, 3600000000) ts from long_sequence(3)) timestamp(ts) partition by day");
+            ddl("alter table x add column i int");
+            ddl("alter table x add column s symbol");
+            ddl("alter table x add column sh short");
+            insert("insert into x values (4, '1970-01-02', 42, 'a', 7)");
+            final String expected = "l:Int64\tts:Timestamp(us)\ti:Int32\ts:Utf8 dict\tsh:Int16\n" +
+                    "batch 2\n" +
+                    "1\t0\tnull\tnull\t0\n" +
+                    "2\t3600000000\tnull\tnull\t0\n" +
+                    "batch 1\n" +
+                    "3\t7200000000\tnull\tnull\t0\n" +
+                    "batch 1\n" +
+                    "4\t86400000000\t42\ta\t7\n" +
+                    "eos\n";
+            TestUtils.assertEquals(expected, exportFrames("x"));
+        });
+    }
+
+    @Test
+    public void testEmptyResult() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, s symbol, ts timestamp) timestamp(ts)");
+            TestUtils.assertEquals("i:Int32\ts:Utf8 dict\tts:Timestamp(us)\neos\n", exportFrames("x"));
+            TestUtils.assertEquals("i:Int32\ts:Utf8\tts:Timestamp(us)\neos\n", exportRecords("x", 100));
+        });
+    }
+
+    @Test
+    public void testGoldenStream() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, s symbol, vc varchar, ts timestamp) timestamp(ts) partition by day");
+            insert("insert into x values (1, 'a', 'foo', 0), (null, null, null, 1), (3, 'b', '', 2)");
+            final byte[] golden = readHexStream("/io/questdb/test/cutlass/arrow/frames.arrows.hex");
+            TestUtils.assertEquals(
+                    "i:Int32\ts:Utf8 dict\tvc:Utf8\tts:Timestamp(us)\n" +
+                            "batch 2\n" +
+                            "1\ta\tfoo\t0\n" +
+                            "null\tnull\tnull\t1\n" +
+                            "batch 1\n" +
+                            "3\tb\t\t2\n" +
+                            "eos\n",
+                    ArrowStreamDecoder.decode(golden)
+            );
+            // flatbuffers may be laid out differently, while field nodes, validity
+            // bitmaps, offsets, values and dictionaries have to match byte for byte
+            TestUtils.assertEquals(ArrowStreamDecoder.dumpBuffers(golden), ArrowStreamDecoder.dumpBuffers(writeFrames("x")));
+        });
+    }
+
+    @Test
+    public void testMultipleRecordBatches() throws Exception {
+        assertMemoryLeak(() -> TestUtils.assertEquals(
+                "x:Int64\ts:Utf8\tn:Null\n" +
+                        "batch 2\n" +
+                        "1\ta1\tnull\n" +
+                        "2\tnull\tnull\n" +
+                        "batch 2\n" +
+                        "3\ta3\tnull\n" +
+                        "4\tnull\tnull\n" +
+                        "batch 1\n" +
+                        "5\ta5\tnull\n" +
+                        "eos\n",
+                exportRecords("select x, case when x % 2 = 1 then 'a' || x end s, null n from long_sequence(5)", 2)
+        ));
+    }
+
+    @Test
+    public void testSymbolDictionaryIsSentOnce() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('a', 'b', null) s, x l from long_sequence(6))");
+            final String frames = exportFrames("x");
+            final String records = exportRecords("x", 2);
+            // dictionary-encoded and plain output differ only in the schema
+            TestUtils.assertEquals(records.replace("s:Utf8", "s:Utf8 dict"), frames);
+        });
+    }
+
+    @Test
+    public void testUnsupportedType() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = select("select to_long128(1, 2) l");
+                    ArrowIpcWriter writer = new ArrowIpcWriter()
+            ) {
+                writer.of(factory.getMetadata(), null);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "unsupported column type for Arrow export [column=l, type=LONG128]");
+            }
+        });
+    }
+
+    private static void copySegments(ArrowIpcWriter writer, ByteArrayOutputStream out) {
+        for (int i = 0, n = writer.getSegmentCount(); i < n; i++) {
+            final long address = writer.getSegmentAddress(i);
+            for (long j = 0, size = writer.getSegmentSize(i); j < size; j++) {
+                out.write(Unsafe.getUnsafe().getByte(address + j));
+            }
+        }
+    }
+
+    private static byte[] readHexStream(String resource) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream is = ArrowIpcWriterTest.class.getResourceAsStream(resource)) {
+            Assert.assertNotNull(is);
+            for (String line : new String(is.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                final int comment = line.indexOf('#');
+                final String hex = (comment > -1 ? line.substring(0, comment) : line).replace(" ", "");
+                for (int i = 0, n = hex.length(); i < n; i += 2) {
+                    out.write(Integer.parseInt(hex.substring(i, i + 2), 16));
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private String exportFrames(String sql) throws Exception {
+        return ArrowStreamDecoder.decode(writeFrames(sql));
+    }
+
+    private String exportRecords(String sql, int batchSize) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+                RecordCursorFactory factory = select(sql);
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                ArrowIpcWriter writer = new ArrowIpcWriter()
+        ) {
+            writer.of(factory.getMetadata(), null);
+            writer.writeSchema();
+            copySegments(writer, out);
+            while (cursor.hasNext()) {
+                writer.appendRecord(cursor.getRecord());
+                if (writer.getBatchRowCount() == batchSize) {
+                    writer.writeRecordBatch();
+                    copySegments(writer, out);
+                }
+            }
+            if (writer.getBatchRowCount() > 0) {
+                writer.writeRecordBatch();
+                copySegments(writer, out);
+            }
+            writer.writeEndOfStream();
+            copySegments(writer, out);
+        }
+        return ArrowStreamDecoder.decode(out.toByteArray());
+    }
+
+    private byte[] writeFrames(String sql) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+                RecordCursorFactory factory = select(sql);
+                PageFrameCursor frameCursor = factory.getPageFrameCursor(sqlExecutionContext, PartitionFrameCursorFactory.ORDER_ASC);
+                PageFrameMemoryPool memoryPool = new PageFrameMemoryPool();
+                ArrowIpcWriter writer = new ArrowIpcWriter()
+        ) {
+            Assert.assertTrue(factory.supportsPageFrameCursor());
+            final PageFrameAddressCache addressCache = new PageFrameAddressCache(configuration);
+            addressCache.of(factory.getMetadata());
+            memoryPool.of(addressCache);
+            writer.of(factory.getMetadata(), frameCursor);
+            writer.writeSchema();
+            copySegments(writer, out);
+            PageFrame frame;
+            int frameIndex = 0;
+            while ((frame = frameCursor.next()) != null) {
+                addressCache.add(frameIndex, frame);
+                writer.writeFrame(memoryPool.navigateTo(frameIndex++), 0, frame.getPartitionHi() - frame.getPartitionLo());
+                copySegments(writer, out);
+            }
+            writer.writeEndOfStream();
+            copySegments(writer, out);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,400 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.arrow;
+
+import io.questdb.std.LongObjHashMap;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes Arrow IPC streams into text, independently of the writer. Flatbuffers are
+ * read as described by the format spec, alignment requirements of the format are
+ * asserted along the way.
+ * <p>
+ * The output is the schema as {@code name:type} pairs, followed by record batches,
+ * each preceded by {@code batch <row count>}. Values are tab separated, nulls are
+ * printed as {@code null}. {@link #dumpBuffers(byte[])} adds field nodes and raw body
+ * buffers of each batch, so that streams can be compared regardless of flatbuffer layout.
+ */
+public class ArrowStreamDecoder {
+    private final LongObjHashMap<ObjList<String>> dictionaries = new LongObjHashMap<>();
+    private final ObjList<Field> fields = new ObjList<>();
+    private final StringSink sink = new StringSink();
+    private ByteBuffer buf;
+    private boolean dumpBuffers;
+
+    public static String decode(byte[] stream) {
+        return new ArrowStreamDecoder().decode0(stream);
+    }
+
+    public static String dumpBuffers(byte[] stream) {
+        final ArrowStreamDecoder decoder = new ArrowStreamDecoder();
+        decoder.dumpBuffers = true;
+        return decoder.decode0(stream);
+    }
+
+    private static void assertAligned(int pos, int base) {
+        Assert.assertEquals("misaligned 8-byte value at " + pos, 0, (pos - base) % 8);
+    }
+
+    private static String hex(ByteBuffer buf, int lo, int hi) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = lo; i < hi; i++) {
+            sb.append(String.format("%02x", buf.get(i) & 0xff));
+        }
+        return sb.toString();
+    }
+
+    private String decode0(byte[] stream) {
+        buf = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+        int pos = 0;
+        boolean schema = false;
+        while (true) {
+            Assert.assertTrue("stream is not terminated", pos + 8 <= stream.length);
+            Assert.assertEquals("continuation marker", -1, buf.getInt(pos));
+            final int metadataLength = buf.getInt(pos + 4);
+            final int meta = pos + 8;
+            if (metadataLength == 0) {
+                Assert.assertEquals("data after end of stream", stream.length, meta);
+                break;
+            }
+            Assert.assertEquals("metadata is not padded", 0, (meta + metadataLength) % 8);
+            final int message = meta + buf.getInt(meta);
+            Assert.assertEquals("metadata version", 4, readShort(message, 0, 0));
+            final int headerType = readByte(message, 1);
+            final int header = readOffset(message, 2);
+            final long bodyLength = readLong(message, 3, meta);
+            final int body = meta + metadataLength;
+            switch (headerType) {
+                case 1:
+                    Assert.assertFalse("duplicate schema", schema);
+                    schema = true;
+                    decodeSchema(header);
+                    break;
+                case 2:
+                    Assert.assertTrue(schema);
+                    final long id = readLong(header, 0, meta);
+                    final int data = readOffset(header, 1);
+                    dictionaries.put(id, decodeDictionary(id, data, body, meta));
+                    break;
+                case 3:
+                    Assert.assertTrue(schema);
+                    decodeRecordBatch(header, body, meta);
+                    break;
+                default:
+                    Assert.fail("unexpected message type: " + headerType);
+            }
+            pos = (int) (body + bodyLength);
+        }
+        sink.put("eos\n");
+        return sink.toString();
+    }
+
+    private ObjList<String> decodeDictionary(long id, int recordBatch, int body, int meta) {
+        Field field = null;
+        for (int i = 0, n = fields.size(); i < n; i++) {
+            if (fields.getQuick(i).dictionaryId == id) {
+                field = fields.getQuick(i);
+            }
+        }
+        Assert.assertNotNull("unknown dictionary " + id, field);
+        final int length = (int) readLong(recordBatch, 0, meta);
+        final int nodes = readOffset(recordBatch, 1);
+        final int buffers = readOffset(recordBatch, 2);
+        if (dumpBuffers) {
+            sink.put("dictionary ").put(id).put(' ').put(length).put('\n');
+            putBuffers(nodes, buffers, body);
+        }
+        Assert.assertEquals(1, buf.getInt(nodes));
+        Assert.assertEquals(3, buf.getInt(buffers));
+        final ObjList<String> values = new ObjList<>();
+        for (int r = 0; r < length; r++) {
+            values.add(readUtf8(buffers + 4, 0, body, r));
+        }
+        return values;
+    }
+
+    private void decodeRecordBatch(int recordBatch, int body, int meta) {
+        final int length = (int) readLong(recordBatch, 0, meta);
+        final int nodes = readOffset(recordBatch, 1);
+        final int buffers = readOffset(recordBatch, 2);
+        assertAligned(nodes + 4, meta);
+        assertAligned(buffers + 4, meta);
+        Assert.assertEquals(fields.size(), buf.getInt(nodes));
+        final int bufferCount = buf.getInt(buffers);
+        for (int i = 0; i < bufferCount; i++) {
+            Assert.assertEquals("buffer is not aligned", 0, buf.getLong(buffers + 4 + 16 * i) % 8);
+        }
+
+        sink.put("batch ").put(length).put('\n');
+        if (dumpBuffers) {
+            putBuffers(nodes, buffers, body);
+        }
+        for (int r = 0; r < length; r++) {
+            int bufferIndex = 0;
+            for (int i = 0, n = fields.size(); i < n; i++) {
+                final Field field = fields.getQuick(i);
+                Assert.assertEquals(length, buf.getLong(nodes + 4 + 16 * i));
+                if (i > 0) {
+                    sink.put('\t');
+                }
+                if (field.type == 1) {
+                    Assert.assertEquals(length, buf.getLong(nodes + 4 + 16 * i + 8));
+                    sink.put("null");
+                    continue;
+                }
+                final int bufferCountOfField = field.dictionaryId < 0 && (field.type == 4 || field.type == 5) ? 3 : 2;
+                if (isNull(buffers + 4, bufferIndex, body, r)) {
+                    sink.put("null");
+                } else if (field.dictionaryId > -1) {
+                    final int key = buf.getInt(bufferAddress(buffers + 4, bufferIndex + 1, body) + 4 * r);
+                    sink.put(dictionaries.get(field.dictionaryId).getQuick(key));
+                } else {
+                    putValue(field, buffers + 4, bufferIndex, body, r);
+                }
+                bufferIndex += bufferCountOfField;
+            }
+            sink.put('\n');
+        }
+        // null counts
+        for (int i = 0, n = fields.size(); i < n; i++) {
+            final long nullCount = buf.getLong(nodes + 4 + 16 * i + 8);
+            Assert.assertTrue(nullCount >= 0 && nullCount <= length);
+        }
+    }
+
+    private void decodeSchema(int schema) {
+        Assert.assertEquals("little endian", 0, readShort(schema, 0, 0));
+        final int fieldVector = readOffset(schema, 1);
+        final int fieldCount = buf.getInt(fieldVector);
+        for (int i = 0; i < fieldCount; i++) {
+            final int elem = fieldVector + 4 + 4 * i;
+            final int fieldTable = elem + buf.getInt(elem);
+            final Field field = new Field();
+            field.name = readString(readOffset(fieldTable, 0));
+            field.type = readByte(fieldTable, 2);
+            final int type = readOffset(fieldTable, 3);
+            switch (field.type) {
+                case 1:
+                    field.typeName = "Null";
+                    break;
+                case 2:
+                    field.typeName = (readByte(type, 1) != 0 ? "Int" : "UInt") + readInt(type, 0);
+                    field.bitWidth = readInt(type, 0);
+                    field.signed = readByte(type, 1) != 0;
+                    break;
+                case 3:
+                    field.bitWidth = readShort(type, 0, 0) == 1 ? 32 : 64;
+                    field.typeName = "Float" + field.bitWidth;
+                    break;
+                case 4:
+                    field.typeName = "Binary";
+                    break;
+                case 5:
+                    field.typeName = "Utf8";
+                    break;
+                case 6:
+                    field.typeName = "Bool";
+                    break;
+                case 8:
+                    Assert.assertEquals(1, readShort(type, 0, 1));
+                    field.typeName = "Date(ms)";
+                    break;
+                case 10:
+                    Assert.assertEquals(2, readShort(type, 0, 0));
+                    field.typeName = "Timestamp(us)";
+                    break;
+                case 15:
+                    field.bitWidth = readInt(type, 0) * 8;
+                    field.typeName = "FixedSizeBinary(" + readInt(type, 0) + ")";
+                    break;
+                default:
+                    Assert.fail("unexpected type: " + field.type);
+            }
+            final int dictionary = readOffset(fieldTable, 4);
+            if (dictionary != 0) {
+                field.dictionaryId = readLong(dictionary, 0, 0);
+                final int indexType = readOffset(dictionary, 1);
+                Assert.assertEquals(32, readInt(indexType, 0));
+                field.typeName += " dict";
+            }
+            final int children = readOffset(fieldTable, 5);
+            Assert.assertTrue(children == 0 || buf.getInt(children) == 0);
+            fields.add(field);
+            if (i > 0) {
+                sink.put('\t');
+            }
+            sink.put(field.name).put(':').put(field.typeName);
+        }
+        sink.put('\n');
+    }
+
+    private int bufferAddress(int buffers, int index, int body) {
+        return body + (int) buf.getLong(buffers + 16 * index);
+    }
+
+    private long bufferLength(int buffers, int index) {
+        return buf.getLong(buffers + 16 * index + 8);
+    }
+
+    private int field(int table, int slot) {
+        final int vtable = table - buf.getInt(table);
+        final int vtableSize = buf.getShort(vtable);
+        final int entry = 4 + 2 * slot;
+        if (entry >= vtableSize) {
+            return 0;
+        }
+        final int offset = buf.getShort(vtable + entry);
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    private boolean isNull(int buffers, int validityIndex, int body, int row) {
+        if (bufferLength(buffers, validityIndex) == 0) {
+            return false;
+        }
+        final int validity = bufferAddress(buffers, validityIndex, body);
+        return (buf.get(validity + (row >>> 3)) & (1 << (row & 7))) == 0;
+    }
+
+    private void putBuffers(int nodes, int buffers, int body) {
+        for (int i = 0, n = buf.getInt(nodes); i < n; i++) {
+            sink.put("node ").put(buf.getLong(nodes + 4 + 16 * i)).put(' ').put(buf.getLong(nodes + 4 + 16 * i + 8)).put('\n');
+        }
+        for (int i = 0, n = buf.getInt(buffers); i < n; i++) {
+            final int address = bufferAddress(buffers + 4, i, body);
+            sink.put("buffer ").put(buf.getLong(buffers + 4 + 16 * i)).put(' ')
+                    .put(hex(buf, address, address + (int) bufferLength(buffers + 4, i))).put('\n');
+        }
+    }
+
+    private void putValue(Field field, int buffers, int validityIndex, int body, int row) {
+        final int data = bufferAddress(buffers, validityIndex + 1, body);
+        switch (field.type) {
+            case 2:
+                switch (field.bitWidth) {
+                    case 8:
+                        sink.put(buf.get(data + row));
+                        break;
+                    case 16:
+                        final short s = buf.getShort(data + 2 * row);
+                        sink.put(field.signed ? s : s & 0xffff);
+                        break;
+                    case 32:
+                        final int i = buf.getInt(data + 4 * row);
+                        sink.put(field.signed ? Integer.toString(i) : Integer.toUnsignedString(i));
+                        break;
+                    default:
+                        sink.put(buf.getLong(data + 8 * row));
+                        break;
+                }
+                break;
+            case 3:
+                if (field.bitWidth == 32) {
+                    sink.put(buf.getFloat(data + 4 * row));
+                } else {
+                    sink.put(buf.getDouble(data + 8 * row));
+                }
+                break;
+            case 4:
+                final int binOffsets = data;
+                final int binData = bufferAddress(buffers, validityIndex + 2, body);
+                sink.put(hex(buf, binData + buf.getInt(binOffsets + 4 * row), binData + buf.getInt(binOffsets + 4 * row + 4)));
+                break;
+            case 5:
+                sink.put(readUtf8(buffers, validityIndex, body, row));
+                break;
+            case 6:
+                sink.put((buf.get(data + (row >>> 3)) & (1 << (row & 7))) != 0);
+                break;
+            case 8:
+            case 10:
+                sink.put(buf.getLong(data + 8 * row));
+                break;
+            case 15:
+                final int width = field.bitWidth / 8;
+                sink.put(hex(buf, data + width * row, data + width * (row + 1)));
+                break;
+            default:
+                Assert.fail();
+        }
+    }
+
+    private int readByte(int table, int slot) {
+        final int pos = field(table, slot);
+        return pos == 0 ? 0 : buf.get(pos);
+    }
+
+    private int readInt(int table, int slot) {
+        final int pos = field(table, slot);
+        return pos == 0 ? 0 : buf.getInt(pos);
+    }
+
+    private long readLong(int table, int slot, int base) {
+        final int pos = field(table, slot);
+        if (pos == 0) {
+            return 0;
+        }
+        assertAligned(pos, base);
+        return buf.getLong(pos);
+    }
+
+    private int readOffset(int table, int slot) {
+        final int pos = field(table, slot);
+        return pos == 0 ? 0 : pos + buf.getInt(pos);
+    }
+
+    private int readShort(int table, int slot, int defaultValue) {
+        final int pos = field(table, slot);
+        return pos == 0 ? defaultValue : buf.getShort(pos);
+    }
+
+    private String readString(int pos) {
+        final int length = buf.getInt(pos);
+        Assert.assertEquals("string is not zero terminated", 0, buf.get(pos + 4 + length));
+        return new String(buf.array(), pos + 4, length, StandardCharsets.UTF_8);
+    }
+
+    private String readUtf8(int buffers, int validityIndex, int body, int row) {
+        final int offsets = bufferAddress(buffers, validityIndex + 1, body);
+        final int data = bufferAddress(buffers, validityIndex + 2, body);
+        final int lo = buf.getInt(offsets + 4 * row);
+        final int hi = buf.getInt(offsets + 4 * row + 4);
+        return new String(buf.array(), data + lo, hi - lo, StandardCharsets.UTF_8);
+    }
+
+    private static class Field {
+        int bitWidth;
+        long dictionaryId = -1;
+        String name;
+        boolean signed;
+        int type;
+        String typeName;
+    }
+}
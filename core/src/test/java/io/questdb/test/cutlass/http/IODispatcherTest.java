@@ -60,6 +60,7 @@ import io.questdb.test.cairo.TableModel;
 import io.questdb.test.cairo.TestRecord;
 import io.questdb.test.cairo.TestTableReaderRecordCursor;
 import io.questdb.test.cutlass.NetUtils;
+import io.questdb.test.cutlass.arrow.ArrowStreamDecoder;
 import io.questdb.test.cutlass.suspend.TestCase;
 import io.questdb.test.cutlass.suspend.TestCases;
 import io.questdb.test.mp.TestWorkerPool;
@@ -661,6 +662,159 @@ public class IODispatcherTest extends AbstractTest {
         );
     }
 
+    @Test
+    public void testExpArrowFormat() throws Exception {
+        getSimpleTester().run(engine -> {
+            testHttpClient.assertGet(
+                    "{\"ddl\":\"OK\"}",
+                    "create table x as (" +
+                            "select x l, cast(case when x % 3 = 0 then null else 's' || (x % 2) end as symbol) s, timestamp_sequence(0, 36000000000) ts " +
+                            "from long_sequence(5)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("fmt", "arrow");
+            final Utf8StringSink sink = new Utf8StringSink();
+
+            // table scan is sent page frame by page frame, one per partition
+            testHttpClient.toSink("/exp", "x", params, sink);
+            TestUtils.assertEquals(
+                    "l:Int64\ts:Utf8 dict\tts:Timestamp(us)\n" +
+                            "batch 3\n" +
+                            "1\ts1\t0\n" +
+                            "2\ts0\t36000000000\n" +
+                            "3\tnull\t72000000000\n" +
+                            "batch 2\n" +
+                            "4\ts0\t108000000000\n" +
+                            "5\ts1\t144000000000\n" +
+                            "eos\n",
+                    ArrowStreamDecoder.decode(toBytes(sink))
+            );
+
+            params.put("limit", "2,4");
+            testHttpClient.toSink("/exp", "x", params, sink);
+            TestUtils.assertEquals(
+                    "l:Int64\ts:Utf8 dict\tts:Timestamp(us)\n" +
+                            "batch 1\n" +
+                            "3\tnull\t72000000000\n" +
+                            "batch 1\n" +
+                            "4\ts0\t108000000000\n" +
+                            "eos\n",
+                    ArrowStreamDecoder.decode(toBytes(sink))
+            );
+
+            // filtered query is sent record by record
+            params.put("limit", "1,3");
+            testHttpClient.toSink("/exp", "x where l > 1", params, sink);
+            TestUtils.assertEquals(
+                    "l:Int64\ts:Utf8\tts:Timestamp(us)\n" +
+                            "batch 2\n" +
+                            "3\tnull\t72000000000\n" +
+                            "4\ts0\t108000000000\n" +
+                            "eos\n",
+                    ArrowStreamDecoder.decode(toBytes(sink))
+            );
+        });
+    }
+
+    @Test
+    public void testExpArrowFormatLargeResult() throws Exception {
+        getSimpleTester().run(engine -> {
+            final int rowCount = 300_000;
+            testHttpClient.assertGet(
+                    "{\"ddl\":\"OK\"}",
+                    "create table x as (select x l, 'v' || x v from long_sequence(" + rowCount + "))"
+            );
+
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("fmt", "arrow");
+            final Utf8StringSink sink = new Utf8StringSink();
+
+            // the batches are much larger than the response buffer
+            final StringSink expected = new StringSink();
+            expected.put("l:Int64\tv:Utf8\n").put("batch ").put(rowCount).put('\n');
+            for (int i = 1; i <= rowCount; i++) {
+                expected.put(i).put("\tv").put(i).put('\n');
+            }
+            expected.put("eos\n");
+            testHttpClient.toSink("/exp", "x", params, sink);
+            TestUtils.assertEquals(expected, ArrowStreamDecoder.decode(toBytes(sink)));
+
+            testHttpClient.toSink("/exp", "x where l > 0", params, sink);
+            final String decoded = ArrowStreamDecoder.decode(toBytes(sink));
+            TestUtils.assertEquals(expected.toString().replace("batch " + rowCount + "\n", ""), decoded.replaceAll("batch \\d+\n", ""));
+        });
+    }
+
+    @Test
+    public void testExpArrowFormatUnsupportedType() throws Exception {
+        getSimpleTester().run(engine -> {
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("query", "select to_long128(1, 2) l");
+            params.put("fmt", "arrow");
+            testHttpClient.assertGet(
+                    "/exp",
+                    "{\"query\":\"select to_long128(1, 2) l\",\"error\":\"[-1] unsupported column type for Arrow export [column=l, type=LONG128]\",\"position\":0}",
+                    params,
+                    null,
+                    null
+            );
+        });
+    }
+
+    @Test
+    public void testExpParquetFormat() throws Exception {
+        getSimpleTester().run(engine -> {
+            testHttpClient.assertGet(
+                    "{\"ddl\":\"OK\"}",
+                    "create table x as (" +
+                            "select x l, cast(case when x % 3 = 0 then null else 's' || (x % 2) end as symbol) s," +
+                            " case when x % 4 = 0 then null else 'v' || x end::varchar v," +
+                            " case when x % 5 = 0 then null else 'str' || x end str," +
+                            " x / 2.0 d, x % 2 = 0 b, rnd_uuid4() u, timestamp_sequence(0, 36000000000) ts " +
+                            "from long_sequence(20)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            final Utf8StringSink sink = new Utf8StringSink();
+            final String file = root + Files.SEPARATOR + "exp.parquet";
+
+            // table scan is encoded page frame by page frame, the filtered query record by record
+            final String[] queries = {"x", "x where l > 1"};
+            for (String query : queries) {
+                params.clear();
+                testHttpClient.toSink("/exp", query, params, sink);
+                final String expected = sink.toString();
+
+                params.put("fmt", "parquet");
+                testHttpClient.toSink("/exp", query, params, sink);
+                writeToFile(file, sink);
+
+                params.clear();
+                testHttpClient.toSink("/exp", "read_parquet('" + file + "')", params, sink);
+                TestUtils.assertEquals(expected, sink);
+            }
+        });
+    }
+
+    @Test
+    public void testExpParquetFormatUnsupportedType() throws Exception {
+        getSimpleTester().run(engine -> {
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("query", "select null n");
+            params.put("fmt", "parquet");
+            testHttpClient.assertGet(
+                    "/exp",
+                    "{\"query\":\"select null n\",\"error\":\"[-1] unsupported column type for Parquet export [column=n, type=unknown]\",\"position\":0}",
+                    params,
+                    null,
+                    null
+            );
+        });
+    }
+
     @Test
     public void testExpCustomDelimiter() throws Exception {
         testJsonQuery(
@@ -3148,6 +3302,103 @@ public class IODispatcherTest extends AbstractTest {
         );
     }
 
+    @Test
+    public void testJsonQueryColumnar() throws Exception {
+        getSimpleTester().run(engine -> {
+            testHttpClient.assertGet(
+                    "{\"ddl\":\"OK\"}",
+                    "create table x as (" +
+                            "select x l, case when x % 3 = 0 then null else x * 0.5 end d, cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s, " +
+                            "timestamp_sequence(0, 36000000000) ts from long_sequence(5)" +
+                            ") timestamp(ts) partition by day"
+            );
+            testHttpClient.assertGet("{\"ddl\":\"OK\"}", "alter table x add column i int");
+            testHttpClient.assertGet("{\"dml\":\"OK\"}", "insert into x values (6, 3.0, 'c', '1970-01-02T12:00:00.000000Z', 42)");
+
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("columnar", "true");
+
+            // table scan is sent from page frames, column top is sent as nulls
+            testHttpClient.assertGet(
+                    "{\"query\":\"x\",\"columns\":[{\"name\":\"l\",\"type\":\"LONG\"},{\"name\":\"d\",\"type\":\"DOUBLE\"},{\"name\":\"s\",\"type\":\"SYMBOL\"},{\"name\":\"ts\",\"type\":\"TIMESTAMP\"},{\"name\":\"i\",\"type\":\"INT\"}],\"timestamp\":3,\"dataset\":" +
+                            "[[1,2,3,4,6,5],[0.5,1.0,null,2.0,3.0,2.5],[\"b\",\"a\",\"b\",\"a\",\"c\",\"b\"]," +
+                            "[\"1970-01-01T00:00:00.000000Z\",\"1970-01-01T10:00:00.000000Z\",\"1970-01-01T20:00:00.000000Z\",\"1970-01-02T06:00:00.000000Z\",\"1970-01-02T12:00:00.000000Z\",\"1970-01-02T16:00:00.000000Z\"]," +
+                            "[null,null,null,null,42,null]],\"count\":6}",
+                    "x",
+                    params
+            );
+
+            params.put("limit", "2,4");
+            params.put("cols", "i,l");
+            testHttpClient.assertGet(
+                    "{\"query\":\"x\",\"columns\":[{\"name\":\"i\",\"type\":\"INT\"},{\"name\":\"l\",\"type\":\"LONG\"}],\"timestamp\":3,\"dataset\":[[null,null,null],[2,3,4]],\"count\":4}",
+                    "x",
+                    params
+            );
+
+            // filtered query is buffered in a single pass over the cursor
+            params.put("count", "true");
+            testHttpClient.assertGet(
+                    "{\"query\":\"x where l > 1\",\"columns\":[{\"name\":\"i\",\"type\":\"INT\"},{\"name\":\"l\",\"type\":\"LONG\"}],\"timestamp\":3,\"dataset\":[[null,null,42],[3,4,6]],\"count\":5}",
+                    "x where l > 1",
+                    params
+            );
+
+            params.put("limit", "10,20");
+            testHttpClient.assertGet(
+                    "{\"query\":\"x where l > 1\",\"columns\":[{\"name\":\"i\",\"type\":\"INT\"},{\"name\":\"l\",\"type\":\"LONG\"}],\"timestamp\":3,\"dataset\":[[],[]],\"count\":0}",
+                    "x where l > 1",
+                    params
+            );
+
+            params.clear();
+            params.put("columnar", "true");
+            testHttpClient.assertGet(
+                    "{\"query\":\"select x, to_long128(x, 2) l from long_sequence(2)\",\"columns\":[{\"name\":\"x\",\"type\":\"LONG\"},{\"name\":\"l\",\"type\":\"LONG128\"}],\"timestamp\":-1,\"dataset\":" +
+                            "[[1,2],[\"00000000-0000-0002-0000-000000000001\",\"00000000-0000-0002-0000-000000000002\"]],\"count\":2}",
+                    "select x, to_long128(x, 2) l from long_sequence(2)",
+                    params
+            );
+        });
+    }
+
+    @Test
+    public void testJsonQueryColumnarLargeResult() throws Exception {
+        getSimpleTester().run(engine -> {
+            final int rowCount = 100_000;
+            testHttpClient.assertGet(
+                    "{\"ddl\":\"OK\"}",
+                    "create table x as (select x l, 'v' || x v, timestamp_sequence(0, 1000000) ts from long_sequence(" + rowCount + ")) timestamp(ts) partition by hour"
+            );
+
+            final CharSequenceObjHashMap<String> params = new CharSequenceObjHashMap<>();
+            params.put("columnar", "true");
+            params.put("nm", "true");
+            params.put("cols", "l,v");
+
+            // the columns are much larger than the response buffer
+            final StringSink expected = new StringSink();
+            expected.put("{\"dataset\":[[");
+            for (int i = 1; i <= rowCount; i++) {
+                if (i > 1) {
+                    expected.put(',');
+                }
+                expected.put(i);
+            }
+            expected.put("],[");
+            for (int i = 1; i <= rowCount; i++) {
+                if (i > 1) {
+                    expected.put(',');
+                }
+                expected.put("\"v").put(i).put('"');
+            }
+            expected.put("]],\"count\":").put(rowCount).put('}');
+
+            testHttpClient.assertGet(expected, "x", params);
+            testHttpClient.assertGet(expected, "x where l > 0", params);
+        });
+    }
+
     @Test
     public void testJsonQueryCompilationStatsForJitCompiledFilter() throws Exception {
         // Disable the test on ARM64.
@@ -8536,6 +8787,33 @@ public class IODispatcherTest extends AbstractTest {
                 .build();
     }
 
+    private static byte[] toBytes(Utf8StringSink sink) {
+        final byte[] bytes = new byte[sink.size()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = sink.byteAt(i);
+        }
+        return bytes;
+    }
+
+    private static void writeToFile(String file, Utf8StringSink sink) {
+        final long size = sink.size();
+        final long buf = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try (Path path = new Path()) {
+            for (int i = 0; i < size; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, sink.byteAt(i));
+            }
+            final long fd = Files.openRW(path.of(file).$());
+            Assert.assertTrue(fd > -1);
+            try {
+                Assert.assertEquals(size, Files.write(fd, buf, size, 0));
+            } finally {
+                Files.close(fd);
+            }
+        } finally {
+            Unsafe.free(buf, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     private HttpQueryTestBuilder getSimpleTester() {
         return new HttpQueryTestBuilder()
                 .withTempFolder(root)
@@ -80,6 +80,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected boolean symbolAsFieldSupported;
     protected boolean useLegacyString;
     protected WorkerPool workerPool;
+    protected long writerIdleTimeout;
 
     @Before
     @Override
@@ -96,6 +97,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         useLegacyString = true;
         autoCreateNewColumns = true;
         autoCreateNewTables = true;
+        writerIdleTimeout = 150;
         lineTcpConfiguration = createNoAuthReceiverConfiguration(provideLineTcpNetworkFacade());
         noNetworkIOJob = new NoNetworkIOJob(lineTcpConfiguration);
     }
@@ -220,7 +222,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
 
             @Override
             public long getWriterIdleTimeout() {
-                return 150;
+                return writerIdleTimeout;
             }
 
             @Override
@@ -235,6 +237,10 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         };
     }
 
+    protected TableUpdateDetails getTableUpdateDetails(String tableName) {
+        return noNetworkIOJob.localTableUpdateDetailsByTableName.get(new Utf8String(tableName));
+    }
+
     protected boolean handleContextIO0() {
         switch (context.handleIO(noNetworkIOJob)) {
             case QUEUE_FULL:
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.tcp.TableUpdateDetails;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineTcpWriterRebalanceTest extends BaseLineTcpContextTest {
+
+    @Override
+    public void setUp() {
+        super.setUp();
+        // maintenance runs with the clock at Long.MAX_VALUE, which triggers a load check
+        // on every call; tables must not be released as idle in the meantime
+        writerIdleTimeout = Long.MAX_VALUE;
+    }
+
+    @Test
+    public void testBusyTablesAreSpreadAcrossWriterThreads() throws Exception {
+        runInContext(() -> {
+            // load statistics are reset on every maintenance run, so the tables
+            // created one by one all land on the first writer thread
+            for (int t = 0; t < 3; t++) {
+                recvBuffer = "tab" + t + ",sym=a x=0i 1465839830100400200\n";
+                handleIO();
+            }
+            for (int t = 0; t < 3; t++) {
+                Assert.assertEquals(0, getTableUpdateDetails("tab" + t).getWriterThreadId());
+            }
+
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 1; i < 200; i++) {
+                sb.append("tab0,sym=a x=").append(i).append("i ").append(1465839830100400200L + i * 1000L).append('\n');
+                sb.append("tab1,sym=b x=").append(i).append("i ").append(1465839830100400200L + i * 1000L).append('\n');
+            }
+            recvBuffer = sb.toString();
+            handleIO();
+
+            int movedTables = 0;
+            for (int t = 0; t < 3; t++) {
+                final TableUpdateDetails tud = getTableUpdateDetails("tab" + t);
+                if (tud.getWriterThreadId() == 1) {
+                    movedTables++;
+                }
+            }
+            Assert.assertTrue(movedTables > 0);
+            Assert.assertTrue(movedTables < 3);
+
+            closeContext();
+            assertSql("count\tsum\n200\t19900\n", "select count(), sum(x) from tab0");
+            assertSql("count\tsum\n200\t19900\n", "select count(), sum(x) from tab1");
+            assertSql("count\tsum\n1\t0\n", "select count(), sum(x) from tab2");
+        });
+    }
+
+    @Test
+    public void testSingleBusyTableIsNotMoved() throws Exception {
+        runInContext(() -> {
+            recvBuffer = "tab0,sym=a x=0i 1465839830100400200\n";
+            handleIO();
+            recvBuffer = "tab1,sym=a x=0i 1465839830100400200\n";
+            handleIO();
+            Assert.assertEquals(0, getTableUpdateDetails("tab0").getWriterThreadId());
+            Assert.assertEquals(0, getTableUpdateDetails("tab1").getWriterThreadId());
+
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 1; i < 100; i++) {
+                sb.append("tab0,sym=a x=").append(i).append("i ").append(1465839830100400200L + i * 1000L).append('\n');
+            }
+            recvBuffer = sb.toString();
+            handleIO();
+
+            // a single busy table is not moved, that would just move the hotspot
+            Assert.assertEquals(0, getTableUpdateDetails("tab0").getWriterThreadId());
+            Assert.assertEquals(0, getTableUpdateDetails("tab1").getWriterThreadId());
+
+            closeContext();
+            assertSql("count\n100\n", "select count() from tab0");
+            assertSql("count\n1\n", "select count() from tab1");
+        });
+    }
+
+    private void handleIO() {
+        do {
+            handleContextIO0();
+            Assert.assertFalse(disconnected);
+        } while (!recvBuffer.isEmpty());
+    }
+}
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.wal.ApplyWal2TableJob;
 import io.questdb.cutlass.pgwire.CircuitBreakerRegistry;
+import io.questdb.cutlass.pgwire.PGOids;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
 import io.questdb.cutlass.pgwire.PGWireServer;
 import io.questdb.griffin.*;
@@ -1767,6 +1768,81 @@ if __name__ == "__main__":
 //        }
 //    }
 
+    @Test
+    public void testBatchInsertPipelineCommitsAtSync() throws Exception {
+        skipOnWalRun(); // Non-partitioned
+        assertWithPgServer(CONN_AWARE_EXTENDED_ALL, (connection, binary, mode, port) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("create table test (id long, ts timestamp) timestamp(ts)");
+            }
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id, ts) values(?, ?)")) {
+                for (int i = 0; i < 100; i++) {
+                    batchInsert.setLong(1, i);
+                    batchInsert.setLong(2, i);
+                    batchInsert.addBatch();
+                }
+                batchInsert.executeBatch();
+            }
+            // the whole batch is committed once, at Sync
+            try (TableReader reader = getReader("test")) {
+                Assert.assertEquals(100, reader.size());
+                Assert.assertEquals(1, reader.getTxn());
+            }
+
+            // out-of-order row fails the batch, rows before it are rolled back
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id, ts) values(?, ?)")) {
+                batchInsert.setLong(1, 100L);
+                batchInsert.setLong(2, 1_000L);
+                batchInsert.addBatch();
+                batchInsert.setLong(1, 101L);
+                batchInsert.setLong(2, 0L);
+                batchInsert.addBatch();
+                batchInsert.executeBatch();
+                Assert.fail();
+            } catch (BatchUpdateException e) {
+                TestUtils.assertContains(e.getMessage(), "cannot insert rows out of order to non-partitioned table");
+            }
+
+            final StringSink sink = new StringSink();
+            try (
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("select count(), max(id) from test")
+            ) {
+                assertResultSet("count[BIGINT],max[BIGINT]\n100,99\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testBatchInsertPipelineNotCommittedAtFlush() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        ddl("create table tab (a int)");
+
+        // parse, bind and execute "insert into tab values (1)", then flush and disconnect
+        String script = ">0000006e00030000757365720078797a0064617461626173650071646200636c69656e745f656e636f64696e67005554463800446174655374796c650049534f0054696d655a6f6e65004575726f70652f4c6f6e646f6e0065787472615f666c6f61745f64696769747300320000\n" +
+                "<520000000800000003\n" +
+                ">70000000076f6800\n" +
+                "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005300000019636c69656e745f656e636f64696e670055544638004b0000000c0000003fbb8b96505a0000000549\n" +
+                ">500000002200696e7365727420696e746f207461622076616c75657320283129000000420000000c0000000000000000450000000900000000004800000004\n" +
+                "<31000000043200000004430000000f494e534552542030203100\n" +
+                ">5800000004\n";
+        assertHexScript(NetworkFacadeImpl.INSTANCE, script, getHexPgWireConfig());
+        // Flush doesn't end the pipeline, so the insert is rolled back along with the connection
+        assertSql("count\n0\n", "select count() from tab");
+
+        // the same pipeline ended by Sync is committed
+        script = ">0000006e00030000757365720078797a0064617461626173650071646200636c69656e745f656e636f64696e67005554463800446174655374796c650049534f0054696d655a6f6e65004575726f70652f4c6f6e646f6e0065787472615f666c6f61745f64696769747300320000\n" +
+                "<520000000800000003\n" +
+                ">70000000076f6800\n" +
+                "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005300000019636c69656e745f656e636f64696e670055544638004b0000000c0000003fbb8b96505a0000000549\n" +
+                ">500000002200696e7365727420696e746f207461622076616c75657320283129000000420000000c0000000000000000450000000900000000005300000004\n" +
+                "<31000000043200000004430000000f494e5345525420302031005a0000000549\n" +
+                ">5800000004\n";
+        assertHexScript(NetworkFacadeImpl.INSTANCE, script, getHexPgWireConfig());
+        assertSql("count\n1\n", "select count() from tab");
+    }
+
     @Test
     public void testBatchInsertWithTransaction() throws Exception {
         skipOnWalRun(); // Non-partitioned
@@ -1885,6 +1961,75 @@ if __name__ == "__main__":
         });
     }
 
+    @Test
+    public void testBinaryResultFormatAllFixedSizeTypes() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(1);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                ddl(
+                        "create table x as (" +
+                                "select" +
+                                " x = 1 b," +
+                                " cast(x as byte) bt," +
+                                " cast(x * 2 as short) sh," +
+                                " cast('a' as char) ch," +
+                                " cast(x * 3 as int) i," +
+                                " x * 4 l," +
+                                " cast(86400000 * x + 123 as date) d," +
+                                " cast(86400000000 * x + 123456 as timestamp) ts," +
+                                " cast(1.5 * x as float) f," +
+                                " 2.25 * x dbl," +
+                                " cast(concat('1.2.3.', x) as ipv4) ip," +
+                                " cast('a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a1' || x as uuid) u," +
+                                " cast('0x5dd94b8492b4be20632d0236ddb8f47c91efc2568b4d452847b4a645dbe4871' || x as long256) l256," +
+                                " cast('sp052w' as geohash(6c)) g6," +
+                                " cast('s' as geohash(1c)) g1," +
+                                " rnd_geohash(20) g20," +
+                                " cast('sp052w92' as geohash(8c)) g8" +
+                                " from long_sequence(2)" +
+                                ")"
+                );
+                insert("insert into x (b) values (false)");
+
+                final String query = "select *, null n from x";
+                final StringSink textSink = new StringSink();
+                try (
+                        final Connection connection = getConnection(server.getPort(), false, false);
+                        final PreparedStatement statement = connection.prepareStatement(query);
+                        final ResultSet rs = statement.executeQuery()
+                ) {
+                    printToSink(textSink, rs, null);
+                }
+
+                final Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                properties.setProperty("binaryTransfer", "true");
+                // columns described as varchar are requested in binary format too
+                properties.setProperty("binaryTransferEnable", String.valueOf(PGOids.PG_VARCHAR));
+                properties.setProperty("prepareThreshold", "-1");
+                final String url = String.format("jdbc:postgresql://127.0.0.1:%d/qdb", server.getPort());
+                final StringSink binarySink = new StringSink();
+                try (
+                        final Connection connection = DriverManager.getConnection(url, properties);
+                        final PreparedStatement statement = connection.prepareStatement(query)
+                ) {
+                    // the second execution uses the cached statement
+                    for (int i = 0; i < 2; i++) {
+                        try (ResultSet rs = statement.executeQuery()) {
+                            assertResultSet(textSink, binarySink, rs);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testBindVariableDropLastPartitionListByMonthHigherPrecision() throws Exception {
         testBindVariableDropLastPartitionListWithDatePrecision(PartitionBy.MONTH);
@@ -3330,13 +3475,12 @@ if __name__ == "__main__":
                 try (ResultSet rs = statement.getResultSet()) {
                     assertResultSet(
                             "QUERY PLAN[VARCHAR]\n" +
-                                    "Sort light lo: 10\n" +
+                                    "Async Top K workers: 2 lo: 0 hi: 10\n" +
                                     "  keys: [str, x]\n" +
-                                    "    Async Filter workers: 2\n" +
-                                    "      filter: str='\\b\\f\\n\\r\\t\\u0005'\n" +
-                                    "        PageFrame\n" +
-                                    "            Row forward scan\n" +
-                                    "            Frame forward scan on: xx\n",
+                                    "  filter: str='\\b\\f\\n\\r\\t\\u0005'\n" +
+                                    "    PageFrame\n" +
+                                    "        Row forward scan\n" +
+                                    "        Frame forward scan on: xx\n",
                             sink,
                             rs
                     );
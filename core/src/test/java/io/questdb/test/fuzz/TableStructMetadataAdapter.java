@@ -111,6 +111,11 @@ public class TableStructMetadataAdapter implements TableStructure {
         return timestampIndex;
     }
 
+    @Override
+    public boolean isBloomFilterIndexed(int columnIndex) {
+        return false;
+    }
+
     @Override
     public boolean isDedupKey(int columnIndex) {
         return false;
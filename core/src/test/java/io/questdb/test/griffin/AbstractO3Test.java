@@ -55,6 +55,7 @@ public class AbstractO3Test extends AbstractTest {
     protected static final StringSink sink2 = new StringSink();
     protected static int commitMode = CommitMode.NOSYNC;
     protected static int dataAppendPageSize = -1;
+    protected static boolean ioURingEnabled;
     protected static int o3ColumnMemorySize = -1;
     protected static boolean mixedIOEnabled;
     protected static boolean mixedIOEnabledFFDefault;
@@ -93,6 +94,7 @@ public class AbstractO3Test extends AbstractTest {
     public void tearDown() throws Exception {
         commitMode = CommitMode.NOSYNC;
         mixedIOEnabled = mixedIOEnabledFFDefault;
+        ioURingEnabled = false;
         dataAppendPageSize = -1;
         o3ColumnMemorySize = -1;
         o3MemMaxPages = -1;
@@ -330,6 +332,11 @@ public class AbstractO3Test extends AbstractTest {
                         return partitionO3SplitThreshold > -1 ? partitionO3SplitThreshold : super.getPartitionO3SplitMinSize();
                     }
 
+                    @Override
+                    public boolean isWriterIOURingEnabled() {
+                        return ioURingEnabled;
+                    }
+
                     @Override
                     public boolean isWriterMixedIOEnabled() {
                         // Allow enabling mixed I/O only if the ff allows it.
@@ -404,6 +411,11 @@ public class AbstractO3Test extends AbstractTest {
                         return partitionO3SplitThreshold > -1 ? partitionO3SplitThreshold : super.getPartitionO3SplitMinSize();
                     }
 
+                    @Override
+                    public boolean isWriterIOURingEnabled() {
+                        return ioURingEnabled;
+                    }
+
                     @Override
                     public boolean isWriterMixedIOEnabled() {
                         // Allow enabling mixed I/O only if the ff allows it.
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoException;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlterTableCompressPartitionTest extends AbstractCairoTest {
+
+    @Test
+    public void testCompressActivePartitionFails() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException(
+                    "alter table x compress partition list '2024-06-13'",
+                    0,
+                    "cannot compress partition, partition is active"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressListPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            // reader opened before compression keeps reading uncompressed files
+            assertSqlCursors("y", "x");
+
+            ddl("alter table x compress partition list '2024-06-10', '2024-06-11'");
+
+            assertCompressed("2024-06-10", true);
+            assertCompressed("2024-06-11", true);
+            assertCompressed("2024-06-12", false);
+            assertQueries();
+
+            engine.releaseAllReaders();
+            assertQueries();
+            assertSql(
+                    "name\treadOnly\n" +
+                            "2024-06-10\ttrue\n" +
+                            "2024-06-11\ttrue\n" +
+                            "2024-06-12\tfalse\n" +
+                            "2024-06-13\tfalse\n",
+                    "select name, readOnly from table_partitions('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressSmallFramesAndBlockCache() throws Exception {
+        // frames that start mid-block and a cache that is smaller than a column
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        setProperty(PropertyKey.CAIRO_COMPRESSED_BLOCK_CACHE_SIZE, 8192);
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table x compress partition where ts < '2024-06-13'");
+            engine.releaseAllReaders();
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testCompressMissingPartitionFails() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException(
+                    "alter table x compress partition list '2024-05-01'",
+                    0,
+                    "cannot compress partition, partition does not exist"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressPartitionTwiceFails() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table x compress partition list '2024-06-10'");
+            try {
+                ddl("alter table x compress partition list '2024-06-10'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition, partition is read-only");
+            }
+            engine.releaseAllReaders();
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testCompressWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table x compress partition where ts < '2024-06-13'");
+
+            assertCompressed("2024-06-10", true);
+            assertCompressed("2024-06-11", true);
+            assertCompressed("2024-06-12", true);
+            engine.releaseAllReaders();
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testInsertIntoCompressedPartitionIsIgnored() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("alter table x compress partition list '2024-06-10'");
+            insert("insert into x(ts, l) values ('2024-06-10T12:00:00.000000Z', 42)");
+            engine.releaseAllReaders();
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testNotPartitionKeyword() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException("alter table x compress column list '2024-06-10'", 23, "'partition' expected");
+        });
+    }
+
+    private static void assertQueries() throws SqlException {
+        assertSqlCursors("y", "x");
+        assertSqlCursors("select * from y where sym = 'b'", "select * from x where sym = 'b'");
+        assertSqlCursors("select * from y where ts in '2024-06-11' and i > 0", "select * from x where ts in '2024-06-11' and i > 0");
+        assertSqlCursors("select sum(l), sum(d), max(ts), count() from y", "select sum(l), sum(d), max(ts), count() from x");
+        assertSqlCursors("select * from y latest on ts partition by sym", "select * from x latest on ts partition by sym");
+        assertSqlCursors("select * from y where d > 50 and i = 2", "select * from x where d > 50 and i = 2");
+        assertSqlCursors("select sym, avg(d), max(l) from y order by sym", "select sym, avg(d), max(l) from x order by sym");
+        assertSqlCursors("select ts, sum(l) from y sample by 1h", "select ts, sum(l) from x sample by 1h");
+        assertSqlCursors("select * from y where ts between '2024-06-10T10' and '2024-06-11T03' order by ts desc", "select * from x where ts between '2024-06-10T10' and '2024-06-11T03' order by ts desc");
+    }
+
+    private void assertCompressed(String partition, boolean compressed) {
+        try (Path path = new Path().of(configuration.getRoot())) {
+            path.concat(engine.verifyTableName("x").getDirName()).concat(partition);
+            final int partitionLen = path.size();
+            final FilesFacade ff = configuration.getFilesFacade();
+            for (String column : new String[]{"ts", "l", "d", "i", "sym"}) {
+                Assert.assertEquals(column, !compressed, ff.exists(path.trimTo(partitionLen).concat(column).put(".d").$()));
+                Assert.assertEquals(column, compressed, ff.exists(path.trimTo(partitionLen).concat(column).put(".z").$()));
+            }
+            // var-size columns are not compressed
+            Assert.assertTrue(ff.exists(path.trimTo(partitionLen).concat("v").put(".d").$()));
+            Assert.assertFalse(ff.exists(path.trimTo(partitionLen).concat("v").put(".z").$()));
+        }
+    }
+
+    private void createTables() throws SqlException {
+        ddl(
+                "create table x as (select" +
+                        " timestamp_sequence('2024-06-10', 13000000) ts," +
+                        " x * 3 + rnd_long(0, 2, 0) l," +
+                        " round(rnd_double() * 100, 1) d," +
+                        " rnd_int(0, 3, 0) i," +
+                        " rnd_symbol('a', 'b', 'c') sym," +
+                        " rnd_varchar(1, 10, 1) v" +
+                        " from long_sequence(20000)" +
+                        "), index(sym) timestamp(ts) partition by day"
+        );
+        ddl("create table y as (select * from x) timestamp(ts) partition by day");
+    }
+}
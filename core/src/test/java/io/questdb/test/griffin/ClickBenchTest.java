@@ -439,13 +439,12 @@ public class ClickBenchTest extends AbstractCairoTest {
             new TestCase(
                     "Q25",
                     "SELECT SearchPhrase FROM hits WHERE SearchPhrase IS NOT NULL ORDER BY SearchPhrase LIMIT 10;",
-                    "Sort light lo: 10\n" +
+                    "Async JIT Top K workers: 1 lo: 0 hi: 10\n" +
                             "  keys: [SearchPhrase]\n" +
-                            "    Async JIT Filter workers: 1\n" +
-                            "      filter: SearchPhrase is not null\n" +
-                            "        PageFrame\n" +
-                            "            Row forward scan\n" +
-                            "            Frame forward scan on: hits\n"
+                            "  filter: SearchPhrase is not null\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: hits\n"
             ),
             new TestCase(
                     "Q26",
@@ -59,6 +59,7 @@ import io.questdb.griffin.engine.functions.rnd.RndSymbolListFunctionFactory;
 import io.questdb.griffin.engine.functions.table.HydrateTableMetadataFunctionFactory;
 import io.questdb.griffin.engine.functions.table.ParquetScanFunctionFactory;
 import io.questdb.griffin.engine.functions.table.ReadParquetFunctionFactory;
+import io.questdb.griffin.engine.functions.table.TableWithPendingWalFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
 import io.questdb.griffin.engine.table.PageFrameRecordCursorFactory;
 import io.questdb.griffin.model.WindowColumn;
@@ -293,7 +294,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from a asof join b on ts where a.i = b.ts::int",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.ts::int\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -314,7 +316,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select ts, ts1, i, i1 from (select * from a asof join b on ts ) where i/10 = i1",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i/10=b.i\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -334,7 +337,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b on ts",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -379,8 +383,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
@@ -401,7 +406,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "asof join a c on ts",
                     "SelectedRecord\n" +
                             "    AsOf Join Fast Scan\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -428,7 +434,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "where a.i = b.i",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.i\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -475,12 +482,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b where a.i > 0",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
-                            "        Async JIT Filter workers: 1\n" +
-                            "          filter: 0<i\n" +
-                            "            PageFrame\n" +
-                            "                Row forward scan\n" +
-                            "                Frame forward scan on: a\n" +
+                            "    Async JIT AsOf Join workers: 1\n" +
+                            "      filter: 0<i\n" +
+                            "        PageFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: a\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: b\n"
@@ -497,7 +503,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -517,7 +524,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b on(ts)",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -537,7 +545,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b on(ts)",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -1402,15 +1411,17 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "with b as (select i from a order by s)" +
                         "select * from a join b on a.i = b.i",
                 "SelectedRecord\n" +
-                        "    Hash Join Light\n" +
+                        "    Async Hash Join Light workers: 1\n" +
                         "      condition: b.i=a.i\n" +
+                        "      filter: null\n" +
                         "        PageFrame\n" +
                         "            Row forward scan\n" +
                         "            Frame forward scan on: a\n" +
                         "        Hash\n" +
                         "            SelectedRecord\n" +
-                        "                Sort light\n" +
+                        "                Async Sort light workers: 1\n" +
                         "                  keys: [s]\n" +
+                        "                  filter: null\n" +
                         "                    PageFrame\n" +
                         "                        Row forward scan\n" +
                         "                        Frame forward scan on: a\n"
@@ -1455,8 +1466,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "    VirtualRecord\n" +
                     "      functions: [1,d1]\n" +
                     "        SelectedRecord\n" +
-                    "            Hash Join Light\n" +
+                    "            Async Hash Join Light workers: 1\n" +
                     "              condition: l2=l1\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: a\n" +
@@ -2453,7 +2465,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                     args.add(new IntConstant(4)); // precision has to be in the range of 4 to 18
                                 } else if (!useConst) {
                                     args.add(colFuncs.get(sigArgType));
-                                } else if (factory instanceof WalTransactionsFunctionFactory && sigArgType == ColumnType.STRING) {
+                                } else if ((factory instanceof WalTransactionsFunctionFactory || factory instanceof TableWithPendingWalFunctionFactory)
+                                        && sigArgType == ColumnType.STRING) {
                                     // Skip it, it requires a WAL table to exist
                                     break FUNCTIONS;
                                 } else {
@@ -2990,8 +3003,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
                         "    SelectedRecord\n" +
-                        "        Hash Join Light\n" +
+                        "        Async Hash Join Light workers: 1\n" +
                         "          condition: b.i=a.i\n" +
+                        "          filter: null\n" +
                         "            PageFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3134,8 +3148,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select max(i) from (select * from a order by d limit 10)",
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
-                        "    Sort light lo: 10\n" +
+                        "    Async Top K workers: 1 lo: 0 hi: 10\n" +
                         "      keys: [d]\n" +
+                        "      filter: null\n" +
                         "        PageFrame\n" +
                         "            Row forward scan\n" +
                         "            Frame forward scan on: a\n"
@@ -3421,8 +3436,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select s1, s2 from (select a.s1, b.s2, b.i, a.i  from a join b on i) where i < i1 and s1 = s2",
                     "SelectedRecord\n" +
                             "    Filter filter: (b.i<a.i and a.s1=b.s2)\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: b.i=a.i\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -4650,7 +4666,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
             compile("CREATE TABLE tab ( created timestamp, value int ) timestamp(created)");
 
             String[] joinTypes = {"LEFT", "LT", "ASOF"};
-            String[] joinFactoryTypes = {"Hash Outer Join Light", "Lt Join Fast Scan", "AsOf Join Fast Scan"};
+            String[] joinFactoryTypes = {"Hash Outer Join Light", "Async Lt Join workers: 1", "Async AsOf Join workers: 1"};
 
             for (int i = 0; i < joinTypes.length; i++) {
                 // do not push down predicate to the 'right' table of left join but apply it after join
@@ -4665,7 +4681,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "Count\n" +
                                 "    Filter filter: T2.value=T2.value\n" +
                                 "        " + factoryType + "\n" +
-                                (i == 0 ? "          condition: T2.created=T1.created\n" : "") +
+                                (i == 0 ? "          condition: T2.created=T1.created\n" : "          filter: null\n") +
                                 "            PageFrame\n" +
                                 "                Row forward scan\n" +
                                 "                Frame forward scan on: tab\n" +
@@ -4683,7 +4699,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "Count\n" +
                                 "    Filter filter: T2.value!=1\n" +
                                 "        " + factoryType + "\n" +
-                                (i == 0 ? "          condition: T2.created=T1.created\n" : "") +
+                                (i == 0 ? "          condition: T2.created=T1.created\n" : "          filter: null\n") +
                                 "            PageFrame\n" +
                                 "                Row forward scan\n" +
                                 "                Frame forward scan on: tab\n" +
@@ -4699,18 +4715,29 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                 "FROM tab as T1 " +
                                 joinType + " JOIN tab as T2 " + (i == 0 ? " ON T1.created=T2.created " : "") +
                                 "WHERE not T1.value=1",
-                        "Count\n" +
+                        i == 0
+                                ? "Count\n" +
                                 "    " + factoryType + "\n" +
-                                (i == 0 ? "      condition: T2.created=T1.created\n" : "") +
+                                "      condition: T2.created=T1.created\n" +
                                 "        Async JIT Filter workers: 1\n" +
                                 "          filter: value!=1\n" +
                                 "            PageFrame\n" +
                                 "                Row forward scan\n" +
                                 "                Frame forward scan on: tab\n" +
-                                (i == 0 ? "        Hash\n" : "") +
-                                (i == 0 ? "    " : "") + "        PageFrame\n" +
-                                (i == 0 ? "    " : "") + "            Row forward scan\n" +
-                                (i == 0 ? "    " : "") + "            Frame forward scan on: tab\n"
+                                "        Hash\n" +
+                                "            PageFrame\n" +
+                                "                Row forward scan\n" +
+                                "                Frame forward scan on: tab\n"
+                                // async asof and lt joins filter master rows themselves
+                                : "Count\n" +
+                                "    " + factoryType.replace("Async", "Async JIT") + "\n" +
+                                "      filter: value!=1\n" +
+                                "        PageFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n" +
+                                "        PageFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n"
                 );
             }
 
@@ -4866,7 +4893,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select ts1, ts2, i1, i2 from (select a.i as i1, a.ts as ts1, b.i as i2, b.ts as ts2 from a lt join b on ts) where ts1::long*i1<ts2::long*i2",
                     "SelectedRecord\n" +
                             "    Filter filter: a.ts::long*a.i<b.ts::long*b.i\n" +
-                            "        Lt Join Fast Scan\n" +
+                            "        Async Lt Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -4886,7 +4914,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a lt join b on ts",
                     "SelectedRecord\n" +
-                            "    Lt Join Fast Scan\n" +
+                            "    Async Lt Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -4909,7 +4938,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from a lt join b on ts where a.i = b.ts",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.ts\n" +
-                            "        Lt Join Fast Scan\n" +
+                            "        Async Lt Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -4930,7 +4960,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from a lt join b on ts where a.i = b.ts",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.ts\n" +
-                            "        Lt Join Fast Scan\n" +
+                            "        Async Lt Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -4951,7 +4982,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from a lt join b where a.i = b.ts",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.ts\n" +
-                            "        Lt Join Fast Scan\n" +
+                            "        Async Lt Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -5020,12 +5052,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a lt join b where a.i > 0",
                     "SelectedRecord\n" +
-                            "    Lt Join Fast Scan\n" +
-                            "        Async JIT Filter workers: 1\n" +
-                            "          filter: 0<i\n" +
-                            "            PageFrame\n" +
-                            "                Row forward scan\n" +
-                            "                Frame forward scan on: a\n" +
+                            "    Async JIT Lt Join workers: 1\n" +
+                            "      filter: 0<i\n" +
+                            "        PageFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: a\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: b\n"
@@ -5042,7 +5073,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a lt join b",
                     "SelectedRecord\n" +
-                            "    Lt Join Fast Scan\n" +
+                            "    Async Lt Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -5062,7 +5094,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a lt join b on(ts)",
                     "SelectedRecord\n" +
-                            "    Lt Join Fast Scan\n" +
+                            "    Async Lt Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -5082,7 +5115,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a lt join b on(ts)",
                     "SelectedRecord\n" +
-                            "    Lt Join Fast Scan\n" +
+                            "    Async Lt Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -5106,8 +5140,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
@@ -5128,7 +5163,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "lt join a c on ts",
                     "SelectedRecord\n" +
                             "    Lt Join Fast Scan\n" +
-                            "        Lt Join Fast Scan\n" +
+                            "        Async Lt Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -5303,8 +5339,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Update table: tab\n" +
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: t2.b=t1.b\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: tab\n" +
@@ -5327,8 +5364,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "    VirtualRecord\n" +
                         "      functions: [true]\n" +
                         "        Filter filter: not (sleep(60000))\n" +
-                        "            Hash Join Light\n" +
+                        "            Async Hash Join Light workers: 1\n" +
                         "              condition: t2.b=t1.b\n" +
+                        "              filter: null\n" +
                         "                PageFrame\n" +
                         "                    Row forward scan\n" +
                         "                    Frame forward scan on: tab\n" +
@@ -5351,8 +5389,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: -1<now()::long\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: tab\n" +
@@ -5369,8 +5408,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: now()::long<0\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: tab\n" +
@@ -5617,13 +5657,15 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
                 String expectedPlan = "SelectedRecord\n" +
                         "    " + joinType + " Join\n" +
-                        "        Sort light\n" +
+                        "        Async Sort light workers: 1\n" +
                         "          keys: [timestamp, galon_price desc]\n" +
+                        "          filter: null\n" +
                         "            PageFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: gas_prices\n" +
-                        "        Sort light\n" +
+                        "        Async Sort light workers: 1\n" +
                         "          keys: [timestamp, galon_price desc]\n" +
+                        "          filter: null\n" +
                         "            PageFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: gas_prices\n";
@@ -5650,13 +5692,15 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "  keys: [timestamp]\n" +
                     "    SelectedRecord\n" +
                     "        Splice Join\n" +
-                    "            Sort light\n" +
+                    "            Async Sort light workers: 1\n" +
                     "              keys: [timestamp, galon_price desc]\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: gas_prices\n" +
-                    "            Sort light\n" +
+                    "            Async Sort light workers: 1\n" +
                     "              keys: [timestamp, galon_price desc]\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: gas_prices\n";
@@ -5724,8 +5768,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab (i int, ts timestamp) timestamp(ts)",
                 "select * from (select * from tab order by ts desc, i asc limit 10) order by ts desc",
-                "Sort light lo: 10\n" +
+                "Async Top K workers: 1 lo: 0 hi: 10\n" +
                         "  keys: [ts desc, i]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -5748,8 +5793,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Count\n" +
                             "    Filter filter: T1.event<T2.event\n" +
                             "        Cross Join\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: T3.created=T2.created\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: test\n" +
@@ -5910,8 +5956,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -5930,8 +5977,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x1),count(x)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6186,8 +6234,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6206,8 +6255,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6348,8 +6398,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6368,8 +6419,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6428,8 +6480,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(resolutIONWidth),count(resolutIONWidth),sum(ResolutionWidth1),count(*)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: h2.id=h1.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: hits1\n" +
@@ -6729,12 +6782,16 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(prev) align to calendar",
-                    "Sample By\n" +
-                            "  fill: prev\n" +
-                            "  values: [first(i)]\n" +
-                            "    PageFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill Prev Range\n" +
+                            "      stride: '1h'\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [ts]\n" +
+                            "          values: [first(i)]\n" +
+                            "          filter: null\n" +
+                            "            PageFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: a\n"
             );
         });
     }
@@ -7080,7 +7137,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select count(*) from (select * from a lt join a b) ",
                 "Count\n" +
                         "    SelectedRecord\n" +
-                        "        Lt Join Fast Scan\n" +
+                        "        Async Lt Join workers: 1\n" +
+                        "          filter: null\n" +
                         "            PageFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -7097,7 +7155,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select count(*) from (select * from a asof join a b) ",
                 "Count\n" +
                         "    SelectedRecord\n" +
-                        "        AsOf Join Fast Scan\n" +
+                        "        Async AsOf Join workers: 1\n" +
+                        "          filter: null\n" +
                         "            PageFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -7388,8 +7447,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) ;",
                 "select * from a order by ts desc",
-                "Radix sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [ts desc]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n"
@@ -8132,14 +8192,13 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "where (s1 = 'S1' or s1 = 'S2') " +
                             "and ts > 0::timestamp and ts < 9::timestamp  " +
                             "order by s1,ts desc",
-                    "Sort light\n" +
+                    "Async JIT Sort light workers: 1\n" +
                             "  keys: [s1, ts desc]\n" +
-                            "    Async JIT Filter workers: 1\n" +
-                            "      filter: (s1='S1' or s1='S2')\n" +
-                            "        PageFrame\n" +
-                            "            Row forward scan\n" +
-                            "            Interval forward scan on: a\n" +
-                            "              intervals: [(\"1970-01-01T00:00:00.000001Z\",\"1970-01-01T00:00:00.000008Z\")]\n"
+                            "  filter: (s1='S1' or s1='S2')\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Interval forward scan on: a\n" +
+                            "          intervals: [(\"1970-01-01T00:00:00.000001Z\",\"1970-01-01T00:00:00.000008Z\")]\n"
             );
         });
     }
@@ -8423,8 +8482,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i asc",
-                "Radix sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [i]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n"
@@ -8436,8 +8496,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i desc",
-                "Radix sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [i desc]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n"
@@ -8449,8 +8510,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i limit 10, 100",
-                "Sort light lo: 10 hi: 100\n" +
+                "Async Top K workers: 1 lo: 10 hi: 100\n" +
                         "  keys: [i]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n"
@@ -8484,8 +8546,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc ",
-                "Radix sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [l desc]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Interval forward scan on: tab\n" +
@@ -8498,8 +8561,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc, ts desc ",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [l desc, ts desc]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Interval forward scan on: tab\n" +
@@ -8616,6 +8680,18 @@ public class ExplainPlanTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testSelectTableWithPendingWal() throws Exception {
+        assertPlan(
+                "create table tab ( s string, sy symbol, i int, ts timestamp) timestamp(ts) partition by day WAL",
+                "select * from table_with_pending_wal('tab')",
+                "PendingWal on: tab\n" +
+                        "    PageFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: tab\n"
+        );
+    }
+
     @Test
     public void testSelectWalTransactions() throws Exception {
         assertPlan(
@@ -8630,13 +8706,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table xx ( x long, str string) ",
                 "select * from xx where str = 'A' order by str,x limit 10",
-                "Sort light lo: 10\n" +
+                "Async Top K workers: 1 lo: 0 hi: 10\n" +
                         "  keys: [str, x]\n" +
-                        "    Async Filter workers: 1\n" +
-                        "      filter: str='A'\n" +
-                        "        PageFrame\n" +
-                        "            Row forward scan\n" +
-                        "            Frame forward scan on: xx\n"
+                        "  filter: str='A'\n" +
+                        "    PageFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: xx\n"
         );
     }
 
@@ -9579,8 +9654,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc, l desc limit 10) order by ts desc",
-                    "Sort light lo: 10\n" +
+                    "Async Top K workers: 1 lo: 0 hi: 10\n" +
                             "  keys: [ts desc, l desc]\n" +
+                            "  filter: null\n" +
                             "    PageFrame\n" +
                             "        Row forward scan\n" +
                             "        Frame forward scan on: a\n"
@@ -9622,8 +9698,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "SelectedRecord\n" +
                             "    Lt Join Fast Scan\n" +
                             "        Limit lo: 10\n" +
-                            "            Sort light\n" +
+                            "            Async Sort light workers: 1\n" +
                             "              keys: [ts, l]\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: a\n" +
@@ -9646,8 +9723,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 10\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts desc, l desc]\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n"
@@ -9777,8 +9855,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from (select * from a order by ts, l limit 10) order by ts, l",
                     "Sort light\n" +
                             "  keys: [ts, l]\n" +
-                            "    Sort light lo: 10\n" +
+                            "    Async Top K workers: 1 lo: 0 hi: 10\n" +
                             "      keys: [ts, l]\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n"
@@ -9796,8 +9875,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Sort light\n" +
                             "  keys: [ts, l]\n" +
                             "    Limit lo: 10 hi: -10\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, l]\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n"
@@ -9906,8 +9986,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
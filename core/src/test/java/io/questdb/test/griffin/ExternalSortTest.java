@@ -0,0 +1,225 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.LongList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExternalSortTest extends AbstractCairoTest {
+    private static final long SPILL_BUDGET = 64 * 1024;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputWorkRoot = TestUtils.unchecked(() -> temp.newFolder("sort" + System.nanoTime()).getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testFullRecordSort() throws Exception {
+        // union all doesn't support random access, so records are copied into the sort chain
+        assertExternalSort(
+                "Sort",
+                "select * from (select * from tab union all select * from tab) order by device, ts desc"
+        );
+    }
+
+    @Test
+    public void testFullRecordSortStability() throws Exception {
+        assertExternalSort(
+                "Sort",
+                "select * from (select * from tab union all select * from tab) order by device"
+        );
+    }
+
+    @Test
+    public void testLightSort() throws Exception {
+        assertExternalSort(
+                "Async Sort light",
+                "select * from tab order by device, ts"
+        );
+    }
+
+    @Test
+    public void testLightSortSingleThreaded() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
+        assertExternalSort(
+                "Sort light",
+                "select * from tab order by device, ts"
+        );
+    }
+
+    @Test
+    public void testLightSortStability() throws Exception {
+        assertExternalSort(
+                "Async Sort light",
+                "select * from tab order by s desc"
+        );
+    }
+
+    @Test
+    public void testRadixSort() throws Exception {
+        // radix sort is used only when the parallel sort is disabled
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
+        assertExternalSort(
+                "Radix sort light",
+                "select * from tab order by l"
+        );
+    }
+
+    @Test
+    public void testRadixSortDesc() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
+        assertExternalSort(
+                "Radix sort light",
+                "select * from tab order by l desc"
+        );
+    }
+
+    @Test
+    public void testSortWithinBudget() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            ddl("create table small as (select x, rnd_symbol('a','b','c') sym from long_sequence(10))");
+            assertQueryNoLeakCheck(
+                    "x\tsym\n" +
+                            "1\ta\n" +
+                            "2\ta\n" +
+                            "9\ta\n" +
+                            "3\tb\n" +
+                            "8\tb\n" +
+                            "10\tb\n" +
+                            "4\tc\n" +
+                            "5\tc\n" +
+                            "6\tc\n" +
+                            "7\tc\n",
+                    "select * from (select * from small union all select * from small where 1 <> 1) order by sym, x",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSpilledCursorToTop() throws Exception {
+        assertSpilledCursor("select * from (select * from tab union all select * from tab) order by ts", 4, 40_000);
+    }
+
+    @Test
+    public void testSpilledParallelCursorToTop() throws Exception {
+        assertSpilledCursor("select * from tab order by l", 8, 20_000);
+    }
+
+    private void assertExternalSort(String expectedSortType, String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 0);
+            final StringSink expected = new StringSink();
+            printSql(query, expected);
+            try (RecordCursorFactory factory = select(query)) {
+                Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+            }
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            final StringSink plan = new StringSink();
+            printSql("explain " + query, plan);
+            TestUtils.assertContains(plan, expectedSortType);
+            assertQueryNoLeakCheck(expected.toString(), query, null, null, true, true);
+        });
+    }
+
+    private void assertSpilledCursor(String query, int columnIndex, long expectedRows) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            try (RecordCursorFactory factory = select(query)) {
+                Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    final LongList rowIds = new LongList();
+                    final LongList values = new LongList();
+                    long rows = 0;
+                    long prevValue = Long.MIN_VALUE;
+                    while (cursor.hasNext()) {
+                        final long value = record.getLong(columnIndex);
+                        Assert.assertTrue(value >= prevValue);
+                        prevValue = value;
+                        rows++;
+                        if (rows % 97 == 0) {
+                            rowIds.add(record.getRowId());
+                            values.add(value);
+                        }
+                    }
+                    Assert.assertEquals(expectedRows, rows);
+
+                    // row ids of spilled records point back into their runs
+                    final Record recordB = cursor.getRecordB();
+                    for (int i = rowIds.size() - 1; i > -1; i--) {
+                        cursor.recordAt(recordB, rowIds.getQuick(i));
+                        Assert.assertEquals(values.getQuick(i), recordB.getLong(columnIndex));
+                        cursor.recordAt(record, rowIds.getQuick(i));
+                        Assert.assertEquals(rowIds.getQuick(i), record.getRowId());
+                    }
+
+                    cursor.toTop();
+                    long rows2 = 0;
+                    while (cursor.hasNext()) {
+                        rows2++;
+                    }
+                    Assert.assertEquals(rows, rows2);
+                }
+            }
+        });
+    }
+
+    private void createTable() throws Exception {
+        ddl(
+                "create table tab as (" +
+                        "select" +
+                        " rnd_symbol(20, 4, 8, 0) device," +
+                        " rnd_str(5, 16, 2) s," +
+                        " rnd_varchar(1, 20, 1) vc," +
+                        " rnd_uuid4() u," +
+                        " timestamp_sequence(0, 1000000) ts," +
+                        " rnd_double() d," +
+                        " rnd_long256() l256," +
+                        " rnd_bin(4, 16, 1) bin," +
+                        " rnd_long() l" +
+                        " from long_sequence(20000)" +
+                        ") timestamp(ts) partition by hour"
+        );
+    }
+}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GroupBySpillTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final long SPILL_BUDGET = 16 * 1024;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputWorkRoot = TestUtils.unchecked(() -> temp.newFolder("spill" + System.nanoTime()).getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, false);
+    }
+
+    @Test
+    public void testBudgetNotExceeded() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            ddl("create table tab as (select x % 10 k, x v from long_sequence(1000))");
+            final String query = "select k, count(), sum(v) from tab";
+            try (RecordCursorFactory factory = select(query)) {
+                Assert.assertTrue(factory.getBaseFactory() instanceof GroupByRecordCursorFactory);
+                Assert.assertFalse(factory.recordCursorSupportsRandomAccess());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    long rows = 0;
+                    while (cursor.hasNext()) {
+                        rows++;
+                    }
+                    Assert.assertEquals(10, rows);
+                    Assert.assertEquals(10, cursor.size());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCursorToTopAndSize() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            ddl("create table tab as (select x % 20000 k, x v from long_sequence(100000))");
+            final String query = "select k, sum(v) from tab";
+            try (RecordCursorFactory factory = select(query)) {
+                Assert.assertTrue(factory.getBaseFactory() instanceof GroupByRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    long rows = 0;
+                    long keySum = 0;
+                    long valueSum = 0;
+                    while (cursor.hasNext()) {
+                        rows++;
+                        keySum += record.getLong(0);
+                        valueSum += record.getLong(1);
+                    }
+                    Assert.assertEquals(20000, rows);
+                    Assert.assertEquals(19999L * 20000 / 2, keySum);
+                    Assert.assertEquals(100000L * 100001 / 2, valueSum);
+                    // spilled map is returned partition by partition, so the size is unknown
+                    Assert.assertEquals(-1, cursor.size());
+
+                    cursor.toTop();
+                    long rows2 = 0;
+                    long valueSum2 = 0;
+                    while (cursor.hasNext()) {
+                        rows2++;
+                        valueSum2 += record.getLong(1);
+                    }
+                    Assert.assertEquals(rows, rows2);
+                    Assert.assertEquals(valueSum, valueSum2);
+
+                    cursor.toTop();
+                    RecordCursor.Counter counter = new RecordCursor.Counter();
+                    cursor.calculateSize(sqlExecutionContext.getCircuitBreaker(), counter);
+                    Assert.assertEquals(rows, counter.get());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFixedSizeKeys() throws Exception {
+        assertSpill(
+                "create table tab as (select x % 30000 k, (x % 7)::int k2, rnd_double() d, x v from long_sequence(200000))",
+                "select k, k2, count(), sum(v), min(v), max(v), avg(d), first(v), last(v) from tab order by k, k2"
+        );
+    }
+
+    @Test
+    public void testFunctionsWithAllocatorMemory() throws Exception {
+        assertSpill(
+                "create table tab as (select x % 5000 k, x % 13 v, rnd_str(3, 5, 0) s from long_sequence(50000))",
+                "select k, count_distinct(v), min(s), max(s) from tab order by k"
+        );
+    }
+
+    @Test
+    public void testParallelCursorToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, true);
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            ddl("create table tab as (select x % 20000 k, x v from long_sequence(100000))");
+            final String query = "select k, sum(v) from tab";
+            try (RecordCursorFactory factory = select(query)) {
+                Assert.assertFalse(factory.recordCursorSupportsRandomAccess());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    for (int i = 0; i < 2; i++) {
+                        long rows = 0;
+                        long keySum = 0;
+                        long valueSum = 0;
+                        while (cursor.hasNext()) {
+                            rows++;
+                            keySum += record.getLong(0);
+                            valueSum += record.getLong(1);
+                        }
+                        Assert.assertEquals(20000, rows);
+                        Assert.assertEquals(19999L * 20000 / 2, keySum);
+                        Assert.assertEquals(100000L * 100001 / 2, valueSum);
+                        Assert.assertEquals(-1, cursor.size());
+                        cursor.toTop();
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testParallelFilter() throws Exception {
+        assertParallelSpill(
+                "create table tab as (select x % 30000 k, (x % 7)::int k2, x v from long_sequence(200000))",
+                "select k, k2, count(), sum(v), first(v), last(v) from tab where v % 3 <> 0 order by k, k2"
+        );
+    }
+
+    @Test
+    public void testParallelFixedSizeKeys() throws Exception {
+        assertParallelSpill(
+                "create table tab as (select x % 30000 k, (x % 7)::int k2, rnd_double() d, x v from long_sequence(200000))",
+                "select k, k2, count(), sum(v), min(v), max(v), avg(d), first(v), last(v) from tab order by k, k2"
+        );
+    }
+
+    @Test
+    public void testParallelFunctionsWithAllocatorMemory() throws Exception {
+        // the keys are few, so it's count_distinct() and the strings that exceed the budget
+        assertParallelSpill(
+                "create table tab as (select x % 500 k, x % 1000 v, rnd_str(10, 20, 0) s from long_sequence(50000))",
+                "select k, count_distinct(v), min(s), max(s) from tab order by k"
+        );
+    }
+
+    @Test
+    public void testParallelVarSizeKeys() throws Exception {
+        assertParallelSpill(
+                "create table tab as (" +
+                        "select concat('key_', x % 20000) s, concat('k', x % 3)::varchar vc, x v, rnd_double() d from long_sequence(150000)" +
+                        ")",
+                "select s, vc, count(), sum(v), max(d) from tab order by s, vc"
+        );
+    }
+
+    @Test
+    public void testSampleByFillPrev() throws Exception {
+        assertMemoryLeak(() -> {
+            // every third minute has no rows, so the fill has to revisit the previous bucket
+            ddl("create table tab as (select x v, timestamp_sequence(0, 20000000) ts from long_sequence(100000) where x % 9 > 2) timestamp(ts)");
+            final String query = "select ts, count(), sum(v) from tab sample by 1m fill(prev)";
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 0);
+            final StringSink expected = new StringSink();
+            printSql(query, expected);
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            assertPlanNoLeakCheck(
+                    query,
+                    "Fill Prev Range\n" +
+                            "  stride: '1m'\n" +
+                            "    Sort\n" +
+                            "      keys: [ts]\n" +
+                            "        GroupBy vectorized: false\n" +
+                            "          keys: [ts]\n" +
+                            "          values: [count(*),sum(v)]\n" +
+                            "            PageFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: tab\n"
+            );
+            assertQueryNoLeakCheck(expected.toString(), query, "ts", false, false);
+        });
+    }
+
+    @Test
+    public void testVarSizeKeys() throws Exception {
+        assertSpill(
+                "create table tab as (" +
+                        "select concat('key_', x % 20000) s, concat('k', x % 3)::varchar vc, x v, rnd_double() d from long_sequence(150000)" +
+                        ")",
+                "select s, vc, count(), sum(v), max(d) from tab order by s, vc"
+        );
+    }
+
+    private void assertParallelSpill(String ddl, String query) throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, true);
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(compiler, ddl, sqlExecutionContext);
+
+                        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 0);
+                        final StringSink expected = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+
+                        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    private void assertSpill(String ddl, String query) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(ddl);
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 0);
+            final StringSink expected = new StringSink();
+            printSql(query, expected);
+
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, SPILL_BUDGET);
+            assertQueryNoLeakCheck(expected.toString(), query, null, true, false);
+        });
+    }
+}
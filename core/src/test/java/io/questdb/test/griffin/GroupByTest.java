@@ -696,8 +696,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [date_report]\n" +
                             "          values: [min(x),count(*),min(dateadd('d',-1,date_report1))]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: details.x=ordr.x\n" +
+                            "                  filter: null\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: ord\n" +
@@ -1227,8 +1228,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "              keys: [x,x1]\n" +
                             "              values: [max(y)]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
+                            "                      filter: null\n" +
                             "                        PageFrame\n" +
                             "                            Row forward scan\n" +
                             "                            Frame forward scan on: t1\n" +
@@ -1269,8 +1271,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "      keys: [x,case,x1]\n" +
                             "      values: [max(y)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.y=t1.y\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: t1\n" +
@@ -1314,8 +1317,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [x,x1,dateadd]\n" +
                             "          values: [max(y)]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: t2.y=t1.y\n" +
+                            "                  filter: null\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: t1\n" +
@@ -1359,8 +1363,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [x,dateadd,x1]\n" +
                             "          values: [max(y)]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: t2.y=t1.y\n" +
+                            "                  filter: null\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: t1\n" +
@@ -2335,8 +2340,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [x,dateadd,x1]\n" +
                             "          values: [max(y)]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: t2.y=t1.y\n" +
+                            "                  filter: null\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: t1\n" +
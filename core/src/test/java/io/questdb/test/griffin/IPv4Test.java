@@ -2420,8 +2420,9 @@ public class IPv4Test extends AbstractCairoTest {
     public void testIPv4Explain() throws Exception {
         assertQuery(
                 "QUERY PLAN\n" +
-                        "Radix sort light\n" +
+                        "Async Sort light workers: 1\n" +
                         "  keys: [ip desc]\n" +
+                        "  filter: null\n" +
                         "    PageFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: test\n",
@@ -44,6 +44,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class JoinTest extends AbstractCairoTest {
 
@@ -5663,10 +5664,22 @@ public class JoinTest extends AbstractCairoTest {
     private void testJoinForCursorLeaks(String sql, boolean fullFatJoins) throws Exception {
         assertMemoryLeak(() -> {
             AtomicInteger counter = new AtomicInteger();
+            AtomicReference<Thread> failedThread = new AtomicReference<>();
             ff = new TestFilesFacadeImpl() {
+                @Override
+                public int errno() {
+                    // report the faked failure with the same errno on whichever thread, owner
+                    // or worker, opened the file, rather than the errno left by an earlier call
+                    if (failedThread.compareAndSet(Thread.currentThread(), null)) {
+                        return 1;
+                    }
+                    return super.errno();
+                }
+
                 @Override
                 public long openRO(LPSZ name) {
                     if (Utf8s.endsWithAscii(name, Files.SEPARATOR + "ts.d") && counter.incrementAndGet() == 1) {
+                        failedThread.set(Thread.currentThread());
                         return -1;
                     }
                     return TestFilesFacadeImpl.INSTANCE.openRO(name);
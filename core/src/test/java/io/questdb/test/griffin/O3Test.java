@@ -582,6 +582,26 @@ public class O3Test extends AbstractO3Test {
         executeWithPool(4, O3Test::testPartitionedDataAppendOOData0);
     }
 
+    @Test
+    public void testLargeColumnCopyIOURing() throws Exception {
+        ioURingEnabled = true;
+        executeVanilla(O3Test::testLargeColumnCopy0);
+    }
+
+    @Test
+    public void testLargeColumnCopyIOURingNoMixedIO() throws Exception {
+        // O3 copies that would otherwise go to the mapped destination are written via the ring
+        ioURingEnabled = true;
+        mixedIOEnabled = false;
+        executeVanilla(O3Test::testLargeColumnCopy0);
+    }
+
+    @Test
+    public void testLargeColumnCopyIOURingParallel() throws Exception {
+        ioURingEnabled = true;
+        executeWithPool(4, O3Test::testLargeColumnCopy0);
+    }
+
     @Test
     public void testPartitionedDataAppendOOPrependOOData() throws Exception {
         executeVanilla(O3Test::testPartitionedDataAppendOOPrependOOData0);
@@ -5505,6 +5525,46 @@ public class O3Test extends AbstractO3Test {
         );
     }
 
+    private static void testLargeColumnCopy0(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // single partition large enough for O3 prefix and suffix copies to exceed
+        // the io_uring write chunk threshold
+        engine.ddl(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_long() j," +
+                        " rnd_str(5,16,2) s," +
+                        " rnd_varchar(1,40,1) v," +
+                        " timestamp_sequence('2024-01-01', 100000L) ts" +
+                        " from long_sequence(800000)" +
+                        ") timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+        engine.ddl(
+                "create table y as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_long() j," +
+                        " rnd_str(5,16,2) s," +
+                        " rnd_varchar(1,40,1) v," +
+                        " timestamp_sequence('2024-01-01T11', 1000L) ts" +
+                        " from long_sequence(1000)" +
+                        ")",
+                sqlExecutionContext
+        );
+        engine.ddl("create table z as (select * from (x union all y) order by ts) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+        engine.insert("insert into x select * from y", sqlExecutionContext);
+
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "z", "x", LOG);
+        engine.releaseAllWriters();
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "z", "x", LOG);
+    }
+
     private static void testPartitionedDataAppendOOPrependOOData0(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -24,6 +24,7 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.RecordCursor;
@@ -99,6 +100,8 @@ public class OrderByTimeoutTest extends AbstractCairoTest {
 
     @Test
     public void testTimeoutLimitedSizeSortedLightRecordCursor() throws Exception {
+        // workers check the circuit breaker per frame rather than per row
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
         assertMemoryLeak(() -> {
             compile(
                     "CREATE TABLE trips as (" +
@@ -116,6 +119,8 @@ public class OrderByTimeoutTest extends AbstractCairoTest {
 
     @Test
     public void testTimeoutSortedLightRecordCursorFactory() throws Exception {
+        // workers check the circuit breaker per frame rather than per row
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
         assertMemoryLeak(() -> {
             compile(
                     "CREATE TABLE trips as (" +
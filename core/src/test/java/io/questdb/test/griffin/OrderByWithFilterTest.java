@@ -507,8 +507,9 @@ public class OrderByWithFilterTest extends AbstractCairoTest {
                     "    Sort\n" +
                     "      keys: [mta_tax]\n" +
                     "        SelectedRecord\n" +
-                    "            Hash Join Light\n" +
+                    "            Async Hash Join Light workers: 1\n" +
                     "              condition: b.vendor_id=a.vendor_id\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CursorPrinter;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelAsOfJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelAsOfJoinTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        super.setUp();
+    }
+
+    @Test
+    public void testAsOfJoinKeyed() throws Exception {
+        testParallelAsOfJoin(
+                "select * from trades t asof join quotes q on sym",
+                "select * from trades t asof join quotes q on t.note = q.note",
+                "select * from trades t asof join quotes q on t.sym = q.sym and t.note = q.note",
+                "select t.sym, count(), sum(q.bid) from trades t asof join quotes q on sym order by 1"
+        );
+    }
+
+    @Test
+    public void testAsOfJoinNotKeyed() throws Exception {
+        testParallelAsOfJoin(
+                "select * from trades t asof join quotes q",
+                "select t.ts, t.price, q.ts, q.bid from trades t asof join quotes q",
+                "select count(), sum(q.bid) from trades t asof join quotes q"
+        );
+    }
+
+    @Test
+    public void testFilterStealing() throws Exception {
+        testParallelAsOfJoin(
+                "select * from trades t asof join quotes q on sym where t.qty > 25",
+                "select * from trades t lt join quotes q where t.price > 0.5 and t.sym in ('ab', 'ef')",
+                "select * from trades t asof join quotes q where t.note ~ 'a'"
+        );
+    }
+
+    @Test
+    public void testLtJoinKeyed() throws Exception {
+        testParallelAsOfJoin(
+                "select * from trades t lt join quotes q on sym",
+                "select * from trades t lt join quotes q on t.note = q.note"
+        );
+    }
+
+    @Test
+    public void testLtJoinNotKeyed() throws Exception {
+        testParallelAsOfJoin(
+                "select * from trades t lt join quotes q",
+                "select count(), sum(q.bid) from trades t lt join quotes q"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        testParallelAsOfJoin(
+                (engine, sqlExecutionContext) -> {
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t asof join quotes q on sym", sink);
+                    TestUtils.assertContains(sink, "Async AsOf Join");
+
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t lt join quotes q", sink);
+                    TestUtils.assertContains(sink, "Async Lt Join");
+
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t asof join quotes q where t.qty > 10", sink);
+                    TestUtils.assertContains(sink, enableJitCompiler ? "Async JIT AsOf Join" : "Async AsOf Join");
+                    TestUtils.assertContains(sink, "filter: 10<qty");
+
+                    // Slave has to support time frame cursors.
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t asof join (quotes where bid > 0.5) q", sink);
+                    Assert.assertFalse(sink.toString().contains("Async AsOf Join"));
+                }
+        );
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        testParallelAsOfJoin(
+                (engine, sqlExecutionContext) -> {
+                    try (
+                            RecordCursorFactory factory = engine.select("select * from trades t asof join quotes q on sym where t.qty > 10", sqlExecutionContext);
+                            RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                    ) {
+                        final StringSink expected = new StringSink();
+                        CursorPrinter.println(cursor, factory.getMetadata(), expected);
+                        Assert.assertTrue(expected.length() > 0);
+
+                        cursor.toTop();
+                        final StringSink actual = new StringSink();
+                        CursorPrinter.println(cursor, factory.getMetadata(), actual);
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                }
+        );
+    }
+
+    private void testParallelAsOfJoin(String... queries) throws Exception {
+        testParallelAsOfJoin(
+                (engine, sqlExecutionContext) -> {
+                    final StringSink sinkB = new StringSink();
+                    for (String query : queries) {
+                        // Run with single-threaded join.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, "false");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+
+                        // Run with parallel join.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, "true");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+
+                        TestUtils.assertEquals(sink, sinkB);
+                    }
+                }
+        );
+    }
+
+    private void testParallelAsOfJoin(AsOfJoinCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, "true");
+
+                        ddl(
+                                compiler,
+                                "create table trades as (select" +
+                                        " rnd_symbol('ab','cd','ef','gh',null) sym," +
+                                        " rnd_double(3) price," +
+                                        " rnd_int(0,50,3) qty," +
+                                        " rnd_str('a','b','c',null) note," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        // Quotes start later than trades, so that some trades have no matching quote,
+                        // and share some of the timestamps with trades to distinguish ASOF and LT joins.
+                        ddl(
+                                compiler,
+                                "create table quotes as (select" +
+                                        " rnd_symbol('ab','cd','ef','zz') sym," +
+                                        " rnd_double(3) bid," +
+                                        " rnd_str('a','b','d') note," +
+                                        " timestamp_sequence(400000000000 + 50 * 500000000L, 300000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        code.run(engine, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface AsOfJoinCode {
+        void run(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CursorPrinter;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelHashJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelHashJoinTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        super.setUp();
+    }
+
+    @Test
+    public void testEmptySlave() throws Exception {
+        testParallelHashJoin(
+                "select * from trades t join (refs where sym = 'none') r on sym",
+                "select * from trades t join refs r on t.sym = r.sym and t.qty = r.id where t.qty < 0"
+        );
+    }
+
+    @Test
+    public void testFilterNotThreadSafe() throws Exception {
+        testParallelHashJoin(
+                "select * from trades t join refs r on sym where t.note ~ 'a'"
+        );
+    }
+
+    @Test
+    public void testFilterStealing() throws Exception {
+        testParallelHashJoin(
+                "select * from trades t join refs r on sym where t.qty > 500",
+                "select * from trades t join refs r on sym where t.price > 0.5 and t.sym in ('ab', 'ef')",
+                "select * from trades t join refs r on sym where t.colTop > 42"
+        );
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelHashJoin(
+                "select * from trades t join refs r on t.sym = r.sym and t.qty = r.id",
+                "select * from trades t join refs r on t.note = r.note and t.sym = r.sym",
+                "select * from trades t join refs r on t.vnote = r.vnote"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        testParallelHashJoin(
+                (engine, sqlExecutionContext) -> {
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t join refs r on sym", sink);
+                    TestUtils.assertContains(sink, "Async Hash Join Light");
+
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from trades t join refs r on sym where t.qty > 10", sink);
+                    TestUtils.assertContains(sink, enableJitCompiler ? "Async JIT Hash Join Light" : "Async Hash Join Light");
+                    TestUtils.assertContains(sink, "filter: 10<qty");
+
+                    // Descending master scan is not supported.
+                    TestUtils.printSql(engine, sqlExecutionContext, "explain select * from (trades order by ts desc) t join refs r on sym", sink);
+                    Assert.assertFalse(sink.toString().contains("Async Hash Join Light"));
+                }
+        );
+    }
+
+    @Test
+    public void testSingleKey() throws Exception {
+        testParallelHashJoin(
+                "select * from trades t join refs r on sym",
+                "select t.ts, t.price, r.id from trades t join refs r on t.qty = r.id",
+                "select count() from trades t join refs r on sym",
+                "select t.sym, sum(t.price), count() from trades t join refs r on sym order by 1"
+        );
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        testParallelHashJoin(
+                (engine, sqlExecutionContext) -> {
+                    try (
+                            RecordCursorFactory factory = engine.select("select * from trades t join refs r on sym where t.qty > 100", sqlExecutionContext);
+                            RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                    ) {
+                        final StringSink expected = new StringSink();
+                        CursorPrinter.println(cursor, factory.getMetadata(), expected);
+                        Assert.assertTrue(expected.length() > 0);
+
+                        cursor.toTop();
+                        final StringSink actual = new StringSink();
+                        CursorPrinter.println(cursor, factory.getMetadata(), actual);
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                }
+        );
+    }
+
+    private void testParallelHashJoin(String... queries) throws Exception {
+        testParallelHashJoin(
+                (engine, sqlExecutionContext) -> {
+                    final StringSink sinkB = new StringSink();
+                    for (String query : queries) {
+                        // Run with single-threaded hash join.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, "false");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+
+                        // Run with parallel hash join.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, "true");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+
+                        TestUtils.assertEquals(sink, sinkB);
+                    }
+                }
+        );
+    }
+
+    private void testParallelHashJoin(HashJoinCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, "true");
+
+                        ddl(
+                                compiler,
+                                "create table trades as (select" +
+                                        " rnd_symbol('ab','cd','ef','gh',null) sym," +
+                                        " rnd_double(3) price," +
+                                        " rnd_int(0,50,3) qty," +
+                                        " rnd_str('a','b','c',null) note," +
+                                        " rnd_varchar('x','y',null) vnote," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        ddl(compiler, "alter table trades add column colTop double", sqlExecutionContext);
+                        insert(
+                                compiler,
+                                "insert into trades select" +
+                                        " rnd_symbol('ab','cd','ef','gh',null)," +
+                                        " rnd_double(3)," +
+                                        " rnd_int(0,50,3)," +
+                                        " rnd_str('a','b','c',null)," +
+                                        " rnd_varchar('x','y',null)," +
+                                        " timestamp_sequence(400000000000 + " + ROW_COUNT + " * 500000000L, 500000000)," +
+                                        " rnd_double(3) * 100" +
+                                        " from long_sequence(" + ROW_COUNT + ")",
+                                sqlExecutionContext
+                        );
+                        // Reference table contains duplicate keys, so that a master row may match multiple slave rows.
+                        ddl(
+                                compiler,
+                                "create table refs as (select" +
+                                        " rnd_symbol('ab','cd','ef','zz') sym," +
+                                        " x::int id," +
+                                        " rnd_str('a','b','d') note," +
+                                        " rnd_varchar('x','z') vnote" +
+                                        " from long_sequence(40))",
+                                sqlExecutionContext
+                        );
+
+                        code.run(engine, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface HashJoinCode {
+        void run(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
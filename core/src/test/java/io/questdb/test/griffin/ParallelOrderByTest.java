@@ -0,0 +1,331 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AsyncSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncTopKRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.LongList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelOrderByTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelOrderByTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        super.setUp();
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelOrderByEmptyTable(
+                "create table tab (ts timestamp, price double) timestamp(ts) partition by day",
+                "select * from tab order by price"
+        );
+    }
+
+    @Test
+    public void testFilterNotThreadSafe() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where astring ~ 'a' order by adouble, ts desc",
+                "select * from tab where astring ~ 'b' and along > 100 order by astring desc, ts"
+        );
+    }
+
+    @Test
+    public void testFilterStealing() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where along > 500 order by adouble",
+                "select * from tab where along > 500 and asymbol = 'ab' order by ashort desc, ts",
+                "select * from tab where colTop > 42 order by colTop desc, ts",
+                "select * from tab where along < 0 order by adouble"
+        );
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by asymbol, anint desc, ts",
+                "select * from tab order by abyte, astring, ts desc",
+                "select * from tab order by avarchar desc, ts"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        testParallelOrderBy(
+                (engine, sqlExecutionContext) -> {
+                    try (RecordCursorFactory factory = engine.select("select * from tab order by adouble", sqlExecutionContext)) {
+                        Assert.assertEquals(AsyncSortedLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                        Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+                    }
+                    try (RecordCursorFactory factory = engine.select("select * from tab where along > 10 order by adouble", sqlExecutionContext)) {
+                        Assert.assertEquals(AsyncSortedLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                    }
+                    // GROUP BY doesn't support page frames, so we should fall back to single-threaded sort.
+                    try (RecordCursorFactory factory = engine.select("select asymbol, count() c from tab order by c", sqlExecutionContext)) {
+                        Assert.assertNotEquals(AsyncSortedLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                    }
+                }
+        );
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        testParallelOrderBy(
+                (engine, sqlExecutionContext) -> {
+                    try (
+                            RecordCursorFactory factory = engine.select("select * from tab where along > 100 order by adouble desc, ts", sqlExecutionContext);
+                            RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                    ) {
+                        final Record record = cursor.getRecord();
+                        final LongList rowIds = new LongList();
+                        final StringSink expected = new StringSink();
+                        while (cursor.hasNext()) {
+                            rowIds.add(record.getRowId());
+                            expected.put(record.getDouble(4)).put(',').put(record.getTimestamp(16)).put('\n');
+                        }
+                        // filtered sort doesn't know its size, same as the single-threaded one
+                        Assert.assertEquals(-1, cursor.size());
+
+                        final Record recordB = cursor.getRecordB();
+                        final StringSink actual = new StringSink();
+                        for (int i = 0, n = rowIds.size(); i < n; i++) {
+                            cursor.recordAt(recordB, rowIds.getQuick(i));
+                            actual.put(recordB.getDouble(4)).put(',').put(recordB.getTimestamp(16)).put('\n');
+                        }
+                        TestUtils.assertEquals(expected, actual);
+
+                        // Iterate once again to verify toTop().
+                        cursor.toTop();
+                        actual.clear();
+                        while (cursor.hasNext()) {
+                            actual.put(record.getDouble(4)).put(',').put(record.getTimestamp(16)).put('\n');
+                        }
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                }
+        );
+    }
+
+    @Test
+    public void testSingleKey() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by adouble",
+                "select * from tab order by along desc, ts",
+                "select * from tab order by asymbol",
+                "select * from tab order by astring",
+                "select * from tab order by colTop",
+                "select ts, adouble from tab order by adouble desc, ts"
+        );
+    }
+
+    @Test
+    public void testTopK() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by adouble limit 10",
+                "select * from tab order by abyte limit 100",
+                "select * from tab order by asymbol desc, anint limit 5, 42",
+                "select * from tab order by along limit 0",
+                "select * from tab order by along limit 20, 10",
+                "select * from tab order by astring limit " + (3 * ROW_COUNT)
+        );
+    }
+
+    @Test
+    public void testTopKFilterStealing() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where along > 500 order by adouble desc limit 33",
+                "select * from tab where asymbol = 'ab' order by abyte limit 7",
+                "select * from tab where astring ~ 'a' order by ashort limit 3, 50",
+                "select * from tab where along < 0 order by adouble limit 10"
+        );
+    }
+
+    @Test
+    public void testTopKPlan() throws Exception {
+        testParallelOrderBy(
+                (engine, sqlExecutionContext) -> {
+                    try (RecordCursorFactory factory = engine.select("select * from tab where along > 10 order by adouble limit 10", sqlExecutionContext)) {
+                        Assert.assertEquals(AsyncTopKRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                    }
+                    // Last N rows are left to the single-threaded sort.
+                    try (RecordCursorFactory factory = engine.select("select * from tab order by adouble limit -10", sqlExecutionContext)) {
+                        Assert.assertNotEquals(AsyncTopKRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                    }
+                }
+        );
+    }
+
+    private void testParallelOrderBy(String... queries) throws Exception {
+        testParallelOrderBy(
+                (engine, sqlExecutionContext) -> {
+                    final StringSink sinkB = new StringSink();
+                    for (String query : queries) {
+                        // Run with single-threaded ORDER BY.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "false");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+
+                        // Run with parallel ORDER BY.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "true");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+
+                        TestUtils.assertEquals(sink, sinkB);
+                    }
+                }
+        );
+    }
+
+    private void testParallelOrderByEmptyTable(String ddl, String query) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "true");
+                        ddl(compiler, ddl, sqlExecutionContext);
+                        try (RecordCursorFactory factory = engine.select(query, sqlExecutionContext)) {
+                            Assert.assertEquals(AsyncSortedLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                        }
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, "ts\tprice\n");
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    private void testParallelOrderBy(OrderByCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "true");
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_boolean() aboolean," +
+                                        " rnd_byte(2,50) abyte," +
+                                        " rnd_short(10,1024) ashort," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_float(3) afloat," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_symbol('ab','cd','ef',null) asymbol," +
+                                        " rnd_str(3,8,3) astring," +
+                                        " rnd_varchar(3,8,3) avarchar," +
+                                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 3) adate," +
+                                        " rnd_char() achar," +
+                                        " rnd_ipv4() anipv4," +
+                                        " rnd_uuid4() auuid," +
+                                        " rnd_geohash(16) ageoint," +
+                                        " rnd_long256() along256," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        ddl(compiler, "alter table tab add column colTop double", sqlExecutionContext);
+                        insert(
+                                compiler,
+                                "insert into tab select" +
+                                        " rnd_boolean()," +
+                                        " rnd_byte(2,50)," +
+                                        " rnd_short(10,1024)," +
+                                        " rnd_int(0,1000,3)," +
+                                        " rnd_double(3)," +
+                                        " rnd_float(3)," +
+                                        " rnd_long(0,1000,3)," +
+                                        " rnd_symbol('ab','cd','ef',null)," +
+                                        " rnd_str(3,8,3)," +
+                                        " rnd_varchar(3,8,3)," +
+                                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 3)," +
+                                        " rnd_char()," +
+                                        " rnd_ipv4()," +
+                                        " rnd_uuid4()," +
+                                        " rnd_geohash(16)," +
+                                        " rnd_long256()," +
+                                        " timestamp_sequence(400000000000 + " + ROW_COUNT + " * 500000000L, 500000000)," +
+                                        " rnd_double(3) * 100" +
+                                        " from long_sequence(" + ROW_COUNT + ")",
+                                sqlExecutionContext
+                        );
+
+                        code.run(engine, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface OrderByCode {
+        void run(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
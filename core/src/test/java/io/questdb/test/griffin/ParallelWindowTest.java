@@ -0,0 +1,222 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.AsyncWindowRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelWindowTest extends AbstractCairoTest {
+    private static final int ROW_COUNT = 10_000;
+
+    @Override
+    @Before
+    public void setUp() {
+        // Window shard job is assigned to the worker pool only when the feature is enabled.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        super.setUp();
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+                        ddl(compiler, "create table tab (sym symbol, price double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+                        final String query = "select ts, sum(price) over (partition by sym) from tab";
+                        assertFactory(engine, sqlExecutionContext, true, query);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, "ts\tsum\n");
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        // framed functions alone are streamed, so each query has a whole-partition function too
+        testParallelWindow(
+                "select ts, asymbol, sum(adouble) over (partition by asymbol order by ts rows between 3 preceding and current row), count(*) over (partition by asymbol) from tab",
+                "select ts, anint, max(adouble) over (partition by anint order by ts rows between 10 preceding and 2 preceding), count(*) over (partition by anint) from tab",
+                "select ts, anint, min(along) over (partition by anint order by ts rows between 10 preceding and 2 preceding), count(*) over (partition by anint) from tab",
+                "select ts, asymbol, max(adouble) over (partition by asymbol order by ts range between 1 hour preceding and current row), count(*) over (partition by asymbol) from tab",
+                "select ts, asymbol, count(adouble) over (partition by asymbol order by ts range between 10 minutes preceding and current row), count(*) over (partition by asymbol) from tab",
+                "select ts, along, first_value(adouble) over (partition by along order by ts rows between unbounded preceding and current row), count(*) over (partition by along) from tab"
+        );
+    }
+
+    @Test
+    public void testMultipleFunctions() throws Exception {
+        testParallelWindow(
+                "select ts, asymbol," +
+                        " row_number() over (partition by asymbol)," +
+                        " sum(adouble) over (partition by asymbol)," +
+                        " min(adouble) over (partition by asymbol order by ts rows between 5 preceding and current row)," +
+                        " count(*) over (partition by asymbol)" +
+                        " from tab"
+        );
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelWindow(
+                "select ts, asymbol, abyte, avg(adouble) over (partition by asymbol, abyte) from tab",
+                "select ts, achar, anint, sum(adouble) over (partition by achar, anint order by ts), count(*) over (partition by achar, anint) from tab",
+                "select ts, row_number() over (partition by aboolean, asymbol, ageoint), count(*) over (partition by aboolean, asymbol, ageoint) from tab"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        testParallelWindow(
+                (engine, sqlExecutionContext) -> {
+                    assertFactory(engine, sqlExecutionContext, true, "select ts, avg(adouble) over (partition by asymbol) from tab");
+                    assertFactory(engine, sqlExecutionContext, true, "select ts, sum(adouble) over (partition by asymbol order by ts), avg(adouble) over (partition by asymbol) from tab where along > 10");
+                    // streamed functions don't buffer rows, so they stay single-threaded
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, sum(adouble) over (partition by asymbol order by ts) from tab where along > 10");
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, row_number() over (partition by asymbol) from tab");
+                    // mismatching partition keys
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, avg(adouble) over (partition by asymbol), avg(adouble) over (partition by anint) from tab");
+                    // not partitioned
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, avg(adouble) over () from tab");
+                    // var-size partition key
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, avg(adouble) over (partition by astring) from tab");
+                    // window order requires sorting
+                    assertFactory(engine, sqlExecutionContext, false, "select ts, rank() over (partition by asymbol order by adouble) from tab");
+
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select ts, avg(adouble) over (partition by asymbol) from tab",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "Async Window workers: 4\n" +
+                                    "  functions: [avg(adouble) over (partition by [asymbol])]\n" +
+                                    "    PageFrame\n" +
+                                    "        Row forward scan\n" +
+                                    "        Frame forward scan on: tab\n"
+                    );
+                }
+        );
+    }
+
+    @Test
+    public void testSingleKey() throws Exception {
+        testParallelWindow(
+                "select ts, asymbol, avg(adouble) over (partition by asymbol) from tab",
+                "select ts, anint, sum(adouble) over (partition by anint) from tab",
+                "select ts, along, row_number() over (partition by along), count(*) over (partition by along) from tab",
+                "select ts, auuid, count(*) over (partition by auuid) from tab",
+                "select ts, adate, rank() over (partition by adate order by ts), count(*) over (partition by adate) from tab",
+                "select ts, asymbol, sum(adouble) over (partition by asymbol order by ts desc), count(*) over (partition by asymbol) from tab order by ts desc",
+                "select ts, asymbol, sum(adouble) over (partition by asymbol) from tab where along < 0"
+        );
+    }
+
+    private static void assertFactory(CairoEngine engine, SqlExecutionContext sqlExecutionContext, boolean parallel, String query) throws SqlException {
+        try (RecordCursorFactory factory = engine.select(query, sqlExecutionContext)) {
+            RecordCursorFactory windowFactory = factory;
+            while (windowFactory != null && !windowFactory.getClass().getSimpleName().contains("Window")) {
+                windowFactory = windowFactory.getBaseFactory();
+            }
+            Assert.assertNotNull(windowFactory);
+            Assert.assertEquals(query, parallel, windowFactory instanceof AsyncWindowRecordCursorFactory);
+        }
+    }
+
+    private void testParallelWindow(String... queries) throws Exception {
+        testParallelWindow(
+                (engine, sqlExecutionContext) -> {
+                    final StringSink sinkB = new StringSink();
+                    for (String query : queries) {
+                        // Run with single-threaded window functions.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "false");
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+
+                        // Run with parallel window functions.
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+                        assertFactory(engine, sqlExecutionContext, true, query);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+
+                        TestUtils.assertEquals(sink, sinkB);
+                    }
+                }
+        );
+    }
+
+    private void testParallelWindow(WindowCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_boolean() aboolean," +
+                                        " rnd_byte(2,50) abyte," +
+                                        " rnd_int(0,100,3) anint," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_symbol('ab','cd','ef',null) asymbol," +
+                                        " rnd_str(3,8,3) astring," +
+                                        " rnd_date(to_date('2015', 'yyyy'), to_date('2015-01-02', 'yyyy-MM-dd'), 0) adate," +
+                                        " rnd_char() achar," +
+                                        " rnd_uuid4() auuid," +
+                                        " rnd_geohash(4) ageoint," +
+                                        " timestamp_sequence(400000000000, 60000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        code.run(engine, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface WindowCode {
+        void run(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
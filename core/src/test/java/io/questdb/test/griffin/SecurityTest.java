@@ -109,6 +109,34 @@ public class SecurityTest extends AbstractCairoTest {
                 // so we make sure to use a single-threaded factory in this test.
                 return false;
             }
+
+            @Override
+            public boolean isSqlParallelAsOfJoinEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelOrderByEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelHashJoinEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelWindowEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionCircuitBreaker dummyCircuitBreaker = new SqlExecutionCircuitBreaker() {
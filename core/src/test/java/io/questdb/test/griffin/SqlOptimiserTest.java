@@ -383,8 +383,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: y1\n" +
                             "        Hash\n" +
-                            "            Sort light lo: 1\n" +
+                            "            Async Top K workers: 1 lo: 0 hi: 1\n" +
                             "              keys: [LAST desc]\n" +
+                            "              filter: null\n" +
                             "                SelectedRecord\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
@@ -681,8 +682,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "Sort\n" +
                             "  keys: [a, b]\n" +
                             "    SelectedRecord\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: tab2.id=tab1.id\n" +
+                            "          filter: null\n" +
                             "            PageFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: tab1\n" +
@@ -715,8 +717,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "from tab1 join tab2 on tab1.id = tab2.id\n" +
                             "order by b",
                     "SelectedRecord\n" +
-                            "    Hash Join Light\n" +
+                            "    Async Hash Join Light workers: 1\n" +
                             "      condition: tab2.id=tab1.id\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: tab1\n" +
@@ -749,8 +752,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "from tab1 join tab2 on tab1.id = tab2.id\n" +
                             "order by 2",
                     "SelectedRecord\n" +
-                            "    Hash Join Light\n" +
+                            "    Async Hash Join Light workers: 1\n" +
                             "      condition: tab2.id=tab1.id\n" +
+                            "      filter: null\n" +
                             "        PageFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: tab1\n" +
@@ -784,8 +788,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "    Sort\n" +
                             "      keys: [a desc]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tab2.id=tab1.id\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: tab1\n" +
@@ -821,8 +826,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "        Sort\n" +
                             "          keys: [a desc, ts]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: tab2.id=tab1.id\n" +
+                            "                  filter: null\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: tab1\n" +
@@ -983,8 +989,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Fast Scan\n" +
+                    "            Async AsOf Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1018,8 +1025,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [ts, s]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Fast Scan\n" +
+                    "            Async AsOf Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1053,8 +1061,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Fast Scan\n" +
+                    "            Async AsOf Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1088,8 +1097,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s1, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Fast Scan\n" +
+                    "            Async AsOf Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1123,8 +1133,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Fast Scan\n" +
+                    "            Async AsOf Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1683,8 +1694,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            Lt Join Light\n" +
+                    "            Async Lt Join workers: 1\n" +
                     "              condition: t2.s=t1.s\n" +
+                    "              filter: null\n" +
                     "                PageFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Interval forward scan on: t1\n" +
@@ -1725,8 +1737,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "    Sort\n" +
                             "      keys: [s, ts, ts1]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.s=t1.s\n" +
+                            "              filter: null\n" +
                             "                PageFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Interval forward scan on: t1\n" +
@@ -1776,8 +1789,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    LIMIT 1000000;";
 
             assertQuery("select-choose s, ts from (select [s, ts] from t1 timestamp (ts)) order by s, ts limit 1000000", query);
-            assertPlanNoLeakCheck(query, "Sort light lo: 1000000\n" +
+            assertPlanNoLeakCheck(query, "Async Top K workers: 1 lo: 0 hi: 1000000\n" +
                     "  keys: [s, ts]\n" +
+                    "  filter: null\n" +
                     "    PageFrame\n" +
                     "        Row forward scan\n" +
                     "        Frame forward scan on: t1\n");
@@ -1956,8 +1970,9 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: y1\n" +
                             "        Hash\n" +
-                            "            Sort light lo: 1\n" +
+                            "            Async Top K workers: 1 lo: 0 hi: 1\n" +
                             "              keys: [LAST desc]\n" +
+                            "              filter: null\n" +
                             "                SelectedRecord\n" +
                             "                    PageFrame\n" +
                             "                        Row forward scan\n" +
@@ -3066,7 +3081,8 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "          keys: [ts]\n" +
                     "          values: [avg(x)]\n" +
                     "            SelectedRecord\n" +
-                    "                AsOf Join Fast Scan\n" +
+                    "                Async AsOf Join workers: 1\n" +
+                    "                  filter: null\n" +
                     "                    PageFrame\n" +
                     "                        Row forward scan\n" +
                     "                        Interval forward scan on: fromto\n" +
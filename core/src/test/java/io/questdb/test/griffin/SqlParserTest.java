@@ -1751,6 +1751,18 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableAsSelectBloomIndex() throws SqlException {
+        assertCreateTable(
+                "create batch 1000000 table X as (select-choose a, b, c from (select [a, b, c] from tab)), index(a type bloom), index(c type bloom)",
+                "create table X as ( select a, b, c from tab ), index(a type bloom), index(c type bloom)",
+                modelOf("tab")
+                        .col("a", ColumnType.LONG)
+                        .col("b", ColumnType.DOUBLE)
+                        .col("c", ColumnType.VARCHAR)
+        );
+    }
+
     @Test
     public void testCreateTableAsSelectIndex() throws SqlException {
         assertCreateTable(
@@ -1809,6 +1821,31 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableBloomIndex() throws SqlException {
+        assertCreateTable(
+                "create atomic table x (a SYMBOL capacity 128 cache index capacity 256, b LONG, c UUID, d VARCHAR, e INT, t TIMESTAMP" +
+                        ", index(b type bloom), index(c type bloom), index(d type bloom), index(e type bloom)) timestamp(t) partition by DAY",
+                "create table x (a symbol, b long, c uuid, d varchar, e int, t timestamp), " +
+                        "index(a), index(b type bloom), index(c TYPE bloom), index(d type BLOOM), index(e type bloom) " +
+                        "timestamp(t) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testCreateTableBloomIndexUnsupportedColumnType() throws Exception {
+        assertSyntaxError(
+                "create table x (a symbol, b double, t timestamp), index(b type bloom) timestamp(t)",
+                56,
+                "bloom filter indexes are supported only for INT, LONG, UUID and VARCHAR columns: b"
+        );
+        assertSyntaxError(
+                "create table x (a symbol, b long, t timestamp), index(b type hash) timestamp(t)",
+                61,
+                "'bloom' expected"
+        );
+    }
+
     @Test
     public void testCreateTableCacheCapacity() throws SqlException {
         assertCreateTable(
@@ -6304,7 +6341,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonWindowFunctionInWindowContext() throws Exception {
         assertException(
-                "select max(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
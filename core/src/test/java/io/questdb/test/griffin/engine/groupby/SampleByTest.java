@@ -3844,6 +3844,104 @@ public class SampleByTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSampleByFromToFillPrev() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, price double, qty int) timestamp(ts) partition by day");
+            insert(
+                    "insert into x values" +
+                            " ('2023-01-01T00:10:00.000000Z', 1.5, 10)," +
+                            " ('2023-01-01T00:20:00.000000Z', 2.5, 20)," +
+                            " ('2023-01-01T03:05:00.000000Z', 3.5, 30)," +
+                            " ('2023-01-01T03:40:00.000000Z', 4.5, 40)," +
+                            " ('2023-01-01T06:00:00.000000Z', 5.5, 50)"
+            );
+            assertQueryNoLeakCheck(
+                    "ts\tfirst\tmax\tsum\n" +
+                            "2023-01-01T00:00:00.000000Z\t1.5\t2.5\t30\n" +
+                            "2023-01-01T01:00:00.000000Z\t1.5\t2.5\t30\n" +
+                            "2023-01-01T02:00:00.000000Z\t1.5\t2.5\t30\n" +
+                            "2023-01-01T03:00:00.000000Z\t3.5\t4.5\t70\n" +
+                            "2023-01-01T04:00:00.000000Z\t3.5\t4.5\t70\n" +
+                            "2023-01-01T05:00:00.000000Z\t3.5\t4.5\t70\n" +
+                            "2023-01-01T06:00:00.000000Z\t5.5\t5.5\t50\n",
+                    "select ts, first(price), max(price), sum(qty) from x sample by 1h fill(prev)",
+                    "ts",
+                    false,
+                    false
+            );
+            assertQueryNoLeakCheck(
+                    "ts\tfirst\tsum\n" +
+                            "2022-12-31T22:00:00.000000Z\tnull\tnull\n" +
+                            "2022-12-31T23:00:00.000000Z\tnull\tnull\n" +
+                            "2023-01-01T00:00:00.000000Z\t1.5\t30\n" +
+                            "2023-01-01T01:00:00.000000Z\t1.5\t30\n" +
+                            "2023-01-01T02:00:00.000000Z\t1.5\t30\n" +
+                            "2023-01-01T03:00:00.000000Z\t3.5\t70\n" +
+                            "2023-01-01T04:00:00.000000Z\t3.5\t70\n" +
+                            "2023-01-01T05:00:00.000000Z\t3.5\t70\n" +
+                            "2023-01-01T06:00:00.000000Z\t5.5\t50\n" +
+                            "2023-01-01T07:00:00.000000Z\t5.5\t50\n",
+                    "select ts, first(price), sum(qty) from x sample by 1h from '2022-12-31T22:00:00.000000Z' to '2023-01-01T08:00:00.000000Z' fill(prev)",
+                    "ts",
+                    false,
+                    false
+            );
+            // no rows in the range
+            assertQueryNoLeakCheck(
+                    "ts\tfirst\n" +
+                            "2022-12-31T20:00:00.000000Z\tnull\n" +
+                            "2022-12-31T21:00:00.000000Z\tnull\n",
+                    "select ts, first(price) from x sample by 1h from '2022-12-31T20:00:00.000000Z' to '2022-12-31T22:00:00.000000Z' fill(prev)",
+                    "ts",
+                    false,
+                    false
+            );
+            assertPlanNoLeakCheck(
+                    "select ts, first(price), sum(qty) from x sample by 1h fill(prev)",
+                    "Fill Prev Range\n" +
+                            "  stride: '1h'\n" +
+                            "    Async Group By workers: 1\n" +
+                            "      keys: [ts]\n" +
+                            "      values: [first(price),sum(qty)]\n" +
+                            "      filter: null\n" +
+                            "        PageFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+            // filled buckets come in ascending order, so descending order needs a sort
+            assertQueryNoLeakCheck(
+                    "ts\tfirst\n" +
+                            "2023-01-01T06:00:00.000000Z\t5.5\n" +
+                            "2023-01-01T05:00:00.000000Z\t3.5\n" +
+                            "2023-01-01T04:00:00.000000Z\t3.5\n" +
+                            "2023-01-01T03:00:00.000000Z\t3.5\n" +
+                            "2023-01-01T02:00:00.000000Z\t1.5\n" +
+                            "2023-01-01T01:00:00.000000Z\t1.5\n" +
+                            "2023-01-01T00:00:00.000000Z\t1.5\n",
+                    "select ts, first(price) from x sample by 1h fill(prev) order by ts desc",
+                    "ts###DESC",
+                    true,
+                    false
+            );
+            // sampled sub-query keeps its fill
+            assertQueryNoLeakCheck(
+                    "ts\tsum\n" +
+                            "2023-01-01T00:00:00.000000Z\t60\n" +
+                            "2023-01-01T01:00:00.000000Z\t60\n" +
+                            "2023-01-01T02:00:00.000000Z\t60\n" +
+                            "2023-01-01T03:00:00.000000Z\t140\n" +
+                            "2023-01-01T04:00:00.000000Z\t140\n" +
+                            "2023-01-01T05:00:00.000000Z\t140\n" +
+                            "2023-01-01T06:00:00.000000Z\t100\n",
+                    "select ts, sum(qty) from (x union all x) timestamp(ts) sample by 1h fill(prev)",
+                    "ts",
+                    false,
+                    false
+            );
+        });
+    }
+
     @Test
     public void testSampleByFromToIsDisallowedForKeyedQueries() throws Exception {
         assertMemoryLeak(() -> {
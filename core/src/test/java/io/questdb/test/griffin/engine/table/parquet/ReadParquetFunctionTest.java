@@ -241,6 +241,88 @@ public class ReadParquetFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testParallelFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createParquetFile(100_000, 10_000);
+
+            // JIT-compiled filter
+            assertParallelQuery(
+                    "x where a_long > 0 and a_double < 0.5",
+                    "read_parquet('x.parquet') where a_long > 0 and a_double < 0.5"
+            );
+            // Java filter over var-size columns
+            assertParallelQuery(
+                    "x where a_varchar like '%a%' or a_str = 'ABCD'",
+                    "read_parquet('x.parquet') where a_varchar like '%a%' or a_str = 'ABCD'"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createParquetFile(100_000, 10_000);
+
+            assertParallelQuery(
+                    "select a_str, count(), sum(a_long), min(a_double), max(a_varchar) from x order by a_str",
+                    "select a_str, count(), sum(a_long), min(a_double), max(a_varchar) from read_parquet('x.parquet') order by a_str"
+            );
+            assertParallelQuery(
+                    "select count(), sum(a_long), max(a_ts) from x where a_double > 0.2",
+                    "select count(), sum(a_long), max(a_ts) from read_parquet('x.parquet') where a_double > 0.2"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelOrderBy() throws Exception {
+        assertMemoryLeak(() -> {
+            // 10 row groups, so that the merged records point to more frames than the pool caches initially
+            createParquetFile(100_000, 10_000);
+
+            assertParallelQuery(
+                    "select * from x order by a_long",
+                    "select * from read_parquet('x.parquet') order by a_long"
+            );
+            assertParallelQuery(
+                    "select * from x order by a_str, a_double desc, id",
+                    "select * from read_parquet('x.parquet') order by a_str, a_double desc, id"
+            );
+            assertParallelQuery(
+                    "select * from x order by a_long desc limit 100",
+                    "select * from read_parquet('x.parquet') order by a_long desc limit 100"
+            );
+        });
+    }
+
+    @Test
+    public void testRowGroupPruning() throws Exception {
+        assertMemoryLeak(() -> {
+            createParquetFile(100_000, 10_000);
+
+            assertSqlCursors(
+                    "x where id between 25_000 and 35_000",
+                    "read_parquet('x.parquet') where id between 25_000 and 35_000"
+            );
+            assertSqlCursors(
+                    "x where id > 95_000 and a_double < 0.5",
+                    "read_parquet('x.parquet') where id > 95_000 and a_double < 0.5"
+            );
+            assertSqlCursors(
+                    "x where a_ts in '1970-01-01T00:00:10;5s'",
+                    "read_parquet('x.parquet') where a_ts in '1970-01-01T00:00:10;5s'"
+            );
+            assertSqlCursors(
+                    "x where a_ts >= '1970-01-01T00:01:30' and id < 99_999",
+                    "read_parquet('x.parquet') where a_ts >= '1970-01-01T00:01:30' and id < 99_999"
+            );
+            // no row group matches
+            assertSql("count\n0\n", "select count() from read_parquet('x.parquet') where id < 0");
+            assertSql("count\n0\n", "select count() from read_parquet('x.parquet') where id > 50 and id < 10");
+        });
+    }
+
     protected static void assertSqlCursors(CharSequence expectedSql, CharSequence actualSql) throws SqlException {
         try (SqlCompiler sqlCompiler = engine.getSqlCompiler()) {
             TestUtils.assertSqlCursors(
@@ -253,4 +335,40 @@ public class ReadParquetFunctionTest extends AbstractCairoTest {
             );
         }
     }
+
+    private static void assertParallelQuery(String expectedSql, String actualSql) throws SqlException {
+        printSql("explain " + actualSql);
+        TestUtils.assertContains(sink, "Async");
+        assertSqlCursors(expectedSql, actualSql);
+    }
+
+    private static void createParquetFile(long rows, long rowGroupSize) throws SqlException {
+        ddl("create table x as (select" +
+                " x id," +
+                " rnd_long() a_long," +
+                " rnd_double(2) a_double," +
+                " rnd_str('ABCD', 'EFGH', 'IJKL', null) a_str," +
+                " rnd_varchar(1, 40, 1) a_varchar," +
+                " timestamp_sequence(0, 1000) a_ts" +
+                " from long_sequence(" + rows + "))");
+
+        try (
+                Path path = new Path();
+                PartitionDescriptor partitionDescriptor = new PartitionDescriptor();
+                TableReader reader = engine.getReader("x")
+        ) {
+            path.of(root).concat("x.parquet");
+            PartitionEncoder.populateFromTableReader(reader, partitionDescriptor, 0);
+            PartitionEncoder.encodeWithOptions(
+                    partitionDescriptor,
+                    path,
+                    PartitionEncoder.COMPRESSION_UNCOMPRESSED,
+                    true,
+                    rowGroupSize,
+                    0,
+                    PartitionEncoder.PARQUET_VERSION_V1
+            );
+            Assert.assertTrue(Files.exists(path.$()));
+        }
+    }
 }
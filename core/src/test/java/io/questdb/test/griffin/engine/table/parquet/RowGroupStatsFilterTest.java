@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatsFilter;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class RowGroupStatsFilterTest extends AbstractCairoTest {
+    private static final GenericRecordMetadata metadata = new GenericRecordMetadata();
+    private final RowGroupStatsFilter filter = new RowGroupStatsFilter();
+    private final QueryModel queryModel = QueryModel.FACTORY.newInstance();
+
+    @Test
+    public void testAliasedColumn() throws SqlException {
+        assertRanges("i:[6,100]\n", "t.i > 5 and t.i <= 100");
+    }
+
+    @Test
+    public void testBetween() throws SqlException {
+        assertRanges("l:[-10,10]\n", "l between 10 and -10");
+        assertRanges("ts:[1704067200000000,1706745600000000]\n", "ts between '2024-01-01' and '2024-02-01'");
+    }
+
+    @Test
+    public void testConstantOnLeft() throws SqlException {
+        assertRanges("l:[-9223372036854775808,41]\n", "42 > l");
+        assertRanges("l:[42,9223372036854775807]\n", "42 <= l");
+        assertRanges("i:[-9223372036854775808,-6]\n", "-5 > i");
+    }
+
+    @Test
+    public void testEquals() throws SqlException {
+        assertRanges("b:[3,3]\n", "b = 3");
+        assertRanges("d:[1000,1000]\n", "d = 1000");
+    }
+
+    @Test
+    public void testIgnoredPredicates() throws SqlException {
+        assertRanges("", "i > 5 or i < 0");
+        assertRanges("", "not (i > 5)");
+        assertRanges("", "dbl > 0.5");
+        assertRanges("", "s = 'abc'");
+        assertRanges("", "i > 5.5");
+        assertRanges("", "i > i2");
+        assertRanges("", "i = null");
+        assertRanges("", "d > '2024-01-01'");
+        assertRanges("", "abs(i) > 5");
+        assertRanges("", "i > $1");
+        assertRanges("", "ts in '2024-01;1d;1y;2'");
+    }
+
+    @Test
+    public void testIntersection() throws SqlException {
+        assertRanges("i:[6,9]\nl:[0,9223372036854775807]\n", "i > 5 and l >= 0 and i < 10 and dbl > 1");
+        assertRanges("i:[11,9]\n", "i > 10 and i < 10");
+    }
+
+    @Test
+    public void testOverflow() throws SqlException {
+        assertRanges("", "l > 9223372036854775807");
+        assertRanges("", "l >= -9223372036854775808");
+        assertRanges("l:[-9223372036854775807,9223372036854775807]\n", "l >= -9223372036854775807");
+    }
+
+    @Test
+    public void testTimestampEqualsPartial() throws SqlException {
+        assertRanges("ts:[1704067200000000,1706745599999999]\n", "ts = '2024-01'");
+        assertRanges("ts:[1704067200123000,1704067200123000]\n", "ts = '2024-01-01T00:00:00.123'");
+    }
+
+    @Test
+    public void testTimestampIn() throws SqlException {
+        assertRanges("ts:[1704067200000000,1704153599999999]\n", "ts in '2024-01-01'");
+    }
+
+    @Test
+    public void testTimestampRange() throws SqlException {
+        assertRanges("ts:[1704067200000001,1706745599999999]\n", "ts > '2024-01-01' and ts < '2024-02-01'");
+        assertRanges("ts:[1000,9223372036854775807]\n", "ts >= 1000");
+    }
+
+    private void assertRanges(String expected, String where) throws SqlException {
+        queryModel.clear();
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            filter.of(compiler.testParseExpression(where, queryModel), metadata);
+        }
+        final StringSink actual = new StringSink();
+        for (int i = 0, n = filter.size(); i < n; i++) {
+            actual.put(metadata.getColumnName(filter.getColumnIndex(i)))
+                    .put(":[").put(Long.toString(filter.getRangeLo(i)))
+                    .put(',').put(Long.toString(filter.getRangeHi(i)))
+                    .put("]\n");
+        }
+        TestUtils.assertEquals(expected, actual);
+    }
+
+    static {
+        metadata.add(new TableColumnMetadata("b", ColumnType.BYTE));
+        metadata.add(new TableColumnMetadata("i", ColumnType.INT));
+        metadata.add(new TableColumnMetadata("i2", ColumnType.INT));
+        metadata.add(new TableColumnMetadata("l", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("d", ColumnType.DATE));
+        metadata.add(new TableColumnMetadata("ts", ColumnType.TIMESTAMP));
+        metadata.add(new TableColumnMetadata("dbl", ColumnType.DOUBLE));
+        metadata.add(new TableColumnMetadata("s", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("u", ColumnType.UUID));
+        metadata.add(new TableColumnMetadata("v", ColumnType.VARCHAR));
+    }
+}
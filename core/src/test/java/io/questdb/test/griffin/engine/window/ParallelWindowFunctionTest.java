@@ -0,0 +1,45 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.window;
+
+import io.questdb.griffin.SqlExecutionContextImpl;
+import org.junit.Before;
+
+/**
+ * Runs window function tests with several shared workers, so that partitioned
+ * window functions that buffer rows go through the parallel window factory.
+ */
+public class ParallelWindowFunctionTest extends WindowFunctionTest {
+    private static final int WORKER_COUNT = 4;
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        sqlExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)
+                .with(securityContext, bindVariableService, null, -1, circuitBreaker);
+    }
+}
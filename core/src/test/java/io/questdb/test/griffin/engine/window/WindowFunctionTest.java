@@ -26,13 +26,13 @@ package io.questdb.test.griffin.engine.window;
 
 import io.questdb.PropertyKey;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.functions.window.*;
-import io.questdb.std.Chars;
-import io.questdb.std.IntList;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
+import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.tools.TestUtils;
@@ -2053,6 +2053,295 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testMinMaxCountOverFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (ts timestamp, i long, j double) timestamp(ts)");
+            insert("insert into tab values " +
+                    "(1, 0, 3), (2, 0, 1), (3, 1, 5), (4, 0, null), " +
+                    "(5, 1, 2), (6, 0, 4), (7, 1, 7), (8, 0, 2)");
+
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tmin\tmax\tcount\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t3.0\t3.0\t3.0\t1\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t1.0\t1.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\t5.0\t5.0\t5.0\t1\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\tnull\t1.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t2.0\t2.0\t5.0\t2\n" +
+                            "1970-01-01T00:00:00.000006Z\t0\t4.0\t1.0\t4.0\t2\n" +
+                            "1970-01-01T00:00:00.000007Z\t1\t7.0\t2.0\t7.0\t3\n" +
+                            "1970-01-01T00:00:00.000008Z\t0\t2.0\t2.0\t4.0\t2\n",
+                    "select ts, i, j, " +
+                            "min(j) over (partition by i order by ts rows between 2 preceding and current row), " +
+                            "max(j) over (partition by i order by ts rows between 2 preceding and current row), " +
+                            "count(j) over (partition by i order by ts rows between 2 preceding and current row) " +
+                            "from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tmin\tmax\tcount\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t3.0\tnull\tnull\t0\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t1.0\tnull\tnull\t0\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\t5.0\tnull\tnull\t0\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\tnull\t1.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t2.0\t5.0\t5.0\t1\n" +
+                            "1970-01-01T00:00:00.000006Z\t0\t4.0\t1.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:00.000007Z\t1\t7.0\t2.0\t5.0\t2\n" +
+                            "1970-01-01T00:00:00.000008Z\t0\t2.0\t4.0\t4.0\t1\n",
+                    "select ts, i, j, " +
+                            "min(j) over (partition by i order by ts range between 5 microseconds preceding and 2 microseconds preceding), " +
+                            "max(j) over (partition by i order by ts range between 5 microseconds preceding and 2 microseconds preceding), " +
+                            "count(j) over (partition by i order by ts range between 5 microseconds preceding and 2 microseconds preceding) " +
+                            "from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tmin\tmax\tcount\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t3.0\tnull\tnull\t0\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t1.0\t3.0\t3.0\t1\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\t5.0\t1.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\tnull\t1.0\t5.0\t3\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t2.0\t1.0\t5.0\t3\n" +
+                            "1970-01-01T00:00:00.000006Z\t0\t4.0\t1.0\t5.0\t4\n" +
+                            "1970-01-01T00:00:00.000007Z\t1\t7.0\t1.0\t5.0\t5\n" +
+                            "1970-01-01T00:00:00.000008Z\t0\t2.0\t1.0\t7.0\t6\n",
+                    "select ts, i, j, " +
+                            "min(j) over (order by ts rows between unbounded preceding and 1 preceding), " +
+                            "max(j) over (order by ts rows between unbounded preceding and 1 preceding), " +
+                            "count(j) over (order by ts rows between unbounded preceding and 1 preceding) " +
+                            "from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tmin\tmax\tcount\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t3.0\t1.0\t4.0\t4\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t1.0\t1.0\t4.0\t4\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\t5.0\t2.0\t7.0\t3\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\tnull\t1.0\t4.0\t4\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t2.0\t2.0\t7.0\t3\n" +
+                            "1970-01-01T00:00:00.000006Z\t0\t4.0\t1.0\t4.0\t4\n" +
+                            "1970-01-01T00:00:00.000007Z\t1\t7.0\t2.0\t7.0\t3\n" +
+                            "1970-01-01T00:00:00.000008Z\t0\t2.0\t1.0\t4.0\t4\n",
+                    "select ts, i, j, min(j) over (partition by i), max(j) over (partition by i), count(j) over (partition by i) from tab",
+                    "ts",
+                    true,
+                    false
+            );
+
+            // count(*) counts rows with null values too
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tcount\tcount1\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t3.0\t1\t0\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t1.0\t2\t1\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\t5.0\t1\t2\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\tnull\t3\t3\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t2.0\t2\t4\n" +
+                            "1970-01-01T00:00:00.000006Z\t0\t4.0\t3\t4\n" +
+                            "1970-01-01T00:00:00.000007Z\t1\t7.0\t3\t4\n" +
+                            "1970-01-01T00:00:00.000008Z\t0\t2.0\t3\t4\n",
+                    "select ts, i, j, " +
+                            "count(*) over (partition by i order by ts rows between 2 preceding and current row), " +
+                            "count(1) over (order by ts range between 4 microseconds preceding and 1 microsecond preceding) " +
+                            "from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertPlanNoLeakCheck(
+                    "select ts, i, j, count(*) over (order by ts range between 4 microseconds preceding and 1 microsecond preceding) from tab",
+                    "Window\n" +
+                            "  functions: [count(*) over (range between 4 preceding and 1 preceding)]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+
+            assertPlanNoLeakCheck(
+                    "select ts, i, j, max(j) over (partition by i order by ts rows between 2 preceding and current row) from tab",
+                    "Window\n" +
+                            "  functions: [max(j) over (partition by [i] rows between 2 preceding and current row)]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testMinMaxCountOverFramesRandomData() throws Exception {
+        assertMemoryLeak(() -> {
+            // step of 0 produces duplicate timestamps
+            ddl("create table tab as (" +
+                    "select timestamp_sequence(0, rnd_long(0, 20, 0)) ts, " +
+                    "rnd_int(0, 3, 5) i, " +
+                    "rnd_double(4) * 100 j, " +
+                    "rnd_long(-100, 100, 4) l " +
+                    "from long_sequence(2000)" +
+                    ") timestamp(ts)");
+
+            final LongList timestamps = new LongList();
+            final IntList keys = new IntList();
+            final DoubleList values = new DoubleList();
+            final DoubleList longValues = new DoubleList();
+            try (
+                    RecordCursorFactory factory = select("select ts, i, j, l from tab");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    timestamps.add(record.getTimestamp(0));
+                    keys.add(record.getInt(1));
+                    values.add(record.getDouble(2));
+                    final long l = record.getLong(3);
+                    longValues.add(l != Numbers.LONG_NULL ? l : Double.NaN);
+                }
+            }
+
+            final String[] frames = {
+                    "rows between 3 preceding and current row",
+                    "rows between 50 preceding and current row",
+                    "rows between 5 preceding and 2 preceding",
+                    "rows between unbounded preceding and 2 preceding",
+                    "rows between unbounded preceding and current row",
+                    "rows between current row and current row",
+                    "rows between unbounded preceding and unbounded following",
+                    "range between 20 preceding and current row",
+                    "range between 0 preceding and current row",
+                    "range between 500 preceding and current row",
+                    "range between 50 preceding and 10 preceding",
+                    "range between unbounded preceding and 10 preceding",
+                    "range between unbounded preceding and current row",
+            };
+
+            for (String partitionBy : new String[]{"", "partition by i "}) {
+                for (boolean desc : new boolean[]{false, true}) {
+                    for (String frame : frames) {
+                        final String over = "over (" + partitionBy + "order by ts" + (desc ? " desc " : " ") + frame + ")";
+                        final String query = "select ts, i, j, min(j) " + over + ", max(j) " + over + ", count(j) " + over + " from tab" + (desc ? " order by ts desc" : "");
+                        assertFrameMatchesBruteForce(query, frame, partitionBy.length() > 0, desc, timestamps, keys, values, false);
+                        // an extra two-pass function makes window factory cache the records and call pass1()
+                        assertFrameMatchesBruteForce(query.replace(" from tab", ", count(j) over () from tab"), frame, partitionBy.length() > 0, desc, timestamps, keys, values, false);
+                        // min() and max() over long values
+                        assertFrameMatchesBruteForce(query.replace("(j)", "(l)"), frame, partitionBy.length() > 0, desc, timestamps, keys, longValues, true);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMinMaxFrameBufferStaysBounded() throws Exception {
+        // 40KB is enough for a frame of a few rows, but not for a buffer that grows with the partition
+        node1.setProperty(PropertyKey.CAIRO_SQL_WINDOW_STORE_PAGE_SIZE, 4096);
+        node1.setProperty(PropertyKey.CAIRO_SQL_WINDOW_STORE_MAX_PAGES, 10);
+
+        try {
+            assertMemoryLeak(() -> {
+                ddl("create table tab (ts timestamp, i long, j long) timestamp(ts)");
+                insert("insert into tab select x::timestamp, x % 2, x from long_sequence(100000)");
+
+                // each increasing value drops the whole deque of max(), and each decreasing one of min()
+                assertSql(
+                        "max\tmin\n" +
+                                "100000\t-100000\n",
+                        "select max(max), min(min) from (" +
+                                "select max(j) over (rows between 3 preceding and current row), " +
+                                "min(-j) over (rows between 3 preceding and current row) min from tab" +
+                                ") where max is not null"
+                );
+                assertSql(
+                        "max\tmin\n" +
+                                "99998\t-99998\n",
+                        "select max(max), min(min) from (" +
+                                "select max(j) over (partition by i order by ts range between 10 microseconds preceding and 2 microseconds preceding), " +
+                                "min(-j) over (partition by i rows between 3 preceding and 1 preceding) min from tab" +
+                                ")"
+                );
+            });
+        } finally {
+            node1.setProperty(PropertyKey.CAIRO_SQL_WINDOW_STORE_PAGE_SIZE, 0);
+            node1.setProperty(PropertyKey.CAIRO_SQL_WINDOW_STORE_MAX_PAGES, 0);
+        }
+    }
+
+    @Test
+    public void testMinMaxOverLongAndTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (ts timestamp, i int, l long, t timestamp) timestamp(ts)");
+            // values above 2^53 can't be represented exactly as doubles
+            insert("insert into tab values " +
+                    "(1, 0, 9007199254740993, '2024-01-01T00:00:00.000001Z'), " +
+                    "(2, 0, 9007199254740995, null), " +
+                    "(3, 1, null, '2024-01-01T00:00:00.000003Z'), " +
+                    "(4, 0, 9007199254740994, '2024-01-01T00:00:00.000002Z'), " +
+                    "(5, 1, -9007199254740993, '2024-01-01T00:00:00.000005Z')");
+
+            assertQueryNoLeakCheck(
+                    "ts\ti\tmin\tmax\tmin1\tmax1\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t9007199254740993\t9007199254740993\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000001Z\n" +
+                            "1970-01-01T00:00:00.000002Z\t0\t9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000001Z\n" +
+                            "1970-01-01T00:00:00.000003Z\t1\tnull\tnull\t2024-01-01T00:00:00.000003Z\t2024-01-01T00:00:00.000003Z\n" +
+                            "1970-01-01T00:00:00.000004Z\t0\t9007199254740994\t9007199254740995\t2024-01-01T00:00:00.000002Z\t2024-01-01T00:00:00.000002Z\n" +
+                            "1970-01-01T00:00:00.000005Z\t1\t-9007199254740993\t-9007199254740993\t2024-01-01T00:00:00.000003Z\t2024-01-01T00:00:00.000005Z\n",
+                    "select ts, i, " +
+                            "min(l) over (partition by i rows between 1 preceding and current row), " +
+                            "max(l) over (partition by i rows between 1 preceding and current row), " +
+                            "min(t) over (partition by i order by ts range between 2 microseconds preceding and current row), " +
+                            "max(t) over (partition by i order by ts range between 2 microseconds preceding and current row) " +
+                            "from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "ts\tmin\tmax\tmin1\tmax1\n" +
+                            "1970-01-01T00:00:00.000001Z\t-9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000005Z\n" +
+                            "1970-01-01T00:00:00.000002Z\t-9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000005Z\n" +
+                            "1970-01-01T00:00:00.000003Z\t-9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000005Z\n" +
+                            "1970-01-01T00:00:00.000004Z\t-9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000005Z\n" +
+                            "1970-01-01T00:00:00.000005Z\t-9007199254740993\t9007199254740995\t2024-01-01T00:00:00.000001Z\t2024-01-01T00:00:00.000005Z\n",
+                    "select ts, min(l) over (), max(l) over (), min(t) over (), max(t) over () from tab",
+                    "ts",
+                    true,
+                    false
+            );
+
+            assertQueryNoLeakCheck(
+                    "ts\tmin\tmax\n" +
+                            "1970-01-01T00:00:00.000001Z\t9007199254740993\t2024-01-01T00:00:00.000001Z\n" +
+                            "1970-01-01T00:00:00.000002Z\t9007199254740993\t2024-01-01T00:00:00.000001Z\n" +
+                            "1970-01-01T00:00:00.000003Z\t9007199254740993\t2024-01-01T00:00:00.000003Z\n" +
+                            "1970-01-01T00:00:00.000004Z\t9007199254740993\t2024-01-01T00:00:00.000003Z\n" +
+                            "1970-01-01T00:00:00.000005Z\t-9007199254740993\t2024-01-01T00:00:00.000005Z\n",
+                    "select ts, min(l) over (order by ts rows between unbounded preceding and current row), " +
+                            "max(t) over (order by ts rows between unbounded preceding and current row) from tab",
+                    "ts",
+                    false,
+                    true
+            );
+
+            assertPlanNoLeakCheck(
+                    "select ts, max(t) over (partition by i rows between 1 preceding and current row) from tab",
+                    "Window\n" +
+                            "  functions: [max(t) over (partition by [i] rows between 1 preceding and current row)]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
     @Test
     public void testNegativeLimitWindowOrderedByNotTimestamp() throws Exception {
         // https://github.com/questdb/questdb/issues/4748
@@ -2231,6 +2520,27 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testPartitionedRunningSumAndAvgStartingWithNull() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (ts timestamp, s symbol, d double) timestamp(ts)");
+            insert("insert into tab values (1, 'a', null), (2, 'a', 1.0), (3, 'b', 2.0), (4, 'a', 3.0), (5, 'b', null)");
+
+            assertQueryNoLeakCheck(
+                    "ts\ts\tsum\tavg\n" +
+                            "1970-01-01T00:00:00.000001Z\ta\tnull\tnull\n" +
+                            "1970-01-01T00:00:00.000002Z\ta\t1.0\t1.0\n" +
+                            "1970-01-01T00:00:00.000003Z\tb\t2.0\t2.0\n" +
+                            "1970-01-01T00:00:00.000004Z\ta\t4.0\t2.0\n" +
+                            "1970-01-01T00:00:00.000005Z\tb\t2.0\t2.0\n",
+                    "select ts, s, sum(d) over (partition by s order by ts), avg(d) over (partition by s order by ts) from tab",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
     @Test
     public void testRankWithNoPartitionByAndNoOrderByWildcardLast() throws Exception {
         assertQuery(
@@ -2985,13 +3295,18 @@ public class WindowFunctionTest extends AbstractCairoTest {
                     true
             );
 
+            // partitioned unordered functions are evaluated in parallel when there are workers to share the job
+            final int workerCount = sqlExecutionContext.getSharedWorkerCount();
+            final String partitionedPlan = workerCount > 1
+                    ? "Async Window workers: " + workerCount + "\n  functions: "
+                    : "CachedWindow\n  unorderedFunctions: ";
             assertQueryAndPlan(
                     "select ts, i, j, " +
                             "avg(j) over (partition by i), " +
                             "sum(j) over (partition by i) " +
                             "from tab",
-                    "CachedWindow\n" +
-                            "  unorderedFunctions: [avg(j) over (partition by [i]),sum(j) over (partition by [i])]\n" +
+                    partitionedPlan +
+                            "[avg(j) over (partition by [i]),sum(j) over (partition by [i])]\n" +
                             "    PageFrame\n" +
                             "        Row forward scan\n" +
                             "        Frame forward scan on: tab\n",
@@ -3006,8 +3321,8 @@ public class WindowFunctionTest extends AbstractCairoTest {
                             "avg(j) over (partition by i), " +
                             "sum(j) over (partition by i) " +
                             "from tab order by ts desc",
-                    "CachedWindow\n" +
-                            "  unorderedFunctions: [avg(j) over (partition by [i]),sum(j) over (partition by [i])]\n" +
+                    partitionedPlan +
+                            "[avg(j) over (partition by [i]),sum(j) over (partition by [i])]\n" +
                             "    PageFrame\n" +
                             "        Row backward scan\n" +
                             "        Frame backward scan on: tab\n",
@@ -3313,6 +3628,61 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testWindowFunctionDoesntSortIfOrderByReferencesPartitionKey() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (ts timestamp, i long, j long) timestamp(ts)");
+
+            for (String func : FRAME_FUNCTIONS) {
+                // partition key is constant within partition, so order by it is a no-op
+                assertPlanNoLeakCheck(
+                        "select ts, i, j, #FUNCT_NAME(j) over (partition by i order by i, ts rows between 1 preceding and current row) from tab".replace("#FUNCT_NAME", func),
+                        "Window\n" +
+                                "  functions: [#FUNCT_NAME(j) over (partition by [i] rows between 1 preceding and current row)]\n".replace("#FUNCT_NAME", func.trim()) +
+                                "    PageFrame\n" +
+                                "        Row forward scan\n" +
+                                "        Frame forward scan on: tab\n"
+                );
+
+                // model order by is applied on top of window function
+                assertPlanNoLeakCheck(
+                        "select ts, i, j, #FUNCT_NAME(j) over (partition by i order by ts rows between 1 preceding and current row) from tab order by ts, i".replace("#FUNCT_NAME", func),
+                        "Sort\n" +
+                                "  keys: [ts, i]\n" +
+                                "    Window\n" +
+                                "      functions: [#FUNCT_NAME(j) over (partition by [i] rows between 1 preceding and current row)]\n".replace("#FUNCT_NAME", func.trim()) +
+                                "        PageFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n"
+                );
+            }
+
+            // order by partition key only still requires sorting
+            assertPlanNoLeakCheck(
+                    "select ts, i, j, avg(j) over (partition by i order by i) from tab",
+                    "CachedWindow\n" +
+                            "  orderedFunctions: [[i] => [avg(j) over (partition by [i] rows between unbounded preceding and current row )]]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+
+            insert("insert into tab values (1, 0, 1), (2, 1, 2), (3, 0, 3), (4, 1, 4), (5, 0, 5)");
+            assertQueryNoLeakCheck(
+                    "ts\ti\tj\tsum\n" +
+                            "1970-01-01T00:00:00.000001Z\t0\t1\t1.0\n" +
+                            "1970-01-01T00:00:00.000002Z\t1\t2\t2.0\n" +
+                            "1970-01-01T00:00:00.000003Z\t0\t3\t4.0\n" +
+                            "1970-01-01T00:00:00.000004Z\t1\t4\t6.0\n" +
+                            "1970-01-01T00:00:00.000005Z\t0\t5\t8.0\n",
+                    "select ts, i, j, sum(j) over (partition by i order by i desc, ts rows between 1 preceding and current row) from tab",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
     @Test
     public void testWindowFunctionFailsInNonWindowContext() throws Exception {
         assertMemoryLeak(() -> {
@@ -3320,7 +3690,15 @@ public class WindowFunctionTest extends AbstractCairoTest {
                     RowNumberFunctionFactory.class,
                     AvgDoubleWindowFunctionFactory.class,
                     SumDoubleWindowFunctionFactory.class,
-                    FirstValueDoubleWindowFunctionFactory.class};
+                    FirstValueDoubleWindowFunctionFactory.class,
+                    MinDoubleWindowFunctionFactory.class,
+                    MaxDoubleWindowFunctionFactory.class,
+                    MinLongWindowFunctionFactory.class,
+                    MaxLongWindowFunctionFactory.class,
+                    MinTimestampWindowFunctionFactory.class,
+                    MaxTimestampWindowFunctionFactory.class,
+                    CountDoubleWindowFunctionFactory.class,
+                    CountConstWindowFunctionFactory.class};
 
             int position = -1;
             ObjList<Function> args = new ObjList<>();
@@ -3448,6 +3826,83 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    private static void assertFrameMatchesBruteForce(
+            String query,
+            String frame,
+            boolean partitioned,
+            boolean desc,
+            LongList timestamps,
+            IntList keys,
+            DoubleList values,
+            boolean longValues
+    ) throws SqlException {
+        final boolean range = frame.startsWith("range");
+        final String[] parts = frame.split(" ");
+        final long lo = "unbounded".equals(parts[2]) ? Long.MAX_VALUE : ("current".equals(parts[2]) ? 0 : Long.parseLong(parts[2]));
+        final long hi = "unbounded".equals(parts[parts.length - 2]) ? Long.MIN_VALUE : ("current".equals(parts[parts.length - 2]) ? 0 : Long.parseLong(parts[parts.length - 2]));
+        final int n = timestamps.size();
+
+        try (
+                RecordCursorFactory factory = select(query);
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            final Record record = cursor.getRecord();
+            for (int k = 0; k < n; k++) {
+                Assert.assertTrue(query, cursor.hasNext());
+                final int row = desc ? n - 1 - k : k;
+                Assert.assertEquals(query, timestamps.getQuick(row), record.getTimestamp(0));
+
+                double min = Double.NaN;
+                double max = Double.NaN;
+                long count = 0;
+                // walk rows preceding the current one in window order, including the current row
+                long position = 0;
+                for (int m = k; m >= 0; m--) {
+                    final int other = desc ? n - 1 - m : m;
+                    if (partitioned && keys.getQuick(other) != keys.getQuick(row)) {
+                        continue;
+                    }
+                    final long distance = range ? Math.abs(timestamps.getQuick(row) - timestamps.getQuick(other)) : position;
+                    position++;
+                    if (hi != Long.MIN_VALUE && (distance < hi || distance > lo)) {
+                        continue;
+                    }
+                    final double value = values.getQuick(other);
+                    if (Numbers.isFinite(value)) {
+                        min = Numbers.isNull(min) ? value : Math.min(min, value);
+                        max = Numbers.isNull(max) ? value : Math.max(max, value);
+                        count++;
+                    }
+                }
+                if (hi == Long.MIN_VALUE) {
+                    // unbounded following, walk the remaining rows too
+                    for (int m = k + 1; m < n; m++) {
+                        final int other = desc ? n - 1 - m : m;
+                        if (partitioned && keys.getQuick(other) != keys.getQuick(row)) {
+                            continue;
+                        }
+                        final double value = values.getQuick(other);
+                        if (Numbers.isFinite(value)) {
+                            min = Numbers.isNull(min) ? value : Math.min(min, value);
+                            max = Numbers.isNull(max) ? value : Math.max(max, value);
+                            count++;
+                        }
+                    }
+                }
+
+                if (longValues) {
+                    Assert.assertEquals(query, Numbers.isNull(min) ? Numbers.LONG_NULL : (long) min, record.getLong(3));
+                    Assert.assertEquals(query, Numbers.isNull(max) ? Numbers.LONG_NULL : (long) max, record.getLong(4));
+                } else {
+                    Assert.assertEquals(query, min, record.getDouble(3), 0);
+                    Assert.assertEquals(query, max, record.getDouble(4), 0);
+                }
+                Assert.assertEquals(query, count, record.getLong(5));
+            }
+            Assert.assertFalse(query, cursor.hasNext());
+        }
+    }
+
     private static void normalizeSuffix(List<String> values) {
         int maxLength = 0;
         for (int i = 0, n = values.size(); i < n; i++) {
@@ -3490,7 +3945,7 @@ public class WindowFunctionTest extends AbstractCairoTest {
     }
 
     static {
-        FRAME_FUNCTIONS = Arrays.asList("avg", "sum", "first_value");
+        FRAME_FUNCTIONS = Arrays.asList("avg", "sum", "first_value", "min", "max");
 
         WINDOW_ONLY_FUNCTIONS = Arrays.asList("rank()", "row_number()", "first_value(1.0)");
 
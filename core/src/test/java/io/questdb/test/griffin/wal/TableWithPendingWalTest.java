@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableWithPendingWalTest extends AbstractCairoTest {
+
+    @Test
+    public void testInterleavedWalWriters() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, sym symbol, ts timestamp) timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName("x");
+            try (
+                    WalWriter walWriter1 = engine.getWalWriter(tableToken);
+                    WalWriter walWriter2 = engine.getWalWriter(tableToken)
+            ) {
+                appendRow(walWriter1, 1, "a", "2024-01-01T00:00:01");
+                walWriter1.commit();
+                appendRow(walWriter2, 2, "b", "2024-01-01T00:00:02");
+                walWriter2.commit();
+                appendRow(walWriter1, 3, "c", "2024-01-01T00:00:03");
+                appendRow(walWriter1, 4, "a", "2024-01-01T00:00:04");
+                walWriter1.commit();
+                // uncommitted rows must stay invisible
+                appendRow(walWriter2, 5, "z", "2024-01-01T00:00:05");
+            }
+
+            assertSql("i\tsym\tts\n", "x");
+            assertSql(
+                    "i\tsym\tts\n" +
+                            "1\ta\t2024-01-01T00:00:01.000000Z\n" +
+                            "2\tb\t2024-01-01T00:00:02.000000Z\n" +
+                            "3\tc\t2024-01-01T00:00:03.000000Z\n" +
+                            "4\ta\t2024-01-01T00:00:04.000000Z\n",
+                    "table_with_pending_wal('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testNonWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL");
+            try (RecordCursorFactory ignore = select("select * from table_with_pending_wal('x')")) {
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "table is not a WAL table: x");
+                Assert.assertEquals("select * from table_with_pending_wal(".length(), e.getPosition());
+            }
+        });
+    }
+
+    @Test
+    public void testPendingRowsVisible() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, s string, v varchar, sym symbol, ts timestamp) timestamp(ts) partition by DAY WAL");
+            insert("insert into x values (1, 'a', 'aa', 'x1', '2024-01-01T00:00:01')");
+            drainWalQueue();
+
+            insert("insert into x values (2, 'b', 'bb', 'x2', '2024-01-01T00:00:02')");
+            insert("insert into x values (3, null, null, null, '2024-01-01T00:00:00')");
+            // symbol value already known to the table
+            insert("insert into x values (4, 'd', 'dd', 'x1', '2024-01-01T00:00:03')");
+
+            final String expected = "i\ts\tv\tsym\tts\n" +
+                    "1\ta\taa\tx1\t2024-01-01T00:00:01.000000Z\n" +
+                    "2\tb\tbb\tx2\t2024-01-01T00:00:02.000000Z\n" +
+                    "3\t\t\t\t2024-01-01T00:00:00.000000Z\n" +
+                    "4\td\tdd\tx1\t2024-01-01T00:00:03.000000Z\n";
+
+            assertSql(
+                    "i\ts\tv\tsym\tts\n" +
+                            "1\ta\taa\tx1\t2024-01-01T00:00:01.000000Z\n",
+                    "x"
+            );
+            assertSql(expected, "table_with_pending_wal('x')");
+            assertSql("count\n3\n", "select count() from table_with_pending_wal('x') where sym like 'x%'");
+
+            drainWalQueue();
+
+            // once applied, rows come from the table only
+            assertSql(
+                    "i\ts\tv\tsym\tts\n" +
+                            "3\t\t\t\t2024-01-01T00:00:00.000000Z\n" +
+                            "1\ta\taa\tx1\t2024-01-01T00:00:01.000000Z\n" +
+                            "2\tb\tbb\tx2\t2024-01-01T00:00:02.000000Z\n" +
+                            "4\td\tdd\tx1\t2024-01-01T00:00:03.000000Z\n",
+                    "table_with_pending_wal('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testStopsAtPendingAlter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (i int, ts timestamp) timestamp(ts) partition by DAY WAL");
+            insert("insert into x values (1, '2024-01-01T00:00:01')");
+            ddl("alter table x add column j int");
+            insert("insert into x values (2, '2024-01-01T00:00:02', 20)");
+
+            assertSql(
+                    "i\tts\n" +
+                            "1\t2024-01-01T00:00:01.000000Z\n",
+                    "table_with_pending_wal('x')"
+            );
+
+            drainWalQueue();
+
+            assertSql(
+                    "i\tts\tj\n" +
+                            "1\t2024-01-01T00:00:01.000000Z\tnull\n" +
+                            "2\t2024-01-01T00:00:02.000000Z\t20\n",
+                    "table_with_pending_wal('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testTableDoesNotExist() throws Exception {
+        assertMemoryLeak(() -> {
+            try (RecordCursorFactory ignore = select("select * from table_with_pending_wal('x')")) {
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "table does not exist: x");
+                Assert.assertEquals("select * from table_with_pending_wal(".length(), e.getPosition());
+            }
+        });
+    }
+
+    private static void appendRow(WalWriter walWriter, int i, String sym, String ts) throws Exception {
+        TableWriter.Row row = walWriter.newRow(IntervalUtils.parseFloorPartialTimestamp(ts));
+        row.putInt(0, i);
+        row.putSym(1, sym);
+        row.append();
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.test.metrics;
 import io.questdb.metrics.*;
 import io.questdb.std.str.DirectUtf8Sink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class MetricsRegistryTest {
@@ -108,6 +109,28 @@ public class MetricsRegistryTest {
         assertScrapable(gauge, expected2);
     }
 
+    @Test
+    public void testGaugeWithOneLabel() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        LongGaugeWithOneLabel gauge = metricsRegistry.newLongGauge("gauge", "label0");
+
+        gauge.setValue("A", 3);
+        gauge.setValue("A", 5);
+        Assert.assertEquals(5, gauge.getValue("A"));
+        Assert.assertEquals(0, gauge.getValue("B"));
+
+        String expected1 = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge{label0=\"A\"} 5\n" +
+                "\n";
+        assertScrapable(gauge, expected1);
+
+        gauge.remove("A");
+
+        String expected2 = "# TYPE questdb_gauge gauge\n" +
+                "\n";
+        assertScrapable(gauge, expected2);
+    }
+
     @Test
     public void testNullCounter() {
         MetricsRegistry metricsRegistry = new NullMetricsRegistry();
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.std;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+
+public class IOURingFilesFacadeTest extends AbstractTest {
+    private static final int CHUNK_SIZE = 4096;
+
+    @Test
+    public void testFallbackOnRingCreateFailure() throws Exception {
+        final IOURingFacade rf = new IOURingFacadeImpl() {
+            @Override
+            public long create(int capacity) {
+                return -42;
+            }
+        };
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, rf, CHUNK_SIZE, 4), 10 * CHUNK_SIZE + 17);
+    }
+
+    @Test
+    public void testFallbackOnWriteError() throws Exception {
+        final TestRing ring = new TestRing(4, Long.MAX_VALUE, 3);
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, newFacade(ring), CHUNK_SIZE, 4), 10 * CHUNK_SIZE);
+        Assert.assertTrue(ring.writes > 3);
+    }
+
+    @Test
+    public void testFsync() throws Exception {
+        final TestRing ring = new TestRing(4, Long.MAX_VALUE, -1);
+        assertFsync(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, newFacade(ring), CHUNK_SIZE, 4));
+        Assert.assertEquals(2, ring.fsyncs);
+        Assert.assertTrue(ring.closed);
+    }
+
+    @Test
+    public void testFsyncError() throws Exception {
+        final TestRing ring = new TestRing(4, Long.MAX_VALUE, -1);
+        ring.failedFsync = 1;
+        try {
+            assertFsync(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, newFacade(ring), CHUNK_SIZE, 4));
+            Assert.fail();
+        } catch (CairoException e) {
+            TestUtils.assertContains(e.getFlyweightMessage(), "could not fsync");
+            Assert.assertEquals(5, e.getErrno());
+        }
+        Assert.assertEquals(2, ring.fsyncs);
+    }
+
+    @Test
+    public void testFsyncRing() throws Exception {
+        final IOURingFacade rf = IOURingFacadeImpl.INSTANCE;
+        Assume.assumeTrue(rf.isAvailable());
+        assertFsync(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, rf, CHUNK_SIZE, 4));
+    }
+
+    @Test
+    public void testRingReuse() throws Exception {
+        final TestRing ring = new TestRing(4, Long.MAX_VALUE, -1);
+        final int[] ringsCreated = {0};
+        final IOURingFacade rf = new IOURingFacadeImpl() {
+            @Override
+            public IOURing newInstance(int capacity) {
+                ringsCreated[0]++;
+                return ring;
+            }
+        };
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, rf, CHUNK_SIZE, 4), 4 * CHUNK_SIZE, 5);
+        Assert.assertEquals(1, ringsCreated[0]);
+        Assert.assertEquals(5 * 4, ring.writes);
+        Assert.assertTrue(ring.closed);
+    }
+
+    @Test
+    public void testShortWrites() throws Exception {
+        final TestRing ring = new TestRing(4, CHUNK_SIZE / 3, -1);
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, newFacade(ring), CHUNK_SIZE, 4), 8 * CHUNK_SIZE);
+        // every chunk is written in 4 steps
+        Assert.assertEquals(8 * 4, ring.writes);
+    }
+
+    @Test
+    public void testSmallWriteBypassesRing() throws Exception {
+        final TestRing ring = new TestRing(4, Long.MAX_VALUE, -1);
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, newFacade(ring), CHUNK_SIZE, 4), 2 * CHUNK_SIZE - 1);
+        Assert.assertEquals(0, ring.writes);
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        final IOURingFacade rf = IOURingFacadeImpl.INSTANCE;
+        Assume.assumeTrue(rf.isAvailable());
+        assertWrite(new IOURingFilesFacade(FilesFacadeImpl.INSTANCE, rf, CHUNK_SIZE, 4), 33 * CHUNK_SIZE + 123);
+    }
+
+    private static IOURingFacade newFacade(TestRing ring) {
+        return new IOURingFacadeImpl() {
+            @Override
+            public IOURing newInstance(int capacity) {
+                return ring;
+            }
+        };
+    }
+
+    private void assertFsync(IOURingFilesFacade ff) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (ff; Path path = new Path()) {
+                final long fd1 = ff.openRW(path.of(temp.newFile().getAbsolutePath()).$(), CairoConfiguration.O_NONE);
+                final long fd2 = ff.openRW(path.of(temp.newFile().getAbsolutePath()).$(), CairoConfiguration.O_NONE);
+                Assert.assertTrue(fd1 > -1 && fd2 > -1);
+                try {
+                    ff.fsync(fd1, fd2);
+                } finally {
+                    ff.close(fd1);
+                    ff.close(fd2);
+                }
+            }
+        });
+    }
+
+    private void assertWrite(IOURingFilesFacade ff, int len) throws Exception {
+        assertWrite(ff, len, 1);
+    }
+
+    private void assertWrite(IOURingFilesFacade ff, int len, int writeCount) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            File file = temp.newFile();
+            try (ff; Path path = new Path()) {
+                final long fd = ff.openRW(path.of(file.getAbsolutePath()).$(), CairoConfiguration.O_NONE);
+                Assert.assertTrue(fd > -1);
+                final long buf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+                final long readBuf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    final Rnd rnd = new Rnd();
+                    for (int i = 0; i < len; i++) {
+                        Unsafe.getUnsafe().putByte(buf + i, rnd.nextByte());
+                    }
+                    for (int i = 0; i < writeCount; i++) {
+                        // write at non-zero offset to check that chunk offsets are applied to the file as well
+                        Assert.assertEquals(len, ff.write(fd, buf, len, 11));
+                        Assert.assertEquals(len + 11, ff.length(fd));
+                        Assert.assertEquals(len, ff.read(fd, readBuf, len, 11));
+                        Assert.assertTrue(Vect.memeq(buf, readBuf, len));
+                    }
+                } finally {
+                    ff.close(fd);
+                    Unsafe.free(buf, len, MemoryTag.NATIVE_DEFAULT);
+                    Unsafe.free(readBuf, len, MemoryTag.NATIVE_DEFAULT);
+                }
+            }
+        });
+    }
+
+    // Executes writes and fsyncs synchronously on submit, optionally writing at most maxWriteLen bytes
+    // per operation and failing the write or fsync with the given index.
+    private static class TestRing implements IOURing {
+        private final int capacity;
+        private final LongList completions = new LongList();
+        private final int failedWrite;
+        private final long maxWriteLen;
+        private final LongList pending = new LongList();
+        private boolean closed;
+        private int completionIndex = -1;
+        private int failedFsync = -1;
+        private int fsyncs;
+        private long idSeq;
+        private int writes;
+
+        private TestRing(int capacity, long maxWriteLen, int failedWrite) {
+            this.capacity = capacity;
+            this.maxWriteLen = maxWriteLen;
+            this.failedWrite = failedWrite;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public long enqueueFsync(long fd) {
+            // fsync is marked with negative length
+            return enqueueWrite(fd, 0, 0, -1);
+        }
+
+        @Override
+        public long enqueueNop() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long enqueueRead(long fd, long offset, long bufPtr, int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long enqueueWrite(long fd, long offset, long bufPtr, int len) {
+            if (pending.size() / 5 == capacity) {
+                return -1;
+            }
+            final long id = idSeq++;
+            pending.add(id, fd, offset, bufPtr);
+            pending.add(len);
+            return id;
+        }
+
+        @Override
+        public long getCqeId() {
+            return completions.getQuick(2 * completionIndex);
+        }
+
+        @Override
+        public int getCqeRes() {
+            return (int) completions.getQuick(2 * completionIndex + 1);
+        }
+
+        @Override
+        public boolean nextCqe() {
+            return ++completionIndex < completions.size() / 2;
+        }
+
+        @Override
+        public int submit() {
+            return submitAndWait();
+        }
+
+        @Override
+        public int submitAndWait() {
+            completions.clear();
+            completionIndex = -1;
+            final int n = pending.size() / 5;
+            for (int i = 0; i < n; i++) {
+                final long res;
+                if (pending.getQuick(5 * i + 4) < 0) {
+                    res = fsyncs++ == failedFsync ? -5 : Files.fsync(pending.getQuick(5 * i + 1));
+                } else {
+                    final long len = Math.min(maxWriteLen, pending.getQuick(5 * i + 4));
+                    res = writes++ == failedWrite
+                            ? -5
+                            : Files.write(pending.getQuick(5 * i + 1), pending.getQuick(5 * i + 3), len, pending.getQuick(5 * i + 2));
+                }
+                completions.add(pending.getQuick(5 * i), res);
+            }
+            pending.clear();
+            return n;
+        }
+    }
+}
@@ -200,4 +200,57 @@ public class IOURingImplTest extends AbstractTest {
             }
         });
     }
+
+    @Test
+    public void testWriteAndFsync() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final int inFlight = 8;
+            final int chunkLen = 64;
+            final int len = inFlight * chunkLen;
+            File file = temp.newFile();
+
+            try (Path path = new Path()) {
+                long fd = Files.openRW(path.of(file.getAbsolutePath()).$());
+                Assert.assertTrue(fd > -1);
+                long buf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+                long readBuf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+
+                try (IOURing ring = rf.newInstance(Numbers.ceilPow2(inFlight + 1))) {
+                    for (int i = 0; i < len; i++) {
+                        Unsafe.getUnsafe().putByte(buf + i, (byte) ('a' + i % 26));
+                    }
+                    // enqueue chunks in reverse order, positional writes must not care
+                    for (int i = inFlight - 1; i > -1; i--) {
+                        Assert.assertTrue(ring.enqueueWrite(fd, (long) i * chunkLen, buf + (long) i * chunkLen, chunkLen) > -1);
+                    }
+                    Assert.assertEquals(inFlight, ring.submit());
+                    for (int i = 0; i < inFlight; i++) {
+                        while (!ring.nextCqe()) {
+                            Os.pause();
+                        }
+                        Assert.assertEquals(chunkLen, ring.getCqeRes());
+                    }
+
+                    long id = ring.enqueueFsync(fd);
+                    Assert.assertTrue(id > -1);
+                    Assert.assertEquals(1, ring.submitAndWait());
+                    Assert.assertTrue(ring.nextCqe());
+                    Assert.assertEquals(id, ring.getCqeId());
+                    Assert.assertEquals(0, ring.getCqeRes());
+
+                    Assert.assertEquals(len, Files.length(fd));
+                    Assert.assertEquals(len, Files.read(fd, readBuf, len, 0));
+                    for (int i = 0; i < len; i++) {
+                        Assert.assertEquals(Unsafe.getUnsafe().getByte(buf + i), Unsafe.getUnsafe().getByte(readBuf + i));
+                    }
+                } finally {
+                    Files.close(fd);
+                    Unsafe.free(buf, len, MemoryTag.NATIVE_DEFAULT);
+                    Unsafe.free(readBuf, len, MemoryTag.NATIVE_DEFAULT);
+                }
+            }
+        });
+    }
 }